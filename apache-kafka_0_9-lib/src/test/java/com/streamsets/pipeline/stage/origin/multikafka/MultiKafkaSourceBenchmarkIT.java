@@ -0,0 +1,169 @@
+/*
+ * Copyright 2019 StreamSets Inc.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package com.streamsets.pipeline.stage.origin.multikafka;
+
+import com.google.common.collect.ImmutableList;
+import com.streamsets.pipeline.api.Record;
+import com.streamsets.pipeline.config.DataFormat;
+import com.streamsets.pipeline.kafka.impl.TestUtil09;
+import com.streamsets.pipeline.lib.kafka.KafkaAutoOffsetReset;
+import com.streamsets.pipeline.lib.kafka.KafkaConstants;
+import com.streamsets.pipeline.lib.util.ThreadUtil;
+import com.streamsets.pipeline.sdk.PushSourceRunner;
+import com.streamsets.pipeline.sdk.StageRunner;
+import com.streamsets.testing.NetworkUtils;
+import kafka.server.KafkaServer;
+import kafka.zk.EmbeddedZookeeper;
+import org.apache.kafka.clients.producer.KafkaProducer;
+import org.apache.kafka.clients.producer.Producer;
+import org.apache.kafka.clients.producer.ProducerRecord;
+import org.apache.kafka.common.serialization.StringSerializer;
+import org.junit.AfterClass;
+import org.junit.Assert;
+import org.junit.BeforeClass;
+import org.junit.Test;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+import java.util.HashMap;
+import java.util.List;
+import java.util.Properties;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+
+/**
+ * Compares the throughput of the Kafka Multitopic Consumer with and without prefetching and parallel parsing, reading
+ * the same topic from an embedded broker as {@code KafkaNewConsumerITBase} does. The pipeline is emulated by a fixed
+ * delay per batch, which is the time the consumer is idle without prefetching.
+ */
+public class MultiKafkaSourceBenchmarkIT {
+  private static final Logger LOG = LoggerFactory.getLogger(MultiKafkaSourceBenchmarkIT.class);
+
+  private static final String TOPIC = "TestMultiKafkaSourceBenchmark";
+  private static final int NUM_PARTITIONS = 4;
+  private static final int NUM_MESSAGES = 200000;
+  private static final int MAX_BATCH_SIZE = 1000;
+  private static final int PIPELINE_MILLIS_PER_BATCH = 20;
+
+  private static EmbeddedZookeeper zookeeper;
+  private static KafkaServer kafkaServer;
+  private static int port;
+
+  @BeforeClass
+  public static void setUp() throws Exception {
+    zookeeper = new EmbeddedZookeeper();
+    String zkConnect = String.format("127.0.0.1:%d", zookeeper.port());
+    port = NetworkUtils.getRandomPort();
+    kafkaServer = TestUtil09.createKafkaServer(port, zkConnect, true, NUM_PARTITIONS);
+
+    Properties props = new Properties();
+    props.put("bootstrap.servers", "localhost:" + port);
+    props.put("acks", "all");
+    props.put("retries", 0);
+    props.put(KafkaConstants.KEY_SERIALIZER_CLASS_CONFIG, StringSerializer.class);
+    props.put(KafkaConstants.VALUE_SERIALIZER_CLASS_CONFIG, StringSerializer.class);
+    try (Producer<String, String> producer = new KafkaProducer<>(props)) {
+      for (int i = 0; i < NUM_MESSAGES; i++) {
+        producer.send(new ProducerRecord<>(TOPIC, i % NUM_PARTITIONS, Integer.toString(i), "Hello StreamSets " + i));
+      }
+    }
+  }
+
+  @AfterClass
+  public static void tearDown() {
+    if (kafkaServer != null) {
+      kafkaServer.shutdown();
+    }
+    if (zookeeper != null) {
+      zookeeper.shutdown();
+    }
+  }
+
+  private MultiKafkaBeanConfig getConfig(String consumerGroup, boolean prefetchNextBatch, int parserThreads) {
+    MultiKafkaBeanConfig conf = new MultiKafkaBeanConfig();
+    conf.consumerGroup = consumerGroup;
+    conf.maxBatchSize = MAX_BATCH_SIZE;
+    conf.batchWaitTime = 1000;
+    conf.produceSingleRecordPerMessage = false;
+    conf.kafkaOptions = new HashMap<>();
+    conf.brokerURI = "localhost:" + port;
+    conf.topicList = ImmutableList.of(TOPIC);
+    conf.numberOfThreads = 2;
+    conf.dataFormat = DataFormat.TEXT;
+    conf.dataFormatConfig.charset = "UTF-8";
+    conf.dataFormatConfig.removeCtrlChars = false;
+    conf.dataFormatConfig.textMaxLineLen = 4096;
+    conf.kafkaAutoOffsetReset = KafkaAutoOffsetReset.EARLIEST;
+    conf.timestampToSearchOffsets = 0;
+    conf.prefetchNextBatch = prefetchNextBatch;
+    conf.parserThreads = parserThreads;
+    return conf;
+  }
+
+  /**
+   * Reads the whole topic with a new consumer group and returns the records read per second.
+   */
+  private double readTopic(String consumerGroup, boolean prefetchNextBatch, int parserThreads) throws Exception {
+    MultiKafkaSource source = new MultiKafkaSource(getConfig(consumerGroup, prefetchNextBatch, parserThreads));
+    PushSourceRunner sourceRunner = new PushSourceRunner.Builder(MultiKafkaDSource.class, source)
+        .addOutputLane("lane")
+        .build();
+    sourceRunner.runInit();
+
+    AtomicInteger records = new AtomicInteger();
+    CountDownLatch allRead = new CountDownLatch(1);
+    long start = System.nanoTime();
+    try {
+      sourceRunner.runProduce(new HashMap<>(), MAX_BATCH_SIZE, new PushSourceRunner.Callback() {
+        @Override
+        public void processBatch(StageRunner.Output output) {
+          List<Record> batch = output.getRecords().get("lane");
+          ThreadUtil.sleep(PIPELINE_MILLIS_PER_BATCH);
+          if (records.addAndGet(batch.size()) >= NUM_MESSAGES) {
+            allRead.countDown();
+          }
+        }
+      });
+      Assert.assertTrue(allRead.await(5, TimeUnit.MINUTES));
+      long elapsed = System.nanoTime() - start;
+      sourceRunner.setStop();
+      sourceRunner.waitOnProduce();
+      Assert.assertEquals(NUM_MESSAGES, records.get());
+      return NUM_MESSAGES * (double) TimeUnit.SECONDS.toNanos(1) / elapsed;
+    } finally {
+      sourceRunner.runDestroy();
+    }
+  }
+
+  @Test
+  public void testThroughput() throws Exception {
+    // warms up the broker and the JVM
+    readTopic("warmup", false, 0);
+
+    double sequential = readTopic("sequential", false, 0);
+    double prefetch = readTopic("prefetch", true, 0);
+    double prefetchAndParse = readTopic("prefetchAndParse", true, 4);
+
+    LOG.info(
+        "Records per second, sequential: {}, prefetch: {}, prefetch and 4 parser threads: {}",
+        String.format("%.0f", sequential),
+        String.format("%.0f", prefetch),
+        String.format("%.0f", prefetchAndParse)
+    );
+  }
+
+}
@@ -137,6 +137,9 @@ public class AmazonS3Target extends BaseTarget {
 
   @Override
   public void destroy() {
+    if (fileHelper != null) {
+      fileHelper.destroy();
+    }
     s3TargetConfigBean.s3Config.destroy();
     if (transferManager != null) {
       // don't shut down s3 client again since it's already closed by s3Config.destroy().
@@ -159,11 +162,14 @@ public class AmazonS3Target extends BaseTarget {
         );
         uploads.addAll(partitionUploads);
       }
+      uploads.addAll(fileHelper.endBatch());
 
       for (UploadMetadata upload : uploads) {
         try {
           // Wait for given object to fully upload
-          upload.getUpload().waitForCompletion();
+          if (upload.getUpload() != null) {
+            upload.getUpload().waitForCompletion();
+          }
           if (!isErrorStage) {
             // Propagate events associated with this upload
             for (EventRecord event : upload.getEvents()) {
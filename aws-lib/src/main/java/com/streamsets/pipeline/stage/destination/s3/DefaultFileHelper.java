@@ -15,10 +15,12 @@
  */
 package com.streamsets.pipeline.stage.destination.s3;
 
+import com.amazonaws.services.s3.model.SSECustomerKey;
 import com.amazonaws.services.s3.transfer.TransferManager;
 import com.amazonaws.services.s3.transfer.Upload;
 import com.amazonaws.util.StringUtils;
 import com.google.common.collect.ImmutableList;
+import com.google.common.util.concurrent.ThreadFactoryBuilder;
 import com.streamsets.pipeline.api.EventRecord;
 import com.streamsets.pipeline.api.Record;
 import com.streamsets.pipeline.api.StageException;
@@ -27,22 +29,35 @@ import com.streamsets.pipeline.api.base.OnRecordErrorException;
 import com.streamsets.pipeline.api.service.dataformats.DataFormatGeneratorService;
 import com.streamsets.pipeline.api.service.dataformats.DataGenerator;
 import com.streamsets.pipeline.api.service.dataformats.SdcRecordGeneratorService;
+import com.streamsets.pipeline.lib.aws.SseOption;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
 
 import java.io.ByteArrayInputStream;
 import java.io.ByteArrayOutputStream;
 import java.io.IOException;
 import java.io.OutputStream;
 import java.util.ArrayList;
+import java.util.HashMap;
 import java.util.Iterator;
 import java.util.List;
+import java.util.Map;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.TimeUnit;
 import java.util.zip.GZIPOutputStream;
 
 final class DefaultFileHelper extends FileHelper {
+  private static final Logger LOG = LoggerFactory.getLogger(DefaultFileHelper.class);
+
   private static final String GZIP_EXTENSION = ".gz";
   private static final String DOT = ".";
 
   private int fileCount = 0;
   private final boolean isErrorStage;
+  // objects being streamed, by bucket and key prefix
+  private final Map<String, StreamingObject> openObjects;
+  private ExecutorService partUploadExecutor;
 
   DefaultFileHelper(
       Target.Context context,
@@ -52,6 +67,13 @@ final class DefaultFileHelper extends FileHelper {
   ) {
     super(context, s3TargetConfigBean, transferManager);
     this.isErrorStage = isErrorStage;
+    openObjects = new HashMap<>();
+    if (s3TargetConfigBean.streamingUpload) {
+      partUploadExecutor = Executors.newFixedThreadPool(
+          s3TargetConfigBean.tmConfig.threadPoolSize,
+          new ThreadFactoryBuilder().setNameFormat("S3 Part Upload-%d").setDaemon(true).build()
+      );
+    }
   }
 
   private String getUniqueDateWithIncrementalFileName(String keyPrefix) {
@@ -72,6 +94,10 @@ final class DefaultFileHelper extends FileHelper {
 
   @Override
   public List<UploadMetadata> handle(Iterator<Record> recordIterator, String bucket, String keyPrefix) throws IOException, StageException {
+    if (s3TargetConfigBean.streamingUpload) {
+      return handleStreaming(recordIterator, bucket, keyPrefix);
+    }
+
     //For uniqueness
     keyPrefix += System.currentTimeMillis() + "-";
 
@@ -145,6 +171,185 @@ final class DefaultFileHelper extends FileHelper {
     return uploads;
   }
 
+  private List<UploadMetadata> handleStreaming(
+      Iterator<Record> recordIterator,
+      String bucket,
+      String keyPrefix
+  ) throws IOException, StageException {
+    List<UploadMetadata> uploads = new ArrayList<>();
+    String objectId = bucket + s3TargetConfigBean.s3Config.delimiter + keyPrefix;
+    long maxObjectSize = s3TargetConfigBean.maxObjectSize * 1024 * 1024;
+
+    while (recordIterator.hasNext()) {
+      Record currentRecord = recordIterator.next();
+      StreamingObject object = openObjects.get(objectId);
+      if (object == null) {
+        object = new StreamingObject(bucket, keyPrefix);
+        openObjects.put(objectId, object);
+      }
+      try {
+        object.generator.write(currentRecord);
+        object.records.add(currentRecord);
+        object.recordCount++;
+      } catch (StageException e) {
+        errorRecordHandler.onError(
+            new OnRecordErrorException(
+                currentRecord,
+                e.getErrorCode(),
+                e.getParams()
+            )
+        );
+      } catch (IOException e) {
+        if (object.s3Out.isFailed()) {
+          // the object could not be written to Amazon S3, not an issue of the record
+          openObjects.remove(objectId);
+          object.discard();
+          throw e;
+        }
+        errorRecordHandler.onError(
+            new OnRecordErrorException(
+                currentRecord,
+                Errors.S3_32,
+                currentRecord.getHeader().getSourceId(),
+                e.toString(),
+                e
+            )
+        );
+      }
+      if (maxObjectSize > 0 && object.s3Out.getBytesWritten() >= maxObjectSize) {
+        openObjects.remove(objectId);
+        addIfNotNull(uploads, object.close());
+      }
+    }
+    return uploads;
+  }
+
+  @Override
+  List<UploadMetadata> endBatch() throws IOException, StageException {
+    List<UploadMetadata> uploads = new ArrayList<>();
+    long maxOpenTime = TimeUnit.SECONDS.toMillis(s3TargetConfigBean.maxObjectOpenTime);
+    long now = System.currentTimeMillis();
+    Iterator<StreamingObject> iterator = openObjects.values().iterator();
+    while (iterator.hasNext()) {
+      StreamingObject object = iterator.next();
+      if (maxOpenTime == 0 || now - object.openedAt >= maxOpenTime) {
+        iterator.remove();
+        addIfNotNull(uploads, object.close());
+      } else {
+        // the records of the batch are already in the object
+        object.records.clear();
+      }
+    }
+    return uploads;
+  }
+
+  @Override
+  void destroy() {
+    for (StreamingObject object : openObjects.values()) {
+      try {
+        object.close();
+        LOG.info("Completed object '{}' on destroy", object.s3Out.getKey());
+      } catch (IOException | StageException e) {
+        LOG.error(Errors.S3_21.getMessage(), e.toString(), e);
+        object.discard();
+      }
+    }
+    openObjects.clear();
+    if (partUploadExecutor != null) {
+      partUploadExecutor.shutdownNow();
+    }
+  }
+
+  private static void addIfNotNull(List<UploadMetadata> uploads, UploadMetadata upload) {
+    if (upload != null) {
+      uploads.add(upload);
+    }
+  }
+
+  private SSECustomerKey getCustomerKey() throws StageException {
+    // the metadata carries the key to start the upload, each part needs it too
+    if (s3TargetConfigBean.sseConfig.useSSE && s3TargetConfigBean.sseConfig.encryption == SseOption.CUSTOMER) {
+      SSECustomerKey customerKey = new SSECustomerKey(s3TargetConfigBean.sseConfig.customerKey.get());
+      customerKey.setMd5(s3TargetConfigBean.sseConfig.customerKeyMd5.get());
+      return customerKey;
+    }
+    return null;
+  }
+
+  /**
+   * Object streamed to Amazon S3 as its records are written, it may stay open for several batches.
+   */
+  private class StreamingObject {
+    private final String bucket;
+    private final S3MultipartOutputStream s3Out;
+    private final OutputStream out;
+    private final DataGenerator generator;
+    private final long openedAt;
+    // records of the current batch
+    private final List<Record> records;
+    private int recordCount;
+
+    StreamingObject(String bucket, String keyPrefix) throws IOException, StageException {
+      this.bucket = bucket;
+      //For uniqueness
+      String fileName = getUniqueDateWithIncrementalFileName(keyPrefix + System.currentTimeMillis() + "-");
+      s3Out = new S3MultipartOutputStream(
+          s3TargetConfigBean.s3Config.getS3Client(),
+          bucket,
+          fileName,
+          getObjectMetadata(),
+          getCustomerKey(),
+          (int) s3TargetConfigBean.tmConfig.minimumUploadPartSize,
+          s3TargetConfigBean.maxPartsInFlight,
+          partUploadExecutor
+      );
+      // wrap with gzip compression output stream if required
+      out = (s3TargetConfigBean.compress) ? new GZIPOutputStream(s3Out) : s3Out;
+      if (isErrorStage) {
+        generator = context.getService(SdcRecordGeneratorService.class).getGenerator(out);
+      } else {
+        generator = context.getService(DataFormatGeneratorService.class).getGenerator(out);
+      }
+      openedAt = System.currentTimeMillis();
+      records = new ArrayList<>();
+    }
+
+    /**
+     * Completes the object, returns <code>null</code> if it had no records and was discarded.
+     */
+    UploadMetadata close() throws IOException, StageException {
+      if (recordCount == 0) {
+        discard();
+        return null;
+      }
+      try {
+        generator.close();
+        out.close();
+      } catch (IOException e) {
+        discard();
+        throw e;
+      }
+
+      //Create and issue file close event record, but the events are thrown after the batch completion.
+      EventRecord eventRecord = S3Events.S3_OBJECT_WRITTEN
+          .create(context)
+          .with(BUCKET, bucket)
+          .with(OBJECT_KEY, s3Out.getKey())
+          .with(RECORD_COUNT, recordCount)
+          .create();
+      return new UploadMetadata(null, bucket, new ArrayList<>(records), ImmutableList.of(eventRecord));
+    }
+
+    void discard() {
+      s3Out.abort();
+      try {
+        generator.close();
+      } catch (IOException e) {
+        LOG.debug("Error closing the generator of discarded object '{}': {}", s3Out.getKey(), e.toString(), e);
+      }
+    }
+  }
+
   /**
    * Subclass of ByteArrayOutputStream which exposed the internal buffer to help avoid making a copy of the buffer.
    *
@@ -33,6 +33,7 @@ import org.slf4j.LoggerFactory;
 
 import java.io.IOException;
 import java.io.InputStream;
+import java.util.Collections;
 import java.util.Iterator;
 import java.util.List;
 
@@ -58,6 +59,20 @@ abstract class FileHelper {
 
   abstract List<UploadMetadata> handle(Iterator<Record> recordIterator, String bucket, String keyPrefix) throws IOException, StageException;
 
+  /**
+   * Called once all the records of the batch were handled, returns the uploads of the objects completed at the end of
+   * the batch.
+   */
+  List<UploadMetadata> endBatch() throws IOException, StageException {
+    return Collections.emptyList();
+  }
+
+  /**
+   * Called before the Amazon S3 client is closed.
+   */
+  void destroy() {
+  }
+
   protected ObjectMetadata getObjectMetadata() throws StageException {
     ObjectMetadata metadata = null;
     if (s3TargetConfigBean.sseConfig.useSSE) {
@@ -0,0 +1,269 @@
+/*
+ * Copyright 2019 StreamSets Inc.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package com.streamsets.pipeline.stage.destination.s3;
+
+import com.amazonaws.AmazonClientException;
+import com.amazonaws.services.s3.AmazonS3;
+import com.amazonaws.services.s3.model.AbortMultipartUploadRequest;
+import com.amazonaws.services.s3.model.CompleteMultipartUploadRequest;
+import com.amazonaws.services.s3.model.InitiateMultipartUploadRequest;
+import com.amazonaws.services.s3.model.ObjectMetadata;
+import com.amazonaws.services.s3.model.PartETag;
+import com.amazonaws.services.s3.model.PutObjectRequest;
+import com.amazonaws.services.s3.model.SSECustomerKey;
+import com.amazonaws.services.s3.model.UploadPartRequest;
+import com.google.common.annotations.VisibleForTesting;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+import java.io.ByteArrayInputStream;
+import java.io.IOException;
+import java.io.InterruptedIOException;
+import java.io.OutputStream;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Future;
+import java.util.concurrent.Semaphore;
+
+/**
+ * Writes an Amazon S3 object while it is being generated, in parts of a fixed size that are uploaded with a multipart
+ * upload as soon as they fill.
+ * <p/>
+ * At most <code>maxPartsInFlight</code> parts are uploaded at the same time, writing blocks until one of them completes,
+ * so the memory used is bounded by that many parts. An object smaller than a part is uploaded with a single request
+ * when the stream is closed. Closing the stream completes the object, an error aborts the multipart upload.
+ */
+final class S3MultipartOutputStream extends OutputStream {
+  private static final Logger LOG = LoggerFactory.getLogger(S3MultipartOutputStream.class);
+
+  // S3 rejects smaller parts, other than the last one
+  static final int MIN_PART_SIZE = 5 * 1024 * 1024;
+
+  private final AmazonS3 s3Client;
+  private final String bucket;
+  private final String key;
+  private final ObjectMetadata metadata;
+  private final SSECustomerKey customerKey;
+  private final int partSize;
+  private final ExecutorService executorService;
+  private final Semaphore partsInFlight;
+  private final List<Future<PartETag>> parts;
+  private byte[] buffer;
+  private int position;
+  private long bytesWritten;
+  private String uploadId;
+  private IOException failure;
+  private boolean closed;
+
+  S3MultipartOutputStream(
+      AmazonS3 s3Client,
+      String bucket,
+      String key,
+      ObjectMetadata metadata,
+      SSECustomerKey customerKey,
+      int partSize,
+      int maxPartsInFlight,
+      ExecutorService executorService
+  ) {
+    this.s3Client = s3Client;
+    this.bucket = bucket;
+    this.key = key;
+    this.metadata = (metadata != null) ? metadata : new ObjectMetadata();
+    this.customerKey = customerKey;
+    this.partSize = partSize;
+    this.executorService = executorService;
+    partsInFlight = new Semaphore(maxPartsInFlight);
+    parts = new ArrayList<>();
+    buffer = new byte[partSize];
+  }
+
+  String getKey() {
+    return key;
+  }
+
+  /**
+   * Returns the number of bytes written to the stream so far, uploaded or not.
+   */
+  long getBytesWritten() {
+    return bytesWritten;
+  }
+
+  @VisibleForTesting
+  int getAvailablePartUploads() {
+    return partsInFlight.availablePermits();
+  }
+
+  /**
+   * Returns if writing the object to Amazon S3 failed, the object is aborted and the stream can't be used anymore.
+   */
+  boolean isFailed() {
+    return failure != null;
+  }
+
+  @Override
+  public void write(int b) throws IOException {
+    ensureOpen();
+    if (position == buffer.length) {
+      uploadPart();
+    }
+    buffer[position++] = (byte) b;
+    bytesWritten++;
+  }
+
+  @Override
+  public void write(byte[] b, int off, int len) throws IOException {
+    ensureOpen();
+    while (len > 0) {
+      if (position == buffer.length) {
+        uploadPart();
+      }
+      int size = Math.min(len, buffer.length - position);
+      System.arraycopy(b, off, buffer, position, size);
+      position += size;
+      bytesWritten += size;
+      off += size;
+      len -= size;
+    }
+  }
+
+  private void ensureOpen() throws IOException {
+    if (failure != null) {
+      throw failure;
+    }
+    if (closed) {
+      throw new IOException("Stream closed");
+    }
+  }
+
+  private void uploadPart() throws IOException {
+    try {
+      if (uploadId == null) {
+        InitiateMultipartUploadRequest request = new InitiateMultipartUploadRequest(bucket, key, metadata);
+        uploadId = s3Client.initiateMultipartUpload(request).getUploadId();
+      }
+      partsInFlight.acquire();
+    } catch (InterruptedException ex) {
+      Thread.currentThread().interrupt();
+      throw fail(new InterruptedIOException("Interrupted while waiting to upload a part of " + key));
+    } catch (AmazonClientException ex) {
+      throw fail(new IOException(ex.toString(), ex));
+    }
+    // the permit is given back by the upload of the part, or here if the part isn't submitted
+    boolean submitted = false;
+    try {
+      // a part failed earlier, don't keep uploading
+      for (Future<PartETag> part : parts) {
+        if (part.isDone()) {
+          getPartETag(part);
+        }
+      }
+      UploadPartRequest request = new UploadPartRequest()
+          .withBucketName(bucket)
+          .withKey(key)
+          .withUploadId(uploadId)
+          .withPartNumber(parts.size() + 1)
+          .withInputStream(new ByteArrayInputStream(buffer, 0, position))
+          .withPartSize(position)
+          .withSSECustomerKey(customerKey);
+      parts.add(executorService.submit(() -> {
+        try {
+          return s3Client.uploadPart(request).getPartETag();
+        } finally {
+          partsInFlight.release();
+        }
+      }));
+      submitted = true;
+    } finally {
+      if (!submitted) {
+        partsInFlight.release();
+      }
+    }
+    buffer = new byte[partSize];
+    position = 0;
+  }
+
+  private PartETag getPartETag(Future<PartETag> part) throws IOException {
+    try {
+      return part.get();
+    } catch (InterruptedException ex) {
+      Thread.currentThread().interrupt();
+      throw fail(new InterruptedIOException("Interrupted while uploading " + key));
+    } catch (ExecutionException ex) {
+      throw fail(new IOException(ex.getCause().toString(), ex.getCause()));
+    }
+  }
+
+  @Override
+  public void close() throws IOException {
+    if (closed) {
+      return;
+    }
+    ensureOpen();
+    try {
+      if (uploadId == null) {
+        metadata.setContentLength(position);
+        s3Client.putObject(
+            new PutObjectRequest(bucket, key, new ByteArrayInputStream(buffer, 0, position), metadata)
+        );
+      } else {
+        if (position > 0) {
+          uploadPart();
+        }
+        List<PartETag> partETags = new ArrayList<>(parts.size());
+        for (Future<PartETag> part : parts) {
+          partETags.add(getPartETag(part));
+        }
+        s3Client.completeMultipartUpload(new CompleteMultipartUploadRequest(bucket, key, uploadId, partETags));
+      }
+    } catch (AmazonClientException ex) {
+      throw fail(new IOException(ex.toString(), ex));
+    } finally {
+      closed = true;
+      buffer = null;
+    }
+  }
+
+  /**
+   * Discards the object, the parts already uploaded are deleted.
+   */
+  void abort() {
+    if (!closed && failure == null) {
+      fail(new IOException("Object " + key + " aborted"));
+    }
+    closed = true;
+    buffer = null;
+  }
+
+  private IOException fail(IOException ex) {
+    if (failure == null) {
+      failure = ex;
+      for (Future<PartETag> part : parts) {
+        part.cancel(true);
+      }
+      if (uploadId != null) {
+        try {
+          s3Client.abortMultipartUpload(new AbortMultipartUploadRequest(bucket, key, uploadId));
+        } catch (AmazonClientException abortEx) {
+          LOG.warn("Could not abort the upload of object '{}': {}", key, abortEx.toString(), abortEx);
+        }
+      }
+    }
+    return ex;
+  }
+
+}
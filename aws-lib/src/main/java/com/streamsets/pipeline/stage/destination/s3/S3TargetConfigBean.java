@@ -119,6 +119,62 @@ public class S3TargetConfigBean {
   )
   public boolean compress;
 
+  @ConfigDef(
+      required = false,
+      type = ConfigDef.Type.BOOLEAN,
+      defaultValue = "false",
+      label = "Stream Objects",
+      description = "Uploads the objects in parts of the minimum upload part size while the records are written, " +
+          "instead of generating the whole object in memory before uploading it",
+      displayPosition = 240,
+      group = "S3"
+  )
+  public boolean streamingUpload;
+
+  @ConfigDef(
+      required = true,
+      type = ConfigDef.Type.NUMBER,
+      defaultValue = "0",
+      label = "Max Object Size (MB)",
+      description = "Completes the object and starts a new one once this size is written. Use 0 for no limit.",
+      displayPosition = 250,
+      group = "S3",
+      dependsOn = "streamingUpload",
+      triggeredByValue = "true",
+      min = 0
+  )
+  public long maxObjectSize;
+
+  @ConfigDef(
+      required = true,
+      type = ConfigDef.Type.NUMBER,
+      defaultValue = "0",
+      label = "Max Object Open Time (secs)",
+      description = "Keeps writing the records of the following batches to the same objects until they are open for " +
+          "this long. Use 0 to complete the objects at the end of each batch. Records in objects not completed when " +
+          "the pipeline stops unexpectedly are lost.",
+      displayPosition = 260,
+      group = "S3",
+      dependsOn = "streamingUpload",
+      triggeredByValue = "true",
+      min = 0
+  )
+  public long maxObjectOpenTime;
+
+  @ConfigDef(
+      required = true,
+      type = ConfigDef.Type.NUMBER,
+      defaultValue = "4",
+      label = "Max Parts In Flight",
+      description = "Parts of an object uploaded at the same time, writing waits when they are all being uploaded",
+      displayPosition = 8040,
+      group = "ADVANCED",
+      dependsOn = "streamingUpload",
+      triggeredByValue = "true",
+      min = 1
+  )
+  public int maxPartsInFlight = 4;
+
   public List<Stage.ConfigIssue> init(Stage.Context context, List<Stage.ConfigIssue> issues, boolean isErrorStage) {
     boolean isWholeFileFormat;
     if (isErrorStage) {
@@ -143,6 +199,19 @@ public class S3TargetConfigBean {
       );
     }
 
+    if (!isWholeFileFormat && streamingUpload && (tmConfig.minimumUploadPartSize < S3MultipartOutputStream.MIN_PART_SIZE
+        || tmConfig.minimumUploadPartSize > Integer.MAX_VALUE)) {
+      issues.add(
+          context.createConfigIssue(
+              Groups.ADVANCED.getLabel(),
+              S3_TM_CONFIG_PREFIX + "minimumUploadPartSize",
+              Errors.S3_07,
+              S3MultipartOutputStream.MIN_PART_SIZE,
+              Integer.MAX_VALUE
+          )
+      );
+    }
+
     //File Suffix should not contain '/' or start with '.'
     if (fileNameSuffix != null && (fileNameSuffix.startsWith(".") || fileNameSuffix.contains("/"))) {
       issues.add(
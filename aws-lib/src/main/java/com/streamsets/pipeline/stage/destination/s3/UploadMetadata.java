@@ -24,7 +24,7 @@ import java.util.List;
 public class UploadMetadata {
 
   /**
-   * Underlying Upload object with what is being sent to AWS.
+   * Underlying Upload object with what is being sent to AWS, null if the object was already written to AWS.
    */
   private final Upload upload;
 
@@ -36,6 +36,7 @@ import com.streamsets.pipeline.lib.util.AntPathMatcher;
 import org.json.JSONObject;
 
 import java.util.ArrayList;
+import java.util.Comparator;
 import java.util.Date;
 import java.util.HashMap;
 import java.util.List;
@@ -48,6 +49,18 @@ public class AmazonS3Util {
 
   public static final int BATCH_SIZE = 1000;
 
+  /**
+   * Orders objects by last modified time and, for the same time, by key.
+   */
+  static final Comparator<S3ObjectSummary> TIMESTAMP_ORDER = (o1, o2) -> {
+    int result = o1.getLastModified().compareTo(o2.getLastModified());
+    if(result != 0) {
+      return result;
+    }
+    //same modified time. Use name to sort
+    return o1.getKey().compareTo(o2.getKey());
+  };
+
   private AmazonS3Util() {}
 
   /**
@@ -140,14 +153,7 @@ public class AmazonS3Util {
     //Algorithm:
     // - Full scan all objects that match the file name pattern and which are later than the file in the offset
     // - Select the oldest "fetchSize" number of files and return them.
-    TreeSet<S3ObjectSummary> treeSet = new TreeSet<>((o1, o2) -> {
-      int result = o1.getLastModified().compareTo(o2.getLastModified());
-      if(result != 0) {
-        //same modified time. Use name to sort
-        return result;
-      }
-      return o1.getKey().compareTo(o2.getKey());
-    });
+    TreeSet<S3ObjectSummary> treeSet = new TreeSet<>(TIMESTAMP_ORDER);
 
     S3Objects s3ObjectSummaries = S3Objects
       .withPrefix(s3Client, s3ConfigBean.s3Config.bucket, s3ConfigBean.s3Config.commonPrefix);
@@ -177,7 +183,7 @@ public class AmazonS3Util {
     return new ArrayList<>(treeSet);
   }
 
-  private static boolean isEligible(S3ObjectSummary s, S3Offset s3Offset) {
+  static boolean isEligible(S3ObjectSummary s, S3Offset s3Offset) {
 
     //The object is eligible if
     //1. The timestamp is greater than that of the current object in offset
@@ -53,6 +53,50 @@ public class S3FileConfig {
   @ValueChooserModel(ObjectOrderingChooseValues.class)
   public ObjectOrdering objectOrdering = ObjectOrdering.LEXICOGRAPHICAL;
 
+  @ConfigDef(
+      required = false,
+      type = ConfigDef.Type.BOOLEAN,
+      defaultValue = "false",
+      label = "Incremental Listing",
+      description = "Lists only the sub-prefixes right under the fixed part of the prefix pattern that can have new " +
+          "objects, in parallel, instead of all the objects of the common prefix. Use it when objects are added to " +
+          "the latest sub-prefixes only, like date based ones.",
+      displayPosition = 111,
+      group = "#0",
+      dependsOn = "objectOrdering",
+      triggeredByValue = "TIMESTAMP"
+  )
+  public boolean incrementalListing = false;
+
+  @ConfigDef(
+      required = true,
+      type = ConfigDef.Type.NUMBER,
+      defaultValue = "3600",
+      label = "Sub-prefix Quiet Period (secs)",
+      description = "A sub-prefix with no new objects for this long and with all its objects read is not listed " +
+          "anymore, objects added to it later are read only after the pipeline restarts",
+      displayPosition = 112,
+      group = "#0",
+      dependsOn = "incrementalListing",
+      triggeredByValue = "true",
+      min = 0
+  )
+  public long partitionQuietPeriod = 3600;
+
+  @ConfigDef(
+      required = true,
+      type = ConfigDef.Type.NUMBER,
+      defaultValue = "4",
+      label = "Listing Threads",
+      description = "Number of sub-prefixes listed in parallel",
+      displayPosition = 113,
+      group = "#0",
+      dependsOn = "incrementalListing",
+      triggeredByValue = "true",
+      min = 1
+  )
+  public int listingThreads = 4;
+
   @ConfigDef(
     required = true,
     type = ConfigDef.Type.NUMBER,
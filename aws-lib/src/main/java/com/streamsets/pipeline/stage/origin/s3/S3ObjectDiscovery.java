@@ -0,0 +1,251 @@
+/*
+ * Copyright 2019 StreamSets Inc.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package com.streamsets.pipeline.stage.origin.s3;
+
+import com.amazonaws.AmazonClientException;
+import com.amazonaws.services.s3.AmazonS3;
+import com.amazonaws.services.s3.iterable.S3Objects;
+import com.amazonaws.services.s3.model.ListObjectsRequest;
+import com.amazonaws.services.s3.model.ObjectListing;
+import com.amazonaws.services.s3.model.S3ObjectSummary;
+import com.google.common.annotations.VisibleForTesting;
+import com.streamsets.pipeline.lib.executor.SafeScheduledExecutorService;
+import com.streamsets.pipeline.lib.util.AntPathMatcher;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.Collections;
+import java.util.List;
+import java.util.Map;
+import java.util.TreeSet;
+import java.util.concurrent.Callable;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Future;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Lists the objects to read in timestamp ordering without listing the whole common prefix on every spool cycle.
+ * <p/>
+ * The sub-prefixes right under the fixed part of the prefix pattern are the partitions, typically date based like
+ * <code>2019-05-01/</code>, <code>2019-05-02/</code>. They are found with a single delimited listing and only the
+ * partitions that can have objects later than the offset are then listed, in parallel. A partition is settled, and not
+ * listed anymore, once all its objects are older than the offset and no object was added to it during the quiet
+ * period. The last partition is always listed.
+ * <p/>
+ * The offset is the watermark, it is persisted with the pipeline offsets. The partitions are kept in memory, the first
+ * listing after the pipeline starts lists all of them.
+ */
+public class S3ObjectDiscovery {
+  private static final Logger LOG = LoggerFactory.getLogger(S3ObjectDiscovery.class);
+
+  private static final String LISTING_THREAD_PREFIX = "Amazon S3 Listing - ";
+
+  private final AmazonS3 s3Client;
+  private final S3ConfigBean s3ConfigBean;
+  private final AntPathMatcher pathMatcher;
+  private final String listingPrefix;
+  private final long quietPeriod;
+  private final int batchSize;
+  private final Map<String, Partition> partitions;
+  private final ExecutorService executorService;
+  private volatile List<String> listedPartitions;
+
+  S3ObjectDiscovery(AmazonS3 s3Client, S3ConfigBean s3ConfigBean, AntPathMatcher pathMatcher) {
+    this(s3Client, s3ConfigBean, pathMatcher, AmazonS3Util.BATCH_SIZE);
+  }
+
+  /**
+   * @param batchSize maximum number of keys returned by each listing request
+   */
+  @VisibleForTesting
+  S3ObjectDiscovery(AmazonS3 s3Client, S3ConfigBean s3ConfigBean, AntPathMatcher pathMatcher, int batchSize) {
+    this.s3Client = s3Client;
+    this.s3ConfigBean = s3ConfigBean;
+    this.pathMatcher = pathMatcher;
+    listingPrefix = s3ConfigBean.s3Config.commonPrefix + getFixedPrefix(
+        s3ConfigBean.s3FileConfig.prefixPattern,
+        s3ConfigBean.s3Config.delimiter,
+        pathMatcher
+    );
+    quietPeriod = TimeUnit.SECONDS.toMillis(s3ConfigBean.s3FileConfig.partitionQuietPeriod);
+    this.batchSize = batchSize;
+    partitions = new ConcurrentHashMap<>();
+    executorService = new SafeScheduledExecutorService(s3ConfigBean.s3FileConfig.listingThreads, LISTING_THREAD_PREFIX);
+    listedPartitions = Collections.emptyList();
+  }
+
+  public void destroy() {
+    executorService.shutdownNow();
+  }
+
+  /**
+   * Returns the part of the prefix pattern before its first sub-prefix with wildcards, with the trailing delimiter.
+   */
+  @VisibleForTesting
+  static String getFixedPrefix(String prefixPattern, String delimiter, AntPathMatcher pathMatcher) {
+    StringBuilder fixedPrefix = new StringBuilder();
+    int start = 0;
+    int end;
+    while ((end = prefixPattern.indexOf(delimiter, start)) >= 0) {
+      String segment = prefixPattern.substring(start, end);
+      if (pathMatcher.isPattern(segment)) {
+        break;
+      }
+      fixedPrefix.append(segment).append(delimiter);
+      start = end + delimiter.length();
+    }
+    return fixedPrefix.toString();
+  }
+
+  /**
+   * Lists objects in chronological order [lexicographical order if 2 files have same timestamp] which are later than
+   * or equal to the timestamp of the previous offset object, like
+   * {@link AmazonS3Util#listObjectsChronologically(AmazonS3, S3ConfigBean, AntPathMatcher, S3Offset, int)}.
+   *
+   * @param s3Offset current offset which provides the timestamp of the previous object
+   * @param fetchSize number of objects to fetch in one go
+   * @return the oldest <code>fetchSize</code> objects
+   * @throws AmazonClientException
+   */
+  List<S3ObjectSummary> listObjectsChronologically(S3Offset s3Offset, int fetchSize) {
+    long now = System.currentTimeMillis();
+    long watermark = Long.parseLong(s3Offset.getTimestamp());
+    TreeSet<S3ObjectSummary> treeSet = new TreeSet<>(AmazonS3Util.TIMESTAMP_ORDER);
+
+    // the objects right under the listing prefix come with the partitions
+    List<String> prefixes = new ArrayList<>();
+    ListObjectsRequest listObjectsRequest = new ListObjectsRequest()
+        .withBucketName(s3ConfigBean.s3Config.bucket)
+        .withPrefix(listingPrefix)
+        .withDelimiter(s3ConfigBean.s3Config.delimiter)
+        .withMaxKeys(batchSize);
+    ObjectListing objectListing = s3Client.listObjects(listObjectsRequest);
+    while (true) {
+      for (S3ObjectSummary s : objectListing.getObjectSummaries()) {
+        if (matches(s)) {
+          add(treeSet, s, s3Offset, fetchSize);
+        }
+      }
+      prefixes.addAll(objectListing.getCommonPrefixes());
+      if (!objectListing.isTruncated()) {
+        break;
+      }
+      objectListing = s3Client.listNextBatchOfObjects(objectListing);
+    }
+
+    partitions.keySet().retainAll(prefixes);
+    String lastPrefix = prefixes.isEmpty() ? null : Collections.max(prefixes);
+    List<Partition> toList = new ArrayList<>();
+    for (String prefix : prefixes) {
+      String remainingPrefix = prefix.substring(
+          s3ConfigBean.s3Config.commonPrefix.length(),
+          prefix.length() - s3ConfigBean.s3Config.delimiter.length()
+      );
+      if (!pathMatcher.matchStart(s3ConfigBean.s3FileConfig.prefixPattern, remainingPrefix)) {
+        continue;
+      }
+      Partition partition = partitions.computeIfAbsent(prefix, p -> new Partition(p, now));
+      if (prefix.equals(lastPrefix) || !partition.isSettled(watermark, now - quietPeriod)) {
+        toList.add(partition);
+      }
+    }
+    LOG.debug("Listing '{}' of '{}' partitions under '{}'", toList.size(), prefixes.size(), listingPrefix);
+
+    List<Callable<Collection<S3ObjectSummary>>> listings = new ArrayList<>(toList.size());
+    List<String> listed = new ArrayList<>(toList.size());
+    for (Partition partition : toList) {
+      listings.add(() -> partition.list(s3Offset, fetchSize));
+      listed.add(partition.prefix);
+    }
+    try {
+      for (Future<Collection<S3ObjectSummary>> future : executorService.invokeAll(listings)) {
+        for (S3ObjectSummary s : future.get()) {
+          add(treeSet, s, s3Offset, fetchSize);
+        }
+      }
+    } catch (ExecutionException ex) {
+      if (ex.getCause() instanceof RuntimeException) {
+        throw (RuntimeException) ex.getCause();
+      }
+      throw new AmazonClientException(ex.getCause());
+    } catch (InterruptedException ex) {
+      Thread.currentThread().interrupt();
+      throw new AmazonClientException("Interrupted while listing objects", ex);
+    }
+    listedPartitions = listed;
+
+    return new ArrayList<>(treeSet);
+  }
+
+  @VisibleForTesting
+  List<String> getListedPartitions() {
+    return listedPartitions;
+  }
+
+  private boolean matches(S3ObjectSummary s) {
+    // remainingPrefix can be empty for the objects created as folders, they have no data
+    String remainingPrefix = s.getKey().substring(s3ConfigBean.s3Config.commonPrefix.length());
+    return !remainingPrefix.isEmpty() && pathMatcher.match(s3ConfigBean.s3FileConfig.prefixPattern, remainingPrefix);
+  }
+
+  private static void add(TreeSet<S3ObjectSummary> treeSet, S3ObjectSummary s, S3Offset s3Offset, int fetchSize) {
+    if (AmazonS3Util.isEligible(s, s3Offset)) {
+      treeSet.add(s);
+      if (treeSet.size() > fetchSize) {
+        treeSet.pollLast();
+      }
+    }
+  }
+
+  private class Partition {
+    private final String prefix;
+    private final long firstSeen;
+    private volatile boolean listed;
+    // last modified time of the newest object matching the prefix pattern, 0 if there is none
+    private volatile long newest;
+
+    Partition(String prefix, long firstSeen) {
+      this.prefix = prefix;
+      this.firstSeen = firstSeen;
+    }
+
+    boolean isSettled(long watermark, long quietSince) {
+      long lastChange = (newest > 0) ? newest : firstSeen;
+      return listed && newest < watermark && lastChange < quietSince;
+    }
+
+    Collection<S3ObjectSummary> list(S3Offset s3Offset, int fetchSize) {
+      TreeSet<S3ObjectSummary> treeSet = new TreeSet<>(AmazonS3Util.TIMESTAMP_ORDER);
+      long newestInPartition = 0;
+      S3Objects s3ObjectSummaries = S3Objects
+          .withPrefix(s3Client, s3ConfigBean.s3Config.bucket, prefix)
+          .withBatchSize(batchSize);
+      for (S3ObjectSummary s : s3ObjectSummaries) {
+        if (matches(s)) {
+          newestInPartition = Math.max(newestInPartition, s.getLastModified().getTime());
+          add(treeSet, s, s3Offset, fetchSize);
+        }
+      }
+      newest = newestInPartition;
+      listed = true;
+      return treeSet;
+    }
+  }
+}
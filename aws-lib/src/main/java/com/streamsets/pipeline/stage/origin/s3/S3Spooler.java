@@ -42,6 +42,7 @@ public class S3Spooler {
   private final S3ConfigBean s3ConfigBean;
   private final AmazonS3 s3Client;
   private AntPathMatcher pathMatcher;
+  private S3ObjectDiscovery objectDiscovery;
   private AtomicBoolean filling;
   private volatile S3Offset lastElementAddedToQueue;
   private volatile boolean newDataAfterEventSent;
@@ -64,6 +65,10 @@ public class S3Spooler {
       objectQueue = new ArrayBlockingQueue<>(s3ConfigBean.s3FileConfig.poolSize);
       spoolQueueMeter = context.createMeter("spoolQueue");
       pathMatcher = new AntPathMatcher(s3ConfigBean.s3Config.delimiter);
+      if (s3ConfigBean.s3FileConfig.objectOrdering == ObjectOrdering.TIMESTAMP &&
+          s3ConfigBean.s3FileConfig.incrementalListing) {
+        objectDiscovery = new S3ObjectDiscovery(s3Client, s3ConfigBean, pathMatcher);
+      }
     } catch (Exception ex) {
       throw new RuntimeException(ex);
     }
@@ -74,6 +79,10 @@ public class S3Spooler {
       objectQueue.clear();
       objectQueue = null;
     }
+    if (objectDiscovery != null) {
+      objectDiscovery.destroy();
+      objectDiscovery = null;
+    }
   }
 
   private void findAndQueueObjects(
@@ -90,12 +99,16 @@ public class S3Spooler {
     ObjectOrdering objectOrdering = s3ConfigBean.s3FileConfig.objectOrdering;
     switch (objectOrdering) {
       case TIMESTAMP:
-        s3ObjectSummaries = AmazonS3Util.listObjectsChronologically(s3Client,
-            s3ConfigBean,
-            pathMatcher,
-            s3offset,
-            objectQueue.remainingCapacity()
-        );
+        if (objectDiscovery != null) {
+          s3ObjectSummaries = objectDiscovery.listObjectsChronologically(s3offset, objectQueue.remainingCapacity());
+        } else {
+          s3ObjectSummaries = AmazonS3Util.listObjectsChronologically(s3Client,
+              s3ConfigBean,
+              pathMatcher,
+              s3offset,
+              objectQueue.remainingCapacity()
+          );
+        }
         break;
       case LEXICOGRAPHICAL:
         s3ObjectSummaries = AmazonS3Util.listObjectsLexicographically(s3Client,
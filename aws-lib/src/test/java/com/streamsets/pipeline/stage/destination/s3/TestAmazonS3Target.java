@@ -252,6 +252,51 @@ public class TestAmazonS3Target {
 
   }
 
+  @Test
+  public void testStreamingUpload() throws Exception {
+    String prefix = "testStreamingUpload";
+    S3TargetConfigBean s3TargetConfigBean = createS3TargetConfigBean(prefix, "", false, "txt");
+    s3TargetConfigBean.streamingUpload = true;
+    AmazonS3Target amazonS3Target = new AmazonS3Target(s3TargetConfigBean, false);
+    TargetRunner targetRunner = new TargetRunner.Builder(AmazonS3DTarget.class, amazonS3Target)
+      .addService(DataFormatGeneratorService.class, new SdkJsonDataFormatGeneratorService())
+      .build();
+    targetRunner.runInit();
+
+    List<Record> logRecords = TestUtil.createStringRecords(BUCKET_NAME);
+    targetRunner.runWrite(logRecords);
+
+    TestUtil.assertStringRecords(s3client, BUCKET_NAME, prefix);
+    Assert.assertEquals(1, targetRunner.getEventRecords().size());
+    Assert.assertEquals(9, targetRunner.getEventRecords().get(0).get("/recordCount").getValueAsLong());
+
+    targetRunner.runDestroy();
+  }
+
+  @Test
+  public void testStreamingUploadKeepsObjectsOpen() throws Exception {
+    String prefix = "testStreamingUploadKeepsObjectsOpen";
+    S3TargetConfigBean s3TargetConfigBean = createS3TargetConfigBean(prefix, "", false, "txt");
+    s3TargetConfigBean.streamingUpload = true;
+    s3TargetConfigBean.maxObjectOpenTime = 3600;
+    AmazonS3Target amazonS3Target = new AmazonS3Target(s3TargetConfigBean, false);
+    TargetRunner targetRunner = new TargetRunner.Builder(AmazonS3DTarget.class, amazonS3Target)
+      .addService(DataFormatGeneratorService.class, new SdkJsonDataFormatGeneratorService())
+      .build();
+    targetRunner.runInit();
+
+    targetRunner.runWrite(TestUtil.createStringRecords(BUCKET_NAME));
+    targetRunner.runWrite(TestUtil.createStringRecords(BUCKET_NAME));
+
+    // the object is still open
+    Assert.assertTrue(s3client.listObjects(BUCKET_NAME, prefix).getObjectSummaries().isEmpty());
+    Assert.assertTrue(targetRunner.getEventRecords().isEmpty());
+
+    // and completed on destroy
+    targetRunner.runDestroy();
+    Assert.assertEquals(1, s3client.listObjects(BUCKET_NAME, prefix).getObjectSummaries().size());
+  }
+
   private AmazonS3Target createS3targetWithTextData(String commonPrefix, boolean useCompression, String suffix) {
     return createS3targetWithTextData(commonPrefix, "", useCompression, suffix);
   }
@@ -262,6 +307,15 @@ public class TestAmazonS3Target {
       boolean useCompression,
       String suffix
   ) {
+    return new AmazonS3Target(createS3TargetConfigBean(commonPrefix, partition, useCompression, suffix), false);
+  }
+
+  private S3TargetConfigBean createS3TargetConfigBean(
+      String commonPrefix,
+      String partition,
+      boolean useCompression,
+      String suffix
+  ) {
 
     S3ConnectionTargetConfig s3Config = new S3ConnectionTargetConfig();
     s3Config.region = AwsRegion.OTHER;
@@ -287,7 +341,7 @@ public class TestAmazonS3Target {
     s3TargetConfigBean.tmConfig.threadPoolSize = 3;
     s3TargetConfigBean.fileNameSuffix = suffix;
 
-    return new AmazonS3Target(s3TargetConfigBean, false);
+    return s3TargetConfigBean;
   }
 
   @Test
@@ -0,0 +1,175 @@
+/*
+ * Copyright 2019 StreamSets Inc.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package com.streamsets.pipeline.stage.destination.s3;
+
+import com.amazonaws.AmazonClientException;
+import com.amazonaws.services.s3.AmazonS3;
+import com.amazonaws.services.s3.model.AbortMultipartUploadRequest;
+import com.amazonaws.services.s3.model.CompleteMultipartUploadRequest;
+import com.amazonaws.services.s3.model.InitiateMultipartUploadRequest;
+import com.amazonaws.services.s3.model.InitiateMultipartUploadResult;
+import com.amazonaws.services.s3.model.PartETag;
+import com.amazonaws.services.s3.model.PutObjectRequest;
+import com.amazonaws.services.s3.model.UploadPartRequest;
+import com.amazonaws.services.s3.model.UploadPartResult;
+import com.google.common.io.ByteStreams;
+import org.junit.After;
+import org.junit.Assert;
+import org.junit.Before;
+import org.junit.Test;
+import org.mockito.ArgumentCaptor;
+import org.mockito.Mockito;
+
+import java.io.ByteArrayOutputStream;
+import java.io.IOException;
+import java.nio.charset.StandardCharsets;
+import java.util.Map;
+import java.util.TreeMap;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+
+public class TestS3MultipartOutputStream {
+  private static final String DATA = "0123456789abcdefghijklmnopqrstuvwxyz";
+
+  private ExecutorService executorService;
+  private AmazonS3 s3Client;
+  // uploaded parts by part number
+  private Map<Integer, String> parts;
+
+  @Before
+  public void setUp() {
+    executorService = Executors.newFixedThreadPool(2);
+    parts = new TreeMap<>();
+    s3Client = Mockito.mock(AmazonS3.class);
+    InitiateMultipartUploadResult initiateResult = new InitiateMultipartUploadResult();
+    initiateResult.setUploadId("upload");
+    Mockito.when(s3Client.initiateMultipartUpload(Mockito.any(InitiateMultipartUploadRequest.class)))
+        .thenReturn(initiateResult);
+    Mockito.when(s3Client.uploadPart(Mockito.any(UploadPartRequest.class))).thenAnswer(invocation -> {
+      UploadPartRequest request = (UploadPartRequest) invocation.getArguments()[0];
+      String part = new String(ByteStreams.toByteArray(request.getInputStream()), StandardCharsets.UTF_8);
+      synchronized (parts) {
+        parts.put(request.getPartNumber(), part);
+      }
+      UploadPartResult result = new UploadPartResult();
+      result.setPartNumber(request.getPartNumber());
+      result.setETag("etag" + request.getPartNumber());
+      return result;
+    });
+  }
+
+  @After
+  public void tearDown() {
+    executorService.shutdownNow();
+  }
+
+  private S3MultipartOutputStream createStream(int partSize) {
+    return new S3MultipartOutputStream(s3Client, "bucket", "key", null, null, partSize, 2, executorService);
+  }
+
+  @Test
+  public void testSmallObject() throws IOException {
+    S3MultipartOutputStream out = createStream(100);
+    out.write(DATA.getBytes(StandardCharsets.UTF_8));
+    out.close();
+
+    ArgumentCaptor<PutObjectRequest> request = ArgumentCaptor.forClass(PutObjectRequest.class);
+    Mockito.verify(s3Client).putObject(request.capture());
+    Assert.assertEquals("key", request.getValue().getKey());
+    Assert.assertEquals(DATA.length(), request.getValue().getMetadata().getContentLength());
+    Assert.assertEquals(
+        DATA,
+        new String(ByteStreams.toByteArray(request.getValue().getInputStream()), StandardCharsets.UTF_8)
+    );
+    Mockito.verify(s3Client, Mockito.never()).initiateMultipartUpload(Mockito.any());
+  }
+
+  @Test
+  public void testMultipartObject() throws IOException {
+    S3MultipartOutputStream out = createStream(10);
+    byte[] data = DATA.getBytes(StandardCharsets.UTF_8);
+    out.write(data, 0, 5);
+    for (int i = 5; i < 15; i++) {
+      out.write(data[i]);
+    }
+    out.write(data, 15, data.length - 15);
+    Assert.assertEquals(data.length, out.getBytesWritten());
+    out.close();
+
+    ArgumentCaptor<CompleteMultipartUploadRequest> request =
+        ArgumentCaptor.forClass(CompleteMultipartUploadRequest.class);
+    Mockito.verify(s3Client).completeMultipartUpload(request.capture());
+    Assert.assertEquals("upload", request.getValue().getUploadId());
+    Assert.assertEquals(4, request.getValue().getPartETags().size());
+    for (int i = 0; i < 4; i++) {
+      PartETag partETag = request.getValue().getPartETags().get(i);
+      Assert.assertEquals(i + 1, partETag.getPartNumber());
+      Assert.assertEquals("etag" + (i + 1), partETag.getETag());
+    }
+
+    ByteArrayOutputStream uploaded = new ByteArrayOutputStream();
+    for (String part : parts.values()) {
+      uploaded.write(part.getBytes(StandardCharsets.UTF_8));
+    }
+    Assert.assertEquals(DATA, new String(uploaded.toByteArray(), StandardCharsets.UTF_8));
+    Mockito.verify(s3Client, Mockito.never()).putObject(Mockito.any(PutObjectRequest.class));
+  }
+
+  @Test
+  public void testFailedPartAbortsUpload() throws IOException {
+    Mockito.when(s3Client.uploadPart(Mockito.any(UploadPartRequest.class)))
+        .thenThrow(new AmazonClientException("failed"));
+    S3MultipartOutputStream out = createStream(10);
+    out.write(DATA.getBytes(StandardCharsets.UTF_8), 0, 15);
+    try {
+      out.close();
+      Assert.fail();
+    } catch (IOException ex) {
+      Assert.assertTrue(out.isFailed());
+    }
+    Mockito.verify(s3Client).abortMultipartUpload(Mockito.any(AbortMultipartUploadRequest.class));
+    Mockito.verify(s3Client, Mockito.never()).completeMultipartUpload(Mockito.any());
+
+    try {
+      out.write(1);
+      Assert.fail();
+    } catch (IOException ex) {
+      // expected
+    }
+  }
+
+  @Test
+  public void testFailedPartReleasesUploadOfNextPart() throws Exception {
+    Mockito.when(s3Client.uploadPart(Mockito.any(UploadPartRequest.class)))
+        .thenThrow(new AmazonClientException("failed"));
+    S3MultipartOutputStream out = createStream(10);
+    out.write(DATA.getBytes(StandardCharsets.UTF_8), 0, 15);
+    // wait for the first part to fail
+    while (out.getAvailablePartUploads() < 2) {
+      Thread.sleep(10);
+    }
+    try {
+      // the next part isn't uploaded as the first one failed
+      out.write(DATA.getBytes(StandardCharsets.UTF_8), 15, 10);
+      Assert.fail();
+    } catch (IOException ex) {
+      Assert.assertTrue(out.isFailed());
+    }
+    Assert.assertEquals(2, out.getAvailablePartUploads());
+    Mockito.verify(s3Client, Mockito.times(1)).uploadPart(Mockito.any(UploadPartRequest.class));
+  }
+
+}
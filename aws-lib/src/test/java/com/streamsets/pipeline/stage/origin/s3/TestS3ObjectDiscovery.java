@@ -0,0 +1,204 @@
+/*
+ * Copyright 2019 StreamSets Inc.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package com.streamsets.pipeline.stage.origin.s3;
+
+import com.amazonaws.auth.AWSStaticCredentialsProvider;
+import com.amazonaws.auth.BasicAWSCredentials;
+import com.amazonaws.client.builder.AwsClientBuilder;
+import com.amazonaws.services.s3.AmazonS3;
+import com.amazonaws.services.s3.AmazonS3ClientBuilder;
+import com.amazonaws.services.s3.model.S3ObjectSummary;
+import com.google.common.collect.ImmutableList;
+import com.streamsets.pipeline.lib.util.AntPathMatcher;
+import com.streamsets.pipeline.stage.common.AmazonS3TestSuite;
+import com.streamsets.pipeline.stage.common.TestUtil;
+import org.junit.After;
+import org.junit.AfterClass;
+import org.junit.Assert;
+import org.junit.Before;
+import org.junit.BeforeClass;
+import org.junit.Test;
+
+import java.util.List;
+import java.util.UUID;
+import java.util.stream.Collectors;
+
+public class TestS3ObjectDiscovery extends AmazonS3TestSuite {
+  // small enough for every listing of the tests to be paginated
+  private static final int BATCH_SIZE = 2;
+
+  private static AmazonS3 s3client;
+
+  private String bucket;
+  private S3ObjectDiscovery discovery;
+
+  @BeforeClass
+  public static void setUpClass() throws Exception {
+    setupS3();
+
+    BasicAWSCredentials credentials = new BasicAWSCredentials("foo", "bar");
+    s3client = AmazonS3ClientBuilder
+        .standard()
+        .withCredentials(new AWSStaticCredentialsProvider(credentials))
+        .withEndpointConfiguration(new AwsClientBuilder.EndpointConfiguration("http://localhost:" + port, null))
+        .withPathStyleAccessEnabled(true)
+        .withChunkedEncodingDisabled(true)
+        .build();
+  }
+
+  @AfterClass
+  public static void tearDownClass() {
+    teardownS3();
+  }
+
+  @Before
+  public void setUp() {
+    bucket = UUID.randomUUID().toString();
+    TestUtil.createBucket(s3client, bucket);
+  }
+
+  @After
+  public void tearDown() {
+    if (discovery != null) {
+      discovery.destroy();
+    }
+  }
+
+  // the last modified time is set by the server, with a precision of a second at worst
+  private void putObject(String key, boolean later) throws InterruptedException {
+    if (later) {
+      Thread.sleep(1100);
+    }
+    s3client.putObject(bucket, key, key);
+  }
+
+  private S3Offset offsetAfter(String key) {
+    S3ObjectSummary s = s3client.listObjects(bucket, key).getObjectSummaries().get(0);
+    return new S3Offset(key, S3Constants.MINUS_ONE, s.getETag(), String.valueOf(s.getLastModified().getTime()));
+  }
+
+  private S3ObjectDiscovery createDiscovery(String prefixPattern, long quietPeriod) {
+    S3ConfigBean config = new S3ConfigBean();
+    config.s3FileConfig = new S3FileConfig();
+    config.s3FileConfig.objectOrdering = ObjectOrdering.TIMESTAMP;
+    config.s3FileConfig.prefixPattern = prefixPattern;
+    config.s3FileConfig.incrementalListing = true;
+    config.s3FileConfig.partitionQuietPeriod = quietPeriod;
+    config.s3FileConfig.listingThreads = 2;
+    config.s3Config = new S3ConnectionSourceConfig();
+    config.s3Config.bucket = bucket;
+    config.s3Config.commonPrefix = "logs/";
+    config.s3Config.delimiter = "/";
+    return new S3ObjectDiscovery(s3client, config, new AntPathMatcher("/"), BATCH_SIZE);
+  }
+
+  private static List<String> keys(List<S3ObjectSummary> summaries) {
+    return summaries.stream().map(S3ObjectSummary::getKey).collect(Collectors.toList());
+  }
+
+  @Test
+  public void testFixedPrefix() {
+    AntPathMatcher pathMatcher = new AntPathMatcher("/");
+    Assert.assertEquals("", S3ObjectDiscovery.getFixedPrefix("*.txt", "/", pathMatcher));
+    Assert.assertEquals("", S3ObjectDiscovery.getFixedPrefix("**/*.txt", "/", pathMatcher));
+    Assert.assertEquals("a/b/", S3ObjectDiscovery.getFixedPrefix("a/b/2019-*/*.txt", "/", pathMatcher));
+    Assert.assertEquals("a/", S3ObjectDiscovery.getFixedPrefix("a/b", "/", pathMatcher));
+  }
+
+  @Test
+  public void testListObjectsChronologically() throws Exception {
+    putObject("logs/other/d.txt", false);
+    putObject("logs/e.txt", false);
+    putObject("logs/f.txt", false);
+    putObject("logs/2019-01-03/c.txt", false);
+    putObject("logs/2019-01-02/b.txt", true);
+    putObject("logs/2019-01-01/a.txt", true);
+    putObject("logs/2019-01-01/b.log", false);
+    putObject("logs/2019-01-01/c.log", false);
+
+    discovery = createDiscovery("2019-*/*.txt", 3600);
+
+    S3Offset s3Offset = new S3Offset("", S3Constants.ZERO, "", S3Constants.ZERO);
+    List<S3ObjectSummary> summaries = discovery.listObjectsChronologically(s3Offset, 10);
+    Assert.assertEquals(
+        ImmutableList.of("logs/2019-01-03/c.txt", "logs/2019-01-02/b.txt", "logs/2019-01-01/a.txt"),
+        keys(summaries)
+    );
+    Assert.assertEquals(
+        ImmutableList.of("logs/2019-01-01/", "logs/2019-01-02/", "logs/2019-01-03/"),
+        discovery.getListedPartitions()
+    );
+
+    // bounded to the fetch size
+    summaries = discovery.listObjectsChronologically(s3Offset, 2);
+    Assert.assertEquals(ImmutableList.of("logs/2019-01-03/c.txt", "logs/2019-01-02/b.txt"), keys(summaries));
+
+    summaries = discovery.listObjectsChronologically(offsetAfter("logs/2019-01-02/b.txt"), 10);
+    Assert.assertEquals(ImmutableList.of("logs/2019-01-01/a.txt"), keys(summaries));
+  }
+
+  @Test
+  public void testSettledPartitionsAreNotListed() throws Exception {
+    putObject("logs/2019-01-01/a.txt", false);
+    putObject("logs/2019-01-02/b.txt", true);
+    putObject("logs/2019-01-03/c.txt", true);
+
+    discovery = createDiscovery("*/*.txt", 0);
+
+    S3Offset s3Offset = new S3Offset("", S3Constants.ZERO, "", S3Constants.ZERO);
+    List<S3ObjectSummary> summaries = discovery.listObjectsChronologically(s3Offset, 10);
+    Assert.assertEquals(3, summaries.size());
+    Assert.assertEquals(3, discovery.getListedPartitions().size());
+
+    // all the objects before the offset were read, only the last partition is listed
+    s3Offset = offsetAfter("logs/2019-01-03/c.txt");
+    summaries = discovery.listObjectsChronologically(s3Offset, 10);
+    Assert.assertTrue(summaries.isEmpty());
+    Assert.assertEquals(ImmutableList.of("logs/2019-01-03/"), discovery.getListedPartitions());
+
+    // new partitions are listed
+    putObject("logs/2019-01-04/d.txt", true);
+    summaries = discovery.listObjectsChronologically(s3Offset, 10);
+    Assert.assertEquals(ImmutableList.of("logs/2019-01-04/d.txt"), keys(summaries));
+    Assert.assertEquals(
+        ImmutableList.of("logs/2019-01-03/", "logs/2019-01-04/"),
+        discovery.getListedPartitions()
+    );
+  }
+
+  @Test
+  public void testQuietPeriod() throws Exception {
+    putObject("logs/2019-01-01/a.txt", false);
+    putObject("logs/2019-01-02/b.txt", true);
+    putObject("logs/2019-01-03/c.txt", false);
+
+    discovery = createDiscovery("*/*.txt", 3600);
+
+    S3Offset s3Offset = new S3Offset("", S3Constants.ZERO, "", S3Constants.ZERO);
+    Assert.assertEquals(3, discovery.listObjectsChronologically(s3Offset, 10).size());
+
+    // the first partition had an object within the quiet period, it is still listed
+    putObject("logs/2019-01-01/late.txt", true);
+    s3Offset = offsetAfter("logs/2019-01-03/c.txt");
+    List<S3ObjectSummary> summaries = discovery.listObjectsChronologically(s3Offset, 10);
+    Assert.assertEquals(ImmutableList.of("logs/2019-01-01/late.txt"), keys(summaries));
+    Assert.assertEquals(
+        ImmutableList.of("logs/2019-01-01/", "logs/2019-01-02/", "logs/2019-01-03/"),
+        discovery.getListedPartitions()
+    );
+  }
+
+}
@@ -21,6 +21,7 @@ import com.streamsets.pipeline.api.Label;
 @GenerateResourceBundle
 public enum Groups implements Label {
   HTTP("HTTP"),
+  CACHE("Cache"),
   CREDENTIALS("Credentials"),
   OAUTH2("OAuth 2"),
   PROXY("Proxy"),
@@ -21,6 +21,7 @@ import com.streamsets.pipeline.api.PushSource;
 import com.streamsets.pipeline.api.Record;
 import com.streamsets.pipeline.api.Stage;
 import com.streamsets.pipeline.api.credential.CredentialValue;
+import com.streamsets.pipeline.lib.flowcontrol.FlowControl;
 import com.streamsets.pipeline.lib.http.HttpConfigs;
 import com.streamsets.pipeline.lib.http.HttpReceiver;
 import com.streamsets.pipeline.lib.io.OverrunInputStream;
@@ -59,6 +60,7 @@ public class PushHttpReceiver implements HttpReceiver {
   private PushSource.Context context;
   private DataParserFactory parserFactory;
   private AtomicLong counter = new AtomicLong();
+  private FlowControl flowControl = FlowControl.disabled();
 
   public PushHttpReceiver(
       HttpConfigs httpConfigs,
@@ -78,6 +80,7 @@ public class PushHttpReceiver implements HttpReceiver {
   public List<Stage.ConfigIssue> init(Stage.Context context) {
     this.context = (PushSource.Context) context;
     parserFactory = dataParserFormatConfig.getParserFactory();
+    flowControl = FlowControl.create(context);
     List<Stage.ConfigIssue> issues = new ArrayList<>();
     if (maxRequestSizeMB > getMaxRequestSizeMBLimit()) {
       issues.add(getContext().createConfigIssue("HTTP", "maxRequestSizeMB", Errors.HTTP_SERVER_PUSH_00,
@@ -118,6 +121,11 @@ public class PushHttpReceiver implements HttpReceiver {
     return true;
   }
 
+  @Override
+  public FlowControl getFlowControl() {
+    return flowControl;
+  }
+
   @VisibleForTesting
   protected DataParserFactory getParserFactory() {
     return parserFactory;
@@ -147,7 +155,19 @@ public class PushHttpReceiver implements HttpReceiver {
     }
 
     // Send batch to the rest of the pipeline for further processing
-    return getContext().processBatch(batchContext);
+    return processBatch(batchContext, records.size());
+  }
+
+  /**
+   * Sends the batch to the rest of the pipeline, its records are in flight until it has been processed.
+   */
+  protected boolean processBatch(BatchContext batchContext, int records) {
+    flowControl.acquire(records, 0);
+    try {
+      return getContext().processBatch(batchContext);
+    } finally {
+      flowControl.release(records, 0);
+    }
   }
 
   protected List<Record> parseRequestPayload(HttpServletRequest req, InputStream is) throws IOException {
@@ -91,7 +91,7 @@ public class RestServiceReceiver extends PushHttpReceiver {
       batchContext.getBatchMaker().addRecord(record);
     }
 
-    boolean returnValue = getContext().processBatch(batchContext);
+    boolean returnValue = processBatch(batchContext, requestRecords.size());
 
     // Send response
     int responseStatusCode = HttpServletResponse.SC_OK;
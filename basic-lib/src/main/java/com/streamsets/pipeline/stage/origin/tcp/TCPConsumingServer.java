@@ -18,6 +18,7 @@ package com.streamsets.pipeline.stage.origin.tcp;
 import com.streamsets.pipeline.lib.network.BaseNettyServer;
 import io.netty.bootstrap.AbstractBootstrap;
 import io.netty.bootstrap.ServerBootstrap;
+import io.netty.buffer.PooledByteBufAllocator;
 import io.netty.channel.ChannelInitializer;
 import io.netty.channel.ChannelOption;
 import io.netty.channel.EventLoopGroup;
@@ -72,7 +73,8 @@ public class TCPConsumingServer extends BaseNettyServer {
           .option(EpollChannelOption.SO_REUSEADDR, true)
           .option(EpollChannelOption.SO_REUSEPORT, true)
           .option(ChannelOption.SO_BACKLOG, SOCKET_MAX_INBOUND_CONNECTION_QUEUE_DEPTH)
-          .childOption(ChannelOption.SO_KEEPALIVE, SOCKET_KEEPALIVE);
+          .childOption(ChannelOption.SO_KEEPALIVE, SOCKET_KEEPALIVE)
+          .childOption(ChannelOption.ALLOCATOR, PooledByteBufAllocator.DEFAULT);
       return b;
     } else {
       disableDirectBuffers();
@@ -28,6 +28,7 @@ import com.streamsets.pipeline.api.impl.Utils;
 import com.streamsets.pipeline.lib.el.RecordEL;
 import com.streamsets.pipeline.lib.el.TimeEL;
 import com.streamsets.pipeline.lib.el.TimeNowEL;
+import com.streamsets.pipeline.lib.flowcontrol.FlowControl;
 import com.streamsets.pipeline.lib.parser.DataParserException;
 import com.streamsets.pipeline.lib.parser.net.MessageToRecord;
 import io.netty.buffer.Unpooled;
@@ -127,6 +128,7 @@ public class TCPObjectToRecordHandler extends ChannelInboundHandlerAdapter {
   private final String batchCompletedAckExpr;
   private final String timeZoneId;
   private final Charset ackResponseCharset;
+  private final FlowControl flowControl;
 
   private long totalRecordCount = 0;
   private long lastChannelStart = 0;
@@ -148,7 +150,8 @@ public class TCPObjectToRecordHandler extends ChannelInboundHandlerAdapter {
       ELVars batchCompletedAckVars,
       String batchCompletedAckExpr,
       String timeZoneId,
-      Charset ackResponseCharset
+      Charset ackResponseCharset,
+      FlowControl flowControl
   ) {
     Utils.checkNotNull(context, "context");
     Utils.checkNotNull(stopPipelineHandler, "stopPipelineHandler");
@@ -164,6 +167,7 @@ public class TCPObjectToRecordHandler extends ChannelInboundHandlerAdapter {
     this.batchCompletedAckExpr = batchCompletedAckExpr;
     this.timeZoneId = timeZoneId;
     this.ackResponseCharset = ackResponseCharset;
+    this.flowControl = flowControl;
     this.recordsQueue = new ArrayBlockingQueue<>(3*this.maxBatchSize);
     firstBatch = true;
   }
@@ -190,7 +194,8 @@ public class TCPObjectToRecordHandler extends ChannelInboundHandlerAdapter {
 
   private TimeoutBatchRunnable scheduleTimeoutBatch(ChannelHandlerContext ctx, long delay) {
     TimeoutBatchRunnable timeoutBatchRunnable = new TimeoutBatchRunnable(ctx);
-    maxWaitTimeFlush = ctx.channel().eventLoop().schedule(
+    // on the executor of the handler, the parser thread of the channel when parsing off the receiver threads
+    maxWaitTimeFlush = ctx.executor().schedule(
         timeoutBatchRunnable,
         Math.max(delay, 0),
         TimeUnit.MILLISECONDS
@@ -221,10 +226,16 @@ public class TCPObjectToRecordHandler extends ChannelInboundHandlerAdapter {
       );
     }
     cancelMaxWaitTimeTask();
-    //firstBatch needed to send first record to error if there is an exception processing the first record
-    while(!recordsQueue.isEmpty() || firstBatch) {
-      newBatch(ctx, true);
-      firstBatch = false;
+    try {
+      //firstBatch needed to send first record to error if there is an exception processing the first record
+      while(!recordsQueue.isEmpty() || firstBatch) {
+        newBatch(ctx, true);
+        firstBatch = false;
+      }
+    } finally {
+      // the handler goes away with the connection, records left when a batch failed are dropped with their credit
+      flowControl.release(recordsQueue.size(), 0);
+      recordsQueue.clear();
     }
     // we null the runnable, just to avoid problems in case channel object is reused by netty for next clients
     timeoutBatchRunnable = null;
@@ -253,6 +264,13 @@ public class TCPObjectToRecordHandler extends ChannelInboundHandlerAdapter {
 
   private void addRecord(ChannelHandlerContext ctx, Record record) {
     recordsQueue.add(record);
+    flowControl.acquire(1, 0);
+    if (!flowControl.hasCredit() && ctx.channel().config().isAutoRead()) {
+      // stop reading from the client until the records in flight are processed, TCP pushes back on it
+      LOG.debug("Too many records in flight, pausing reads from {}", ctx.channel().remoteAddress());
+      ctx.channel().config().setAutoRead(false);
+      flowControl.whenAvailable(() -> ctx.channel().config().setAutoRead(true));
+    }
     evaluateElAndSendResponse(
         recordProcessedAckEval,
         recordProcessedAckVars,
@@ -298,7 +316,12 @@ public class TCPObjectToRecordHandler extends ChannelInboundHandlerAdapter {
       batchContext.getBatchMaker().addRecord(record);
     }
 
-    context.processBatch(batchContext);
+    try {
+      context.processBatch(batchContext);
+    } finally {
+      // the records are out of the handler even if processing the batch failed
+      flowControl.release(batchSize, 0);
+    }
 
     if (!channelInactive) {
       batchCompletedAckVars.addVariable("batchSize", batchSize);
@@ -0,0 +1,61 @@
+/*
+ * Copyright 2019 StreamSets Inc.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package com.streamsets.pipeline.stage.origin.tcp;
+
+import com.codahale.metrics.Timer;
+import io.netty.channel.ChannelHandler;
+import io.netty.channel.ChannelHandlerContext;
+import io.netty.channel.ChannelInboundHandlerAdapter;
+
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Times the decoders of a channel, for one channel only as it keeps the state of the data being decoded.
+ * <p/>
+ * The start handler goes before the decoders and the end handler right after them, on the same executor. The timer is
+ * updated with the time each decoded message took since the data it was decoded from was read, or since the previous
+ * message decoded from the same data was handed over, so the handlers after the decoders aren't counted.
+ */
+class TCPParseTimer {
+  private final Timer timer;
+  private long start;
+
+  TCPParseTimer(Timer timer) {
+    this.timer = timer;
+  }
+
+  ChannelHandler getStartHandler() {
+    return new ChannelInboundHandlerAdapter() {
+      @Override
+      public void channelRead(ChannelHandlerContext ctx, Object msg) throws Exception {
+        start = System.nanoTime();
+        ctx.fireChannelRead(msg);
+      }
+    };
+  }
+
+  ChannelHandler getEndHandler() {
+    return new ChannelInboundHandlerAdapter() {
+      @Override
+      public void channelRead(ChannelHandlerContext ctx, Object msg) throws Exception {
+        timer.update(System.nanoTime() - start, TimeUnit.NANOSECONDS);
+        ctx.fireChannelRead(msg);
+        start = System.nanoTime();
+      }
+    };
+  }
+
+}
@@ -15,8 +15,10 @@
  */
 package com.streamsets.pipeline.stage.origin.tcp;
 
+import com.codahale.metrics.Timer;
 import com.google.common.annotations.VisibleForTesting;
 import com.google.common.base.Strings;
+import com.google.common.util.concurrent.ThreadFactoryBuilder;
 import com.streamsets.pipeline.api.Record;
 import com.streamsets.pipeline.api.StageException;
 import com.streamsets.pipeline.api.base.BasePushSource;
@@ -25,6 +27,7 @@ import com.streamsets.pipeline.api.el.ELVars;
 import com.streamsets.pipeline.lib.el.ELUtils;
 import com.streamsets.pipeline.lib.el.RecordEL;
 import com.streamsets.pipeline.lib.el.TimeEL;
+import com.streamsets.pipeline.lib.flowcontrol.FlowControl;
 import com.streamsets.pipeline.lib.parser.DataParserFactory;
 import com.streamsets.pipeline.lib.parser.net.DataFormatParserDecoder;
 import com.streamsets.pipeline.lib.parser.net.DelimitedLengthFieldBasedFrameDecoder;
@@ -39,6 +42,8 @@ import io.netty.channel.ChannelHandler;
 import io.netty.channel.ChannelInitializer;
 import io.netty.channel.epoll.Epoll;
 import io.netty.channel.socket.SocketChannel;
+import io.netty.util.concurrent.DefaultEventExecutorGroup;
+import io.netty.util.concurrent.EventExecutorGroup;
 import io.netty.handler.codec.DelimiterBasedFrameDecoder;
 import io.netty.handler.ssl.SslHandler;
 import io.netty.handler.timeout.ReadTimeoutHandler;
@@ -68,16 +73,19 @@ public class TCPServerSource extends BasePushSource {
   private static final Logger LOG = LoggerFactory.getLogger(TCPServerSource.class);
   public static final String RECORD_PROCESSED_EL_NAME = "recordProcessedAckMessage";
   public static final String BATCH_COMPLETED_EL_NAME = "batchCompletedAckMessage";
+  static final String PARSE_LATENCY_TIMER = "parseLatency";
 
   private static final String CONF_PREFIX = "conf.";
 
   private final List<InetSocketAddress> addresses = new LinkedList<>();
 
   private TCPConsumingServer tcpServer;
+  private EventExecutorGroup parserGroup;
   private NettyServer avroIpcServer;
 
   private boolean privilegedPortUsage;
   private DataParserFactory parserFactory;
+  private FlowControl flowControl;
 
   private final TCPServerSourceConfig config;
 
@@ -93,7 +101,7 @@ public class TCPServerSource extends BasePushSource {
   protected List<ConfigIssue> init() {
     List<ConfigIssue> issues = new ArrayList<>();
 
-    config.dataFormatConfig.stringBuilderPoolSize = config.numThreads;
+    config.dataFormatConfig.stringBuilderPoolSize = Math.max(config.numThreads, config.parserThreads);
 
     if (config.enableEpoll && !Epoll.isAvailable()) {
       issues.add(getContext().createConfigIssue(Groups.TCP.name(), CONF_PREFIX + "enableEpoll", Errors.TCP_05));
@@ -179,6 +187,15 @@ public class TCPServerSource extends BasePushSource {
   }
 
   private void createAndStartTCPServer(List<ConfigIssue> issues, String portsField) {
+    flowControl = FlowControl.create(getContext());
+    Timer parseTimer = getContext().createTimer(PARSE_LATENCY_TIMER);
+    if (config.parserThreads > 0) {
+      // each channel is bound to one executor of the group, so its data is still decoded in order
+      parserGroup = new DefaultEventExecutorGroup(
+          config.parserThreads,
+          new ThreadFactoryBuilder().setNameFormat("TCP Parser Thread - %d").setDaemon(true).build()
+      );
+    }
     tcpServer = new TCPConsumingServer(
         config.enableEpoll,
         config.numThreads,
@@ -191,20 +208,27 @@ public class TCPServerSource extends BasePushSource {
               ch.pipeline().addFirst("TLS", new SslHandler(config.tlsConfigBean.createSslEngine()));
             }
 
+            // without a parser group (null) the handlers run on the event loop of the channel
+            TCPParseTimer channelParseTimer = new TCPParseTimer(parseTimer);
+            ch.pipeline().addLast(parserGroup, channelParseTimer.getStartHandler());
             ch.pipeline().addLast(
+                parserGroup,
                 // first, decode the ByteBuf into some POJO type extending MessageToRecord
                 buildByteBufToMessageDecoderChain(issues).toArray(new ChannelHandler[0])
             );
+            ch.pipeline().addLast(parserGroup, channelParseTimer.getEndHandler());
 
             // Adding ReadTimeoutHandler before TCPObjectToRecordHandler as it is needed in order to handle
             // ReadTimeoutException. See io.netty.handler.timeout.ReadTimeoutHandler.java for more information
             if (config.readTimeout > 0) {
               ch.pipeline().addLast(
+                  parserGroup,
                   new ReadTimeoutHandler(config.readTimeout)
               );
             }
 
             ch.pipeline().addLast(
+                parserGroup,
                 // next, handle MessageToRecord instances to build SDC records and errors
                 new TCPObjectToRecordHandler(
                     getContext(),
@@ -218,7 +242,8 @@ public class TCPServerSource extends BasePushSource {
                     getContext().createELVars(),
                     config.batchCompletedAckMessage,
                     config.timeZoneID,
-                    Charset.forName(config.ackMessageCharset)
+                    Charset.forName(config.ackMessageCharset),
+                    flowControl
                 )
             );
           }
@@ -520,11 +545,16 @@ public class TCPServerSource extends BasePushSource {
       }
     }
 
+    if (parserGroup != null) {
+      parserGroup.shutdownGracefully().awaitUninterruptibly();
+    }
+
     if (parserFactory != null) {
       parserFactory.destroy();
     }
 
     tcpServer = null;
+    parserGroup = null;
     avroIpcServer = null;
     parserFactory = null;
 
@@ -103,6 +103,20 @@ public class TCPServerSourceConfig {
   )
   public int numThreads;
 
+  @ConfigDef(
+      required = true,
+      type = ConfigDef.Type.NUMBER,
+      label = "Number of Parser Threads",
+      description = "Number of threads decoding the data received and creating the batches, shared by all" +
+          " connections. Data from a connection is always decoded in order by the same thread. Use 0 to decode" +
+          " on the receiver threads",
+      defaultValue = "0",
+      min = 0,
+      group = "TCP",
+      displayPosition = 25
+  )
+  public int parserThreads;
+
   @ConfigDef(
       required = true,
       type = ConfigDef.Type.MODEL,
@@ -22,6 +22,7 @@ import com.streamsets.pipeline.api.base.BasePushSource;
 import com.streamsets.pipeline.api.base.OnRecordErrorException;
 import com.streamsets.pipeline.api.impl.Utils;
 import com.streamsets.pipeline.lib.executor.SafeScheduledExecutorService;
+import com.streamsets.pipeline.lib.flowcontrol.FlowControl;
 import com.streamsets.pipeline.lib.parser.udp.AbstractParser;
 import com.streamsets.pipeline.lib.udp.PacketQueueUDPHandler;
 import com.streamsets.pipeline.lib.udp.UDPConsumingServer;
@@ -55,6 +56,7 @@ public class MultithreadedUDPSource extends BasePushSource {
   private AbstractParser parser;
 
   private PacketQueueUDPHandler handler;
+  private FlowControl flowControl;
 
   private final UDPSourceConfigBean configs;
   private final int packetQueueSize;
@@ -84,7 +86,8 @@ public class MultithreadedUDPSource extends BasePushSource {
       final List<InetSocketAddress> addresses = configs.getAddresses();
       if (!addresses.isEmpty()) {
         final Map<String, Object> gaugeMap = getContext().createGauge(PACKET_QUEUE_GAUGE_NAME).getValue();
-        handler = new PacketQueueUDPHandler(gaugeMap, packetQueueSize);
+        flowControl = FlowControl.create(getContext());
+        handler = new PacketQueueUDPHandler(gaugeMap, packetQueueSize, flowControl);
         udpServer = new UDPConsumingServer(configs.enableEpoll, configs.numThreads, addresses, handler);
         try {
           udpServer.listen();
@@ -147,6 +150,9 @@ public class MultithreadedUDPSource extends BasePushSource {
           public void run() {
             BatchContext batchContext = null;
             long remainingTime = configs.maxWaitTime;
+            // in flight in the current batch, released once it has been processed
+            int batchRecords = 0;
+            long batchBytes = 0;
             while (!getContext().isStopped()) {
               if (batchContext == null) {
                 batchContext = getContext().startBatch();
@@ -163,6 +169,7 @@ public class MultithreadedUDPSource extends BasePushSource {
                   if (LOG.isTraceEnabled()) {
                     LOG.trace("Took packet; new size: {}", handler.getPacketQueue().size());
                   }
+                  batchBytes += packet.content().readableBytes();
 
                   try {
                     records = parser.parse(packet.content(), packet.recipient(), packet.sender());
@@ -184,16 +191,21 @@ public class MultithreadedUDPSource extends BasePushSource {
                   if (IS_TRACE_ENABLED) {
                     LOG.trace("Found {} records", records.size());
                   }
+                  flowControl.acquire(records.size(), 0);
                   for (Record record : records) {
                     if (IS_TRACE_ENABLED) {
                       LOG.trace("Processed {} records", (recordCount - startingRecordCount));
                     }
 
                     batchContext.getBatchMaker().addRecord(record);
+                    batchRecords++;
 
                     if (++recordCount % finalMaxBatchSize == 0) {
                       getContext().processBatch(batchContext);
                       batchContext = getContext().startBatch();
+                      flowControl.release(batchRecords, batchBytes);
+                      batchRecords = 0;
+                      batchBytes = 0;
                     }
                   }
                 }
@@ -202,6 +214,9 @@ public class MultithreadedUDPSource extends BasePushSource {
                   remainingTime = configs.maxWaitTime;
                   getContext().processBatch(batchContext);
                   batchContext = getContext().startBatch();
+                  flowControl.release(batchRecords, batchBytes);
+                  batchRecords = 0;
+                  batchBytes = 0;
                 }
               } catch (InterruptedException e) {
                 Thread.currentThread().interrupt();
@@ -15,7 +15,8 @@
  */
 package com.streamsets.pipeline.stage.origin.udp;
 
-
+import com.codahale.metrics.Meter;
+import com.codahale.metrics.Timer;
 import com.streamsets.pipeline.api.Record;
 import com.streamsets.pipeline.api.base.OnRecordErrorException;
 import com.streamsets.pipeline.lib.parser.udp.AbstractParser;
@@ -34,12 +35,29 @@ public class QueuingUDPConsumer implements UDPConsumer {
   private final BlockingQueue<ParseResult> queue;
   private final AtomicLong totalPackets;
   private final AtomicLong droppedPackets;
+  private final Timer parseTimer;
+  private final Meter droppedPacketsMeter;
 
   public QueuingUDPConsumer(AbstractParser parser, BlockingQueue<ParseResult> queue) {
+    this(parser, queue, new Timer(), new Meter());
+  }
+
+  /**
+   * @param parseTimer timer updated with the time it takes to parse each packet
+   * @param droppedPacketsMeter meter marked for every packet dropped because the queue was full
+   */
+  public QueuingUDPConsumer(
+      AbstractParser parser,
+      BlockingQueue<ParseResult> queue,
+      Timer parseTimer,
+      Meter droppedPacketsMeter
+  ) {
     this.parser = parser;
     this.queue = queue;
     this.droppedPackets = new AtomicLong(0);
     this.totalPackets = new AtomicLong(0);
+    this.parseTimer = parseTimer;
+    this.droppedPacketsMeter = droppedPacketsMeter;
   }
 
   @Override
@@ -47,14 +65,18 @@ public class QueuingUDPConsumer implements UDPConsumer {
     long total = totalPackets.incrementAndGet();
     boolean droppedPacket = false;
     ParseResult result;
+    Timer.Context parseContext = parseTimer.time();
     try {
       List<Record> records = parser.parse(packet.content(), packet.recipient(), packet.sender());
       result = new ParseResult(records);
     } catch (OnRecordErrorException ex) {
       result = new ParseResult(ex);
+    } finally {
+      parseContext.stop();
     }
     if (!queue.offer(result)) {
       droppedPacket = true;
+      droppedPacketsMeter.mark();
       long dropped = droppedPackets.incrementAndGet();
       if (dropped % 1000 == 0) {
         LOG.info("Could not add packet to queue, dropped {} of {} packets", dropped, total);
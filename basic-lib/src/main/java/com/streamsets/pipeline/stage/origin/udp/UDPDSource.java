@@ -15,6 +15,7 @@
  */
 package com.streamsets.pipeline.stage.origin.udp;
 
+import com.streamsets.pipeline.api.ConfigDef;
 import com.streamsets.pipeline.api.ConfigDefBean;
 import com.streamsets.pipeline.api.ConfigGroups;
 import com.streamsets.pipeline.api.ExecutionMode;
@@ -25,7 +26,7 @@ import com.streamsets.pipeline.api.base.configurablestage.DSource;
 import com.streamsets.pipeline.api.impl.Utils;
 
 @StageDef(
-    version = 4,
+    version = 5,
     label = "UDP Source",
     description = "Listens for UDP messages on one or more ports",
     icon = "udp.png",
@@ -44,12 +45,24 @@ public class UDPDSource extends DSource {
   @ConfigDefBean
   public UDPSourceConfigBean conf;
 
+  @ConfigDef(
+      required = true,
+      type = ConfigDef.Type.NUMBER,
+      label = "Number of Parser Threads",
+      description = "Number of threads parsing the packets. Packets from the same sender are parsed in order. Use 0" +
+          " to parse the packets on the receiver threads.",
+      defaultValue = "0",
+      group = "UDP",
+      min = 0,
+      displayPosition = 200
+  )
+  public int parserThreads;
+
   @Override
   protected Source createSource() {
     Utils.checkNotNull(conf.dataFormat, "Data format cannot be null");
     Utils.checkNotNull(conf.ports, "Ports cannot be null");
 
-    return new UDPSource(conf
-    );
+    return new UDPSource(conf, parserThreads);
   }
 }
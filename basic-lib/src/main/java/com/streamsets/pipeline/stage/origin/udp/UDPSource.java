@@ -15,12 +15,16 @@
  */
 package com.streamsets.pipeline.stage.origin.udp;
 
+import com.codahale.metrics.Meter;
+import com.codahale.metrics.Timer;
 import com.streamsets.pipeline.api.BatchMaker;
 import com.streamsets.pipeline.api.Record;
 import com.streamsets.pipeline.api.StageException;
 import com.streamsets.pipeline.api.base.BaseSource;
 import com.streamsets.pipeline.api.base.OnRecordErrorException;
 import com.streamsets.pipeline.api.impl.Utils;
+import com.streamsets.pipeline.lib.udp.ParallelUDPConsumer;
+import com.streamsets.pipeline.lib.udp.UDPConsumer;
 import com.streamsets.pipeline.lib.udp.UDPConsumingServer;
 import com.streamsets.pipeline.stage.common.DefaultErrorRecordHandler;
 import com.streamsets.pipeline.stage.common.ErrorRecordHandler;
@@ -41,15 +45,27 @@ public class UDPSource extends BaseSource {
   private static final Logger LOG = LoggerFactory.getLogger(UDPSource.class);
   private static final boolean IS_TRACE_ENABLED = LOG.isTraceEnabled();
   private static final boolean IS_DEBUG_ENABLED = LOG.isDebugEnabled();
+  static final String PARSE_LATENCY_TIMER = "parseLatency";
+  static final String DROPPED_PACKETS_METER = "droppedPackets";
   private final Queue<Record> overrunQueue;
   private final UDPSourceConfigBean conf;
+  private final int parserThreads;
   private long recordCount;
   private UDPConsumingServer udpServer;
+  private ParallelUDPConsumer parallelConsumer;
   private ErrorRecordHandler errorRecordHandler;
   private BlockingQueue<ParseResult> incomingQueue;
 
   public UDPSource(UDPSourceConfigBean conf) {
+    this(conf, 0);
+  }
+
+  /**
+   * @param parserThreads number of threads parsing the packets, 0 to parse them on the receiver threads
+   */
+  public UDPSource(UDPSourceConfigBean conf, int parserThreads) {
     this.conf = conf;
+    this.parserThreads = parserThreads;
     this.overrunQueue = new LinkedList<>();
   }
 
@@ -66,7 +82,23 @@ public class UDPSource extends BaseSource {
     if (valid && issues.isEmpty()) {
       final List<InetSocketAddress> addresses = conf.getAddresses();
       if (!addresses.isEmpty()) {
-        QueuingUDPConsumer udpConsumer = new QueuingUDPConsumer(conf.getParser(), incomingQueue);
+        Timer parseTimer = getContext().createTimer(PARSE_LATENCY_TIMER);
+        Meter droppedPackets = getContext().createMeter(DROPPED_PACKETS_METER);
+        UDPConsumer udpConsumer = new QueuingUDPConsumer(conf.getParser(), incomingQueue, parseTimer, droppedPackets);
+        if (parserThreads > 0) {
+          // parsers aren't thread safe, every lane gets its own
+          List<UDPConsumer> laneConsumers = new ArrayList<>(parserThreads);
+          laneConsumers.add(udpConsumer);
+          for (int i = 1; i < parserThreads; i++) {
+            laneConsumers.add(new QueuingUDPConsumer(conf.createParser(), incomingQueue, parseTimer, droppedPackets));
+          }
+          // the lanes together hold as many packets as the incoming queue
+          udpConsumer = parallelConsumer = new ParallelUDPConsumer(
+              laneConsumers,
+              Math.max(conf.batchSize * 10 / parserThreads, 1),
+              droppedPackets
+          );
+        }
         udpServer = new UDPConsumingServer(conf.enableEpoll, conf.numThreads, addresses, udpConsumer);
         try {
           udpServer.listen();
@@ -94,6 +126,10 @@ public class UDPSource extends BaseSource {
       udpServer.destroy();
       udpServer = null;
     }
+    if (parallelConsumer != null) {
+      parallelConsumer.destroy();
+      parallelConsumer = null;
+    }
     super.destroy();
   }
 
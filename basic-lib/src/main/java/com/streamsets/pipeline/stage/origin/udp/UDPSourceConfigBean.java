@@ -336,6 +336,8 @@ public class UDPSourceConfigBean {
   private boolean privilegedPortUsage;
   private final List<InetSocketAddress> addresses = new LinkedList<>();
   private AbstractParser parser;
+  private Stage.Context context;
+  private Charset charset;
 
   public boolean isPrivilegedPortUsage() {
     return privilegedPortUsage;
@@ -349,6 +351,44 @@ public class UDPSourceConfigBean {
     return parser;
   }
 
+  /**
+   * Returns a new parser configured like the one of {@link #getParser()}, for threads that can't share it: parsers
+   * such as the collectd one keep the state of the packet being parsed in fields.
+   */
+  public AbstractParser createParser() {
+    switch (dataFormat) {
+      case NETFLOW:
+        return new NetflowParser(
+            context,
+            (OutputValuesMode) parserConfig.get(NETFLOW_OUTPUT_VALUES_MODE),
+            parserConfig.getInteger(NETFLOW_MAX_TEMPLATE_CACHE_SIZE),
+            parserConfig.getInteger(NETFLOW_TEMPLATE_CACHE_TIMEOUT_MS)
+        );
+      case SYSLOG:
+        return new SyslogParser(context, charset);
+      case COLLECTD:
+        return new CollectdParser(
+            context,
+            parserConfig.getBoolean(CONVERT_TIME),
+            parserConfig.getString(TYPES_DB_PATH),
+            parserConfig.getBoolean(EXCLUDE_INTERVAL),
+            parserConfig.getString(AUTH_FILE_PATH),
+            charset
+        );
+      case RAW_DATA:
+        return new SeparatedDataParser(
+            context,
+            (RawDataMode) parserConfig.get(RAW_DATA_MODE),
+            charset,
+            parserConfig.getString(RAW_DATA_OUTPUT_FIELD_PATH),
+            (MultipleValuesBehavior) parserConfig.get(RAW_DATA_MULTIPLE_VALUES_BEHAVIOR),
+            (byte[]) parserConfig.get(RAW_DATA_SEPARATOR_BYTES)
+        );
+      default:
+        throw new IllegalStateException("Unsupported data format: " + dataFormat);
+    }
+  }
+
   public boolean init(Stage.Context context, List<Stage.ConfigIssue> issues) {
 
     boolean valid = true;
@@ -408,60 +448,41 @@ public class UDPSourceConfigBean {
       }
     }
 
-    Charset charset;
+    Charset charset = null;
+    boolean canCreateParser = true;
     switch (dataFormat) {
       case NETFLOW:
-        final int maxTemplateCacheSize = parserConfig.getInteger(NETFLOW_MAX_TEMPLATE_CACHE_SIZE);
-        final int templateCacheTimeoutMs = parserConfig.getInteger(NETFLOW_TEMPLATE_CACHE_TIMEOUT_MS);
         NetflowDataParserFactory.validateConfigs(
             context,
             issues,
             Groups.NETFLOW_V9.name(),
             "",
-            maxTemplateCacheSize,
-            templateCacheTimeoutMs
-        );
-        parser = new NetflowParser(
-            context,
-            (OutputValuesMode) parserConfig.get(NETFLOW_OUTPUT_VALUES_MODE),
-            maxTemplateCacheSize,
-            templateCacheTimeoutMs
+            parserConfig.getInteger(NETFLOW_MAX_TEMPLATE_CACHE_SIZE),
+            parserConfig.getInteger(NETFLOW_TEMPLATE_CACHE_TIMEOUT_MS)
         );
         break;
       case SYSLOG:
         charset = validateCharset(Groups.SYSLOG.name(), context, issues);
-        parser = new SyslogParser(context, charset);
         break;
       case COLLECTD:
         charset = validateCharset(Groups.COLLECTD.name(), context, issues);
         checkCollectdParserConfigs(context, issues);
-        if (issues.isEmpty()) {
-          parser = new CollectdParser(
-              context,
-              parserConfig.getBoolean(CONVERT_TIME),
-              parserConfig.getString(TYPES_DB_PATH),
-              parserConfig.getBoolean(EXCLUDE_INTERVAL),
-              parserConfig.getString(AUTH_FILE_PATH),
-              charset
-          );
-        }
+        canCreateParser = issues.isEmpty();
         break;
       case RAW_DATA:
         charset = validateCharset(Groups.RAW_DATA.name(), context, issues);
-        parser = new SeparatedDataParser(
-            context,
-            (RawDataMode) parserConfig.get(RAW_DATA_MODE),
-            charset,
-            parserConfig.getString(RAW_DATA_OUTPUT_FIELD_PATH),
-            (MultipleValuesBehavior) parserConfig.get(RAW_DATA_MULTIPLE_VALUES_BEHAVIOR),
-            (byte[]) parserConfig.get(RAW_DATA_SEPARATOR_BYTES)
-        );
         break;
       default:
         issues.add(context.createConfigIssue(Groups.UDP.name(), "dataFormat",
             Errors.UDP_01, dataFormat));
+        canCreateParser = false;
         break;
     }
+    this.context = context;
+    this.charset = charset;
+    if (canCreateParser) {
+      parser = createParser();
+    }
 
     return valid;
 
@@ -20,6 +20,7 @@ import com.streamsets.pipeline.api.PushSource;
 import com.streamsets.pipeline.api.Record;
 import com.streamsets.pipeline.api.Stage;
 import com.streamsets.pipeline.api.credential.CredentialValue;
+import com.streamsets.pipeline.lib.flowcontrol.FlowControl;
 import com.streamsets.pipeline.lib.generator.DataGeneratorFactory;
 import com.streamsets.pipeline.lib.microservice.ResponseConfigBean;
 import com.streamsets.pipeline.lib.parser.DataParser;
@@ -54,6 +55,7 @@ public class PushWebSocketReceiver implements WebSocketReceiver {
   private AtomicLong counter = new AtomicLong();
   private final ResponseConfigBean responseConfig;
   private DataGeneratorFactory dataGeneratorFactory;
+  private FlowControl flowControl = FlowControl.disabled();
 
   PushWebSocketReceiver(
       WebSocketConfigs webSocketConfigs,
@@ -82,6 +84,7 @@ public class PushWebSocketReceiver implements WebSocketReceiver {
       maxRequestSize = maxRequestSizeMB * 1000 * 1000;
     }
     dataGeneratorFactory = responseConfig.dataGeneratorFormatConfig.getDataGeneratorFactory();
+    flowControl = FlowControl.create(context);
     return issues;
   }
 
@@ -110,6 +113,11 @@ public class PushWebSocketReceiver implements WebSocketReceiver {
     return true;
   }
 
+  @Override
+  public FlowControl getFlowControl() {
+    return flowControl;
+  }
+
   @Override
   public int getIdleTimeout() {
     return webSocketConfigs.getIdleTimeout();
@@ -149,7 +157,13 @@ public class PushWebSocketReceiver implements WebSocketReceiver {
       batchContext.getBatchMaker().addRecord(record);
     }
 
-    boolean returnValue =  getContext().processBatch(batchContext);
+    boolean returnValue;
+    flowControl.acquire(records.size(), 0);
+    try {
+      returnValue = getContext().processBatch(batchContext);
+    } finally {
+      flowControl.release(records.size(), 0);
+    }
 
     // Send response
     List<Record> sourceResponseRecords = batchContext.getSourceResponseRecords();
@@ -17,6 +17,7 @@ package com.streamsets.pipeline.stage.origin.websocketserver;
 
 import com.streamsets.pipeline.api.Stage;
 import com.streamsets.pipeline.api.credential.CredentialValue;
+import com.streamsets.pipeline.lib.flowcontrol.FlowControl;
 import org.eclipse.jetty.websocket.api.Session;
 import org.eclipse.jetty.websocket.servlet.ServletUpgradeRequest;
 import org.eclipse.jetty.websocket.servlet.ServletUpgradeResponse;
@@ -43,4 +44,11 @@ public interface WebSocketReceiver {
   boolean process(Session session, byte[] payload, int offset, int len) throws IOException;
 
   boolean process(Session session, String message) throws IOException;
+
+  /**
+   * Returns the flow control messages are charged to, reading from a client is suspended while there is no credit.
+   */
+  default FlowControl getFlowControl() {
+    return FlowControl.disabled();
+  }
 }
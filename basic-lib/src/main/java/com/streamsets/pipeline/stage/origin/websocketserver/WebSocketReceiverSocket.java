@@ -17,7 +17,9 @@ package com.streamsets.pipeline.stage.origin.websocketserver;
 
 import com.codahale.metrics.Meter;
 import com.codahale.metrics.Timer;
+import com.streamsets.pipeline.lib.flowcontrol.FlowControl;
 import org.eclipse.jetty.websocket.api.Session;
+import org.eclipse.jetty.websocket.api.SuspendToken;
 import org.eclipse.jetty.websocket.api.WebSocketAdapter;
 import org.slf4j.Logger;
 import org.slf4j.LoggerFactory;
@@ -59,9 +61,26 @@ public class WebSocketReceiverSocket extends WebSocketAdapter {
     return receiver;
   }
 
+  private FlowControl getFlowControl() {
+    FlowControl flowControl = getReceiver().getFlowControl();
+    return (flowControl != null) ? flowControl : FlowControl.disabled();
+  }
+
+  // the message was already read, but no more are read from the client until there is credit again
+  private void suspendIfNoCredit(FlowControl flowControl) {
+    if (!flowControl.hasCredit() && session != null) {
+      LOG.debug("Too much data in flight, suspending reads from '{}'", requester);
+      SuspendToken suspendToken = session.suspend();
+      flowControl.whenAvailable(suspendToken::resume);
+    }
+  }
+
   @Override
   public void onWebSocketBinary(byte[] payload, int offset, int len) {
     long start = System.currentTimeMillis();
+    FlowControl flowControl = getFlowControl();
+    flowControl.acquire(0, len);
+    suspendIfNoCredit(flowControl);
     try {
       LOG.debug("Processing request from '{}'", requester);
       if (getReceiver().process(this.session, payload, offset, len)) {
@@ -74,6 +93,7 @@ public class WebSocketReceiverSocket extends WebSocketAdapter {
       errorRequestMeter.mark();
       LOG.warn("Error while processing request payload from '{}': {}", requester, ex.toString(), ex);
     } finally {
+      flowControl.release(0, len);
       requestTimer.update(System.currentTimeMillis() - start, TimeUnit.MILLISECONDS);
     }
   }
@@ -81,6 +101,10 @@ public class WebSocketReceiverSocket extends WebSocketAdapter {
   @Override
   public void onWebSocketText(String message) {
     long start = System.currentTimeMillis();
+    FlowControl flowControl = getFlowControl();
+    // characters, close enough to the bytes for accounting
+    flowControl.acquire(0, message.length());
+    suspendIfNoCredit(flowControl);
     try {
       LOG.debug("Processing request from '{}'", requester);
       getReceiver().process(this.session, message);
@@ -90,6 +114,7 @@ public class WebSocketReceiverSocket extends WebSocketAdapter {
       errorRequestMeter.mark();
       LOG.warn("Error while processing request payload from '{}': {}", requester, ex.toString(), ex);
     } finally {
+      flowControl.release(0, message.length());
       requestTimer.update(System.currentTimeMillis() - start, TimeUnit.MILLISECONDS);
     }
   }
@@ -189,14 +189,14 @@ public class FieldFilterProcessor extends SingleLaneRecordProcessor {
               // for the old way, startsWith is appropriate when we have
               // different path structures, or "nested" (multiple dimensioned) index structures.
               //  eg: /USA[0]/SanFrancisco/folsom/streets[0] must still match:
-              //      /USA[0]/SanFrancisco/folsom/streets[0][0]   hence: startsWith.
+              //      /USA[0]/SanFrancisco/folsom/streets[0][0]   hence: a prefix followed by a separator.
               if (StringUtils.countMatches(fieldToRemove, "/") == StringUtils.countMatches(matchingFieldPath, "/")
                   && StringUtils.countMatches(fieldToRemove, "[") == StringUtils.countMatches(matchingFieldPath, "[")) {
                 if (fieldToRemove.equals(matchingFieldPath)) {
                   childrenToKeep.add(fieldToRemove);
                 }
               } else {
-                if (fieldToRemove.startsWith(matchingFieldPath)) {
+                if (isChildPath(fieldToRemove, matchingFieldPath)) {
                   childrenToKeep.add(fieldToRemove);
                 }
               }
@@ -217,6 +217,20 @@ public class FieldFilterProcessor extends SingleLaneRecordProcessor {
     batchMaker.addRecord(record);
   }
 
+  /**
+   * Returns true if the field path is below the given parent, /a/b and /a[0] are below /a but /ab is not.
+   */
+  private static boolean isChildPath(String fieldPath, String parentPath) {
+    if (!fieldPath.startsWith(parentPath) || fieldPath.length() == parentPath.length()) {
+      return false;
+    }
+    if (parentPath.endsWith("/")) {
+      return true;
+    }
+    char separator = fieldPath.charAt(parentPath.length());
+    return separator == '/' || separator == '[';
+  }
+
   private List<String> getParentFields(String fieldPath) {
     List<String> parentFields = new ArrayList<>();
     int index = 0;
@@ -15,6 +15,7 @@
  */
 package com.streamsets.pipeline.stage.processor.http;
 
+import com.codahale.metrics.Timer;
 import com.google.common.util.concurrent.RateLimiter;
 import com.streamsets.pipeline.api.Batch;
 import com.streamsets.pipeline.api.Field;
@@ -43,6 +44,7 @@ import org.slf4j.LoggerFactory;
 
 import javax.ws.rs.client.AsyncInvoker;
 import javax.ws.rs.client.Entity;
+import javax.ws.rs.client.InvocationCallback;
 import javax.ws.rs.client.WebTarget;
 import javax.ws.rs.core.MultivaluedMap;
 import javax.ws.rs.core.Response;
@@ -68,6 +70,12 @@ public class HttpProcessor extends SingleLaneProcessor {
 
   private static final Logger LOG = LoggerFactory.getLogger(HttpProcessor.class);
   private static final String REQUEST_BODY_CONFIG_NAME = "requestBody";
+  static final String REQUEST_LATENCY_TIMER = "requestLatency";
+  static final String RESPONSE_CACHE_GAUGE = "Response Cache";
+  static final String GAUGE_CACHE_HITS = "Hits";
+  static final String GAUGE_CACHE_MISSES = "Misses";
+  static final String GAUGE_CACHE_EVICTIONS = "Evictions";
+  static final String GAUGE_CACHE_SIZE = "Size";
 
   private HttpProcessorConfig conf;
   private final HttpClientCommon httpClientCommon;
@@ -77,6 +85,9 @@ public class HttpProcessor extends SingleLaneProcessor {
 
   private ELVars bodyVars;
   private ELEval bodyEval;
+  private Timer requestLatencyTimer;
+  private ResponseCache responseCache;
+  private Map<String, Object> responseCacheGauge;
 
   private class HeadersAndBody {
     final MultivaluedMap<String, Object> resolvedHeaders;
@@ -101,6 +112,8 @@ public class HttpProcessor extends SingleLaneProcessor {
   }
 
   private final Map<Record, HeadersAndBody> resolvedRecords = new LinkedHashMap<>();
+  // Requests of the batch in flight by cache key, so records with the same key wait for the same response
+  private final Map<ResponseCache.Key, InFlightRequests.Request> pendingRequests = new HashMap<>();
 
   /**
    * Creates a new HttpProcessor configured using the provided config instance.
@@ -131,6 +144,12 @@ public class HttpProcessor extends SingleLaneProcessor {
         issues
     );
 
+    requestLatencyTimer = getContext().createTimer(REQUEST_LATENCY_TIMER);
+    if (conf.cacheConfig.enabled) {
+      responseCache = new ResponseCache(conf.cacheConfig, conf.honorCacheControl);
+      responseCacheGauge = getContext().createGauge(RESPONSE_CACHE_GAUGE).getValue();
+    }
+
     bodyVars = getContext().createELVars();
     bodyEval = getContext().createELEval(REQUEST_BODY_CONFIG_NAME);
 
@@ -154,8 +173,9 @@ public class HttpProcessor extends SingleLaneProcessor {
   /** {@inheritDoc} */
   @Override
   public void process(Batch batch, SingleLaneBatchMaker batchMaker) throws StageException {
-    List<Future<Response>> responses = new ArrayList<>();
+    InFlightRequests inFlight = new InFlightRequests(conf.maxRequestsInFlight, conf.maxRequestsInFlightPerHost);
     resolvedRecords.clear();
+    pendingRequests.clear();
 
     Iterator<Record> records = batch.getRecords();
     while (records.hasNext()) {
@@ -177,57 +197,180 @@ public class HttpProcessor extends SingleLaneProcessor {
 
       String contentType = HttpStageUtil.getContentTypeWithDefault(resolvedHeaders, conf.defaultRequestContentType);
 
-      final AsyncInvoker asyncInvoker = target.request()
-          .property(OAuth1ClientSupport.OAUTH_PROPERTY_ACCESS_TOKEN, httpClientCommon.getAuthToken())
-          .headers(resolvedHeaders)
-          .async();
-
       HttpMethod method = httpClientCommon.getHttpMethod(conf.httpMethod, conf.methodExpression, record);
 
-      rateLimiter.acquire();
+      HeadersAndBody hb;
       if (conf.requestBody != null && !conf.requestBody.isEmpty() && method != HttpMethod.GET) {
         RecordEL.setRecordInContext(bodyVars, record);
         final String requestBody = bodyEval.eval(bodyVars, conf.requestBody, String.class);
-        resolvedRecords.put(record, new HeadersAndBody(resolvedHeaders, requestBody, contentType, method, target));
-        responses.add(asyncInvoker.method(method.getLabel(), Entity.entity(requestBody, contentType)));
+        hb = new HeadersAndBody(resolvedHeaders, requestBody, contentType, method, target);
       } else {
-        resolvedRecords.put(record, new HeadersAndBody(resolvedHeaders, null, null, method, target));
-        responses.add(asyncInvoker.method(method.getLabel()));
+        hb = new HeadersAndBody(resolvedHeaders, null, null, method, target);
+      }
+
+      ResponseCache.Key cacheKey = null;
+      if (responseCache != null && isCacheable(method)) {
+        cacheKey = new ResponseCache.Key(method, resolvedUrl, resolvedHeaders, hb.requestBody);
+        ResponseCache.CachedResponse cachedResponse = responseCache.get(cacheKey);
+        if (cachedResponse != null) {
+          inFlight.addCached(record, cachedResponse);
+          continue;
+        }
+        InFlightRequests.Request leader = pendingRequests.get(cacheKey);
+        if (leader != null) {
+          resolvedRecords.put(record, hb);
+          inFlight.addFollower(record, leader);
+          continue;
+        }
+      }
+
+      // Process the responses of the oldest requests, still in record order, until this one may be sent.
+      String host = target.getUri().getAuthority();
+      while (inFlight.isFull(host)) {
+        completeRequest(batchMaker, inFlight.poll(), false);
+      }
+
+      resolvedRecords.put(record, hb);
+      InFlightRequests.Request request = inFlight.add(record, host, sendRequest(hb), cacheKey);
+      if (cacheKey != null) {
+        pendingRequests.put(cacheKey, request);
       }
     }
 
-    records = batch.getRecords();
-    int recordNum = 0;
-    while (records.hasNext()) {
-      try {
-        Record inRec = records.next();
-        List<Record> recordsResponse = processResponse(inRec, responses.get(recordNum), conf.maxRequestCompletionSecs, false);
-        Response response = null;
+    while (!inFlight.isEmpty()) {
+      completeRequest(batchMaker, inFlight.poll(), false);
+    }
+    if (!resolvedRecords.isEmpty()) {
+      reprocessIfRequired(batchMaker);
+    }
+
+    if (responseCache != null) {
+      responseCacheGauge.put(GAUGE_CACHE_HITS, responseCache.getHits());
+      responseCacheGauge.put(GAUGE_CACHE_MISSES, responseCache.getMisses());
+      responseCacheGauge.put(GAUGE_CACHE_EVICTIONS, responseCache.getEvictions());
+      responseCacheGauge.put(GAUGE_CACHE_SIZE, responseCache.size());
+    }
+  }
+
+  private boolean isCacheable(HttpMethod method) {
+    return method == HttpMethod.GET ||
+        method == HttpMethod.HEAD ||
+        (method == HttpMethod.POST && conf.cachePostResponses);
+  }
+
+  /**
+   * Sends the request of a record of the batch, once the rate limit allows it.
+   */
+  private Future<Response> sendRequest(HeadersAndBody hb) {
+    final AsyncInvoker asyncInvoker = hb.target.request()
+        .property(OAuth1ClientSupport.OAUTH_PROPERTY_ACCESS_TOKEN, httpClientCommon.getAuthToken())
+        .headers(hb.resolvedHeaders)
+        .async();
+
+    rateLimiter.acquire();
+    return sendRequest(asyncInvoker, hb);
+  }
+
+  /**
+   * Sends the request, timing it from now until its response arrives.
+   */
+  private Future<Response> sendRequest(AsyncInvoker asyncInvoker, HeadersAndBody hb) {
+    final long start = System.nanoTime();
+    InvocationCallback<Response> callback = new InvocationCallback<Response>() {
+      @Override
+      public void completed(Response response) {
+        requestLatencyTimer.update(System.nanoTime() - start, TimeUnit.NANOSECONDS);
+      }
+
+      @Override
+      public void failed(Throwable throwable) {
+        requestLatencyTimer.update(System.nanoTime() - start, TimeUnit.NANOSECONDS);
+      }
+    };
+    if (hb.requestBody != null) {
+      return asyncInvoker.method(hb.method.getLabel(), Entity.entity(hb.requestBody, hb.contentType), callback);
+    }
+    return asyncInvoker.method(hb.method.getLabel(), callback);
+  }
+
+  /**
+   * Waits for the response of the request, caching it if it should be, and adds the resulting records to the batch.
+   * A request following another with the same cache key uses its response if it was cached, or else is sent now.
+   */
+  private void completeRequest(
+      SingleLaneBatchMaker batchMaker,
+      InFlightRequests.Request request,
+      boolean failOn403
+  ) throws StageException {
+    Record inRec = request.record;
+    if (request.cacheKey != null) {
+      pendingRequests.remove(request.cacheKey, request);
+    }
+    try {
+      ResponseCache.CachedResponse cachedResponse = request.cachedResponse;
+      Future<Response> future = request.response;
+      if (request.leader != null) {
+        cachedResponse = request.leader.sharedResponse;
+        if (cachedResponse == null) {
+          future = sendRequest(resolvedRecords.get(inRec));
+        }
+      }
+      if (cachedResponse == null) {
+        Response response;
         try {
-          response = responses.get(recordNum).get(conf.maxRequestCompletionSecs, TimeUnit.SECONDS);
+          response = future.get(conf.maxRequestCompletionSecs, TimeUnit.SECONDS);
         } catch (InterruptedException | ExecutionException e) {
           LOG.error(Errors.HTTP_03.getMessage(), e.toString(), e);
           throw new OnRecordErrorException(inRec, Errors.HTTP_03, e.toString());
         } catch (TimeoutException e) {
           LOG.error("HTTP request future timed out", e.toString(), e);
-          throw new OnRecordErrorException(inRec , Errors.HTTP_03, e.toString());
+          throw new OnRecordErrorException(inRec, Errors.HTTP_03, e.toString());
         }
-        if (recordsResponse != null && response != null) {
-          processRecord(batchMaker, recordsResponse, inRec, response);
+        try {
+          if (request.cacheKey == null) {
+            processResponse(
+                batchMaker,
+                inRec,
+                response.getStatus(),
+                response.getStatusInfo().getReasonPhrase(),
+                response.getStringHeaders(),
+                response.hasEntity() ? response.readEntity(InputStream.class) : null,
+                failOn403
+            );
+            return;
+          }
+          cachedResponse = ResponseCache.CachedResponse.of(response);
+          if (responseCache.put(request.cacheKey, cachedResponse)) {
+            request.sharedResponse = cachedResponse;
+          }
+        } catch (IOException e) {
+          LOG.error(Errors.HTTP_03.getMessage(), e.toString(), e);
+          throw new OnRecordErrorException(inRec, Errors.HTTP_03, e.toString());
+        } finally {
+          response.close();
         }
-      } catch (OnRecordErrorException e) {
-        errorRecordHandler.onError(e);
-      } finally {
-        ++recordNum;
       }
-    }
-    if (!resolvedRecords.isEmpty()) {
-      reprocessIfRequired(batchMaker);
+      processResponse(
+          batchMaker,
+          inRec,
+          cachedResponse.getStatus(),
+          cachedResponse.getReasonPhrase(),
+          cachedResponse.getHeaders(),
+          cachedResponse.getBody(),
+          failOn403
+      );
+    } catch (OnRecordErrorException e) {
+      errorRecordHandler.onError(e);
     }
   }
 
 
-  private void processRecord(SingleLaneBatchMaker batchMaker, List<Record> parsedRecords, Record inRec, Response response) throws OnRecordErrorException {
+  private void processRecord(
+      SingleLaneBatchMaker batchMaker,
+      List<Record> parsedRecords,
+      Record inRec,
+      MultivaluedMap<String, String> responseHeaders
+  ) throws OnRecordErrorException {
     Record firstRecord = null;
     Field field = null;
     if(parsedRecords.size()>0) {
@@ -288,7 +431,7 @@ public class HttpProcessor extends SingleLaneProcessor {
         switch (conf.multipleValuesBehavior) {
           case FIRST_ONLY:
             Map<String, Field> fieldsMap = new HashMap<>((Map<String,Field>)inRec.get().getValue());
-            Field resFieldHeaders = createResponseHeaders(inRec,response);
+            Field resFieldHeaders = createResponseHeaders(inRec,responseHeaders);
             if(resFieldHeaders != null){
               fieldsMap.put(conf.headerOutputField.replace("/",""),resFieldHeaders);
             }
@@ -301,7 +444,7 @@ public class HttpProcessor extends SingleLaneProcessor {
             List<Field> multipleFieldValues = new LinkedList<>();
             parsedRecords.forEach(parsedRecord -> multipleFieldValues.add(parsedRecord.get()));
             Map<String, Field> fs = new HashMap<>((Map<String,Field>)inRec.get().getValue());
-            Field resField = createResponseHeaders(inRec,response);
+            Field resField = createResponseHeaders(inRec,responseHeaders);
             if(resField != null){
               fs.put(conf.headerOutputField.replace("/",""),resField);
             }
@@ -315,7 +458,7 @@ public class HttpProcessor extends SingleLaneProcessor {
             for (int i=0; i<size; i++) {
               Record parsedRecord = parsedRecords.get(i);
               Map<String, Field> fields = new HashMap<>((Map<String,Field>)inRec.get().getValue());
-              Field responseField = createResponseHeaders(inRec,response);
+              Field responseField = createResponseHeaders(inRec,responseHeaders);
               if(responseField != null){
                 fields.put(conf.headerOutputField.replace("/",""),responseField);
               }
@@ -342,97 +485,65 @@ public class HttpProcessor extends SingleLaneProcessor {
 
 
   private void reprocessIfRequired(SingleLaneBatchMaker batchMaker) throws StageException {
-    Map<Record, Future<Response>> responses = new HashMap<>(resolvedRecords.size());
-    for(Map.Entry<Record, HeadersAndBody> entry : resolvedRecords.entrySet()) {
+    InFlightRequests inFlight = new InFlightRequests(conf.maxRequestsInFlight, conf.maxRequestsInFlightPerHost);
+    // Copied as processing the responses removes the records
+    for (Map.Entry<Record, HeadersAndBody> entry : new LinkedHashMap<>(resolvedRecords).entrySet()) {
       HeadersAndBody hb = entry.getValue();
-      Future<Response> responseFuture;
+      String host = hb.target.getUri().getAuthority();
+      while (inFlight.isFull(host)) {
+        completeRequest(batchMaker, inFlight.poll(), true);
+      }
       final AsyncInvoker asyncInvoker = hb.target.request()
           .headers(hb.resolvedHeaders).async();
-      if (hb.requestBody != null) {
-        responseFuture = asyncInvoker.method(hb.method.getLabel(), Entity.entity(hb.requestBody, hb.contentType));
-      } else {
-        responseFuture = asyncInvoker.method(hb.method.getLabel());
-      }
-      responses.put(entry.getKey(), responseFuture);
+      inFlight.add(entry.getKey(), host, sendRequest(asyncInvoker, hb), null);
     }
 
-    for (Map.Entry<Record, Future<Response>> entry : responses.entrySet()) {
-      try {
-        List<Record> output = processResponse(entry.getKey(), entry.getValue(), conf.maxRequestCompletionSecs, true);
-        Response response = null;
-        try {
-          response = responses.get(entry.getKey()).get(conf.maxRequestCompletionSecs, TimeUnit.SECONDS);
-        } catch (InterruptedException | ExecutionException e) {
-          LOG.error(Errors.HTTP_03.getMessage(), e.toString(), e);
-          throw new OnRecordErrorException(entry.getKey(), Errors.HTTP_03, e.toString());
-        } catch (TimeoutException e) {
-          LOG.error("HTTP request future timed out", e.toString(), e);
-          throw new OnRecordErrorException(entry.getKey() , Errors.HTTP_03, e.toString());
-        }
-        if (output != null && response != null) {
-          processRecord(batchMaker, output, entry.getKey(), response);
-        }
-      } catch (OnRecordErrorException e) {
-        errorRecordHandler.onError(e);
-      }
+    while (!inFlight.isEmpty()) {
+      completeRequest(batchMaker, inFlight.poll(), true);
     }
   }
 
 
   /**
-   * Waits for the Jersey client to complete an asynchronous request, checks the response code
-   * and continues to parse the response if it is deemed ok.
+   * Checks the response code of a completed request and continues to parse the response and add the resulting
+   * records to the batch if it is deemed ok.
    *
+   * @param batchMaker batch maker to add the records to
    * @param record the current record to set in context for any expression evaluation
-   * @param responseFuture the async HTTP request future
-   * @param maxRequestCompletionSecs maximum time to wait for request completion (start to finish)
-   * @return parsed record from the request
-   * @throws StageException if the request fails, times out, or cannot be parsed
+   * @param responseStatus HTTP status code of the response
+   * @param reasonPhrase HTTP reason phrase of the response
+   * @param responseHeaders HTTP response headers
+   * @param responseBody HTTP response body, or null if there is none
+   * @param failOn403 whether an OAuth2 authorization failure fails the record instead of requesting a new token
+   * @throws StageException if the request failed or the response cannot be parsed
    */
-  private List<Record> processResponse(
+  private void processResponse(
+      SingleLaneBatchMaker batchMaker,
       Record record,
-      Future<Response> responseFuture,
-      long maxRequestCompletionSecs,
+      int responseStatus,
+      String reasonPhrase,
+      MultivaluedMap<String, String> responseHeaders,
+      InputStream responseBody,
       boolean failOn403
   ) throws StageException {
-
-    Response response = null;
-    try {
-      response = responseFuture.get(maxRequestCompletionSecs, TimeUnit.SECONDS);
-      InputStream responseBody = null;
-      if (response.hasEntity()) {
-        responseBody = response.readEntity(InputStream.class);
-      }
-      int responseStatus = response.getStatus();
-      if (conf.client.useOAuth2 && (response.getStatus() == 403 || response.getStatus() == 401) && !failOn403) {
-        HttpStageUtil.getNewOAuth2Token(conf.client.oauth2, httpClientCommon.getClient());
-        return null;
-      } else if (responseStatus < 200 || responseStatus >= 300) {
-        resolvedRecords.remove(record);
-        throw new OnRecordErrorException(
-            record,
-            Errors.HTTP_01,
-            response.getStatus(),
-            response.getStatusInfo().getReasonPhrase() + " " + responseBody
-        );
-      }
+    if (conf.client.useOAuth2 && (responseStatus == 403 || responseStatus == 401) && !failOn403) {
+      HttpStageUtil.getNewOAuth2Token(conf.client.oauth2, httpClientCommon.getClient());
+      return;
+    } else if (responseStatus < 200 || responseStatus >= 300) {
       resolvedRecords.remove(record);
-      List<Record> parsedResponse = parseResponse(record, responseBody);
-      if (conf.httpMethod != HttpMethod.HEAD && responseBody == null && responseStatus != 204) {
-        throw new OnRecordErrorException(record, Errors.HTTP_34);
-      }
-      return parsedResponse;
-    } catch (InterruptedException | ExecutionException e) {
-      LOG.error(Errors.HTTP_03.getMessage(), e.toString(), e);
-      throw new OnRecordErrorException(record, Errors.HTTP_03, e.toString());
-    } catch (TimeoutException e) {
-      LOG.error("HTTP request future timed out", e.toString(), e);
-      throw new OnRecordErrorException(record, Errors.HTTP_03, e.toString());
-    } finally {
-      if (response != null) {
-        response.close();
-      }
+      throw new OnRecordErrorException(
+          record,
+          Errors.HTTP_01,
+          responseStatus,
+          reasonPhrase + " " + responseBody
+      );
     }
+    resolvedRecords.remove(record);
+    List<Record> parsedResponse = parseResponse(record, responseBody);
+    if (conf.httpMethod != HttpMethod.HEAD && responseBody == null && responseStatus != 204) {
+      throw new OnRecordErrorException(record, Errors.HTTP_34);
+    }
+    processRecord(batchMaker, parsedResponse, record, responseHeaders);
   }
 
 
@@ -495,10 +606,11 @@ public class HttpProcessor extends SingleLaneProcessor {
    * Populates HTTP response headers to the configured location
    *
    * @param record current record to populate
-   * @param response HTTP response
+   * @param responseHeaders HTTP response headers
    * @throws StageException when writing headers to a field path that already exists
    */
-  private Field createResponseHeaders(Record record, Response response) throws StageException {
+  private Field createResponseHeaders(Record record, MultivaluedMap<String, String> responseHeaders)
+      throws StageException {
     if (conf.headerOutputLocation == HeaderOutputLocation.NONE) {
       return null;
     }
@@ -506,9 +618,9 @@ public class HttpProcessor extends SingleLaneProcessor {
     Record.Header header = record.getHeader();
 
     if (conf.headerOutputLocation == HeaderOutputLocation.FIELD) {
-      return createResponseHeaderField(record, response);
+      return createResponseHeaderField(record, responseHeaders);
     } else if (conf.headerOutputLocation == HeaderOutputLocation.HEADER) {
-      createResponseHeaderToRecordHeader(response, header);
+      createResponseHeaderToRecordHeader(responseHeaders, header);
       return null;
     }
     return null;
@@ -518,16 +630,17 @@ public class HttpProcessor extends SingleLaneProcessor {
    * Creates the HTTP response headers to the SDC Record at the configured field path.
    *
    * @param record Record to populate with response headers.
-   * @param response HTTP response
+   * @param responseHeaders HTTP response headers
    * @throws StageException if the field path already exists
    */
-  private Field createResponseHeaderField(Record record, Response response) throws StageException {
+  private Field createResponseHeaderField(Record record, MultivaluedMap<String, String> responseHeaders)
+      throws StageException {
     if (record.has(conf.headerOutputField) || conf.headerOutputLocation.equals(conf.outputField)) {
       throw new StageException(Errors.HTTP_11, conf.headerOutputField);
     }
-    Map<String, Field> headers = new HashMap<>(response.getStringHeaders().size());
+    Map<String, Field> headers = new HashMap<>(responseHeaders.size());
 
-    for (Map.Entry<String, List<String>> entry : response.getStringHeaders().entrySet()) {
+    for (Map.Entry<String, List<String>> entry : responseHeaders.entrySet()) {
       if (!entry.getValue().isEmpty()) {
         String firstValue = entry.getValue().get(0);
         headers.put(entry.getKey(), Field.create(firstValue));
@@ -540,11 +653,11 @@ public class HttpProcessor extends SingleLaneProcessor {
   /**
    * Writes HTTP response headers to the SDC Record header with the configured optional prefix.
    *
-   * @param response HTTP response
+   * @param responseHeaders HTTP response headers
    * @param header SDC Record header
    */
-  private void createResponseHeaderToRecordHeader(Response response, Record.Header header) {
-    for (Map.Entry<String, List<String>> entry : response.getStringHeaders().entrySet()) {
+  private void createResponseHeaderToRecordHeader(MultivaluedMap<String, String> responseHeaders, Record.Header header) {
+    for (Map.Entry<String, List<String>> entry : responseHeaders.entrySet()) {
       if (!entry.getValue().isEmpty()) {
         String firstValue = entry.getValue().get(0);
         header.setAttribute(conf.headerAttributePrefix + entry.getKey(), firstValue);
@@ -31,6 +31,7 @@ import com.streamsets.pipeline.lib.http.JerseyClientConfigBean;
 import com.streamsets.pipeline.stage.common.MultipleValuesBehavior;
 import com.streamsets.pipeline.stage.common.MultipleValuesBehaviorChooserValues;
 import com.streamsets.pipeline.stage.origin.lib.DataParserFormatConfig;
+import com.streamsets.pipeline.stage.processor.kv.CacheConfig;
 import com.streamsets.pipeline.stage.util.http.HttpStageUtil;
 
 import java.util.HashMap;
@@ -199,6 +200,64 @@ public class HttpProcessorConfig {
   )
   public int rateLimit;
 
+  @ConfigDef(
+      required = false,
+      type = ConfigDef.Type.NUMBER,
+      label = "Max Requests in Flight",
+      defaultValue = "0",
+      description = "Maximum number of requests sent before their responses are processed (0 for the whole batch). " +
+          "Further requests are sent as the responses are processed, in record order.",
+      displayPosition = 170,
+      group = "HTTP",
+      min = 0
+  )
+  public int maxRequestsInFlight;
+
+  @ConfigDef(
+      required = false,
+      type = ConfigDef.Type.NUMBER,
+      label = "Max Requests in Flight per Host",
+      defaultValue = "0",
+      description = "Maximum number of requests sent to the same host before their responses are processed " +
+          "(0 for unlimited).",
+      displayPosition = 180,
+      group = "HTTP",
+      min = 0
+  )
+  public int maxRequestsInFlightPerHost;
+
+  @ConfigDefBean(groups = "CACHE")
+  public CacheConfig cacheConfig = new CacheConfig();
+
+  @ConfigDef(
+      required = true,
+      type = ConfigDef.Type.BOOLEAN,
+      label = "Honor Cache-Control",
+      defaultValue = "true",
+      description = "Do not cache the responses marked no-store or no-cache, and cache the others no longer than " +
+          "their max-age.",
+      dependsOn = "cacheConfig.enabled",
+      triggeredByValue = "true",
+      displayPosition = 190,
+      group = "CACHE"
+  )
+  public boolean honorCacheControl = true;
+
+  @ConfigDef(
+      required = true,
+      type = ConfigDef.Type.BOOLEAN,
+      label = "Cache POST Responses",
+      defaultValue = "false",
+      description = "Also cache the responses of POST requests, by URL, headers and request data. Only use it when " +
+          "the POST requests only read data, as cached requests aren't sent again. The responses of GET and HEAD " +
+          "requests are always cached.",
+      dependsOn = "cacheConfig.enabled",
+      triggeredByValue = "true",
+      displayPosition = 200,
+      group = "CACHE"
+  )
+  public boolean cachePostResponses = false;
+
   @ConfigDef(
       required = true,
       type = ConfigDef.Type.NUMBER,
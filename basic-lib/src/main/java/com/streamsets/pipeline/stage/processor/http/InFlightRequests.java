@@ -0,0 +1,135 @@
+/*
+ * Copyright 2019 StreamSets Inc.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package com.streamsets.pipeline.stage.processor.http;
+
+import com.streamsets.pipeline.api.Record;
+
+import javax.ws.rs.core.Response;
+import java.util.ArrayDeque;
+import java.util.Deque;
+import java.util.HashMap;
+import java.util.Map;
+import java.util.concurrent.Future;
+
+/**
+ * Requests sent by the HTTP Client processor whose responses have not been processed yet, in the order they were
+ * sent. Bounds how many requests may be in flight in total and to each host, so that the requests of a large batch
+ * are sent as the responses of the earlier ones are processed, instead of all at once.
+ */
+class InFlightRequests {
+
+  static class Request {
+    final Record record;
+    final String host;
+    final Future<Response> response;
+    final ResponseCache.Key cacheKey;
+    final ResponseCache.CachedResponse cachedResponse;
+    final Request leader;
+    // set once the response of the request is cached, for the requests with the same key that follow it
+    ResponseCache.CachedResponse sharedResponse;
+
+    Request(
+        Record record,
+        String host,
+        Future<Response> response,
+        ResponseCache.Key cacheKey,
+        ResponseCache.CachedResponse cachedResponse,
+        Request leader
+    ) {
+      this.record = record;
+      this.host = host;
+      this.response = response;
+      this.cacheKey = cacheKey;
+      this.cachedResponse = cachedResponse;
+      this.leader = leader;
+    }
+
+    private boolean isSent() {
+      return cachedResponse == null && leader == null;
+    }
+  }
+
+  private final int maxRequests;
+  private final int maxRequestsPerHost;
+  private final Deque<Request> requests = new ArrayDeque<>();
+  private final Map<String, Integer> requestsPerHost = new HashMap<>();
+  private int sent;
+
+  /**
+   * @param maxRequests maximum number of requests in flight, 0 for unlimited
+   * @param maxRequestsPerHost maximum number of requests in flight to the same host, 0 for unlimited
+   */
+  InFlightRequests(int maxRequests, int maxRequestsPerHost) {
+    this.maxRequests = maxRequests;
+    this.maxRequestsPerHost = maxRequestsPerHost;
+  }
+
+  /**
+   * Returns whether another request to the given host has to wait for the oldest request to complete.
+   */
+  boolean isFull(String host) {
+    return (maxRequests > 0 && sent >= maxRequests) ||
+        (maxRequestsPerHost > 0 && requestsPerHost.getOrDefault(host, 0) >= maxRequestsPerHost);
+  }
+
+  /**
+   * Adds a request that was sent, along with the key to cache its response with if it should be.
+   */
+  Request add(Record record, String host, Future<Response> response, ResponseCache.Key cacheKey) {
+    Request request = new Request(record, host, response, cacheKey, null, null);
+    requests.addLast(request);
+    requestsPerHost.merge(host, 1, Integer::sum);
+    sent++;
+    return request;
+  }
+
+  /**
+   * Adds a request answered from the cache, so that its response is processed in order. These aren't bound by the
+   * limits, as they aren't sent.
+   */
+  void addCached(Record record, ResponseCache.CachedResponse response) {
+    requests.addLast(new Request(record, null, null, null, response, null));
+  }
+
+  /**
+   * Adds a request with the same cache key as the given request still in flight, to be answered with its response
+   * once it is cached. These aren't bound by the limits either, as they are only sent if the response of the
+   * request they follow can't be cached.
+   */
+  void addFollower(Record record, Request leader) {
+    requests.addLast(new Request(record, null, null, leader.cacheKey, null, leader));
+  }
+
+  boolean isEmpty() {
+    return requests.isEmpty();
+  }
+
+  int size() {
+    return requests.size();
+  }
+
+  /**
+   * Removes the oldest request, or returns null if there are none.
+   */
+  Request poll() {
+    Request request = requests.pollFirst();
+    if (request != null && request.isSent()) {
+      sent--;
+      requestsPerHost.computeIfPresent(request.host, (host, count) -> count > 1 ? count - 1 : null);
+    }
+    return request;
+  }
+}
@@ -0,0 +1,236 @@
+/*
+ * Copyright 2019 StreamSets Inc.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package com.streamsets.pipeline.stage.processor.http;
+
+import com.google.common.annotations.VisibleForTesting;
+import com.google.common.base.Ticker;
+import com.google.common.cache.Cache;
+import com.google.common.cache.CacheBuilder;
+import com.streamsets.pipeline.lib.http.HttpMethod;
+import com.streamsets.pipeline.stage.processor.kv.CacheConfig;
+import com.streamsets.pipeline.stage.processor.kv.EvictionPolicyType;
+import org.apache.commons.io.IOUtils;
+
+import javax.ws.rs.core.HttpHeaders;
+import javax.ws.rs.core.MultivaluedHashMap;
+import javax.ws.rs.core.MultivaluedMap;
+import javax.ws.rs.core.Response;
+import java.io.ByteArrayInputStream;
+import java.io.IOException;
+import java.io.InputStream;
+import java.util.List;
+import java.util.Objects;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Cache of the responses of the HTTP Client processor, keyed by the method, resolved URL, headers and body of the
+ * requests. Successful responses are cached within the size and expiration bounds of the {@link CacheConfig}, as
+ * well as the 404 responses of missing values unless those should be retried. When Cache-Control is honored, the
+ * responses marked no-store or no-cache aren't cached and max-age shortens how long the others are.
+ */
+class ResponseCache {
+
+  static class Key {
+    private final String method;
+    private final String url;
+    private final MultivaluedMap<String, Object> headers;
+    private final String body;
+
+    Key(HttpMethod method, String url, MultivaluedMap<String, Object> headers, String body) {
+      this.method = method.getLabel();
+      this.url = url;
+      this.headers = headers;
+      this.body = body;
+    }
+
+    @Override
+    public boolean equals(Object o) {
+      if (this == o) {
+        return true;
+      }
+      if (o == null || getClass() != o.getClass()) {
+        return false;
+      }
+      Key key = (Key) o;
+      return method.equals(key.method) &&
+          url.equals(key.url) &&
+          Objects.equals(headers, key.headers) &&
+          Objects.equals(body, key.body);
+    }
+
+    @Override
+    public int hashCode() {
+      return Objects.hash(method, url, headers, body);
+    }
+  }
+
+  /**
+   * A response read in full, so it can be processed any number of times.
+   */
+  static class CachedResponse {
+    private final int status;
+    private final String reasonPhrase;
+    private final MultivaluedMap<String, String> headers;
+    private final byte[] body;
+    private long expiresAt = Long.MAX_VALUE;
+
+    CachedResponse(int status, String reasonPhrase, MultivaluedMap<String, String> headers, byte[] body) {
+      this.status = status;
+      this.reasonPhrase = reasonPhrase;
+      this.headers = headers;
+      this.body = body;
+    }
+
+    static CachedResponse of(Response response) throws IOException {
+      byte[] body = null;
+      if (response.hasEntity()) {
+        try (InputStream is = response.readEntity(InputStream.class)) {
+          body = IOUtils.toByteArray(is);
+        }
+      }
+      return new CachedResponse(
+          response.getStatus(),
+          response.getStatusInfo().getReasonPhrase(),
+          new MultivaluedHashMap<>(response.getStringHeaders()),
+          body
+      );
+    }
+
+    int getStatus() {
+      return status;
+    }
+
+    String getReasonPhrase() {
+      return reasonPhrase;
+    }
+
+    MultivaluedMap<String, String> getHeaders() {
+      return headers;
+    }
+
+    /**
+     * Returns a new stream over the body, or null if the response has none.
+     */
+    InputStream getBody() {
+      return body == null ? null : new ByteArrayInputStream(body);
+    }
+  }
+
+  private final boolean cacheMissingValues;
+  private final boolean honorCacheControl;
+  private final Ticker ticker;
+  private final Cache<Key, CachedResponse> cache;
+  private long hits;
+  private long misses;
+  private long expired;
+
+  ResponseCache(CacheConfig conf, boolean honorCacheControl) {
+    this(conf, honorCacheControl, Ticker.systemTicker());
+  }
+
+  @VisibleForTesting
+  ResponseCache(CacheConfig conf, boolean honorCacheControl, Ticker ticker) {
+    this.cacheMissingValues = !conf.retryOnCacheMiss;
+    this.honorCacheControl = honorCacheControl;
+    this.ticker = ticker;
+
+    CacheBuilder<Object, Object> cacheBuilder = CacheBuilder.newBuilder().ticker(ticker).recordStats();
+    if (conf.maxSize != -1) {
+      cacheBuilder.maximumSize(conf.maxSize);
+    }
+    if (conf.evictionPolicyType == EvictionPolicyType.EXPIRE_AFTER_ACCESS) {
+      cacheBuilder.expireAfterAccess(conf.expirationTime, conf.timeUnit);
+    } else {
+      cacheBuilder.expireAfterWrite(conf.expirationTime, conf.timeUnit);
+    }
+    this.cache = cacheBuilder.build();
+  }
+
+  /**
+   * Returns the cached response of the request, or null if there is none that is still fresh.
+   */
+  CachedResponse get(Key key) {
+    CachedResponse response = cache.getIfPresent(key);
+    if (response != null && ticker.read() >= response.expiresAt) {
+      cache.invalidate(key);
+      expired++;
+      response = null;
+    }
+    if (response == null) {
+      misses++;
+    } else {
+      hits++;
+    }
+    return response;
+  }
+
+  /**
+   * Caches the response of the request if it may be, returning whether it was cached.
+   */
+  boolean put(Key key, CachedResponse response) {
+    int status = response.getStatus();
+    boolean cacheable = (status >= 200 && status < 300) || (cacheMissingValues && status == 404);
+    if (!cacheable) {
+      return false;
+    }
+    if (honorCacheControl) {
+      List<String> cacheControl = response.getHeaders().get(HttpHeaders.CACHE_CONTROL);
+      if (cacheControl != null) {
+        for (String value : cacheControl) {
+          for (String directive : value.split(",")) {
+            directive = directive.trim().toLowerCase();
+            if (directive.equals("no-store") || directive.equals("no-cache")) {
+              return false;
+            } else if (directive.startsWith("max-age=")) {
+              long maxAge;
+              try {
+                maxAge = Long.parseLong(directive.substring("max-age=".length()).replace("\"", ""));
+              } catch (NumberFormatException e) {
+                // a malformed max-age makes the response stale
+                maxAge = 0;
+              }
+              if (maxAge <= 0) {
+                return false;
+              }
+              response.expiresAt = ticker.read() + TimeUnit.SECONDS.toNanos(maxAge);
+            }
+          }
+        }
+      }
+    }
+    cache.put(key, response);
+    return true;
+  }
+
+  long size() {
+    return cache.size();
+  }
+
+  long getHits() {
+    return hits;
+  }
+
+  long getMisses() {
+    return misses;
+  }
+
+  /**
+   * Returns the number of responses evicted from the cache, whether to bound its size or because they expired.
+   */
+  long getEvictions() {
+    return cache.stats().evictionCount() + expired;
+  }
+}
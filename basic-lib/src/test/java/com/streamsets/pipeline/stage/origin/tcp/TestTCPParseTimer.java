@@ -0,0 +1,67 @@
+/*
+ * Copyright 2019 StreamSets Inc.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package com.streamsets.pipeline.stage.origin.tcp;
+
+import com.codahale.metrics.Timer;
+import com.google.common.collect.ImmutableList;
+import io.netty.channel.ChannelHandlerContext;
+import io.netty.channel.ChannelInboundHandlerAdapter;
+import io.netty.channel.embedded.EmbeddedChannel;
+import io.netty.handler.codec.MessageToMessageDecoder;
+import org.junit.Assert;
+import org.junit.Test;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+import java.util.concurrent.TimeUnit;
+
+public class TestTCPParseTimer {
+
+  @Test
+  public void testTimesDecodersOnly() throws Exception {
+    Timer timer = new Timer();
+    TCPParseTimer parseTimer = new TCPParseTimer(timer);
+    List<Object> received = new ArrayList<>();
+    EmbeddedChannel channel = new EmbeddedChannel(
+        parseTimer.getStartHandler(),
+        new MessageToMessageDecoder<String>() {
+          @Override
+          protected void decode(ChannelHandlerContext ctx, String msg, List<Object> out) {
+            out.addAll(Arrays.asList(msg.split(",")));
+          }
+        },
+        parseTimer.getEndHandler(),
+        new ChannelInboundHandlerAdapter() {
+          @Override
+          public void channelRead(ChannelHandlerContext ctx, Object msg) throws Exception {
+            // a batch being processed, not part of the parsing
+            Thread.sleep(50);
+            received.add(msg);
+          }
+        }
+    );
+
+    channel.writeInbound("a,b");
+    channel.writeInbound("c");
+    channel.finish();
+
+    Assert.assertEquals(ImmutableList.of("a", "b", "c"), received);
+    Assert.assertEquals(3, timer.getCount());
+    Assert.assertTrue(timer.getSnapshot().getMax() < TimeUnit.MILLISECONDS.toNanos(50));
+  }
+
+}
@@ -16,11 +16,15 @@
 package com.streamsets.pipeline.stage.origin.tcp;
 
 import com.streamsets.pipeline.api.Config;
+import com.streamsets.pipeline.api.StageUpgrader;
 import com.streamsets.pipeline.config.upgrade.UpgraderTestUtils;
+import com.streamsets.pipeline.upgrader.SelectorStageUpgrader;
 import org.jetbrains.annotations.NotNull;
 import org.junit.Assert;
 import org.junit.Test;
+import org.mockito.Mockito;
 
+import java.net.URL;
 import java.util.LinkedList;
 import java.util.List;
 
@@ -99,4 +103,16 @@ public class TestTCPServerSourceUpgrader {
     UpgraderTestUtils.assertExists(configs, "conf.readTimeout", 3600);
   }
 
+  @Test
+  public void testV4ToV5() throws Exception {
+    URL yamlResource = ClassLoader.getSystemClassLoader().getResource("upgrader/TCPServerDSource.yaml");
+    StageUpgrader upgrader = new SelectorStageUpgrader("stage", new TCPServerSourceUpgrader(), yamlResource);
+    StageUpgrader.Context context = Mockito.mock(StageUpgrader.Context.class);
+    Mockito.doReturn(4).when(context).getFromVersion();
+    Mockito.doReturn(5).when(context).getToVersion();
+
+    List<Config> configs = upgrader.upgrade(new LinkedList<>(), context);
+    UpgraderTestUtils.assertExists(configs, "conf.parserThreads", 0);
+  }
+
 }
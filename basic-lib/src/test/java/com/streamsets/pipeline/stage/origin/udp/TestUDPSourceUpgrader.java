@@ -16,9 +16,13 @@
 package com.streamsets.pipeline.stage.origin.udp;
 
 import com.streamsets.pipeline.api.Config;
+import com.streamsets.pipeline.api.StageUpgrader;
 import com.streamsets.pipeline.config.upgrade.UpgraderTestUtils;
+import com.streamsets.pipeline.upgrader.SelectorStageUpgrader;
 import org.junit.Test;
+import org.mockito.Mockito;
 
+import java.net.URL;
 import java.util.Arrays;
 import java.util.LinkedList;
 import java.util.List;
@@ -59,4 +63,16 @@ public class TestUDPSourceUpgrader {
     UpgraderTestUtils.assertExists(configs, UDPDSource.CONFIG_PREFIX + "ports", ports);
     UpgraderTestUtils.assertExists(configs, UDPDSource.CONFIG_PREFIX + "batchSize", batchSize);
   }
+
+  @Test
+  public void testV4ToV5() throws Exception {
+    URL yamlResource = ClassLoader.getSystemClassLoader().getResource("upgrader/UDPDSource.yaml");
+    StageUpgrader upgrader = new SelectorStageUpgrader("stage", new UDPSourceUpgrader(), yamlResource);
+    StageUpgrader.Context context = Mockito.mock(StageUpgrader.Context.class);
+    Mockito.doReturn(4).when(context).getFromVersion();
+    Mockito.doReturn(5).when(context).getToVersion();
+
+    List<Config> configs = upgrader.upgrade(new LinkedList<>(), context);
+    UpgraderTestUtils.assertExists(configs, "parserThreads", 0);
+  }
 }
@@ -70,6 +70,40 @@ public class TestFieldFilterProcessor {
     }
   }
 
+  @Test
+  public void testKeepDoesNotKeepSiblingsSharingPrefix() throws StageException {
+    ProcessorRunner runner = new ProcessorRunner.Builder(FieldFilterDProcessor.class)
+      .addConfiguration("fields", ImmutableList.of("/a"))
+      .addConfiguration("filterOperation", FilterOperation.KEEP)
+      .addOutputLane("a").build();
+    runner.runInit();
+
+    try {
+      Map<String, Field> child = new LinkedHashMap<>();
+      child.put("c", Field.create("x"));
+      // deeper than /a, so it is matched on the prefix rather than on the whole path
+      Map<String, Field> sibling = new LinkedHashMap<>();
+      sibling.put("x", Field.create("y"));
+      Map<String, Field> map = new LinkedHashMap<>();
+      map.put("a", Field.create(child));
+      map.put("ab", Field.create(sibling));
+      map.put("b", Field.create("z"));
+      Record record = RecordCreator.create("s", "s:1");
+      record.set(Field.create(map));
+
+      StageRunner.Output output = runner.runProcess(ImmutableList.of(record));
+      Assert.assertEquals(1, output.getRecords().get("a").size());
+      Record result = output.getRecords().get("a").get(0);
+      Assert.assertTrue(result.has("/a"));
+      Assert.assertTrue(result.has("/a/c"));
+      Assert.assertFalse(result.has("/ab/x"));
+      Assert.assertFalse(result.has("/ab"));
+      Assert.assertFalse(result.has("/b"));
+    } finally {
+      runner.runDestroy();
+    }
+  }
+
   @Test
   public void testKeepNonExistingFiled() throws StageException {
     ProcessorRunner runner = new ProcessorRunner.Builder(FieldFilterDProcessor.class)
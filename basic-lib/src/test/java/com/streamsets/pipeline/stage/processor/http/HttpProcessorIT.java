@@ -35,6 +35,7 @@ import com.streamsets.pipeline.lib.http.oauth2.SigningAlgorithms;
 import com.streamsets.pipeline.sdk.ProcessorRunner;
 import com.streamsets.pipeline.sdk.RecordCreator;
 import com.streamsets.pipeline.sdk.StageRunner;
+import com.streamsets.pipeline.stage.processor.kv.EvictionPolicyType;
 import com.streamsets.pipeline.stage.util.http.HttpStageTestUtil;
 import com.streamsets.pipeline.stage.util.http.HttpStageUtil;
 import com.streamsets.testing.SingleForkNoReuseTest;
@@ -54,6 +55,7 @@ import javax.ws.rs.GET;
 import javax.ws.rs.HEAD;
 import javax.ws.rs.POST;
 import javax.ws.rs.Path;
+import javax.ws.rs.PathParam;
 import javax.ws.rs.Produces;
 import javax.ws.rs.QueryParam;
 import javax.ws.rs.core.Application;
@@ -74,6 +76,8 @@ import java.util.HashMap;
 import java.util.List;
 import java.util.Map;
 import java.util.Random;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
 
 import static com.streamsets.pipeline.lib.http.oauth2.OAuth2GrantTypes.CLIENT_CREDENTIALS;
 import static org.junit.Assert.assertEquals;
@@ -369,6 +373,40 @@ public class HttpProcessorIT extends JerseyTest {
     }
   }
 
+  @Path("/test/concurrent/{id}")
+  @Produces(MediaType.TEXT_PLAIN)
+  public static class TestConcurrent {
+    static final AtomicInteger current = new AtomicInteger();
+    static final AtomicInteger max = new AtomicInteger();
+
+    @GET
+    public Response get(@PathParam("id") String id) throws InterruptedException {
+      max.accumulateAndGet(current.incrementAndGet(), Math::max);
+      try {
+        Thread.sleep(20);
+      } finally {
+        current.decrementAndGet();
+      }
+      return Response.ok(id).build();
+    }
+  }
+
+  @Path("/test/cached/{id}")
+  @Produces(MediaType.TEXT_PLAIN)
+  public static class TestCached {
+    static final AtomicInteger requests = new AtomicInteger();
+
+    @GET
+    public Response get(@PathParam("id") String id, @QueryParam("cacheControl") String cacheControl) {
+      requests.incrementAndGet();
+      Response.ResponseBuilder builder = Response.ok(id);
+      if (cacheControl != null) {
+        builder.header(HttpHeaders.CACHE_CONTROL, cacheControl);
+      }
+      return builder.build();
+    }
+  }
+
   @Override
   protected Application configure() {
     forceSet(TestProperties.CONTAINER_PORT, "0");
@@ -386,11 +424,102 @@ public class HttpProcessorIT extends JerseyTest {
             Auth2ResourceOwnerWithIdResource.class,
             Auth2BasicResource.class,
             Auth2JWTResource.class,
-            TestTimeEL.class
+            TestTimeEL.class,
+            TestConcurrent.class,
+            TestCached.class
         )
     );
   }
 
+  @Test
+  public void testMaxRequestsInFlight() throws Exception {
+    HttpProcessorConfig conf = new HttpProcessorConfig();
+    conf.httpMethod = HttpMethod.GET;
+    conf.dataFormat = DataFormat.TEXT;
+    conf.resourceUrl = getBaseUri() + "test/concurrent/${record:value('/path')}";
+    conf.headerOutputLocation = HeaderOutputLocation.NONE;
+    conf.client.numThreads = 8;
+    conf.maxRequestsInFlight = 3;
+    TestConcurrent.max.set(0);
+
+    String[] ids = new String[20];
+    for (int i = 0; i < ids.length; i++) {
+      ids[i] = String.valueOf(i);
+    }
+    ProcessorRunner runner = createProcessorRunner(conf);
+    try {
+      StageRunner.Output output = runner.runProcess(createRecords(ids));
+      List<Record> outputRecords = output.getRecords().get(OUTPUT_LANE);
+      assertEquals(ids.length, outputRecords.size());
+      for (int i = 0; i < ids.length; i++) {
+        // responses are processed in record order
+        assertEquals(ids[i], outputRecords.get(i).get(OUTPUT_FIELD).getValueAsString());
+      }
+      // requests did run concurrently, within the limit
+      assertTrue(TestConcurrent.max.get() > 1);
+      assertTrue(TestConcurrent.max.get() <= 3);
+      assertTrue(runner.getErrorRecords().isEmpty());
+    } finally {
+      runner.runDestroy();
+    }
+  }
+
+  @Test
+  public void testResponseCache() throws Exception {
+    HttpProcessorConfig conf = new HttpProcessorConfig();
+    conf.httpMethod = HttpMethod.GET;
+    conf.dataFormat = DataFormat.TEXT;
+    conf.resourceUrl = getBaseUri() + "test/cached/${record:value('/path')}";
+    conf.headerOutputLocation = HeaderOutputLocation.NONE;
+    conf.cacheConfig.enabled = true;
+    conf.cacheConfig.evictionPolicyType = EvictionPolicyType.EXPIRE_AFTER_WRITE;
+    conf.cacheConfig.expirationTime = 1;
+    conf.cacheConfig.timeUnit = TimeUnit.HOURS;
+    TestCached.requests.set(0);
+
+    String[] ids = {"a", "b", "a", "a", "b", "c"};
+    ProcessorRunner runner = createProcessorRunner(conf);
+    try {
+      StageRunner.Output output = runner.runProcess(createRecords(ids));
+      List<Record> outputRecords = output.getRecords().get(OUTPUT_LANE);
+      assertEquals(ids.length, outputRecords.size());
+      for (int i = 0; i < ids.length; i++) {
+        assertEquals(ids[i], outputRecords.get(i).get(OUTPUT_FIELD).getValueAsString());
+      }
+      assertEquals(3, TestCached.requests.get());
+
+      // the next batch is answered from the cache too
+      output = runner.runProcess(createRecords("c", "b"));
+      assertEquals(2, output.getRecords().get(OUTPUT_LANE).size());
+      assertEquals(3, TestCached.requests.get());
+    } finally {
+      runner.runDestroy();
+    }
+  }
+
+  @Test
+  public void testResponseCacheHonorsCacheControl() throws Exception {
+    HttpProcessorConfig conf = new HttpProcessorConfig();
+    conf.httpMethod = HttpMethod.GET;
+    conf.dataFormat = DataFormat.TEXT;
+    conf.resourceUrl = getBaseUri() + "test/cached/${record:value('/path')}?cacheControl=no-store";
+    conf.headerOutputLocation = HeaderOutputLocation.NONE;
+    conf.cacheConfig.enabled = true;
+    conf.cacheConfig.evictionPolicyType = EvictionPolicyType.EXPIRE_AFTER_WRITE;
+    conf.cacheConfig.expirationTime = 1;
+    conf.cacheConfig.timeUnit = TimeUnit.HOURS;
+    TestCached.requests.set(0);
+
+    ProcessorRunner runner = createProcessorRunner(conf);
+    try {
+      StageRunner.Output output = runner.runProcess(createRecords("a", "a", "a"));
+      assertEquals(3, output.getRecords().get(OUTPUT_LANE).size());
+      assertEquals(3, TestCached.requests.get());
+    } finally {
+      runner.runDestroy();
+    }
+  }
+
   @Test
   public void testHttpHead() throws Exception {
     HttpProcessorConfig conf = new HttpProcessorConfig();
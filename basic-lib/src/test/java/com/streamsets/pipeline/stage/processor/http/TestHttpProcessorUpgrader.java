@@ -30,6 +30,7 @@ import com.streamsets.pipeline.lib.http.logging.RequestLoggingConfigBean;
 import com.streamsets.pipeline.lib.http.logging.VerbosityChooserValues;
 import com.streamsets.pipeline.stage.common.MultipleValuesBehavior;
 import com.streamsets.pipeline.stage.origin.http.HttpClientSourceUpgrader;
+import com.streamsets.pipeline.stage.processor.kv.EvictionPolicyType;
 import com.streamsets.pipeline.stage.util.tls.TlsConfigBeanUpgraderTestUtil;
 import com.streamsets.pipeline.upgrader.SelectorStageUpgrader;
 import org.glassfish.jersey.client.RequestEntityProcessing;
@@ -43,6 +44,7 @@ import java.util.ArrayList;
 import java.util.HashMap;
 import java.util.List;
 import java.util.Map;
+import java.util.concurrent.TimeUnit;
 
 import static org.junit.Assert.assertEquals;
 import static org.junit.Assert.assertNull;
@@ -353,4 +355,36 @@ public class TestHttpProcessorUpgrader {
 
     UpgraderTestUtils.assertExists(configs, dataFormatPrefix + "preserveRootElement", false);
   }
+
+  @Test
+  public void testV13ToV14() {
+    Mockito.doReturn(13).when(context).getFromVersion();
+    Mockito.doReturn(14).when(context).getToVersion();
+
+    configs = upgrader.upgrade(configs, context);
+
+    UpgraderTestUtils.assertExists(configs, "conf.maxRequestsInFlight", 0);
+    UpgraderTestUtils.assertExists(configs, "conf.maxRequestsInFlightPerHost", 0);
+  }
+
+  @Test
+  public void testV14ToV15() {
+    Mockito.doReturn(14).when(context).getFromVersion();
+    Mockito.doReturn(15).when(context).getToVersion();
+
+    configs = upgrader.upgrade(configs, context);
+
+    UpgraderTestUtils.assertExists(configs, "conf.cacheConfig.enabled", false);
+    UpgraderTestUtils.assertExists(configs, "conf.cacheConfig.maxSize", -1);
+    UpgraderTestUtils.assertExists(
+        configs,
+        "conf.cacheConfig.evictionPolicyType",
+        EvictionPolicyType.EXPIRE_AFTER_WRITE.toString()
+    );
+    UpgraderTestUtils.assertExists(configs, "conf.cacheConfig.expirationTime", 1);
+    UpgraderTestUtils.assertExists(configs, "conf.cacheConfig.timeUnit", TimeUnit.SECONDS.toString());
+    UpgraderTestUtils.assertExists(configs, "conf.cacheConfig.retryOnCacheMiss", false);
+    UpgraderTestUtils.assertExists(configs, "conf.honorCacheControl", true);
+    UpgraderTestUtils.assertExists(configs, "conf.cachePostResponses", false);
+  }
 }
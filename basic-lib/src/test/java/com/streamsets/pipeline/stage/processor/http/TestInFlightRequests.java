@@ -0,0 +1,115 @@
+/*
+ * Copyright 2019 StreamSets Inc.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package com.streamsets.pipeline.stage.processor.http;
+
+import com.streamsets.pipeline.api.Record;
+import com.streamsets.pipeline.lib.http.HttpMethod;
+import com.streamsets.pipeline.sdk.RecordCreator;
+import org.junit.Assert;
+import org.junit.Test;
+
+import javax.ws.rs.core.MultivaluedHashMap;
+
+public class TestInFlightRequests {
+
+  @Test
+  public void testUnlimited() {
+    InFlightRequests inFlight = new InFlightRequests(0, 0);
+    for (int i = 0; i < 1000; i++) {
+      Assert.assertFalse(inFlight.isFull("localhost:8080"));
+      inFlight.add(RecordCreator.create(), "localhost:8080", null, null);
+    }
+    Assert.assertEquals(1000, inFlight.size());
+  }
+
+  @Test
+  public void testMaxRequests() {
+    InFlightRequests inFlight = new InFlightRequests(2, 0);
+    Record first = RecordCreator.create();
+    Record second = RecordCreator.create();
+    inFlight.add(first, "a:80", null, null);
+    Assert.assertFalse(inFlight.isFull("b:80"));
+    inFlight.add(second, "b:80", null, null);
+    Assert.assertTrue(inFlight.isFull("c:80"));
+
+    // oldest first
+    Assert.assertSame(first, inFlight.poll().record);
+    Assert.assertFalse(inFlight.isFull("c:80"));
+    Assert.assertSame(second, inFlight.poll().record);
+    Assert.assertTrue(inFlight.isEmpty());
+    Assert.assertNull(inFlight.poll());
+  }
+
+  @Test
+  public void testMaxRequestsPerHost() {
+    InFlightRequests inFlight = new InFlightRequests(0, 1);
+    inFlight.add(RecordCreator.create(), "a:80", null, null);
+    Assert.assertTrue(inFlight.isFull("a:80"));
+    Assert.assertFalse(inFlight.isFull("b:80"));
+    inFlight.add(RecordCreator.create(), "b:80", null, null);
+    Assert.assertTrue(inFlight.isFull("b:80"));
+
+    inFlight.poll();
+    Assert.assertFalse(inFlight.isFull("a:80"));
+    Assert.assertTrue(inFlight.isFull("b:80"));
+  }
+
+  @Test
+  public void testCachedResponses() {
+    InFlightRequests inFlight = new InFlightRequests(1, 1);
+    Record sent = RecordCreator.create();
+    Record cached = RecordCreator.create();
+    ResponseCache.CachedResponse response = new ResponseCache.CachedResponse(200, "OK", null, null);
+    inFlight.add(sent, "a:80", null, null);
+    // answered from the cache, so not bound by the limits but still processed in order
+    inFlight.addCached(cached, response);
+    Assert.assertEquals(2, inFlight.size());
+    Assert.assertTrue(inFlight.isFull("a:80"));
+
+    Assert.assertSame(sent, inFlight.poll().record);
+    Assert.assertFalse(inFlight.isFull("a:80"));
+    InFlightRequests.Request request = inFlight.poll();
+    Assert.assertSame(cached, request.record);
+    Assert.assertSame(response, request.cachedResponse);
+    Assert.assertFalse(inFlight.isFull("a:80"));
+  }
+
+  @Test
+  public void testFollowers() {
+    InFlightRequests inFlight = new InFlightRequests(1, 1);
+    Record sent = RecordCreator.create();
+    Record follower = RecordCreator.create();
+    ResponseCache.Key key = new ResponseCache.Key(HttpMethod.GET, "http://a/", new MultivaluedHashMap<>(), null);
+    InFlightRequests.Request leader = inFlight.add(sent, "a:80", null, key);
+    // waits for the response of the request with the same key, so not bound by the limits either
+    inFlight.addFollower(follower, leader);
+    Assert.assertEquals(2, inFlight.size());
+
+    Assert.assertSame(leader, inFlight.poll());
+    Assert.assertFalse(inFlight.isFull("a:80"));
+    InFlightRequests.Request request = inFlight.poll();
+    Assert.assertSame(follower, request.record);
+    Assert.assertSame(leader, request.leader);
+    Assert.assertEquals(key, request.cacheKey);
+    Assert.assertFalse(inFlight.isFull("a:80"));
+  }
+
+  @Test
+  public void testNeverFullWhenEmpty() {
+    // there is nothing to wait for, so the limits can't block a request
+    Assert.assertFalse(new InFlightRequests(1, 1).isFull("a:80"));
+  }
+}
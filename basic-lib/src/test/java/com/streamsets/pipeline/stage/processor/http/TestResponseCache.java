@@ -0,0 +1,173 @@
+/*
+ * Copyright 2019 StreamSets Inc.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package com.streamsets.pipeline.stage.processor.http;
+
+import com.google.common.base.Ticker;
+import com.streamsets.pipeline.lib.http.HttpMethod;
+import com.streamsets.pipeline.stage.processor.kv.CacheConfig;
+import com.streamsets.pipeline.stage.processor.kv.EvictionPolicyType;
+import org.junit.Assert;
+import org.junit.Before;
+import org.junit.Test;
+
+import javax.ws.rs.core.HttpHeaders;
+import javax.ws.rs.core.MultivaluedHashMap;
+import javax.ws.rs.core.MultivaluedMap;
+import java.util.concurrent.TimeUnit;
+
+public class TestResponseCache {
+
+  private static class TestTicker extends Ticker {
+    long nanos;
+
+    @Override
+    public long read() {
+      return nanos;
+    }
+
+    void advance(long time, TimeUnit unit) {
+      nanos += unit.toNanos(time);
+    }
+  }
+
+  private CacheConfig conf;
+  private TestTicker ticker;
+
+  @Before
+  public void setUp() {
+    conf = new CacheConfig();
+    conf.enabled = true;
+    conf.maxSize = -1;
+    conf.evictionPolicyType = EvictionPolicyType.EXPIRE_AFTER_WRITE;
+    conf.expirationTime = 10;
+    conf.timeUnit = TimeUnit.MINUTES;
+    ticker = new TestTicker();
+  }
+
+  private static ResponseCache.Key key(String url) {
+    MultivaluedMap<String, Object> headers = new MultivaluedHashMap<>();
+    headers.putSingle("Accept", "application/json");
+    return new ResponseCache.Key(HttpMethod.GET, url, headers, null);
+  }
+
+  private static ResponseCache.CachedResponse response(int status, String cacheControl) {
+    MultivaluedMap<String, String> headers = new MultivaluedHashMap<>();
+    if (cacheControl != null) {
+      headers.putSingle(HttpHeaders.CACHE_CONTROL, cacheControl);
+    }
+    return new ResponseCache.CachedResponse(status, "", headers, "{}".getBytes());
+  }
+
+  @Test
+  public void testKey() {
+    Assert.assertEquals(key("http://localhost/a"), key("http://localhost/a"));
+    Assert.assertEquals(key("http://localhost/a").hashCode(), key("http://localhost/a").hashCode());
+    Assert.assertNotEquals(key("http://localhost/a"), key("http://localhost/b"));
+
+    MultivaluedMap<String, Object> headers = new MultivaluedHashMap<>();
+    headers.putSingle("Accept", "text/plain");
+    Assert.assertNotEquals(
+        key("http://localhost/a"),
+        new ResponseCache.Key(HttpMethod.GET, "http://localhost/a", headers, null)
+    );
+    Assert.assertNotEquals(
+        new ResponseCache.Key(HttpMethod.POST, "http://localhost/a", headers, "1"),
+        new ResponseCache.Key(HttpMethod.POST, "http://localhost/a", headers, "2")
+    );
+  }
+
+  @Test
+  public void testHitsAndMisses() throws Exception {
+    ResponseCache cache = new ResponseCache(conf, true, ticker);
+    Assert.assertNull(cache.get(key("http://localhost/a")));
+    ResponseCache.CachedResponse response = response(200, null);
+    cache.put(key("http://localhost/a"), response);
+
+    ResponseCache.CachedResponse cached = cache.get(key("http://localhost/a"));
+    Assert.assertSame(response, cached);
+    // the body can be read every time the response is used
+    Assert.assertEquals('{', cached.getBody().read());
+    Assert.assertEquals('{', cache.get(key("http://localhost/a")).getBody().read());
+
+    Assert.assertEquals(2, cache.getHits());
+    Assert.assertEquals(1, cache.getMisses());
+    Assert.assertEquals(1, cache.size());
+  }
+
+  @Test
+  public void testExpiration() {
+    ResponseCache cache = new ResponseCache(conf, true, ticker);
+    cache.put(key("http://localhost/a"), response(200, null));
+    ticker.advance(9, TimeUnit.MINUTES);
+    Assert.assertNotNull(cache.get(key("http://localhost/a")));
+    ticker.advance(1, TimeUnit.MINUTES);
+    Assert.assertNull(cache.get(key("http://localhost/a")));
+    Assert.assertEquals(1, cache.getEvictions());
+  }
+
+  @Test
+  public void testMaxSize() {
+    conf.maxSize = 1;
+    ResponseCache cache = new ResponseCache(conf, true, ticker);
+    cache.put(key("http://localhost/a"), response(200, null));
+    cache.put(key("http://localhost/b"), response(200, null));
+    Assert.assertEquals(1, cache.size());
+    Assert.assertEquals(1, cache.getEvictions());
+    Assert.assertNotNull(cache.get(key("http://localhost/b")));
+  }
+
+  @Test
+  public void testStatus() {
+    ResponseCache cache = new ResponseCache(conf, true, ticker);
+    cache.put(key("http://localhost/a"), response(500, null));
+    Assert.assertNull(cache.get(key("http://localhost/a")));
+    cache.put(key("http://localhost/b"), response(404, null));
+    Assert.assertNotNull(cache.get(key("http://localhost/b")));
+
+    conf.retryOnCacheMiss = true;
+    cache = new ResponseCache(conf, true, ticker);
+    cache.put(key("http://localhost/b"), response(404, null));
+    Assert.assertNull(cache.get(key("http://localhost/b")));
+  }
+
+  @Test
+  public void testCacheControl() {
+    ResponseCache cache = new ResponseCache(conf, true, ticker);
+    cache.put(key("http://localhost/a"), response(200, "no-store"));
+    cache.put(key("http://localhost/b"), response(200, "private, no-cache"));
+    cache.put(key("http://localhost/c"), response(200, "max-age=0"));
+    cache.put(key("http://localhost/d"), response(200, "public, max-age=60"));
+    Assert.assertNull(cache.get(key("http://localhost/a")));
+    Assert.assertNull(cache.get(key("http://localhost/b")));
+    Assert.assertNull(cache.get(key("http://localhost/c")));
+    Assert.assertNotNull(cache.get(key("http://localhost/d")));
+
+    // max-age shortens the configured expiration time
+    ticker.advance(60, TimeUnit.SECONDS);
+    Assert.assertNull(cache.get(key("http://localhost/d")));
+    Assert.assertEquals(0, cache.size());
+  }
+
+  @Test
+  public void testIgnoreCacheControl() {
+    ResponseCache cache = new ResponseCache(conf, false, ticker);
+    cache.put(key("http://localhost/a"), response(200, "no-store"));
+    cache.put(key("http://localhost/b"), response(200, "max-age=60"));
+    ticker.advance(60, TimeUnit.SECONDS);
+    Assert.assertNotNull(cache.get(key("http://localhost/a")));
+    Assert.assertNotNull(cache.get(key("http://localhost/b")));
+  }
+}
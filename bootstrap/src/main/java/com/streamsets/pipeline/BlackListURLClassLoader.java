@@ -23,6 +23,10 @@ import java.util.Enumeration;
 import java.util.List;
 
 public class BlackListURLClassLoader extends URLClassLoader {
+  static {
+    ClassLoader.registerAsParallelCapable();
+  }
+
   private final String type;
   private final String name;
   private final String[] blacklistedPackages;
@@ -0,0 +1,259 @@
+/*
+ * Copyright 2019 StreamSets Inc.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package com.streamsets.pipeline;
+
+import java.io.File;
+import java.io.IOException;
+import java.lang.ref.Reference;
+import java.lang.ref.ReferenceQueue;
+import java.lang.ref.WeakReference;
+import java.net.MalformedURLException;
+import java.net.URISyntaxException;
+import java.net.URL;
+import java.util.ArrayDeque;
+import java.util.ArrayList;
+import java.util.Deque;
+import java.util.Enumeration;
+import java.util.HashMap;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.jar.JarEntry;
+import java.util.jar.JarFile;
+import java.util.jar.Manifest;
+
+/**
+ * Index of the packages (directories) present in the JAR files of a {@link SDCClassLoader}, it is used to skip
+ * looking up classes and resources in all the JAR files of the class loader when none of them has the package.
+ * Like the class loader, the index follows the <code>Class-Path</code> entries of the JAR manifests. Besides the
+ * packages that have files, every directory is indexed as well so that directories can be looked up as resources.
+ * <p/>
+ * The index is built the first time it is used and it is shared by all class loaders with the same URLs, the private
+ * class loaders of a stage library use the index of the stage library class loader. The class loading statistics
+ * are shared as well, they are per stage library. The class loaders hold their index, an index is dropped once all
+ * the class loaders using it have been released.
+ * <p/>
+ * Directories and non file URLs are not indexed, any package may be present in them.
+ */
+class ClassLoaderIndex {
+  private static final boolean ENABLED = !Boolean.getBoolean("streamsets.classloader.index.disabled");
+  private static final String MULTI_RELEASE_PREFIX = "META-INF/versions/";
+
+  private static final Map<List<String>, IndexReference> INDEXES = new HashMap<>();
+  private static final ReferenceQueue<ClassLoaderIndex> RELEASED = new ReferenceQueue<>();
+
+  private static class IndexReference extends WeakReference<ClassLoaderIndex> {
+    private final List<String> key;
+
+    IndexReference(List<String> key, ClassLoaderIndex index) {
+      super(index, RELEASED);
+      this.key = key;
+    }
+  }
+
+  static synchronized ClassLoaderIndex get(List<URL> urls) {
+    // drop the entries of the indexes no class loader uses anymore
+    Reference<? extends ClassLoaderIndex> released;
+    while ((released = RELEASED.poll()) != null) {
+      IndexReference reference = (IndexReference) released;
+      INDEXES.remove(reference.key, reference);
+    }
+
+    List<String> key = new ArrayList<>(urls.size());
+    for (URL url : urls) {
+      key.add(url.toExternalForm());
+    }
+    IndexReference reference = INDEXES.get(key);
+    ClassLoaderIndex index = (reference == null) ? null : reference.get();
+    if (index == null) {
+      index = new ClassLoaderIndex(urls);
+      INDEXES.put(key, new IndexReference(key, index));
+    }
+    return index;
+  }
+
+  private final List<URL> urls;
+  private volatile boolean built;
+  // NULL if any package may be present in the URLs
+  private Set<String> packages;
+  // the packages and all their parent directories
+  private Set<String> directories;
+
+  private final AtomicLong loadedClasses = new AtomicLong();
+  private final AtomicLong classLoadTime = new AtomicLong();
+  private final AtomicLong skippedLookups = new AtomicLong();
+
+  private ClassLoaderIndex(List<URL> urls) {
+    this.urls = new ArrayList<>(urls);
+  }
+
+  private Set<String> getPackages() {
+    if (!built) {
+      synchronized (this) {
+        if (!built) {
+          if (ENABLED) {
+            Set<String> packages = new HashSet<>();
+            Set<String> directories = new HashSet<>();
+            if (buildIndex(urls, packages, directories)) {
+              this.packages = packages;
+              this.directories = directories;
+            }
+          }
+          built = true;
+        }
+      }
+    }
+    return packages;
+  }
+
+  /**
+   * Indexes the JAR files of the URLs and of the <code>Class-Path</code> of their manifests, returns false if the URLs
+   * can't be indexed.
+   */
+  private static boolean buildIndex(List<URL> urls, Set<String> packages, Set<String> directories) {
+    Deque<URL> pending = new ArrayDeque<>(urls);
+    Set<String> visited = new HashSet<>();
+    while (!pending.isEmpty()) {
+      URL url = pending.poll();
+      if (!visited.add(url.toExternalForm())) {
+        continue;
+      }
+      if (!"file".equals(url.getProtocol())) {
+        return false;
+      }
+      File file;
+      try {
+        file = new File(url.toURI());
+      } catch (URISyntaxException | IllegalArgumentException ex) {
+        return false;
+      }
+      if (file.isDirectory()) {
+        return false;
+      }
+      if (file.isFile()) {
+        try (JarFile jar = new JarFile(file)) {
+          Enumeration<JarEntry> entries = jar.entries();
+          while (entries.hasMoreElements()) {
+            JarEntry entry = entries.nextElement();
+            String name = entry.getName();
+            if (entry.isDirectory()) {
+              addDirectories(name.substring(0, name.length() - 1), directories);
+            } else {
+              addPackage(getPackage(name), packages, directories);
+              if (name.startsWith(MULTI_RELEASE_PREFIX)) {
+                // versioned entries are looked up by their unversioned name
+                int versionEnd = name.indexOf('/', MULTI_RELEASE_PREFIX.length());
+                if (versionEnd > -1) {
+                  addPackage(getPackage(name.substring(versionEnd + 1)), packages, directories);
+                }
+              }
+            }
+          }
+          Manifest manifest = jar.getManifest();
+          String classPath = (manifest == null) ? null : manifest.getMainAttributes().getValue("Class-Path");
+          if (classPath != null) {
+            for (String path : classPath.trim().split("\\s+")) {
+              if (!path.isEmpty()) {
+                try {
+                  // same resolution as the class loader, relative to the JAR file
+                  pending.add(new URL(url, path));
+                } catch (MalformedURLException ex) {
+                  // the class loader ignores these entries
+                }
+              }
+            }
+          }
+        } catch (IOException ex) {
+          // not a JAR file the index can rely on
+          return false;
+        }
+      }
+    }
+    return true;
+  }
+
+  private static void addPackage(String packageName, Set<String> packages, Set<String> directories) {
+    packages.add(packageName);
+    addDirectories(packageName, directories);
+  }
+
+  private static void addDirectories(String directory, Set<String> directories) {
+    while (directories.add(directory) && !directory.isEmpty()) {
+      directory = getPackage(directory);
+    }
+  }
+
+  private static String getPackage(String resourceName) {
+    int idx = resourceName.lastIndexOf('/');
+    return (idx > -1) ? resourceName.substring(0, idx) : "";
+  }
+
+  /**
+   * Returns if the class may be present in the URLs of the class loader.
+   */
+  boolean mayContainClass(String className) {
+    Set<String> packages = getPackages();
+    if (packages == null) {
+      return true;
+    }
+    int idx = className.lastIndexOf('.');
+    boolean contains = packages.contains((idx > -1) ? className.substring(0, idx).replace('.', '/') : "");
+    if (!contains) {
+      skippedLookups.incrementAndGet();
+    }
+    return contains;
+  }
+
+  /**
+   * Returns if the resource may be present in the URLs of the class loader.
+   */
+  boolean mayContainResource(String resourceName) {
+    Set<String> packages = getPackages();
+    if (packages == null) {
+      return true;
+    }
+    if (resourceName.startsWith("/")) {
+      resourceName = resourceName.substring(1);
+    }
+    // the resource may be a file or a directory
+    String directory = resourceName.endsWith("/") ? resourceName.substring(0, resourceName.length() - 1) : resourceName;
+    boolean contains = packages.contains(getPackage(resourceName)) || directories.contains(directory);
+    if (!contains) {
+      skippedLookups.incrementAndGet();
+    }
+    return contains;
+  }
+
+  void classLoaded(long nanos) {
+    loadedClasses.incrementAndGet();
+    classLoadTime.addAndGet(nanos);
+  }
+
+  long getLoadedClasses() {
+    return loadedClasses.get();
+  }
+
+  long getClassLoadTimeNanos() {
+    return classLoadTime.get();
+  }
+
+  long getSkippedLookups() {
+    return skippedLookups.get();
+  }
+
+}
@@ -22,6 +22,10 @@ import java.util.List;
  * This is a marker class for container classloader.
  */
 public class ContainerClassLoader extends SDCClassLoader {
+  static {
+    ClassLoader.registerAsParallelCapable();
+  }
+
   public ContainerClassLoader(
     String type,
     String name,
@@ -76,6 +76,7 @@ public class SDCClassLoader extends BlackListURLClassLoader {
   }
 
   static {
+    ClassLoader.registerAsParallelCapable();
     Map<String, String> systemClassesDefaultsMap = new HashMap<>();
     for (String classLoaderType : CLASSLOADER_TYPES) {
       String propertiesFile = classLoaderType + "-classloader.properties";
@@ -112,6 +113,7 @@ public class SDCClassLoader extends BlackListURLClassLoader {
   private final SystemPackage systemPackage;
   private final boolean isPrivate;
   private final ApplicationPackage applicationPackage;
+  private final ClassLoaderIndex index;
 
   public SDCClassLoader(String type, String name, List<URL> urls, ClassLoader parent, String[] blacklistedPackages,
       SystemPackage systemPackage, ApplicationPackage applicationPackage,
@@ -139,6 +141,7 @@ public class SDCClassLoader extends BlackListURLClassLoader {
     }
     this.applicationPackage = applicationPackage;
     this.isPrivate = isPrivate;
+    this.index = ClassLoaderIndex.get(this.urls);
     if(debug) {
       System.err.println(getClass().getSimpleName() + " " + getName() + ": application packages: " + this.applicationPackage);
     }
@@ -311,14 +314,39 @@ public class SDCClassLoader extends BlackListURLClassLoader {
     return null;
   }
 
+  @Override
+  public URL findResource(String name) {
+    if (!index.mayContainResource(name)) {
+      validateResource(name);
+      return null;
+    }
+    return super.findResource(name);
+  }
+
+  @Override
+  public Enumeration<URL> findResources(String name) throws IOException {
+    if (!index.mayContainResource(name)) {
+      validateResource(name);
+      return Collections.emptyEnumeration();
+    }
+    return super.findResources(name);
+  }
+
   @Override
   public Class<?> loadClass(String name) throws ClassNotFoundException {
     return this.loadClass(name, false);
   }
 
   @Override
-  protected synchronized Class<?> loadClass(String name, boolean resolve)
+  protected Class<?> loadClass(String name, boolean resolve)
     throws ClassNotFoundException {
+    // the class loader is parallel capable, only lookups of the same class are serialized
+    synchronized (getClassLoadingLock(name)) {
+      return loadClassInternal(name, resolve);
+    }
+  }
+
+  private Class<?> loadClassInternal(String name, boolean resolve) throws ClassNotFoundException {
     if (debug) {
       System.err.println(getClass().getSimpleName() + " " + getName() + ": Loading class: " + name);
     }
@@ -330,16 +358,23 @@ public class SDCClassLoader extends BlackListURLClassLoader {
       // Try to load class from this classloader's URLs. Note that this is like
       // the servlet spec, not the usual Java 2 behaviour where we ask the
       // parent to attempt to load first.
-      try {
-        c = findClass(name);
-        if (debug && c != null) {
-          System.err.println(getClass().getSimpleName() + " " + getName() + ": Loaded class: " + name + " ");
-        }
-      } catch (ClassNotFoundException e) {
-        if (debug) {
-          System.err.println(getClass().getSimpleName() + " " + getName() + ": " + e);
+      if (index.mayContainClass(name)) {
+        try {
+          long start = System.nanoTime();
+          c = findClass(name);
+          index.classLoaded(System.nanoTime() - start);
+          if (debug && c != null) {
+            System.err.println(getClass().getSimpleName() + " " + getName() + ": Loaded class: " + name + " ");
+          }
+        } catch (ClassNotFoundException e) {
+          if (debug) {
+            System.err.println(getClass().getSimpleName() + " " + getName() + ": " + e);
+          }
+          ex = e;
         }
-        ex = e;
+      } else {
+        // the package is not in any of the JARs, the class would not be found
+        validateClass(name);
       }
     }
     // try parent classloader in the following situations:
@@ -409,6 +444,28 @@ public class SDCClassLoader extends BlackListURLClassLoader {
     return isPrivate;
   }
 
+  /**
+   * Returns the number of classes loaded from the URLs of this class loader and of the class loaders with the same
+   * URLs (the private class loaders of a stage library).
+   */
+  public long getLoadedClassCount() {
+    return index.getLoadedClasses();
+  }
+
+  /**
+   * Returns the time, in milliseconds, spent loading the classes counted by {@link #getLoadedClassCount()}.
+   */
+  public long getClassLoadTime() {
+    return index.getClassLoadTimeNanos() / 1000000;
+  }
+
+  /**
+   * Returns the number of class and resource lookups that did not scan the URLs because no JAR file has the package.
+   */
+  public long getSkippedLookupCount() {
+    return index.getSkippedLookups();
+  }
+
   public String toString() {
     return String.format("SDCClassLoader[type=%s name=%s private=%b]", getType(), getName(), isPrivate);
   }
@@ -0,0 +1,174 @@
+/*
+ * Copyright 2019 StreamSets Inc.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package com.streamsets.pipeline;
+
+import org.junit.Assert;
+import org.junit.Test;
+
+import java.io.File;
+import java.io.FileOutputStream;
+import java.lang.ref.WeakReference;
+import java.net.URL;
+import java.net.URLClassLoader;
+import java.util.Arrays;
+import java.util.Collections;
+import java.util.List;
+import java.util.TreeSet;
+import java.util.UUID;
+import java.util.jar.Attributes;
+import java.util.jar.JarEntry;
+import java.util.jar.JarOutputStream;
+import java.util.jar.Manifest;
+
+public class TestClassLoaderIndex {
+
+  private static File createJar(String... entries) throws Exception {
+    File dir = new File("target", UUID.randomUUID().toString()).getAbsoluteFile();
+    Assert.assertTrue(dir.mkdirs());
+    return createJar(new File(dir, "test.jar"), null, entries);
+  }
+
+  private static File createJar(File jar, Manifest manifest, String... entries) throws Exception {
+    FileOutputStream fos = new FileOutputStream(jar);
+    try (JarOutputStream os = (manifest == null) ? new JarOutputStream(fos) : new JarOutputStream(fos, manifest)) {
+      for (String entry : entries) {
+        os.putNextEntry(new JarEntry(entry));
+        if (!entry.endsWith("/")) {
+          os.write(1);
+        }
+        os.closeEntry();
+      }
+    }
+    return jar;
+  }
+
+  @Test
+  public void testJarIndex() throws Exception {
+    File jar = createJar("x/y/Dummy.class", "root.properties", "META-INF/versions/9/v/Versioned.class");
+    ClassLoaderIndex index = ClassLoaderIndex.get(Collections.singletonList(jar.toURI().toURL()));
+
+    Assert.assertTrue(index.mayContainClass("x.y.Dummy"));
+    Assert.assertTrue(index.mayContainClass("x.y.Other"));
+    Assert.assertTrue(index.mayContainClass("v.Versioned"));
+    Assert.assertTrue(index.mayContainResource("x/y/resource.properties"));
+    Assert.assertTrue(index.mayContainResource("root.properties"));
+    Assert.assertTrue(index.mayContainResource("/root.properties"));
+    Assert.assertEquals(0, index.getSkippedLookups());
+
+    Assert.assertFalse(index.mayContainClass("x.Dummy"));
+    Assert.assertFalse(index.mayContainClass("a.b.Dummy"));
+    Assert.assertFalse(index.mayContainResource("META-INF/services/a.b.Dummy"));
+    Assert.assertEquals(3, index.getSkippedLookups());
+  }
+
+  @Test
+  public void testDirectoriesIndexed() throws Exception {
+    File jar = createJar("org/", "org/x/", "org/x/y/", "org/x/y/Dummy.class", "META-INF/", "META-INF/services/x.y.Service");
+    ClassLoaderIndex index = ClassLoaderIndex.get(Collections.singletonList(jar.toURI().toURL()));
+
+    Assert.assertTrue(index.mayContainResource("org/"));
+    Assert.assertTrue(index.mayContainResource("org/x"));
+    Assert.assertTrue(index.mayContainResource("META-INF/"));
+    Assert.assertTrue(index.mayContainResource(""));
+    Assert.assertEquals(0, index.getSkippedLookups());
+    // there are no classes directly in the parent directories
+    Assert.assertFalse(index.mayContainClass("org.Dummy"));
+    Assert.assertFalse(index.mayContainResource("com/"));
+
+    SDCClassLoader cl = new SDCClassLoader("test", "test", Collections.singletonList(jar.toURI().toURL()),
+        new URLClassLoader(new URL[0], null), new String[0], new SystemPackage(new String[0]),
+        new ApplicationPackage(new TreeSet<String>()), false, false, false);
+    Assert.assertTrue(cl.getResources("org/").hasMoreElements());
+    Assert.assertNotNull(cl.getResource("META-INF/"));
+  }
+
+  @Test
+  public void testManifestClassPath() throws Exception {
+    File dir = new File("target", UUID.randomUUID().toString()).getAbsoluteFile();
+    Assert.assertTrue(dir.mkdirs());
+    createJar(new File(dir, "dependency.jar"), null, "a/b/Dependency.class");
+    Manifest manifest = new Manifest();
+    manifest.getMainAttributes().put(Attributes.Name.MANIFEST_VERSION, "1.0");
+    manifest.getMainAttributes().put(Attributes.Name.CLASS_PATH, "dependency.jar missing.jar");
+    File jar = createJar(new File(dir, "test.jar"), manifest, "x/y/Dummy.class");
+
+    ClassLoaderIndex index = ClassLoaderIndex.get(Collections.singletonList(jar.toURI().toURL()));
+    Assert.assertTrue(index.mayContainClass("x.y.Dummy"));
+    Assert.assertTrue(index.mayContainClass("a.b.Dependency"));
+    Assert.assertTrue(index.mayContainResource("a/b/resource.properties"));
+    Assert.assertFalse(index.mayContainClass("c.d.Other"));
+  }
+
+  @Test
+  public void testIndexReleased() throws Exception {
+    List<URL> urls = Collections.singletonList(createJar("x/y/Dummy.class").toURI().toURL());
+    WeakReference<ClassLoaderIndex> index = new WeakReference<>(ClassLoaderIndex.get(urls));
+    // nothing uses the index anymore, the shared indexes must not keep it
+    long end = System.currentTimeMillis() + 10000;
+    while (index.get() != null && System.currentTimeMillis() < end) {
+      System.gc();
+      Thread.sleep(10);
+    }
+    Assert.assertNull(index.get());
+    Assert.assertNotNull(ClassLoaderIndex.get(urls));
+  }
+
+  @Test
+  public void testIndexSharedByUrls() throws Exception {
+    List<URL> urls = Collections.singletonList(createJar("x/y/Dummy.class").toURI().toURL());
+    Assert.assertSame(ClassLoaderIndex.get(urls), ClassLoaderIndex.get(urls));
+
+    SDCClassLoader cl = SDCClassLoader.getStageClassLoader("foo", "test", urls, getClass().getClassLoader());
+    SDCClassLoader privateCl = cl.duplicateStageClassLoader();
+    try {
+      privateCl.loadClass("a.b.Dummy");
+      Assert.fail();
+    } catch (ClassNotFoundException ex) {
+      // expected
+    }
+    Assert.assertEquals(1, cl.getSkippedLookupCount());
+  }
+
+  @Test
+  public void testDirectoryNotIndexed() throws Exception {
+    File dir = TestBlackListURLClassLoader.getBaseDir();
+    ClassLoaderIndex index = ClassLoaderIndex.get(
+        Arrays.asList(dir.toURI().toURL(), createJar("x/y/Dummy.class").toURI().toURL())
+    );
+    Assert.assertTrue(index.mayContainClass("a.b.Dummy"));
+    Assert.assertTrue(index.mayContainResource("a/b/resource.properties"));
+    Assert.assertEquals(0, index.getSkippedLookups());
+  }
+
+  @Test(expected = IllegalArgumentException.class)
+  public void testBlacklistedClassNotInIndex() throws Exception {
+    SDCClassLoader cl = new SDCClassLoader("test", "test",
+        Collections.singletonList(createJar("x/y/Dummy.class").toURI().toURL()), new URLClassLoader(new URL[0]),
+        new String[] {"a.b."}, new SystemPackage(new String[0]), new ApplicationPackage(new TreeSet<String>()),
+        false, false, false);
+    cl.loadClass("a.b.Dummy");
+  }
+
+  @Test(expected = IllegalArgumentException.class)
+  public void testBlacklistedResourceNotInIndex() throws Exception {
+    SDCClassLoader cl = new SDCClassLoader("test", "test",
+        Collections.singletonList(createJar("x/y/Dummy.class").toURI().toURL()), new URLClassLoader(new URL[0]),
+        new String[] {"a.b."}, new SystemPackage(new String[0]), new ApplicationPackage(new TreeSet<String>()),
+        false, false, false);
+    cl.getResource("a/b/resource.properties");
+  }
+
+}
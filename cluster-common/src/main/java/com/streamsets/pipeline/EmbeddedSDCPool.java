@@ -24,21 +24,23 @@ import org.slf4j.Logger;
 import org.slf4j.LoggerFactory;
 
 import java.lang.reflect.Method;
-import java.util.ArrayDeque;
 import java.util.Collections;
 import java.util.Deque;
-import java.util.HashMap;
-import java.util.HashSet;
+import java.util.IdentityHashMap;
 import java.util.Iterator;
 import java.util.List;
-import java.util.Map;
 import java.util.Properties;
 import java.util.Set;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ConcurrentLinkedDeque;
+import java.util.concurrent.ConcurrentMap;
 import java.util.concurrent.locks.ReentrantLock;
 
 /**
  * Creates a pool of embedded SDC's to be used within a single executor (JVM)
  *
+ * The pool keeps the SDCs of each state in concurrent collections, the Spark tasks of the executor check SDCs out and
+ * in without a common lock. In particular, waiting for a batch to be committed does not block the other tasks.
  */
 public class EmbeddedSDCPool {
   private static final Logger LOG = LoggerFactory.getLogger(EmbeddedSDCPool.class);
@@ -75,10 +77,10 @@ public class EmbeddedSDCPool {
    *   we wait for batch completion, and then add the sdc to notStarted.
    *
    */
-  private Set<EmbeddedSDC> notStarted = new HashSet<>();
-  private Map<Integer, Deque<EmbeddedSDC>> batchRead = new HashMap<>();
-  private Set<EmbeddedSDC> used = new HashSet<>();
-  private int sparkProcessorCount;
+  private final ConcurrentLinkedDeque<EmbeddedSDC> notStarted = new ConcurrentLinkedDeque<>();
+  private final ConcurrentMap<Integer, ConcurrentLinkedDeque<EmbeddedSDC>> batchRead = new ConcurrentHashMap<>();
+  private final Set<EmbeddedSDC> used = ConcurrentHashMap.newKeySet();
+  private volatile int sparkProcessorCount;
 
   /**
    * Create a pool. For now, there is only instance being created
@@ -155,23 +157,19 @@ public class EmbeddedSDCPool {
     return embeddedSDC;
   }
 
-  public synchronized EmbeddedSDC getNotStartedSDC() throws Exception {
+  public EmbeddedSDC getNotStartedSDC() throws Exception {
     if (IS_TRACE_ENABLED) {
       LOG.trace("Getting SDC whose pipeline has not started.");
     }
-    EmbeddedSDC sdc;
-    Iterator<EmbeddedSDC> notStartedIter = notStarted.iterator();
-    if (notStartedIter.hasNext()) {
-      sdc = notStartedIter.next();
-      notStartedIter.remove();
-    } else {
+    EmbeddedSDC sdc = notStarted.pollFirst();
+    if (sdc == null) {
       sdc = create();
     }
     used.add(sdc);
     return sdc;
   }
 
-  public synchronized EmbeddedSDC getSDCBatchRead(int id) throws Exception {
+  public EmbeddedSDC getSDCBatchRead(int id) throws Exception {
     if (IS_TRACE_ENABLED) {
       LOG.trace("Getting SDC whose batch been read for id: " + id);
     }
@@ -180,13 +178,13 @@ public class EmbeddedSDCPool {
     return getOrCreate(id, batchRead);
   }
 
-  public synchronized void checkInAfterReadingBatch(int id, EmbeddedSDC sdc) throws Exception {
+  public void checkInAfterReadingBatch(int id, EmbeddedSDC sdc) throws Exception {
     if (IS_TRACE_ENABLED) {
       LOG.trace("Checking SDC in after batch written for id: " + id);
     }
     if  (id == sparkProcessorCount) {
       sdc.getSource().completeBatch();
-      notStarted.add(sdc);
+      notStarted.addLast(sdc);
       used.remove(sdc);
     } else {
       checkInAtId(id, sdc, batchRead);
@@ -211,13 +209,8 @@ public class EmbeddedSDCPool {
       return null;
     }
     LOG.info("No SDC was found at ID: " + id + ". Fast-forwarding..");
-    EmbeddedSDC sdc;
     // If there are not SDCs that are just idling, create a new one, else return one from the not started pool.
-    if (notStarted.isEmpty()) {
-      sdc = create();
-    } else {
-      sdc = getNotStartedSDC();
-    }
+    EmbeddedSDC sdc = getNotStartedSDC();
 
     Class<?> clusterFunctionClass = Class.forName("com.streamsets.pipeline.cluster.ClusterFunctionImpl");
     Method getBatch = clusterFunctionClass.getMethod("getNextBatch", int.class, EmbeddedSDC.class);
@@ -231,37 +224,39 @@ public class EmbeddedSDCPool {
     return sdc;
   }
 
-  private synchronized void checkInAtId(
+  private void checkInAtId(
       int id,
       EmbeddedSDC sdc,
-      Map<Integer, Deque<EmbeddedSDC>> sdcMap
+      ConcurrentMap<Integer, ConcurrentLinkedDeque<EmbeddedSDC>> sdcMap
   ) throws Exception {
-    Deque<EmbeddedSDC> sdcList = sdcMap.computeIfAbsent(id, i -> new ArrayDeque<>());
+    Deque<EmbeddedSDC> sdcList = sdcMap.computeIfAbsent(id, i -> new ConcurrentLinkedDeque<>());
     sdcList.addLast(sdc);
     used.remove(sdc);
   }
 
-  private EmbeddedSDC getOrCreate(int id, Map<Integer, Deque<EmbeddedSDC>> sdcMap) throws Exception {
-    Deque<EmbeddedSDC> deque = sdcMap.computeIfAbsent(id, key -> new ArrayDeque<>());
-    EmbeddedSDC sdc;
-    if (!deque.isEmpty()) {
-      sdc = deque.removeFirst();
-    } else {
+  private EmbeddedSDC getOrCreate(
+      int id,
+      ConcurrentMap<Integer, ConcurrentLinkedDeque<EmbeddedSDC>> sdcMap
+  ) throws Exception {
+    Deque<EmbeddedSDC> deque = sdcMap.computeIfAbsent(id, key -> new ConcurrentLinkedDeque<>());
+    EmbeddedSDC sdc = deque.pollFirst();
+    if (sdc == null) {
       sdc = fastForward(id);
     }
-    used.add(sdc);
+    if (sdc != null) {
+      used.add(sdc);
+    }
     return sdc;
   }
 
-  public synchronized void shutdown() {
+  public void shutdown() {
     this.open = false;
-    used.forEach(sdc -> sdc.getSource().shutdown());
-    shutdownAllInMap(batchRead);
-    notStarted.forEach(sdc -> sdc.getSource().shutdown());
-  }
-
-  private void shutdownAllInMap(Map<Integer, Deque<EmbeddedSDC>> sdcMap) {
-    sdcMap.values().forEach(sdcList -> sdcList.forEach(sdc -> sdc.getSource().shutdown()));
+    // an SDC moving between states can be seen twice, it is shut down once
+    Set<EmbeddedSDC> sdcs = Collections.newSetFromMap(new IdentityHashMap<>());
+    sdcs.addAll(used);
+    batchRead.values().forEach(sdcs::addAll);
+    sdcs.addAll(notStarted);
+    sdcs.forEach(sdc -> sdc.getSource().shutdown());
   }
 
 }
@@ -86,6 +86,13 @@ public class Consumer {
           return batch;
         }
       }
+      // batches queued before the producer completed are still consumed
+      OffsetAndResult<Map.Entry> batch = dataChannel.poll();
+      if (batch != null) {
+        LOG.trace("Received batch: {}", batch);
+        batchCommitted = false;
+        return batch;
+      }
       LOG.trace("Returning null");
       return null;
     } catch (Throwable throwable) {
@@ -23,6 +23,7 @@ import java.util.ArrayList;
 import java.util.List;
 import java.util.concurrent.ArrayBlockingQueue;
 import java.util.concurrent.BlockingQueue;
+import java.util.concurrent.TimeUnit;
 
 /**
  * Provides a bi-directional control channel between two threads, one producing
@@ -31,8 +32,20 @@ import java.util.concurrent.BlockingQueue;
  */
 public class ControlChannel {
   private static final Logger LOG = LoggerFactory.getLogger(ControlChannel.class);
-  private final BlockingQueue<Message> producerQueue = new ArrayBlockingQueue<>(10);
-  private final BlockingQueue<Message> consumerQueue = new ArrayBlockingQueue<>(10);
+  private static final int QUEUE_CAPACITY = 10;
+  private final BlockingQueue<Message> producerQueue;
+  private final BlockingQueue<Message> consumerQueue = new ArrayBlockingQueue<>(QUEUE_CAPACITY);
+
+  public ControlChannel() {
+    this(1);
+  }
+
+  /**
+   * @param depth depth of the data channel, the producer queue has room for the commits of all in flight batches
+   */
+  public ControlChannel(int depth) {
+    producerQueue = new ArrayBlockingQueue<>(QUEUE_CAPACITY + depth);
+  }
 
   public void producerComplete() {
     LOG.info("Producer complete");
@@ -50,6 +63,13 @@ public class ControlChannel {
     return result;
   }
 
+  /**
+   * Waits up to the given time for the next message for the producer, returns null if there is none.
+   */
+  public Message pollProducerMessage(long timeout, TimeUnit unit) throws InterruptedException {
+    return producerQueue.poll(timeout, unit);
+  }
+
   public List<Message> getConsumerMessages() {
     List<Message> result = new ArrayList<>();
     consumerQueue.drainTo(result);
@@ -15,6 +15,7 @@
  */
 package com.streamsets.pipeline.cluster;
 
+import com.google.common.base.Preconditions;
 import com.streamsets.pipeline.impl.OffsetAndResult;
 
 import java.util.Map;
@@ -24,10 +25,32 @@ import java.util.concurrent.TimeUnit;
 
 /**
  * Implements a uni-directional data flow from producer to consumer.
+ * <p/>
+ * The depth is the number of batches the producer can hand off without waiting for the consumer to commit them. The
+ * default of 1 keeps the producer and the consumer in lockstep.
  */
 public class DataChannel {
 
-  private final BlockingQueue<OffsetAndResult<Map.Entry>> dataQueue = new ArrayBlockingQueue<>(1);
+  // stage configuration (stage.conf_ prefix in sdc.properties) with the depth used by the cluster origins
+  public static final String DEPTH_CONFIG = "com.streamsets.pipeline.cluster.batches.in.flight";
+  public static final int DEPTH_DEFAULT = 1;
+
+  private final int depth;
+  private final BlockingQueue<OffsetAndResult<Map.Entry>> dataQueue;
+
+  public DataChannel() {
+    this(DEPTH_DEFAULT);
+  }
+
+  public DataChannel(int depth) {
+    Preconditions.checkArgument(depth > 0, "Depth must be greater than zero: %s", depth);
+    this.depth = depth;
+    dataQueue = new ArrayBlockingQueue<>(depth);
+  }
+
+  public int getDepth() {
+    return depth;
+  }
 
   public boolean offer(OffsetAndResult<Map.Entry> batch, long timeout, TimeUnit unit) throws InterruptedException {
     return dataQueue.offer(batch, timeout, unit);
@@ -36,4 +59,11 @@ public class DataChannel {
   public OffsetAndResult<Map.Entry> take(long timeout, TimeUnit unit) throws InterruptedException {
     return dataQueue.poll(timeout, unit);
   }
+
+  /**
+   * Returns the next batch without waiting, null if there is none.
+   */
+  public OffsetAndResult<Map.Entry> poll() {
+    return dataQueue.poll();
+  }
 }
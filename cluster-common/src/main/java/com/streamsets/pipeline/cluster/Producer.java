@@ -21,22 +21,30 @@ import com.streamsets.pipeline.api.impl.Utils;
 import org.slf4j.Logger;
 import org.slf4j.LoggerFactory;
 
+import java.util.ArrayDeque;
+import java.util.Deque;
 import java.util.Map;
 import java.util.concurrent.TimeUnit;
 
 /**
  * Implements the producer side of the cluster producer consumer pattern.
+ * <p/>
+ * Up to the depth of the data channel, batches can be queued before the previous ones are committed by the consumer.
+ * The consumer commits the batches in the order they were queued.
  */
 public class Producer {
   private static final Logger LOG = LoggerFactory.getLogger(Producer.class);
   private final ControlChannel controlChannel;
   private final DataChannel dataChannel;
+  // expected offsets of the batches queued and not committed yet, oldest first
+  private final Deque<Object> inFlightBatches;
   private volatile Throwable consumerError;
   private volatile Throwable producerError;
 
   public Producer(ControlChannel controlChannel, DataChannel dataChannel) {
     this.controlChannel = controlChannel;
     this.dataChannel = dataChannel;
+    this.inFlightBatches = new ArrayDeque<>();
   }
 
   /**
@@ -47,10 +55,9 @@ public class Producer {
   }
 
   /**
-   * Queues the batch for the consumer and waits until the consumer
-   * successfully commits the batch. While waiting processes any
-   * control messages from the consumer. Throws an exception
-   * when the consumer has indicated it encountered an error.
+   * Queues the batch for the consumer. While waiting for room in the
+   * data channel processes any control messages from the consumer. Throws
+   * an exception when the consumer has indicated it encountered an error.
    */
   public Object put(OffsetAndResult<Map.Entry> batch) {
     if (consumerError != null) {
@@ -66,17 +73,10 @@ public class Producer {
       }
       while (!dataChannel.offer(batch, 10, TimeUnit.MILLISECONDS)) {
         for (ControlChannel.Message controlMessage : controlChannel.getProducerMessages()) {
-          switch (controlMessage.getType()) {
-            case CONSUMER_ERROR:
-              Throwable throwable = (Throwable) controlMessage.getPayload();
-              consumerError = throwable;
-              throw new ConsumerRuntimeException(Utils.format("Consumer encountered error: {}", throwable), throwable);
-            default:
-              String msg = Utils.format("Illegal control message type: '{}'", controlMessage.getType());
-              throw new IllegalStateException(msg);
-          }
+          handleControlMessage(controlMessage);
         }
       }
+      inFlightBatches.addLast(expectedOffset);
       return expectedOffset;
     } catch (Throwable throwable) {
       controlChannel.producerComplete();
@@ -92,25 +92,34 @@ public class Producer {
     }
   }
 
+  /**
+   * Waits until fewer batches than the depth of the data channel are waiting to be committed, with the default depth
+   * of 1 until the consumer committed all the batches. Returns as soon as the commit arrives.
+   */
   public void waitForCommit() throws InterruptedException {
-    while (true) {
-      for (ControlChannel.Message controlMessage : controlChannel.getProducerMessages()) {
-        switch (controlMessage.getType()) {
-          case CONSUMER_COMMIT:
-            if (LOG.isTraceEnabled()) {
-              LOG.trace("Commit of: '{}'", controlMessage.getPayload());
-            }
-            return;
-          case CONSUMER_ERROR:
-            Throwable throwable = (Throwable) controlMessage.getPayload();
-            consumerError = throwable;
-            throw new ConsumerRuntimeException(Utils.format("Consumer encountered error: {}", throwable), throwable);
-          default:
-            throw new IllegalStateException(Utils.format("Illegal control message type: '{}'",
-              controlMessage.getType()));
-        }
+    while (inFlightBatches.size() >= dataChannel.getDepth()) {
+      ControlChannel.Message controlMessage = controlChannel.pollProducerMessage(1, TimeUnit.SECONDS);
+      if (controlMessage != null) {
+        handleControlMessage(controlMessage);
       }
-      TimeUnit.MILLISECONDS.sleep(10);
+    }
+  }
+
+  private void handleControlMessage(ControlChannel.Message controlMessage) {
+    switch (controlMessage.getType()) {
+      case CONSUMER_COMMIT:
+        Object expectedOffset = inFlightBatches.pollFirst();
+        if (LOG.isTraceEnabled()) {
+          LOG.trace("Commit of: '{}', last key of the batch: '{}'", controlMessage.getPayload(), expectedOffset);
+        }
+        break;
+      case CONSUMER_ERROR:
+        Throwable throwable = (Throwable) controlMessage.getPayload();
+        consumerError = throwable;
+        throw new ConsumerRuntimeException(Utils.format("Consumer encountered error: {}", throwable), throwable);
+      default:
+        throw new IllegalStateException(Utils.format("Illegal control message type: '{}'",
+          controlMessage.getType()));
     }
   }
 
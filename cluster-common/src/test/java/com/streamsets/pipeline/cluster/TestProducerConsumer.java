@@ -117,6 +117,45 @@ public class TestProducerConsumer {
     Assert.assertSame(producerError, getError(take(true)));
   }
 
+  @Test(timeout = 5000)
+  public void testBatchesInFlight() throws Exception {
+    createChannels(3);
+    // two batches are handed off without waiting for their commits
+    put(1).get();
+    put(2).get();
+    // the third one waits until the first one is committed
+    Future<?> putFuture = put(3);
+    try {
+      putFuture.get(200, TimeUnit.MILLISECONDS);
+      Assert.fail();
+    } catch (TimeoutException ex) {
+      // expected
+    }
+    Assert.assertEquals(createBatch(1), take(true).get());
+    putFuture.get();
+    Assert.assertEquals(createBatch(2), take(true).get());
+    Assert.assertEquals(createBatch(3), take(true).get());
+  }
+
+  @Test(timeout = 5000)
+  public void testProducerCompleteWithBatchesInFlight() throws Exception {
+    createChannels(2);
+    producer.put(new OffsetAndResult<>("1", createBatch(1)));
+    producer.put(new OffsetAndResult<>("2", createBatch(2)));
+    producer.complete();
+    // the queued batches are consumed before the consumer stops
+    Assert.assertEquals(createBatch(1), take(true).get());
+    Assert.assertEquals(createBatch(2), take(true).get());
+    Assert.assertNull(consumer.take());
+  }
+
+  private void createChannels(int depth) {
+    controlChannel = new ControlChannel(depth);
+    dataChannel = new DataChannel(depth);
+    producer = new Producer(controlChannel, dataChannel);
+    consumer = new Consumer(controlChannel, dataChannel);
+  }
+
   private Throwable getError(Future future) throws InterruptedException {
     try {
       future.get();
@@ -142,8 +142,8 @@ public class ClusterHdfsSource extends BaseSource implements OffsetCommitter, Er
     REQUIRE_URI_AUTHORITY = uriAuthority;
   }
 
-  private final Producer producer;
-  private final Consumer consumer;
+  private Producer producer;
+  private Consumer consumer;
   private final Map<String, Object> previewBuffer;
   private final CountDownLatch countDownLatch;
   private final ClusterHdfsConfigBean conf;
@@ -159,10 +159,7 @@ public class ClusterHdfsSource extends BaseSource implements OffsetCommitter, Er
   private final Set<String> visitedFiles;
 
   public ClusterHdfsSource(ClusterHdfsConfigBean conf) {
-    ControlChannel controlChannel = new ControlChannel();
-    DataChannel dataChannel = new DataChannel();
-    producer = new Producer(controlChannel, dataChannel);
-    consumer = new Consumer(controlChannel, dataChannel);
+    createChannels(DataChannel.DEPTH_DEFAULT);
     this.recordsProduced = 0;
     this.previewBuffer = new LinkedHashMap<>();
     this.countDownLatch = new CountDownLatch(1);
@@ -170,10 +167,23 @@ public class ClusterHdfsSource extends BaseSource implements OffsetCommitter, Er
     visitedFiles = new HashSet<>();
   }
 
+  private void createChannels(int depth) {
+    ControlChannel controlChannel = new ControlChannel(depth);
+    DataChannel dataChannel = new DataChannel(depth);
+    producer = new Producer(controlChannel, dataChannel);
+    consumer = new Consumer(controlChannel, dataChannel);
+  }
+
   @Override
   public List<ConfigIssue> init() {
     List<ConfigIssue> issues = super.init();
 
+    int batchesInFlight = getContext().getConfiguration().get(DataChannel.DEPTH_CONFIG, DataChannel.DEPTH_DEFAULT);
+    if (batchesInFlight > DataChannel.DEPTH_DEFAULT) {
+      LOG.info("Up to {} batches in flight between Spark and the pipeline", batchesInFlight);
+      createChannels(batchesInFlight);
+    }
+
     conf.dataFormatConfig.checkForInvalidAvroSchemaLookupMode(
         conf.dataFormat,
         "conf.dataFormatConfig",
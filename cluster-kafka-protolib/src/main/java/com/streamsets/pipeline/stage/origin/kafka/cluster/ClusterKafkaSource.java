@@ -45,19 +45,21 @@ import static com.streamsets.pipeline.Utils.KAFKA_CONFIG_BEAN_PREFIX;
 public class ClusterKafkaSource extends BaseKafkaSource implements OffsetCommitter, ClusterSource, ErrorListener {
   private static final Logger LOG = LoggerFactory.getLogger(ClusterKafkaSource.class);
   private static final String NO_OF_PARTITIONS = "partitionCount";
-  private final ControlChannel controlChannel;
-  private final DataChannel dataChannel;
-  private final Producer producer;
-  private final Consumer consumer;
+  private Producer producer;
+  private Consumer consumer;
   private long recordsProduced;
 
   public ClusterKafkaSource(KafkaConfigBean conf) {
     super(conf);
-    controlChannel = new ControlChannel();
-    dataChannel = new DataChannel();
+    createChannels(DataChannel.DEPTH_DEFAULT);
+    this.recordsProduced = 0;
+  }
+
+  private void createChannels(int depth) {
+    ControlChannel controlChannel = new ControlChannel(depth);
+    DataChannel dataChannel = new DataChannel(depth);
     producer = new Producer(controlChannel, dataChannel);
     consumer = new Consumer(controlChannel, dataChannel);
-    this.recordsProduced = 0;
   }
 
   @Override
@@ -91,6 +93,11 @@ public class ClusterKafkaSource extends BaseKafkaSource implements OffsetCommitt
   @Override
   protected List<ConfigIssue> init() {
     List<ConfigIssue> errors = super.init();
+    int batchesInFlight = getContext().getConfiguration().get(DataChannel.DEPTH_CONFIG, DataChannel.DEPTH_DEFAULT);
+    if (batchesInFlight > DataChannel.DEPTH_DEFAULT) {
+      LOG.info("Up to {} batches in flight between Spark and the pipeline", batchesInFlight);
+      createChannels(batchesInFlight);
+    }
     if (errors.isEmpty()) {
       LOG.info("Successfully initialized Spark Kafka Consumer");
     }
@@ -0,0 +1,204 @@
+/*
+ * Copyright 2019 StreamSets Inc.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package com.streamsets.pipeline.lib.parser;
+
+import com.streamsets.pipeline.api.impl.Utils;
+
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.Collections;
+import java.util.HashMap;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+
+/**
+ * Tree of field paths that a parser should materialize.
+ *
+ * Parsers walk the projection alongside the data they are converting and don't build fields for map entries
+ * that the projection excludes. The projection is always a superset of the given paths: parents of a projected
+ * path are kept, everything below a projected path is kept and list elements are never dropped (only their
+ * content is projected) so that list indexes stay stable.
+ *
+ * Supported paths are plain field paths such as <code>/a/b</code>, <code>/'a b'</code>, <code>/a[0]/b</code>
+ * and the <code>*</code> wildcard for a whole map key or list index.
+ */
+public final class FieldProjection {
+
+  private static final String ANY_NAME = "*";
+
+  public static final FieldProjection ALL = new FieldProjection(true, Collections.emptyMap(), null, null);
+
+  private static final FieldProjection EMPTY = new FieldProjection(false, Collections.emptyMap(), null, null);
+
+  private final boolean all;
+  private final Map<String, FieldProjection> mapChildren;
+  private final FieldProjection anyMapChild;
+  private final FieldProjection listChild;
+
+  private FieldProjection(
+      boolean all,
+      Map<String, FieldProjection> mapChildren,
+      FieldProjection anyMapChild,
+      FieldProjection listChild
+  ) {
+    this.all = all;
+    this.mapChildren = mapChildren;
+    this.anyMapChild = anyMapChild;
+    this.listChild = listChild;
+  }
+
+  /**
+   * Creates a projection for the given field paths, an empty or null collection projects all fields.
+   *
+   * @throws IllegalArgumentException if one of the paths is not a plain field path.
+   */
+  public static FieldProjection of(Collection<String> fieldPaths) {
+    if (fieldPaths == null || fieldPaths.isEmpty()) {
+      return ALL;
+    }
+    List<List<String>> segments = new ArrayList<>(fieldPaths.size());
+    for (String fieldPath : fieldPaths) {
+      segments.add(parse(fieldPath));
+    }
+    return build(segments);
+  }
+
+  /**
+   * Returns true if the given field path can be used in a projection.
+   */
+  public static boolean isSupported(String fieldPath) {
+    try {
+      parse(fieldPath);
+      return true;
+    } catch (IllegalArgumentException ex) {
+      return false;
+    }
+  }
+
+  public boolean isAll() {
+    return all;
+  }
+
+  /**
+   * Returns the projection for the given map entry or null if the entry is not projected.
+   */
+  public FieldProjection getMapChild(String name) {
+    if (all) {
+      return ALL;
+    }
+    FieldProjection child = mapChildren.get(name);
+    return (child != null) ? child : anyMapChild;
+  }
+
+  /**
+   * Returns the projection for the elements of a list, never null.
+   */
+  public FieldProjection getListChild() {
+    if (all) {
+      return ALL;
+    }
+    return listChild;
+  }
+
+  private static FieldProjection build(List<List<String>> paths) {
+    Map<String, List<List<String>>> byName = new LinkedHashMap<>();
+    List<List<String>> anyName = new ArrayList<>();
+    List<List<String>> listElements = new ArrayList<>();
+    for (List<String> path : paths) {
+      if (path.isEmpty()) {
+        return ALL;
+      }
+      String head = path.get(0);
+      List<String> tail = path.subList(1, path.size());
+      if (head == null) {
+        listElements.add(tail);
+      } else if (ANY_NAME.equals(head)) {
+        anyName.add(tail);
+      } else {
+        byName.computeIfAbsent(head, k -> new ArrayList<>()).add(tail);
+      }
+    }
+    Map<String, FieldProjection> mapChildren = new HashMap<>();
+    for (Map.Entry<String, List<List<String>>> entry : byName.entrySet()) {
+      List<List<String>> childPaths = new ArrayList<>(entry.getValue());
+      childPaths.addAll(anyName);
+      mapChildren.put(entry.getKey(), build(childPaths));
+    }
+    return new FieldProjection(
+        false,
+        mapChildren,
+        anyName.isEmpty() ? null : build(anyName),
+        listElements.isEmpty() ? EMPTY : build(listElements)
+    );
+  }
+
+  /**
+   * Splits a field path into its segments, list indexes are returned as null segments.
+   */
+  private static List<String> parse(String fieldPath) {
+    Utils.checkArgument(fieldPath != null, "fieldPath cannot be null");
+    List<String> segments = new ArrayList<>();
+    int i = 0;
+    int len = fieldPath.length();
+    while (i < len) {
+      char c = fieldPath.charAt(i);
+      if (c == '/') {
+        i++;
+        if (i == len) {
+          break;
+        }
+        StringBuilder name = new StringBuilder();
+        char quote = fieldPath.charAt(i);
+        if (quote == '\'' || quote == '"') {
+          i++;
+          while (i < len && fieldPath.charAt(i) != quote) {
+            if (fieldPath.charAt(i) == '\\' && i + 1 < len) {
+              i++;
+            }
+            name.append(fieldPath.charAt(i++));
+          }
+          Utils.checkArgument(i < len, Utils.formatL("Unterminated quoted name in field path '{}'", fieldPath));
+          i++;
+        } else {
+          while (i < len && fieldPath.charAt(i) != '/' && fieldPath.charAt(i) != '[') {
+            name.append(fieldPath.charAt(i++));
+          }
+        }
+        String segment = name.toString();
+        Utils.checkArgument(
+            !segment.isEmpty() && (ANY_NAME.equals(segment) || !(segment.contains(ANY_NAME) || segment.contains("${"))),
+            Utils.formatL("Unsupported field path '{}'", fieldPath)
+        );
+        segments.add(segment);
+      } else if (c == '[') {
+        int end = fieldPath.indexOf(']', i);
+        Utils.checkArgument(end > i + 1, Utils.formatL("Invalid list index in field path '{}'", fieldPath));
+        String index = fieldPath.substring(i + 1, end);
+        Utils.checkArgument(
+            ANY_NAME.equals(index) || index.chars().allMatch(Character::isDigit),
+            Utils.formatL("Unsupported list index in field path '{}'", fieldPath)
+        );
+        segments.add(null);
+        i = end + 1;
+      } else {
+        throw new IllegalArgumentException(Utils.format("Invalid field path '{}'", fieldPath));
+      }
+    }
+    return segments;
+  }
+
+}
@@ -20,6 +20,7 @@ import com.streamsets.pipeline.api.ext.io.OverrunReader;
 import com.streamsets.pipeline.api.impl.Utils;
 import com.streamsets.pipeline.api.ext.io.ObjectLengthException;
 import com.streamsets.pipeline.api.ext.io.OverrunException;
+import com.streamsets.pipeline.lib.parser.FieldProjection;
 
 import javax.xml.stream.XMLStreamException;
 import java.io.IOException;
@@ -56,7 +57,30 @@ public class OverrunStreamingXmlParser  extends StreamingXmlParser {
   public OverrunStreamingXmlParser(OverrunReader reader, String recordElement, Map<String, String> namespaces,
       long initialPosition, int maxObjectLen, boolean useFieldAttributesInsteadOfFields, boolean preserveRootElement)
       throws IOException, XMLStreamException {
-    super(reader, recordElement, namespaces, initialPosition, useFieldAttributesInsteadOfFields, preserveRootElement);
+    this(
+        reader,
+        recordElement,
+        namespaces,
+        initialPosition,
+        maxObjectLen,
+        useFieldAttributesInsteadOfFields,
+        preserveRootElement,
+        FieldProjection.ALL
+    );
+  }
+
+  public OverrunStreamingXmlParser(OverrunReader reader, String recordElement, Map<String, String> namespaces,
+      long initialPosition, int maxObjectLen, boolean useFieldAttributesInsteadOfFields, boolean preserveRootElement,
+      FieldProjection projection) throws IOException, XMLStreamException {
+    super(
+        reader,
+        recordElement,
+        namespaces,
+        initialPosition,
+        useFieldAttributesInsteadOfFields,
+        preserveRootElement,
+        projection
+    );
     countingReader = (OverrunReader) getReader();
     countingReader.setEnabled(true);
     this.maxObjectLen = maxObjectLen;
@@ -20,31 +20,34 @@ import com.google.common.collect.Lists;
 import com.streamsets.pipeline.api.Field;
 import com.streamsets.pipeline.api.ext.io.ObjectLengthException;
 import com.streamsets.pipeline.api.impl.Utils;
+import com.streamsets.pipeline.lib.parser.FieldProjection;
 import com.streamsets.pipeline.lib.xml.xpath.MatchStatus;
-import com.streamsets.pipeline.lib.xml.xpath.XPathMatchingEventReader;
+import com.streamsets.pipeline.lib.xml.xpath.XPathStreamMatcher;
 import org.apache.commons.lang3.StringUtils;
 
+import javax.xml.XMLConstants;
 import javax.xml.namespace.QName;
-import javax.xml.stream.XMLEventReader;
 import javax.xml.stream.XMLInputFactory;
+import javax.xml.stream.XMLStreamConstants;
 import javax.xml.stream.XMLStreamException;
-import javax.xml.stream.events.Attribute;
-import javax.xml.stream.events.Characters;
-import javax.xml.stream.events.EndElement;
-import javax.xml.stream.events.Namespace;
-import javax.xml.stream.events.StartElement;
-import javax.xml.stream.events.XMLEvent;
+import javax.xml.stream.XMLStreamReader;
 import java.io.IOException;
 import java.io.Reader;
 import java.util.ArrayList;
 import java.util.Collections;
 import java.util.HashMap;
-import java.util.Iterator;
 import java.util.LinkedHashMap;
 import java.util.LinkedList;
 import java.util.List;
 import java.util.Map;
 
+/**
+ * Pull parser that extracts the elements matching the record delimiter XPath as fields.
+ *
+ * The parser works directly on an {@link XMLStreamReader} cursor, no {@link javax.xml.stream.events.XMLEvent} is
+ * allocated. The cursor is always positioned on the next event that has not been processed yet, which is the event
+ * an {@link javax.xml.stream.XMLEventReader} would return from peek().
+ */
 public class StreamingXmlParser {
 
   public static final String VALUE_KEY = "value";
@@ -55,11 +58,15 @@ public class StreamingXmlParser {
   public static final String XMLATTR_ATTRIBUTE_PREFIX = "xmlAttr:";
 
   private final Reader reader;
-  private final XPathMatchingEventReader xmlEventReader;
+  private final XMLStreamReader xmlReader;
+  private final XPathStreamMatcher recordMatcher;
   private final boolean useFieldAttributesInsteadOfFields;
   private final boolean preserveRootElement;
+  private final FieldProjection projection;
   private String recordElement;
   private boolean closed;
+  private boolean endOfDocument;
+  private MatchStatus lastElementMatchResult = MatchStatus.UNDETERMINED;
 
   private String lastParsedFieldXpathPrefix;
   final LinkedList<String> elementNameStack = new LinkedList<>();
@@ -75,10 +82,31 @@ public class StreamingXmlParser {
       final boolean useFieldAttributesInsteadOfFields,
       final boolean preserveRootElement
   ) throws XMLStreamException {
+    this(
+        reader,
+        recordElement,
+        namespaces,
+        initialPosition,
+        useFieldAttributesInsteadOfFields,
+        preserveRootElement,
+        FieldProjection.ALL
+    );
+  }
+
+  public StreamingXmlParser(
+      final Reader reader,
+      final String recordElement,
+      final Map<String, String> namespaces,
+      final long initialPosition,
+      final boolean useFieldAttributesInsteadOfFields,
+      final boolean preserveRootElement,
+      final FieldProjection projection
+  ) throws XMLStreamException {
 
     this.reader = reader;
     this.useFieldAttributesInsteadOfFields = useFieldAttributesInsteadOfFields;
     this.preserveRootElement = preserveRootElement;
+    this.projection = Utils.checkNotNull(projection, "projection");
     if (Strings.isNullOrEmpty(recordElement)) {
       this.recordElement = Constants.ROOT_ELEMENT_PATH;
     } else {
@@ -88,25 +116,29 @@ public class StreamingXmlParser {
     factory.setProperty("javax.xml.stream.isCoalescing", true);
     factory.setProperty("javax.xml.stream.isSupportingExternalEntities", false);
     factory.setProperty("javax.xml.stream.supportDTD", false);
-    this.xmlEventReader = new XPathMatchingEventReader(factory.createXMLEventReader(reader), this.recordElement, namespaces);
-    while (hasNext(xmlEventReader) && !peek(xmlEventReader).isEndDocument() && !peek(xmlEventReader).isStartElement()) {
-      read(xmlEventReader);
+    this.xmlReader = factory.createXMLStreamReader(reader);
+    this.recordMatcher = new XPathStreamMatcher(this.recordElement, namespaces);
+    while (hasNext() && peek() != XMLStreamConstants.END_DOCUMENT && peek() != XMLStreamConstants.START_ELEMENT) {
+      consume();
     }
     if (recordElement == null || recordElement.isEmpty()) {
-      StartElement startE = (StartElement) peek(xmlEventReader);
-      this.recordElement = startE.getName().getLocalPart();
+      this.recordElement = xmlReader.getLocalName();
     } else {
       //consuming root
-      StartElement startE = (StartElement) read(xmlEventReader);
-      elementNameStack.addFirst(getNameAndTrackNs(startE.getName()));
+      elementNameStack.addFirst(getElementName());
+      updateMatch();
+      // a root matching the record element stays under the cursor until the record is parsed
+      if (!isStartOfRecord() || initialPosition > 0) {
+        advance();
+      }
     }
     if (initialPosition > 0) {
       //fastforward to initial position
-      while (hasNext(xmlEventReader) && peek(xmlEventReader).getLocation().getCharacterOffset() < initialPosition) {
-        processNextEvent();
+      while (hasNext() && xmlReader.getLocation().getCharacterOffset() < initialPosition) {
+        processNextEvent(false);
         fastForwardLeaseReader();
       }
-      xmlEventReader.clearLastMatch();
+      clearLastMatch();
     }
   }
 
@@ -125,7 +157,7 @@ public class StreamingXmlParser {
   public void close() {
     closed = true;
     try {
-      xmlEventReader.close();
+      xmlReader.close();
     } catch (Exception ex) {
       // NOP
     }
@@ -134,12 +166,11 @@ public class StreamingXmlParser {
     namespaceUriToPrefix.clear();
   }
 
-  private String getNameAndTrackNs(QName name) {
-    final String uri = name.getNamespaceURI();
+  private String getNameAndTrackNs(String uri, String namePrefix, String localPart) {
     if (!Strings.isNullOrEmpty(uri)) {
       String prefix;
       if (!namespaceUriToPrefix.containsKey(uri)) {
-        prefix = name.getPrefix();
+        prefix = namePrefix;
         if (Strings.isNullOrEmpty(prefix)) {
           //generate a new namespace prefix for it
           prefix = GENERATED_NAMESPACE_PREFIX + generatedNsPrefixCount++;
@@ -148,10 +179,10 @@ public class StreamingXmlParser {
       } else {
         prefix = namespaceUriToPrefix.get(uri);
       }
-      return prefix + ":" + name.getLocalPart();
+      return prefix + ":" + localPart;
     } else {
       // element is in no namespace
-      return name.getLocalPart();
+      return localPart;
     }
   }
 
@@ -160,28 +191,35 @@ public class StreamingXmlParser {
       throw new IOException("The parser has been closed");
     }
     Field field = null;
-    if (hasNext(xmlEventReader)) {
-      int depth = 0;
-
+    if (hasNext()) {
       // we need to skip first level elements that are not the record delimiter and we have to ignore record delimiter
       // elements deeper than first level
-      while (hasNext(xmlEventReader) && !isStartOfRecord()) {
-        depth += processNextEvent();
+      while (hasNext() && !isStartOfRecord()) {
+        processNextEvent(true);
       }
-      if (hasNext(xmlEventReader)) {
-        StartElement startE = (StartElement) xmlEventReader.getLastMatchingEvent();
-        field = parse(xmlEventReader, startE);
+      if (hasNext()) {
+        // the cursor is on the start element of the record
+        String rootName = null;
+        FieldProjection recordProjection = projection;
+        if (preserveRootElement) {
+          rootName = new QName(Strings.nullToEmpty(xmlReader.getNamespaceURI()), xmlReader.getLocalName()).toString();
+          recordProjection = projection.getMapChild(rootName);
+          if (recordProjection == null) {
+            recordProjection = FieldProjection.ALL;
+          }
+        }
+        field = parse(recordProjection);
 
         if (preserveRootElement) {
-          field = Field.create(Collections.singletonMap(startE.getName().toString(), field));
+          field = Field.create(Collections.singletonMap(rootName, field));
         }
 
-        // the while loop consumes the start element for a record, and the parse method above consumes the end
+        // the start element for a record was pushed when found, and the parse method above consumes the end
         // so remove it from the stack
         elementNameStack.removeFirst();
       }
       // if advancing, don't evaluate XPath matches
-      xmlEventReader.clearLastMatch();
+      clearLastMatch();
     }
     return field;
   }
@@ -190,7 +228,7 @@ public class StreamingXmlParser {
   }
 
   public long getReaderPosition() throws XMLStreamException {
-    return (hasNext(xmlEventReader)) ? peek(xmlEventReader).getLocation().getCharacterOffset() : -1;
+    return (hasNext()) ? xmlReader.getLocation().getCharacterOffset() : -1;
   }
 
   public String getXpathPrefix() {
@@ -198,66 +236,163 @@ public class StreamingXmlParser {
   }
 
   private boolean isStartOfRecord() {
-    return xmlEventReader.getLastElementMatchResult() == MatchStatus.ELEMENT_MATCH;
+    return lastElementMatchResult == MatchStatus.ELEMENT_MATCH;
   }
 
-  boolean isIgnorable(XMLEvent event) {
-    return event.getEventType() == XMLEvent.PROCESSING_INSTRUCTION || event.getEventType() == XMLEvent.COMMENT;
+  private void clearLastMatch() {
+    lastElementMatchResult = MatchStatus.UNDETERMINED;
   }
 
-  void skipIgnorable(XMLEventReader reader) throws XMLStreamException {
-    while (reader.hasNext() && isIgnorable(reader.peek())) {
-      reader.nextEvent();
-    }
+  private static boolean isIgnorable(int eventType) {
+    return eventType == XMLStreamConstants.PROCESSING_INSTRUCTION || eventType == XMLStreamConstants.COMMENT;
   }
 
-  boolean hasNext(XMLEventReader reader) throws XMLStreamException {
-    skipIgnorable(reader);
-    return reader.hasNext();
+  private static boolean isCharacters(int eventType) {
+    return eventType == XMLStreamConstants.CHARACTERS || eventType == XMLStreamConstants.CDATA
+        || eventType == XMLStreamConstants.SPACE;
   }
 
-  XMLEvent peek(XMLEventReader reader) throws XMLStreamException {
-    skipIgnorable(reader);
-    return reader.peek();
+  private void skipIgnorable() throws XMLStreamException {
+    while (!endOfDocument && isIgnorable(xmlReader.getEventType())) {
+      advance();
+    }
   }
 
-  XMLEvent read(XMLEventReader reader) throws XMLStreamException  {
-    skipIgnorable(reader);
-    return reader.nextEvent();
+  private boolean hasNext() throws XMLStreamException {
+    skipIgnorable();
+    return !endOfDocument;
   }
 
-  String getName(String namePrefix, Attribute element) {
-    return getName(element.getName(), namePrefix);
+  /**
+   * Returns the type of the event under the cursor, the next one to be processed.
+   */
+  private int peek() throws XMLStreamException {
+    skipIgnorable();
+    return xmlReader.getEventType();
   }
 
-  String getName(StartElement element) {
-    return getName(element.getName(), null);
+  /**
+   * Moves the cursor to the next event, the event under the cursor must have been fully processed.
+   */
+  private void advance() throws XMLStreamException {
+    if (xmlReader.hasNext()) {
+      xmlReader.next();
+    } else {
+      endOfDocument = true;
+    }
   }
 
-  private String getName(QName name, String namePrefix) {
-    StringBuilder sb = new StringBuilder();
-    if (!Strings.isNullOrEmpty(namePrefix)) {
-      sb.append(namePrefix);
+  /**
+   * Evaluates the record delimiter XPath for the element under the cursor, every element start and end must go
+   * through it exactly once.
+   */
+  private void updateMatch() {
+    int eventType = xmlReader.getEventType();
+    MatchStatus result = MatchStatus.UNDETERMINED;
+    if (eventType == XMLStreamConstants.START_ELEMENT) {
+      result = recordMatcher.startElement(xmlReader);
+    } else if (eventType == XMLStreamConstants.END_ELEMENT) {
+      result = recordMatcher.endElement();
+    }
+    if (result != MatchStatus.UNDETERMINED) {
+      // it is a definitive element match result, one way or the other
+      lastElementMatchResult = result;
     }
-    sb.append(getNameAndTrackNs(name));
-    return sb.toString();
   }
 
-  Map<String, Field> toField(StartElement startE) {
+  private void consume() throws XMLStreamException {
+    updateMatch();
+    advance();
+  }
+
+  private String getElementName() {
+    return getNameAndTrackNs(xmlReader.getNamespaceURI(), xmlReader.getPrefix(), xmlReader.getLocalName());
+  }
+
+  private String getAttributeName(String namePrefix, int i) {
+    return namePrefix + getNameAndTrackNs(
+        xmlReader.getAttributeNamespace(i),
+        xmlReader.getAttributePrefix(i),
+        xmlReader.getAttributeLocalName(i)
+    );
+  }
+
+  private String getNamespaceName(String namePrefix, String prefix) {
+    // same name as the one of a javax.xml.stream.events.Namespace event
+    return Strings.nullToEmpty(namePrefix) + getNameAndTrackNs(
+        XMLConstants.XMLNS_ATTRIBUTE_NS_URI,
+        XMLConstants.XMLNS_ATTRIBUTE,
+        Strings.nullToEmpty(prefix)
+    );
+  }
+
+  /**
+   * Returns the attributes and namespace declarations of the start element under the cursor as fields.
+   */
+  Map<String, Field> toField(FieldProjection projection) {
     Map<String, Field> map = new LinkedHashMap<>();
-    Iterator attrs = startE.getAttributes();
-    while (attrs.hasNext()) {
-      Attribute attr = (Attribute) attrs.next();
-      map.put(getName(ATTR_PREFIX_KEY, attr), Field.create(attr.getValue()));
+    for (int i = 0; i < xmlReader.getAttributeCount(); i++) {
+      String name = getAttributeName(ATTR_PREFIX_KEY, i);
+      if (projection.getMapChild(name) != null) {
+        map.put(name, Field.create(xmlReader.getAttributeValue(i)));
+      }
     }
-    Iterator nss = startE.getNamespaces();
-    while (nss.hasNext()) {
-      Namespace ns = (Namespace) nss.next();
-      map.put(getName(NS_PREFIX_KEY, ns), Field.create(ns.getNamespaceURI()));
+    for (int i = 0; i < xmlReader.getNamespaceCount(); i++) {
+      String name = getNamespaceName(NS_PREFIX_KEY, xmlReader.getNamespacePrefix(i));
+      if (projection.getMapChild(name) != null) {
+        map.put(name, Field.create(xmlReader.getNamespaceURI(i)));
+      }
     }
     return map;
   }
 
+  /**
+   * Attributes and namespace declarations of a start element, their names are only resolved once the element has
+   * been parsed as the cursor has moved on by then.
+   */
+  private static class RawAttributes {
+    // namespace URI, prefix, local name and value of each attribute
+    private final String[] attributes;
+    // prefix and URI of each namespace declaration
+    private final String[] namespaces;
+
+    private RawAttributes(XMLStreamReader xmlReader) {
+      attributes = new String[4 * xmlReader.getAttributeCount()];
+      for (int i = 0, j = 0; i < xmlReader.getAttributeCount(); i++) {
+        attributes[j++] = xmlReader.getAttributeNamespace(i);
+        attributes[j++] = xmlReader.getAttributePrefix(i);
+        attributes[j++] = xmlReader.getAttributeLocalName(i);
+        attributes[j++] = xmlReader.getAttributeValue(i);
+      }
+      namespaces = new String[2 * xmlReader.getNamespaceCount()];
+      for (int i = 0, j = 0; i < xmlReader.getNamespaceCount(); i++) {
+        namespaces[j++] = xmlReader.getNamespacePrefix(i);
+        namespaces[j++] = xmlReader.getNamespaceURI(i);
+      }
+    }
+  }
+
+  private RawAttributes getRawAttributes() {
+    if (xmlReader.getAttributeCount() == 0 && xmlReader.getNamespaceCount() == 0) {
+      return null;
+    }
+    return new RawAttributes(xmlReader);
+  }
+
+  private void setFieldAttributes(Field field, RawAttributes raw) {
+    String[] attributes = raw.attributes;
+    for (int j = 0; j < attributes.length; j += 4) {
+      field.setAttribute(
+          XMLATTR_ATTRIBUTE_PREFIX + getNameAndTrackNs(attributes[j], attributes[j + 1], attributes[j + 2]),
+          attributes[j + 3]
+      );
+    }
+    String[] namespaces = raw.namespaces;
+    for (int j = 0; j < namespaces.length; j += 2) {
+      field.setAttribute(getNamespaceName(null, namespaces[j]), namespaces[j + 1]);
+    }
+  }
+
   protected boolean isOverMaxObjectLength() throws XMLStreamException {
     return false;
   }
@@ -275,47 +410,76 @@ public class StreamingXmlParser {
     list.add(field);
   }
 
+  /**
+   * Parses the element under the cursor, its start has already been evaluated by the record delimiter XPath.
+   */
   @SuppressWarnings("unchecked")
-  Field parse(XMLEventReader reader, StartElement startE) throws XMLStreamException, ObjectLengthException {
-    Map<String, Field> map = this.useFieldAttributesInsteadOfFields ? new LinkedHashMap<>() : toField(startE);
+  Field parse(FieldProjection projection) throws XMLStreamException, ObjectLengthException {
+    final String startUri = xmlReader.getNamespaceURI();
+    final String startLocalName = xmlReader.getLocalName();
+    RawAttributes rawAttributes = null;
+    Map<String, Field> map;
+    if (this.useFieldAttributesInsteadOfFields) {
+      map = new LinkedHashMap<>();
+      rawAttributes = getRawAttributes();
+    } else {
+      map = toField(projection);
+    }
+    advance();
+
     Map<String, Field> startEMap = map;
     Map<String, Object> contents = new LinkedHashMap<>();
     boolean maybeText = true;
-    while (hasNext(reader) && !peek(reader).isEndElement()) {
-      XMLEvent next = read(reader);
-      if (next.isCharacters()) {
+    while (hasNext() && peek() != XMLStreamConstants.END_ELEMENT) {
+      int next = peek();
+      if (isCharacters(next)) {
         // If this set of characters is all whitespace, ignore.
-        if (next.asCharacters().isWhiteSpace()) {
+        if (xmlReader.isWhiteSpace()) {
+          advance();
           continue;
-        } else if (peek(reader).isEndElement() && maybeText) {
-          contents.put(VALUE_KEY, Field.create(((Characters)next).getData()));
-        } else if (peek(reader).isStartElement()) {
-          StartElement subStartE = (StartElement) read(reader);
-          Field subField = parse(reader, subStartE);
-          addContent(contents, getName(subStartE), subField);
-          if (hasNext(reader) && peek(reader).isCharacters()) {
-            read(reader);
+        }
+        String text = maybeText ? xmlReader.getText() : null;
+        advance();
+        if (peek() == XMLStreamConstants.END_ELEMENT && maybeText) {
+          if (projection.getMapChild(VALUE_KEY) != null) {
+            contents.put(VALUE_KEY, Field.create(text));
+          }
+        } else if (peek() == XMLStreamConstants.START_ELEMENT) {
+          updateMatch();
+          if (projection.isAll()) {
+            String uri = xmlReader.getNamespaceURI();
+            String prefix = xmlReader.getPrefix();
+            String localName = xmlReader.getLocalName();
+            Field subField = parse(projection);
+            addContent(contents, getNameAndTrackNs(uri, prefix, localName), subField);
+          } else {
+            parseSubElement(projection, contents);
+          }
+          if (hasNext() && isCharacters(peek())) {
+            advance();
           }
         } else if (maybeText) {
           throw new XMLStreamException(Utils.format(
-              "Unexpected XMLEvent '{}', it should be START_ELEMENT or END_ELEMENT", next), next.getLocation());
+              "Unexpected XMLEvent '{}', it should be START_ELEMENT or END_ELEMENT", getEventTypeName(peek())),
+              xmlReader.getLocation());
         }
-      } else if (next.isStartElement()) {
-        String name = getName((StartElement) next);
-        Field field = parse(reader, (StartElement) next);
-        addContent(contents, name, field);
+      } else if (next == XMLStreamConstants.START_ELEMENT) {
+        updateMatch();
+        parseSubElement(projection, contents);
       } else {
         throw new XMLStreamException(Utils.format("Unexpected XMLEvent '{}', it should be START_ELEMENT or CHARACTERS",
-                                                  next), next.getLocation());
+                                                  getEventTypeName(next)), xmlReader.getLocation());
       }
       maybeText = false;
     }
-    if (hasNext(reader)) {
-      EndElement endE = (EndElement) read(reader);
-      if (!endE.getName().equals(startE.getName())) {
+    if (hasNext()) {
+      String endUri = xmlReader.getNamespaceURI();
+      String endLocalName = xmlReader.getLocalName();
+      consume();
+      if (!endLocalName.equals(startLocalName) || !Strings.nullToEmpty(endUri).equals(Strings.nullToEmpty(startUri))) {
         throw new XMLStreamException(Utils.format("Unexpected EndElement '{}', it should be '{}'",
-                                                  endE.getName().getLocalPart(), startE.getName().getLocalPart()),
-                                     endE.getLocation());
+                                                  endLocalName, startLocalName),
+                                     xmlReader.getLocation());
       }
       for (Map.Entry<String, Object> entry : contents.entrySet()) {
         if (entry.getValue() instanceof Field) {
@@ -327,37 +491,84 @@ public class StreamingXmlParser {
     }
     final Field field = Field.create(startEMap);
 
-    if (this.useFieldAttributesInsteadOfFields) {
-      Iterator attrs = startE.getAttributes();
-      while (attrs.hasNext()) {
-        Attribute attr = (Attribute) attrs.next();
-        field.setAttribute(getName(XMLATTR_ATTRIBUTE_PREFIX, attr), attr.getValue());
-      }
-      Iterator nss = startE.getNamespaces();
-      while (nss.hasNext()) {
-        Namespace ns = (Namespace) nss.next();
-        field.setAttribute(getName(null, ns), ns.getNamespaceURI());
-      }
+    if (rawAttributes != null) {
+      setFieldAttributes(field, rawAttributes);
     }
 
     lastParsedFieldXpathPrefix = getXpathPrefix();
     return field;
   }
 
+  private void parseSubElement(FieldProjection projection, Map<String, Object> contents)
+      throws XMLStreamException, ObjectLengthException {
+    String name = getElementName();
+    FieldProjection subProjection = projection.getMapChild(name);
+    if (subProjection == null) {
+      skipElement();
+    } else {
+      addContent(contents, name, parse(subProjection.getListChild()));
+    }
+  }
+
+  /**
+   * Consumes an element excluded by the projection without building any field for it.
+   */
+  private void skipElement() throws XMLStreamException, ObjectLengthException {
+    String localName = xmlReader.getLocalName();
+    advance();
+    int depth = 1;
+    while (depth > 0 && hasNext()) {
+      int next = peek();
+      if (next == XMLStreamConstants.START_ELEMENT) {
+        depth++;
+      } else if (next == XMLStreamConstants.END_ELEMENT) {
+        depth--;
+      }
+      consume();
+    }
+    throwIfOverMaxObjectLength();
+    if (depth > 0) {
+      throw new XMLStreamException(Utils.format("Missing EndElement for '{}'", localName));
+    }
+  }
+
   protected void throwIfOverMaxObjectLength() throws XMLStreamException, ObjectLengthException {
   }
 
-  private int processNextEvent() throws XMLStreamException {
-    XMLEvent event = read(xmlEventReader);
-    int depthUpdate = 0;
-    if (event.isStartElement()) {
-      elementNameStack.addFirst(getNameAndTrackNs(event.asStartElement().getName()));
-      depthUpdate = 1;
-    } else if (event.getEventType() == XMLEvent.END_ELEMENT) {
+  /**
+   * Processes the event under the cursor outside of a record, keeping track of the element names. If requested the
+   * cursor stops on the start element of a record.
+   */
+  private void processNextEvent(boolean stopAtRecord) throws XMLStreamException {
+    int eventType = peek();
+    if (eventType == XMLStreamConstants.START_ELEMENT) {
+      elementNameStack.addFirst(getElementName());
+      updateMatch();
+      if (stopAtRecord && isStartOfRecord()) {
+        return;
+      }
+    } else if (eventType == XMLStreamConstants.END_ELEMENT) {
+      updateMatch();
       elementNameStack.removeFirst();
-      depthUpdate = -1;
     }
-    return depthUpdate;
+    advance();
+  }
+
+  private static String getEventTypeName(int eventType) {
+    switch (eventType) {
+      case XMLStreamConstants.START_ELEMENT:
+        return "START_ELEMENT";
+      case XMLStreamConstants.END_ELEMENT:
+        return "END_ELEMENT";
+      case XMLStreamConstants.CHARACTERS:
+      case XMLStreamConstants.CDATA:
+      case XMLStreamConstants.SPACE:
+        return "CHARACTERS";
+      case XMLStreamConstants.END_DOCUMENT:
+        return "END_DOCUMENT";
+      default:
+        return String.valueOf(eventType);
+    }
   }
 
 }
@@ -16,6 +16,8 @@
 
 package com.streamsets.pipeline.lib.xml;
 
+import com.streamsets.pipeline.lib.parser.FieldProjection;
+
 import javax.xml.stream.XMLStreamException;
 import java.io.IOException;
 import java.io.Reader;
@@ -30,6 +32,7 @@ public class StreamingXmlParserBuilder {
 
   private boolean useFieldAttributesInsteadOfFields = true;
   private boolean preserveRootElement = false;
+  private FieldProjection projection = FieldProjection.ALL;
 
   public StreamingXmlParserBuilder withReader(Reader reader) {
     this.reader = reader;
@@ -61,6 +64,11 @@ public class StreamingXmlParserBuilder {
     return this;
   }
 
+  public StreamingXmlParserBuilder withProjection(FieldProjection projection) {
+    this.projection = projection;
+    return this;
+  }
+
   public StreamingXmlParser build() throws IOException, XMLStreamException {
     return new StreamingXmlParser(
         reader,
@@ -68,7 +76,8 @@ public class StreamingXmlParserBuilder {
         namespaces,
         initialPosition,
         useFieldAttributesInsteadOfFields,
-        preserveRootElement
+        preserveRootElement,
+        projection
     );
   }
 }
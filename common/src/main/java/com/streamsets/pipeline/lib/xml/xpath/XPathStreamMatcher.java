@@ -0,0 +1,162 @@
+/*
+ * Copyright 2019 StreamSets Inc.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package com.streamsets.pipeline.lib.xml.xpath;
+
+import com.google.common.base.Strings;
+import com.streamsets.pipeline.api.impl.XMLChar;
+import com.streamsets.pipeline.lib.xml.Constants;
+
+import javax.xml.stream.XMLStreamReader;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Map;
+
+/**
+ * Matches the record delimiter XPath against the elements an {@link XMLStreamReader} cursor goes through.
+ *
+ * The XPath is compiled up front into one step per depth (element name, resolved namespace URI and predicate), the
+ * state of the matcher is the current depth and the depth through which all steps matched. Same semantics as
+ * {@link XPathMatchingEventTracker} without requiring {@link javax.xml.stream.events.XMLEvent} objects.
+ */
+public class XPathStreamMatcher {
+
+  private final Step[] steps;
+
+  private int depth = 0;
+  private int matchesThroughDepth = 0;
+
+  public XPathStreamMatcher(String xPath, Map<String, String> namespaces) {
+    List<Step> compiled = new ArrayList<>();
+    if (xPath != null) {
+      boolean ignoreNamespaces = false;
+      if (XMLChar.isValidName(xPath)) {
+        //this is simply a field name with no "/" separator; adjust it to support previous syntax
+        xPath = Constants.ROOT_ELEMENT_PATH + Constants.PATH_SEPARATOR + xPath;
+        ignoreNamespaces = true;
+      }
+      for (String xPathPart : xPath.split(Constants.PATH_SEPARATOR)) {
+        if (!Strings.isNullOrEmpty(xPathPart)) {
+          compiled.add(new Step(xPathPart, namespaces, ignoreNamespaces));
+        }
+      }
+    }
+    steps = compiled.toArray(new Step[0]);
+  }
+
+  /**
+   * Must be called when the cursor is positioned on a START_ELEMENT event.
+   */
+  public MatchStatus startElement(XMLStreamReader reader) {
+    depth++;
+    if (depth > steps.length || depth - 1 > matchesThroughDepth) {
+      return MatchStatus.ELEMENT_NOT_MATCH;
+    }
+    if (!steps[depth - 1].matches(reader)) {
+      return MatchStatus.ELEMENT_NOT_MATCH;
+    }
+    matchesThroughDepth = depth;
+    // the element matches if all levels matched, otherwise at least one more level needs to match
+    return (matchesThroughDepth == steps.length) ? MatchStatus.ELEMENT_MATCH : MatchStatus.UNDETERMINED;
+  }
+
+  /**
+   * Must be called when the cursor is positioned on an END_ELEMENT event.
+   */
+  public MatchStatus endElement() {
+    depth--;
+    if (matchesThroughDepth > depth) {
+      matchesThroughDepth = depth;
+    }
+    return MatchStatus.UNDETERMINED;
+  }
+
+  private static class Step {
+    private final String localName;
+    private final String namespacePrefix;
+    private final String namespaceUri;
+    private final boolean ignoreNamespaces;
+    private final int index;
+    private final String attributeName;
+    private final String attributeValue;
+    private int numElementsSeen = 0;
+
+    Step(String xPathPart, Map<String, String> namespaces, boolean ignoreNamespaces) {
+      this.ignoreNamespaces = ignoreNamespaces;
+      final int nsSeparatorIndex = xPathPart.indexOf(Constants.NAMESPACE_PREFIX_SEPARATOR);
+      String xPathLocalPart = xPathPart;
+      if (nsSeparatorIndex > 0) {
+        namespacePrefix = xPathPart.substring(0, nsSeparatorIndex);
+        xPathLocalPart = xPathPart.substring(nsSeparatorIndex + 1);
+      } else {
+        namespacePrefix = null;
+      }
+      namespaceUri = (namespacePrefix != null && namespaces != null) ? namespaces.get(namespacePrefix) : null;
+
+      final int qualifierStart = xPathLocalPart.lastIndexOf('[');
+      String name = xPathLocalPart;
+      int index = -1;
+      String attributeName = null;
+      String attributeValue = null;
+      if (qualifierStart > 0) {
+        final int qualifierEnd = xPathLocalPart.lastIndexOf(']');
+        if (xPathLocalPart.charAt(qualifierStart + 1) == '@') {
+          final int equalsIndex = xPathLocalPart.lastIndexOf('=');
+          attributeName = xPathLocalPart.substring(qualifierStart + 2, equalsIndex);
+          // knock off one character on each end for quotes
+          attributeValue = xPathLocalPart.substring(equalsIndex + 2, qualifierEnd - 1);
+        } else {
+          index = Integer.parseInt(xPathLocalPart.substring(qualifierStart + 1, qualifierEnd));
+        }
+        name = xPathLocalPart.substring(0, qualifierStart);
+      }
+      this.localName = Constants.WILDCARD.equals(name) ? null : name;
+      this.index = index;
+      this.attributeName = attributeName;
+      this.attributeValue = attributeValue;
+    }
+
+    boolean matches(XMLStreamReader reader) {
+      if (localName != null && !isQualifiedMatch(reader)) {
+        return false;
+      }
+      numElementsSeen++;
+      if (index >= 0) {
+        return numElementsSeen == index;
+      } else if (attributeName != null) {
+        for (int i = 0; i < reader.getAttributeCount(); i++) {
+          if (reader.getAttributeLocalName(i).equals(attributeName) && Constants.WILDCARD.equals(attributeValue) ||
+              reader.getAttributeValue(i).equals(attributeValue)) {
+            return true;
+          }
+        }
+        return false;
+      }
+      return true;
+    }
+
+    private boolean isQualifiedMatch(XMLStreamReader reader) {
+      if (!localName.equals(reader.getLocalName())) {
+        return false;
+      }
+      if (namespacePrefix == null) {
+        // xpath has no prefix; the element should therefore also have no namespace if namespaces are not ignored
+        return ignoreNamespaces || Strings.isNullOrEmpty(reader.getNamespaceURI());
+      }
+      return namespaceUri != null && namespaceUri.equals(Strings.nullToEmpty(reader.getNamespaceURI()));
+    }
+  }
+
+}
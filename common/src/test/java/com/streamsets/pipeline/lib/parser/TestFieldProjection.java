@@ -0,0 +1,88 @@
+/*
+ * Copyright 2019 StreamSets Inc.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package com.streamsets.pipeline.lib.parser;
+
+import com.google.common.collect.ImmutableList;
+import org.junit.Assert;
+import org.junit.Test;
+
+import java.util.Collections;
+
+public class TestFieldProjection {
+
+  @Test
+  public void testEmptyProjectsAll() {
+    Assert.assertTrue(FieldProjection.of(null).isAll());
+    Assert.assertTrue(FieldProjection.of(Collections.emptyList()).isAll());
+    Assert.assertTrue(FieldProjection.of(ImmutableList.of("/")).isAll());
+    Assert.assertTrue(FieldProjection.ALL.getMapChild("a").isAll());
+    Assert.assertTrue(FieldProjection.ALL.getListChild().isAll());
+  }
+
+  @Test
+  public void testMapPaths() {
+    FieldProjection projection = FieldProjection.of(ImmutableList.of("/a/b", "/c", "/'d e'"));
+    Assert.assertFalse(projection.isAll());
+    Assert.assertNull(projection.getMapChild("x"));
+    Assert.assertTrue(projection.getMapChild("c").isAll());
+    Assert.assertTrue(projection.getMapChild("d e").isAll());
+
+    FieldProjection a = projection.getMapChild("a");
+    Assert.assertFalse(a.isAll());
+    Assert.assertTrue(a.getMapChild("b").isAll());
+    Assert.assertNull(a.getMapChild("c"));
+  }
+
+  @Test
+  public void testListPaths() {
+    FieldProjection projection = FieldProjection.of(ImmutableList.of("/a[0]/b", "/a[*]/c"));
+    FieldProjection elements = projection.getMapChild("a").getListChild();
+    Assert.assertTrue(elements.getMapChild("b").isAll());
+    Assert.assertTrue(elements.getMapChild("c").isAll());
+    Assert.assertNull(elements.getMapChild("d"));
+
+    // Map children without any list path project no list element content
+    Assert.assertNull(FieldProjection.of(ImmutableList.of("/a/b")).getListChild().getMapChild("a"));
+  }
+
+  @Test
+  public void testWildcards() {
+    FieldProjection projection = FieldProjection.of(ImmutableList.of("/*/id", "/a/name"));
+    FieldProjection a = projection.getMapChild("a");
+    Assert.assertTrue(a.getMapChild("id").isAll());
+    Assert.assertTrue(a.getMapChild("name").isAll());
+    FieldProjection other = projection.getMapChild("other");
+    Assert.assertTrue(other.getMapChild("id").isAll());
+    Assert.assertNull(other.getMapChild("name"));
+  }
+
+  @Test
+  public void testSupportedPaths() {
+    Assert.assertTrue(FieldProjection.isSupported("/a/b[1]/c"));
+    Assert.assertTrue(FieldProjection.isSupported("/a/*/c"));
+    Assert.assertTrue(FieldProjection.isSupported("/\"a/b\""));
+    Assert.assertFalse(FieldProjection.isSupported("/a*"));
+    Assert.assertFalse(FieldProjection.isSupported("/*[${f:type() == 'STRING'}]"));
+    Assert.assertFalse(FieldProjection.isSupported("a"));
+    Assert.assertFalse(FieldProjection.isSupported("/'a"));
+  }
+
+  @Test(expected = IllegalArgumentException.class)
+  public void testUnsupportedPath() {
+    FieldProjection.of(ImmutableList.of("/a", "/b*"));
+  }
+
+}
@@ -0,0 +1,78 @@
+/*
+ * Copyright 2019 StreamSets Inc.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package com.streamsets.pipeline.lib.xml.xpath;
+
+import com.google.common.collect.ImmutableList;
+import com.google.common.collect.ImmutableMap;
+import org.junit.Assert;
+import org.junit.Test;
+
+import javax.xml.stream.XMLInputFactory;
+import javax.xml.stream.XMLStreamConstants;
+import javax.xml.stream.XMLStreamReader;
+import java.io.StringReader;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Map;
+
+public class TestXPathStreamMatcher {
+
+  private static final String XML = "<root xmlns:x=\"urn:x\">" +
+      "<a id=\"1\"><b id=\"2\"/></a>" +
+      "<a id=\"3\"><b id=\"4\"/><a id=\"5\"><b id=\"6\"/></a></a>" +
+      "<x:a id=\"7\"><b id=\"8\"/></x:a>" +
+      "</root>";
+
+  private static List<String> getMatchingIds(String xPath, Map<String, String> namespaces) throws Exception {
+    XPathStreamMatcher matcher = new XPathStreamMatcher(xPath, namespaces);
+    XMLStreamReader reader = XMLInputFactory.newFactory().createXMLStreamReader(new StringReader(XML));
+    List<String> ids = new ArrayList<>();
+    while (reader.hasNext()) {
+      int eventType = reader.next();
+      if (eventType == XMLStreamConstants.START_ELEMENT) {
+        if (matcher.startElement(reader) == MatchStatus.ELEMENT_MATCH) {
+          ids.add(reader.getAttributeValue(null, "id"));
+        }
+      } else if (eventType == XMLStreamConstants.END_ELEMENT) {
+        matcher.endElement();
+      }
+    }
+    return ids;
+  }
+
+  @Test
+  public void testElementName() throws Exception {
+    // A plain name matches elements right under the root in any namespace
+    Assert.assertEquals(ImmutableList.of("1", "3", "7"), getMatchingIds("a", null));
+    Assert.assertEquals(ImmutableList.of("1", "3"), getMatchingIds("/root/a", null));
+    Assert.assertEquals(ImmutableList.of("2", "4"), getMatchingIds("/root/a/b", null));
+    Assert.assertEquals(ImmutableList.of("6"), getMatchingIds("/root/a/a/b", null));
+    Assert.assertEquals(ImmutableList.of("2", "4", "8"), getMatchingIds("/root/*/b", null));
+  }
+
+  @Test
+  public void testNamespaces() throws Exception {
+    Assert.assertEquals(ImmutableList.of("8"), getMatchingIds("/root/y:a/b", ImmutableMap.of("y", "urn:x")));
+    Assert.assertEquals(ImmutableList.of(), getMatchingIds("/root/y:a/b", null));
+  }
+
+  @Test
+  public void testPredicates() throws Exception {
+    Assert.assertEquals(ImmutableList.of("3"), getMatchingIds("/root/a[2]", null));
+    Assert.assertEquals(ImmutableList.of("4"), getMatchingIds("/root/a[@id='3']/b", null));
+  }
+
+}
@@ -18,6 +18,7 @@ package com.streamsets.pipeline.lib.data;
 import com.google.common.collect.ImmutableMap;
 import com.streamsets.pipeline.api.ProtoConfigurableEntity;
 import com.streamsets.pipeline.config.Compression;
+import com.streamsets.pipeline.lib.parser.FieldProjection;
 
 import java.nio.charset.Charset;
 import java.util.Map;
@@ -36,6 +37,7 @@ public abstract class DataFactory {
     private final Map<String, Object> configs;
     private final int overRunLimit;
     private final int stringBuilderPoolSize;
+    private final FieldProjection projection;
 
     Settings(
         ProtoConfigurableEntity.Context context,
@@ -48,7 +50,8 @@ public abstract class DataFactory {
         Map<String, Object> configs,
         int overRunLimit,
         boolean removeCtrlChars,
-        int stringBuilderPoolSize
+        int stringBuilderPoolSize,
+        FieldProjection projection
     ) {
       this.context = context;
       this.format = format;
@@ -61,6 +64,7 @@ public abstract class DataFactory {
       this.configs = ImmutableMap.copyOf(configs);
       this.overRunLimit = overRunLimit;
       this.stringBuilderPoolSize = stringBuilderPoolSize;
+      this.projection = projection;
     }
 
     public ProtoConfigurableEntity.Context getContext() {
@@ -108,6 +112,13 @@ public abstract class DataFactory {
     public int getOverRunLimit() {
       return overRunLimit;
     }
+
+    /**
+     * Field paths the parsers should materialize, {@link FieldProjection#ALL} when no projection was set.
+     */
+    public FieldProjection getProjection() {
+      return projection;
+    }
   }
 
   private final Settings settings;
@@ -19,8 +19,10 @@ import com.streamsets.pipeline.api.ProtoConfigurableEntity;
 import com.streamsets.pipeline.api.impl.Utils;
 import com.streamsets.pipeline.common.DataFormatConstants;
 import com.streamsets.pipeline.config.Compression;
+import com.streamsets.pipeline.lib.parser.FieldProjection;
 
 import java.nio.charset.Charset;
+import java.util.Collection;
 import java.util.HashMap;
 import java.util.List;
 import java.util.Map;
@@ -40,6 +42,7 @@ public class DataFactoryBuilder<B extends DataFactoryBuilder, DF extends DataFac
   private int overRunLimit = DataFormatConstants.MAX_OVERRUN_LIMIT;
   private String filePatternInArchive = DataFormatConstants.FILE_PATTERN_IN_ARCHIVE;
   private int stringBuilderPoolSize = DataFormatConstants.STRING_BUILDER_POOL_SIZE;
+  private FieldProjection projection = FieldProjection.ALL;
 
   public DataFactoryBuilder(ProtoConfigurableEntity.Context context, F format) {
     this.context = Utils.checkNotNull(context, "context");
@@ -129,11 +132,19 @@ public class DataFactoryBuilder<B extends DataFactoryBuilder, DF extends DataFac
     return (B) this;
   }
 
+  /**
+   * Sets the field paths that parsers should materialize, an empty collection keeps all fields.
+   */
+  public B setProjection(Collection<String> fieldPaths) {
+    this.projection = FieldProjection.of(fieldPaths);
+    return (B) this;
+  }
+
   public DF build() {
     Utils.checkState(modes.size() == expectedModes.size(),
                      Utils.formatL("Format '{}', all required modes have not been set", format));
     DataFactory.Settings settings = new DataFactory.Settings(context, format, compression, filePatternInArchive,
-        charset, maxDataLen, modes, configs, overRunLimit, removeCtrlChars, stringBuilderPoolSize);
+        charset, maxDataLen, modes, configs, overRunLimit, removeCtrlChars, stringBuilderPoolSize, projection);
     return format.create(settings);
   }
 
@@ -0,0 +1,214 @@
+/*
+ * Copyright 2019 StreamSets Inc.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package com.streamsets.pipeline.lib.flowcontrol;
+
+import com.codahale.metrics.Meter;
+import com.google.common.annotations.VisibleForTesting;
+import com.streamsets.pipeline.api.Configuration;
+import com.streamsets.pipeline.api.Stage;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Map;
+
+/**
+ * Credit based flow control for push origins, bounds the records and bytes a push origin holds in flight: received
+ * from clients but not yet processed by the pipeline.
+ * <p/>
+ * Data is charged when it is received and released once the batch carrying it has been processed. When the budget is
+ * exhausted new requests are rejected with {@link #tryAdmit(long)}, so the origin can answer right away (HTTP 429,
+ * dropped UDP packet), or connections stop reading until {@link #whenAvailable(Runnable)} is called back (TCP, WebSocket)
+ * instead of buffering data while waiting for a pipeline runner.
+ * <p/>
+ * The budgets are SDC configurations, each origin instance gets its own budget. A budget of 0 is unlimited. With both
+ * of them unlimited flow control is disabled and all the methods are no-ops.
+ */
+public class FlowControl {
+
+  public static final String MAX_IN_FLIGHT_RECORDS_KEY =
+      "com.streamsets.pipeline.stage.origin.push.maxInFlightRecords";
+  public static final long MAX_IN_FLIGHT_RECORDS_DEFAULT = 0;
+  public static final String MAX_IN_FLIGHT_BYTES_KEY = "com.streamsets.pipeline.stage.origin.push.maxInFlightBytes";
+  public static final long MAX_IN_FLIGHT_BYTES_DEFAULT = 0;
+
+  public static final String GAUGE_NAME = "Flow Control";
+  public static final String GAUGE_IN_FLIGHT_RECORDS = "In Flight Records";
+  public static final String GAUGE_IN_FLIGHT_BYTES = "In Flight Bytes";
+  public static final String GAUGE_REJECTED_REQUESTS = "Rejected Requests";
+  public static final String ADMITTED_RECORDS_METER = "admittedRecords";
+  public static final String REJECTED_REQUESTS_METER = "rejectedRequests";
+
+  private static final FlowControl DISABLED = new FlowControl(0, 0, null, null, null);
+
+  private final long maxRecords;
+  private final long maxBytes;
+  private final boolean enabled;
+  private final Map<String, Object> gaugeMap;
+  private final Meter admittedRecordsMeter;
+  private final Meter rejectedRequestsMeter;
+  private final List<Runnable> waiting;
+  private long inFlightRecords;
+  private long inFlightBytes;
+  private long rejectedRequests;
+
+  @VisibleForTesting
+  FlowControl(
+      long maxRecords,
+      long maxBytes,
+      Map<String, Object> gaugeMap,
+      Meter admittedRecordsMeter,
+      Meter rejectedRequestsMeter
+  ) {
+    this.maxRecords = maxRecords;
+    this.maxBytes = maxBytes;
+    this.enabled = maxRecords > 0 || maxBytes > 0;
+    this.gaugeMap = gaugeMap;
+    this.admittedRecordsMeter = admittedRecordsMeter;
+    this.rejectedRequestsMeter = rejectedRequestsMeter;
+    waiting = new ArrayList<>();
+  }
+
+  /**
+   * Returns the flow control of a push origin configured with the SDC configuration of the given stage context, it
+   * registers its metrics with the context when enabled.
+   */
+  public static FlowControl create(Stage.Context context) {
+    Configuration configuration = context.getConfiguration();
+    if (configuration == null) {
+      return DISABLED;
+    }
+    long maxRecords = configuration.get(MAX_IN_FLIGHT_RECORDS_KEY, MAX_IN_FLIGHT_RECORDS_DEFAULT);
+    long maxBytes = configuration.get(MAX_IN_FLIGHT_BYTES_KEY, MAX_IN_FLIGHT_BYTES_DEFAULT);
+    if (maxRecords <= 0 && maxBytes <= 0) {
+      return DISABLED;
+    }
+    return new FlowControl(
+        Math.max(maxRecords, 0),
+        Math.max(maxBytes, 0),
+        context.createGauge(GAUGE_NAME).getValue(),
+        context.createMeter(ADMITTED_RECORDS_METER),
+        context.createMeter(REJECTED_REQUESTS_METER)
+    );
+  }
+
+  /**
+   * Returns a flow control that admits everything.
+   */
+  public static FlowControl disabled() {
+    return DISABLED;
+  }
+
+  public boolean isEnabled() {
+    return enabled;
+  }
+
+  /**
+   * Returns if there is credit left, the budgets aren't exhausted.
+   */
+  public synchronized boolean hasCredit() {
+    return !enabled || hasCredit(0);
+  }
+
+  // a request is always admitted when nothing is in flight, so one larger than the budget doesn't starve
+  private boolean hasCredit(long bytes) {
+    if (inFlightRecords == 0 && inFlightBytes == 0) {
+      return true;
+    }
+    return (maxRecords == 0 || inFlightRecords < maxRecords) && (maxBytes == 0 || inFlightBytes + bytes <= maxBytes);
+  }
+
+  /**
+   * Admits a new request of the given size if there is credit for it, charging its bytes.
+   *
+   * @param bytes size of the request, 0 if unknown
+   * @return false if the request has to be rejected
+   */
+  public boolean tryAdmit(long bytes) {
+    if (!enabled) {
+      return true;
+    }
+    synchronized (this) {
+      if (!hasCredit(bytes)) {
+        rejectedRequests++;
+        updateGauge();
+        rejectedRequestsMeter.mark();
+        return false;
+      }
+      inFlightBytes += bytes;
+      updateGauge();
+    }
+    return true;
+  }
+
+  /**
+   * Charges data that was already received, there is no rejection.
+   */
+  public void acquire(int records, long bytes) {
+    if (!enabled) {
+      return;
+    }
+    synchronized (this) {
+      inFlightRecords += records;
+      inFlightBytes += bytes;
+      updateGauge();
+    }
+    admittedRecordsMeter.mark(records);
+  }
+
+  /**
+   * Gives back the credit of data that has been processed, waking up the callbacks waiting for credit if there is
+   * credit again.
+   */
+  public void release(int records, long bytes) {
+    if (!enabled) {
+      return;
+    }
+    List<Runnable> available = null;
+    synchronized (this) {
+      inFlightRecords = Math.max(inFlightRecords - records, 0);
+      inFlightBytes = Math.max(inFlightBytes - bytes, 0);
+      updateGauge();
+      if (!waiting.isEmpty() && hasCredit(0)) {
+        available = new ArrayList<>(waiting);
+        waiting.clear();
+      }
+    }
+    // outside of the lock, the callbacks can use the flow control
+    if (available != null) {
+      available.forEach(Runnable::run);
+    }
+  }
+
+  /**
+   * Runs the callback as soon as there is credit, right away if there is credit already.
+   */
+  public void whenAvailable(Runnable callback) {
+    synchronized (this) {
+      if (enabled && !hasCredit(0)) {
+        waiting.add(callback);
+        return;
+      }
+    }
+    callback.run();
+  }
+
+  private void updateGauge() {
+    gaugeMap.put(GAUGE_IN_FLIGHT_RECORDS, inFlightRecords);
+    gaugeMap.put(GAUGE_IN_FLIGHT_BYTES, inFlightBytes);
+    gaugeMap.put(GAUGE_REJECTED_REQUESTS, rejectedRequests);
+  }
+
+}
@@ -0,0 +1,90 @@
+/*
+ * Copyright 2019 StreamSets Inc.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package com.streamsets.pipeline.lib.flowcontrol;
+
+import java.io.FilterInputStream;
+import java.io.IOException;
+import java.io.InputStream;
+
+/**
+ * Charges the bytes read from a request body to a {@link FlowControl} as they are read, for requests whose size isn't
+ * known when they are admitted (chunked HTTP requests) or that send more than they announced. The bytes admitted
+ * upfront are not charged again.
+ */
+public class FlowControlInputStream extends FilterInputStream {
+  private final FlowControl flowControl;
+  private final long admitted;
+  private long read;
+
+  /**
+   * @param admitted bytes already charged when the request was admitted
+   */
+  public FlowControlInputStream(InputStream in, FlowControl flowControl, long admitted) {
+    super(in);
+    this.flowControl = flowControl;
+    this.admitted = admitted;
+  }
+
+  /**
+   * Returns the bytes charged for the request, the admitted ones or the ones read if more, to be released once the
+   * request has been processed.
+   */
+  public long getCharged() {
+    return Math.max(admitted, read);
+  }
+
+  @Override
+  public int read() throws IOException {
+    int b = super.read();
+    if (b != -1) {
+      charge(1);
+    }
+    return b;
+  }
+
+  @Override
+  public int read(byte[] b, int off, int len) throws IOException {
+    int n = super.read(b, off, len);
+    if (n > 0) {
+      charge(n);
+    }
+    return n;
+  }
+
+  @Override
+  public long skip(long n) throws IOException {
+    long skipped = super.skip(n);
+    if (skipped > 0) {
+      charge(skipped);
+    }
+    return skipped;
+  }
+
+  @Override
+  public boolean markSupported() {
+    // bytes read again after a reset would be charged twice
+    return false;
+  }
+
+  private void charge(long bytes) {
+    long charged = getCharged();
+    read += bytes;
+    if (read > charged) {
+      flowControl.acquire(0, read - charged);
+    }
+  }
+
+}
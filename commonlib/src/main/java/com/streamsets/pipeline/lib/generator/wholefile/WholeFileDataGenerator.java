@@ -22,18 +22,25 @@ import com.streamsets.pipeline.config.ChecksumAlgorithm;
 import com.streamsets.pipeline.lib.generator.DataGenerator;
 import com.streamsets.pipeline.lib.generator.DataGeneratorException;
 import com.streamsets.pipeline.lib.generator.StreamCloseEventHandler;
+import com.streamsets.pipeline.lib.io.CountingFileChannelOutputStream;
 import com.streamsets.pipeline.lib.io.fileref.FileRefUtil;
 import org.apache.commons.io.IOUtils;
 
+import java.io.FileOutputStream;
 import java.io.IOException;
 import java.io.InputStream;
 import java.io.OutputStream;
 import java.nio.ByteBuffer;
 import java.nio.channels.Channels;
+import java.nio.channels.FileChannel;
 import java.nio.channels.ReadableByteChannel;
 import java.nio.channels.WritableByteChannel;
 
 final class WholeFileDataGenerator implements DataGenerator {
+  // bytes handed to the operating system on each transfer of a local file, metrics and rate limits are updated in
+  // between transfers
+  static final int TRANSFER_SIZE = 8 * 1024 * 1024;
+
   private final ProtoConfigurableEntity.Context context;
   private final OutputStream outputStream;
   private final boolean includeChecksumInTheEvents;
@@ -80,18 +87,23 @@ final class WholeFileDataGenerator implements DataGenerator {
     int bufferSize = fileRef.getBufferSize();
     boolean canUseDirectByteBuffer = fileRef.getSupportedStreamClasses().contains(ReadableByteChannel.class);
     if (canUseDirectByteBuffer) {
-      //Don't have to close this here, because generate.close will call output stream close
-      WritableByteChannel writableByteChannel = Channels.newChannel(outputStream); //NOSONAR
       try (ReadableByteChannel readableByteChannel = getReadableStream(fileRef, ReadableByteChannel.class)){
-        ByteBuffer buffer = ByteBuffer.allocateDirect(bufferSize);
-        while ((readableByteChannel.read(buffer)) > 0) {
-          //Flip to use the buffer from 0 to position.
-          buffer.flip();
-          while (buffer.hasRemaining()) {
-            writableByteChannel.write(buffer);
+        FileChannel target = getFileChannel();
+        if (target != null && FileRefUtil.isTransferToSupported(readableByteChannel)) {
+          transferFile(readableByteChannel, target);
+        } else {
+          //Don't have to close this here, because generate.close will call output stream close
+          WritableByteChannel writableByteChannel = Channels.newChannel(outputStream); //NOSONAR
+          ByteBuffer buffer = ByteBuffer.allocateDirect(bufferSize);
+          while ((readableByteChannel.read(buffer)) > 0) {
+            //Flip to use the buffer from 0 to position.
+            buffer.flip();
+            while (buffer.hasRemaining()) {
+              writableByteChannel.write(buffer);
+            }
+            //Compact the buffer for reuse.
+            buffer.clear();
           }
-          //Compact the buffer for reuse.
-          buffer.clear();
         }
       }
     } else {
@@ -102,6 +114,33 @@ final class WholeFileDataGenerator implements DataGenerator {
     }
   }
 
+  /**
+   * Returns the channel of the local file the output stream writes, null if it does not write a local file.
+   */
+  private FileChannel getFileChannel() {
+    if (outputStream instanceof FileOutputStream) {
+      return ((FileOutputStream) outputStream).getChannel();
+    }
+    if (outputStream instanceof CountingFileChannelOutputStream) {
+      return ((CountingFileChannelOutputStream) outputStream).getFileChannel();
+    }
+    return null;
+  }
+
+  /**
+   * Local file to local file copy, the bytes are copied by the operating system without going through the JVM.
+   */
+  private void transferFile(ReadableByteChannel readableByteChannel, FileChannel target) throws IOException {
+    //Don't have to close the target here, because generate.close will call output stream close
+    long transferred;
+    while ((transferred = FileRefUtil.transferTo(readableByteChannel, TRANSFER_SIZE, target)) >= 0) {
+      //the metrics, rate limit and checksum wrappers see each transfer, the counting output stream is told about it
+      if (outputStream instanceof CountingFileChannelOutputStream) {
+        ((CountingFileChannelOutputStream) outputStream).addTransferred(transferred);
+      }
+    }
+  }
+
   @Override
   public void flush() throws IOException {
     outputStream.flush();
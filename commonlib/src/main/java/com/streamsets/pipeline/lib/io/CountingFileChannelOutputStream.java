@@ -0,0 +1,55 @@
+/*
+ * Copyright 2019 StreamSets Inc.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package com.streamsets.pipeline.lib.io;
+
+import org.apache.commons.io.output.CountingOutputStream;
+
+import java.io.FileOutputStream;
+import java.io.OutputStream;
+import java.nio.channels.FileChannel;
+
+/**
+ * A {@link CountingOutputStream} that exposes the file channel of the stream it wraps, when it wraps a
+ * {@link FileOutputStream}, so that data can be transferred to the file directly while keeping the byte count.
+ */
+public class CountingFileChannelOutputStream extends CountingOutputStream {
+  private final FileChannel fileChannel;
+
+  public CountingFileChannelOutputStream(OutputStream out) {
+    super(out);
+    fileChannel = (out instanceof FileOutputStream) ? ((FileOutputStream) out).getChannel() : null;
+  }
+
+  /**
+   * Returns the channel of the file written by the wrapped stream, null if the wrapped stream does not write a local
+   * file. Bytes written to the channel must be reported with {@link #addTransferred(long)}.
+   */
+  public FileChannel getFileChannel() {
+    return fileChannel;
+  }
+
+  /**
+   * Counts bytes written directly to the file channel.
+   */
+  public void addTransferred(long count) {
+    while (count > 0) {
+      int n = (int) Math.min(count, Integer.MAX_VALUE);
+      beforeWrite(n);
+      count -= n;
+    }
+  }
+
+}
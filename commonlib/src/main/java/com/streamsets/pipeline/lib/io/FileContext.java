@@ -115,8 +115,13 @@ public class FileContext {
         fileOffset = 0;
       }
       if (currentFile != null) {
-        reader = new SingleLineLiveFileReader(getRollMode(), getMultiFileInfo().getTag(), currentFile, charset,
-                                              fileOffset, maxLineLength);
+        if (MappedLiveFileReader.ENABLED) {
+          reader = new MappedLiveFileReader(getRollMode(), getMultiFileInfo().getTag(), currentFile, charset,
+                                            fileOffset, maxLineLength);
+        } else {
+          reader = new SingleLineLiveFileReader(getRollMode(), getMultiFileInfo().getTag(), currentFile, charset,
+                                                fileOffset, maxLineLength);
+        }
         if (!multiFileInfo.getMultiLineMainLinePatter().isEmpty()) {
           reader = new MultiLineLiveFileReader(getMultiFileInfo().getTag(), reader,
                                                Pattern.compile(multiFileInfo.getMultiLineMainLinePatter()));
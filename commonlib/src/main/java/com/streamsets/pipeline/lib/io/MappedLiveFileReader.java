@@ -0,0 +1,417 @@
+/*
+ * Copyright 2019 StreamSets Inc.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package com.streamsets.pipeline.lib.io;
+
+import com.streamsets.pipeline.api.impl.Utils;
+import com.streamsets.pipeline.lib.util.ThreadUtil;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+import java.io.IOException;
+import java.lang.reflect.Field;
+import java.lang.reflect.Method;
+import java.nio.ByteBuffer;
+import java.nio.MappedByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.charset.Charset;
+import java.nio.file.StandardOpenOption;
+
+/**
+ * A <code>MappedLiveFileReader</code> is a {@link SingleLineLiveFileReader} equivalent that reads the file through
+ * a memory mapped region instead of copying it into a heap buffer.
+ * <p/>
+ * Line terminators are looked for directly in the mapped region and only the bytes of the returned chunk are copied,
+ * the chunk lines are decoded lazily by {@link FileLine}. The returned chunks, offsets, truncate mode and the
+ * detection of rolled files are the same as the ones of the {@link SingleLineLiveFileReader}.
+ * <p/>
+ * The file is mapped in fixed size windows starting at the read position, a new window is mapped only when the reader
+ * needs data past the end of the current one. As a read only channel can't map past the end of the file, a window is
+ * mapped up to the file size and mapped again when the file grows within it. The windows are unmapped as soon as
+ * they are replaced. A file truncated in place before the read position, or while the reader reads the mapped region,
+ * is reported as an <code>IOException</code>.
+ * <p/>
+ * IMPORTANT: The provided charset must encode LF and CR as '0x0A' and '0x0D' respectively.
+ */
+public class MappedLiveFileReader implements LiveFileReader {
+  private static final Logger LOG = LoggerFactory.getLogger(MappedLiveFileReader.class);
+
+  // use memory mapped readers for the files being tailed instead of the SingleLineLiveFileReader
+  static final boolean ENABLED = Boolean.parseBoolean(System.getProperty("LiveFileReader.mmap", "false"));
+
+  // size of the mapped windows, it is never smaller than the maximum line length
+  private static final long REGION_SIZE =
+      Long.parseLong(System.getProperty("LiveFileReader.mmap.region.mb", "64")) * 1024 * 1024;
+
+  // we sleep for 10 millisec to yield CPU
+  private static final long YIELD_INTERVAL = Integer.parseInt(System.getProperty("LiveFileReader.yield.ms", "10"));
+
+  private final RollMode rollMode;
+  private final LiveFile originalFile;
+  private final String tag;
+  private LiveFile currentFile;
+  private final Charset charset;
+  private final int maxLineLen;
+
+  // position of the first byte not returned in a chunk yet
+  private long position;
+  private boolean truncateMode;
+
+  private final FileChannel channel;
+  private final long windowSize;
+  private MappedByteBuffer region;
+  private long regionStart;
+  private long windowEnd;
+
+  private final byte[] chunkBytes;
+
+  private boolean open;
+  private long lastLiveFileRefresh;
+
+  // bytes between position and this position have already been checked and don't have an EOL
+  private long noEolUntil;
+
+  private boolean rolled;
+
+  /**
+   * Creates a <code>MappedLiveFileReader</code>, same arguments as the
+   * {@link SingleLineLiveFileReader#SingleLineLiveFileReader(RollMode, String, LiveFile, Charset, long, int)}
+   * constructor.
+   */
+  public MappedLiveFileReader(RollMode rollMode, String tag, LiveFile file, Charset charset, long offset,
+      int maxLineLen) throws IOException {
+    Utils.checkNotNull(rollMode, "rollMode");
+    Utils.checkNotNull(file, "file");
+    Utils.checkNotNull(charset, "charset");
+    Utils.checkArgument(maxLineLen > 1, "maxLineLen must greater than 1");
+    SingleLineLiveFileReader.validateCharset(charset, '\n', "\\n");
+    SingleLineLiveFileReader.validateCharset(charset, '\r', "\\r");
+    this.rollMode = rollMode;
+    this.tag = tag;
+    this.originalFile = file;
+    this.charset = charset;
+    this.maxLineLen = maxLineLen;
+
+    position = Math.abs(offset);
+    noEolUntil = position;
+    truncateMode = offset < 0;
+
+    currentFile = originalFile.refresh();
+    if (!currentFile.equals(originalFile)) {
+      LOG.debug("Original file '{}' refreshed to '{}'", file, currentFile);
+    }
+
+    channel = FileChannel.open(currentFile.getPath(), StandardOpenOption.READ);
+    open = true;
+
+    long actualSize;
+    try {
+      actualSize = channel.size();
+    } catch (IOException ex) {
+      closeChannel();
+      throw ex;
+    }
+
+    if (offset > actualSize) {
+      closeChannel();
+      throw new IOException(Utils.format("File '{}', offset '{}' beyond file size '{}'", currentFile.getPath(), offset,
+                                         actualSize));
+    }
+    LOG.debug("File '{}', positioned at offset '{}'", currentFile, offset);
+
+    chunkBytes = new byte[maxLineLen];
+    windowSize = Math.max(REGION_SIZE, maxLineLen);
+  }
+
+  private void closeChannel() {
+    if (open) {
+      try {
+        open = false;
+        unmapRegion();
+        channel.close();
+      } catch (IOException ex) {
+        //NOP
+      }
+    }
+  }
+
+  @Override
+  public LiveFile getLiveFile() {
+    return currentFile;
+  }
+
+  @Override
+  public Charset getCharset() {
+    return charset;
+  }
+
+  // offset will be negative if we are in truncate mode.
+
+  @Override
+  public long getOffset() {
+    Utils.checkState(open, Utils.formatL("LiveFileReder for '{}' is not open", currentFile));
+    return (truncateMode) ? -position : position;
+  }
+
+  @Override
+  public boolean hasNext() throws IOException {
+    Utils.checkState(open, Utils.formatL("LiveFileReader for '{}' is not open", currentFile));
+    // the file is still live or not all of it has been returned
+    return !isEof(position);
+  }
+
+  @Override
+  public LiveFileChunk next(long waitMillis) throws IOException {
+    Utils.checkArgument(waitMillis >= 0, "waitMillis must equal or greater than zero");
+    Utils.checkState(open, Utils.formatL("LiveFileReader for '{}' is not open", currentFile));
+    LiveFileChunk liveFileChunk = null;
+    long start = System.currentTimeMillis() + waitMillis;
+    try {
+      while (true) {
+        if (!hasNext()) {
+          break;
+        }
+        if (truncateMode) {
+          if (LOG.isTraceEnabled()) {
+            LOG.trace("File '{}' at offset '{} in fast forward mode", currentFile, position);
+          }
+          truncateMode = fastForward();
+        }
+        if (!truncateMode) {
+          liveFileChunk = readChunk();
+          if (LOG.isTraceEnabled()) {
+            LOG.trace("File '{}' at offset '{} got chunk '{}'", currentFile, position, liveFileChunk != null);
+          }
+          if (liveFileChunk != null) {
+            break;
+          }
+        }
+        if (System.currentTimeMillis() - start >= 0) {
+          if (LOG.isTraceEnabled()) {
+            LOG.trace("File '{}' at offset '{} timed out while waiting for chunk", currentFile, position);
+          }
+          //wait timeout
+          break;
+        }
+        //yielding CPU while in wait loop
+        if (!ThreadUtil.sleep(YIELD_INTERVAL)) {
+          LOG.trace("File '{}' at offset '{} interrupted while yielding CPU", currentFile, position);
+          break;
+        }
+      }
+      return liveFileChunk;
+    } catch (IOException ex) {
+      closeChannel();
+      throw ex;
+    } catch (InternalError ex) {
+      // reading a mapped page past the end of the file raises a SIGBUS that the JVM turns into an InternalError, the
+      // file was truncated (a copytruncate for example) after its size was checked
+      closeChannel();
+      throw new IOException(Utils.format("File '{}' truncated while reading it at offset '{}': {}", currentFile,
+                                         position, ex.toString()), ex);
+    }
+  }
+
+  @Override
+  public void close() throws IOException {
+    if (open) {
+      open = false;
+      try {
+        unmapRegion();
+      } catch (InternalError ex) {
+        // the fault of a mapped read racing a truncation may be raised only when the JVM next checks for it
+        LOG.debug("File '{}' truncated while reading it: {}", currentFile, ex.toString());
+      }
+      channel.close();
+    }
+  }
+
+  // IMPLEMENTATION
+
+  /**
+   * Returns how many bytes, up to the maximum line length, are available after the current position and makes sure
+   * they are in the mapped region.
+   */
+  private int mapAvailable() throws IOException {
+    long size = channel.size();
+    if (size < position) {
+      throw new IOException(Utils.format("File '{}' truncated to '{}' bytes while reading it at offset '{}'",
+                                         currentFile, size, position));
+    }
+    if (size == position) {
+      return 0;
+    }
+    int len = (int) Math.min(maxLineLen, size - position);
+    long end = position + len;
+    if (region == null || position < regionStart || end > windowEnd) {
+      map(position, Math.min(windowSize, size - position));
+      windowEnd = position + windowSize;
+    } else if (end > regionStart + region.limit()) {
+      // the file grew within the window
+      map(regionStart, Math.min(windowEnd, size) - regionStart);
+    }
+    return len;
+  }
+
+  private void map(long start, long length) throws IOException {
+    unmapRegion();
+    region = channel.map(FileChannel.MapMode.READ_ONLY, start, length);
+    regionStart = start;
+  }
+
+  private void unmapRegion() {
+    if (region != null) {
+      // the chunks hold copies of the data, nothing else refers to the region
+      UNMAPPER.unmap(region);
+      region = null;
+    }
+  }
+
+  private byte get(long filePosition) {
+    return region.get((int) (filePosition - regionStart));
+  }
+
+  // returns true if still in truncate mode, false otherwise
+  private boolean fastForward() throws IOException {
+    int len = mapAvailable();
+    long end = position + len;
+    for (long i = position; i < end; i++) {
+      byte b = get(i);
+      if (b == '\n') {
+        position = i + 1;
+        noEolUntil = position;
+        return false;
+      }
+      if (b == '\r') {
+        // handling \r\n EOLs, if the region ends exactly after \r, then the next chunk will start with \n which
+        // will be a line on its own. Same as SingleLineLiveFileReader.
+        position = (i + 1 < end && get(i + 1) == '\n') ? i + 2 : i + 1;
+        noEolUntil = position;
+        return false;
+      }
+    }
+    // no EOL yet, whatever was scanned is discarded
+    position = end;
+    noEolUntil = position;
+    return true;
+  }
+
+  private LiveFileChunk readChunk() throws IOException {
+    int len = mapAvailable();
+    if (len == 0) {
+      return null;
+    }
+    long end = position + len;
+    LiveFileChunk liveFileChunk;
+    // lets look for the last EOL, at the end of the file the remaining data is returned as is
+    long lastEol = isEof(end) ? end : findEndOfLastLine(end);
+    if (lastEol > -1) {
+      liveFileChunk = createChunk((int) (lastEol - position), false);
+    } else if (len == maxLineLen) {
+      // we have a full line length without EOL, return truncated chunk and go into truncate mode.
+      liveFileChunk = createChunk(len, true);
+      truncateMode = true;
+    } else {
+      // we don't have an EOL and there is not a full line length of data, no chunk in this read
+      noEolUntil = end;
+      liveFileChunk = null;
+    }
+    return liveFileChunk;
+  }
+
+  private LiveFileChunk createChunk(int chunkSize, boolean truncated) {
+    region.position((int) (position - regionStart));
+    region.get(chunkBytes, 0, chunkSize);
+    LiveFileChunk liveFileChunk = new LiveFileChunk(tag, currentFile, charset, chunkBytes, position, chunkSize,
+                                                    truncated);
+    position += chunkSize;
+    noEolUntil = position;
+    return liveFileChunk;
+  }
+
+  private boolean isEof(long readPosition) throws IOException {
+    try {
+      if (!rolled) {
+        if (originalFile.equals(currentFile) &&
+            System.currentTimeMillis() - lastLiveFileRefresh > SingleLineLiveFileReader.REFRESH_INTERVAL) {
+          currentFile = originalFile.refresh();
+          if (!currentFile.equals(originalFile)) {
+            LOG.debug("Original file '{}' refreshed to '{}'", originalFile, currentFile);
+          }
+          rolled = rollMode.isFileRolled(currentFile);
+          lastLiveFileRefresh = System.currentTimeMillis();
+        }
+      }
+      return rolled && readPosition >= channel.size();
+    } catch (IOException ex) {
+      closeChannel();
+      throw ex;
+    }
+  }
+
+  private long findEndOfLastLine(long end) {
+    for (long i = end - 1; i >= noEolUntil; i--) {
+      // as we are going backwards, this will handle \r\n EOLs as well without producing extra EOLs
+      // and if the data ends in \r, the last line will be kept as incomplete until the next chunk.
+      if (get(i) == '\n') {
+        return i + 1; // including EOL character
+      }
+    }
+    return -1;
+  }
+
+  private interface Unmapper {
+    void unmap(MappedByteBuffer buffer);
+  }
+
+  // mapped buffers are otherwise unmapped only when they are garbage collected
+  private static final Unmapper UNMAPPER = createUnmapper();
+
+  private static Unmapper createUnmapper() {
+    try {
+      // Java 9+
+      Class<?> unsafeClass = Class.forName("sun.misc.Unsafe");
+      Method invokeCleaner = unsafeClass.getMethod("invokeCleaner", ByteBuffer.class);
+      Field theUnsafe = unsafeClass.getDeclaredField("theUnsafe");
+      theUnsafe.setAccessible(true);
+      Object unsafe = theUnsafe.get(null);
+      return buffer -> {
+        try {
+          invokeCleaner.invoke(unsafe, buffer);
+        } catch (Exception ex) {
+          LOG.debug("Could not unmap buffer, it will be unmapped when garbage collected: {}", ex.toString());
+        }
+      };
+    } catch (Exception ex) {
+      LOG.trace("Unsafe.invokeCleaner() not available: {}", ex.toString());
+    }
+    try {
+      // Java 8
+      Method cleaner = Class.forName("sun.nio.ch.DirectBuffer").getMethod("cleaner");
+      Method clean = Class.forName("sun.misc.Cleaner").getMethod("clean");
+      return buffer -> {
+        try {
+          clean.invoke(cleaner.invoke(buffer));
+        } catch (Exception ex) {
+          LOG.debug("Could not unmap buffer, it will be unmapped when garbage collected: {}", ex.toString());
+        }
+      };
+    } catch (Exception ex) {
+      LOG.debug("Mapped buffers will be unmapped when garbage collected: {}", ex.toString());
+    }
+    return buffer -> {};
+  }
+
+}
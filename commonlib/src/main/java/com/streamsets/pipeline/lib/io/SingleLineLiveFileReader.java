@@ -158,7 +158,7 @@ public class SingleLineLiveFileReader implements LiveFileReader {
     }
   }
 
-  private void validateCharset(Charset charset, char c, String cStr) {
+  static void validateCharset(Charset charset, char c, String cStr) {
     ByteBuffer bf = charset.encode("" + c);
     if (bf.limit() != 1) {
       throw new IllegalArgumentException(Utils.format("Charset '{}' does not encode character '{}' in one byte",
@@ -0,0 +1,175 @@
+/*
+ * Copyright 2019 StreamSets Inc.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package com.streamsets.pipeline.lib.parser;
+
+import com.streamsets.pipeline.api.impl.Utils;
+import org.apache.commons.compress.compressors.gzip.GzipCompressorInputStream;
+
+import java.io.IOException;
+import java.io.InputStream;
+import java.util.concurrent.Callable;
+import java.util.zip.CRC32;
+import java.util.zip.DataFormatException;
+import java.util.zip.Inflater;
+
+/**
+ * Decompresses BGZF (blocked gzip, as written by bgzip) input using a shared pool of threads.
+ *
+ * Every BGZF block is an independent gzip member that records its compressed size in the gzip header, so blocks can
+ * be cut out of the compressed stream without decompressing them.
+ *
+ * A gzip member without the BGZF block size (for example a plain gzip file appended to a bgzip one) ends the
+ * parallel decompression: that member and the rest of the stream are decompressed sequentially.
+ */
+final class BgzfInputStream extends ParallelDecompressionInputStream {
+
+  private static final int FIXED_HEADER_LENGTH = 12;
+  private static final int FOOTER_LENGTH = 8;
+  private static final int FLG_FEXTRA = 4;
+  private static final int MAX_BLOCK_SIZE = 65536;
+  private static final int MAX_HEADER_LENGTH = FIXED_HEADER_LENGTH + 0xFFFF;
+
+  /**
+   * @param in compressed input, must support mark and reset
+   */
+  BgzfInputStream(InputStream in) {
+    super(in, 2 * THREADS);
+  }
+
+  /**
+   * Returns true if the given stream starts with a BGZF block, the stream must support mark and reset.
+   */
+  static boolean isBgzf(InputStream in) throws IOException {
+    int detectionLength = FIXED_HEADER_LENGTH + 6;
+    byte[] header = new byte[detectionLength];
+    in.mark(detectionLength);
+    int length = 0;
+    try {
+      int n;
+      while (length < detectionLength && (n = in.read(header, length, detectionLength - length)) != -1) {
+        length += n;
+      }
+    } finally {
+      in.reset();
+    }
+    if (length < FIXED_HEADER_LENGTH || (header[0] & 0xFF) != 0x1f || (header[1] & 0xFF) != 0x8b
+        || header[2] != 8 || (header[3] & FLG_FEXTRA) == 0) {
+      return false;
+    }
+    int xlen = readUnsignedShort(header, 10);
+    return getBlockSize(header, FIXED_HEADER_LENGTH, Math.min(length, FIXED_HEADER_LENGTH + xlen)) > 0;
+  }
+
+  /**
+   * Reads the next BGZF block, the task inflates its raw deflate data and checks it against the gzip footer. When the
+   * next gzip member is not a BGZF block, the stream is rewound to its start and handed to a sequential gzip
+   * decompressor.
+   */
+  @Override
+  protected Callable<byte[]> nextBlock() throws IOException {
+    byte[] header = new byte[FIXED_HEADER_LENGTH];
+    in.mark(MAX_HEADER_LENGTH);
+    int first = in.read();
+    if (first == -1) {
+      return null;
+    }
+    header[0] = (byte) first;
+    readFully(header, 1, FIXED_HEADER_LENGTH - 1);
+    if ((header[0] & 0xFF) != 0x1f || (header[1] & 0xFF) != 0x8b || header[2] != 8) {
+      throw new IOException("Input is not a gzip stream, invalid member header");
+    }
+    int blockSize = -1;
+    int xlen = 0;
+    if ((header[3] & FLG_FEXTRA) != 0) {
+      xlen = readUnsignedShort(header, 10);
+      byte[] extra = new byte[xlen];
+      readFully(extra, 0, xlen);
+      blockSize = getBlockSize(extra, 0, xlen);
+    }
+    if (blockSize <= 0) {
+      in.reset();
+      decompressSequentially(new GzipCompressorInputStream(in, true));
+      return null;
+    }
+    int remaining = blockSize - FIXED_HEADER_LENGTH - xlen;
+    if (remaining < FOOTER_LENGTH) {
+      throw new IOException("Input is not a BGZF stream, invalid block size");
+    }
+    byte[] block = new byte[remaining];
+    readFully(block, 0, remaining);
+    return () -> inflate(block);
+  }
+
+  private static byte[] inflate(byte[] block) throws IOException {
+    int footer = block.length - FOOTER_LENGTH;
+    int expectedCrc = readInt(block, footer);
+    int uncompressedSize = readInt(block, footer + 4);
+    if (uncompressedSize < 0 || uncompressedSize > MAX_BLOCK_SIZE) {
+      throw new IOException(Utils.format("Invalid BGZF block uncompressed size '{}'", uncompressedSize));
+    }
+    byte[] data = new byte[uncompressedSize];
+    Inflater inflater = new Inflater(true);
+    try {
+      inflater.setInput(block, 0, footer);
+      int n = 0;
+      while (n < uncompressedSize && !inflater.finished()) {
+        int inflated = inflater.inflate(data, n, uncompressedSize - n);
+        if (inflated == 0 && (inflater.needsInput() || inflater.needsDictionary())) {
+          break;
+        }
+        n += inflated;
+      }
+      if (n != uncompressedSize) {
+        throw new IOException(Utils.format(
+            "Truncated BGZF block, expected '{}' bytes got '{}'", uncompressedSize, n));
+      }
+    } catch (DataFormatException ex) {
+      throw new IOException(ex);
+    } finally {
+      inflater.end();
+    }
+    CRC32 crc = new CRC32();
+    crc.update(data, 0, data.length);
+    if ((int) crc.getValue() != expectedCrc) {
+      throw new IOException("BGZF block CRC mismatch");
+    }
+    return data;
+  }
+
+  /**
+   * Returns the total block size from the 'BC' subfield in the given gzip extra field, or -1 if there is none.
+   */
+  private static int getBlockSize(byte[] extra, int offset, int end) {
+    int i = offset;
+    while (i + 4 <= end) {
+      int subfieldLength = readUnsignedShort(extra, i + 2);
+      if (extra[i] == 'B' && extra[i + 1] == 'C' && subfieldLength == 2 && i + 6 <= end) {
+        return readUnsignedShort(extra, i + 4) + 1;
+      }
+      i += 4 + subfieldLength;
+    }
+    return -1;
+  }
+
+  private static int readUnsignedShort(byte[] b, int i) {
+    return (b[i] & 0xFF) | ((b[i + 1] & 0xFF) << 8);
+  }
+
+  private static int readInt(byte[] b, int i) {
+    return readUnsignedShort(b, i) | (readUnsignedShort(b, i + 2) << 16);
+  }
+
+}
@@ -0,0 +1,295 @@
+/*
+ * Copyright 2019 StreamSets Inc.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package com.streamsets.pipeline.lib.parser;
+
+import org.apache.commons.compress.compressors.bzip2.BZip2CompressorInputStream;
+import org.apache.commons.io.IOUtils;
+
+import java.io.ByteArrayInputStream;
+import java.io.EOFException;
+import java.io.IOException;
+import java.io.InputStream;
+import java.util.Arrays;
+import java.util.concurrent.Callable;
+
+/**
+ * Decompresses bzip2 input using a shared pool of threads, including concatenated streams as written by pbzip2.
+ *
+ * bzip2 blocks aren't byte aligned and don't record their size, but each one starts with the 48 bits block magic
+ * 0x314159265359 and the stream ends with the 48 bits magic 0x177245385090, so blocks are cut out of the stream by
+ * scanning its bits for them, as pbzip2 and the splittable bzip2 codec of Hadoop do. Each block is then decompressed
+ * as a stream of its own, made of the stream header, the block shifted to a byte boundary and an end of stream
+ * marker carrying the block CRC. The CRC of every block is checked when decompressing it and the combined CRC of the
+ * blocks is checked against the one at the end of each stream.
+ *
+ * As with Hadoop, a magic that happens to appear within the compressed data of a block (a chance of about 2^-48 for
+ * every bit) cuts the block in two, which then fails to decompress.
+ */
+final class Bzip2BlockInputStream extends ParallelDecompressionInputStream {
+
+  private static final long BLOCK_MAGIC = 0x314159265359L;
+  private static final long END_OF_STREAM_MAGIC = 0x177245385090L;
+  private static final int MAGIC_BITS = 48;
+  private static final long MAGIC_MASK = (1L << MAGIC_BITS) - 1;
+  private static final int CRC_BITS = 32;
+  private static final int HEADER_LENGTH = 4;
+  // a block holds at most 900KB before the Burrows-Wheeler transform, compressing it can only grow it slightly
+  private static final long MAX_BLOCK_BITS = 2L * 900 * 1000 * 8;
+
+  private int blockSize;
+  private boolean inStream;
+  private long nextMagic;
+  private int combinedCrc;
+  private int bitBuffer;
+  private int bitsLeft;
+  private final byte[] buffer = new byte[64 * 1024];
+  private int bufferPos;
+  private int bufferLimit;
+
+  /**
+   * @param in compressed input, must support mark and reset
+   */
+  Bzip2BlockInputStream(InputStream in) {
+    super(in, THREADS);
+  }
+
+  /**
+   * Returns true if the given stream starts with a bzip2 stream header followed by a block, the stream must support
+   * mark and reset.
+   */
+  static boolean isBzip2(InputStream in) throws IOException {
+    byte[] header = new byte[HEADER_LENGTH + MAGIC_BITS / 8];
+    in.mark(header.length);
+    int length = 0;
+    try {
+      int n;
+      while (length < header.length && (n = in.read(header, length, header.length - length)) != -1) {
+        length += n;
+      }
+    } finally {
+      in.reset();
+    }
+    if (length < header.length || !isHeader(header[0], header[1], header[2], header[3])) {
+      return false;
+    }
+    long magic = 0;
+    for (int i = HEADER_LENGTH; i < header.length; i++) {
+      magic = (magic << 8) | (header[i] & 0xFF);
+    }
+    return magic == BLOCK_MAGIC;
+  }
+
+  private static boolean isHeader(int b, int z, int h, int blockSize) {
+    return b == 'B' && z == 'Z' && h == 'h' && blockSize >= '1' && blockSize <= '9';
+  }
+
+  /**
+   * Reads the next block, the task decompresses it as a single block stream. Stream headers and ends are checked and
+   * skipped.
+   */
+  @Override
+  protected Callable<byte[]> nextBlock() throws IOException {
+    while (true) {
+      long magic;
+      if (inStream) {
+        magic = nextMagic;
+      } else {
+        // streams are byte aligned, after the padding of the previous one
+        int first = readByte();
+        if (first == -1) {
+          return null;
+        }
+        int z = readByte();
+        int h = readByte();
+        blockSize = readByte();
+        if (!isHeader(first, z, h, blockSize)) {
+          throw new IOException("Input is not a bzip2 stream, invalid stream header");
+        }
+        inStream = true;
+        combinedCrc = 0;
+        magic = readBits(MAGIC_BITS);
+      }
+
+      if (magic == END_OF_STREAM_MAGIC) {
+        int storedCrc = (int) readBits(CRC_BITS);
+        if (storedCrc != combinedCrc) {
+          throw new IOException("BZip2 stream CRC mismatch");
+        }
+        bitsLeft = 0;
+        inStream = false;
+        continue;
+      }
+      if (magic != BLOCK_MAGIC) {
+        throw new IOException("Input is not a bzip2 stream, invalid block magic");
+      }
+
+      long blockCrc = readBits(CRC_BITS);
+      combinedCrc = Integer.rotateLeft(combinedCrc, 1) ^ (int) blockCrc;
+      BitWriter block = new BitWriter();
+      block.write('B', 8);
+      block.write('Z', 8);
+      block.write('h', 8);
+      block.write(blockSize, 8);
+      block.write(BLOCK_MAGIC, MAGIC_BITS);
+      block.write(blockCrc, CRC_BITS);
+      long dataStart = block.length();
+
+      // the bits left of the current byte, then whole bytes checking each of their bits for the end of the block
+      long window = 0;
+      long dataBits = 0;
+      boolean end = false;
+      while (!end && bitsLeft > 0) {
+        int bit = readBit();
+        block.write(bit, 1);
+        window = ((window << 1) | bit) & MAGIC_MASK;
+        dataBits++;
+        end = dataBits >= MAGIC_BITS && isMagic(window);
+      }
+      while (!end) {
+        int b = readByte();
+        if (b == -1) {
+          throw new EOFException("Unexpected end of bzip2 stream");
+        }
+        long bits = (window << 8) | b;
+        int i = 0;
+        while (!end && i < 8) {
+          i++;
+          window = (bits >>> (8 - i)) & MAGIC_MASK;
+          end = dataBits + i >= MAGIC_BITS && isMagic(window);
+        }
+        if (end) {
+          block.write(b >>> (8 - i), i);
+          bitBuffer = b;
+          bitsLeft = 8 - i;
+        } else {
+          block.writeByte(b);
+          dataBits += 8;
+          if (dataBits > MAX_BLOCK_BITS) {
+            throw new IOException("Invalid bzip2 block, no block end found");
+          }
+        }
+      }
+      nextMagic = window;
+      block.truncate(block.length() - MAGIC_BITS);
+      // a stream of a single block, so its combined CRC is the block CRC
+      block.write(END_OF_STREAM_MAGIC, MAGIC_BITS);
+      block.write(blockCrc, CRC_BITS);
+
+      byte[] stream = block.toByteArray();
+      return () -> decompress(stream);
+    }
+  }
+
+  private static boolean isMagic(long bits) {
+    return bits == BLOCK_MAGIC || bits == END_OF_STREAM_MAGIC;
+  }
+
+  /**
+   * Reads the next byte of the input, buffered here as the blocks are scanned a byte at a time.
+   */
+  private int readByte() throws IOException {
+    if (bufferPos == bufferLimit) {
+      bufferLimit = in.read(buffer, 0, buffer.length);
+      bufferPos = 0;
+      if (bufferLimit <= 0) {
+        bufferLimit = 0;
+        return -1;
+      }
+    }
+    return buffer[bufferPos++] & 0xFF;
+  }
+
+  private int readBit() throws IOException {
+    if (bitsLeft == 0) {
+      int b = readByte();
+      if (b == -1) {
+        return -1;
+      }
+      bitBuffer = b;
+      bitsLeft = 8;
+    }
+    bitsLeft--;
+    return (bitBuffer >>> bitsLeft) & 1;
+  }
+
+  private long readBits(int count) throws IOException {
+    long value = 0;
+    for (int i = 0; i < count; i++) {
+      int bit = readBit();
+      if (bit == -1) {
+        throw new EOFException("Unexpected end of bzip2 stream");
+      }
+      value = (value << 1) | bit;
+    }
+    return value;
+  }
+
+  private static byte[] decompress(byte[] stream) throws IOException {
+    try (InputStream is = new BZip2CompressorInputStream(new ByteArrayInputStream(stream))) {
+      return IOUtils.toByteArray(is);
+    }
+  }
+
+  /**
+   * Writes bits most significant first, as bzip2 does.
+   */
+  private static final class BitWriter {
+    private byte[] bytes = new byte[64 * 1024];
+    private long length;
+
+    long length() {
+      return length;
+    }
+
+    void write(long value, int count) {
+      for (int i = count - 1; i >= 0; i--) {
+        int index = (int) (length >>> 3);
+        if (index == bytes.length) {
+          bytes = Arrays.copyOf(bytes, bytes.length * 2);
+        }
+        if (((value >>> i) & 1) != 0) {
+          bytes[index] |= 0x80 >>> (length & 7);
+        }
+        length++;
+      }
+    }
+
+    void writeByte(int b) {
+      int index = (int) (length >>> 3);
+      if (index + 1 >= bytes.length) {
+        bytes = Arrays.copyOf(bytes, bytes.length * 2);
+      }
+      int shift = (int) (length & 7);
+      bytes[index] |= b >>> shift;
+      if (shift > 0) {
+        bytes[index + 1] |= b << (8 - shift);
+      }
+      length += 8;
+    }
+
+    void truncate(long newLength) {
+      for (long i = newLength; i < length; i++) {
+        bytes[(int) (i >>> 3)] &= ~(0x80 >>> (i & 7));
+      }
+      length = newLength;
+    }
+
+    byte[] toByteArray() {
+      return Arrays.copyOf(bytes, (int) ((length + 7) >>> 3));
+    }
+  }
+
+}
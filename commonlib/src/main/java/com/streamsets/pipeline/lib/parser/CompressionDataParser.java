@@ -250,9 +250,24 @@ public class CompressionDataParser extends AbstractDataParser {
       private InputStream inputStream;
 
       public CompressorInput(InputStream inputStream) throws IOException {
+        BufferedInputStream bufferedInputStream = new BufferedInputStream(inputStream);
+        // BGZF blocks, zstd frames and bzip2 blocks can be cut out of the stream without decompressing them, so they
+        // are decompressed in parallel
+        if (BgzfInputStream.isBgzf(bufferedInputStream)) {
+          this.inputStream = new BgzfInputStream(bufferedInputStream);
+          return;
+        }
+        if (ZstdFrameInputStream.isZstd(bufferedInputStream)) {
+          this.inputStream = new ZstdFrameInputStream(bufferedInputStream);
+          return;
+        }
+        if (Bzip2BlockInputStream.isBzip2(bufferedInputStream)) {
+          this.inputStream = new Bzip2BlockInputStream(bufferedInputStream);
+          return;
+        }
         try {
           this.inputStream = new CompressorStreamFactory(DECOMPRESS_UNTIL_EOF).createCompressorInputStream(
-              new BufferedInputStream(inputStream));
+              bufferedInputStream);
         } catch (CompressorException e) {
           throw new IOException(e);
         }
@@ -0,0 +1,192 @@
+/*
+ * Copyright 2019 StreamSets Inc.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package com.streamsets.pipeline.lib.parser;
+
+import com.google.common.util.concurrent.ThreadFactoryBuilder;
+import com.streamsets.pipeline.api.impl.Utils;
+
+import java.io.EOFException;
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.InterruptedIOException;
+import java.util.ArrayDeque;
+import java.util.Deque;
+import java.util.concurrent.Callable;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+
+/**
+ * Decompresses input made of independently compressed blocks using a shared pool of threads.
+ *
+ * Subclasses cut the blocks out of the compressed stream without decompressing them. The stream reads ahead a bounded
+ * number of blocks, decompresses them in parallel and hands the uncompressed bytes back in order. When the rest of the
+ * input can't be cut into blocks, a subclass hands it to a sequential decompressor instead.
+ */
+abstract class ParallelDecompressionInputStream extends InputStream {
+
+  static final int THREADS = Math.max(1, Runtime.getRuntime().availableProcessors());
+
+  private static final byte[] EMPTY = new byte[0];
+
+  private static class ExecutorHolder {
+    private static final ExecutorService EXECUTOR = Executors.newFixedThreadPool(
+        THREADS,
+        new ThreadFactoryBuilder().setDaemon(true).setNameFormat("Decompression Thread - %d").build()
+    );
+  }
+
+  protected final InputStream in;
+  private final int readAheadBlocks;
+  private final Deque<Future<byte[]>> pending;
+  private byte[] current = EMPTY;
+  private int pos;
+  private boolean inputEof;
+  private InputStream sequential;
+  private boolean closed;
+
+  /**
+   * @param in compressed input, must support mark and reset
+   * @param readAheadBlocks maximum number of blocks read ahead of the one being returned
+   */
+  ParallelDecompressionInputStream(InputStream in, int readAheadBlocks) {
+    Utils.checkArgument(in.markSupported(), "The input stream must support mark and reset");
+    this.in = in;
+    this.readAheadBlocks = readAheadBlocks;
+    this.pending = new ArrayDeque<>(readAheadBlocks);
+  }
+
+  /**
+   * Reads the next block from the compressed stream and returns the task decompressing it, or null at the end of the
+   * stream or when the rest of it is decompressed sequentially.
+   */
+  protected abstract Callable<byte[]> nextBlock() throws IOException;
+
+  /**
+   * Decompresses the rest of the input with the given stream, after the blocks already read.
+   */
+  protected final void decompressSequentially(InputStream sequential) {
+    this.sequential = sequential;
+  }
+
+  @Override
+  public int read() throws IOException {
+    if (!ensureData()) {
+      return sequential == null ? -1 : sequential.read();
+    }
+    return current[pos++] & 0xFF;
+  }
+
+  @Override
+  public int read(byte[] b, int off, int len) throws IOException {
+    if (len == 0) {
+      return 0;
+    }
+    if (!ensureData()) {
+      return sequential == null ? -1 : sequential.read(b, off, len);
+    }
+    int n = Math.min(len, current.length - pos);
+    System.arraycopy(current, pos, b, off, n);
+    pos += n;
+    return n;
+  }
+
+  @Override
+  public int available() throws IOException {
+    if (pos == current.length && pending.isEmpty() && sequential != null) {
+      return sequential.available();
+    }
+    return current.length - pos;
+  }
+
+  @Override
+  public void close() throws IOException {
+    if (!closed) {
+      closed = true;
+      for (Future<byte[]> future : pending) {
+        future.cancel(true);
+      }
+      pending.clear();
+      if (sequential != null) {
+        sequential.close();
+      }
+      in.close();
+    }
+  }
+
+  private boolean ensureData() throws IOException {
+    Utils.checkState(!closed, "Stream is closed");
+    while (pos == current.length) {
+      fillReadAhead();
+      if (pending.isEmpty()) {
+        return false;
+      }
+      current = waitFor(pending.poll());
+      pos = 0;
+    }
+    fillReadAhead();
+    return true;
+  }
+
+  private void fillReadAhead() throws IOException {
+    while (!inputEof && pending.size() < readAheadBlocks) {
+      Callable<byte[]> block = nextBlock();
+      if (block == null) {
+        inputEof = true;
+      } else {
+        pending.add(ExecutorHolder.EXECUTOR.submit(block));
+      }
+    }
+  }
+
+  private static byte[] waitFor(Future<byte[]> future) throws IOException {
+    try {
+      return future.get();
+    } catch (InterruptedException ex) {
+      Thread.currentThread().interrupt();
+      throw new InterruptedIOException("Interrupted while decompressing block");
+    } catch (ExecutionException ex) {
+      if (ex.getCause() instanceof IOException) {
+        throw (IOException) ex.getCause();
+      }
+      throw new IOException(ex.getCause());
+    }
+  }
+
+  protected final void readFully(byte[] b, int off, int len) throws IOException {
+    while (len > 0) {
+      int n = in.read(b, off, len);
+      if (n == -1) {
+        throw new EOFException("Unexpected end of compressed stream");
+      }
+      off += n;
+      len -= n;
+    }
+  }
+
+  /**
+   * Reads a little endian unsigned integer of the given number of bytes, up to 8.
+   */
+  static long readLittleEndian(byte[] b, int offset, int length) {
+    long value = 0;
+    for (int i = length - 1; i >= 0; i--) {
+      value = (value << 8) | (b[offset + i] & 0xFF);
+    }
+    return value;
+  }
+
+}
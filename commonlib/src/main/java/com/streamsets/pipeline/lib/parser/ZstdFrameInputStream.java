@@ -0,0 +1,190 @@
+/*
+ * Copyright 2019 StreamSets Inc.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package com.streamsets.pipeline.lib.parser;
+
+import com.streamsets.pipeline.api.impl.Utils;
+import org.apache.commons.compress.compressors.zstandard.ZstdCompressorInputStream;
+import org.apache.commons.io.IOUtils;
+
+import java.io.ByteArrayInputStream;
+import java.io.ByteArrayOutputStream;
+import java.io.EOFException;
+import java.io.IOException;
+import java.io.InputStream;
+import java.util.concurrent.Callable;
+
+/**
+ * Decompresses zstd input made of several frames (as written by pzstd, or by concatenating zstd files) using a shared
+ * pool of threads.
+ *
+ * Frames are independent of each other and their blocks record their compressed sizes in 3 bytes headers, so a frame
+ * can be cut out of the compressed stream by walking its frame and block headers without decompressing it. Skippable
+ * frames are skipped.
+ *
+ * A frame that doesn't record its content size, or whose content is larger than {@link #MAX_FRAME_CONTENT_SIZE},
+ * ends the parallel decompression: that frame and the rest of the stream are decompressed sequentially. A file
+ * written as a single frame, as zstd does by default, is therefore decompressed sequentially as before.
+ */
+final class ZstdFrameInputStream extends ParallelDecompressionInputStream {
+
+  static final int MAX_FRAME_CONTENT_SIZE = 8 * 1024 * 1024;
+
+  private static final int MAGIC = 0xFD2FB528;
+  private static final int SKIPPABLE_MAGIC = 0x184D2A50;
+  private static final int SKIPPABLE_MAGIC_MASK = 0xFFFFFFF0;
+  private static final int BLOCK_HEADER_LENGTH = 3;
+  private static final int BLOCK_TYPE_RLE = 1;
+  private static final int BLOCK_TYPE_RESERVED = 3;
+  private static final int CHECKSUM_LENGTH = 4;
+  private static final int[] DICTIONARY_ID_LENGTHS = {0, 1, 2, 4};
+  // raw blocks are at most 128KB, so a frame is its content plus a few bytes per block and its header
+  private static final int MAX_FRAME_SIZE = MAX_FRAME_CONTENT_SIZE + 64 * 1024;
+
+  /**
+   * @param in compressed input, must support mark and reset
+   */
+  ZstdFrameInputStream(InputStream in) {
+    super(in, THREADS);
+  }
+
+  /**
+   * Returns true if the given stream starts with a zstd frame, the stream must support mark and reset.
+   */
+  static boolean isZstd(InputStream in) throws IOException {
+    byte[] magic = new byte[4];
+    in.mark(magic.length);
+    int length = 0;
+    try {
+      int n;
+      while (length < magic.length && (n = in.read(magic, length, magic.length - length)) != -1) {
+        length += n;
+      }
+    } finally {
+      in.reset();
+    }
+    return length == magic.length && (int) readLittleEndian(magic, 0, 4) == MAGIC;
+  }
+
+  /**
+   * Reads the next frame, the task decompresses it. When the frame can't be decompressed on its own within the
+   * bounds, the stream is rewound to its start and handed to a sequential zstd decompressor.
+   */
+  @Override
+  protected Callable<byte[]> nextBlock() throws IOException {
+    while (true) {
+      in.mark(MAX_FRAME_SIZE);
+      byte[] magic = new byte[4];
+      int first = in.read();
+      if (first == -1) {
+        return null;
+      }
+      magic[0] = (byte) first;
+      readFully(magic, 1, magic.length - 1);
+      int magicNumber = (int) readLittleEndian(magic, 0, 4);
+      if ((magicNumber & SKIPPABLE_MAGIC_MASK) == SKIPPABLE_MAGIC) {
+        byte[] size = new byte[4];
+        readFully(size, 0, size.length);
+        skipFully(readLittleEndian(size, 0, 4));
+        continue;
+      }
+      if (magicNumber != MAGIC) {
+        throw new IOException("Input is not a zstd stream, invalid frame magic");
+      }
+
+      ByteArrayOutputStream frame = new ByteArrayOutputStream();
+      frame.write(magic);
+      int descriptor = copy(frame, 1)[0] & 0xFF;
+      int contentSizeFlag = descriptor >>> 6;
+      boolean singleSegment = (descriptor & 0x20) != 0;
+      boolean checksum = (descriptor & 0x04) != 0;
+      int contentSizeLength = contentSizeFlag == 0 ? (singleSegment ? 1 : 0) : 1 << contentSizeFlag;
+      int headerLength = (singleSegment ? 0 : 1) + DICTIONARY_ID_LENGTHS[descriptor & 0x03] + contentSizeLength;
+      byte[] header = copy(frame, headerLength);
+      if (contentSizeLength == 0) {
+        return decompressSequentially();
+      }
+      long contentSize = readLittleEndian(header, headerLength - contentSizeLength, contentSizeLength);
+      if (contentSizeLength == 2) {
+        contentSize += 256;
+      }
+      if (contentSize < 0 || contentSize > MAX_FRAME_CONTENT_SIZE) {
+        return decompressSequentially();
+      }
+
+      boolean lastBlock;
+      do {
+        byte[] blockHeader = copy(frame, BLOCK_HEADER_LENGTH);
+        int value = (int) readLittleEndian(blockHeader, 0, BLOCK_HEADER_LENGTH);
+        lastBlock = (value & 1) != 0;
+        int blockType = (value >>> 1) & 0x03;
+        if (blockType == BLOCK_TYPE_RESERVED) {
+          throw new IOException("Input is not a zstd stream, invalid block type");
+        }
+        // an RLE block holds the single byte it repeats
+        int blockLength = blockType == BLOCK_TYPE_RLE ? 1 : value >>> 3;
+        if (frame.size() + blockLength > MAX_FRAME_SIZE) {
+          return decompressSequentially();
+        }
+        copy(frame, blockLength);
+      } while (!lastBlock);
+      if (checksum) {
+        copy(frame, CHECKSUM_LENGTH);
+      }
+
+      byte[] bytes = frame.toByteArray();
+      int size = (int) contentSize;
+      return () -> decompress(bytes, size);
+    }
+  }
+
+  private Callable<byte[]> decompressSequentially() throws IOException {
+    in.reset();
+    decompressSequentially(new ZstdCompressorInputStream(in));
+    return null;
+  }
+
+  private byte[] copy(ByteArrayOutputStream out, int length) throws IOException {
+    byte[] bytes = new byte[length];
+    readFully(bytes, 0, length);
+    out.write(bytes, 0, length);
+    return bytes;
+  }
+
+  private void skipFully(long length) throws IOException {
+    while (length > 0) {
+      long n = in.skip(length);
+      if (n <= 0) {
+        if (in.read() == -1) {
+          throw new EOFException("Unexpected end of zstd stream");
+        }
+        n = 1;
+      }
+      length -= n;
+    }
+  }
+
+  private static byte[] decompress(byte[] frame, int contentSize) throws IOException {
+    byte[] data = new byte[contentSize];
+    try (InputStream is = new ZstdCompressorInputStream(new ByteArrayInputStream(frame))) {
+      int n = IOUtils.read(is, data);
+      if (n != contentSize || is.read() != -1) {
+        throw new IOException(Utils.format("Invalid zstd frame, expected '{}' bytes", contentSize));
+      }
+    }
+    return data;
+  }
+
+}
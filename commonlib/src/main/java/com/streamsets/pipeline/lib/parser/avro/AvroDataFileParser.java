@@ -20,6 +20,7 @@ import com.streamsets.pipeline.api.Record;
 import com.streamsets.pipeline.api.impl.Utils;
 import com.streamsets.pipeline.lib.parser.AbstractDataParser;
 import com.streamsets.pipeline.lib.parser.DataParserException;
+import com.streamsets.pipeline.lib.parser.FieldProjection;
 import com.streamsets.pipeline.lib.util.AvroJavaSnappyCodec;
 import com.streamsets.pipeline.lib.util.AvroTypeUtil;
 import com.streamsets.pipeline.stage.common.HeaderAttributeConstants;
@@ -52,12 +53,26 @@ public class AvroDataFileParser extends AbstractDataParser {
   private ProtoConfigurableEntity.Context context;
   private String avroSchemaString;
   private final boolean skipUnionIndexes;
+  private final FieldProjection projection;
 
   public AvroDataFileParser(ProtoConfigurableEntity.Context context, Schema schema, File file, String readerOffset, int maxObjectLength, boolean skipUnionIndexes)
     throws IOException {
+    this(context, schema, file, readerOffset, maxObjectLength, skipUnionIndexes, FieldProjection.ALL);
+  }
+
+  public AvroDataFileParser(
+      ProtoConfigurableEntity.Context context,
+      Schema schema,
+      File file,
+      String readerOffset,
+      int maxObjectLength,
+      boolean skipUnionIndexes,
+      FieldProjection projection
+  ) throws IOException {
     this.context = context;
     this.file = file;
     this.skipUnionIndexes = skipUnionIndexes;
+    this.projection = projection;
     DatumReader<GenericRecord> datumReader = new GenericDatumReader<>(schema, schema, GenericData.get());
     sin = new SeekableOverrunFileInputStream(
       new FileInputStream(file), maxObjectLength, true);
@@ -94,7 +109,7 @@ public class AvroDataFileParser extends AbstractDataParser {
       GenericRecord avroRecord = dataFileReader.next();
       recordCount++;
       Record record = context.createRecord(file.getName() + OFFSET_SEPARATOR + previousSync + OFFSET_SEPARATOR + recordCount);
-      record.set(AvroTypeUtil.avroToSdcField(record, avroRecord.getSchema(), avroRecord, skipUnionIndexes));
+      record.set(AvroTypeUtil.avroToSdcField(record, avroRecord.getSchema(), avroRecord, skipUnionIndexes, projection));
       if(avroSchemaString == null) {
         this.avroSchemaString = avroRecord.getSchema().toString();
       }
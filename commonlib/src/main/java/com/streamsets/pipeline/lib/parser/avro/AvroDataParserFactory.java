@@ -150,7 +150,8 @@ public class AvroDataParserFactory extends DataParserFactory {
       return new AvroDataStreamParser(
           getSettings().getContext(), schema, id, is, Long.parseLong(offset),
           getSettings().getOverRunLimit(),
-          skipAvroUnionIndexes
+          skipAvroUnionIndexes,
+          getSettings().getProjection()
       );
     } catch (IOException e) {
       throw new DataParserException(Errors.DATA_PARSER_01, e.toString(), e);
@@ -178,13 +179,15 @@ public class AvroDataParserFactory extends DataParserFactory {
         } else {
           remaining = data;
         }
-        return new AvroMessageParser(getSettings().getContext(), recordSchema, remaining, id, schemaSource, skipAvroUnionIndexes);
+        return new AvroMessageParser(getSettings().getContext(), recordSchema, remaining, id, schemaSource,
+            skipAvroUnionIndexes, getSettings().getProjection());
       } catch (IOException | ExecutionException e) {
         throw new DataParserException(Errors.DATA_PARSER_03, e.toString(), e);
       }
     }
     try {
-      return new AvroMessageParser(getSettings().getContext(), schema, data, id, schemaSource, skipAvroUnionIndexes);
+      return new AvroMessageParser(getSettings().getContext(), schema, data, id, schemaSource, skipAvroUnionIndexes,
+          getSettings().getProjection());
     } catch (IOException e) {
       throw new DataParserException(Errors.DATA_PARSER_01, e.toString(), e);
     }
@@ -195,7 +198,7 @@ public class AvroDataParserFactory extends DataParserFactory {
     throws DataParserException {
     try {
       return new AvroDataFileParser(getSettings().getContext(), schema, file, fileOffset,
-        getSettings().getOverRunLimit(), skipAvroUnionIndexes);
+        getSettings().getOverRunLimit(), skipAvroUnionIndexes, getSettings().getProjection());
     } catch (IOException e) {
       throw new DataParserException(Errors.DATA_PARSER_01, e.toString(), e);
     }
@@ -20,6 +20,7 @@ import com.streamsets.pipeline.api.Record;
 import com.streamsets.pipeline.lib.io.OverrunInputStream;
 import com.streamsets.pipeline.lib.parser.AbstractDataParser;
 import com.streamsets.pipeline.lib.parser.DataParserException;
+import com.streamsets.pipeline.lib.parser.FieldProjection;
 import com.streamsets.pipeline.lib.util.AvroTypeUtil;
 import com.streamsets.pipeline.stage.common.HeaderAttributeConstants;
 import org.apache.avro.Schema;
@@ -46,6 +47,7 @@ public class AvroDataStreamParser extends AbstractDataParser {
   private boolean eof;
   private ProtoConfigurableEntity.Context context;
   private final boolean skipAvroUnionIndexes;
+  private final FieldProjection projection;
 
   public AvroDataStreamParser(
       ProtoConfigurableEntity.Context context,
@@ -55,6 +57,20 @@ public class AvroDataStreamParser extends AbstractDataParser {
       long recordCount,
       int maxObjectLength,
       boolean skipAvroUnionIndexes
+  ) throws IOException {
+    this(context, schema, streamName, inputStream, recordCount, maxObjectLength, skipAvroUnionIndexes,
+        FieldProjection.ALL);
+  }
+
+  public AvroDataStreamParser(
+      ProtoConfigurableEntity.Context context,
+      Schema schema,
+      String streamName,
+      InputStream inputStream,
+      long recordCount,
+      int maxObjectLength,
+      boolean skipAvroUnionIndexes,
+      FieldProjection projection
   ) throws IOException {
     this.context = context;
     avroSchema = schema;
@@ -65,6 +81,7 @@ public class AvroDataStreamParser extends AbstractDataParser {
     dataFileStream = new DataFileStream<>(overrunInputStream, datumReader);
     seekToOffset();
     this.skipAvroUnionIndexes = skipAvroUnionIndexes;
+    this.projection = projection;
   }
 
   @Override
@@ -79,7 +96,8 @@ public class AvroDataStreamParser extends AbstractDataParser {
       GenericRecord avroRecord = dataFileStream.next();
       recordCount++;
       Record record = context.createRecord(streamName + OFFSET_SEPARATOR + recordCount);
-      record.set(AvroTypeUtil.avroToSdcField(record, avroRecord.getSchema(), avroRecord, skipAvroUnionIndexes));
+      record.set(AvroTypeUtil.avroToSdcField(record, avroRecord.getSchema(), avroRecord, skipAvroUnionIndexes,
+          projection));
       if(avroSchemaString == null) {
         avroSchemaString = avroRecord.getSchema().toString();
       }
@@ -20,6 +20,7 @@ import com.streamsets.pipeline.api.Record;
 import com.streamsets.pipeline.config.OriginAvroSchemaSource;
 import com.streamsets.pipeline.lib.parser.AbstractDataParser;
 import com.streamsets.pipeline.lib.parser.DataParserException;
+import com.streamsets.pipeline.lib.parser.FieldProjection;
 import com.streamsets.pipeline.lib.util.AvroTypeUtil;
 import com.streamsets.pipeline.stage.common.HeaderAttributeConstants;
 import org.apache.avro.Schema;
@@ -47,6 +48,7 @@ public class AvroMessageParser extends AbstractDataParser {
   private final ProtoConfigurableEntity.Context context;
   private final String messageId;
   private final boolean skipAvroUnionIndexes;
+  private final FieldProjection projection;
 
   public AvroMessageParser(
       ProtoConfigurableEntity.Context context,
@@ -55,11 +57,24 @@ public class AvroMessageParser extends AbstractDataParser {
       final String messageId,
       final OriginAvroSchemaSource schemaSource,
       boolean skipAvroUnionIndexes
+  ) throws IOException {
+    this(context, schema, message, messageId, schemaSource, skipAvroUnionIndexes, FieldProjection.ALL);
+  }
+
+  public AvroMessageParser(
+      ProtoConfigurableEntity.Context context,
+      final Schema schema,
+      final byte[] message,
+      final String messageId,
+      final OriginAvroSchemaSource schemaSource,
+      boolean skipAvroUnionIndexes,
+      FieldProjection projection
   ) throws IOException {
     this.context = context;
     this.messageId = messageId;
     this.schemaSource = schemaSource;
     this.skipAvroUnionIndexes = skipAvroUnionIndexes;
+    this.projection = projection;
 
     datumReader = new GenericDatumReader<>(schema); //Reader schema argument is optional
     if(schemaSource == OriginAvroSchemaSource.SOURCE) {
@@ -81,7 +96,8 @@ public class AvroMessageParser extends AbstractDataParser {
     }
     if(genericRecord != null) {
       record = context.createRecord(messageId);
-      record.set(AvroTypeUtil.avroToSdcField(record, genericRecord.getSchema(), genericRecord, skipAvroUnionIndexes));
+      record.set(AvroTypeUtil.avroToSdcField(record, genericRecord.getSchema(), genericRecord, skipAvroUnionIndexes,
+          projection));
       record.getHeader().setAttribute(HeaderAttributeConstants.AVRO_SCHEMA, genericRecord.getSchema().toString());
     }
     return record;
@@ -30,6 +30,7 @@ import com.streamsets.pipeline.lib.csv.DelimitedDataParser;
 import com.streamsets.pipeline.lib.csv.OverrunCsvParser;
 import com.streamsets.pipeline.lib.parser.AbstractDataParser;
 import com.streamsets.pipeline.lib.parser.DataParserException;
+import com.streamsets.pipeline.lib.parser.FieldProjection;
 import com.streamsets.pipeline.lib.parser.ParserRuntimeException;
 import com.streamsets.pipeline.lib.parser.RecoverableDataParserException;
 import org.apache.commons.lang3.StringEscapeUtils;
@@ -162,6 +163,8 @@ public class DelimitedCharDataParser extends AbstractDataParser {
       }
       record.set(Field.create(row));
     } else {
+      // List records keep every cell so that their indexes don't shift, only list-map columns are projected
+      FieldProjection projection = settings.getProjection();
       LinkedHashMap<String, Field> listMap = new LinkedHashMap<>();
       for (int i = 0; i < columns.length; i++) {
         String key;
@@ -171,7 +174,9 @@ public class DelimitedCharDataParser extends AbstractDataParser {
         } else {
           key = Integer.toString(i);
         }
-        listMap.put(key, getField(columns[i]));
+        if (projection.getMapChild(key) != null) {
+          listMap.put(key, getField(columns[i]));
+        }
       }
       record.set(Field.createListMap(listMap));
     }
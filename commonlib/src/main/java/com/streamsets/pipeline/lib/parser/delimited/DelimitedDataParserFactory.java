@@ -126,6 +126,7 @@ public class DelimitedDataParserFactory extends DataParserFactory {
           .withNullConstant(getSettings().getConfig(DelimitedDataConstants.NULL_CONSTANT))
           .withAllowExtraColumns(getSettings().getConfig(DelimitedDataConstants.ALLOW_EXTRA_COLUMNS))
           .withExtraColumnPrefix(getSettings().getConfig(DelimitedDataConstants.EXTRA_COLUMN_PREFIX))
+          .withProjection(getSettings().getProjection())
           .build();
 
       if (getSettings().getCharset().name().equals("UTF-8")) {
@@ -17,6 +17,7 @@ package com.streamsets.pipeline.lib.parser.delimited;
 
 import com.streamsets.pipeline.config.CsvHeader;
 import com.streamsets.pipeline.config.CsvRecordType;
+import com.streamsets.pipeline.lib.parser.FieldProjection;
 import org.apache.commons.csv.CSVFormat;
 
 public class DelimitedDataParserSettings {
@@ -33,6 +34,7 @@ public class DelimitedDataParserSettings {
   private char multiCharacterEscapeChar;
   private String multiCharacterFieldDelimiter;
   private String multiCharacterLineDelimiter;
+  private FieldProjection projection;
 
   public int getSkipStartLines() {
     return skipStartLines;
@@ -90,6 +92,10 @@ public class DelimitedDataParserSettings {
     return multiCharacterLineDelimiter;
   }
 
+  public FieldProjection getProjection() {
+    return projection;
+  }
+
   public static Builder builder() {
     return new Builder();
   }
@@ -109,6 +115,7 @@ public class DelimitedDataParserSettings {
     private char multiCharacterEscapeChar;
     private String multiCharacterFieldDelimiter;
     private String multiCharacterLineDelimiter;
+    private FieldProjection projection = FieldProjection.ALL;
 
     private Builder() {
     }
@@ -178,6 +185,11 @@ public class DelimitedDataParserSettings {
       return this;
     }
 
+    public Builder withProjection(FieldProjection projection) {
+      this.projection = projection;
+      return this;
+    }
+
     public DelimitedDataParserSettings build() {
       DelimitedDataParserSettings delimitedDataParserSettings = new DelimitedDataParserSettings();
       delimitedDataParserSettings.header = this.header;
@@ -193,6 +205,7 @@ public class DelimitedDataParserSettings {
       delimitedDataParserSettings.multiCharacterLineDelimiter = this.multiCharacterLineDelimiter;
       delimitedDataParserSettings.multiCharacterQuoteChar = this.multiCharacterQuoteChar;
       delimitedDataParserSettings.multiCharacterEscapeChar = this.multiCharacterEscapeChar;
+      delimitedDataParserSettings.projection = this.projection;
       return delimitedDataParserSettings;
     }
   }
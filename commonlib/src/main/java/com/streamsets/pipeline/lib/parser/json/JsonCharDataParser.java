@@ -25,6 +25,7 @@ import com.streamsets.pipeline.api.ext.io.OverrunReader;
 import com.streamsets.pipeline.api.ext.json.Mode;
 import com.streamsets.pipeline.lib.parser.AbstractDataParser;
 import com.streamsets.pipeline.lib.parser.DataParserException;
+import com.streamsets.pipeline.lib.parser.FieldProjection;
 
 import java.io.IOException;
 import java.math.BigDecimal;
@@ -40,6 +41,7 @@ public class JsonCharDataParser extends AbstractDataParser {
   private final String readerId;
   private final int maxObjectLen;
   private final JsonObjectReader parser;
+  private final FieldProjection projection;
   private boolean eof;
 
   public JsonCharDataParser(
@@ -49,10 +51,23 @@ public class JsonCharDataParser extends AbstractDataParser {
       long readerOffset,
       Mode mode,
       int maxObjectLen
+  ) throws IOException {
+    this(context, readerId, reader, readerOffset, mode, maxObjectLen, FieldProjection.ALL);
+  }
+
+  public JsonCharDataParser(
+      ProtoConfigurableEntity.Context context,
+      String readerId,
+      OverrunReader reader,
+      long readerOffset,
+      Mode mode,
+      int maxObjectLen,
+      FieldProjection projection
   ) throws IOException {
     this.context = context;
     this.readerId = readerId;
     this.maxObjectLen = maxObjectLen;
+    this.projection = projection;
     parser = ((ContextExtensions) context).createJsonObjectReader(
         reader,
         readerOffset,
@@ -83,7 +98,7 @@ public class JsonCharDataParser extends AbstractDataParser {
     long offset = parser.getReaderPosition();
     try {
       Object json = parser.read();
-      return (json != null) ? jsonToField(json,  offset) : null;
+      return (json != null) ? jsonToField(json, offset, projection) : null;
     } catch (ObjectLengthException ex) {
       throw new DataParserException(Errors.JSON_PARSER_02, readerId, offset, maxObjectLen);
     }
@@ -91,27 +106,35 @@ public class JsonCharDataParser extends AbstractDataParser {
 
   protected Record createRecord(long offset, Object json) throws DataParserException {
     Record record = context.createRecord(readerId + "::" + offset);
-    record.set(jsonToField(json,  offset));
+    record.set(jsonToField(json, offset, projection));
     return record;
   }
 
-  @SuppressWarnings("unchecked")
   protected Field jsonToField(Object json, long offset) throws DataParserException {
+    return jsonToField(json, offset, FieldProjection.ALL);
+  }
+
+  @SuppressWarnings("unchecked")
+  protected Field jsonToField(Object json, long offset, FieldProjection projection) throws DataParserException {
     Field field;
     if (json == null) {
       field = Field.create(Field.Type.STRING, null);
     } else if (json instanceof List) {
       List jsonList = (List) json;
       List<Field> list = new ArrayList<>(jsonList.size());
+      FieldProjection elementProjection = projection.getListChild();
       for (Object element : jsonList) {
-        list.add(jsonToField(element, offset));
+        list.add(jsonToField(element, offset, elementProjection));
       }
       field = Field.create(list);
     } else if (json instanceof Map) {
       Map<String, Object> jsonMap = (Map<String, Object>) json;
       Map<String, Field> map = new LinkedHashMap<>();
       for (Map.Entry<String, Object> entry : jsonMap.entrySet()) {
-        map.put(entry.getKey(), jsonToField(entry.getValue(), offset));
+        FieldProjection entryProjection = projection.getMapChild(entry.getKey());
+        if (entryProjection != null) {
+          map.put(entry.getKey(), jsonToField(entry.getValue(), offset, entryProjection));
+        }
       }
       field = Field.create(map);
     } else if (json instanceof String) {
@@ -55,7 +55,8 @@ public class JsonDataParserFactory extends DataParserFactory {
                                                          reader.getPos()));
     try {
       return new JsonCharDataParser(getSettings().getContext(), id, reader, offset,
-                                    getSettings().getMode(JsonMode.class).getFormat(), getSettings().getMaxRecordLen());
+                                    getSettings().getMode(JsonMode.class).getFormat(), getSettings().getMaxRecordLen(),
+                                    getSettings().getProjection());
     } catch (IOException ex) {
       throw new DataParserException(Errors.JSON_PARSER_00, id, offset, ex.toString(), ex);
     }
@@ -18,6 +18,8 @@ package com.streamsets.pipeline.lib.parser.net.netflow;
 import com.streamsets.pipeline.api.ProtoConfigurableEntity;
 import com.streamsets.pipeline.api.base.OnRecordErrorException;
 import com.streamsets.pipeline.lib.parser.net.BaseNetworkMessageDataParser;
+import com.streamsets.pipeline.lib.parser.net.netflow.v9.NetflowV9Decoder;
+import com.streamsets.pipeline.lib.parser.net.netflow.v9.NetflowV9TemplateCacheProvider;
 import io.netty.buffer.ByteBuf;
 
 import java.io.InputStream;
@@ -37,9 +39,31 @@ public class NetflowDataParser extends BaseNetworkMessageDataParser<BaseNetflowM
       OutputValuesMode outputValuesMode,
       int maxTemplateCacheSize,
       int templateCacheTimeoutMs
+  ) {
+    this(
+        context,
+        readerId,
+        inputStream,
+        readerOffset,
+        maxObjectLen,
+        charset,
+        outputValuesMode,
+        () -> NetflowV9Decoder.buildTemplateCache(maxTemplateCacheSize, templateCacheTimeoutMs)
+    );
+  }
+
+  public NetflowDataParser(
+      ProtoConfigurableEntity.Context context,
+      String readerId,
+      InputStream inputStream,
+      Long readerOffset,
+      int maxObjectLen,
+      Charset charset,
+      OutputValuesMode outputValuesMode,
+      NetflowV9TemplateCacheProvider templateCacheProvider
   ) {
     super(context, readerId, inputStream, readerOffset, maxObjectLen, charset);
-    netflowDecoder = new NetflowCommonDecoder(outputValuesMode, maxTemplateCacheSize, templateCacheTimeoutMs);
+    netflowDecoder = new NetflowCommonDecoder(outputValuesMode, templateCacheProvider);
   }
 
   @Override
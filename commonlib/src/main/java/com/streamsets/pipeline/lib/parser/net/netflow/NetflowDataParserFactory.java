@@ -15,12 +15,16 @@
  */
 package com.streamsets.pipeline.lib.parser.net.netflow;
 
+import com.google.common.cache.Cache;
 import com.google.common.collect.ImmutableSet;
 import com.streamsets.pipeline.api.ProtoConfigurableEntity;
 import com.streamsets.pipeline.api.Stage;
 import com.streamsets.pipeline.lib.parser.DataParser;
 import com.streamsets.pipeline.lib.parser.DataParserException;
 import com.streamsets.pipeline.lib.parser.DataParserFactory;
+import com.streamsets.pipeline.lib.parser.net.netflow.v9.FlowSetTemplate;
+import com.streamsets.pipeline.lib.parser.net.netflow.v9.FlowSetTemplateCacheKey;
+import com.streamsets.pipeline.lib.parser.net.netflow.v9.NetflowV9Decoder;
 import org.apache.commons.lang.StringUtils;
 
 import java.io.InputStream;
@@ -49,17 +53,17 @@ public class NetflowDataParserFactory extends DataParserFactory {
 
   public static final String OUTPUT_VALUES_MODE_LABEL = "Record Generation Mode";
   public static final String OUTPUT_VALUES_MODE_TOOLTIP = "Determines the data that is included in the record" +
-      " generated from a flow. Only applies to NetFlow 9.";
+      " generated from a flow. Only applies to NetFlow 9 and IPFIX.";
 
   public static final String MAX_TEMPLATE_CACHE_SIZE_LABEL = "Max Templates in Cache";
   public static final String MAX_TEMPLATE_CACHE_SIZE_TOOLTIP = "Controls the maximum number of templates to cache" +
       " from all sources. Additional templates received when this limit is reached cause the eviction of existing" +
-      " templates, least recently used first. Leave as -1 for unlimited. Only applies to NetFlow 9.";
+      " templates, least recently used first. Leave as -1 for unlimited. Only applies to NetFlow 9 and IPFIX.";
 
   public static final String TEMPLATE_CACHE_TIMEOUT_MS_LABEL = "Template Cache Timeout (ms)";
   public static final String TEMPLATE_CACHE_TIMEOUT_MS_TOOLTIP = "Controls the maximum length of time flow" +
       " templates are cached, after last being used to parse a data flow. Leave as -1 for unlimited (never expires)." +
-      " Only applies to NetFlow 9.";
+      " Only applies to NetFlow 9 and IPFIX.";
 
   public static final Map<String, Object> CONFIGS;
 
@@ -73,8 +77,15 @@ public class NetflowDataParserFactory extends DataParserFactory {
     CONFIGS = Collections.unmodifiableMap(configs);
   }
 
+  // shared by all the parsers of the factory, so templates received by one runner can be used by the others
+  private final Cache<FlowSetTemplateCacheKey, FlowSetTemplate> flowSetTemplateCache;
+
   public NetflowDataParserFactory(Settings settings) {
     super(settings);
+    flowSetTemplateCache = NetflowV9Decoder.buildTemplateCache(
+        settings.getConfig(MAX_TEMPLATE_CACHE_SIZE_KEY),
+        settings.getConfig(TEMPLATE_CACHE_TIMEOUT_MS_KEY)
+    );
   }
 
   @Override
@@ -86,9 +97,8 @@ public class NetflowDataParserFactory extends DataParserFactory {
         StringUtils.isNumeric(offset) ? Long.parseLong(offset) : null,
         getSettings().getMaxRecordLen(),
         getSettings().getCharset(),
-        (OutputValuesMode) CONFIGS.get(OUTPUT_VALUES_MODE_KEY),
-        (int) CONFIGS.get(MAX_TEMPLATE_CACHE_SIZE_KEY),
-        (int) CONFIGS.get(TEMPLATE_CACHE_TIMEOUT_MS_KEY)
+        getSettings().getConfig(OUTPUT_VALUES_MODE_KEY),
+        () -> flowSetTemplateCache
     );
   }
 
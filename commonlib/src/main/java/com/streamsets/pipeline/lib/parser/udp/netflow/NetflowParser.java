@@ -55,11 +55,23 @@ public class NetflowParser extends AbstractParser {
       OutputValuesMode outputValuesMode,
       int maxTemplateCacheSize,
       int templateCacheTimeoutMs
+  ) {
+    this(
+        context,
+        outputValuesMode,
+        NetflowV9Decoder.buildTemplateCache(maxTemplateCacheSize, templateCacheTimeoutMs)
+    );
+  }
+
+  public NetflowParser(
+      ProtoConfigurableEntity.Context context,
+      OutputValuesMode outputValuesMode,
+      Cache<FlowSetTemplateCacheKey, FlowSetTemplate> flowSetTemplateCache
   ) {
     super(context);
     recordId = new AtomicLong(0L);
     this.outputValuesMode = outputValuesMode;
-    flowSetTemplateCache = NetflowV9Decoder.buildTemplateCache(maxTemplateCacheSize, templateCacheTimeoutMs);
+    this.flowSetTemplateCache = flowSetTemplateCache;
   }
 
   public Record buildRecord(BaseNetflowMessage message) {
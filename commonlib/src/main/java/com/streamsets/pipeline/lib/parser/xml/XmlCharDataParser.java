@@ -23,6 +23,7 @@ import com.streamsets.pipeline.api.ext.io.OverrunException;
 import com.streamsets.pipeline.api.ext.io.OverrunReader;
 import com.streamsets.pipeline.lib.parser.AbstractDataParser;
 import com.streamsets.pipeline.lib.parser.DataParserException;
+import com.streamsets.pipeline.lib.parser.FieldProjection;
 import com.streamsets.pipeline.lib.xml.OverrunStreamingXmlParser;
 import com.streamsets.pipeline.lib.xml.StreamingXmlParser;
 
@@ -61,6 +62,34 @@ public class XmlCharDataParser extends AbstractDataParser {
       int maxObjectLen,
       boolean useFieldAttributesInsteadOfFields,
       boolean preserveRootElement
+  ) throws IOException {
+    this(
+        context,
+        readerId,
+        reader,
+        readerOffset,
+        recordElement,
+        includeXpath,
+        namespaces,
+        maxObjectLen,
+        useFieldAttributesInsteadOfFields,
+        preserveRootElement,
+        FieldProjection.ALL
+    );
+  }
+
+  public XmlCharDataParser(
+      ProtoConfigurableEntity.Context context,
+      String readerId,
+      OverrunReader reader,
+      long readerOffset,
+      String recordElement,
+      boolean includeXpath,
+      Map<String, String> namespaces,
+      int maxObjectLen,
+      boolean useFieldAttributesInsteadOfFields,
+      boolean preserveRootElement,
+      FieldProjection projection
   ) throws IOException {
     this.context = context;
     this.readerId = readerId;
@@ -75,7 +104,8 @@ public class XmlCharDataParser extends AbstractDataParser {
           readerOffset,
           maxObjectLen,
           useFieldAttributesInsteadOfFields,
-          preserveRootElement
+          preserveRootElement,
+          projection
       );
     } catch (XMLStreamException ex) {
       throw new IOException(ex);
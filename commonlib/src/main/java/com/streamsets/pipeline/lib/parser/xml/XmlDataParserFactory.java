@@ -91,7 +91,8 @@ public class XmlDataParserFactory extends DataParserFactory {
           getSettings().<Map<String,String>>getConfig(RECORD_ELEMENT_XPATH_NAMESPACES_KEY),
           getSettings().getMaxRecordLen(),
           getSettings().getConfig(USE_FIELD_ATTRIBUTES),
-          getSettings().getConfig(PRESERVE_ROOT_ELEMENT_KEY)
+          getSettings().getConfig(PRESERVE_ROOT_ELEMENT_KEY),
+          getSettings().getProjection()
       );
     } catch (IOException ex) {
       throw new DataParserException(Errors.XML_PARSER_00, id, offset, ex.toString(), ex);
@@ -15,6 +15,7 @@
  */
 package com.streamsets.pipeline.lib.udp;
 
+import com.streamsets.pipeline.lib.flowcontrol.FlowControl;
 import io.netty.channel.ChannelHandler;
 import io.netty.channel.ChannelHandlerContext;
 import io.netty.channel.SimpleChannelInboundHandler;
@@ -40,9 +41,18 @@ public class PacketQueueUDPHandler extends SimpleChannelInboundHandler<DatagramP
   private AtomicLong queuedPacketCount = new AtomicLong();
 
   private final BlockingDeque<DatagramPacket> queue;
+  private final FlowControl flowControl;
 
   public PacketQueueUDPHandler(Map<String, Object> gaugeMap, int packetQueueSize) {
+    this(gaugeMap, packetQueueSize, FlowControl.disabled());
+  }
+
+  /**
+   * Packets are queued only if admitted by the flow control, their bytes have to be released once processed.
+   */
+  public PacketQueueUDPHandler(Map<String, Object> gaugeMap, int packetQueueSize, FlowControl flowControl) {
     this.gaugeMap = gaugeMap;
+    this.flowControl = flowControl;
 
     queue = new LinkedBlockingDeque<>(packetQueueSize);
   }
@@ -60,6 +70,12 @@ public class PacketQueueUDPHandler extends SimpleChannelInboundHandler<DatagramP
 
   @Override
   protected void channelRead0(ChannelHandlerContext ctx, DatagramPacket packet) throws Exception {
+    final int bytes = packet.content().readableBytes();
+    if (!flowControl.tryAdmit(bytes)) {
+      // UDP can't push back on the sender, the packet is dropped before taking room in the queue
+      gaugeMap.put(GAUGE_NUM_DROPPED_PACKETS, droppedPacketCount.incrementAndGet());
+      return;
+    }
     packet.retain();
     final boolean succeeded = queue.offer(packet);
     if (succeeded) {
@@ -67,6 +83,7 @@ public class PacketQueueUDPHandler extends SimpleChannelInboundHandler<DatagramP
       gaugeMap.put(GAUGE_PACKET_QUEUE_SIZE, queue.size());
     } else {
       gaugeMap.put(GAUGE_NUM_DROPPED_PACKETS, droppedPacketCount.incrementAndGet());
+      flowControl.release(0, bytes);
       // allow Netty to collect the buffer
       packet.release();
     }
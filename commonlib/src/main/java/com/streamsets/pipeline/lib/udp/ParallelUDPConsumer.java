@@ -0,0 +1,153 @@
+/*
+ * Copyright 2019 StreamSets Inc.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package com.streamsets.pipeline.lib.udp;
+
+import com.codahale.metrics.Meter;
+import com.google.common.base.Preconditions;
+import com.google.common.util.concurrent.ThreadFactoryBuilder;
+import io.netty.channel.socket.DatagramPacket;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+import java.net.InetSocketAddress;
+import java.util.List;
+import java.util.concurrent.ArrayBlockingQueue;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.RejectedExecutionException;
+import java.util.concurrent.ThreadFactory;
+import java.util.concurrent.ThreadPoolExecutor;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Moves the processing of the packets off the Netty I/O threads, so the event loops only receive packets.
+ * <p/>
+ * Packets are handed to one of a fixed number of lanes, each one a single thread with a bounded queue, selected by the
+ * sender of the packet: the packets of a sender are processed in the order they were received. The packet buffer is
+ * retained until it has been processed instead of being copied, so with the pooled direct buffers of the epoll
+ * transport the data is never moved to the heap before parsing. When the lane of a packet is full the packet is
+ * dropped and counted.
+ */
+public class ParallelUDPConsumer implements UDPConsumer {
+  private static final Logger LOG = LoggerFactory.getLogger(ParallelUDPConsumer.class);
+  private static final long SHUTDOWN_TIMEOUT_SECS = 5;
+
+  private final UDPConsumer[] consumers;
+  private final ExecutorService[] lanes;
+  private final Meter droppedPackets;
+
+  /**
+   * @param consumers consumer processing the packets of each lane, one lane per consumer
+   * @param queueSize maximum number of packets waiting on each lane
+   * @param droppedPackets meter marked for every packet dropped because its lane was full
+   */
+  public ParallelUDPConsumer(List<? extends UDPConsumer> consumers, int queueSize, Meter droppedPackets) {
+    Preconditions.checkArgument(!consumers.isEmpty(), "Number of threads must be greater than zero: 0");
+    Preconditions.checkArgument(queueSize > 0, "Queue size must be greater than zero: %s", queueSize);
+    this.consumers = consumers.toArray(new UDPConsumer[0]);
+    this.droppedPackets = droppedPackets;
+    this.lanes = new ExecutorService[this.consumers.length];
+    for (int i = 0; i < lanes.length; i++) {
+      ThreadFactory threadFactory = new ThreadFactoryBuilder()
+          .setDaemon(true)
+          .setNameFormat("UDP Parser Thread - " + i)
+          .build();
+      lanes[i] = new ThreadPoolExecutor(
+          1,
+          1,
+          0L,
+          TimeUnit.MILLISECONDS,
+          new ArrayBlockingQueue<>(queueSize),
+          threadFactory,
+          new ThreadPoolExecutor.AbortPolicy()
+      );
+    }
+  }
+
+  @Override
+  public void process(DatagramPacket packet) throws Exception {
+    int laneIndex = laneOf(packet.sender(), lanes.length);
+    ExecutorService lane = lanes[laneIndex];
+    UDPConsumer consumer = consumers[laneIndex];
+    // the handler releases the packet once this returns
+    packet.retain();
+    try {
+      lane.execute(new PacketTask(consumer, packet));
+    } catch (RejectedExecutionException ex) {
+      packet.release();
+      droppedPackets.mark();
+      long dropped = droppedPackets.getCount();
+      if (dropped % 1000 == 0) {
+        LOG.info("Parser queue is full, dropped {} packets", dropped);
+      }
+    }
+  }
+
+  static int laneOf(InetSocketAddress sender, int numLanes) {
+    int hash = (sender == null) ? 0 : sender.hashCode();
+    return (hash & Integer.MAX_VALUE) % numLanes;
+  }
+
+  /**
+   * Stops the lanes once the packets already queued have been processed.
+   */
+  public void destroy() {
+    for (ExecutorService lane : lanes) {
+      lane.shutdown();
+    }
+    for (ExecutorService lane : lanes) {
+      try {
+        if (!lane.awaitTermination(SHUTDOWN_TIMEOUT_SECS, TimeUnit.SECONDS)) {
+          LOG.warn("Parser thread did not finish in {} seconds, {} packets are discarded",
+              SHUTDOWN_TIMEOUT_SECS,
+              discard(lane.shutdownNow())
+          );
+        }
+      } catch (InterruptedException ex) {
+        discard(lane.shutdownNow());
+        Thread.currentThread().interrupt();
+      }
+    }
+  }
+
+  // the packets that were never processed still hold their pooled buffers
+  private static int discard(List<Runnable> tasks) {
+    for (Runnable task : tasks) {
+      ((PacketTask) task).packet.release();
+    }
+    return tasks.size();
+  }
+
+  private static class PacketTask implements Runnable {
+    private final UDPConsumer consumer;
+    private final DatagramPacket packet;
+
+    PacketTask(UDPConsumer consumer, DatagramPacket packet) {
+      this.consumer = consumer;
+      this.packet = packet;
+    }
+
+    @Override
+    public void run() {
+      try {
+        consumer.process(packet);
+      } catch (Exception ex) {
+        LOG.error("Error processing packet from {}: {}", packet.sender(), ex.toString(), ex);
+      } finally {
+        packet.release();
+      }
+    }
+  }
+}
@@ -23,6 +23,7 @@ import com.streamsets.pipeline.api.StageException;
 import com.streamsets.pipeline.api.impl.Utils;
 import com.streamsets.pipeline.lib.generator.DataGeneratorException;
 import com.streamsets.pipeline.lib.generator.avro.Errors;
+import com.streamsets.pipeline.lib.parser.FieldProjection;
 import com.streamsets.pipeline.stage.common.HeaderAttributeConstants;
 import org.apache.avro.AvroRuntimeException;
 import org.apache.avro.Schema;
@@ -149,10 +150,27 @@ public class AvroTypeUtil {
   }
 
   public static Field avroToSdcField(Record record, Schema schema, Object value, boolean skipAvroUnionIndexes) {
-    return avroToSdcField(record, "", schema, value, skipAvroUnionIndexes);
+    return avroToSdcField(record, "", schema, value, skipAvroUnionIndexes, FieldProjection.ALL);
   }
 
-  private static Field avroToSdcField(Record record, String fieldPath, Schema schema, Object value, boolean skipAvroUnionIndexes) {
+  public static Field avroToSdcField(
+      Record record,
+      Schema schema,
+      Object value,
+      boolean skipAvroUnionIndexes,
+      FieldProjection projection
+  ) {
+    return avroToSdcField(record, "", schema, value, skipAvroUnionIndexes, projection);
+  }
+
+  private static Field avroToSdcField(
+      Record record,
+      String fieldPath,
+      Schema schema,
+      Object value,
+      boolean skipAvroUnionIndexes,
+      FieldProjection projection
+  ) {
     if(schema.getType() == Schema.Type.UNION) {
       List<Schema> unionTypes = schema.getTypes();
       int typeIndex;
@@ -264,8 +282,10 @@ public class AvroTypeUtil {
       case ARRAY:
         List<?> objectList = (List<?>) value;
         List<Field> list = new ArrayList<>(objectList.size());
+        FieldProjection elementProjection = projection.getListChild();
         for (int i = 0; i < objectList.size(); i++) {
-          list.add(avroToSdcField(record, fieldPath + "[" + i + "]", schema.getElementType(), objectList.get(i), skipAvroUnionIndexes));
+          list.add(avroToSdcField(record, fieldPath + "[" + i + "]", schema.getElementType(), objectList.get(i),
+              skipAvroUnionIndexes, elementProjection));
         }
         f = Field.create(list);
         break;
@@ -306,8 +326,11 @@ public class AvroTypeUtil {
             throw new IllegalStateException(Utils.format("Unrecognized type for avro value: {}", entry.getKey()
                 .getClass().getName()));
           }
-          map.put(key, avroToSdcField(record, fieldPath + FORWARD_SLASH + key,
-              schema.getValueType(), entry.getValue(), skipAvroUnionIndexes));
+          FieldProjection entryProjection = projection.getMapChild(key);
+          if (entryProjection != null) {
+            map.put(key, avroToSdcField(record, fieldPath + FORWARD_SLASH + key,
+                schema.getValueType(), entry.getValue(), skipAvroUnionIndexes, entryProjection));
+          }
         }
         f = Field.create(map);
         break;
@@ -318,8 +341,12 @@ public class AvroTypeUtil {
         GenericRecord avroRecord = (GenericRecord) value;
         LinkedHashMap<String, Field> recordMap = new LinkedHashMap<>();
         for(Schema.Field field : schema.getFields()) {
+          FieldProjection fieldProjection = projection.getMapChild(field.name());
+          if (fieldProjection == null) {
+            continue;
+          }
           Field temp = avroToSdcField(record, fieldPath + FORWARD_SLASH + field.name(), field.schema(),
-              avroRecord.get(field.name()), skipAvroUnionIndexes);
+              avroRecord.get(field.name()), skipAvroUnionIndexes, fieldProjection);
           if(temp != null) {
             recordMap.put(field.name(), temp);
           }
@@ -83,6 +83,7 @@ import java.util.Collections;
 import java.util.HashMap;
 import java.util.List;
 import java.util.Map;
+import java.util.Set;
 
 import static com.streamsets.pipeline.lib.util.AvroSchemaHelper.*;
 import static com.streamsets.pipeline.stage.common.DataFormatErrors.DATA_FORMAT_11;
@@ -110,8 +111,8 @@ public class DataParserFormatConfig implements DataFormatConfig {
       required = true,
       type = ConfigDef.Type.MODEL,
       label = "Compression Format",
-      description = "Compression formats gzip, bzip2, xz, lzma, Pack200, DEFLATE and Z are supported. " +
-          "Archive formats 7z, ar, arj, cpio, dump, tar and zip are supported.",
+      description = "Compression formats gzip (including bgzip), bzip2, xz, lzma, lz4, zstd, Pack200, DEFLATE " +
+          "and Z are supported. Archive formats 7z, ar, arj, cpio, dump, tar and zip are supported.",
       defaultValue = "NONE",
       dependsOn = "dataFormat^",
       // Show for all except Avro, Datagram, Whole File
@@ -1165,6 +1166,10 @@ public class DataParserFormatConfig implements DataFormatConfig {
   // The default value is 1 for regular origins. Multithreaded origins should override this value as required.
   public int stringBuilderPoolSize = DataFormatConstants.STRING_BUILDER_POOL_SIZE;
 
+  // Field paths the JSON, delimited, Avro and XML parsers should materialize, empty means all fields.
+  // Set by the data collector when the origin feeds a Field Remover that keeps a fixed list of fields.
+  public Set<String> projection = Collections.emptySet();
+
   @Override
   public boolean init(
       ProtoConfigurableEntity.Context context,
@@ -1634,6 +1639,7 @@ public class DataParserFormatConfig implements DataFormatConfig {
     builder.setRemoveCtrlChars(removeCtrlChars);
     builder.setCompression(compression);
     builder.setFilePatternInArchive(filePatternInArchive);
+    builder.setProjection(projection);
     return valid;
   }
 
@@ -0,0 +1,110 @@
+/*
+ * Copyright 2019 StreamSets Inc.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package com.streamsets.pipeline.lib.flowcontrol;
+
+import com.codahale.metrics.Meter;
+import org.junit.Assert;
+import org.junit.Test;
+
+import java.util.HashMap;
+import java.util.Map;
+import java.util.concurrent.atomic.AtomicInteger;
+
+public class TestFlowControl {
+
+  @Test
+  public void testDisabled() {
+    FlowControl flowControl = FlowControl.disabled();
+    Assert.assertFalse(flowControl.isEnabled());
+    flowControl.acquire(1000, 1000);
+    Assert.assertTrue(flowControl.hasCredit());
+    Assert.assertTrue(flowControl.tryAdmit(Long.MAX_VALUE));
+    AtomicInteger called = new AtomicInteger();
+    flowControl.whenAvailable(called::incrementAndGet);
+    Assert.assertEquals(1, called.get());
+  }
+
+  @Test
+  public void testRecordBudget() {
+    Map<String, Object> gauge = new HashMap<>();
+    Meter admitted = new Meter();
+    Meter rejected = new Meter();
+    FlowControl flowControl = new FlowControl(10, 0, gauge, admitted, rejected);
+
+    Assert.assertTrue(flowControl.tryAdmit(0));
+    flowControl.acquire(6, 0);
+    Assert.assertTrue(flowControl.tryAdmit(0));
+    flowControl.acquire(6, 0);
+    Assert.assertEquals(12L, gauge.get(FlowControl.GAUGE_IN_FLIGHT_RECORDS));
+    Assert.assertEquals(12, admitted.getCount());
+
+    // budget exhausted
+    Assert.assertFalse(flowControl.hasCredit());
+    Assert.assertFalse(flowControl.tryAdmit(0));
+    Assert.assertEquals(1, rejected.getCount());
+    Assert.assertEquals(1L, gauge.get(FlowControl.GAUGE_REJECTED_REQUESTS));
+
+    flowControl.release(6, 0);
+    Assert.assertTrue(flowControl.hasCredit());
+    Assert.assertTrue(flowControl.tryAdmit(0));
+    Assert.assertEquals(6L, gauge.get(FlowControl.GAUGE_IN_FLIGHT_RECORDS));
+  }
+
+  @Test
+  public void testByteBudget() {
+    Map<String, Object> gauge = new HashMap<>();
+    FlowControl flowControl = new FlowControl(0, 100, gauge, new Meter(), new Meter());
+
+    // a request larger than the budget is admitted when there is nothing else in flight
+    Assert.assertTrue(flowControl.tryAdmit(500));
+    Assert.assertFalse(flowControl.tryAdmit(1));
+    flowControl.release(0, 500);
+
+    Assert.assertTrue(flowControl.tryAdmit(60));
+    Assert.assertTrue(flowControl.tryAdmit(40));
+    Assert.assertEquals(100L, gauge.get(FlowControl.GAUGE_IN_FLIGHT_BYTES));
+    Assert.assertFalse(flowControl.tryAdmit(10));
+    flowControl.release(0, 40);
+    Assert.assertFalse(flowControl.tryAdmit(50));
+    Assert.assertTrue(flowControl.tryAdmit(40));
+  }
+
+  @Test
+  public void testWhenAvailable() {
+    FlowControl flowControl = new FlowControl(5, 0, new HashMap<>(), new Meter(), new Meter());
+    AtomicInteger called = new AtomicInteger();
+
+    flowControl.whenAvailable(called::incrementAndGet);
+    Assert.assertEquals(1, called.get());
+
+    flowControl.acquire(10, 0);
+    flowControl.whenAvailable(called::incrementAndGet);
+    flowControl.whenAvailable(called::incrementAndGet);
+    Assert.assertEquals(1, called.get());
+
+    // still no credit
+    flowControl.release(5, 0);
+    Assert.assertEquals(1, called.get());
+
+    flowControl.release(1, 0);
+    Assert.assertEquals(3, called.get());
+
+    // called once only
+    flowControl.release(4, 0);
+    Assert.assertEquals(3, called.get());
+  }
+
+}
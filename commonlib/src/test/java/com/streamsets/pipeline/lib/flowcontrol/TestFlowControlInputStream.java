@@ -0,0 +1,70 @@
+/*
+ * Copyright 2019 StreamSets Inc.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package com.streamsets.pipeline.lib.flowcontrol;
+
+import com.codahale.metrics.Meter;
+import org.junit.Assert;
+import org.junit.Test;
+
+import java.io.ByteArrayInputStream;
+import java.util.HashMap;
+import java.util.Map;
+
+public class TestFlowControlInputStream {
+
+  @Test
+  public void testChargesBytesRead() throws Exception {
+    Map<String, Object> gauge = new HashMap<>();
+    FlowControl flowControl = new FlowControl(0, 100, gauge, new Meter(), new Meter());
+
+    // a chunked request, nothing is charged when it is admitted
+    Assert.assertTrue(flowControl.tryAdmit(0));
+    FlowControlInputStream is = new FlowControlInputStream(new ByteArrayInputStream(new byte[150]), flowControl, 0);
+    Assert.assertEquals(40, is.read(new byte[40]));
+    Assert.assertEquals(0, is.read());
+    Assert.assertEquals(41L, gauge.get(FlowControl.GAUGE_IN_FLIGHT_BYTES));
+    Assert.assertEquals(9, is.skip(9));
+    Assert.assertEquals(50L, is.getCharged());
+    Assert.assertEquals(50L, gauge.get(FlowControl.GAUGE_IN_FLIGHT_BYTES));
+
+    // the request is over the budget, other requests are rejected while it is in flight
+    Assert.assertEquals(100, is.read(new byte[200]));
+    Assert.assertEquals(-1, is.read());
+    Assert.assertEquals(150L, is.getCharged());
+    Assert.assertFalse(flowControl.tryAdmit(0));
+
+    flowControl.release(0, is.getCharged());
+    Assert.assertEquals(0L, gauge.get(FlowControl.GAUGE_IN_FLIGHT_BYTES));
+  }
+
+  @Test
+  public void testAdmittedBytesNotChargedTwice() throws Exception {
+    Map<String, Object> gauge = new HashMap<>();
+    FlowControl flowControl = new FlowControl(0, 100, gauge, new Meter(), new Meter());
+
+    Assert.assertTrue(flowControl.tryAdmit(20));
+    FlowControlInputStream is = new FlowControlInputStream(new ByteArrayInputStream(new byte[30]), flowControl, 20);
+    Assert.assertEquals(20, is.read(new byte[20]));
+    Assert.assertEquals(20L, is.getCharged());
+    Assert.assertEquals(20L, gauge.get(FlowControl.GAUGE_IN_FLIGHT_BYTES));
+
+    // more than the content length announced
+    Assert.assertEquals(10, is.read(new byte[20]));
+    Assert.assertEquals(30L, is.getCharged());
+    Assert.assertEquals(30L, gauge.get(FlowControl.GAUGE_IN_FLIGHT_BYTES));
+  }
+
+}
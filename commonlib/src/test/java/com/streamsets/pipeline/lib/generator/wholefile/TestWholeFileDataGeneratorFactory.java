@@ -64,6 +64,7 @@ public class TestWholeFileDataGeneratorFactory {
     hashSet.add(FileRefUtil.SENT_BYTES);
     hashSet.add(FileRefUtil.REMAINING_BYTES);
     hashSet.add(FileRefUtil.COMPLETED_FILE_COUNT);
+    hashSet.add(FileRefUtil.LAST_FILE_TRANSFER_THROUGHPUT);
 
 
     Iterator<String> hashSetKeyIterator = hashSet.iterator();
@@ -0,0 +1,153 @@
+/*
+ * Copyright 2019 StreamSets Inc.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package com.streamsets.pipeline.lib.io;
+
+import org.apache.commons.io.IOUtils;
+import org.junit.Assert;
+import org.junit.Test;
+
+import java.io.File;
+import java.io.FileOutputStream;
+import java.io.IOException;
+import java.io.OutputStream;
+import java.nio.ByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.charset.Charset;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.Paths;
+import java.nio.file.StandardOpenOption;
+import java.util.UUID;
+import java.util.concurrent.atomic.AtomicBoolean;
+
+/**
+ * Runs all the {@link TestSingleLineLiveFileReader} tests against the {@link MappedLiveFileReader}.
+ */
+public class TestMappedLiveFileReader extends TestSingleLineLiveFileReader {
+
+  @Override
+  protected LiveFileReader createReader(RollMode rollMode, String tag, LiveFile file, Charset charset, long offset,
+      int maxLineLen) throws IOException {
+    return new MappedLiveFileReader(rollMode, tag, file, charset, offset, maxLineLen);
+  }
+
+  @Test
+  public void testReadAppendedData() throws Exception {
+    File testDir = new File("target", UUID.randomUUID().toString());
+    Assert.assertTrue(testDir.mkdirs());
+    Path file = new File(testDir, UUID.randomUUID().toString()).toPath();
+    Files.write(file, "Hello1\nHel".getBytes(StandardCharsets.UTF_8));
+    LiveFile lf = new LiveFile(file);
+    LiveFileReader lfr = createReader(LogRollModeFactory.REVERSE_COUNTER.get(file.getFileName().toString(), ""), null,
+                                      lf, StandardCharsets.UTF_8, 0, 20);
+
+    LiveFileChunk chunk = lfr.next(0);
+    Assert.assertNotNull(chunk);
+    Assert.assertEquals("Hello1\n", IOUtils.toString(chunk.getReader()));
+    Assert.assertEquals(7, lfr.getOffset());
+
+    // incomplete line, nothing returned until the EOL shows up
+    Assert.assertNull(lfr.next(0));
+    Assert.assertEquals(7, lfr.getOffset());
+
+    // data appended after the region was mapped
+    try (OutputStream os = new FileOutputStream(file.toFile(), true)) {
+      os.write("lo2\nHello3\n".getBytes(StandardCharsets.UTF_8));
+    }
+    chunk = lfr.next(0);
+    Assert.assertNotNull(chunk);
+    Assert.assertEquals(7, chunk.getOffset());
+    Assert.assertEquals("Hello2\nHello3\n", IOUtils.toString(chunk.getReader()));
+    Assert.assertEquals(21, lfr.getOffset());
+
+    Files.move(file, Paths.get(file.getParent().toString(), UUID.randomUUID().toString()));
+    Thread.sleep(SingleLineLiveFileReader.REFRESH_INTERVAL + 1);
+    Assert.assertFalse(lfr.hasNext());
+    lfr.close();
+  }
+
+  @Test(expected = IOException.class)
+  public void testTruncatedWhileReading() throws Exception {
+    File testDir = new File("target", UUID.randomUUID().toString());
+    Assert.assertTrue(testDir.mkdirs());
+    Path file = new File(testDir, UUID.randomUUID().toString()).toPath();
+    Files.write(file, "Hello1\nHello2\n".getBytes(StandardCharsets.UTF_8));
+    LiveFile lf = new LiveFile(file);
+    LiveFileReader lfr = createReader(LogRollModeFactory.REVERSE_COUNTER.get(file.getFileName().toString(), ""), null,
+                                      lf, StandardCharsets.UTF_8, 0, 20);
+    try {
+      Assert.assertNotNull(lfr.next(0));
+      Assert.assertEquals(14, lfr.getOffset());
+
+      // truncated in place before the read position
+      try (FileChannel channel = FileChannel.open(file, StandardOpenOption.WRITE)) {
+        channel.truncate(3);
+      }
+      lfr.next(0);
+    } finally {
+      lfr.close();
+    }
+  }
+
+  @Test
+  public void testTruncatedDuringRead() throws Exception {
+    File testDir = new File("target", UUID.randomUUID().toString());
+    Assert.assertTrue(testDir.mkdirs());
+    Path file = new File(testDir, UUID.randomUUID().toString()).toPath();
+    StringBuilder sb = new StringBuilder();
+    for (int i = 0; sb.length() < 4 * 1024 * 1024; i++) {
+      sb.append("Hello").append(i).append('\n');
+    }
+    byte[] data = sb.toString().getBytes(StandardCharsets.UTF_8);
+    Files.write(file, data);
+
+    // truncates the file over and over, some of the truncations happen while the reader reads the mapped region
+    AtomicBoolean done = new AtomicBoolean();
+    Thread truncator = new Thread(() -> {
+      try {
+        while (!done.get()) {
+          try (FileChannel channel = FileChannel.open(file, StandardOpenOption.WRITE)) {
+            channel.truncate(0);
+            channel.write(ByteBuffer.wrap(data));
+          }
+        }
+      } catch (IOException ex) {
+        throw new RuntimeException(ex);
+      }
+    });
+    truncator.start();
+    try {
+      long end = System.currentTimeMillis() + 2000;
+      while (System.currentTimeMillis() < end) {
+        LiveFileReader lfr = createReader(LogRollModeFactory.REVERSE_COUNTER.get(file.getFileName().toString(), ""),
+                                          null, new LiveFile(file), StandardCharsets.UTF_8, 0, data.length);
+        try {
+          while (lfr.next(0) != null) {
+          }
+        } catch (IOException ex) {
+          // expected, the file was truncated while reading it
+        } finally {
+          lfr.close();
+        }
+      }
+    } finally {
+      done.set(true);
+      truncator.join();
+    }
+  }
+
+}
@@ -50,6 +50,11 @@ public class TestSingleLineLiveFileReader {
     return file;
   }
 
+  protected LiveFileReader createReader(RollMode rollMode, String tag, LiveFile file, Charset charset, long offset,
+      int maxLineLen) throws IOException {
+    return new SingleLineLiveFileReader(rollMode, tag, file, charset, offset, maxLineLen);
+  }
+
   private String readChunk(LiveFileChunk chunk) throws IOException {
     char[] data = new char[chunk.getLength()];
     IOUtils.readFully(chunk.getReader(), data);
@@ -60,7 +65,7 @@ public class TestSingleLineLiveFileReader {
   public void testMethods() throws Exception {
     Path file = createFile(Arrays.asList("Hello1\n", "Hello2\n"));
     LiveFile lf = new LiveFile(file);
-    LiveFileReader lfr = new SingleLineLiveFileReader(LogRollModeFactory.REVERSE_COUNTER.get(file.getFileName().toString(), ""),
+    LiveFileReader lfr = createReader(LogRollModeFactory.REVERSE_COUNTER.get(file.getFileName().toString(), ""),
                                            null, lf, Charset.defaultCharset(), 0, 10);
     Assert.assertEquals(Charset.defaultCharset(), lfr.getCharset());
     Assert.assertEquals(lf, lfr.getLiveFile());
@@ -72,49 +77,49 @@ public class TestSingleLineLiveFileReader {
   public void testValidCharsets() throws Exception {
     Path file = createFile(Arrays.asList("Hello1\n", "Hello2\n"));
     LiveFile lf = new LiveFile(file);
-    new SingleLineLiveFileReader(LogRollModeFactory.REVERSE_COUNTER.get(file.getFileName().toString(), ""),null, lf, Charset.forName("US-ASCII"), 0, 10);
-    new SingleLineLiveFileReader(LogRollModeFactory.REVERSE_COUNTER.get(file.getFileName().toString(), ""),null, lf, StandardCharsets.UTF_8, 0, 10);
-    new SingleLineLiveFileReader(LogRollModeFactory.REVERSE_COUNTER.get(file.getFileName().toString(), ""),null, lf, Charset.forName("GBK"), 0, 10);
-    new SingleLineLiveFileReader(LogRollModeFactory.REVERSE_COUNTER.get(file.getFileName().toString(), ""),null, lf, Charset.forName("ISO-8859-1"), 0, 10);
-    new SingleLineLiveFileReader(LogRollModeFactory.REVERSE_COUNTER.get(file.getFileName().toString(), ""),null, lf, Charset.forName("shift_jis"), 0, 10);
-    new SingleLineLiveFileReader(LogRollModeFactory.REVERSE_COUNTER.get(file.getFileName().toString(), ""),null, lf, Charset.forName("euc-jp"), 0, 10);
-    new SingleLineLiveFileReader(LogRollModeFactory.REVERSE_COUNTER.get(file.getFileName().toString(), ""),null, lf, Charset.forName("euc-kr"), 0, 10);
-    new SingleLineLiveFileReader(LogRollModeFactory.REVERSE_COUNTER.get(file.getFileName().toString(), ""),null, lf, Charset.forName("koi8-r"), 0, 10);
+    createReader(LogRollModeFactory.REVERSE_COUNTER.get(file.getFileName().toString(), ""),null, lf, Charset.forName("US-ASCII"), 0, 10);
+    createReader(LogRollModeFactory.REVERSE_COUNTER.get(file.getFileName().toString(), ""),null, lf, StandardCharsets.UTF_8, 0, 10);
+    createReader(LogRollModeFactory.REVERSE_COUNTER.get(file.getFileName().toString(), ""),null, lf, Charset.forName("GBK"), 0, 10);
+    createReader(LogRollModeFactory.REVERSE_COUNTER.get(file.getFileName().toString(), ""),null, lf, Charset.forName("ISO-8859-1"), 0, 10);
+    createReader(LogRollModeFactory.REVERSE_COUNTER.get(file.getFileName().toString(), ""),null, lf, Charset.forName("shift_jis"), 0, 10);
+    createReader(LogRollModeFactory.REVERSE_COUNTER.get(file.getFileName().toString(), ""),null, lf, Charset.forName("euc-jp"), 0, 10);
+    createReader(LogRollModeFactory.REVERSE_COUNTER.get(file.getFileName().toString(), ""),null, lf, Charset.forName("euc-kr"), 0, 10);
+    createReader(LogRollModeFactory.REVERSE_COUNTER.get(file.getFileName().toString(), ""),null, lf, Charset.forName("koi8-r"), 0, 10);
   }
 
   @Test(expected = IllegalArgumentException.class)
   public void testInvalidCharset1() throws Exception {
     Path file = createFile(Arrays.asList("Hello1\n", "Hello2\n"));
     LiveFile lf = new LiveFile(file);
-    new SingleLineLiveFileReader(LogRollModeFactory.REVERSE_COUNTER.get(file.getFileName().toString(), ""),null, lf, Charset.forName("UTF-16"), 0, 10);
+    createReader(LogRollModeFactory.REVERSE_COUNTER.get(file.getFileName().toString(), ""),null, lf, Charset.forName("UTF-16"), 0, 10);
   }
 
   @Test(expected = IllegalArgumentException.class)
   public void testInvalidCharset2() throws Exception {
     Path file = createFile(Arrays.asList("Hello1\n", "Hello2\n"));
     LiveFile lf = new LiveFile(file);
-    new SingleLineLiveFileReader(LogRollModeFactory.REVERSE_COUNTER.get(file.getFileName().toString(), ""),null, lf, Charset.forName("UTF-32"), 0, 10);
+    createReader(LogRollModeFactory.REVERSE_COUNTER.get(file.getFileName().toString(), ""),null, lf, Charset.forName("UTF-32"), 0, 10);
   }
 
   @Test(expected = IllegalArgumentException.class)
   public void testInvalidCharset3() throws Exception {
     Path file = createFile(Arrays.asList("Hello1\n", "Hello2\n"));
     LiveFile lf = new LiveFile(file);
-    new SingleLineLiveFileReader(LogRollModeFactory.REVERSE_COUNTER.get(file.getFileName().toString(), ""),null, lf, Charset.forName("IBM500"), 0, 10);
+    createReader(LogRollModeFactory.REVERSE_COUNTER.get(file.getFileName().toString(), ""),null, lf, Charset.forName("IBM500"), 0, 10);
   }
 
   @Test(expected = IOException.class)
   public void testInvalidOffset() throws Exception {
     Path file = createFile(Arrays.asList("Hello"));
     LiveFile lf = new LiveFile(file);
-    new SingleLineLiveFileReader(LogRollModeFactory.REVERSE_COUNTER.get(file.getFileName().toString(), ""),null, lf, Charset.defaultCharset(), 10, 10);
+    createReader(LogRollModeFactory.REVERSE_COUNTER.get(file.getFileName().toString(), ""),null, lf, Charset.defaultCharset(), 10, 10);
   }
 
   @Test
   public void testOneLineReadFromBeginningFullLinesNoTruncate() throws Exception {
     Path file = createFile(Arrays.asList("Hello1\n", "Hello2\n"));
     LiveFile lf = new LiveFile(file);
-    LiveFileReader lfr = new SingleLineLiveFileReader(LogRollModeFactory.REVERSE_COUNTER.get(file.getFileName().toString(), ""),null, lf, Charset.defaultCharset(), 0, 10);
+    LiveFileReader lfr = createReader(LogRollModeFactory.REVERSE_COUNTER.get(file.getFileName().toString(), ""),null, lf, Charset.defaultCharset(), 0, 10);
 
     Assert.assertTrue(lfr.hasNext());
     LiveFileChunk chunk = lfr.next(0);
@@ -160,7 +165,7 @@ public class TestSingleLineLiveFileReader {
   public void testOneLineReadFromBeginningLastLineNoEOLNoTruncate() throws Exception {
     Path file = createFile(Arrays.asList("Hello1\n", "Hello2"));
     LiveFile lf = new LiveFile(file);
-    LiveFileReader lfr = new SingleLineLiveFileReader(LogRollModeFactory.REVERSE_COUNTER.get(file.getFileName().toString(), ""),null, lf, Charset.defaultCharset(), 0, 10);
+    LiveFileReader lfr = createReader(LogRollModeFactory.REVERSE_COUNTER.get(file.getFileName().toString(), ""),null, lf, Charset.defaultCharset(), 0, 10);
 
     Assert.assertTrue(lfr.hasNext());
     LiveFileChunk chunk = lfr.next(0);
@@ -199,7 +204,7 @@ public class TestSingleLineLiveFileReader {
   public void testOneLineReadFromExactOffsetFullLinesNoTruncate() throws Exception {
     Path file = createFile(Arrays.asList("Hello1\n", "Hello2\n"));
     LiveFile lf = new LiveFile(file);
-    LiveFileReader lfr = new SingleLineLiveFileReader(LogRollModeFactory.REVERSE_COUNTER.get(file.getFileName().toString(), ""),null, lf, Charset.defaultCharset(), 7, 10);
+    LiveFileReader lfr = createReader(LogRollModeFactory.REVERSE_COUNTER.get(file.getFileName().toString(), ""),null, lf, Charset.defaultCharset(), 7, 10);
 
     Assert.assertTrue(lfr.hasNext());
     LiveFileChunk chunk = lfr.next(0);
@@ -232,7 +237,7 @@ public class TestSingleLineLiveFileReader {
   public void testOneLineReadFromExactOffsetLastLineNoEOLNoTruncate() throws Exception {
     Path file = createFile(Arrays.asList("Hello1\n", "Hello2"));
     LiveFile lf = new LiveFile(file);
-    LiveFileReader lfr = new SingleLineLiveFileReader(LogRollModeFactory.REVERSE_COUNTER.get(file.getFileName().toString(), ""),null, lf, Charset.defaultCharset(), 7, 10);
+    LiveFileReader lfr = createReader(LogRollModeFactory.REVERSE_COUNTER.get(file.getFileName().toString(), ""),null, lf, Charset.defaultCharset(), 7, 10);
 
 
     Assert.assertTrue(lfr.hasNext());
@@ -265,7 +270,7 @@ public class TestSingleLineLiveFileReader {
   public void testMultiLineReadFromBeginningFullLinesNoTruncate() throws Exception {
     Path file = createFile(Arrays.asList("Hello1\n", "Hello2\n"));
     LiveFile lf = new LiveFile(file);
-    LiveFileReader lfr = new SingleLineLiveFileReader(LogRollModeFactory.REVERSE_COUNTER.get(file.getFileName().toString(), ""),null, lf, Charset.defaultCharset(), 0, 20);
+    LiveFileReader lfr = createReader(LogRollModeFactory.REVERSE_COUNTER.get(file.getFileName().toString(), ""),null, lf, Charset.defaultCharset(), 0, 20);
 
     Assert.assertTrue(lfr.hasNext());
     LiveFileChunk chunk = lfr.next(0);
@@ -293,7 +298,7 @@ public class TestSingleLineLiveFileReader {
   public void testMultiLineLineReadFromBeginningLastLineNoEOLNoTruncate() throws Exception {
     Path file = createFile(Arrays.asList("Hello1\n", "Hello2"));
     LiveFile lf = new LiveFile(file);
-    LiveFileReader lfr = new SingleLineLiveFileReader(LogRollModeFactory.REVERSE_COUNTER.get(file.getFileName().toString(), ""),null, lf, Charset.defaultCharset(), 0, 20);
+    LiveFileReader lfr = createReader(LogRollModeFactory.REVERSE_COUNTER.get(file.getFileName().toString(), ""),null, lf, Charset.defaultCharset(), 0, 20);
 
     Assert.assertTrue(lfr.hasNext());
     LiveFileChunk chunk = lfr.next(0);
@@ -332,7 +337,7 @@ public class TestSingleLineLiveFileReader {
   public void testOneLineReadFromBeginningFullLinesTruncate() throws Exception {
     Path file = createFile(Arrays.asList("Hello123456\n", "Hello2\n"));
     LiveFile lf = new LiveFile(file);
-    LiveFileReader lfr = new SingleLineLiveFileReader(LogRollModeFactory.REVERSE_COUNTER.get(file.getFileName().toString(), ""),null, lf, Charset.defaultCharset(), 0, 10);
+    LiveFileReader lfr = createReader(LogRollModeFactory.REVERSE_COUNTER.get(file.getFileName().toString(), ""),null, lf, Charset.defaultCharset(), 0, 10);
 
     Assert.assertTrue(lfr.hasNext());
     LiveFileChunk chunk = lfr.next(0);
@@ -375,7 +380,7 @@ public class TestSingleLineLiveFileReader {
   public void testTruncateMultipleReads() throws Exception {
     Path file = createFile(Arrays.asList("Hello1234567890\n", "Hello\n"));
     LiveFile lf = new LiveFile(file);
-    LiveFileReader lfr = new SingleLineLiveFileReader(LogRollModeFactory.REVERSE_COUNTER.get(file.getFileName().toString(), ""),null, lf, Charset.defaultCharset(), 0, 6);
+    LiveFileReader lfr = createReader(LogRollModeFactory.REVERSE_COUNTER.get(file.getFileName().toString(), ""),null, lf, Charset.defaultCharset(), 0, 6);
 
     Assert.assertTrue(lfr.hasNext());
     LiveFileChunk chunk = lfr.next(0);
@@ -424,7 +429,7 @@ public class TestSingleLineLiveFileReader {
   public void testOneLineReadFromTruncatedOffset() throws Exception {
     Path file = createFile(Arrays.asList("Hello1\n", "Hello\n"));
     LiveFile lf = new LiveFile(file);
-    LiveFileReader lfr = new SingleLineLiveFileReader(LogRollModeFactory.REVERSE_COUNTER.get(file.getFileName().toString(), ""),null, lf, Charset.defaultCharset(), -3, 10);
+    LiveFileReader lfr = createReader(LogRollModeFactory.REVERSE_COUNTER.get(file.getFileName().toString(), ""),null, lf, Charset.defaultCharset(), -3, 10);
 
     Assert.assertTrue(lfr.hasNext());
     LiveFileChunk chunk = lfr.next(0);
@@ -446,7 +451,7 @@ public class TestSingleLineLiveFileReader {
   public void testTruncatedChunkAndNoEOLInLast() throws Exception {
     Path file = createFile(Arrays.asList("Hello1"));
     LiveFile lf = new LiveFile(file);
-    LiveFileReader lfr = new SingleLineLiveFileReader(LogRollModeFactory.REVERSE_COUNTER.get(file.getFileName().toString(), ""),null, lf, Charset.defaultCharset(), 0, 6);
+    LiveFileReader lfr = createReader(LogRollModeFactory.REVERSE_COUNTER.get(file.getFileName().toString(), ""),null, lf, Charset.defaultCharset(), 0, 6);
 
     Assert.assertTrue(lfr.hasNext());
     LiveFileChunk chunk = lfr.next(0);
@@ -473,7 +478,7 @@ public class TestSingleLineLiveFileReader {
   public void testNextTimeout() throws Exception {
     Path file = createFile(Arrays.asList("Hello1"));
     LiveFile lf = new LiveFile(file);
-    LiveFileReader lfr = new SingleLineLiveFileReader(LogRollModeFactory.REVERSE_COUNTER.get(file.getFileName().toString(), ""),null, lf, Charset.defaultCharset(), 0, 10);
+    LiveFileReader lfr = createReader(LogRollModeFactory.REVERSE_COUNTER.get(file.getFileName().toString(), ""),null, lf, Charset.defaultCharset(), 0, 10);
 
     Assert.assertTrue(lfr.hasNext());
     long start = System.currentTimeMillis();
@@ -487,7 +492,7 @@ public class TestSingleLineLiveFileReader {
   public void testReadWithinTimeout() throws Exception {
     Path file = createFile(Arrays.asList("Hello1\n"));
     LiveFile lf = new LiveFile(file);
-    LiveFileReader lfr = new SingleLineLiveFileReader(LogRollModeFactory.REVERSE_COUNTER.get(file.getFileName().toString(), ""),null, lf, Charset.defaultCharset(), 0, 10);
+    LiveFileReader lfr = createReader(LogRollModeFactory.REVERSE_COUNTER.get(file.getFileName().toString(), ""),null, lf, Charset.defaultCharset(), 0, 10);
 
     Assert.assertTrue(lfr.hasNext());
     long start = System.currentTimeMillis();
@@ -504,7 +509,7 @@ public class TestSingleLineLiveFileReader {
     LiveFile lf = new LiveFile(file);
 
     //multiple lines in one chunk
-    LiveFileReader lfr = new SingleLineLiveFileReader(LogRollModeFactory.REVERSE_COUNTER.get(file.getFileName().toString(), ""),null, lf, Charset.defaultCharset(), 0, 20);
+    LiveFileReader lfr = createReader(LogRollModeFactory.REVERSE_COUNTER.get(file.getFileName().toString(), ""),null, lf, Charset.defaultCharset(), 0, 20);
     Assert.assertTrue(lfr.hasNext());
     LiveFileChunk chunk = lfr.next(0);
     Assert.assertNotNull(chunk);
@@ -515,7 +520,7 @@ public class TestSingleLineLiveFileReader {
     Assert.assertEquals(15, lfr.getOffset());
 
     //1.5 lines in one chunk
-    lfr = new SingleLineLiveFileReader(LogRollModeFactory.REVERSE_COUNTER.get(file.getFileName().toString(), ""),null, lf, Charset.defaultCharset(), 0, 10);
+    lfr = createReader(LogRollModeFactory.REVERSE_COUNTER.get(file.getFileName().toString(), ""),null, lf, Charset.defaultCharset(), 0, 10);
     Assert.assertTrue(lfr.hasNext());
     chunk = lfr.next(0);
     Assert.assertNotNull(chunk);
@@ -535,7 +540,7 @@ public class TestSingleLineLiveFileReader {
     Assert.assertEquals(15, lfr.getOffset());
 
     //first line truncated after \r\n
-    lfr = new SingleLineLiveFileReader(LogRollModeFactory.REVERSE_COUNTER.get(file.getFileName().toString(), ""),null, lf, Charset.defaultCharset(), 0, 8);
+    lfr = createReader(LogRollModeFactory.REVERSE_COUNTER.get(file.getFileName().toString(), ""),null, lf, Charset.defaultCharset(), 0, 8);
     Assert.assertTrue(lfr.hasNext());
     chunk = lfr.next(0);
     Assert.assertNotNull(chunk);
@@ -555,7 +560,7 @@ public class TestSingleLineLiveFileReader {
     Assert.assertEquals(15, lfr.getOffset());
 
     //first line truncated after \r
-    lfr = new SingleLineLiveFileReader(LogRollModeFactory.REVERSE_COUNTER.get(file.getFileName().toString(), ""),null, lf, Charset.defaultCharset(), 0, 7);
+    lfr = createReader(LogRollModeFactory.REVERSE_COUNTER.get(file.getFileName().toString(), ""),null, lf, Charset.defaultCharset(), 0, 7);
     Assert.assertTrue(lfr.hasNext());
     chunk = lfr.next(0);
     Assert.assertNotNull(chunk);
@@ -584,7 +589,7 @@ public class TestSingleLineLiveFileReader {
 
     //multiple lines in one chunk
     LiveFileReader lfr =
-        new SingleLineLiveFileReader(LogRollModeFactory.REVERSE_COUNTER.get(file.getFileName().toString(), ""), "tag", lf,
+        createReader(LogRollModeFactory.REVERSE_COUNTER.get(file.getFileName().toString(), ""), "tag", lf,
                            Charset.defaultCharset(), 0, 20);
     Assert.assertTrue(lfr.hasNext());
     LiveFileChunk chunk = lfr.next(0);
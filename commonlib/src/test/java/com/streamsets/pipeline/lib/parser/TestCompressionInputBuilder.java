@@ -16,6 +16,7 @@
 package com.streamsets.pipeline.lib.parser;
 
 import com.fasterxml.jackson.databind.ObjectMapper;
+import com.github.luben.zstd.Zstd;
 import com.streamsets.pipeline.api.Record;
 import com.streamsets.pipeline.config.Compression;
 import com.streamsets.pipeline.sdk.DataCollectorServicesUtils;
@@ -25,6 +26,8 @@ import org.apache.commons.compress.archivers.ArchiveOutputStream;
 import org.apache.commons.compress.archivers.ArchiveStreamFactory;
 import org.apache.commons.compress.compressors.CompressorOutputStream;
 import org.apache.commons.compress.compressors.CompressorStreamFactory;
+import org.apache.commons.compress.compressors.bzip2.BZip2CompressorOutputStream;
+import org.apache.commons.compress.compressors.zstandard.ZstdCompressorOutputStream;
 import org.apache.commons.io.IOUtils;
 import org.junit.Assert;
 import org.junit.BeforeClass;
@@ -36,12 +39,20 @@ import java.io.ByteArrayOutputStream;
 import java.io.File;
 import java.io.FileInputStream;
 import java.io.FileOutputStream;
+import java.io.IOException;
 import java.io.InputStream;
 import java.io.InputStreamReader;
 import java.io.OutputStream;
 import java.io.SequenceInputStream;
+import java.nio.ByteBuffer;
+import java.nio.ByteOrder;
 import java.util.Map;
+import java.util.Random;
 import java.util.UUID;
+import java.util.zip.CRC32;
+import java.util.zip.Deflater;
+import java.util.zip.GZIPInputStream;
+import java.util.zip.GZIPOutputStream;
 
 public class TestCompressionInputBuilder {
 
@@ -59,12 +70,188 @@ public class TestCompressionInputBuilder {
     testCompressedFile("bzip2");
     testCompressedFile("xz");
     testCompressedFile("DEFLATE");
+    testCompressedFile("lz4-framed");
+    testCompressedFile("zstd");
 
     testConcatenatedCompressedFile("gz");
     testConcatenatedCompressedFile("bzip2");
     testConcatenatedCompressedFile("xz");
   }
 
+  @Test
+  public void testBgzfInput() throws Exception {
+    StringBuilder expected = new StringBuilder();
+    ByteArrayOutputStream bOut = new ByteArrayOutputStream();
+    for (int i = 0; i < 100; i++) {
+      String line = "line" + i + "\n";
+      expected.append(line);
+      writeBgzfBlock(bOut, line.getBytes());
+    }
+    // BGZF end of file marker
+    writeBgzfBlock(bOut, new byte[0]);
+
+    CompressionDataParser.CompressionInput input = new CompressionDataParser.CompressionInputBuilder(
+        Compression.COMPRESSED_FILE,
+        null,
+        new ByteArrayInputStream(bOut.toByteArray()),
+        "0"
+    ).build();
+    InputStream is = input.getNextInputStream();
+    Assert.assertTrue(is instanceof BgzfInputStream);
+    Assert.assertEquals(expected.toString(), IOUtils.toString(is));
+    input.close();
+
+    // BGZF blocks are regular gzip members
+    Assert.assertEquals(
+        expected.toString(),
+        IOUtils.toString(new GZIPInputStream(new ByteArrayInputStream(bOut.toByteArray())))
+    );
+  }
+
+  @Test
+  public void testBgzfInputFollowedByGzipMember() throws Exception {
+    ByteArrayOutputStream bOut = new ByteArrayOutputStream();
+    writeBgzfBlock(bOut, "bgzf1\n".getBytes());
+    writeBgzfBlock(bOut, "bgzf2\n".getBytes());
+    writeBgzfBlock(bOut, new byte[0]);
+    // plain gzip members don't carry the BGZF block size, so they are decompressed sequentially
+    for (String line : new String[]{"gzip1\n", "gzip2\n"}) {
+      try (GZIPOutputStream gzip = new GZIPOutputStream(bOut)) {
+        gzip.write(line.getBytes());
+        gzip.finish();
+      }
+    }
+
+    CompressionDataParser.CompressionInput input = new CompressionDataParser.CompressionInputBuilder(
+        Compression.COMPRESSED_FILE,
+        null,
+        new ByteArrayInputStream(bOut.toByteArray()),
+        "0"
+    ).build();
+    InputStream is = input.getNextInputStream();
+    Assert.assertTrue(is instanceof BgzfInputStream);
+    Assert.assertEquals("bgzf1\nbgzf2\ngzip1\ngzip2\n", IOUtils.toString(is));
+    input.close();
+  }
+
+  @Test(expected = IOException.class)
+  public void testBgzfInputCorrupted() throws Exception {
+    ByteArrayOutputStream bOut = new ByteArrayOutputStream();
+    writeBgzfBlock(bOut, "StreamSets".getBytes());
+    byte[] bytes = bOut.toByteArray();
+    // corrupt the CRC
+    bytes[bytes.length - 8]++;
+
+    CompressionDataParser.CompressionInput input = new CompressionDataParser.CompressionInputBuilder(
+        Compression.COMPRESSED_FILE,
+        null,
+        new ByteArrayInputStream(bytes),
+        "0"
+    ).build();
+    IOUtils.toString(input.getNextInputStream());
+  }
+
+  @Test
+  public void testBzip2Input() throws Exception {
+    // several blocks of 100KB in each stream, and several streams as pbzip2 writes them
+    Random random = new Random(0);
+    StringBuilder expected = new StringBuilder();
+    ByteArrayOutputStream bOut = new ByteArrayOutputStream();
+    for (int stream = 0; stream < 3; stream++) {
+      try (BZip2CompressorOutputStream bzip2 = new BZip2CompressorOutputStream(bOut, 1)) {
+        for (int i = 0; i < 30000; i++) {
+          String line = "line" + stream + "-" + random.nextInt(1000) + "\n";
+          expected.append(line);
+          bzip2.write(line.getBytes());
+        }
+      }
+    }
+
+    CompressionDataParser.CompressionInput input = new CompressionDataParser.CompressionInputBuilder(
+        Compression.COMPRESSED_FILE,
+        null,
+        new ByteArrayInputStream(bOut.toByteArray()),
+        "0"
+    ).build();
+    InputStream is = input.getNextInputStream();
+    Assert.assertTrue(is instanceof Bzip2BlockInputStream);
+    Assert.assertEquals(expected.toString(), IOUtils.toString(is));
+    input.close();
+  }
+
+  @Test(expected = IOException.class)
+  public void testBzip2InputCorrupted() throws Exception {
+    ByteArrayOutputStream bOut = new ByteArrayOutputStream();
+    try (BZip2CompressorOutputStream bzip2 = new BZip2CompressorOutputStream(bOut, 1)) {
+      bzip2.write("StreamSets".getBytes());
+    }
+    byte[] bytes = bOut.toByteArray();
+    // corrupt the CRC of the block, right after its magic
+    bytes[10]++;
+
+    CompressionDataParser.CompressionInput input = new CompressionDataParser.CompressionInputBuilder(
+        Compression.COMPRESSED_FILE,
+        null,
+        new ByteArrayInputStream(bytes),
+        "0"
+    ).build();
+    IOUtils.toString(input.getNextInputStream());
+  }
+
+  @Test
+  public void testZstdFramesInput() throws Exception {
+    StringBuilder expected = new StringBuilder();
+    ByteArrayOutputStream bOut = new ByteArrayOutputStream();
+    for (int i = 0; i < 10; i++) {
+      StringBuilder frame = new StringBuilder();
+      for (int j = 0; j < 1000; j++) {
+        frame.append("line").append(i).append('-').append(j).append('\n');
+      }
+      expected.append(frame);
+      // frames compressed at once record their content size
+      bOut.write(Zstd.compress(frame.toString().getBytes()));
+    }
+    // a frame written by a stream doesn't, so it and the rest of the input are decompressed sequentially
+    try (ZstdCompressorOutputStream zstd = new ZstdCompressorOutputStream(bOut)) {
+      zstd.write("streamed\n".getBytes());
+    }
+    bOut.write(Zstd.compress("last\n".getBytes()));
+    expected.append("streamed\nlast\n");
+
+    CompressionDataParser.CompressionInput input = new CompressionDataParser.CompressionInputBuilder(
+        Compression.COMPRESSED_FILE,
+        null,
+        new ByteArrayInputStream(bOut.toByteArray()),
+        "0"
+    ).build();
+    InputStream is = input.getNextInputStream();
+    Assert.assertTrue(is instanceof ZstdFrameInputStream);
+    Assert.assertEquals(expected.toString(), IOUtils.toString(is));
+    input.close();
+  }
+
+  private static void writeBgzfBlock(OutputStream out, byte[] data) throws Exception {
+    Deflater deflater = new Deflater(Deflater.DEFAULT_COMPRESSION, true);
+    deflater.setInput(data);
+    deflater.finish();
+    byte[] buffer = new byte[data.length + 64];
+    int compressedLength = deflater.deflate(buffer);
+    deflater.end();
+    CRC32 crc = new CRC32();
+    crc.update(data);
+
+    ByteBuffer block = ByteBuffer.allocate(18 + compressedLength + 8).order(ByteOrder.LITTLE_ENDIAN);
+    block.put(new byte[]{0x1f, (byte) 0x8b, 8, 4, 0, 0, 0, 0, 0, (byte) 0xff});
+    block.putShort((short) 6);
+    block.put(new byte[]{'B', 'C'});
+    block.putShort((short) 2);
+    block.putShort((short) (block.capacity() - 1));
+    block.put(buffer, 0, compressedLength);
+    block.putInt((int) crc.getValue());
+    block.putInt(data.length);
+    out.write(block.array());
+  }
+
   @Test
   public void testArchiveInput() throws Exception {
     testArchive(ArchiveStreamFactory.TAR);
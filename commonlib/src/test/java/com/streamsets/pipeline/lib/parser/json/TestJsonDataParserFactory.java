@@ -15,6 +15,8 @@
  */
 package com.streamsets.pipeline.lib.parser.json;
 
+import com.google.common.collect.ImmutableList;
+import com.google.common.collect.ImmutableSet;
 import com.streamsets.pipeline.api.OnRecordError;
 import com.streamsets.pipeline.api.Record;
 import com.streamsets.pipeline.api.Stage;
@@ -107,4 +109,22 @@ public class TestJsonDataParserFactory {
     parser.close();
   }
 
+  @Test
+  public void testProjection() throws Exception {
+    DataParserFactoryBuilder dataParserFactoryBuilder =
+        new DataParserFactoryBuilder(getContext(), DataParserFormat.JSON);
+    DataParserFactory factory = dataParserFactoryBuilder
+        .setMaxDataLen(1000)
+        .setMode(JsonMode.MULTIPLE_OBJECTS)
+        .setProjection(ImmutableList.of("/a/b", "/c[*]/d"))
+        .build();
+
+    DataParser parser = factory.getParser("id", "{\"a\":{\"b\":1,\"x\":2},\"c\":[{\"d\":3,\"y\":4}],\"z\":5}\n");
+    Record record = parser.parse();
+    Assert.assertEquals(ImmutableSet.of("", "/a", "/a/b", "/c", "/c[0]", "/c[0]/d"), record.getEscapedFieldPaths());
+    Assert.assertEquals(1, record.get("/a/b").getValueAsInteger());
+    Assert.assertEquals(3, record.get("/c[0]/d").getValueAsInteger());
+    parser.close();
+  }
+
 }
@@ -0,0 +1,208 @@
+/*
+ * Copyright 2019 StreamSets Inc.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package com.streamsets.pipeline.lib.udp;
+
+import com.codahale.metrics.Meter;
+import com.streamsets.pipeline.api.OnRecordError;
+import com.streamsets.pipeline.api.Record;
+import com.streamsets.pipeline.api.Stage;
+import com.streamsets.pipeline.lib.parser.udp.collectd.CollectdParser;
+import com.streamsets.pipeline.lib.util.UDPTestUtil;
+import com.streamsets.pipeline.sdk.ContextInfoCreator;
+import io.netty.buffer.Unpooled;
+import io.netty.channel.socket.DatagramPacket;
+import org.junit.Assert;
+import org.junit.Test;
+
+import java.io.File;
+import java.net.InetSocketAddress;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.TimeUnit;
+
+public class TestParallelUDPConsumer {
+  private static final InetSocketAddress RECIPIENT = new InetSocketAddress("localhost", 9999);
+  private static final File COLLECTD_PACKET = new File(System.getProperty("user.dir") +
+      "/src/test/resources/collectd23part.bin");
+
+  private static DatagramPacket packet(InetSocketAddress sender, int value) {
+    return new DatagramPacket(Unpooled.copyInt(value), RECIPIENT, sender);
+  }
+
+  // what the channel handler does with each packet
+  private static void receive(UDPConsumer consumer, DatagramPacket packet) throws Exception {
+    try {
+      consumer.process(packet);
+    } finally {
+      packet.release();
+    }
+  }
+
+  @Test
+  public void testOrderPerSender() throws Exception {
+    Map<InetSocketAddress, List<Integer>> received = Collections.synchronizedMap(new HashMap<>());
+    CountDownLatch done = new CountDownLatch(400);
+    List<DatagramPacket> packets = new ArrayList<>();
+    UDPConsumer laneConsumer = packet -> {
+      received.computeIfAbsent(packet.sender(), sender -> Collections.synchronizedList(new ArrayList<>()))
+          .add(packet.content().getInt(0));
+      done.countDown();
+    };
+    ParallelUDPConsumer consumer = new ParallelUDPConsumer(Collections.nCopies(3, laneConsumer), 1000, new Meter());
+
+    List<InetSocketAddress> senders = new ArrayList<>();
+    for (int i = 0; i < 4; i++) {
+      senders.add(new InetSocketAddress("localhost", 10000 + i));
+    }
+    for (int i = 0; i < 100; i++) {
+      for (InetSocketAddress sender : senders) {
+        DatagramPacket packet = packet(sender, i);
+        packets.add(packet);
+        receive(consumer, packet);
+      }
+    }
+    Assert.assertTrue(done.await(10, TimeUnit.SECONDS));
+    consumer.destroy();
+
+    for (InetSocketAddress sender : senders) {
+      List<Integer> values = received.get(sender);
+      Assert.assertEquals(100, values.size());
+      for (int i = 0; i < 100; i++) {
+        Assert.assertEquals(i, (int) values.get(i));
+      }
+    }
+    // all the buffers were released once processed
+    for (DatagramPacket packet : packets) {
+      Assert.assertEquals(0, packet.refCnt());
+    }
+  }
+
+  @Test
+  public void testDropWhenLaneIsFull() throws Exception {
+    CountDownLatch blocked = new CountDownLatch(1);
+    CountDownLatch unblock = new CountDownLatch(1);
+    Meter dropped = new Meter();
+    UDPConsumer laneConsumer = packet -> {
+      blocked.countDown();
+      unblock.await();
+    };
+    ParallelUDPConsumer consumer = new ParallelUDPConsumer(Collections.singletonList(laneConsumer), 1, dropped);
+
+    InetSocketAddress sender = new InetSocketAddress("localhost", 10000);
+    DatagramPacket first = packet(sender, 1);
+    receive(consumer, first);
+    Assert.assertTrue(blocked.await(10, TimeUnit.SECONDS));
+
+    DatagramPacket queued = packet(sender, 2);
+    receive(consumer, queued);
+    Assert.assertEquals(1, queued.refCnt());
+
+    DatagramPacket rejected = packet(sender, 3);
+    receive(consumer, rejected);
+    Assert.assertEquals(0, rejected.refCnt());
+    Assert.assertEquals(1, dropped.getCount());
+
+    unblock.countDown();
+    consumer.destroy();
+    Assert.assertEquals(0, first.refCnt());
+    Assert.assertEquals(0, queued.refCnt());
+  }
+
+  @Test
+  public void testDestroyReleasesQueuedPackets() throws Exception {
+    CountDownLatch blocked = new CountDownLatch(1);
+    UDPConsumer laneConsumer = packet -> {
+      blocked.countDown();
+      // never returns until interrupted by the shutdown
+      new CountDownLatch(1).await();
+    };
+    ParallelUDPConsumer consumer = new ParallelUDPConsumer(Collections.singletonList(laneConsumer), 10, new Meter());
+
+    InetSocketAddress sender = new InetSocketAddress("localhost", 10000);
+    DatagramPacket first = packet(sender, 1);
+    receive(consumer, first);
+    Assert.assertTrue(blocked.await(10, TimeUnit.SECONDS));
+    List<DatagramPacket> queued = new ArrayList<>();
+    for (int i = 0; i < 5; i++) {
+      DatagramPacket packet = packet(sender, i);
+      queued.add(packet);
+      receive(consumer, packet);
+      Assert.assertEquals(1, packet.refCnt());
+    }
+
+    consumer.destroy();
+    for (DatagramPacket packet : queued) {
+      Assert.assertEquals(0, packet.refCnt());
+    }
+  }
+
+  @Test
+  public void testCollectdParserPerLane() throws Exception {
+    byte[] bytes = Files.readAllBytes(COLLECTD_PACKET.toPath());
+    Stage.Context context = ContextInfoCreator.createSourceContext("i", false, OnRecordError.TO_ERROR,
+        Collections.<String>emptyList());
+    List<List<Record>> parsed = Collections.synchronizedList(new ArrayList<>());
+    List<Exception> errors = Collections.synchronizedList(new ArrayList<>());
+    CountDownLatch done = new CountDownLatch(400);
+    // the collectd parser keeps the state of the packet being parsed, each lane parses with its own
+    List<UDPConsumer> laneConsumers = new ArrayList<>();
+    for (int i = 0; i < 4; i++) {
+      CollectdParser parser = new CollectdParser(context, false, null, false, null, StandardCharsets.UTF_8);
+      laneConsumers.add(packet -> {
+        try {
+          parsed.add(parser.parse(packet.content(), packet.recipient(), packet.sender()));
+        } catch (Exception ex) {
+          errors.add(ex);
+        } finally {
+          done.countDown();
+        }
+      });
+    }
+    ParallelUDPConsumer consumer = new ParallelUDPConsumer(laneConsumers, 1000, new Meter());
+
+    for (int i = 0; i < 100; i++) {
+      for (int j = 0; j < 4; j++) {
+        InetSocketAddress sender = new InetSocketAddress("localhost", 10000 + j);
+        receive(consumer, new DatagramPacket(Unpooled.wrappedBuffer(bytes), RECIPIENT, sender));
+      }
+    }
+    Assert.assertTrue(done.await(30, TimeUnit.SECONDS));
+    consumer.destroy();
+
+    Assert.assertEquals(Collections.emptyList(), errors);
+    Assert.assertEquals(400, parsed.size());
+    for (List<Record> records : parsed) {
+      Assert.assertEquals(23, records.size());
+      UDPTestUtil.verifyCollectdRecord(UDPTestUtil.expectedRecord0, records.get(0));
+      UDPTestUtil.verifyCollectdRecord(UDPTestUtil.expectedRecord2, records.get(2));
+    }
+  }
+
+  @Test
+  public void testLaneOf() {
+    InetSocketAddress sender = new InetSocketAddress("localhost", 10000);
+    int lane = ParallelUDPConsumer.laneOf(sender, 4);
+    Assert.assertTrue(lane >= 0 && lane < 4);
+    Assert.assertEquals(lane, ParallelUDPConsumer.laneOf(new InetSocketAddress("localhost", 10000), 4));
+    Assert.assertEquals(0, ParallelUDPConsumer.laneOf(null, 4));
+  }
+}
@@ -15,6 +15,8 @@
  */
 package com.streamsets.datacollector.creation;
 
+import com.google.common.base.Throwables;
+import com.google.common.collect.ImmutableList;
 import com.google.common.collect.ImmutableMap;
 import com.streamsets.datacollector.config.ConfigDefinition;
 import com.streamsets.datacollector.config.ModelType;
@@ -36,15 +38,20 @@ import com.streamsets.pipeline.api.impl.Utils;
 import org.slf4j.Logger;
 import org.slf4j.LoggerFactory;
 
+import java.lang.invoke.MethodHandle;
+import java.lang.invoke.MethodHandles;
+import java.lang.invoke.MethodType;
 import java.lang.reflect.Field;
 import java.lang.reflect.Method;
 import java.lang.reflect.ParameterizedType;
 import java.lang.reflect.Type;
 import java.util.ArrayList;
 import java.util.HashMap;
+import java.util.HashSet;
 import java.util.LinkedHashMap;
 import java.util.List;
 import java.util.Map;
+import java.util.Set;
 
 /**
  * General config injector that will work with various object types.
@@ -52,10 +59,135 @@ import java.util.Map;
 public abstract class ConfigInjector {
   private static final Logger LOG = LoggerFactory.getLogger(PipelineBeanCreator.class);
   private static final ConfigInjector INJECTOR = new ConfigInjector() {};
+  static final String PROJECTION_FIELD = "projection";
+
+  // The config fields of a class are resolved once, multi-threaded pipelines inject the same classes once per runner
+  private static final ClassValue<InjectionPlan> INJECTION_PLANS = new ClassValue<InjectionPlan>() {
+    @Override
+    protected InjectionPlan computeValue(Class<?> type) {
+      return new InjectionPlan(type);
+    }
+  };
+
   public static ConfigInjector get() {
     return INJECTOR;
   }
 
+  /**
+   * Public fields of a class annotated with {@link ConfigDef} or {@link ConfigDefBean}, in the order of
+   * {@link Class#getFields()}.
+   */
+  static class InjectionPlan {
+    private final List<ConfigField> fields;
+    private final Map<Field, ConfigField> fieldsByField;
+
+    InjectionPlan(Class<?> klass) {
+      ImmutableList.Builder<ConfigField> builder = ImmutableList.builder();
+      ImmutableMap.Builder<Field, ConfigField> mapBuilder = ImmutableMap.builder();
+      for (Field field : klass.getFields()) {
+        ConfigField configField = null;
+        if (field.getAnnotation(ConfigDef.class) != null) {
+          configField = new ConfigField(field, false);
+        } else if (field.getAnnotation(ConfigDefBean.class) != null) {
+          configField = new ConfigField(field, true);
+        }
+        if (configField != null) {
+          builder.add(configField);
+          mapBuilder.put(field, configField);
+        }
+      }
+      fields = builder.build();
+      fieldsByField = mapBuilder.build();
+    }
+
+    List<ConfigField> getFields() {
+      return fields;
+    }
+
+    /**
+     * Returns the config field of the given field, null if the field is not a config field of the class.
+     */
+    ConfigField getField(Field field) {
+      return fieldsByField.get(field);
+    }
+  }
+
+  static InjectionPlan getInjectionPlan(Class<?> klass) {
+    return INJECTION_PLANS.get(klass);
+  }
+
+  /**
+   * Config field with method handles to read and write it. Fields the handles can't be created for (final fields) and
+   * values that need a conversion the handles don't do (such as widening an Integer into a long) go through
+   * reflection, which reports the same errors as before.
+   */
+  static class ConfigField {
+    private static final MethodType GETTER_TYPE = MethodType.methodType(Object.class, Object.class);
+    private static final MethodType SETTER_TYPE = MethodType.methodType(void.class, Object.class, Object.class);
+
+    private final Field field;
+    private final boolean bean;
+    private final MethodHandle getter;
+    private final MethodHandle setter;
+
+    ConfigField(Field field, boolean bean) {
+      this.field = field;
+      this.bean = bean;
+      MethodHandles.Lookup lookup = MethodHandles.lookup();
+      MethodHandle get = null;
+      MethodHandle set = null;
+      try {
+        get = lookup.unreflectGetter(field).asType(GETTER_TYPE);
+        set = lookup.unreflectSetter(field).asType(SETTER_TYPE);
+      } catch (IllegalAccessException ex) {
+        LOG.trace("Using reflection for field '{}': {}", field, ex.toString());
+      }
+      getter = get;
+      setter = set;
+    }
+
+    Field getField() {
+      return field;
+    }
+
+    String getName() {
+      return field.getName();
+    }
+
+    Class<?> getType() {
+      return field.getType();
+    }
+
+    boolean isBean() {
+      return bean;
+    }
+
+    Object get(Object obj) throws IllegalAccessException {
+      if (getter != null) {
+        try {
+          return (Object) getter.invokeExact(obj);
+        } catch (Throwable ex) {
+          throw Throwables.propagate(ex);
+        }
+      }
+      return field.get(obj);
+    }
+
+    void set(Object obj, Object value) throws IllegalAccessException {
+      if (setter != null) {
+        try {
+          setter.invokeExact(obj, value);
+          return;
+        } catch (ClassCastException ex) {
+          // the value needs a conversion, reflection does it or reports the error
+        } catch (Throwable ex) {
+          throw Throwables.propagate(ex);
+        }
+      }
+      field.set(obj, value);
+    }
+  }
+
   /**
    * Context object containing various events important for the injection.
    */
@@ -281,10 +413,9 @@ public abstract class ConfigInjector {
 
   public boolean createConfigBeans(Object obj, String configPrefix, Context context) {
     boolean ok = true;
-    Class klass = obj.getClass();
-    for (Field field : klass.getFields()) {
-      String configName = configPrefix + field.getName();
-      if (field.getAnnotation(ConfigDefBean.class) != null) {
+    for (ConfigField field : getInjectionPlan(obj.getClass()).getFields()) {
+      if (field.isBean()) {
+        String configName = configPrefix + field.getName();
         try {
           Object bean = field.getType().newInstance();
           if (createConfigBeans(bean, configName + ".", context)) {
@@ -300,9 +431,9 @@ public abstract class ConfigInjector {
   }
 
   public void injectConfigs(Object obj, String configPrefix, Context context) {
-    for (Field field : obj.getClass().getFields()) {
+    for (ConfigField field : getInjectionPlan(obj.getClass()).getFields()) {
       String configName = configPrefix + field.getName();
-      if (field.getAnnotation(ConfigDef.class) != null) {
+      if (!field.isBean()) {
         ConfigDefinition configDef = context.getConfigDefinition(configName);
         // if there is no config def, we ignore it, it can be the case when the config is a @HideConfig
         if (configDef != null) {
@@ -314,7 +445,7 @@ public abstract class ConfigInjector {
             injectConfigValue(obj, field, value, configDef, context);
           }
         }
-      } else if (field.getAnnotation(ConfigDefBean.class) != null) {
+      } else {
         try {
           injectConfigs(field.get(obj), configName + ".", context);
         } catch (IllegalArgumentException | IllegalAccessException ex) {
@@ -324,7 +455,28 @@ public abstract class ConfigInjector {
     }
   }
 
-  private void injectDefaultValue(Object obj, Field field, ConfigDefinition configDef, Context context) {
+  /**
+   * Sets the parser projection (field paths the origin needs to materialize) on every config bean of the given
+   * object that declares a public {@value #PROJECTION_FIELD} set, such as the data format configuration of origins.
+   */
+  public void injectProjection(Object obj, Set<String> fieldPaths) {
+    for (Field field : obj.getClass().getFields()) {
+      try {
+        if (field.getAnnotation(ConfigDefBean.class) != null) {
+          Object bean = field.get(obj);
+          if (bean != null) {
+            injectProjection(bean, fieldPaths);
+          }
+        } else if (PROJECTION_FIELD.equals(field.getName()) && field.getType().isAssignableFrom(Set.class)) {
+          field.set(obj, new HashSet<>(fieldPaths));
+        }
+      } catch (IllegalArgumentException | IllegalAccessException ex) {
+        LOG.warn("Can't set projection on '{}': {}", obj.getClass().getName(), ex.toString(), ex);
+      }
+    }
+  }
+
+  private void injectDefaultValue(Object obj, ConfigField field, ConfigDefinition configDef, Context context) {
     Object defaultValue = configDef.getDefaultValue();
     if (defaultValue != null) {
       injectConfigValue(obj, field, defaultValue, configDef, context);
@@ -334,7 +486,7 @@ public abstract class ConfigInjector {
     }
   }
 
-  private boolean hasJavaDefault(Object obj, Field field) {
+  private boolean hasJavaDefault(Object obj, ConfigField field) {
     try {
       return field.get(obj) != null;
     } catch (Exception ex) {
@@ -585,6 +737,14 @@ public abstract class ConfigInjector {
   }
 
   public void injectConfigValue(Object obj, Field field, Object value, ConfigDefinition configDef, Context context) {
+    ConfigField configField = getInjectionPlan(obj.getClass()).getField(field);
+    if (configField == null) {
+      configField = new ConfigField(field, false);
+    }
+    injectConfigValue(obj, configField, value, configDef, context);
+  }
+
+  private void injectConfigValue(Object obj, ConfigField field, Object value, ConfigDefinition configDef, Context context) {
     String groupName = configDef.getGroup();
     String configName = configDef.getName();
     if (value == null) {
@@ -593,7 +753,7 @@ public abstract class ConfigInjector {
       if (configDef.getModel() != null && configDef.getModel().getModelType() == ModelType.LIST_BEAN) {
         value = toComplexField(value, configDef, context);
       } else if (List.class.isAssignableFrom(field.getType())) {
-        value = toList(value, configDef, groupName, configName, context, field);
+        value = toList(value, configDef, groupName, configName, context, field.getField());
       } else if (Map.class.isAssignableFrom(field.getType())) {
         value = toMap(value, configDef, groupName, configName, context);
       } else {
@@ -604,7 +764,7 @@ public abstract class ConfigInjector {
           } else if (field.getType() == String.class) {
             value = toString(value, groupName, configName, context);
           } else if (List.class.isAssignableFrom(field.getType())) {
-            value = toList(value, configDef, groupName, configName, context, field);
+            value = toList(value, configDef, groupName, configName, context, field.getField());
           } else if (Map.class.isAssignableFrom(field.getType())) {
             value = toMap(value, configDef, groupName, configName, context);
           } else if (ConfigValueExtractor.CHARACTER_TYPES.contains(field.getType())) {
@@ -195,7 +195,20 @@ public abstract class StageDefinitionExtractor {
   }
 
   public StageDefinition extract(StageLibraryDefinition libraryDef, Class<? extends Stage> klass, Object contextMsg) {
-    List<ErrorMessage> errors = validate(libraryDef, klass, contextMsg);
+    return extract(libraryDef, klass, contextMsg, true);
+  }
+
+  /**
+   * Extracts the stage definition, skipping the validation of a stage class that is known to be valid because it
+   * passed validation with the same library jars and data collector build.
+   */
+  public StageDefinition extract(
+      StageLibraryDefinition libraryDef,
+      Class<? extends Stage> klass,
+      Object contextMsg,
+      boolean validate
+  ) {
+    List<ErrorMessage> errors = validate ? validate(libraryDef, klass, contextMsg) : Collections.emptyList();
     if (errors.isEmpty()) {
       try {
         contextMsg = Utils.formatL("{} Stage='{}'", contextMsg, klass.getSimpleName());
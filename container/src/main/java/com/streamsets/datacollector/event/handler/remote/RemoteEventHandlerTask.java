@@ -24,6 +24,7 @@ import com.google.common.base.Splitter;
 import com.google.common.base.Stopwatch;
 import com.google.common.base.Strings;
 import com.google.common.collect.Lists;
+import com.google.common.util.concurrent.ThreadFactoryBuilder;
 import com.streamsets.datacollector.config.StageDefinition;
 import com.streamsets.datacollector.config.dto.PipelineConfigAndRules;
 import com.streamsets.datacollector.creation.PipelineBeanCreator;
@@ -103,14 +104,20 @@ import java.util.ArrayList;
 import java.util.Arrays;
 import java.util.Collections;
 import java.util.HashMap;
+import java.util.Iterator;
 import java.util.LinkedHashMap;
 import java.util.LinkedList;
 import java.util.List;
 import java.util.Map;
+import java.util.Objects;
 import java.util.Set;
 import java.util.UUID;
 import java.util.concurrent.Callable;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
 import java.util.concurrent.Future;
+import java.util.concurrent.Semaphore;
 import java.util.concurrent.TimeUnit;
 import java.util.stream.Collectors;
 
@@ -140,6 +147,8 @@ public class RemoteEventHandlerTask extends AbstractTask implements EventHandler
   private static final String REMOTE_URL_HEARTBEAT_FREQUENCY = REMOTE_CONTROL  + "heartbeat.ping.frequency";
   private static final int DEFAULT_REMOTE_URL_HEARTBEAT_FREQUENCY = 60000;
   private static final int DEFAULT_REMOTE_URL_SYNC_EVENTS_PING_FREQUENCY = 5000;
+  static final String REMOTE_URL_SYNC_EVENTS_MAX_IN_FLIGHT = REMOTE_CONTROL + "sync.events.max.inflight";
+  private static final int DEFAULT_REMOTE_URL_SYNC_EVENTS_MAX_IN_FLIGHT = 4;
   private static final String DEFAULT_REMOTE_CONTROL_PROCESS_EVENTS_RECIPIENTS = "jobrunner-app,timeseries-app";
   private static final String TIMESERIES_APP = "timeseries-app";
   private static final String REMOTE_URL_PIPELINE_STATUSES_ENDPOINT = "jobrunner/rest/v1/job/pipelineStatusEvents";
@@ -178,6 +187,9 @@ public class RemoteEventHandlerTask extends AbstractTask implements EventHandler
   private String jobRunnerSdcHeartBeatUrl;
   private boolean shouldSendSyncEvents;
   private int percentOfWaitIntervalBeforeSkip;
+  private final int syncEventsMaxInFlight;
+  private ExecutorService syncStatusEventsExecutor;
+  private final RemoteEventMetrics eventMetrics;
   // config to send via sync or async fashion till SDC-13109 is in
   public static final String SHOULD_SEND_SYNC_EVENTS = AbstractSSOService.CONFIG_PREFIX + "should.send.sync.events";
   private static final boolean SHOULD_SEND_SYNC_EVENTS_DEFAULT = false;
@@ -244,6 +256,11 @@ public class RemoteEventHandlerTask extends AbstractTask implements EventHandler
     );
     sendAllPipelineMetricsInterval = conf.get(REMOTE_URL_SEND_ALL_PIPELINE_METRICS_INTERVAL_MILLIS, DEFAULT_PIPELINE_METRICS_INTERVAL);
     percentOfWaitIntervalBeforeSkip = conf.get(PERCENT_OF_WAIT_INTERVAL_BEFORE_SKIP, DEFAULT_PERCENT_OF_WAIT_INTERVAL_BEFORE_SKIP);
+    syncEventsMaxInFlight = Math.max(
+        conf.get(REMOTE_URL_SYNC_EVENTS_MAX_IN_FLIGHT, DEFAULT_REMOTE_URL_SYNC_EVENTS_MAX_IN_FLIGHT),
+        1
+    );
+    eventMetrics = new RemoteEventMetrics();
     requestHeader = new HashMap<>();
     requestHeader.put(SSOConstants.X_REST_CALL, SSOConstants.SDC_COMPONENT_NAME);
     requestHeader.put(SSOConstants.X_APP_AUTH_TOKEN, runtimeInfo.getAppAuthToken());
@@ -303,9 +320,26 @@ public class RemoteEventHandlerTask extends AbstractTask implements EventHandler
     return jobRunnerSdcProcessMetricsEventUrl;
   }
 
+  @VisibleForTesting
+  RemoteEventMetrics getEventMetrics() {
+    return eventMetrics;
+  }
+
+  // the pipeline status events sent by the sync thread are sent by up to syncEventsMaxInFlight threads
+  private synchronized ExecutorService getSyncStatusEventsExecutor() {
+    if (syncStatusEventsExecutor == null) {
+      syncStatusEventsExecutor = Executors.newFixedThreadPool(
+          syncEventsMaxInFlight,
+          new ThreadFactoryBuilder().setNameFormat("RemoteStatusEventSender-%d").setDaemon(true).build()
+      );
+    }
+    return syncStatusEventsExecutor;
+  }
+
 
   @Override
   public void runTask() {
+    eventMetrics.register(runtimeInfo.getMetrics());
     this.shouldSendSyncEvents = conf.get(SHOULD_SEND_SYNC_EVENTS, SHOULD_SEND_SYNC_EVENTS_DEFAULT);
     LOG.info("Will send sync events: {}", this.shouldSendSyncEvents);
     executorService.submit(new EventHandlerCallable(
@@ -385,6 +419,11 @@ public class RemoteEventHandlerTask extends AbstractTask implements EventHandler
   @Override
   public void stopTask() {
     executorService.shutdownNow();
+    synchronized (this) {
+      if (syncStatusEventsExecutor != null) {
+        syncStatusEventsExecutor.shutdownNow();
+      }
+    }
   }
 
   @Override
@@ -767,47 +806,122 @@ public class RemoteEventHandlerTask extends AbstractTask implements EventHandler
           LOG.warn(Utils.format("Error while sending pipeline updates to DPM: '{}'", e), e);
         }
       } else {
-        // get state of only remote pipelines which changed state
+        // get state of only remote pipelines which changed state, sending them concurrently with up to
+        // syncEventsMaxInFlight requests in flight, there is only one status per pipeline so they cannot be reordered
+        long sendStartTime = System.currentTimeMillis();
+        Semaphore inFlight = new Semaphore(syncEventsMaxInFlight);
+        List<Future<?>> sends = new ArrayList<>();
         try {
-          List<PipelineAndValidationStatus> pipelineAndValidationStatuses = remoteDataCollector.getRemotePipelinesWithChanges();
-          for (PipelineAndValidationStatus pipelineAndValidationStatus : pipelineAndValidationStatuses) {
+          for (PipelineAndValidationStatus pipelineAndValidationStatus :
+              coalesceStatuses(remoteDataCollector.getRemotePipelinesWithChanges())) {
             PipelineStatusEvent pipelineStatusEvent = createPipelineStatusEvent(jsonToFromDto,
                 pipelineAndValidationStatus
             );
+            inFlight.acquire();
             if (hasElapsedWaitPercentInterval(stopWatch, waitBetweenSendingStatusEvents, percentOfWaitIntervalBeforeSkip)) {
+              inFlight.release();
               LOG.warn("Timer already past {}% of wait interval, so not going to send any more pipeline updates",
                   percentOfWaitIntervalBeforeSkip);
               break;
+            } else if (syncEventsMaxInFlight == 1) {
+              try {
+                sendPipelineStatusEvent(pipelineStatusEvent);
+              } finally {
+                inFlight.release();
+              }
             } else {
-              LOG.debug(Utils.format(
-                  "Sending event for remote pipeline: '{}' in status: '{}' through sync thread",
-                  pipelineStatusEvent.getName(),
-                  pipelineStatusEvent.getPipelineStatus()
-              ));
-              long startTime = System.currentTimeMillis();
-              eventClient.sendSyncEvents(jobRunnerPipelineStatusEventUrl,
-                  new HashMap<>(),
-                  requestHeader,
-                  pipelineStatusEvent,
-                  1
-              );
-              long endTime = System.currentTimeMillis();
-              LOG.debug(Utils.format(
-                  "Ended sending event for remote pipeline: '{}' in status: '{}' through sync thread",
-                  pipelineStatusEvent.getName(),
-                  pipelineStatusEvent.getPipelineStatus()
-              ));
-              logWarningIfAPICallTimeExceedsThreshold(jobRunnerPipelineStatusEventUrl, 30000, startTime, endTime);
+              sends.add(getSyncStatusEventsExecutor().submit(() -> {
+                try {
+                  sendPipelineStatusEvent(pipelineStatusEvent);
+                } catch (Exception e) {
+                  LOG.error(Utils.format("Error while sending a single pipeline status to DPM: {}", e), e);
+                } finally {
+                  inFlight.release();
+                }
+              }));
             }
           }
+        } catch (InterruptedException e) {
+          // the task is being stopped, the sends in flight aren't waited for
+          LOG.debug("Interrupted while sending the pipeline statuses to DPM");
+          Thread.currentThread().interrupt();
         } catch (Exception e) {
           LOG.error(Utils.format("Error while sending a single pipeline status to DPM: {}", e), e);
+        } finally {
+          waitForSends(sends);
+          eventMetrics.syncStatusEventsSent(System.currentTimeMillis() - sendStartTime);
         }
       }
       if (!stopWatch.isRunning()) {
         stopWatch.start();
       }
     }
+
+    private void sendPipelineStatusEvent(PipelineStatusEvent pipelineStatusEvent) {
+      LOG.debug(Utils.format(
+          "Sending event for remote pipeline: '{}' in status: '{}' through sync thread",
+          pipelineStatusEvent.getName(),
+          pipelineStatusEvent.getPipelineStatus()
+      ));
+      long startTime = System.currentTimeMillis();
+      eventClient.sendSyncEvents(jobRunnerPipelineStatusEventUrl,
+          new HashMap<>(),
+          requestHeader,
+          pipelineStatusEvent,
+          1
+      );
+      long endTime = System.currentTimeMillis();
+      LOG.debug(Utils.format(
+          "Ended sending event for remote pipeline: '{}' in status: '{}' through sync thread",
+          pipelineStatusEvent.getName(),
+          pipelineStatusEvent.getPipelineStatus()
+      ));
+      logWarningIfAPICallTimeExceedsThreshold(jobRunnerPipelineStatusEventUrl, 30000, startTime, endTime);
+    }
+
+    private void waitForSends(List<Future<?>> sends) {
+      for (Future<?> send : sends) {
+        try {
+          send.get();
+        } catch (InterruptedException e) {
+          Thread.currentThread().interrupt();
+          return;
+        } catch (ExecutionException e) {
+          // already logged by the send
+        }
+      }
+    }
+  }
+
+  /**
+   * Returns one status per pipeline, the last one, in the order the pipelines first appear.
+   */
+  List<PipelineAndValidationStatus> coalesceStatuses(List<PipelineAndValidationStatus> statuses) {
+    Map<String, PipelineAndValidationStatus> latest = new LinkedHashMap<>();
+    for (PipelineAndValidationStatus status : statuses) {
+      if (latest.put(status.getName() + "::" + status.getRev(), status) != null) {
+        eventMetrics.statusEventCoalesced();
+      }
+    }
+    return (latest.size() == statuses.size()) ? statuses : new ArrayList<>(latest.values());
+  }
+
+  /**
+   * Adds the status event to the queued ones replacing the queued status event of the same pipeline if any.
+   */
+  void addStatusEvent(List<ClientEvent> statusEvents, ClientEvent statusEvent) {
+    PipelineStatusEvent pipelineStatusEvent = (PipelineStatusEvent) statusEvent.getEvent();
+    Iterator<ClientEvent> iterator = statusEvents.iterator();
+    while (iterator.hasNext()) {
+      Event queued = iterator.next().getEvent();
+      if (queued instanceof PipelineStatusEvent &&
+          Objects.equals(pipelineStatusEvent.getName(), ((PipelineStatusEvent) queued).getName()) &&
+          Objects.equals(pipelineStatusEvent.getRev(), ((PipelineStatusEvent) queued).getRev())) {
+        iterator.remove();
+        eventMetrics.statusEventCoalesced();
+      }
+    }
+    statusEvents.add(statusEvent);
   }
 
   static boolean hasElapsedWaitPercentInterval(
@@ -866,6 +980,8 @@ public class RemoteEventHandlerTask extends AbstractTask implements EventHandler
     private long delay;
     private Map<ServerEvent, Future<AckEvent>> eventToAckEventFuture;
     private RuntimeInfo runtimeInfo;
+    // acks of the last events received are waiting to be sent
+    private boolean acksPending;
 
     public EventHandlerCallable(
         DataCollector remoteDataCollector,
@@ -912,6 +1028,8 @@ public class RemoteEventHandlerTask extends AbstractTask implements EventHandler
         LOG.warn("Cannot connect to send/receive events: {}", ex.toString());
         LOG.trace("Entire error message", ex);
       } finally {
+        // the acks are sent right away instead of waiting for the next ping, Control Hub gets them and can send the
+        // next events to the data collector sooner
         executorService.schedule(new EventHandlerCallable(remoteDataCollector,
             eventClient,
             jsonToFromDto,
@@ -928,11 +1046,16 @@ public class RemoteEventHandlerTask extends AbstractTask implements EventHandler
             waitBetweenSendingPipelineMetrics,
             eventToAckEventFuture,
             runtimeInfo
-        ), delay, TimeUnit.MILLISECONDS);
+        ), acksPending ? 0 : delay, TimeUnit.MILLISECONDS);
       }
       return null;
     }
 
+    @VisibleForTesting
+    boolean isAcksPending() {
+      return acksPending;
+    }
+
     @VisibleForTesting
     long getDelay() {
       return this.delay;
@@ -979,8 +1102,9 @@ public class RemoteEventHandlerTask extends AbstractTask implements EventHandler
           ));
         } else {
           // get state of only remote pipelines which changed state
-          List<PipelineAndValidationStatus> pipelineAndValidationStatuses = remoteDataCollector
-              .getRemotePipelinesWithChanges();
+          // status events not sent yet because of a failed submit are replaced by the latest status of their pipeline
+          List<PipelineAndValidationStatus> pipelineAndValidationStatuses = coalesceStatuses(remoteDataCollector
+              .getRemotePipelinesWithChanges());
           for (PipelineAndValidationStatus pipelineAndValidationStatus : pipelineAndValidationStatuses) {
             PipelineStatusEvent pipelineStatusEvent = createPipelineStatusEvent(jsonToFromDto,
                 pipelineAndValidationStatus);
@@ -989,10 +1113,10 @@ public class RemoteEventHandlerTask extends AbstractTask implements EventHandler
                 false,
                 false,
                 EventType.STATUS_PIPELINE,
-                createPipelineStatusEvent(jsonToFromDto, pipelineAndValidationStatus),
+                pipelineStatusEvent,
                 null
             );
-            remoteEventList.add(clientEvent);
+            addStatusEvent(remoteEventList, clientEvent);
             LOG.info(Utils.format("Sending event for remote pipeline: '{}' in status: '{}'",
                 pipelineStatusEvent.getName(), pipelineStatusEvent.getPipelineStatus()));
           }
@@ -1042,9 +1166,17 @@ public class RemoteEventHandlerTask extends AbstractTask implements EventHandler
       } catch (IOException | PipelineException e) {
         LOG.warn("Error while sending metrics to server:  " + e, e);
       }
+      acksPending = false;
       try {
         List<ClientEventJson> clientEventJsonList = jsonToFromDto.toJson(clientEventList);
+        long submitStartTime = System.currentTimeMillis();
         serverEventJsonList = eventClient.submit(messagingEventsUrl, new HashMap<>(), requestHeader, false, clientEventJsonList);
+        eventMetrics.submitted(System.currentTimeMillis() - submitStartTime);
+        for (ClientEvent clientEvent : clientEventList) {
+          if (clientEvent.isAckEvent()) {
+            eventMetrics.ackSubmitted(clientEvent.getEventId());
+          }
+        }
         remoteEventList.clear();
         if (!eventToAckEventFuture.isEmpty()) {
           Set<String> eventIds = clientEventList.stream().map(ClientEvent::getEventId).collect(Collectors.toSet());
@@ -1059,6 +1191,7 @@ public class RemoteEventHandlerTask extends AbstractTask implements EventHandler
         }
       } catch (IOException | EventException e) {
         LOG.warn("Error while sending/receiving events to server:  " + e, e);
+        eventMetrics.setPending(remoteEventList.size(), ackEventList.size() + eventToAckEventFuture.size());
         return;
       }
       List<ClientEvent> ackClientEventList = new ArrayList<ClientEvent>();
@@ -1069,7 +1202,9 @@ public class RemoteEventHandlerTask extends AbstractTask implements EventHandler
         }
       }
       ackEventList = ackClientEventList;
+      acksPending = !ackEventList.isEmpty();
       sdcInfoEvent = null;
+      eventMetrics.setPending(remoteEventList.size(), ackEventList.size() + eventToAckEventFuture.size());
     }
 
     private String handleServerEvent(ServerEvent serverEvent) {
@@ -1083,6 +1218,7 @@ public class RemoteEventHandlerTask extends AbstractTask implements EventHandler
         ackEventMessage = result.getErrorMessage();
       } else {
         if (result.getFutureAck() != null) {
+          eventMetrics.eventReceived(serverEvent.getEventId());
           eventToAckEventFuture.put(serverEvent, result.getFutureAck());
         }
         if (result.getImmediateResult() != null) {
@@ -1143,6 +1279,9 @@ public class RemoteEventHandlerTask extends AbstractTask implements EventHandler
         );
         return null;
       }
+      if (serverEventJson.isRequiresAck()) {
+        eventMetrics.eventReceived(serverEventJson.getEventId());
+      }
       ServerEvent serverEvent = null;
       AckEventStatus ackEventStatus;
       String ackEventMessage;
@@ -1152,6 +1291,9 @@ public class RemoteEventHandlerTask extends AbstractTask implements EventHandler
           ackEventMessage = handleServerEvent(serverEvent);
           if (serverEvent.getEventType() == EventType.STOP_DELETE_PIPELINE) {
             // no sync ack with stop and delete pipeline event;
+            if (!eventToAckEventFuture.containsKey(serverEvent)) {
+              eventMetrics.ackDropped(serverEventJson.getEventId());
+            }
             return null;
           }
           ackEventStatus = ackEventMessage == null ? AckEventStatus.SUCCESS : AckEventStatus.ERROR;
@@ -0,0 +1,133 @@
+/*
+ * Copyright 2019 StreamSets Inc.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package com.streamsets.datacollector.event.handler.remote;
+
+import com.codahale.metrics.MetricRegistry;
+import com.streamsets.datacollector.metrics.MetricsConfigurator;
+
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.atomic.AtomicLong;
+
+/**
+ * Queue depth and latency of the events exchanged with Control Hub, reported in the <code>remoteEvents</code>
+ * framework gauge. Times are in milliseconds.
+ */
+class RemoteEventMetrics {
+  static final String PENDING_STATUS_EVENTS = "pendingStatusEvents";
+  static final String PENDING_ACKS = "pendingAcks";
+  static final String COALESCED_STATUS_EVENTS = "coalescedStatusEvents";
+  static final String SUBMIT_TIME = "submitTime";
+  static final String MAX_SUBMIT_TIME = "maxSubmitTime";
+  static final String ACK_LATENCY = "ackLatency";
+  static final String MAX_ACK_LATENCY = "maxAckLatency";
+  static final String SYNC_STATUS_EVENTS_SEND_TIME = "syncStatusEventsSendTime";
+
+  private static final long DEFAULT_ACK_TIMEOUT = TimeUnit.MINUTES.toMillis(10);
+
+  // status events waiting to be sent because the previous submit failed
+  private final AtomicInteger pendingStatusEvents = new AtomicInteger();
+  // events whose ack is waiting for its result or for the next submit
+  private final AtomicInteger pendingAcks = new AtomicInteger();
+  // status events dropped because a newer status of the same pipeline was queued
+  private final AtomicLong coalescedStatusEvents = new AtomicLong();
+  private final AtomicLong submitTime = new AtomicLong();
+  private final AtomicLong maxSubmitTime = new AtomicLong();
+  // from receiving an event to the successful submit of its ack
+  private final AtomicLong ackLatency = new AtomicLong();
+  private final AtomicLong maxAckLatency = new AtomicLong();
+  private final AtomicLong syncStatusEventsSendTime = new AtomicLong();
+
+  // events still waiting for their ack, those never acked are evicted after ackTimeout
+  private final Map<String, Long> ackReceivedAt = new ConcurrentHashMap<>();
+  private final long ackTimeout;
+
+  RemoteEventMetrics() {
+    this(DEFAULT_ACK_TIMEOUT);
+  }
+
+  RemoteEventMetrics(long ackTimeout) {
+    this.ackTimeout = ackTimeout;
+  }
+
+  void register(MetricRegistry metrics) {
+    Map<String, Object> gauge = MetricsConfigurator.createFrameworkGauge(
+        metrics,
+        "remoteEvents",
+        "runtime",
+        null
+    ).getValue();
+    gauge.put(PENDING_STATUS_EVENTS, pendingStatusEvents);
+    gauge.put(PENDING_ACKS, pendingAcks);
+    gauge.put(COALESCED_STATUS_EVENTS, coalescedStatusEvents);
+    gauge.put(SUBMIT_TIME, submitTime);
+    gauge.put(MAX_SUBMIT_TIME, maxSubmitTime);
+    gauge.put(ACK_LATENCY, ackLatency);
+    gauge.put(MAX_ACK_LATENCY, maxAckLatency);
+    gauge.put(SYNC_STATUS_EVENTS_SEND_TIME, syncStatusEventsSendTime);
+  }
+
+  void eventReceived(String eventId) {
+    long now = System.currentTimeMillis();
+    ackReceivedAt.values().removeIf(receivedAt -> now - receivedAt >= ackTimeout);
+    ackReceivedAt.putIfAbsent(eventId, now);
+  }
+
+  /**
+   * The event won't be acked, its receive time is dropped without updating the ack latency.
+   */
+  void ackDropped(String eventId) {
+    ackReceivedAt.remove(eventId);
+  }
+
+  void ackSubmitted(String eventId) {
+    Long receivedAt = ackReceivedAt.remove(eventId);
+    if (receivedAt != null) {
+      long latency = System.currentTimeMillis() - receivedAt;
+      ackLatency.set(latency);
+      maxAckLatency.accumulateAndGet(latency, Math::max);
+    }
+  }
+
+  void submitted(long time) {
+    submitTime.set(time);
+    maxSubmitTime.accumulateAndGet(time, Math::max);
+  }
+
+  void setPending(int statusEvents, int acks) {
+    pendingStatusEvents.set(statusEvents);
+    pendingAcks.set(acks);
+  }
+
+  void statusEventCoalesced() {
+    coalescedStatusEvents.incrementAndGet();
+  }
+
+  void syncStatusEventsSent(long time) {
+    syncStatusEventsSendTime.set(time);
+  }
+
+  long getCoalescedStatusEvents() {
+    return coalescedStatusEvents.get();
+  }
+
+  int getAwaitingAcks() {
+    return ackReceivedAt.size();
+  }
+
+}
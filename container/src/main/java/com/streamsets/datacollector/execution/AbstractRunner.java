@@ -164,6 +164,11 @@ public abstract  class AbstractRunner implements Runner {
     return pipelineStateStore.getHistory(getName(), getRev(), false);
   }
 
+  @Override
+  public List<PipelineState> getHistory(int offset, int len) throws PipelineStoreException {
+    return pipelineStateStore.getHistory(getName(), getRev(), offset, len);
+  }
+
   @Override
   public void deleteHistory() {
     pipelineStateStore.deleteHistory(getName(), getRev());
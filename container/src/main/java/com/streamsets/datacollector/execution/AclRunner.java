@@ -182,6 +182,11 @@ public class AclRunner implements Runner {
     return runner.getHistory();
   }
 
+  @Override
+  public List<PipelineState> getHistory(int offset, int len) throws PipelineStoreException {
+    return runner.getHistory(offset, len);
+  }
+
   @Override
   public void deleteHistory() throws PipelineException {
     aclStore.validateWritePermission(this.getName(), currentUser);
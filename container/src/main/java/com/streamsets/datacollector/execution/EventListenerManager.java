@@ -22,12 +22,14 @@ import com.streamsets.datacollector.alerts.AlertEventListener;
 import com.streamsets.datacollector.execution.alerts.AlertInfo;
 import com.streamsets.datacollector.json.ObjectMapperFactory;
 import com.streamsets.datacollector.metrics.MetricsEventListener;
+import com.streamsets.datacollector.metrics.MetricsSnapshot;
 import com.streamsets.datacollector.restapi.bean.BeanHelper;
 import com.streamsets.dc.execution.manager.standalone.ThreadUsage;
 import org.slf4j.Logger;
 import org.slf4j.LoggerFactory;
 
 import java.util.ArrayList;
+import java.util.Collections;
 import java.util.HashMap;
 import java.util.List;
 import java.util.Map;
@@ -148,20 +150,32 @@ public class EventListenerManager {
   }
 
   public void broadcastMetrics(String pipelineName, String metricsJSONStr) {
-    if(metricsEventListenerMap.containsKey(pipelineName) && metricsEventListenerMap.get(pipelineName).size() > 0) {
-      List<MetricsEventListener> metricsEventListenerListCopy;
-      synchronized (metricsEventListenerMap) {
-        metricsEventListenerListCopy = new ArrayList<>(metricsEventListenerMap.get(pipelineName));
+    for(MetricsEventListener metricsEventListener : getMetricsEventListeners(pipelineName)) {
+      try {
+        metricsEventListener.notification(metricsJSONStr);
+      } catch(Exception ex) {
+        LOG.warn("Error while notifying metrics, {}", ex.toString(), ex);
       }
+    }
+  }
 
-      for(MetricsEventListener metricsEventListener : metricsEventListenerListCopy) {
-        try {
-          metricsEventListener.notification(metricsJSONStr);
-        } catch(Exception ex) {
-          LOG.warn("Error while notifying metrics, {}", ex.toString(), ex);
-        }
+  public void broadcastMetrics(String pipelineName, MetricsSnapshot metricsSnapshot) {
+    for(MetricsEventListener metricsEventListener : getMetricsEventListeners(pipelineName)) {
+      try {
+        metricsEventListener.notification(metricsSnapshot);
+      } catch(Exception ex) {
+        LOG.warn("Error while notifying metrics, {}", ex.toString(), ex);
+      }
+    }
+  }
+
+  private List<MetricsEventListener> getMetricsEventListeners(String pipelineName) {
+    if(metricsEventListenerMap.containsKey(pipelineName) && metricsEventListenerMap.get(pipelineName).size() > 0) {
+      synchronized (metricsEventListenerMap) {
+        return new ArrayList<>(metricsEventListenerMap.get(pipelineName));
       }
     }
+    return Collections.emptyList();
   }
 
 }
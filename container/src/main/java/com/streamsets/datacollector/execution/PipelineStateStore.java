@@ -59,6 +59,9 @@ public interface PipelineStateStore {
 
   public List<PipelineState> getHistory(String name, String rev, boolean fromBeginning) throws PipelineStoreException;
 
+  // newest states first, skipping the newest 'offset' states and returning up to 'len' states, all if 'len' is negative
+  public List<PipelineState> getHistory(String name, String rev, int offset, int len) throws PipelineStoreException;
+
   public void deleteHistory(String name, String rev);
 
   public void init();
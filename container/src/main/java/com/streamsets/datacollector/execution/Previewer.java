@@ -18,6 +18,7 @@ package com.streamsets.datacollector.execution;
 import com.streamsets.datacollector.callback.CallbackInfo;
 import com.streamsets.datacollector.event.dto.PipelineStartEvent;
 import com.streamsets.datacollector.runner.StageOutput;
+import com.streamsets.datacollector.runner.preview.StreamingPreviewBuffer;
 import com.streamsets.datacollector.util.PipelineException;
 
 import javax.ws.rs.core.MultivaluedMap;
@@ -70,6 +71,16 @@ public interface Previewer {
 
   PreviewOutput getOutput();
 
+  // Stream the stage outputs of the next start() to the given buffer while the preview runs, the output then has no
+  // batches. Only for previewers that run the preview locally.
+  default void setStreamingOutput(StreamingPreviewBuffer streamingOutput) {
+    throw new UnsupportedOperationException("Streaming preview is not supported by " + getClass().getSimpleName());
+  }
+
+  default StreamingPreviewBuffer getStreamingOutput() {
+    return null;
+  }
+
   default Map<String, Object> getAttributes() {
     return null;
   }
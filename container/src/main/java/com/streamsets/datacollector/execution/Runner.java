@@ -159,6 +159,10 @@ public interface Runner {
   // delegates to the the PipelineStateStore
   public List<PipelineState> getHistory() throws PipelineStoreException;
 
+  // a page of the pipeline history, newest states first, all states from offset if len is negative
+  // delegates to the the PipelineStateStore
+  public List<PipelineState> getHistory(int offset, int len) throws PipelineStoreException;
+
   public void deleteHistory() throws PipelineException;
 
   // gets the current pipeline metrics
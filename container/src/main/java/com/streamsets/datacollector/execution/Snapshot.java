@@ -26,4 +26,8 @@ public interface Snapshot extends Closeable {
 
   public InputStream getOutput() throws PipelineException;
 
+  // returns a page of the output of one stage in one batch, null if the snapshot has no such stage output
+  // The caller must close the stream
+  public InputStream getStageOutput(String instanceName, int batch, int offset, int length) throws PipelineException;
+
 }
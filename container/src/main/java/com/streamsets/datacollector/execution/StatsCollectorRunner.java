@@ -202,6 +202,11 @@ public class StatsCollectorRunner implements Runner {
     return runner.getHistory();
   }
 
+  @Override
+  public List<PipelineState> getHistory(int offset, int len) throws PipelineStoreException {
+    return runner.getHistory(offset, len);
+  }
+
   @Override
   public void deleteHistory() throws PipelineException {
     runner.deleteHistory();
@@ -16,7 +16,6 @@
 package com.streamsets.datacollector.execution.metrics;
 
 import com.codahale.metrics.MetricRegistry;
-import com.fasterxml.jackson.databind.ObjectMapper;
 import com.google.common.base.Stopwatch;
 import com.google.common.collect.ImmutableList;
 import com.streamsets.datacollector.callback.CallbackInfo;
@@ -35,6 +34,8 @@ import com.streamsets.datacollector.execution.runner.standalone.StandaloneRunner
 import com.streamsets.datacollector.http.SnappyWriterInterceptor;
 import com.streamsets.datacollector.json.ObjectMapperFactory;
 import com.streamsets.datacollector.main.RuntimeInfo;
+import com.streamsets.datacollector.metrics.MetricsDeltaEncoder;
+import com.streamsets.datacollector.metrics.MetricsSnapshot;
 import com.streamsets.datacollector.event.json.CounterJson;
 import com.streamsets.datacollector.event.json.MeterJson;
 import com.streamsets.datacollector.event.json.MetricRegistryJson;
@@ -109,6 +110,7 @@ public class MetricsEventRunnable implements Runnable {
   private boolean isPipelineStopped = false;
   private WebTarget webTarget;
   private Stopwatch stopwatch = null;
+  private final MetricsDeltaEncoder metricsEncoder = new MetricsDeltaEncoder();
 
   @Inject
   public MetricsEventRunnable(
@@ -169,26 +171,27 @@ public class MetricsEventRunnable implements Runnable {
       if(threadHealthReporter != null) {
         threadHealthReporter.reportHealth(RUNNABLE_NAME, scheduledDelay, System.currentTimeMillis());
       }
-      ObjectMapper objectMapper = ObjectMapperFactory.get();
       PipelineState state = pipelineStateStore.getState(name, rev);
       if (hasMetricEventListeners(state) ||
           (isDPMPipeline && (isWriteStatsToDPMDirectlyEnabled() || isStatAggregationEnabled()))) {
         // compute aggregated metrics in case of cluster mode pipeline
         // get individual pipeline metrics if non cluster mode pipeline
-        String metricsJSONStr;
+        Object metrics;
         if (state.getExecutionMode() == ExecutionMode.CLUSTER_BATCH
           || state.getExecutionMode() == ExecutionMode.CLUSTER_YARN_STREAMING
           || state.getExecutionMode() == ExecutionMode.CLUSTER_MESOS_STREAMING) {
-          MetricRegistryJson json = getAggregatedMetrics();
-          metricsJSONStr = objectMapper.writer().writeValueAsString(json);
+          metrics = getAggregatedMetrics();
         } else if (state.getExecutionMode() == ExecutionMode.BATCH
             || state.getExecutionMode() == ExecutionMode.STREAMING && metricRegistryJson != null) {
-          metricsJSONStr = objectMapper.writer().writeValueAsString(metricRegistryJson);
+          metrics = metricRegistryJson;
         } else {
-          metricsJSONStr = objectMapper.writer().writeValueAsString(metricRegistry);
+          metrics = metricRegistry;
         }
+        // serialized once per refresh, all listeners share the snapshot
+        MetricsSnapshot metricsSnapshot = metricsEncoder.encode(metrics);
+        String metricsJSONStr = metricsSnapshot.getJson();
         if (hasMetricEventListeners(state)) {
-          eventListenerManager.broadcastMetrics(name, metricsJSONStr);
+          eventListenerManager.broadcastMetrics(name, metricsSnapshot);
         }
         // don't queue stats record when pipeline is stopped as runner is not going to process any more batches
         if (isStatAggregationEnabled() && !isPipelineStopped) {
@@ -208,7 +211,7 @@ public class MetricsEventRunnable implements Runnable {
         } else if (isDPMPipeline && isWriteStatsToDPMDirectlyEnabled() &&
             state.getExecutionMode() != ExecutionMode.SLAVE) {
           // Write Stats to Control hub is not supported for slave nodes
-          sendMetricsToDPM(pipelineConfiguration, metricsJSONStr);
+          sendMetricsToDPM(pipelineConfiguration, metricsSnapshot);
         }
       }
     } catch (IOException ex) {
@@ -349,7 +352,7 @@ public class MetricsEventRunnable implements Runnable {
 
   private void sendMetricsToDPM(
       PipelineConfiguration pipelineConfiguration,
-      String metricsJSONStr
+      MetricsSnapshot metricsSnapshot
   ) throws IOException {
     if (stopwatch == null || stopwatch.elapsed(TimeUnit.MILLISECONDS) > waitTimeBetweenUpdates || isPipelineStopped) {
       SDCMetricsJson sdcMetricsJson = new SDCMetricsJson();
@@ -360,7 +363,9 @@ public class MetricsEventRunnable implements Runnable {
       if (metricRegistryJson != null) {
         sdcMetricsJson.setMetrics(metricRegistryJson);
       } else {
-        sdcMetricsJson.setMetrics(ObjectMapperFactory.get().readValue(metricsJSONStr, MetricRegistryJson.class));
+        sdcMetricsJson.setMetrics(
+            ObjectMapperFactory.get().treeToValue(metricsSnapshot.getMetrics(), MetricRegistryJson.class)
+        );
       }
       Map<String, String> metadata = new HashMap<>();
       if (pipelineConfiguration.getMetadata() != null && !pipelineConfiguration.getMetadata().isEmpty()) {
@@ -24,6 +24,7 @@ import com.streamsets.datacollector.execution.preview.common.PreviewError;
 import com.streamsets.datacollector.execution.preview.sync.SyncPreviewer;
 import com.streamsets.datacollector.runner.PipelineRuntimeException;
 import com.streamsets.datacollector.runner.StageOutput;
+import com.streamsets.datacollector.runner.preview.StreamingPreviewBuffer;
 import com.streamsets.datacollector.util.PipelineException;
 import com.streamsets.pipeline.lib.executor.SafeScheduledExecutorService;
 
@@ -157,6 +158,16 @@ public class AsyncPreviewer implements Previewer {
     return (future.isDone() || syncPreviewer.getOutput() != null) ? syncPreviewer.getOutput() : null;
   }
 
+  @Override
+  public void setStreamingOutput(StreamingPreviewBuffer streamingOutput) {
+    syncPreviewer.setStreamingOutput(streamingOutput);
+  }
+
+  @Override
+  public StreamingPreviewBuffer getStreamingOutput() {
+    return syncPreviewer.getStreamingOutput();
+  }
+
   private void scheduleTimeout(long timeoutMillis) {
     executorService.schedule(new Callable<Object>() {
       @Override
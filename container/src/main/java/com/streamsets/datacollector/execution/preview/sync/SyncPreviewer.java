@@ -45,6 +45,7 @@ import com.streamsets.datacollector.runner.preview.PreviewPipelineBuilder;
 import com.streamsets.datacollector.runner.preview.PreviewPipelineOutput;
 import com.streamsets.datacollector.runner.preview.PreviewPipelineRunner;
 import com.streamsets.datacollector.runner.preview.PreviewSourceOffsetTracker;
+import com.streamsets.datacollector.runner.preview.StreamingPreviewBuffer;
 import com.streamsets.datacollector.stagelibrary.StageLibraryTask;
 import com.streamsets.datacollector.store.PipelineStoreException;
 import com.streamsets.datacollector.store.PipelineStoreTask;
@@ -103,6 +104,7 @@ public class SyncPreviewer implements Previewer {
   private volatile PreviewOutput previewOutput;
   private volatile PreviewPipeline previewPipeline;
   private volatile boolean timingOut = false;
+  private volatile StreamingPreviewBuffer streamingOutput;
 
   public SyncPreviewer(
       String id,
@@ -347,6 +349,16 @@ public class SyncPreviewer implements Previewer {
     return null;
   }
 
+  @Override
+  public void setStreamingOutput(StreamingPreviewBuffer streamingOutput) {
+    this.streamingOutput = streamingOutput;
+  }
+
+  @Override
+  public StreamingPreviewBuffer getStreamingOutput() {
+    return streamingOutput;
+  }
+
   @VisibleForTesting
   PreviewPipeline buildPreviewPipeline(
       int batches,
@@ -379,6 +391,9 @@ public class SyncPreviewer implements Previewer {
         skipLifecycleEvents,
         testOrigin
     );
+    if (streamingOutput != null) {
+      runner.setStreamingOutput(streamingOutput);
+    }
     return new PreviewPipelineBuilder(
         stageLibrary,
         configuration,
@@ -474,6 +489,10 @@ public class SyncPreviewer implements Previewer {
     this.previewStatus = previewStatus;
     this.previewOutput = previewOutput;
     this.previewerListener.statusChange(id, previewStatus);
+    if (streamingOutput != null && !previewStatus.isActive()) {
+      // the final status and output are set, the client streaming the output can finish
+      streamingOutput.close();
+    }
   }
 
   private StageDefinition getSourceStageDef(PipelineConfiguration pipelineConf) {
@@ -0,0 +1,171 @@
+/*
+ * Copyright 2019 StreamSets Inc.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package com.streamsets.datacollector.execution.runner.common;
+
+import com.codahale.metrics.Gauge;
+import com.google.common.annotations.VisibleForTesting;
+import com.google.common.base.Preconditions;
+import com.streamsets.datacollector.util.Configuration;
+
+import java.lang.management.ManagementFactory;
+import java.lang.management.MemoryMXBean;
+import java.lang.management.MemoryPoolMXBean;
+import java.lang.management.MemoryType;
+import java.lang.management.MemoryUsage;
+
+/**
+ * Picks the batch size requested from the origin so that a batch takes about the target latency end to end.
+ * <p/>
+ * After every batch the time per record is folded into an exponentially weighted moving average and the next size is
+ * the target latency divided by it, within the configured bounds. The size moves by at most a factor per batch so a
+ * single slow or fast batch doesn't swing it. Partial batches, where the origin had less data than asked for or caps
+ * its batches below the requested size, are only taken into account when they take longer than the target latency,
+ * and then only shrink the size: they say nothing about how long a batch of the requested size takes and the fixed
+ * cost of a small batch would shrink the size, but a partial batch that is already too slow means that the requested
+ * size is too large. When the heap usage left after the last garbage collection of the tenured generation goes over
+ * the threshold the size is halved regardless of the latency.
+ */
+public class AdaptiveBatchSizer implements Gauge<Integer> {
+
+  public static final String ENABLED_KEY = "production.adaptiveBatchSize.enabled";
+  public static final boolean ENABLED_DEFAULT = false;
+  public static final String TARGET_LATENCY_MS_KEY = "production.adaptiveBatchSize.targetLatencyMs";
+  public static final long TARGET_LATENCY_MS_DEFAULT = 1000;
+  public static final String MIN_BATCH_SIZE_KEY = "production.adaptiveBatchSize.minBatchSize";
+  public static final int MIN_BATCH_SIZE_DEFAULT = 10;
+  public static final String HEAP_THRESHOLD_KEY = "production.adaptiveBatchSize.heapThreshold";
+  public static final String HEAP_THRESHOLD_DEFAULT = "0.85";
+
+  // weight of the last batch in the moving average of the time per record
+  private static final double ALPHA = 0.3;
+  private static final double MAX_GROWTH = 1.25;
+  private static final double MAX_SHRINK = 0.5;
+
+  private static final MemoryMXBean MEMORY = ManagementFactory.getMemoryMXBean();
+  // the pool objects are promoted to, null if the JVM has none that reports its usage after a collection
+  private static final MemoryPoolMXBean TENURED_POOL = findTenuredPool();
+
+  private final int minBatchSize;
+  private final int maxBatchSize;
+  private final long targetLatencyMs;
+  private final double heapThreshold;
+  private volatile int batchSize;
+  private double msPerRecord = -1;
+
+  public AdaptiveBatchSizer(int minBatchSize, int maxBatchSize, long targetLatencyMs, double heapThreshold) {
+    Preconditions.checkArgument(minBatchSize > 0, "Minimum batch size must be greater than zero: %s", minBatchSize);
+    Preconditions.checkArgument(
+        maxBatchSize >= minBatchSize,
+        "Maximum batch size '%s' must not be lower than the minimum '%s'",
+        maxBatchSize,
+        minBatchSize
+    );
+    Preconditions.checkArgument(targetLatencyMs > 0, "Target latency must be greater than zero: %s", targetLatencyMs);
+    this.minBatchSize = minBatchSize;
+    this.maxBatchSize = maxBatchSize;
+    this.targetLatencyMs = targetLatencyMs;
+    this.heapThreshold = heapThreshold;
+    // start low and let full batches grow it, a too large first batch is what the controller is here to avoid
+    batchSize = minBatchSize;
+  }
+
+  /**
+   * Returns the controller configured in the SDC configuration, null if adaptive batch sizing is disabled.
+   */
+  public static AdaptiveBatchSizer create(Configuration configuration) {
+    if (!configuration.get(ENABLED_KEY, ENABLED_DEFAULT)) {
+      return null;
+    }
+    int maxBatchSize = configuration.get(Constants.MAX_BATCH_SIZE_KEY, Constants.MAX_BATCH_SIZE_DEFAULT);
+    return new AdaptiveBatchSizer(
+        Math.min(configuration.get(MIN_BATCH_SIZE_KEY, MIN_BATCH_SIZE_DEFAULT), maxBatchSize),
+        maxBatchSize,
+        configuration.get(TARGET_LATENCY_MS_KEY, TARGET_LATENCY_MS_DEFAULT),
+        Double.parseDouble(configuration.get(HEAP_THRESHOLD_KEY, HEAP_THRESHOLD_DEFAULT))
+    );
+  }
+
+  /**
+   * Returns the batch size to request from the origin for the next batch.
+   */
+  public int getBatchSize() {
+    return batchSize;
+  }
+
+  @Override
+  public Integer getValue() {
+    return batchSize;
+  }
+
+  /**
+   * Updates the batch size with the outcome of a batch.
+   *
+   * @param requested batch size the batch was requested with
+   * @param records records produced by the origin
+   * @param durationMs time it took to run the batch through the pipeline once the origin returned it
+   */
+  public void update(int requested, int records, long durationMs) {
+    update(requested, records, durationMs, heapUsage());
+  }
+
+  @VisibleForTesting
+  synchronized void update(int requested, int records, long durationMs, double heapUsage) {
+    int size = batchSize;
+    if (heapUsage > heapThreshold) {
+      size = (int) (size * MAX_SHRINK);
+    } else if (records > 0 && (records >= requested || durationMs > targetLatencyMs)) {
+      double lastMsPerRecord = (double) durationMs / records;
+      msPerRecord = (msPerRecord < 0) ? lastMsPerRecord : ALPHA * lastMsPerRecord + (1 - ALPHA) * msPerRecord;
+      double desired = (msPerRecord > 0) ? targetLatencyMs / msPerRecord : Double.MAX_VALUE;
+      if (records < requested) {
+        // at most the number of records that would have kept this batch within the target latency
+        desired = Math.min(desired, records * (double) targetLatencyMs / durationMs);
+      }
+      desired = Math.max(desired, size * MAX_SHRINK);
+      desired = Math.min(desired, size * MAX_GROWTH);
+      // always move at least a record when growing so small sizes aren't stuck by the rounding
+      size = (desired > size) ? Math.max((int) desired, size + 1) : (int) desired;
+    }
+    batchSize = Math.max(minBatchSize, Math.min(maxBatchSize, size));
+  }
+
+  private static double heapUsage() {
+    MemoryUsage usage = null;
+    if (TENURED_POOL != null) {
+      // what is left once the garbage collector ran, the current usage also counts the garbage not collected yet
+      usage = TENURED_POOL.getCollectionUsage();
+    }
+    if (usage == null || usage.getMax() <= 0) {
+      usage = MEMORY.getHeapMemoryUsage();
+    }
+    return (usage.getMax() > 0) ? (double) usage.getUsed() / usage.getMax() : 0;
+  }
+
+  /**
+   * Returns the heap pool of the old generation, the only heap pool that supports a usage threshold.
+   */
+  private static MemoryPoolMXBean findTenuredPool() {
+    for (MemoryPoolMXBean pool : ManagementFactory.getMemoryPoolMXBeans()) {
+      if (pool.getType() == MemoryType.HEAP &&
+          pool.isUsageThresholdSupported() &&
+          pool.isCollectionUsageThresholdSupported()) {
+        return pool;
+      }
+    }
+    return null;
+  }
+
+}
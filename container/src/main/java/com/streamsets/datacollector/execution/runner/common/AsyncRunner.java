@@ -203,6 +203,11 @@ public class AsyncRunner implements Runner, PipelineInfo {
     return runner.getHistory();
   }
 
+  @Override
+  public List<PipelineState> getHistory(int offset, int len) throws PipelineStoreException {
+    return runner.getHistory(offset, len);
+  }
+
   @Override
   public void deleteHistory() throws PipelineException {
     runner.deleteHistory();
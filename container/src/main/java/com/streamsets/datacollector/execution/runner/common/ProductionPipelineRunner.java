@@ -147,6 +147,7 @@ public class ProductionPipelineRunner implements PipelineRunner, PushSourceConte
   private final Counter batchErrorRecordsCounter;
   private final Counter batchErrorMessagesCounter;
   private final Histogram runnersHistogram;
+  private final AdaptiveBatchSizer adaptiveBatchSizer;
   private MetricRegistryJson metricRegistryJson;
   private Long rateLimit;
 
@@ -241,6 +242,10 @@ public class ProductionPipelineRunner implements PipelineRunner, PushSourceConte
     batchErrorMessagesCounter = MetricsConfigurator.createCounter(metrics, "pipeline.batchErrorMessages", pipelineName,
       revision);
     runnersHistogram = MetricsConfigurator.createHistogram5Min(metrics, "pipeline.runners", pipelineName, revision);
+    adaptiveBatchSizer = AdaptiveBatchSizer.create(configuration);
+    if (adaptiveBatchSizer != null) {
+      MetricsConfigurator.createGauge(metrics, "pipeline.adaptiveBatchSize", adaptiveBatchSizer, pipelineName, revision);
+    }
   }
 
   public void setObserveRequests(BlockingQueue<Object> observeRequests) {
@@ -446,12 +451,12 @@ public class ProductionPipelineRunner implements PipelineRunner, PushSourceConte
     }
   }
 
-  private FullPipeBatch createFullPipeBatch(String entityName, String previousOffset) {
+  private FullPipeBatch createFullPipeBatch(String entityName, String previousOffset, int batchSize) {
     FullPipeBatch pipeBatch;
     if(batchesToCapture > 0) {
       pipeBatch = new FullPipeBatch(entityName, previousOffset, snapshotBatchSize, true);
     } else {
-      pipeBatch = new FullPipeBatch(entityName, previousOffset, configuration.get(Constants.MAX_BATCH_SIZE_KEY, Constants.MAX_BATCH_SIZE_DEFAULT), false);
+      pipeBatch = new FullPipeBatch(entityName, previousOffset, batchSize, false);
     }
     pipeBatch.setRateLimiter(rateLimiter);
 
@@ -465,7 +470,12 @@ public class ProductionPipelineRunner implements PipelineRunner, PushSourceConte
       observer.reconfigure();
     }
 
-    FullPipeBatch pipeBatch = createFullPipeBatch(null,null);
+    // Push origins were already given their maximal batch size, the batch maker must allow it
+    FullPipeBatch pipeBatch = createFullPipeBatch(
+        null,
+        null,
+        configuration.get(Constants.MAX_BATCH_SIZE_KEY, Constants.MAX_BATCH_SIZE_DEFAULT)
+    );
     BatchContextImpl batchContext = new BatchContextImpl(pipeBatch);
 
     originPipe.prepareBatchContext(batchContext);
@@ -576,7 +586,14 @@ public class ProductionPipelineRunner implements PipelineRunner, PushSourceConte
 
       // Start of the batch execution
       long start = System.currentTimeMillis();
-      FullPipeBatch pipeBatch = createFullPipeBatch(Source.POLL_SOURCE_OFFSET_KEY, offsetTracker.getOffsets().get(Source.POLL_SOURCE_OFFSET_KEY));
+      int batchSize = (adaptiveBatchSizer != null)
+          ? adaptiveBatchSizer.getBatchSize()
+          : configuration.get(Constants.MAX_BATCH_SIZE_KEY, Constants.MAX_BATCH_SIZE_DEFAULT);
+      FullPipeBatch pipeBatch = createFullPipeBatch(
+          Source.POLL_SOURCE_OFFSET_KEY,
+          offsetTracker.getOffsets().get(Source.POLL_SOURCE_OFFSET_KEY),
+          batchSize
+      );
 
       // Run origin
       Map<String, Long> memoryConsumedByStage = new HashMap<>();
@@ -590,6 +607,8 @@ public class ProductionPipelineRunner implements PipelineRunner, PushSourceConte
         memoryConsumedByStage,
         stageBatchMetrics
       );
+      // the time the origin waited for data isn't part of the latency the batch size is adapted to
+      long originEnd = System.currentTimeMillis();
 
       // Since the origin already run, the FullPipeBatch will have a new offset
       String newOffset = pipeBatch.getNewOffset();
@@ -623,6 +642,11 @@ public class ProductionPipelineRunner implements PipelineRunner, PushSourceConte
         Throwables.propagate(t);
       }
 
+      // Batches captured for a snapshot have their own size, they don't tell about the adaptive one
+      if (adaptiveBatchSizer != null && !pipeBatch.isIdleBatch() && pipeBatch.getBatchSize() == batchSize) {
+        adaptiveBatchSizer.update(batchSize, pipeBatch.getInputRecords(), System.currentTimeMillis() - originEnd);
+      }
+
       for (BatchListener batchListener : batchListenerList) {
         batchListener.postBatch();
       }
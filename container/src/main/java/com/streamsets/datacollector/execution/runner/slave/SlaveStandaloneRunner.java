@@ -200,6 +200,11 @@ public class SlaveStandaloneRunner implements Runner, PipelineInfo  {
     return standaloneRunner.getHistory();
   }
 
+  @Override
+  public List<PipelineState> getHistory(int offset, int len) throws PipelineStoreException {
+    return standaloneRunner.getHistory(offset, len);
+  }
+
   @Override
   public void deleteHistory() {
     throw new UnsupportedOperationException();
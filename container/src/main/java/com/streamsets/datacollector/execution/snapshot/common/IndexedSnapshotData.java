@@ -0,0 +1,360 @@
+/*
+ * Copyright 2019 StreamSets Inc.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package com.streamsets.datacollector.execution.snapshot.common;
+
+import com.fasterxml.jackson.annotation.JsonIgnore;
+import com.fasterxml.jackson.core.JsonGenerator;
+import com.fasterxml.jackson.databind.JsonNode;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.fasterxml.jackson.databind.node.ObjectNode;
+import com.google.common.annotations.VisibleForTesting;
+import com.google.common.io.ByteStreams;
+import com.google.common.io.CountingOutputStream;
+import com.streamsets.datacollector.json.ObjectMapperFactory;
+import com.streamsets.datacollector.record.io.KryoRecordReader;
+import com.streamsets.datacollector.record.io.RecordEncoding;
+import com.streamsets.datacollector.record.io.SdcJsonRecordReader;
+import com.streamsets.datacollector.record.io.SdcJsonRecordWriter;
+import com.streamsets.datacollector.restapi.bean.BeanHelper;
+import com.streamsets.datacollector.restapi.bean.StageOutputJson;
+import com.streamsets.datacollector.runner.StageOutput;
+import com.streamsets.pipeline.api.Record;
+import com.streamsets.pipeline.api.ext.RecordReader;
+import com.streamsets.pipeline.api.ext.RecordWriter;
+import org.apache.commons.io.output.CloseShieldOutputStream;
+
+import java.io.BufferedInputStream;
+import java.io.ByteArrayInputStream;
+import java.io.ByteArrayOutputStream;
+import java.io.File;
+import java.io.FileInputStream;
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.OutputStream;
+import java.util.ArrayList;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.zip.GZIPInputStream;
+import java.util.zip.GZIPOutputStream;
+
+/**
+ * Snapshot data stored as compressed records plus an index, so a page of the output of one stage can be read without
+ * reading the whole snapshot.
+ * <p/>
+ * The data file holds the records of every stage output of every batch in chunks of at most {@link #CHUNK_RECORDS}
+ * records. Each chunk is a separate GZIP member with the records in an SDC record encoding, so reading can start at
+ * any chunk. The records of a stage output are its output lanes, in the order of the index, then its error records and
+ * then its event records. The index keeps for each stage output its record counts, its stage errors and the offsets of
+ * its chunks.
+ */
+public class IndexedSnapshotData {
+  @VisibleForTesting
+  static final int CHUNK_RECORDS = 100;
+
+  static final String BATCH = "batch";
+  static final String OFFSET = "offset";
+  static final String TOTAL_RECORDS = "totalRecords";
+  static final String STAGE_OUTPUT = "stageOutput";
+
+  private static final String STAGE_ERRORS = "stageErrors";
+
+  private final File dataFile;
+  private final Index index;
+
+  public IndexedSnapshotData(File dataFile, Index index) {
+    this.dataFile = dataFile;
+    this.index = index;
+  }
+
+  public Index getIndex() {
+    return index;
+  }
+
+  public static class Index {
+    public String encoding;
+    public List<List<Entry>> batches = new ArrayList<>();
+  }
+
+  public static class Entry {
+    public String instanceName;
+    // records per output lane
+    public Map<String, Integer> output = new LinkedHashMap<>();
+    // null if the stage output had no list
+    public Integer errorRecords;
+    public Integer eventRecords;
+    public JsonNode stageErrors;
+    // offset of each chunk in the data file, the last one ends at end
+    public List<Long> chunks = new ArrayList<>();
+    public long end;
+
+    @JsonIgnore
+    int getRecordCount() {
+      int count = 0;
+      for (int records : output.values()) {
+        count += records;
+      }
+      return count + count(errorRecords) + count(eventRecords);
+    }
+  }
+
+  /**
+   * Writes the records of the given batches to the data stream and returns their index.
+   */
+  public static Index write(List<List<StageOutput>> snapshotBatches, OutputStream os) throws IOException {
+    ObjectMapper json = ObjectMapperFactory.getOneLine();
+    CountingOutputStream counting = new CountingOutputStream(os);
+    Index index = new Index();
+    index.encoding = RecordEncoding.JSON1.name();
+    for (List<StageOutput> snapshotBatch : snapshotBatches) {
+      List<Entry> entries = new ArrayList<>(snapshotBatch.size());
+      for (StageOutput stageOutput : snapshotBatch) {
+        Entry entry = new Entry();
+        entry.instanceName = stageOutput.getInstanceName();
+        List<Record> records = new ArrayList<>();
+        if (stageOutput.getOutput() != null) {
+          for (Map.Entry<String, List<Record>> lane : stageOutput.getOutput().entrySet()) {
+            entry.output.put(lane.getKey(), addAll(records, lane.getValue()));
+          }
+        }
+        if (stageOutput.getErrorRecords() != null) {
+          entry.errorRecords = addAll(records, stageOutput.getErrorRecords());
+        }
+        if (stageOutput.getEventRecords() != null) {
+          entry.eventRecords = addAll(records, stageOutput.getEventRecords());
+        }
+        entry.stageErrors = json.valueToTree(BeanHelper.wrapErrorMessages(stageOutput.getStageErrors()));
+        for (int i = 0; i < records.size(); i += CHUNK_RECORDS) {
+          entry.chunks.add(counting.getCount());
+          RecordWriter writer = new SdcJsonRecordWriter(new GZIPOutputStream(new CloseShieldOutputStream(counting)));
+          try {
+            for (Record record : records.subList(i, Math.min(i + CHUNK_RECORDS, records.size()))) {
+              writer.write(record);
+            }
+          } finally {
+            writer.close();
+          }
+        }
+        entry.end = counting.getCount();
+        entries.add(entry);
+      }
+      index.batches.add(entries);
+    }
+    return index;
+  }
+
+  /**
+   * Returns the page of the output of the given stage in the given batch as a JSON object with the batch, the offset
+   * of the page, the total number of records of the stage output and the stage output with the records of the page,
+   * <code>null</code> if the snapshot has no such stage output.
+   */
+  public InputStream getStageOutput(String instanceName, int batch, int offset, int length) throws IOException {
+    if (batch < 0 || batch >= index.batches.size()) {
+      return null;
+    }
+    for (Entry entry : index.batches.get(batch)) {
+      if (entry.instanceName.equals(instanceName)) {
+        int total = entry.getRecordCount();
+        int from = Math.min(Math.max(offset, 0), total);
+        int to = (int) Math.min((long) from + Math.max(length, 0), total);
+        ObjectNode page = createPage(batch, from, total, toJson(entry, from, to));
+        return new ByteArrayInputStream(ObjectMapperFactory.getOneLine().writeValueAsBytes(page));
+      }
+    }
+    return null;
+  }
+
+  /**
+   * Returns the whole snapshot in the JSON layout of {@link com.streamsets.datacollector.restapi.bean.SnapshotDataJson}.
+   * The stage outputs are read one at a time while the stream is read.
+   */
+  public InputStream getJson() throws IOException {
+    return new SnapshotJsonInputStream();
+  }
+
+  static ObjectNode createPage(int batch, int offset, int total, ObjectNode stageOutput) {
+    ObjectNode page = ObjectMapperFactory.getOneLine().createObjectNode();
+    page.put(BATCH, batch);
+    page.put(OFFSET, offset);
+    page.put(TOTAL_RECORDS, total);
+    page.set(STAGE_OUTPUT, stageOutput);
+    return page;
+  }
+
+  private ObjectNode toJson(Entry entry, int from, int to) throws IOException {
+    List<Record> records = readRecords(entry, from, to);
+    int position = 0;
+    Map<String, List<Record>> output = new LinkedHashMap<>();
+    for (Map.Entry<String, Integer> lane : entry.output.entrySet()) {
+      output.put(lane.getKey(), slice(records, from, position, lane.getValue()));
+      position += lane.getValue();
+    }
+    List<Record> errorRecords = null;
+    if (entry.errorRecords != null) {
+      errorRecords = slice(records, from, position, entry.errorRecords);
+      position += entry.errorRecords;
+    }
+    List<Record> eventRecords = null;
+    if (entry.eventRecords != null) {
+      eventRecords = slice(records, from, position, entry.eventRecords);
+    }
+    StageOutput stageOutput = new StageOutput(entry.instanceName, output, errorRecords, null, eventRecords);
+    ObjectNode node = ObjectMapperFactory.getOneLine().valueToTree(new StageOutputJson(stageOutput));
+    node.set(STAGE_ERRORS, entry.stageErrors);
+    return node;
+  }
+
+  /**
+   * Returns the records of the section of a stage output starting at the given position that are in the given page
+   * of records of the stage output.
+   */
+  static List<Record> slice(List<Record> page, int pageStart, int sectionStart, int sectionSize) {
+    int from = Math.max(sectionStart - pageStart, 0);
+    int to = Math.min(sectionStart + sectionSize - pageStart, page.size());
+    return (from < to) ? new ArrayList<>(page.subList(from, to)) : new ArrayList<>();
+  }
+
+  private List<Record> readRecords(Entry entry, int from, int to) throws IOException {
+    List<Record> records = new ArrayList<>(to - from);
+    if (from >= to) {
+      return records;
+    }
+    int chunk = from / CHUNK_RECORDS;
+    long start = entry.chunks.get(chunk);
+    try (FileInputStream fis = new FileInputStream(dataFile)) {
+      fis.getChannel().position(start);
+      InputStream is = new GZIPInputStream(ByteStreams.limit(new BufferedInputStream(fis), entry.end - start));
+      RecordReader reader = createRecordReader(is);
+      try {
+        for (int i = chunk * CHUNK_RECORDS; i < to; i++) {
+          Record record = reader.readRecord();
+          if (record == null) {
+            throw new IOException("Unexpected end of snapshot data for stage '" + entry.instanceName + "'");
+          }
+          if (i >= from) {
+            records.add(record);
+          }
+        }
+      } finally {
+        reader.close();
+      }
+    }
+    return records;
+  }
+
+  private RecordReader createRecordReader(InputStream is) throws IOException {
+    switch (RecordEncoding.valueOf(index.encoding)) {
+      case JSON1:
+        return new SdcJsonRecordReader(is, 0, -1);
+      case KRYO1:
+        return new KryoRecordReader(is, 0);
+      default:
+        throw new IOException("Unsupported snapshot record encoding '" + index.encoding + "'");
+    }
+  }
+
+  private static int addAll(List<Record> records, List<Record> more) {
+    if (more == null) {
+      return 0;
+    }
+    records.addAll(more);
+    return more.size();
+  }
+
+  private static int count(Integer records) {
+    return (records == null) ? 0 : records;
+  }
+
+  /**
+   * Renders the snapshot JSON one stage output at a time.
+   */
+  private class SnapshotJsonInputStream extends InputStream {
+    private final ByteArrayOutputStream buffer;
+    private final JsonGenerator generator;
+    private byte[] chunk;
+    private int position;
+    private int batch;
+    private int stage;
+    private boolean batchStarted;
+    private boolean done;
+
+    SnapshotJsonInputStream() throws IOException {
+      buffer = new ByteArrayOutputStream();
+      generator = ObjectMapperFactory.getOneLine().getFactory().createGenerator(buffer);
+      generator.writeStartObject();
+      generator.writeArrayFieldStart("snapshotBatches");
+      generator.flush();
+      chunk = buffer.toByteArray();
+    }
+
+    private boolean fill() throws IOException {
+      while (position >= chunk.length) {
+        if (done) {
+          return false;
+        }
+        buffer.reset();
+        if (batch < index.batches.size()) {
+          List<Entry> entries = index.batches.get(batch);
+          if (!batchStarted) {
+            generator.writeStartArray();
+            batchStarted = true;
+          } else if (stage < entries.size()) {
+            Entry entry = entries.get(stage++);
+            generator.writeTree(toJson(entry, 0, entry.getRecordCount()));
+          } else {
+            generator.writeEndArray();
+            batch++;
+            stage = 0;
+            batchStarted = false;
+          }
+        } else {
+          generator.writeEndArray();
+          generator.writeEndObject();
+          done = true;
+        }
+        generator.flush();
+        chunk = buffer.toByteArray();
+        position = 0;
+      }
+      return true;
+    }
+
+    @Override
+    public int read() throws IOException {
+      return fill() ? chunk[position++] & 0xFF : -1;
+    }
+
+    @Override
+    public int read(byte[] b, int off, int len) throws IOException {
+      if (len == 0) {
+        return 0;
+      }
+      if (!fill()) {
+        return -1;
+      }
+      int read = Math.min(len, chunk.length - position);
+      System.arraycopy(chunk, position, b, off, read);
+      position += read;
+      return read;
+    }
+
+    @Override
+    public void close() throws IOException {
+      generator.close();
+    }
+  }
+
+}
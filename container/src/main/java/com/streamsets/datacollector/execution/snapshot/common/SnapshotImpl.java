@@ -15,21 +15,30 @@
  */
 package com.streamsets.datacollector.execution.snapshot.common;
 
+import com.fasterxml.jackson.databind.JsonNode;
+import com.fasterxml.jackson.databind.node.ArrayNode;
+import com.fasterxml.jackson.databind.node.ObjectNode;
 import com.streamsets.datacollector.execution.Snapshot;
 import com.streamsets.datacollector.execution.SnapshotInfo;
+import com.streamsets.datacollector.json.ObjectMapperFactory;
 import com.streamsets.datacollector.runner.PipelineRuntimeException;
 import com.streamsets.datacollector.util.ContainerError;
 
+import java.io.ByteArrayInputStream;
 import java.io.Closeable;
 import java.io.File;
 import java.io.FileInputStream;
 import java.io.IOException;
 import java.io.InputStream;
+import java.util.ArrayList;
+import java.util.Iterator;
+import java.util.List;
 
 public class SnapshotImpl implements Snapshot, Closeable {
 
   private SnapshotInfo snapshotInfo;
   private File snapshotFile;
+  private IndexedSnapshotData indexedData;
   private InputStream output;
 
   public SnapshotImpl(SnapshotInfo snapshotInfo, File snapshotFile) {
@@ -37,6 +46,11 @@ public class SnapshotImpl implements Snapshot, Closeable {
     this.snapshotFile = snapshotFile;
   }
 
+  public SnapshotImpl(SnapshotInfo snapshotInfo, IndexedSnapshotData indexedData) {
+    this.snapshotInfo = snapshotInfo;
+    this.indexedData = indexedData;
+  }
+
   @Override
   public SnapshotInfo getInfo() {
     return snapshotInfo;
@@ -44,9 +58,9 @@ public class SnapshotImpl implements Snapshot, Closeable {
 
   @Override
   public InputStream getOutput() throws PipelineRuntimeException {
-    if(snapshotFile != null) {
+    if(snapshotFile != null || indexedData != null) {
       try {
-        output = new FileInputStream(snapshotFile);
+        output = (indexedData != null) ? indexedData.getJson() : new FileInputStream(snapshotFile);
         return output;
       } catch (Exception ex) {
         throw new PipelineRuntimeException(ContainerError.CONTAINER_0600, snapshotInfo.getId(), snapshotInfo.getName(),
@@ -56,13 +70,79 @@ public class SnapshotImpl implements Snapshot, Closeable {
     return null;
   }
 
+  @Override
+  public InputStream getStageOutput(
+      String instanceName,
+      int batch,
+      int offset,
+      int length
+  ) throws PipelineRuntimeException {
+    try {
+      if (indexedData != null) {
+        return indexedData.getStageOutput(instanceName, batch, offset, length);
+      } else if (snapshotFile != null) {
+        return getStageOutputFromJson(instanceName, batch, offset, length);
+      }
+    } catch (Exception ex) {
+      throw new PipelineRuntimeException(ContainerError.CONTAINER_0600, snapshotInfo.getId(), snapshotInfo.getName(),
+        snapshotInfo.getRev(), ex.toString(), ex);
+    }
+    return null;
+  }
+
+  // snapshots taken before the indexed format are read whole
+  private InputStream getStageOutputFromJson(String instanceName, int batch, int offset, int length) throws IOException {
+    JsonNode snapshot;
+    try (InputStream is = new FileInputStream(snapshotFile)) {
+      snapshot = ObjectMapperFactory.getOneLine().readTree(is);
+    }
+    for (JsonNode stageOutput : snapshot.path("snapshotBatches").path(batch)) {
+      if (instanceName.equals(stageOutput.path("instanceName").asText())) {
+        int total = 0;
+        for (JsonNode records : sections(stageOutput)) {
+          total += records.size();
+        }
+        int from = Math.min(Math.max(offset, 0), total);
+        int to = (int) Math.min((long) from + Math.max(length, 0), total);
+        int position = 0;
+        for (JsonNode records : sections(stageOutput)) {
+          int size = records.size();
+          // remove the records after the page and then the records before it
+          for (int i = size - 1; i >= 0; i--) {
+            if (position + i < from || position + i >= to) {
+              ((ArrayNode) records).remove(i);
+            }
+          }
+          position += size;
+        }
+        ObjectNode page = IndexedSnapshotData.createPage(batch, from, total, (ObjectNode) stageOutput);
+        return new ByteArrayInputStream(ObjectMapperFactory.getOneLine().writeValueAsBytes(page));
+      }
+    }
+    return null;
+  }
+
+  // the record lists of a stage output in the order of the indexed format
+  private static Iterable<JsonNode> sections(JsonNode stageOutput) {
+    List<JsonNode> sections = new ArrayList<>();
+    Iterator<JsonNode> lanes = stageOutput.path("output").elements();
+    while (lanes.hasNext()) {
+      sections.add(lanes.next());
+    }
+    sections.add(stageOutput.path("errorRecords"));
+    sections.add(stageOutput.path("eventRecords"));
+    sections.removeIf(records -> !records.isArray());
+    return sections;
+  }
+
   @Override
   public void close() throws IOException {
     snapshotInfo = null;
-    if(snapshotFile != null && output != null) {
+    if((snapshotFile != null || indexedData != null) && output != null) {
       output.close();
       output = null;
       snapshotFile = null;
+      indexedData = null;
     }
   }
 }
@@ -19,13 +19,12 @@ import com.fasterxml.jackson.databind.ObjectMapper;
 import com.streamsets.datacollector.execution.Snapshot;
 import com.streamsets.datacollector.execution.SnapshotInfo;
 import com.streamsets.datacollector.execution.SnapshotStore;
-import com.streamsets.datacollector.execution.snapshot.common.SnapshotData;
+import com.streamsets.datacollector.execution.snapshot.common.IndexedSnapshotData;
 import com.streamsets.datacollector.execution.snapshot.common.SnapshotImpl;
 import com.streamsets.datacollector.execution.snapshot.common.SnapshotInfoImpl;
 import com.streamsets.datacollector.io.DataStore;
 import com.streamsets.datacollector.json.ObjectMapperFactory;
 import com.streamsets.datacollector.main.RuntimeInfo;
-import com.streamsets.datacollector.restapi.bean.SnapshotDataJson;
 import com.streamsets.datacollector.restapi.bean.SnapshotInfoJson;
 import com.streamsets.datacollector.runner.PipelineRuntimeException;
 import com.streamsets.datacollector.runner.StageOutput;
@@ -48,7 +47,10 @@ import java.util.Collections;
 import java.util.List;
 
 public class FileSnapshotStore implements SnapshotStore {
+  // snapshots taken before the indexed format
   private static final String SNAPSHOT_FILE_NAME = "snapshot.json";
+  private static final String SNAPSHOT_DATA_FILE_NAME = "snapshot-data.gz";
+  private static final String SNAPSHOT_INDEX_FILE_NAME = "snapshot-index.json";
   private static final String INFO_FILE_NAME = "info.json";
   private final LockCache<String> lockCache;
   private final RuntimeInfo runtimeInfo;
@@ -134,6 +136,10 @@ public class FileSnapshotStore implements SnapshotStore {
   public Snapshot get(String name, String rev, String id) throws PipelineException {
     synchronized (lockCache.getLock(name)) {
       SnapshotInfo info = getInfo(name, rev, id);
+      IndexedSnapshotData indexedData = getIndexedData(name, rev, id);
+      if (indexedData != null) {
+        return new SnapshotImpl(info, indexedData);
+      }
       File data = getData(name, rev, id);
       return new SnapshotImpl(info, data);
     }
@@ -205,6 +211,23 @@ public class FileSnapshotStore implements SnapshotStore {
     }
   }
 
+  IndexedSnapshotData getIndexedData(String name, String rev, String id) throws PipelineRuntimeException {
+    File indexFile = getSnapshotFile(name, rev, id, SNAPSHOT_INDEX_FILE_NAME);
+    if (!indexFile.exists()) {
+      return null;
+    }
+    try (InputStream in = new FileInputStream(indexFile)) {
+      IndexedSnapshotData.Index index = json.readValue(in, IndexedSnapshotData.Index.class);
+      return new IndexedSnapshotData(getSnapshotFile(name, rev, id, SNAPSHOT_DATA_FILE_NAME), index);
+    } catch (IOException e) {
+      throw new PipelineRuntimeException(ContainerError.CONTAINER_0600, id, name, rev, e.toString(), e);
+    }
+  }
+
+  private File getSnapshotFile(String name, String rev, String id, String fileName) {
+    return new File(PipelineDirectoryUtil.getPipelineSnapshotDir(runtimeInfo, name, rev, id), fileName);
+  }
+
   private File getPipelineSnapshotFile(String pipelineName, String rev, String snapshotName) {
     return new File(PipelineDirectoryUtil.getPipelineSnapshotDir(runtimeInfo, pipelineName, rev, snapshotName),
       SNAPSHOT_FILE_NAME);
@@ -231,9 +254,20 @@ public class FileSnapshotStore implements SnapshotStore {
 
   private void persistSnapshot(String name, String rev, String id, List<List<StageOutput>> snapshotBatches)
     throws PipelineRuntimeException {
-    DataStore dataStore = new DataStore(getPipelineSnapshotFile(name, rev, id));
+    // the index is written last, a snapshot without index has no data
+    IndexedSnapshotData.Index index;
+    DataStore dataStore = new DataStore(getSnapshotFile(name, rev, id, SNAPSHOT_DATA_FILE_NAME));
+    try (OutputStream out = dataStore.getOutputStream()) {
+      index = IndexedSnapshotData.write(snapshotBatches, out);
+      dataStore.commit(out);
+    } catch (IOException e) {
+      throw new PipelineRuntimeException(ContainerError.CONTAINER_0603, id, name, rev, e.toString(), e);
+    } finally {
+      dataStore.release();
+    }
+    dataStore = new DataStore(getSnapshotFile(name, rev, id, SNAPSHOT_INDEX_FILE_NAME));
     try (OutputStream out = dataStore.getOutputStream()) {
-      json.writeValue(out, new SnapshotDataJson(new SnapshotData(snapshotBatches)));
+      ObjectMapperFactory.getOneLine().writeValue(out, index);
       dataStore.commit(out);
     } catch (IOException e) {
       throw new PipelineRuntimeException(ContainerError.CONTAINER_0603, id, name, rev, e.toString(), e);
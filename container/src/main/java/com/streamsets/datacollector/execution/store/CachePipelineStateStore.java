@@ -125,6 +125,12 @@ public class CachePipelineStateStore implements PipelineStateStore {
     return pipelineStateStore.getHistory(name, rev, fromBeginning);
   }
 
+  @Override
+  public List<PipelineState> getHistory(String name, String rev, int offset, int len) throws PipelineStoreException {
+    // We dont cache history, get from persistent store directly
+    return pipelineStateStore.getHistory(name, rev, offset, len);
+  }
+
   @Override
   public void deleteHistory(String name, String rev) {
     pipelineStateStore.deleteHistory(name, rev);
@@ -15,10 +15,9 @@
  */
 package com.streamsets.datacollector.execution.store;
 
-import com.fasterxml.jackson.core.JsonParser;
 import com.fasterxml.jackson.core.JsonProcessingException;
-import com.fasterxml.jackson.databind.MappingIterator;
 import com.fasterxml.jackson.databind.ObjectMapper;
+import com.google.common.annotations.VisibleForTesting;
 import com.streamsets.datacollector.event.handler.remote.RemoteDataCollector;
 import com.streamsets.datacollector.execution.PipelineState;
 import com.streamsets.datacollector.execution.PipelineStateStore;
@@ -44,12 +43,13 @@ import org.slf4j.LoggerFactory;
 import javax.inject.Inject;
 
 import java.io.File;
-import java.io.FileReader;
 import java.io.FilenameFilter;
 import java.io.IOException;
 import java.io.InputStream;
 import java.io.OutputStream;
-import java.io.Reader;
+import java.io.RandomAccessFile;
+import java.nio.charset.Charset;
+import java.util.ArrayList;
 import java.util.Collections;
 import java.util.HashMap;
 import java.util.List;
@@ -61,6 +61,8 @@ public class FilePipelineStateStore implements PipelineStateStore {
   public static final String STATE_FILE = "pipelineState.json";
   public static final String STATE_FILE_HISTORY = "pipelineStateHistory.json";
   public static final String STATE = "state";
+  private static final int DEFAULT_HISTORY_SIZE = 100;
+  private static final int HISTORY_READ_BLOCK_SIZE = 8192;
   private static final Logger LOG = LoggerFactory.getLogger(FilePipelineStateStore.class);
 
   @Inject
@@ -172,27 +174,72 @@ public class FilePipelineStateStore implements PipelineStateStore {
 
   @Override
   public List<PipelineState> getHistory(String pipelineName, String rev, boolean fromBeginning) throws PipelineStoreException {
+    return getHistory(pipelineName, rev, 0, fromBeginning ? -1 : DEFAULT_HISTORY_SIZE);
+  }
+
+  @Override
+  public List<PipelineState> getHistory(String pipelineName, String rev, int offset, int len)
+      throws PipelineStoreException {
     if (!pipelineDirExists(pipelineName, rev) || !pipelineStateHistoryFileExists(pipelineName, rev)) {
       return Collections.emptyList();
     }
-    try (Reader reader = new FileReader(getPipelineStateHistoryFile(pipelineName, rev))){
-      ObjectMapper objectMapper = ObjectMapperFactory.get();
-      JsonParser jsonParser = objectMapper.getFactory().createParser(reader);
-      MappingIterator<PipelineStateJson> pipelineStateMappingIterator =
-        objectMapper.readValues(jsonParser, PipelineStateJson.class);
-      List<PipelineStateJson> pipelineStateJsons = pipelineStateMappingIterator.readAll();
-      Collections.reverse(pipelineStateJsons);
-      if (fromBeginning) {
-        return BeanHelper.unwrapPipelineStatesNewAPI(pipelineStateJsons);
-      } else {
-        int toIndex = pipelineStateJsons.size() > 100 ? 100 : pipelineStateJsons.size();
-        return BeanHelper.unwrapPipelineStatesNewAPI(pipelineStateJsons.subList(0, toIndex));
-      }
+    try {
+      return BeanHelper.unwrapPipelineStatesNewAPI(
+          readHistory(getPipelineStateHistoryFile(pipelineName, rev), offset, len)
+      );
     } catch (IOException e) {
       throw new PipelineStoreException(ContainerError.CONTAINER_0115, pipelineName, rev, e.toString(), e);
     }
   }
 
+  /**
+   * Reads the states from the end of the history file, newest first, skipping the newest <code>offset</code> states
+   * and returning at most <code>len</code> states (all if negative). Only the returned and skipped states are read.
+   * <p/>
+   * The history file has one JSON object per state, each object starts on a new line and the only line of an object
+   * starting with '{' is its first one, the inner lines are indented.
+   */
+  @VisibleForTesting
+  static List<PipelineStateJson> readHistory(File file, int offset, int len) throws IOException {
+    ObjectMapper objectMapper = ObjectMapperFactory.get();
+    List<PipelineStateJson> states = new ArrayList<>();
+    int skipped = 0;
+    try (RandomAccessFile raf = new RandomAccessFile(file, "r")) {
+      long position = raf.length();
+      // file bytes from position that are not part of an already read state
+      byte[] data = new byte[0];
+      int end = 0;
+      while (position > 0 && (len < 0 || states.size() < len)) {
+        int read = (int) Math.min(HISTORY_READ_BLOCK_SIZE, position);
+        position -= read;
+        byte[] block = new byte[read + end];
+        raf.seek(position);
+        raf.readFully(block, 0, read);
+        System.arraycopy(data, 0, block, read, end);
+        data = block;
+        // the first byte of the previous block was not checked, the byte before it was not known yet
+        int i = Math.min(read, read + end - 1);
+        end += read;
+        int first = (position == 0) ? 0 : 1;
+        for (; i >= first && (len < 0 || states.size() < len); i--) {
+          if (data[i] == '{' && (i == 0 || data[i - 1] == '\n')) {
+            if (skipped < offset) {
+              skipped++;
+            } else {
+              // the history file is written with the default charset
+              states.add(objectMapper.readValue(
+                  new String(data, i, end - i, Charset.defaultCharset()),
+                  PipelineStateJson.class
+              ));
+            }
+            end = i;
+          }
+        }
+      }
+    }
+    return states;
+  }
+
   @Override
   public void deleteHistory(String pipelineName, String rev) {
     LogUtil.resetRollingFileAppender(pipelineName, rev, STATE);
@@ -75,6 +75,11 @@ public class SlavePipelineStateStore implements PipelineStateStore {
     return ImmutableList.of(pipelineState);
   }
 
+  @Override
+  public List<PipelineState> getHistory(String name, String rev, int offset, int len) throws PipelineStoreException {
+    return (offset == 0 && len != 0) ? ImmutableList.of(pipelineState) : ImmutableList.of();
+  }
+
   @Override
   public void deleteHistory(String name, String rev) {
     throw new UnsupportedOperationException();
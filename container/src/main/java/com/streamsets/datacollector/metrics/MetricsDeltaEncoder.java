@@ -0,0 +1,56 @@
+/*
+ * Copyright 2019 StreamSets Inc.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package com.streamsets.datacollector.metrics;
+
+import com.fasterxml.jackson.databind.JsonNode;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.streamsets.datacollector.json.ObjectMapperFactory;
+
+import java.io.IOException;
+import java.util.concurrent.atomic.AtomicLong;
+
+/**
+ * Serializes the metrics of a pipeline once per refresh into a {@link MetricsSnapshot} that keeps the previous
+ * refresh as the base of its delta message.
+ * <p/>
+ * The metrics (a <code>MetricRegistry</code> or a <code>MetricRegistryJson</code>) are converted once to a JSON tree,
+ * the histogram and timer snapshots are computed only once, the JSON string and the incremental protocol messages
+ * are all written from that tree.
+ * <p/>
+ * Snapshots are encoded one at a time, the final refresh of a pipeline may run in a different thread.
+ */
+public class MetricsDeltaEncoder {
+  private static final AtomicLong SEQUENCE = new AtomicLong();
+
+  private long previousSequence = -1;
+  private JsonNode previous;
+
+  public synchronized MetricsSnapshot encode(Object metrics) throws IOException {
+    ObjectMapper objectMapper = ObjectMapperFactory.get();
+    JsonNode tree = objectMapper.valueToTree(metrics);
+    MetricsSnapshot snapshot = new MetricsSnapshot(
+        SEQUENCE.incrementAndGet(),
+        tree,
+        objectMapper.writer().writeValueAsString(tree),
+        previousSequence,
+        previous
+    );
+    previousSequence = snapshot.getSequence();
+    previous = tree;
+    return snapshot;
+  }
+
+}
@@ -21,4 +21,9 @@ public interface MetricsEventListener extends EventListener {
 
   void notification(String metrics);
 
+  // listeners supporting the incremental metrics protocol override this method, others get the metrics JSON
+  default void notification(MetricsSnapshot metrics) {
+    notification(metrics.getJson());
+  }
+
 }
@@ -0,0 +1,205 @@
+/*
+ * Copyright 2019 StreamSets Inc.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package com.streamsets.datacollector.metrics;
+
+import com.fasterxml.jackson.core.JsonProcessingException;
+import com.fasterxml.jackson.databind.JsonNode;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.fasterxml.jackson.databind.node.ArrayNode;
+import com.fasterxml.jackson.databind.node.JsonNodeFactory;
+import com.fasterxml.jackson.databind.node.NullNode;
+import com.fasterxml.jackson.databind.node.ObjectNode;
+import com.streamsets.datacollector.json.ObjectMapperFactory;
+
+import java.io.ByteArrayOutputStream;
+import java.io.IOException;
+import java.io.UncheckedIOException;
+import java.nio.charset.StandardCharsets;
+import java.util.Iterator;
+import java.util.Map;
+import java.util.zip.GZIPOutputStream;
+
+/**
+ * The metrics of a pipeline at one refresh of the {@link MetricsDeltaEncoder}, shared by all the listeners of the
+ * pipeline.
+ * <p/>
+ * Besides the metrics JSON sent to all the listeners, a snapshot provides the messages of the incremental protocol:
+ * <ul>
+ *   <li>full: <code>{"seq":N,"full":{metrics}}</code></li>
+ *   <li>delta: <code>{"seq":N,"base":M,"changed":{group:{name:metric}},"removed":{group:[name]}}</code>, it applies
+ *   on top of the metrics of the snapshot with sequence M. A changed metric replaces the previous one, a top level
+ *   field that is not a group of metrics is sent as is when it changes and as <code>null</code> when removed.</li>
+ * </ul>
+ * The messages and their GZIP compressed versions are built the first time a listener asks for them, only once per
+ * snapshot no matter how many listeners get them.
+ */
+public class MetricsSnapshot {
+  private final long sequence;
+  private final long baseSequence;
+  private final JsonNode metrics;
+  private final JsonNode base;
+  private final String json;
+
+  private String fullMessage;
+  private String deltaMessage;
+  private byte[] compressedJson;
+  private byte[] compressedFullMessage;
+  private byte[] compressedDeltaMessage;
+
+  MetricsSnapshot(long sequence, JsonNode metrics, String json, long baseSequence, JsonNode base) {
+    this.sequence = sequence;
+    this.metrics = metrics;
+    this.json = json;
+    this.baseSequence = baseSequence;
+    this.base = base;
+  }
+
+  /**
+   * Returns the sequence of the snapshot, unique within the JVM.
+   */
+  public long getSequence() {
+    return sequence;
+  }
+
+  /**
+   * Returns the sequence of the snapshot the delta message applies to, <code>-1</code> if there is none.
+   */
+  public long getBaseSequence() {
+    return baseSequence;
+  }
+
+  public JsonNode getMetrics() {
+    return metrics;
+  }
+
+  /**
+   * Returns the metrics JSON, same as the one the metrics were always broadcast with.
+   */
+  public String getJson() {
+    return json;
+  }
+
+  public synchronized String getFullMessage() {
+    if (fullMessage == null) {
+      ObjectNode message = JsonNodeFactory.instance.objectNode();
+      message.put("seq", sequence);
+      message.set("full", metrics);
+      fullMessage = toString(message);
+    }
+    return fullMessage;
+  }
+
+  /**
+   * Returns the delta message, <code>null</code> if the snapshot has no base snapshot.
+   */
+  public synchronized String getDeltaMessage() {
+    if (deltaMessage == null && base != null) {
+      ObjectNode message = JsonNodeFactory.instance.objectNode();
+      message.put("seq", sequence);
+      message.put("base", baseSequence);
+      diff(base, metrics, message.putObject("changed"), message.putObject("removed"));
+      deltaMessage = toString(message);
+    }
+    return deltaMessage;
+  }
+
+  public synchronized byte[] getCompressedJson() {
+    if (compressedJson == null) {
+      compressedJson = compress(json);
+    }
+    return compressedJson;
+  }
+
+  public synchronized byte[] getCompressedFullMessage() {
+    if (compressedFullMessage == null) {
+      compressedFullMessage = compress(getFullMessage());
+    }
+    return compressedFullMessage;
+  }
+
+  public synchronized byte[] getCompressedDeltaMessage() {
+    if (compressedDeltaMessage == null && getDeltaMessage() != null) {
+      compressedDeltaMessage = compress(getDeltaMessage());
+    }
+    return compressedDeltaMessage;
+  }
+
+  static void diff(JsonNode previous, JsonNode current, ObjectNode changed, ObjectNode removed) {
+    Iterator<Map.Entry<String, JsonNode>> fields = current.fields();
+    while (fields.hasNext()) {
+      Map.Entry<String, JsonNode> field = fields.next();
+      JsonNode previousValue = previous.get(field.getKey());
+      if (field.getValue().isObject() && previousValue != null && previousValue.isObject()) {
+        // a group of metrics, only the metrics that changed are sent
+        ObjectNode changedGroup = null;
+        Iterator<Map.Entry<String, JsonNode>> group = field.getValue().fields();
+        while (group.hasNext()) {
+          Map.Entry<String, JsonNode> metric = group.next();
+          if (!metric.getValue().equals(previousValue.get(metric.getKey()))) {
+            if (changedGroup == null) {
+              changedGroup = changed.putObject(field.getKey());
+            }
+            changedGroup.set(metric.getKey(), metric.getValue());
+          }
+        }
+        ArrayNode removedGroup = null;
+        Iterator<String> previousNames = previousValue.fieldNames();
+        while (previousNames.hasNext()) {
+          String name = previousNames.next();
+          if (!field.getValue().has(name)) {
+            if (removedGroup == null) {
+              removedGroup = removed.putArray(field.getKey());
+            }
+            removedGroup.add(name);
+          }
+        }
+      } else if (!field.getValue().equals(previousValue)) {
+        changed.set(field.getKey(), field.getValue());
+      }
+    }
+    Iterator<String> previousFields = previous.fieldNames();
+    while (previousFields.hasNext()) {
+      String name = previousFields.next();
+      if (!current.has(name)) {
+        changed.set(name, NullNode.getInstance());
+      }
+    }
+  }
+
+  private static String toString(JsonNode node) {
+    ObjectMapper objectMapper = ObjectMapperFactory.getOneLine();
+    try {
+      return objectMapper.writeValueAsString(node);
+    } catch (JsonProcessingException ex) {
+      // a tree built by the same object mapper is always serializable
+      throw new IllegalStateException(ex);
+    }
+  }
+
+  /**
+   * Returns the GZIP compressed UTF-8 bytes of the message.
+   */
+  public static byte[] compress(String message) {
+    ByteArrayOutputStream bytes = new ByteArrayOutputStream(message.length() / 4);
+    try (GZIPOutputStream gzip = new GZIPOutputStream(bytes)) {
+      gzip.write(message.getBytes(StandardCharsets.UTF_8));
+    } catch (IOException ex) {
+      throw new UncheckedIOException(ex);
+    }
+    return bytes.toByteArray();
+  }
+
+}
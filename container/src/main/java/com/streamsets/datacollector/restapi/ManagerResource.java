@@ -15,6 +15,7 @@
  */
 package com.streamsets.datacollector.restapi;
 
+import com.codahale.metrics.MetricRegistry;
 import com.streamsets.datacollector.config.PipelineConfiguration;
 import com.streamsets.datacollector.execution.AclManager;
 import com.streamsets.datacollector.execution.Manager;
@@ -39,6 +40,7 @@ import com.streamsets.datacollector.restapi.bean.SnapshotInfoJson;
 import com.streamsets.datacollector.restapi.bean.SourceOffsetJson;
 import com.streamsets.datacollector.restapi.bean.UserJson;
 import com.streamsets.datacollector.runner.PipelineRuntimeException;
+import com.streamsets.datacollector.runner.StageProfile;
 import com.streamsets.datacollector.store.AclStoreTask;
 import com.streamsets.datacollector.store.PipelineInfo;
 import com.streamsets.datacollector.store.PipelineStoreTask;
@@ -75,6 +77,7 @@ import javax.ws.rs.core.Context;
 import javax.ws.rs.core.MediaType;
 import javax.ws.rs.core.Response;
 import javax.ws.rs.core.SecurityContext;
+import java.io.InputStream;
 import java.security.Principal;
 import java.util.ArrayList;
 import java.util.HashMap;
@@ -561,6 +564,32 @@ public class ManagerResource {
     return Response.noContent().build();
   }
 
+  @Path("/pipeline/{pipelineId}/metrics/stageProfile")
+  @GET
+  @ApiOperation(value = "Return the stages using the most CPU time and allocating the most memory",
+    authorizations = @Authorization(value = "basic"))
+  @Produces(MediaType.APPLICATION_JSON)
+  @PermitAll
+  public Response getStageProfile(
+      @PathParam("pipelineId") String pipelineId,
+      @QueryParam("rev") @DefaultValue("0") String rev,
+      @QueryParam("top") @DefaultValue("5") int top
+  ) throws PipelineException {
+    PipelineInfo pipelineInfo = store.getInfo(pipelineId);
+    RestAPIUtils.injectPipelineInMDC(pipelineInfo.getTitle(), pipelineInfo.getPipelineId());
+    Runner runner = manager.getRunner(pipelineId, rev);
+    if (runner != null && runner.getState().getStatus().isActive()) {
+      Object metrics = runner.getMetrics();
+      if (metrics instanceof MetricRegistry) {
+        return Response.ok()
+            .type(MediaType.APPLICATION_JSON)
+            .entity(StageProfile.getTopStages((MetricRegistry) metrics, top))
+            .build();
+      }
+    }
+    return Response.noContent().build();
+  }
+
   @Path("/pipeline/{pipelineId}/snapshot/{snapshotName}")
   @PUT
   @ApiOperation(value = "Capture Snapshot", authorizations = @Authorization(value = "basic"))
@@ -728,6 +757,41 @@ public class ManagerResource {
     return Response.noContent().build();
   }
 
+  @Path("/pipeline/{pipelineId}/snapshot/{snapshotName}/stage/{stageInstanceName}")
+  @GET
+  @ApiOperation(value = "Return a page of the output of a stage in a Snapshot batch",
+    authorizations = @Authorization(value = "basic"))
+  @Produces(MediaType.APPLICATION_JSON)
+  @RolesAllowed({
+      AuthzRole.MANAGER,
+      AuthzRole.CREATOR,
+      AuthzRole.ADMIN,
+      AuthzRole.MANAGER_REMOTE,
+      AuthzRole.CREATOR_REMOTE,
+      AuthzRole.ADMIN_REMOTE
+  })
+  public Response getSnapshotStageOutput(
+      @PathParam("pipelineId") String pipelineId,
+      @PathParam("snapshotName") String snapshotName,
+      @PathParam("stageInstanceName") String stageInstanceName,
+      @QueryParam("rev") @DefaultValue("0") String rev,
+      @QueryParam("batch") @DefaultValue("0") int batch,
+      @QueryParam("offset") @DefaultValue("0") int offset,
+      @QueryParam("len") @DefaultValue("50") int len
+  ) throws PipelineException {
+    PipelineInfo pipelineInfo = store.getInfo(pipelineId);
+    RestAPIUtils.injectPipelineInMDC(pipelineInfo.getTitle(), pipelineInfo.getPipelineId());
+    Runner runner = manager.getRunner(pipelineId, rev);
+    if(runner != null) {
+      InputStream stageOutput = runner.getSnapshot(snapshotName).getStageOutput(stageInstanceName, batch, offset, len);
+      if (stageOutput != null) {
+        return Response.ok().type(MediaType.APPLICATION_JSON).entity(stageOutput).build();
+      }
+      return Response.status(Response.Status.NOT_FOUND).build();
+    }
+    return Response.noContent().build();
+  }
+
   @Path("/pipeline/{pipelineId}/snapshot/{snapshotName}")
   @DELETE
   @ApiOperation(value = "Delete Snapshot data", authorizations = @Authorization(value = "basic"))
@@ -876,13 +940,16 @@ public class ManagerResource {
   public Response getHistory(
     @PathParam("pipelineId") String name,
     @QueryParam("rev") @DefaultValue("0") String rev,
-    @QueryParam("fromBeginning") @DefaultValue("false") boolean fromBeginning) throws PipelineException {
+    @QueryParam("fromBeginning") @DefaultValue("false") boolean fromBeginning,
+    @QueryParam("offset") @DefaultValue("0") int offset,
+    @QueryParam("len") @DefaultValue("-1") int len) throws PipelineException {
     PipelineInfo pipelineInfo = store.getInfo(name);
     RestAPIUtils.injectPipelineInMDC(pipelineInfo.getTitle(), pipelineInfo.getPipelineId());
     Runner runner = manager.getRunner(name, rev);
     if(runner != null) {
+      List<PipelineState> history = (offset == 0 && len < 0) ? runner.getHistory() : runner.getHistory(offset, len);
       return Response.ok().type(MediaType.APPLICATION_JSON).entity(
-        BeanHelper.wrapPipelineStatesNewAPI(runner.getHistory(), false)).build();
+        BeanHelper.wrapPipelineStatesNewAPI(history, false)).build();
     }
     return Response.noContent().build();
   }
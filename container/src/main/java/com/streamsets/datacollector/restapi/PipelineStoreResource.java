@@ -299,12 +299,14 @@ public class PipelineStoreResource {
   ) throws PipelineException {
     RestAPIUtils.injectPipelineInMDC("*");
 
+    // the pipeline store keeps the pipeline infos in memory, only the pipeline states are looked up while filtering
     final List<PipelineInfo> pipelineInfoList = store.getPipelines();
     final Map<String, PipelineState> pipelineStateCache = new HashMap<>();
+    final String lowerCaseFilterText = filterText != null ? filterText.toLowerCase() : null;
 
     Collection<PipelineInfo> filteredCollection = Collections2.filter(pipelineInfoList, pipelineInfo -> {
       String title = pipelineInfo.getTitle() != null ? pipelineInfo.getTitle() : pipelineInfo.getPipelineId();
-      if (filterText != null && !title.toLowerCase().contains(filterText.toLowerCase())) {
+      if (lowerCaseFilterText != null && !title.toLowerCase().contains(lowerCaseFilterText)) {
         return false;
       }
       if (label != null) {
@@ -430,7 +432,7 @@ public class PipelineStoreResource {
 
     Object responseData;
 
-    if (filteredList.size() > 0) {
+    if (filteredList.size() > offset) {
       int endIndex = offset + len;
       if (len == -1 || endIndex > filteredList.size()) {
         endIndex = filteredList.size();
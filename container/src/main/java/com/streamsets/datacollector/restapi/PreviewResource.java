@@ -49,6 +49,7 @@ import com.streamsets.datacollector.restapi.bean.PreviewOutputJson;
 import com.streamsets.datacollector.restapi.bean.StageOutputJson;
 import com.streamsets.datacollector.restapi.bean.UserJson;
 import com.streamsets.datacollector.runner.PipelineRuntimeException;
+import com.streamsets.datacollector.runner.preview.StreamingPreviewBuffer;
 import com.streamsets.datacollector.store.AclStoreTask;
 import com.streamsets.datacollector.store.PipelineInfo;
 import com.streamsets.datacollector.store.PipelineStoreTask;
@@ -89,6 +90,7 @@ import javax.ws.rs.core.Context;
 import javax.ws.rs.core.MediaType;
 import javax.ws.rs.core.MultivaluedMap;
 import javax.ws.rs.core.Response;
+import javax.ws.rs.core.StreamingOutput;
 import javax.ws.rs.core.UriInfo;
 import java.io.IOException;
 import java.security.Principal;
@@ -108,6 +110,11 @@ public class PreviewResource {
   private static final int MAX_BATCH_SIZE_DEFAULT = 10;
   private static final String MAX_BATCHES_KEY = "preview.maxBatches";
   private static final int MAX_BATCHES_DEFAULT = 10;
+  private static final String MAX_STREAMING_OUTPUT_SIZE_KEY = "preview.maxStreamingOutputSize";
+  private static final long MAX_STREAMING_OUTPUT_SIZE_DEFAULT = 16 * 1024 * 1024;
+  private static final String STREAMING_OUTPUT_WAIT_KEY = "preview.streamingOutputWaitMillis";
+  private static final long STREAMING_OUTPUT_WAIT_DEFAULT = 60 * 1000;
+  private static final String STREAMING_MEDIA_TYPE = "application/x-ndjson";
 
   //TODO: look into avoiding duplicating constants with DPM (com.streamsets.apps.common.Roles and ClassificationRoles)
   private static final List<String> DYNAMIC_PREVIEW_ALLOWED_ROLES_CLASSIFICATION = Arrays.asList(
@@ -192,6 +199,7 @@ public class PreviewResource {
       @QueryParam("edge") @DefaultValue("false") boolean edge,
       @QueryParam("testOrigin") @DefaultValue("false") boolean testOrigin,
       @QueryParam("remote") @DefaultValue("false") boolean remote,
+      @QueryParam("streaming") @DefaultValue("false") boolean streaming,
       @ApiParam(name="stageOutputsToOverrideJson", required = true)  List<StageOutputJson> stageOutputsToOverrideJson
   ) throws PipelineException {
     if (stageOutputsToOverrideJson == null) {
@@ -230,6 +238,7 @@ public class PreviewResource {
         timeout,
         testOrigin,
         remote,
+        streaming,
         stageOutputsToOverrideJson
     );
   }
@@ -245,8 +254,15 @@ public class PreviewResource {
       long timeout,
       boolean testOrigin,
       boolean remote,
+      boolean streaming,
       List<StageOutputJson> stageOutputsToOverrideJson
   ) throws PipelineException {
+    if (remote && streaming) {
+      // the stage outputs of a remote preview are kept by Control Hub, they can't be streamed from this data collector
+      return Response.status(Response.Status.BAD_REQUEST).type(MediaType.TEXT_PLAIN)
+          .entity("Streaming preview is not supported for remote previews, use streaming=false with remote=true")
+          .build();
+    }
     PipelineInfo pipelineInfo = store.getInfo(pipelineId);
     RestAPIUtils.injectPipelineInMDC(pipelineInfo.getTitle(), pipelineInfo.getPipelineId());
     int maxBatchSize = configuration.get(MAX_BATCH_SIZE_KEY, MAX_BATCH_SIZE_DEFAULT);
@@ -255,6 +271,12 @@ public class PreviewResource {
     batches = Math.min(maxBatches, batches);
 
     Previewer previewer = manager.createPreviewer(this.user, pipelineId, rev, Collections.emptyList(), p -> null, remote);
+    if (streaming) {
+      previewer.setStreamingOutput(new StreamingPreviewBuffer(
+          configuration.get(MAX_STREAMING_OUTPUT_SIZE_KEY, MAX_STREAMING_OUTPUT_SIZE_DEFAULT),
+          configuration.get(STREAMING_OUTPUT_WAIT_KEY, STREAMING_OUTPUT_WAIT_DEFAULT)
+      ));
+    }
     try {
       previewer.start(
           batches,
@@ -564,6 +586,55 @@ public class PreviewResource {
     return Response.ok().type(MediaType.APPLICATION_JSON).entity(BeanHelper.wrapPreviewOutput(previewOutput)).build();
   }
 
+  @Path("/pipeline/{pipelineId}/preview/{previewerId}/stream")
+  @GET
+  @ApiOperation(value = "Stream the stage outputs of a streaming preview while it runs, one JSON object per line",
+      authorizations = @Authorization(value = "basic"))
+  @Produces(STREAMING_MEDIA_TYPE)
+  @RolesAllowed({
+      AuthzRole.CREATOR,
+      AuthzRole.ADMIN,
+      AuthzRole.CREATOR_REMOTE,
+      AuthzRole.ADMIN_REMOTE,
+      AuthzRole.MANAGER,
+      AuthzRole.MANAGER_REMOTE
+  })
+  public Response streamPreviewData(
+      @PathParam("pipelineId") String pipelineId,
+      @PathParam("previewerId") String previewerId
+  ) throws PipelineException {
+    Previewer previewer = manager.getPreviewer(previewerId);
+    if(previewer == null) {
+      return Response.status(Response.Status.NOT_FOUND).entity("Cannot find previewer with id " + previewerId).build();
+    }
+    StreamingPreviewBuffer buffer = previewer.getStreamingOutput();
+    if (buffer == null) {
+      return Response.status(Response.Status.BAD_REQUEST)
+          .entity("Preview " + previewerId + " was not started with streaming=true").build();
+    }
+    PipelineInfo pipelineInfo = store.getInfo(previewer.getName());
+    RestAPIUtils.injectPipelineInMDC(pipelineInfo.getTitle(), pipelineInfo.getPipelineId());
+    StreamingOutput streamingOutput = output -> {
+      try {
+        byte[] chunk;
+        while ((chunk = buffer.take()) != null) {
+          output.write(chunk);
+          output.flush();
+        }
+      } catch (InterruptedException ex) {
+        Thread.currentThread().interrupt();
+        throw new IOException(ex);
+      }
+      // the last line has the status of the preview, its batchesOutput is always empty
+      Map<String, Object> end = new HashMap<>();
+      end.put("truncated", buffer.isTruncated());
+      end.put("previewOutput", BeanHelper.wrapPreviewOutput(previewer.getOutput()));
+      output.write(ObjectMapperFactory.getOneLine().writeValueAsBytes(end));
+      output.write('\n');
+    };
+    return Response.ok(streamingOutput).type(STREAMING_MEDIA_TYPE).build();
+  }
+
   @Path("/pipeline/{pipelineId}/preview/{previewerId}")
   @DELETE
   @ApiOperation(value = "Stop Preview by previewer ID", response = PreviewInfoJson.class,
@@ -56,6 +56,7 @@ public class FullPipeBatch implements PipeBatch {
   private int inputRecords;
   private int outputRecords;
   private RateLimiter rateLimiter;
+  private StageOutputListener stageOutputListener;
 
   // True if the batch was created by a framework rather then origin
   private boolean isIdleBatch;
@@ -101,6 +102,17 @@ public class FullPipeBatch implements PipeBatch {
     this.rateLimiter = rateLimiter;
   }
 
+  /**
+   * Hands the output of every completed stage to the given listener, without the copies a snapshot requires.
+   */
+  public void setStageOutputListener(@Nullable StageOutputListener stageOutputListener) {
+    this.stageOutputListener = stageOutputListener;
+  }
+
+  public StageOutputListener getStageOutputListener() {
+    return stageOutputListener;
+  }
+
   @Override
   @SuppressWarnings("unchecked")
   public BatchImpl getBatch(final Pipe pipe) throws StageException {
@@ -167,12 +179,22 @@ public class FullPipeBatch implements PipeBatch {
     // convert lane names from stage naming to pipe naming when adding to the payload
     // leveraging the fact that the stage output lanes and the pipe output lanes are in the same order
     List<String> stageLaneNames = pipe.getStage().getConfiguration().getOutputLanes();
+    Map<String, List<Record>> listenerOutput = (stageOutputListener != null) ? new HashMap<>() : null;
     for (int i = 0; i < stageLaneNames.size() ; i++) {
       String stageLaneName = stageLaneNames.get(i);
       String pipeLaneName = pipe.getOutputLanes().get(i);
-      List<Record> records  = stageOutput.get(stageLaneName);
+      List<Record> records  = intercept(stageOutput.get(stageLaneName), interceptors);
 
-      fullPayload.put(pipeLaneName, intercept(records, interceptors));
+      fullPayload.put(pipeLaneName, records);
+      if (listenerOutput != null) {
+        listenerOutput.put(stageLaneName, records);
+      }
+    }
+    if (listenerOutput != null) {
+      // the listener gets the records before the next stages run, so there is nothing to copy
+      stageOutputListener.stageOutput(
+          new StageOutput(pipe.getStage().getInfo().getInstanceName(), listenerOutput, errorSink, eventSink)
+      );
     }
     if (stageOutputSnapshot != null) {
       String instanceName = pipe.getStage().getInfo().getInstanceName();
@@ -249,6 +271,9 @@ public class FullPipeBatch implements PipeBatch {
           stageOutput.getEventRecords()
       ));
     }
+    if (stageOutputListener != null) {
+      stageOutputListener.stageOutput(stageOutput);
+    }
   }
 
   @Override
@@ -18,13 +18,24 @@ package com.streamsets.datacollector.runner;
 public class PipeContext implements StagePipe.Context {
 
   private final RuntimeStats runtimeStats;
+  private final boolean stageProfiling;
 
   public PipeContext() {
+    this(false);
+  }
+
+  public PipeContext(boolean stageProfiling) {
     this.runtimeStats = new RuntimeStats();
+    this.stageProfiling = stageProfiling;
   }
 
   @Override
   public RuntimeStats getRuntimeStats() {
     return runtimeStats;
   }
+
+  @Override
+  public boolean isStageProfilingEnabled() {
+    return stageProfiling;
+  }
 }
@@ -19,10 +19,12 @@ import com.google.common.annotations.VisibleForTesting;
 import com.google.common.base.Preconditions;
 import com.google.common.base.Throwables;
 import com.google.common.collect.ImmutableList;
+import com.google.common.util.concurrent.ThreadFactoryBuilder;
 import com.streamsets.datacollector.antennadoctor.AntennaDoctor;
 import com.streamsets.datacollector.antennadoctor.engine.context.AntennaDoctorStageContext;
 import com.streamsets.datacollector.blobstore.BlobStoreTask;
 import com.streamsets.datacollector.config.PipelineConfiguration;
+import com.streamsets.datacollector.creation.ConfigInjector;
 import com.streamsets.datacollector.creation.InterceptorBean;
 import com.streamsets.datacollector.creation.PipelineBean;
 import com.streamsets.datacollector.creation.PipelineBeanCreator;
@@ -43,6 +45,7 @@ import com.streamsets.datacollector.stagelibrary.StageLibraryTask;
 import com.streamsets.datacollector.usagestats.StatsCollector;
 import com.streamsets.datacollector.util.Configuration;
 import com.streamsets.datacollector.util.ContainerError;
+import com.streamsets.datacollector.validation.FieldProjectionAnalyzer;
 import com.streamsets.datacollector.validation.Issue;
 import com.streamsets.datacollector.validation.IssueCreator;
 import com.streamsets.pipeline.api.Config;
@@ -62,6 +65,7 @@ import com.streamsets.pipeline.api.lineage.LineageEvent;
 import com.streamsets.pipeline.api.lineage.LineageEventType;
 import org.slf4j.Logger;
 import org.slf4j.LoggerFactory;
+import org.slf4j.MDC;
 
 import java.util.ArrayList;
 import java.util.Collections;
@@ -71,7 +75,12 @@ import java.util.LinkedHashSet;
 import java.util.List;
 import java.util.Map;
 import java.util.Set;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.CompletionException;
 import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.function.Supplier;
 
 public class Pipeline {
   private static final Logger LOG = LoggerFactory.getLogger(Pipeline.class);
@@ -79,6 +88,12 @@ public class Pipeline {
   private static final String DELIVERY_GUARANTEE_CONFIG_KEY = "deliveryGuarantee";
   private static final String MAX_RUNNERS_CONFIG_KEY = "pipeline.max.runners.count";
   private static final int MAX_RUNNERS_DEFAULT = 50;
+  private static final String RUNNER_CREATION_THREADS_CONFIG_KEY = "pipeline.runners.creation.threads";
+  private static final int RUNNER_CREATION_THREADS_DEFAULT = 4;
+  private static final String STAGE_PROFILING_CONFIG_KEY = "pipeline.stage.profiling.enabled";
+  private static final boolean STAGE_PROFILING_DEFAULT = false;
+  private static final String PARSER_PROJECTION_CONFIG_KEY = "pipeline.parser.projection.enabled";
+  private static final boolean PARSER_PROJECTION_DEFAULT = false;
   private static final String FRAMEWORK_NAME = "Framework";
 
   private final StageLibraryTask stageLib;
@@ -220,7 +235,9 @@ public class Pipeline {
 
   @SuppressWarnings("unchecked")
   public List<Issue> init(boolean productionExecution) {
-    PipeContext pipeContext = new PipeContext();
+    PipeContext pipeContext = new PipeContext(
+        productionExecution && configuration.get(STAGE_PROFILING_CONFIG_KEY, STAGE_PROFILING_DEFAULT)
+    );
     this.runner.setRuntimeConfiguration(
       pipeContext,
       pipelineConf,
@@ -319,29 +336,8 @@ public class Pipeline {
       // Unless the request number of runners is invalid, let's create them
       if (createAdditionalRunners) {
         try {
-          for (int runnerId = 1; runnerId < runnerCount; runnerId++) {
-            List<Issue> localIssues = new ArrayList<>();
-
-            // Create list of Stage beans
-            PipelineStageBeans beans = PipelineBeanCreator.get().duplicatePipelineStageBeans(
-              stageLib,
-              pipelineBean.getPipelineStageBeans(),
-              interceptorContextBuilder,
-              originPipe.getStage().getConstants(),
-              localIssues
-            );
-
-            // If there was an issue creating the beans, don't continue
-            if(!localIssues.isEmpty()) {
-              issues.addAll(localIssues);
-
-              // To create the beans, we've already got class loaders, so we need to release them (they would leak otherwise
-              // as the beans object is not persisted anywhere).
-              beans.getStages().forEach(StageBean::releaseClassLoader);
-
-              break;
-            }
-
+          List<PipelineStageBeans> runnerBeans = duplicateRunnerStageBeans(runnerCount - 1, issues);
+          for (int runnerId = 1; runnerId <= runnerBeans.size(); runnerId++) {
             // Initialize and convert them to source-less pipeline runner
             pipes.add(createSourceLessRunner(
               stageLib,
@@ -355,7 +351,7 @@ public class Pipeline {
               pipelineBean,
               originPipe.getStage(),
               runnerId,
-              beans,
+              runnerBeans.get(runnerId - 1),
               observer,
               scheduledExecutor,
               runnerSharedMaps,
@@ -387,6 +383,112 @@ public class Pipeline {
     return issues;
   }
 
+  /**
+   * Creates the stage beans of the given number of additional runners, using up to
+   * {@value #RUNNER_CREATION_THREADS_CONFIG_KEY} threads. Returns the beans of the runners before the first runner
+   * whose beans could not be created, the issues of that runner are added to the given list.
+   */
+  private List<PipelineStageBeans> duplicateRunnerStageBeans(int count, List<Issue> issues) {
+    List<List<Issue>> runnerIssues = new ArrayList<>(count);
+    List<Supplier<PipelineStageBeans>> tasks = new ArrayList<>(count);
+    for (int i = 0; i < count; i++) {
+      List<Issue> localIssues = new ArrayList<>();
+      runnerIssues.add(localIssues);
+      tasks.add(() -> PipelineBeanCreator.get().duplicatePipelineStageBeans(
+          stageLib,
+          pipelineBean.getPipelineStageBeans(),
+          interceptorContextBuilder,
+          originPipe.getStage().getConstants(),
+          localIssues
+      ));
+    }
+
+    List<PipelineStageBeans> created = new ArrayList<>(count);
+    int threads = Math.min(count, configuration.get(RUNNER_CREATION_THREADS_CONFIG_KEY, RUNNER_CREATION_THREADS_DEFAULT));
+    if (threads <= 1) {
+      try {
+        for (int i = 0; i < count; i++) {
+          created.add(tasks.get(i).get());
+          if (!runnerIssues.get(i).isEmpty()) {
+            break;
+          }
+        }
+      } catch (RuntimeException ex) {
+        releaseClassLoaders(created);
+        throw ex;
+      }
+    } else {
+      ExecutorService executor = Executors.newFixedThreadPool(
+          threads,
+          new ThreadFactoryBuilder().setNameFormat("RunnerCreator-%d").setDaemon(true).build()
+      );
+      Throwable failure = null;
+      // the tasks log and load classes as if they ran in the calling thread
+      Map<String, String> mdc = MDC.getCopyOfContextMap();
+      ClassLoader contextClassLoader = Thread.currentThread().getContextClassLoader();
+      try {
+        List<CompletableFuture<PipelineStageBeans>> futures = new ArrayList<>(count);
+        for (Supplier<PipelineStageBeans> task : tasks) {
+          futures.add(CompletableFuture.supplyAsync(() -> runInContext(task, mdc, contextClassLoader), executor));
+        }
+        // all the runners are waited for, so that the beans created by the others can be released if one fails
+        for (CompletableFuture<PipelineStageBeans> future : futures) {
+          try {
+            created.add(future.join());
+          } catch (CompletionException ex) {
+            if (failure == null) {
+              failure = ex.getCause();
+            }
+          }
+        }
+      } finally {
+        executor.shutdown();
+      }
+      if (failure != null) {
+        releaseClassLoaders(created);
+        throw Throwables.propagate(failure);
+      }
+    }
+
+    List<PipelineStageBeans> runnerBeans = new ArrayList<>(created.size());
+    for (int i = 0; i < created.size(); i++) {
+      PipelineStageBeans beans = created.get(i);
+      if (runnerBeans.size() == i && runnerIssues.get(i).isEmpty()) {
+        runnerBeans.add(beans);
+      } else {
+        // If there was an issue creating the beans, don't use them nor the beans of the following runners
+        if (runnerBeans.size() == i) {
+          issues.addAll(runnerIssues.get(i));
+        }
+        releaseClassLoaders(Collections.singletonList(beans));
+      }
+    }
+    return runnerBeans;
+  }
+
+  private static <T> T runInContext(Supplier<T> task, Map<String, String> mdc, ClassLoader contextClassLoader) {
+    Thread thread = Thread.currentThread();
+    ClassLoader previousClassLoader = thread.getContextClassLoader();
+    if (mdc != null) {
+      MDC.setContextMap(mdc);
+    }
+    thread.setContextClassLoader(contextClassLoader);
+    try {
+      return task.get();
+    } finally {
+      thread.setContextClassLoader(previousClassLoader);
+      MDC.clear();
+    }
+  }
+
+  private static void releaseClassLoaders(List<PipelineStageBeans> created) {
+    // To create the beans, we've already got class loaders, so we need to release them (they would leak otherwise
+    // as the beans object is not persisted anywhere).
+    for (PipelineStageBeans beans : created) {
+      beans.getStages().forEach(StageBean::releaseClassLoader);
+    }
+  }
+
   private List<Issue> initPipe(Pipe pipe, PipeContext pipeContext) {
     try {
       return pipe.init(pipeContext);
@@ -597,6 +699,22 @@ public class Pipeline {
       return this;
     }
 
+    private void injectOriginProjection(PipelineBean pipelineBean) {
+      Set<String> projection = FieldProjectionAnalyzer.getOriginProjection(
+          pipelineConf,
+          pipelineBean.getConfig().errorRecordPolicy
+      );
+      if (projection.isEmpty()) {
+        return;
+      }
+      StageBean origin = pipelineBean.getOrigin();
+      LOG.debug("Origin '{}' will only parse fields {}", origin.getConfiguration().getInstanceName(), projection);
+      ConfigInjector.get().injectProjection(origin.getStage(), projection);
+      for (ServiceBean service : origin.getServices()) {
+        ConfigInjector.get().injectProjection(service.getService(), projection);
+      }
+    }
+
     public Pipeline build(PipelineRunner runner) throws PipelineRuntimeException {
       return build(runner, null);
     }
@@ -618,6 +736,11 @@ public class Pipeline {
       List<PipeRunner> pipes = new ArrayList<>();
       List<Map<String, Object>> runnerSharedMaps = new ArrayList<>();
       if (pipelineBean != null) {
+        // Let the origin skip parsing fields that the pipeline drops right away (preview always shows all fields)
+        if (!runner.isPreview() && configuration.get(PARSER_PROJECTION_CONFIG_KEY, PARSER_PROJECTION_DEFAULT)) {
+          injectOriginProjection(pipelineBean);
+        }
+
         // Origin runtime and pipe
         StageRuntime originRuntime = createAndInitializeStageRuntime(
           stageLib,
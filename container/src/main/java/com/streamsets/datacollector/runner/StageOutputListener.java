@@ -0,0 +1,28 @@
+/*
+ * Copyright 2019 StreamSets Inc.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package com.streamsets.datacollector.runner;
+
+/**
+ * Receives the output of each stage of a batch as soon as the stage completes.
+ * <p/>
+ * The output holds the records of the batch itself, not copies, the following stages may modify them so they must be
+ * consumed before the call returns.
+ */
+public interface StageOutputListener {
+
+  void stageOutput(StageOutput stageOutput);
+
+}
@@ -61,6 +61,7 @@ public class StagePipe extends Pipe<StagePipe.Context> {
   private Histogram stageErrorsHistogram;
   private Map<String, Counter> outputRecordsPerLaneCounter;
   private Map<String, Meter> outputRecordsPerLaneMeter;
+  private StageProfile profile;
   private StagePipe.Context context;
   private final String name;
   private final String rev;
@@ -190,6 +191,9 @@ public class StagePipe extends Pipe<StagePipe.Context> {
           outputRecordsPerLaneMeter.put(lane, outputRecordsMeter);
         }
       }
+      if (pipeContext.isStageProfilingEnabled()) {
+        profile = StageProfile.get(metrics, getStage().getConfiguration().getInstanceName(), name, rev);
+      }
       this.context = pipeContext;
       createRuntimeStatsGauge(metrics);
 
@@ -217,6 +221,8 @@ public class StagePipe extends Pipe<StagePipe.Context> {
     Batch batch = new FilterRecordBatch(batchImpl, predicates, getStage().getContext());
 
     long start = System.currentTimeMillis();
+    long cpuStart = (profile != null) ? StageProfile.currentThreadCpuTime() : 0;
+    long allocatedStart = (profile != null) ? StageProfile.currentThreadAllocatedBytes() : 0;
     String newOffset = getStage().execute(
         previousOffset,
         pipeBatch.getBatchSize(),
@@ -227,6 +233,12 @@ public class StagePipe extends Pipe<StagePipe.Context> {
         processedSink,
         sourceResponseSink
     );
+    if (profile != null) {
+      profile.record(
+          StageProfile.currentThreadCpuTime() - cpuStart,
+          StageProfile.currentThreadAllocatedBytes() - allocatedStart
+      );
+    }
     if (isSource()) {
       pipeBatch.setNewOffset(newOffset);
     }
@@ -374,5 +386,7 @@ public class StagePipe extends Pipe<StagePipe.Context> {
 
     RuntimeStats getRuntimeStats();
 
+    boolean isStageProfilingEnabled();
+
   }
 }
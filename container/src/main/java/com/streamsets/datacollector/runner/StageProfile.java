@@ -0,0 +1,196 @@
+/*
+ * Copyright 2019 StreamSets Inc.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package com.streamsets.datacollector.runner;
+
+import com.codahale.metrics.Gauge;
+import com.codahale.metrics.MetricRegistry;
+import com.google.common.annotations.VisibleForTesting;
+import com.streamsets.datacollector.metrics.MetricsConfigurator;
+
+import java.lang.management.ManagementFactory;
+import java.lang.management.ThreadMXBean;
+import java.util.ArrayList;
+import java.util.Comparator;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * CPU time and allocated bytes of the batches processed by a stage, in all the runners of the pipeline. They are
+ * measured with the per-thread counters of the JVM around the processing of the stage.
+ * <p/>
+ * The profile is the <code>stage.&lt;instance name&gt;.profile</code> gauge of the pipeline metrics. Its value has the
+ * totals since the pipeline started and the figures of the last {@link #WINDOW_SECONDS} seconds, times are in
+ * milliseconds.
+ */
+public class StageProfile implements Gauge<Map<String, Object>> {
+  public static final String NAME_SUFFIX = ".profile";
+
+  static final String STAGE = "stage";
+  static final String CPU_TIME = "cpuTime";
+  static final String ALLOCATED_BYTES = "allocatedBytes";
+  static final String WINDOW_CPU_TIME = "windowCpuTime";
+  static final String WINDOW_ALLOCATED_BYTES = "windowAllocatedBytes";
+  static final String WINDOW_SECONDS_KEY = "windowSeconds";
+  static final String TOP_CPU = "topCpu";
+  static final String TOP_ALLOCATION = "topAllocation";
+
+  static final int WINDOW_SECONDS = 300;
+  private static final int BUCKET_SECONDS = 10;
+  private static final int BUCKETS = WINDOW_SECONDS / BUCKET_SECONDS;
+
+  private static final ThreadMXBean THREADS = ManagementFactory.getThreadMXBean();
+  private static final com.sun.management.ThreadMXBean ALLOCATIONS = getAllocationsBean();
+
+  private final String instanceName;
+  private long cpuTime;
+  private long allocatedBytes;
+  // the window is a ring of buckets, each one keeps the figures of BUCKET_SECONDS seconds
+  private final long[] bucketIds;
+  private final long[] bucketCpuTime;
+  private final long[] bucketAllocatedBytes;
+
+  StageProfile(String instanceName) {
+    this.instanceName = instanceName;
+    bucketIds = new long[BUCKETS];
+    bucketCpuTime = new long[BUCKETS];
+    bucketAllocatedBytes = new long[BUCKETS];
+  }
+
+  private static com.sun.management.ThreadMXBean getAllocationsBean() {
+    if (THREADS instanceof com.sun.management.ThreadMXBean &&
+        ((com.sun.management.ThreadMXBean) THREADS).isThreadAllocatedMemorySupported()) {
+      return (com.sun.management.ThreadMXBean) THREADS;
+    }
+    return null;
+  }
+
+  /**
+   * Returns the profile of the given stage, creating and registering it if it is the first runner profiling it.
+   */
+  static StageProfile get(MetricRegistry metrics, String instanceName, String pipelineName, String pipelineRev) {
+    String metricsKey = "stage." + instanceName + NAME_SUFFIX;
+    synchronized (metrics) {
+      Gauge gauge = MetricsConfigurator.getGauge(metrics, metricsKey);
+      if (gauge instanceof StageProfile) {
+        return (StageProfile) gauge;
+      }
+      if (THREADS.isCurrentThreadCpuTimeSupported() && !THREADS.isThreadCpuTimeEnabled()) {
+        THREADS.setThreadCpuTimeEnabled(true);
+      }
+      if (ALLOCATIONS != null && !ALLOCATIONS.isThreadAllocatedMemoryEnabled()) {
+        ALLOCATIONS.setThreadAllocatedMemoryEnabled(true);
+      }
+      StageProfile profile = new StageProfile(instanceName);
+      MetricsConfigurator.createGauge(metrics, metricsKey, profile, pipelineName, pipelineRev);
+      return profile;
+    }
+  }
+
+  /**
+   * CPU time of the current thread in nanoseconds, 0 if the JVM does not measure it.
+   */
+  static long currentThreadCpuTime() {
+    return THREADS.isCurrentThreadCpuTimeSupported() ? Math.max(THREADS.getCurrentThreadCpuTime(), 0) : 0;
+  }
+
+  /**
+   * Bytes allocated by the current thread, 0 if the JVM does not measure them.
+   */
+  static long currentThreadAllocatedBytes() {
+    return (ALLOCATIONS != null) ? Math.max(ALLOCATIONS.getThreadAllocatedBytes(Thread.currentThread().getId()), 0) : 0;
+  }
+
+  public String getInstanceName() {
+    return instanceName;
+  }
+
+  /**
+   * Adds the CPU time in nanoseconds and the allocated bytes of a batch.
+   */
+  void record(long cpuNanos, long bytes) {
+    record(System.currentTimeMillis(), cpuNanos, bytes);
+  }
+
+  @VisibleForTesting
+  synchronized void record(long now, long cpuNanos, long bytes) {
+    cpuTime += cpuNanos;
+    allocatedBytes += bytes;
+    long bucketId = now / TimeUnit.SECONDS.toMillis(BUCKET_SECONDS);
+    int bucket = (int) (bucketId % BUCKETS);
+    if (bucketIds[bucket] != bucketId) {
+      bucketIds[bucket] = bucketId;
+      bucketCpuTime[bucket] = 0;
+      bucketAllocatedBytes[bucket] = 0;
+    }
+    bucketCpuTime[bucket] += cpuNanos;
+    bucketAllocatedBytes[bucket] += bytes;
+  }
+
+  @Override
+  public Map<String, Object> getValue() {
+    return getValue(System.currentTimeMillis());
+  }
+
+  @VisibleForTesting
+  synchronized Map<String, Object> getValue(long now) {
+    long currentBucketId = now / TimeUnit.SECONDS.toMillis(BUCKET_SECONDS);
+    long windowCpuTime = 0;
+    long windowAllocatedBytes = 0;
+    for (int i = 0; i < BUCKETS; i++) {
+      if (bucketIds[i] > currentBucketId - BUCKETS) {
+        windowCpuTime += bucketCpuTime[i];
+        windowAllocatedBytes += bucketAllocatedBytes[i];
+      }
+    }
+    Map<String, Object> value = new LinkedHashMap<>();
+    value.put(CPU_TIME, TimeUnit.NANOSECONDS.toMillis(cpuTime));
+    value.put(ALLOCATED_BYTES, allocatedBytes);
+    value.put(WINDOW_CPU_TIME, TimeUnit.NANOSECONDS.toMillis(windowCpuTime));
+    value.put(WINDOW_ALLOCATED_BYTES, windowAllocatedBytes);
+    value.put(WINDOW_SECONDS_KEY, WINDOW_SECONDS);
+    return value;
+  }
+
+  /**
+   * Returns the stages of the given pipeline metrics that used the most CPU time and that allocated the most bytes in
+   * the last {@link #WINDOW_SECONDS} seconds, the given number of each.
+   */
+  public static Map<String, Object> getTopStages(MetricRegistry metrics, int top) {
+    List<Map<String, Object>> profiles = new ArrayList<>();
+    for (Gauge gauge : metrics.getGauges((name, metric) -> metric instanceof StageProfile).values()) {
+      StageProfile profile = (StageProfile) gauge;
+      Map<String, Object> value = new LinkedHashMap<>();
+      value.put(STAGE, profile.getInstanceName());
+      value.putAll(profile.getValue());
+      value.remove(WINDOW_SECONDS_KEY);
+      profiles.add(value);
+    }
+    Map<String, Object> topStages = new LinkedHashMap<>();
+    topStages.put(WINDOW_SECONDS_KEY, WINDOW_SECONDS);
+    topStages.put(TOP_CPU, top(profiles, WINDOW_CPU_TIME, top));
+    topStages.put(TOP_ALLOCATION, top(profiles, WINDOW_ALLOCATED_BYTES, top));
+    return topStages;
+  }
+
+  private static List<Map<String, Object>> top(List<Map<String, Object>> profiles, String key, int top) {
+    List<Map<String, Object>> sorted = new ArrayList<>(profiles);
+    sorted.sort(Comparator.comparingLong((Map<String, Object> profile) -> (Long) profile.get(key)).reversed());
+    return sorted.subList(0, Math.min(Math.max(top, 0), sorted.size()));
+  }
+
+}
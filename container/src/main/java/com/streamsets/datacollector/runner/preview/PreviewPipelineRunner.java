@@ -107,6 +107,7 @@ public class PreviewPipelineRunner implements PipelineRunner, PushSourceContextD
   private Map<String, StageOutput> stagesToSkip;
   private AtomicInteger batchesProcessed;
   private PipelineConfiguration pipelineConfiguration;
+  private StreamingPreviewWriter streamingWriter;
 
   public PreviewPipelineRunner(
       String name,
@@ -134,6 +135,14 @@ public class PreviewPipelineRunner implements PipelineRunner, PushSourceContextD
     this.reportedErrors = new HashMap<>();
   }
 
+  /**
+   * Streams the stage outputs to the given buffer as the stages complete instead of keeping snapshots of them in the
+   * batches output.
+   */
+  public void setStreamingOutput(StreamingPreviewBuffer streamingOutput) {
+    streamingWriter = new StreamingPreviewWriter(streamingOutput);
+  }
+
   @Override
   public MetricRegistryJson getMetricRegistryJson() {
     return null;
@@ -246,7 +255,7 @@ public class PreviewPipelineRunner implements PipelineRunner, PushSourceContextD
 
   @Override
   public BatchContext startBatch() {
-    FullPipeBatch pipeBatch = new FullPipeBatch(null, null, batchSize, true);
+    FullPipeBatch pipeBatch = createPipeBatch(null, null);
     BatchContextImpl batchContext = new BatchContextImpl(pipeBatch);
 
     originPipe.prepareBatchContext(batchContext);
@@ -280,7 +289,7 @@ public class PreviewPipelineRunner implements PipelineRunner, PushSourceContextD
       );
 
       // Increment amount of intercepted batches by one and end the processing if we have desirable amount
-      if (batchesProcessed.get() >= batches) {
+      if (batchesProcessed.get() >= batches || isStreamingOutputTruncated()) {
         ((StageContext) originPipe.getStage().getContext()).setStop(true);
       }
 
@@ -312,12 +321,10 @@ public class PreviewPipelineRunner implements PipelineRunner, PushSourceContextD
   }
 
   private void runPollSource() throws StageException, PipelineRuntimeException {
-    while(batchesProcessed.get() < batches) {
-      FullPipeBatch pipeBatch = new FullPipeBatch(
+    while(batchesProcessed.get() < batches && !isStreamingOutputTruncated()) {
+      FullPipeBatch pipeBatch = createPipeBatch(
         Source.POLL_SOURCE_OFFSET_KEY,
-        offsetTracker.getOffsets().get(Source.POLL_SOURCE_OFFSET_KEY),
-        batchSize,
-        true
+        offsetTracker.getOffsets().get(Source.POLL_SOURCE_OFFSET_KEY)
       );
 
       long start = System.currentTimeMillis();
@@ -372,6 +379,13 @@ public class PreviewPipelineRunner implements PipelineRunner, PushSourceContextD
     //TODO badRecordsHandler HANDLE ERRORS
     processingTimer.update(System.currentTimeMillis() - start, TimeUnit.MILLISECONDS);
 
+    if (streamingWriter != null) {
+      if (((StreamingPreviewWriter.BatchWriter) pipeBatch.getStageOutputListener()).isWritten()) {
+        batchesProcessed.incrementAndGet();
+      }
+      return;
+    }
+
     List<StageOutput> stageOutputs = pipeBatch.getSnapshotsOfAllStagesOutput();
     if(ValidationUtil.isSnapshotOutputUsable(stageOutputs)) {
       batchesOutput.add(addReportedErrorsIfNeeded(pipeBatch.getSnapshotsOfAllStagesOutput()));
@@ -379,6 +393,20 @@ public class PreviewPipelineRunner implements PipelineRunner, PushSourceContextD
     }
   }
 
+  private FullPipeBatch createPipeBatch(String sourceEntity, String lastOffset) {
+    if (streamingWriter == null) {
+      return new FullPipeBatch(sourceEntity, lastOffset, batchSize, true);
+    }
+    // The stage outputs are written as each stage completes, no snapshot copies are needed
+    FullPipeBatch pipeBatch = new FullPipeBatch(sourceEntity, lastOffset, batchSize, false);
+    pipeBatch.setStageOutputListener(streamingWriter.newBatch());
+    return pipeBatch;
+  }
+
+  private boolean isStreamingOutputTruncated() {
+    return streamingWriter != null && streamingWriter.getBuffer().isTruncated();
+  }
+
   /**
    * Preview only returns data associated with batches, however errors are reported outside of batch context for
    * multi-threaded pipelines. Thus we 'emulate' the behavior by simply adding into the current batch all 'so-far'
@@ -0,0 +1,126 @@
+/*
+ * Copyright 2019 StreamSets Inc.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package com.streamsets.datacollector.runner.preview;
+
+import java.util.ArrayDeque;
+import java.util.Queue;
+
+/**
+ * Serialized stage outputs of a streaming preview waiting to be sent to the client.
+ * <p/>
+ * The buffer is bounded in bytes, this is the memory a streaming preview may hold. When a stage output does not fit
+ * the preview waits for the client to read the stage outputs already in the buffer. If there is still no room when
+ * the wait times out, or the stage output would not fit even in the empty buffer, the preview output is truncated, no
+ * more stage outputs are accepted and the preview stops.
+ */
+public class StreamingPreviewBuffer {
+  private final long maxSize;
+  private final long offerTimeoutMillis;
+  private final Queue<byte[]> chunks;
+  private long size;
+  private boolean truncated;
+  private boolean closed;
+
+  /**
+   * Creates a buffer that truncates the preview output as soon as a stage output does not fit.
+   */
+  public StreamingPreviewBuffer(long maxSize) {
+    this(maxSize, 0);
+  }
+
+  /**
+   * @param maxSize maximum size in bytes of the stage outputs held in the buffer
+   * @param offerTimeoutMillis how long to wait for the client to make room for a stage output
+   */
+  public StreamingPreviewBuffer(long maxSize, long offerTimeoutMillis) {
+    this.maxSize = maxSize;
+    this.offerTimeoutMillis = offerTimeoutMillis;
+    chunks = new ArrayDeque<>();
+  }
+
+  public long getMaxSize() {
+    return maxSize;
+  }
+
+  /**
+   * Adds a chunk, waiting for room in the buffer if necessary. Returns <code>false</code> if it was discarded because
+   * the buffer is closed or stayed full until the timeout.
+   */
+  public synchronized boolean offer(byte[] chunk) {
+    long deadline = System.currentTimeMillis() + offerTimeoutMillis;
+    while (!closed && !truncated && size + chunk.length > maxSize && chunk.length <= maxSize) {
+      long wait = deadline - System.currentTimeMillis();
+      if (wait <= 0) {
+        break;
+      }
+      try {
+        wait(wait);
+      } catch (InterruptedException ex) {
+        Thread.currentThread().interrupt();
+        break;
+      }
+    }
+    if (closed || truncated) {
+      return false;
+    }
+    if (size + chunk.length > maxSize) {
+      truncated = true;
+      notifyAll();
+      return false;
+    }
+    chunks.add(chunk);
+    size += chunk.length;
+    notifyAll();
+    return true;
+  }
+
+  /**
+   * Returns the next chunk waiting for it if necessary, <code>null</code> once the buffer is closed and empty.
+   */
+  public synchronized byte[] take() throws InterruptedException {
+    while (chunks.isEmpty() && !closed) {
+      wait();
+    }
+    byte[] chunk = chunks.poll();
+    if (chunk != null) {
+      size -= chunk.length;
+      // there is room for the stage outputs waiting for it
+      notifyAll();
+    }
+    return chunk;
+  }
+
+  /**
+   * Marks the end of the preview output, the chunks already in the buffer can still be taken.
+   */
+  public synchronized void close() {
+    closed = true;
+    notifyAll();
+  }
+
+  public synchronized boolean isClosed() {
+    return closed;
+  }
+
+  public synchronized boolean isTruncated() {
+    return truncated;
+  }
+
+  public synchronized long getSize() {
+    return size;
+  }
+
+}
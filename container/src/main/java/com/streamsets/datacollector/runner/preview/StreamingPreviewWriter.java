@@ -0,0 +1,259 @@
+/*
+ * Copyright 2019 StreamSets Inc.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package com.streamsets.datacollector.runner.preview;
+
+import com.fasterxml.jackson.databind.JsonNode;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.fasterxml.jackson.databind.node.ArrayNode;
+import com.fasterxml.jackson.databind.node.ObjectNode;
+import com.google.common.base.Throwables;
+import com.google.common.io.ByteStreams;
+import com.google.common.io.CountingOutputStream;
+import com.streamsets.datacollector.json.ObjectMapperFactory;
+import com.streamsets.datacollector.restapi.bean.StageOutputJson;
+import com.streamsets.datacollector.runner.StageOutput;
+import com.streamsets.datacollector.runner.StageOutputListener;
+import com.streamsets.datacollector.util.ValidationUtil;
+
+import java.io.ByteArrayOutputStream;
+import java.io.IOException;
+import java.util.Collections;
+import java.util.HashMap;
+import java.util.HashSet;
+import java.util.Iterator;
+import java.util.Map;
+import java.util.Objects;
+import java.util.Set;
+import java.util.concurrent.atomic.AtomicInteger;
+
+/**
+ * Writes the stage outputs of a streaming preview to a {@link StreamingPreviewBuffer}, one JSON object per line:
+ * <pre>
+ *   {"batch": 0, "stageOutput": {"instanceName": ..., "output": ..., "errorRecords": ..., ...}}
+ * </pre>
+ * The stage output has the same layout as in the regular preview output. Stage outputs without records, events or
+ * errors are not written.
+ * <p/>
+ * An output record that comes from a record written earlier in the same batch (its <code>previousTrackingId</code> is
+ * the <code>trackingId</code> of that record) is written as the fields that changed against that record:
+ * <pre>
+ *   {"header": {...}, "base": "trackingId of the base record", "changed": {"/path": field}, "removed": ["/path"]}
+ * </pre>
+ * The paths are the <code>sqpath</code> of the fields, the client rebuilds the record removing the removed fields of
+ * the base record and setting the changed ones.
+ * <p/>
+ * The field values kept per batch to diff against are bounded by the maximum size of the buffer, once it is reached
+ * the records coming from records not kept yet are written in full.
+ */
+public class StreamingPreviewWriter {
+  static final String BATCH = "batch";
+  static final String STAGE_OUTPUT = "stageOutput";
+  static final String HEADER = "header";
+  static final String VALUE = "value";
+  static final String BASE = "base";
+  static final String CHANGED = "changed";
+  static final String REMOVED = "removed";
+
+  private static final String TYPE = "type";
+  private static final String PATH = "sqpath";
+  private static final String ATTRIBUTES = "attributes";
+
+  private final StreamingPreviewBuffer buffer;
+  private final AtomicInteger batches;
+
+  public StreamingPreviewWriter(StreamingPreviewBuffer buffer) {
+    this.buffer = buffer;
+    batches = new AtomicInteger();
+  }
+
+  public StreamingPreviewBuffer getBuffer() {
+    return buffer;
+  }
+
+  public BatchWriter newBatch() {
+    return new BatchWriter();
+  }
+
+  /**
+   * Writes the stage outputs of one batch, it keeps the field values of the records of the batch to diff against them.
+   */
+  public class BatchWriter implements StageOutputListener {
+    private final Map<String, JsonNode> values;
+    // tracking IDs shared by records with different values, or whose values were not kept as the size of the kept
+    // values reached the maximum, records coming from them are written in full
+    private final Set<String> ambiguous;
+    private long valuesSize;
+    private int batch;
+
+    BatchWriter() {
+      values = new HashMap<>();
+      ambiguous = new HashSet<>();
+      batch = -1;
+    }
+
+    @Override
+    public void stageOutput(StageOutput stageOutput) {
+      if (buffer.isTruncated() || !ValidationUtil.isSnapshotOutputUsable(Collections.singletonList(stageOutput))) {
+        return;
+      }
+      if (batch < 0) {
+        batch = batches.getAndIncrement();
+      }
+      ObjectMapper objectMapper = ObjectMapperFactory.getOneLine();
+      ObjectNode stageOutputNode = objectMapper.valueToTree(new StageOutputJson(stageOutput));
+      JsonNode output = stageOutputNode.path("output");
+      Iterator<JsonNode> lanes = output.elements();
+      while (lanes.hasNext()) {
+        JsonNode records = lanes.next();
+        for (int i = 0; i < records.size(); i++) {
+          ((ArrayNode) records).set(i, encode((ObjectNode) records.get(i)));
+        }
+      }
+      ObjectNode line = objectMapper.createObjectNode();
+      line.put(BATCH, batch);
+      line.set(STAGE_OUTPUT, stageOutputNode);
+      try {
+        ByteArrayOutputStream os = new ByteArrayOutputStream();
+        objectMapper.writeValue(os, line);
+        os.write('\n');
+        buffer.offer(os.toByteArray());
+      } catch (IOException ex) {
+        throw Throwables.propagate(ex);
+      }
+    }
+
+    /**
+     * Returns if any stage output of the batch was written.
+     */
+    public boolean isWritten() {
+      return batch >= 0;
+    }
+
+    private ObjectNode encode(ObjectNode record) {
+      JsonNode header = record.path(HEADER);
+      JsonNode value = record.get(VALUE);
+      String previousTrackingId = header.path("previousTrackingId").textValue();
+      JsonNode base = (previousTrackingId != null) ? values.get(previousTrackingId) : null;
+      remember(header.path("trackingId").textValue(), value);
+      if (base == null) {
+        return record;
+      }
+      ObjectNode diff = record.objectNode();
+      diff.set(HEADER, header);
+      diff.put(BASE, previousTrackingId);
+      ObjectNode changed = diff.putObject(CHANGED);
+      ArrayNode removed = diff.putArray(REMOVED);
+      diff(base, value, changed, removed);
+      // if the whole value changed the diff is not smaller than the record
+      return changed.has("") ? record : diff;
+    }
+
+    private void remember(String trackingId, JsonNode value) {
+      if (trackingId == null || ambiguous.contains(trackingId)) {
+        return;
+      }
+      JsonNode known = values.get(trackingId);
+      if (known == null) {
+        if (valuesSize >= buffer.getMaxSize()) {
+          ambiguous.add(trackingId);
+          return;
+        }
+        values.put(trackingId, value);
+        valuesSize += sizeOf(value);
+      } else if (!known.equals(value)) {
+        // its size stays counted, the kept values are bounded not measured
+        values.remove(trackingId);
+        ambiguous.add(trackingId);
+      }
+    }
+
+    private long sizeOf(JsonNode value) {
+      CountingOutputStream os = new CountingOutputStream(ByteStreams.nullOutputStream());
+      try {
+        ObjectMapperFactory.getOneLine().writeValue(os, value);
+      } catch (IOException ex) {
+        throw Throwables.propagate(ex);
+      }
+      return os.getCount();
+    }
+  }
+
+  /**
+   * Collects the fields of <code>current</code> that are not in <code>base</code> or differ from it in
+   * <code>changed</code> and the paths of the fields of <code>base</code> that are not in <code>current</code> in
+   * <code>removed</code>. A field that changed its type or attributes is changed as a whole.
+   */
+  static void diff(JsonNode base, JsonNode current, ObjectNode changed, ArrayNode removed) {
+    if (base == null || current == null || base.isNull() || current.isNull()) {
+      if (!Objects.equals(base, current)) {
+        changed.set("", current);
+      }
+      return;
+    }
+    if (base.equals(current)) {
+      return;
+    }
+    String type = current.path(TYPE).asText();
+    JsonNode baseValue = base.get(VALUE);
+    JsonNode currentValue = current.get(VALUE);
+    if (type.equals(base.path(TYPE).asText()) &&
+        base.path(ATTRIBUTES).equals(current.path(ATTRIBUTES)) &&
+        baseValue != null && currentValue != null) {
+      if (baseValue.isObject() && currentValue.isObject()) {
+        // MAP, the children are keyed by name
+        Iterator<Map.Entry<String, JsonNode>> baseFields = baseValue.fields();
+        while (baseFields.hasNext()) {
+          Map.Entry<String, JsonNode> entry = baseFields.next();
+          if (!currentValue.has(entry.getKey())) {
+            removed.add(entry.getValue().path(PATH).asText());
+          }
+        }
+        Iterator<Map.Entry<String, JsonNode>> currentFields = currentValue.fields();
+        while (currentFields.hasNext()) {
+          Map.Entry<String, JsonNode> entry = currentFields.next();
+          JsonNode baseField = baseValue.get(entry.getKey());
+          if (baseField == null) {
+            changed.set(entry.getValue().path(PATH).asText(), entry.getValue());
+          } else {
+            diff(baseField, entry.getValue(), changed, removed);
+          }
+        }
+        return;
+      }
+      if (baseValue.isArray() && currentValue.isArray() && sameElementPaths(baseValue, currentValue)) {
+        // LIST or LIST_MAP with the same elements, elements added, removed or renamed replace the whole field
+        for (int i = 0; i < currentValue.size(); i++) {
+          diff(baseValue.get(i), currentValue.get(i), changed, removed);
+        }
+        return;
+      }
+    }
+    changed.set(current.path(PATH).asText(), current);
+  }
+
+  private static boolean sameElementPaths(JsonNode base, JsonNode current) {
+    if (base.size() != current.size()) {
+      return false;
+    }
+    for (int i = 0; i < base.size(); i++) {
+      if (!base.get(i).path(PATH).equals(current.get(i).path(PATH))) {
+        return false;
+      }
+    }
+    return true;
+  }
+
+}
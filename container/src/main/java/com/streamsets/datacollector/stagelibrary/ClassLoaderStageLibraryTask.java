@@ -15,6 +15,7 @@
  */
 package com.streamsets.datacollector.stagelibrary;
 
+import com.codahale.metrics.Gauge;
 import com.fasterxml.jackson.databind.ObjectMapper;
 import com.google.common.annotations.VisibleForTesting;
 import com.google.common.base.Splitter;
@@ -91,6 +92,7 @@ import java.io.IOException;
 import java.io.InputStream;
 import java.lang.reflect.Method;
 import java.net.URL;
+import java.nio.file.Paths;
 import java.time.Duration;
 import java.time.Instant;
 import java.util.ArrayList;
@@ -99,6 +101,7 @@ import java.util.Enumeration;
 import java.util.HashMap;
 import java.util.HashSet;
 import java.util.Iterator;
+import java.util.LinkedHashMap;
 import java.util.LinkedList;
 import java.util.List;
 import java.util.Locale;
@@ -106,6 +109,9 @@ import java.util.Map;
 import java.util.Properties;
 import java.util.Set;
 import java.util.concurrent.ExecutionException;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
 import java.util.concurrent.atomic.AtomicInteger;
 import java.util.stream.Collectors;
 
@@ -137,6 +143,22 @@ public class ClassLoaderStageLibraryTask extends AbstractTask implements StageLi
 
   private static final String DEFAULT_REQUIRED_STAGELIBS = "";
 
+  static final String CONFIG_LOAD_THREADS = "stagelibs.load.threads";
+  private static final int DEFAULT_LOAD_THREADS = Runtime.getRuntime().availableProcessors();
+
+  static final String CONFIG_DEFINITIONS_CACHE = "stagelibs.definitions.cache.enable";
+  private static final boolean DEFAULT_DEFINITIONS_CACHE = true;
+
+  // resources listing the classes of the plugins of each stage library
+  private static final List<String> DEFINITION_RESOURCES = ImmutableList.of(
+      STAGES_DEFINITION_RESOURCE,
+      LINEAGE_PUBLISHERS_DEFINITION_RESOURCE,
+      CREDENTIAL_STORE_DEFINITION_RESOURCE,
+      SERVICE_DEFINITION_RESOURCE,
+      INTERCEPTOR_DEFINITION_RESOURCE,
+      DELEGATE_DEFINITION_RESOURCE
+  );
+
   private static final String NIGHTLY_URL = "http://nightly.streamsets.com/datacollector/";
   private static final String ARCHIVES_URL = "http://archives.streamsets.com/datacollector/";
   private static final String LATEST = "latest";
@@ -150,6 +172,15 @@ public class ClassLoaderStageLibraryTask extends AbstractTask implements StageLi
   private static final String PRIVATE_POOL_ACTIVE = "active";
   private static final String PRIVATE_POOL_IDLE = "idle";
   private static final String PRIVATE_POOL_MAX = "max";
+  private static final String STARTUP_CLASSPATH_VALIDATION_TIME = "classpathValidationTime";
+  private static final String STARTUP_LOAD_TIME = "loadTime";
+  private static final String STARTUP_VALIDATION_TIME = "validationTime";
+  private static final String STARTUP_LIBRARIES = "libraries";
+  private static final String STARTUP_LOAD_THREADS = "loadThreads";
+  private static final String STARTUP_CACHED_LIBRARIES = "cachedLibraries";
+  private static final String CLASSLOADER_LOADED_CLASSES = "loadedClasses";
+  private static final String CLASSLOADER_LOAD_TIME = "loadTime";
+  private static final String CLASSLOADER_SKIPPED_LOOKUPS = "skippedLookups";
 
   private static final Logger LOG = LoggerFactory.getLogger(ClassLoaderStageLibraryTask.class);
 
@@ -177,6 +208,11 @@ public class ClassLoaderStageLibraryTask extends AbstractTask implements StageLi
   private Map<String, Object> gaugeMap;
   private final Map<String, EventDefinitionJson> eventDefinitionMap = new HashMap<>();
   private volatile List<RepositoryManifestJson> repositoryManifestList = null;
+  private int loadThreads;
+  private int loadedLibraries;
+  private StageLibraryDefinitionsCache definitionsCache;
+  private final AtomicInteger cachedLibraries = new AtomicInteger();
+  private long loadTime;
 
   @Inject
   public ClassLoaderStageLibraryTask(RuntimeInfo runtimeInfo, BuildInfo buildInfo, Configuration configuration) {
@@ -270,8 +306,11 @@ public class ClassLoaderStageLibraryTask extends AbstractTask implements StageLi
       resolveClassLoaderMethods(stageClassLoaders.get(0));
     }
 
+    long classpathValidationTime = 0;
     if(configuration.get(CONFIG_CP_VALIDATION, DEFAULT_CP_VALIDATION)) {
+      long start = System.currentTimeMillis();
       validateStageClasspaths();
+      classpathValidationTime = System.currentTimeMillis() - start;
     }
 
     // Load all stages and other objects from the libraries
@@ -313,11 +352,13 @@ public class ClassLoaderStageLibraryTask extends AbstractTask implements StageLi
         return list;
       }
     });
+    long validationStart = System.currentTimeMillis();
     validateAllServicesAvailable();
     validateStageVersions(stageList);
     validateServices(stageList, serviceList);
     validateDelegates(delegateList);
     validateRequiredStageLibraries();
+    long validationTime = System.currentTimeMillis() - validationStart;
 
     // initializing the list of targets that can be used for error handling
     ErrorHandlingChooserValues.setErrorHandlingOptions(this);
@@ -356,6 +397,26 @@ public class ClassLoaderStageLibraryTask extends AbstractTask implements StageLi
     this.gaugeMap.put(PRIVATE_POOL_IDLE, new AtomicInteger(0));
     this.gaugeMap.put(PRIVATE_POOL_MAX, maxPrivateClassloaders);
 
+    // Time spent in each phase of loading the stage libraries
+    Map<String, Object> startupGauge = MetricsConfigurator.createFrameworkGauge(
+      runtimeInfo.getMetrics(),
+      "stageLibrary.startup",
+      "runtime",
+      null
+    ).getValue();
+    startupGauge.put(STARTUP_CLASSPATH_VALIDATION_TIME, classpathValidationTime);
+    startupGauge.put(STARTUP_LOAD_TIME, loadTime);
+    startupGauge.put(STARTUP_VALIDATION_TIME, validationTime);
+    startupGauge.put(STARTUP_LIBRARIES, loadedLibraries);
+    startupGauge.put(STARTUP_LOAD_THREADS, loadThreads);
+    startupGauge.put(STARTUP_CACHED_LIBRARIES, cachedLibraries.get());
+
+    // Class loading of each stage library, including its private class loaders
+    runtimeInfo.getMetrics().register(
+      MetricsConfigurator.JMX_FRAMEWORK_PREFIX + "classloader.libraries.runtime" + MetricsConfigurator.GAUGE_SUFFIX,
+      (Gauge<Map<String, Object>>) this::getClassLoadingMetrics
+    );
+
     if (!Boolean.getBoolean("streamsets.cloud")) {
       // auto load stage library definitions
       Thread thread = new Thread(this::getRepositoryManifestList);
@@ -508,7 +569,6 @@ public class ClassLoaderStageLibraryTask extends AbstractTask implements StageLi
   }
 
   @VisibleForTesting
-  @SuppressWarnings("unchecked")
   void loadStages() {
     String javaVersion = System.getProperty("java.version");
     Version sdcVersion = new Version(buildInfo.getVersion());
@@ -527,133 +587,303 @@ public class ClassLoaderStageLibraryTask extends AbstractTask implements StageLi
         Utils.format("Could not load runtime configuration, '{}'", e.toString()), e);
     }
 
-    try {
-      int libs = 0;
-      int stages = 0;
-      int lineagePublishers = 0;
-      int credentialStores = 0;
-      int services = 0;
-      int interceptors = 0;
-      int delegates = 0;
-      long start = System.currentTimeMillis();
+    if (configuration.get(CONFIG_DEFINITIONS_CACHE, DEFAULT_DEFINITIONS_CACHE) && runtimeInfo.getDataDir() != null) {
+      definitionsCache = new StageLibraryDefinitionsCache(
+          Paths.get(runtimeInfo.getDataDir(), StageLibraryDefinitionsCache.CACHE_DIR),
+          Utils.format("{}|{}|{}|{}", buildInfo.getVersion(), buildInfo.getBuiltDate(), buildInfo.getBuiltRepoSha(),
+              javaVersion),
+          json
+      );
+    }
+
+    long start = System.currentTimeMillis();
+    List<LibraryDefinitions> loaded = loadLibraries(javaVersion, sdcVersion);
+
+    // merging in the order of the class loaders, the result is the same as loading the libraries one by one
+    int libs = 0;
+    for (LibraryDefinitions lib : loaded) {
+      if (lib == null) {
+        continue;
+      }
+      StageLibraryDefinition libDef = lib.libDef;
+      stageLibraries.add(libDef);
+      stageLibraryMap.put(libDef.getName(), libDef);
+      libs++;
+      for (StageDefinition stage : lib.stages) {
+        stageList.add(stage);
+        stageMap.put(createKey(libDef.getName(), stage.getName()), stage);
+      }
+      for (Map.Entry<String, EventDefinitionJson> entry : lib.eventDefinitions.entrySet()) {
+        eventDefinitionMap.putIfAbsent(entry.getKey(), entry.getValue());
+      }
+      for (LineagePublisherDefinition lineage : lib.lineagePublishers) {
+        lineagePublisherDefinitions.add(lineage);
+        lineagePublisherDefinitionMap.put(createKey(libDef.getName(), lineage.getName()), lineage);
+      }
+      credentialStoreDefinitions.addAll(lib.credentialStores);
+      for (ServiceDefinition def : lib.services) {
+        serviceList.add(def);
+        serviceMap.put(def.getProvides(), def);
+      }
+      interceptorList.addAll(lib.interceptors);
+      for (StageLibraryDelegateDefinitition def : lib.delegates) {
+        delegateList.add(def);
+        delegateMap.put(createKey(libDef.getName(), def.getExportedInterface().getCanonicalName()), def);
+      }
+    }
+    loadTime = System.currentTimeMillis() - start;
+    loadedLibraries = libs;
+    LOG.info(
+      "Loaded '{}' libraries ('{}' from cached definitions) with a total of '{}' stages, '{}' lineage publishers, '{}' services, '{}' interceptors, '{}' delegates and '{}' credentialStores in '{}ms' using '{}' threads",
+      libs,
+      cachedLibraries.get(),
+      stageList.size(),
+      lineagePublisherDefinitions.size(),
+      serviceList.size(),
+      interceptorList.size(),
+      delegateList.size(),
+      credentialStoreDefinitions.size(),
+      loadTime,
+      loadThreads
+    );
+  }
+
+  /**
+   * Definitions loaded from a single stage library.
+   */
+  private static class LibraryDefinitions {
+    private final StageLibraryDefinition libDef;
+    private final List<StageDefinition> stages = new ArrayList<>();
+    private final Map<String, EventDefinitionJson> eventDefinitions = new LinkedHashMap<>();
+    private final List<LineagePublisherDefinition> lineagePublishers = new ArrayList<>();
+    private final List<CredentialStoreDefinition> credentialStores = new ArrayList<>();
+    private final List<ServiceDefinition> services = new ArrayList<>();
+    private final List<InterceptorDefinition> interceptors = new ArrayList<>();
+    private final List<StageLibraryDelegateDefinitition> delegates = new ArrayList<>();
+    // names of the classes listed by each definition resource
+    private final Map<String, List<String>> classes = new LinkedHashMap<>();
+
+    LibraryDefinitions(StageLibraryDefinition libDef) {
+      this.libDef = libDef;
+    }
+  }
+
+  /**
+   * Loads the stage libraries concurrently, definitions are extracted by reflection which for a large number of
+   * libraries dominates the startup time. The returned list is in the order of the stage library class loaders and
+   * has a NULL element for each library that is not compatible with the current JVM.
+   */
+  private List<LibraryDefinitions> loadLibraries(String javaVersion, Version sdcVersion) {
+    loadThreads = Math.max(1, Math.min(configuration.get(CONFIG_LOAD_THREADS, DEFAULT_LOAD_THREADS),
+        stageClassLoaders.size()));
+    List<LibraryDefinitions> loaded = new ArrayList<>(stageClassLoaders.size());
+    if (loadThreads == 1) {
       LocaleInContext.set(Locale.getDefault());
+      try {
+        for (ClassLoader cl : stageClassLoaders) {
+          loaded.add(loadLibrary(cl, javaVersion, sdcVersion));
+        }
+      } finally {
+        LocaleInContext.set(null);
+      }
+      return loaded;
+    }
+
+    AtomicInteger threadCounter = new AtomicInteger();
+    ExecutorService executor = Executors.newFixedThreadPool(loadThreads, runnable -> {
+      Thread thread = new Thread(runnable);
+      thread.setDaemon(true);
+      thread.setName("StageLibraryLoader-" + threadCounter.incrementAndGet());
+      return thread;
+    });
+    try {
+      List<Future<LibraryDefinitions>> futures = new ArrayList<>(stageClassLoaders.size());
       for (ClassLoader cl : stageClassLoaders) {
+        futures.add(executor.submit(() -> {
+          LocaleInContext.set(Locale.getDefault());
+          try {
+            return loadLibrary(cl, javaVersion, sdcVersion);
+          } finally {
+            LocaleInContext.set(null);
+          }
+        }));
+      }
+      // waiting in order, if more than one library fails the failure reported is the one of the first library
+      for (Future<LibraryDefinitions> future : futures) {
         try {
-          // Before loading any stages, let's verify that given stage library is compatible with our current JVM version
-          String unsupportedJvmVersion = getPropertyFromLibraryProperties(cl, JAVA_UNSUPPORTED_REGEXP, null);
-          if(!StringUtils.isEmpty(unsupportedJvmVersion)) {
-            if(javaVersion.matches(unsupportedJvmVersion)) {
-              LOG.warn("Can't load stages from {} since they are not compatible with current JVM version", StageLibraryUtils.getLibraryName(cl));
-              continue;
-            } else {
-              LOG.debug("Stage lib {} passed java compatibility test for '{}'", StageLibraryUtils.getLibraryName(cl), unsupportedJvmVersion);
-            }
+          loaded.add(future.get());
+        } catch (ExecutionException ex) {
+          Throwable cause = ex.getCause();
+          if (cause instanceof RuntimeException) {
+            throw (RuntimeException) cause;
+          } else if (cause instanceof Error) {
+            throw (Error) cause;
           }
+          throw new RuntimeException(Utils.format("Could not load stage libraries: {}", cause.toString()), cause);
+        } catch (InterruptedException ex) {
+          Thread.currentThread().interrupt();
+          throw new RuntimeException("Interrupted while loading stage libraries", ex);
+        }
+      }
+    } finally {
+      executor.shutdownNow();
+    }
+    return loaded;
+  }
 
-          // And that this SDC is at least on requested version
-          String minSdcVersion = getPropertyFromLibraryProperties(cl, MIN_SDC_VERSION, null);
-          if(!StringUtils.isEmpty(minSdcVersion)) {
-            if(!sdcVersion.isGreaterOrEqualTo(minSdcVersion)) {
-              throw new IllegalArgumentException(
-                  Utils.format("Can't load stage library '{}' as it requires at least SDC version {} whereas current version is {}",
-                  StageLibraryUtils.getLibraryName(cl),
-                  minSdcVersion,
-                  buildInfo.getVersion()
-                ));
-            }
-          }
+  /**
+   * Loads the library from its cached definitions if they are up to date, by scanning it otherwise.
+   */
+  private LibraryDefinitions loadLibrary(ClassLoader cl, String javaVersion, Version sdcVersion) {
+    String libraryName = StageLibraryUtils.getLibraryName(cl);
+    String checksum = (definitionsCache == null) ? null : definitionsCache.checksum(cl);
+    StageLibraryDefinitionsCache.Entry entry = (checksum == null) ? null : definitionsCache.get(libraryName, checksum);
+    if (entry != null) {
+      try {
+        LibraryDefinitions lib = loadCachedLibrary(cl, entry);
+        cachedLibraries.incrementAndGet();
+        return lib;
+      } catch (RuntimeException | ClassNotFoundException ex) {
+        LOG.warn("Could not load library '{}' from its cached definitions, scanning it: {}", libraryName, ex.toString());
+      }
+    }
 
-          // Load stages from the stage library
-          StageLibraryDefinition libDef = StageLibraryDefinitionExtractor.get().extract(cl);
-          libDef.setVersion(getPropertyFromLibraryProperties(cl, "version", ""));
-          LOG.debug("Loading stages and plugins from library '{}' on version {}", libDef.getName(), libDef.getVersion());
-          stageLibraries.add(libDef);
-          stageLibraryMap.put(libDef.getName(), libDef);
-          libs++;
-
-          // Load Stages
-          for(Class klass : loadClassesFromResource(libDef, cl, STAGES_DEFINITION_RESOURCE)) {
-            stages++;
-            StageDefinition stage = StageDefinitionExtractor.get().extract(libDef, klass, Utils.formatL("Library='{}'", libDef.getName()));
-            String key = createKey(libDef.getName(), stage.getName());
-            LOG.debug("Loaded stage '{}'  version {}", key, stage.getVersion());
-            stageList.add(stage);
-            stageMap.put(key, stage);
-
-            for(Class eventDefClass : stage.getEventDefs()) {
-              if (!eventDefinitionMap.containsKey(eventDefClass.getCanonicalName())) {
-                eventDefinitionMap.put(
-                    eventDefClass.getCanonicalName(),
-                    EventDefinitionExtractor.get().extractEventDefinition(eventDefClass)
-                );
-              }
-            }
-          }
+    LibraryDefinitions lib = scanLibrary(cl, javaVersion, sdcVersion);
+    if (checksum != null) {
+      definitionsCache.put(libraryName, checksum, (lib == null)
+          ? new StageLibraryDefinitionsCache.Entry(false, null, Collections.emptyMap())
+          : new StageLibraryDefinitionsCache.Entry(true, lib.libDef.getVersion(), lib.classes)
+      );
+    }
+    return lib;
+  }
 
-          // Load Lineage publishers
-          for(Class klass : loadClassesFromResource(libDef, cl, LINEAGE_PUBLISHERS_DEFINITION_RESOURCE)) {
-            lineagePublishers++;
-            LineagePublisherDefinition lineage = LineagePublisherDefinitionExtractor.get().extract(libDef, klass);
-            String key = createKey(libDef.getName(), lineage.getName());
-            LOG.debug("Loaded lineage plugin '{}'", key);
-            lineagePublisherDefinitions.add(lineage);
-            lineagePublisherDefinitionMap.put(key, lineage);
-          }
+  /**
+   * Loads the library from the plugin classes cached when it was last scanned. The definitions are extracted from
+   * the classes again, they are not validated again as they passed validation when the library was scanned.
+   */
+  private LibraryDefinitions loadCachedLibrary(ClassLoader cl, StageLibraryDefinitionsCache.Entry entry)
+      throws ClassNotFoundException {
+    if (!entry.isCompatible()) {
+      LOG.warn("Can't load stages from {} since they are not compatible with current JVM version", StageLibraryUtils.getLibraryName(cl));
+      return null;
+    }
+    StageLibraryDefinition libDef = StageLibraryDefinitionExtractor.get().extract(cl);
+    libDef.setVersion(entry.getVersion());
+    Map<String, List<Class>> classes = new LinkedHashMap<>();
+    for (String resource : DEFINITION_RESOURCES) {
+      List<Class> list = new ArrayList<>();
+      for (String className : entry.getClasses(resource)) {
+        list.add(cl.loadClass(className));
+      }
+      classes.put(resource, list);
+    }
+    return extractDefinitions(libDef, classes, false);
+  }
 
-          // Load Credential stores
-          for(Class klass : loadClassesFromResource(libDef, cl, CREDENTIAL_STORE_DEFINITION_RESOURCE)) {
-            credentialStores++;
-            CredentialStoreDefinition def = CredentialStoreDefinitionExtractor.get().extract(libDef, klass);
-            String key = createKey(libDef.getName(), def.getName());
-            LOG.debug("Loaded credential store '{}'", key);
-            credentialStoreDefinitions.add(def);
-          }
+  private LibraryDefinitions scanLibrary(ClassLoader cl, String javaVersion, Version sdcVersion) {
+    try {
+      // Before loading any stages, let's verify that given stage library is compatible with our current JVM version
+      String unsupportedJvmVersion = getPropertyFromLibraryProperties(cl, JAVA_UNSUPPORTED_REGEXP, null);
+      if(!StringUtils.isEmpty(unsupportedJvmVersion)) {
+        if(javaVersion.matches(unsupportedJvmVersion)) {
+          LOG.warn("Can't load stages from {} since they are not compatible with current JVM version", StageLibraryUtils.getLibraryName(cl));
+          return null;
+        } else {
+          LOG.debug("Stage lib {} passed java compatibility test for '{}'", StageLibraryUtils.getLibraryName(cl), unsupportedJvmVersion);
+        }
+      }
 
-          // Load Services
-          for(Class klass : loadClassesFromResource(libDef, cl, SERVICE_DEFINITION_RESOURCE)) {
-            services++;
-            ServiceDefinition def = ServiceDefinitionExtractor.get().extract(libDef, klass);
-            LOG.debug("Loaded service for '{}'", def.getProvides().getCanonicalName());
-            serviceList.add(def);
-            serviceMap.put(def.getProvides(), def);
-          }
+      // And that this SDC is at least on requested version
+      String minSdcVersion = getPropertyFromLibraryProperties(cl, MIN_SDC_VERSION, null);
+      if(!StringUtils.isEmpty(minSdcVersion)) {
+        if(!sdcVersion.isGreaterOrEqualTo(minSdcVersion)) {
+          throw new IllegalArgumentException(
+              Utils.format("Can't load stage library '{}' as it requires at least SDC version {} whereas current version is {}",
+              StageLibraryUtils.getLibraryName(cl),
+              minSdcVersion,
+              buildInfo.getVersion()
+            ));
+        }
+      }
 
-          // Load Interceptors
-          for(Class klass : loadClassesFromResource(libDef, cl, INTERCEPTOR_DEFINITION_RESOURCE)) {
-            interceptors++;
-            InterceptorDefinition def = InterceptorDefinitionExtractor.get().extract(libDef, klass);
-            LOG.debug("Loaded interceptor '{}'", def.getKlass().getCanonicalName());
-            interceptorList.add(def);
-          }
+      // Load stages from the stage library
+      StageLibraryDefinition libDef = StageLibraryDefinitionExtractor.get().extract(cl);
+      libDef.setVersion(getPropertyFromLibraryProperties(cl, "version", ""));
+      Map<String, List<Class>> classes = new LinkedHashMap<>();
+      for (String resource : DEFINITION_RESOURCES) {
+        classes.put(resource, new ArrayList<>(loadClassesFromResource(libDef, cl, resource)));
+      }
+      return extractDefinitions(libDef, classes, true);
+    } catch (IOException | ClassNotFoundException ex) {
+      throw new RuntimeException(
+          Utils.format("Could not load stages definition from '{}', {}", cl, ex.toString()), ex);
+    }
+  }
 
-          // Load Delegates
-          for(Class klass : loadClassesFromResource(libDef, cl, DELEGATE_DEFINITION_RESOURCE)) {
-            delegates++;
-            StageLibraryDelegateDefinitition def = StageLibraryDelegateDefinitionExtractor.get().extract(libDef, klass);
-            String key = createKey(libDef.getName(), def.getExportedInterface().getCanonicalName());
-            LOG.debug("Loaded delegate '{}'", def.getKlass().getCanonicalName());
-            delegateList.add(def);
-            delegateMap.put(key, def);
-          }
-        } catch (IOException | ClassNotFoundException ex) {
-          throw new RuntimeException(
-              Utils.format("Could not load stages definition from '{}', {}", cl, ex.toString()), ex);
+  @SuppressWarnings("unchecked")
+  private LibraryDefinitions extractDefinitions(
+      StageLibraryDefinition libDef,
+      Map<String, List<Class>> classes,
+      boolean validate
+  ) {
+    LOG.debug("Loading stages and plugins from library '{}' on version {}", libDef.getName(), libDef.getVersion());
+    LibraryDefinitions lib = new LibraryDefinitions(libDef);
+    for (Map.Entry<String, List<Class>> entry : classes.entrySet()) {
+      lib.classes.put(entry.getKey(), entry.getValue().stream().map(Class::getName).collect(Collectors.toList()));
+    }
+
+    // Load Stages
+    for(Class klass : classes.get(STAGES_DEFINITION_RESOURCE)) {
+      StageDefinition stage = StageDefinitionExtractor.get().extract(libDef, klass, Utils.formatL("Library='{}'", libDef.getName()), validate);
+      LOG.debug("Loaded stage '{}'  version {}", createKey(libDef.getName(), stage.getName()), stage.getVersion());
+      lib.stages.add(stage);
+
+      for(Class eventDefClass : stage.getEventDefs()) {
+        if (!lib.eventDefinitions.containsKey(eventDefClass.getCanonicalName())) {
+          lib.eventDefinitions.put(
+              eventDefClass.getCanonicalName(),
+              EventDefinitionExtractor.get().extractEventDefinition(eventDefClass)
+          );
         }
       }
-      LOG.info(
-        "Loaded '{}' libraries with a total of '{}' stages, '{}' lineage publishers, '{}' services, '{}' interceptors, '{}' delegates and '{}' credentialStores in '{}ms'",
-        libs,
-        stages,
-        lineagePublishers,
-        services,
-        interceptors,
-        delegates,
-        credentialStores,
-        System.currentTimeMillis() - start
-      );
-    } finally {
-      LocaleInContext.set(null);
     }
+
+    // Load Lineage publishers
+    for(Class klass : classes.get(LINEAGE_PUBLISHERS_DEFINITION_RESOURCE)) {
+      LineagePublisherDefinition lineage = LineagePublisherDefinitionExtractor.get().extract(libDef, klass);
+      LOG.debug("Loaded lineage plugin '{}'", createKey(libDef.getName(), lineage.getName()));
+      lib.lineagePublishers.add(lineage);
+    }
+
+    // Load Credential stores
+    for(Class klass : classes.get(CREDENTIAL_STORE_DEFINITION_RESOURCE)) {
+      CredentialStoreDefinition def = CredentialStoreDefinitionExtractor.get().extract(libDef, klass);
+      LOG.debug("Loaded credential store '{}'", createKey(libDef.getName(), def.getName()));
+      lib.credentialStores.add(def);
+    }
+
+    // Load Services
+    for(Class klass : classes.get(SERVICE_DEFINITION_RESOURCE)) {
+      ServiceDefinition def = ServiceDefinitionExtractor.get().extract(libDef, klass);
+      LOG.debug("Loaded service for '{}'", def.getProvides().getCanonicalName());
+      lib.services.add(def);
+    }
+
+    // Load Interceptors
+    for(Class klass : classes.get(INTERCEPTOR_DEFINITION_RESOURCE)) {
+      InterceptorDefinition def = InterceptorDefinitionExtractor.get().extract(libDef, klass);
+      LOG.debug("Loaded interceptor '{}'", def.getKlass().getCanonicalName());
+      lib.interceptors.add(def);
+    }
+
+    // Load Delegates
+    for(Class klass : classes.get(DELEGATE_DEFINITION_RESOURCE)) {
+      StageLibraryDelegateDefinitition def = StageLibraryDelegateDefinitionExtractor.get().extract(libDef, klass);
+      LOG.debug("Loaded delegate '{}'", def.getKlass().getCanonicalName());
+      lib.delegates.add(def);
+    }
+    return lib;
   }
 
   private <T> List<Class<? extends T>> loadClassesFromResource(
@@ -1129,6 +1359,21 @@ public class ClassLoaderStageLibraryTask extends AbstractTask implements StageLi
     return stageLibManifestJson;
   }
 
+  private Map<String, Object> getClassLoadingMetrics() {
+    Map<String, Object> metrics = new LinkedHashMap<>();
+    for (ClassLoader cl : stageClassLoaders) {
+      if (cl instanceof SDCClassLoader) {
+        SDCClassLoader sdcCl = (SDCClassLoader) cl;
+        metrics.put(sdcCl.getName(), ImmutableMap.of(
+          CLASSLOADER_LOADED_CLASSES, sdcCl.getLoadedClassCount(),
+          CLASSLOADER_LOAD_TIME, sdcCl.getClassLoadTime(),
+          CLASSLOADER_SKIPPED_LOOKUPS, sdcCl.getSkippedLookupCount()
+        ));
+      }
+    }
+    return metrics;
+  }
+
   private void updatePrivateClassLoaderPoolMetrics() {
     ((AtomicInteger)this.gaugeMap.get(PRIVATE_POOL_ACTIVE)).set(privateClassLoaderPool.getNumActive());
     ((AtomicInteger)this.gaugeMap.get(PRIVATE_POOL_IDLE)).set(privateClassLoaderPool.getNumIdle());
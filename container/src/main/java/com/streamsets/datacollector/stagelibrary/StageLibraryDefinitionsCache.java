@@ -0,0 +1,181 @@
+/*
+ * Copyright 2019 StreamSets Inc.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package com.streamsets.datacollector.stagelibrary;
+
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.google.common.hash.Hasher;
+import com.google.common.hash.Hashing;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+import java.io.File;
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.OutputStream;
+import java.net.URISyntaxException;
+import java.net.URL;
+import java.net.URLClassLoader;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.StandardCopyOption;
+import java.util.ArrayList;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+
+/**
+ * On-disk cache of the definitions extracted from each stage library, one JSON file per library.
+ * <p/>
+ * An entry records whether the library is compatible with the JVM, its version and the classes of its stages,
+ * services and other plugins, all of which passed validation when the entry was written. The entry is keyed by a
+ * checksum of the path, size and modification time of each of the library jars, of the data collector build and of
+ * the JVM version, a library whose checksum doesn't match is scanned again.
+ * <p/>
+ * The definitions themselves hold classes, methods and upgrader instances of the library class loader, so they are
+ * still built from the cached classes on every start, only without reading the plugin lists and validating them again.
+ */
+class StageLibraryDefinitionsCache {
+  private static final Logger LOG = LoggerFactory.getLogger(StageLibraryDefinitionsCache.class);
+
+  static final String CACHE_DIR = "stagelibs-cache";
+
+  private static final String CHECKSUM = "checksum";
+  private static final String COMPATIBLE = "compatible";
+  private static final String VERSION = "version";
+  private static final String CLASSES = "classes";
+
+  /**
+   * Definitions of a stage library as recorded in the cache.
+   */
+  static class Entry {
+    private final boolean compatible;
+    private final String version;
+    private final Map<String, List<String>> classes;
+
+    Entry(boolean compatible, String version, Map<String, List<String>> classes) {
+      this.compatible = compatible;
+      this.version = version;
+      this.classes = classes;
+    }
+
+    boolean isCompatible() {
+      return compatible;
+    }
+
+    String getVersion() {
+      return version;
+    }
+
+    /**
+     * Returns the names of the classes listed by the given definition resource of the library.
+     */
+    List<String> getClasses(String resource) {
+      List<String> list = classes.get(resource);
+      return list == null ? new ArrayList<>() : list;
+    }
+  }
+
+  private final Path dir;
+  private final String buildKey;
+  private final ObjectMapper json;
+
+  StageLibraryDefinitionsCache(Path dir, String buildKey, ObjectMapper json) {
+    this.dir = dir;
+    this.buildKey = buildKey;
+    this.json = json;
+  }
+
+  /**
+   * Returns the checksum of the library jars, or null if the library can't be cached because its classpath isn't
+   * made of jar files.
+   */
+  String checksum(ClassLoader cl) {
+    Hasher hasher = Hashing.sha256().newHasher()
+        .putString(buildKey, StandardCharsets.UTF_8)
+        .putString(StageLibraryUtils.getLibraryName(cl), StandardCharsets.UTF_8);
+    if (cl instanceof URLClassLoader) {
+      for (URL url : ((URLClassLoader) cl).getURLs()) {
+        File file;
+        try {
+          file = new File(url.toURI());
+        } catch (URISyntaxException | IllegalArgumentException ex) {
+          return null;
+        }
+        // the modification time of a directory doesn't change with the files in it
+        if (!file.isFile()) {
+          return null;
+        }
+        hasher.putString(file.getAbsolutePath(), StandardCharsets.UTF_8)
+            .putLong(file.length())
+            .putLong(file.lastModified());
+      }
+    }
+    return hasher.hash().toString();
+  }
+
+  /**
+   * Returns the cached entry of the library, or null if there is none for the given checksum.
+   */
+  @SuppressWarnings("unchecked")
+  Entry get(String library, String checksum) {
+    Path file = getFile(library);
+    if (!Files.exists(file)) {
+      return null;
+    }
+    try (InputStream is = Files.newInputStream(file)) {
+      Map<String, Object> map = json.readValue(is, Map.class);
+      if (!checksum.equals(map.get(CHECKSUM))) {
+        LOG.debug("Cached definitions of library '{}' are stale", library);
+        return null;
+      }
+      return new Entry(
+          Boolean.TRUE.equals(map.get(COMPATIBLE)),
+          (String) map.get(VERSION),
+          (Map<String, List<String>>) map.get(CLASSES)
+      );
+    } catch (IOException | RuntimeException ex) {
+      LOG.warn("Could not read the cached definitions of library '{}': {}", library, ex.toString());
+      return null;
+    }
+  }
+
+  /**
+   * Caches the entry of the library, failures are logged as the library is then scanned on the next start.
+   */
+  void put(String library, String checksum, Entry entry) {
+    Map<String, Object> map = new LinkedHashMap<>();
+    map.put(CHECKSUM, checksum);
+    map.put(COMPATIBLE, entry.compatible);
+    map.put(VERSION, entry.version);
+    map.put(CLASSES, entry.classes);
+    Path file = getFile(library);
+    Path tmpFile = dir.resolve(file.getFileName() + ".tmp");
+    try {
+      Files.createDirectories(dir);
+      try (OutputStream os = Files.newOutputStream(tmpFile)) {
+        json.writeValue(os, map);
+      }
+      Files.move(tmpFile, file, StandardCopyOption.REPLACE_EXISTING, StandardCopyOption.ATOMIC_MOVE);
+    } catch (IOException | RuntimeException ex) {
+      LOG.warn("Could not cache the definitions of library '{}': {}", library, ex.toString());
+    }
+  }
+
+  Path getFile(String library) {
+    return dir.resolve(library + ".json");
+  }
+}
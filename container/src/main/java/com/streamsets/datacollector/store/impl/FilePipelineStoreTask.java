@@ -69,6 +69,7 @@ import java.nio.file.DirectoryStream;
 import java.nio.file.Files;
 import java.nio.file.Path;
 import java.nio.file.Paths;
+import java.nio.file.attribute.BasicFileAttributes;
 import java.util.ArrayList;
 import java.util.Collections;
 import java.util.Date;
@@ -89,6 +90,9 @@ public class FilePipelineStoreTask extends AbstractTask implements PipelineStore
   private static final String UI_INFO_FILE = "uiinfo.json";
   public static final String RULES_FILE = "rules.json";
   private static final String STATE = "state";
+  @VisibleForTesting
+  static final String CATALOG_FILE = "pipeline-catalog.json";
+  private static final long CATALOG_MTIME_GRANULARITY = 2000;
 
   private final StageLibraryTask stageLibrary;
   private final RuntimeInfo runtimeInfo;
@@ -99,6 +103,8 @@ public class FilePipelineStoreTask extends AbstractTask implements PipelineStore
   private final ConcurrentMap<String, RuleDefinitions> pipelineToRuleDefinitionMap;
   private StateEventListener stateEventListener;
   private final PipelineCreator pipelineCreator;
+  private final Object catalogLock = new Object();
+  private Catalog catalog;
 
   @Inject
   public FilePipelineStoreTask(RuntimeInfo runtimeInfo, StageLibraryTask stageLibrary,
@@ -293,18 +299,104 @@ public class FilePipelineStoreTask extends AbstractTask implements PipelineStore
       throw new PipelineStoreException(ContainerError.CONTAINER_0213, storeDir, ex);
     }
 
-    for (String name : fileNames) {
-      PipelineInfoJson pipelineInfoJsonBean;
-      try (InputStream infoFile = Files.newInputStream(getInfoFile(name))){
-        pipelineInfoJsonBean = json.readValue(infoFile, PipelineInfoJson.class);
-      } catch (IOException e) {
-        throw new PipelineStoreException(ContainerError.CONTAINER_0206, name, e);
+    synchronized (catalogLock) {
+      Catalog previous = getCatalog();
+      Catalog current = new Catalog();
+      boolean changed = previous.entries.size() != fileNames.size();
+      for (String name : fileNames) {
+        Path infoFile = getInfoFile(name);
+        CatalogEntry entry;
+        try {
+          BasicFileAttributes attributes = Files.readAttributes(infoFile, BasicFileAttributes.class);
+          entry = previous.entries.get(name);
+          if (entry == null || !entry.isUpToDate(attributes, previous.writtenAt)) {
+            changed = true;
+            entry = new CatalogEntry();
+            entry.modified = attributes.lastModifiedTime().toMillis();
+            entry.size = attributes.size();
+            try (InputStream is = Files.newInputStream(infoFile)) {
+              entry.info = json.readValue(is, PipelineInfoJson.class);
+            }
+          }
+        } catch (IOException e) {
+          throw new PipelineStoreException(ContainerError.CONTAINER_0206, name, e);
+        }
+        current.entries.put(name, entry);
+        pipelineInfoList.add(entry.info.getPipelineInfo());
+      }
+      if (changed) {
+        current.writtenAt = System.currentTimeMillis();
+        writeCatalog(current);
+      } else {
+        current.writtenAt = previous.writtenAt;
       }
-      pipelineInfoList.add(pipelineInfoJsonBean.getPipelineInfo());
+      catalog = current;
     }
     return Collections.unmodifiableList(pipelineInfoList);
   }
 
+  /**
+   * Snapshot of the info.json files of all pipelines, it is used to list the pipelines without reading and parsing
+   * every info.json file. An info.json file is read again if its size or modification time changed.
+   */
+  @VisibleForTesting
+  static class Catalog {
+    public long writtenAt;
+    public Map<String, CatalogEntry> entries = new HashMap<>();
+  }
+
+  @VisibleForTesting
+  static class CatalogEntry {
+    public long modified;
+    public long size;
+    public PipelineInfoJson info;
+
+    boolean isUpToDate(BasicFileAttributes attributes, long catalogWrittenAt) {
+      long lastModified = attributes.lastModifiedTime().toMillis();
+      // the file may have been modified again without changing its modification time if it was modified close to the
+      // time the catalog was written, depending on the filesystem timestamp granularity
+      return modified == lastModified && size == attributes.size() &&
+          lastModified + CATALOG_MTIME_GRANULARITY < catalogWrittenAt;
+    }
+  }
+
+  private Catalog getCatalog() {
+    if (catalog == null) {
+      catalog = new Catalog();
+      DataStore dataStore = new DataStore(getCatalogFile().toFile());
+      try {
+        if (dataStore.exists()) {
+          try (InputStream is = dataStore.getInputStream()) {
+            catalog = json.readValue(is, Catalog.class);
+          }
+        }
+      } catch (IOException ex) {
+        LOG.warn("Could not read the pipeline catalog '{}', reading all pipelines: {}", getCatalogFile(), ex, ex);
+      } finally {
+        dataStore.release();
+      }
+    }
+    return catalog;
+  }
+
+  private void writeCatalog(Catalog catalog) {
+    DataStore dataStore = new DataStore(getCatalogFile().toFile());
+    try (OutputStream os = dataStore.getOutputStream()) {
+      json.writeValue(os, catalog);
+      dataStore.commit(os);
+    } catch (IOException ex) {
+      // the catalog is only an optimization
+      LOG.warn("Could not write the pipeline catalog '{}': {}", getCatalogFile(), ex, ex);
+    } finally {
+      dataStore.release();
+    }
+  }
+
+  @VisibleForTesting
+  Path getCatalogFile() {
+    return Paths.get(runtimeInfo.getDataDir(), CATALOG_FILE);
+  }
+
   @Override
   public PipelineInfo getInfo(String name) throws PipelineStoreException {
     synchronized (lockCache.getLock(name)) {
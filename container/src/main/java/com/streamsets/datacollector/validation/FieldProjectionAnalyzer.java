@@ -0,0 +1,121 @@
+/*
+ * Copyright 2019 StreamSets Inc.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package com.streamsets.datacollector.validation;
+
+import com.streamsets.datacollector.config.ErrorRecordPolicy;
+import com.streamsets.datacollector.config.PipelineConfiguration;
+import com.streamsets.datacollector.config.StageConfiguration;
+import com.streamsets.datacollector.creation.StageConfigBean;
+import com.streamsets.pipeline.api.Config;
+import com.streamsets.pipeline.lib.parser.FieldProjection;
+
+import java.util.Collections;
+import java.util.LinkedHashSet;
+import java.util.List;
+import java.util.Set;
+
+/**
+ * Infers which fields the origin of a pipeline has to parse.
+ *
+ * When every output lane of the origin goes only to Field Remover stages that keep a fixed list of fields, the origin
+ * only needs to materialize the union of those fields. Field paths with expressions or with partial wildcards can't be
+ * resolved up front and disable the inference. So does the original record error policy, as the error records must then
+ * carry every field of the record the origin read, and so do the required fields and preconditions of the Field
+ * Remover, as they are evaluated on the record before its fields are removed.
+ */
+public final class FieldProjectionAnalyzer {
+
+  static final String FIELD_REMOVER_STAGE_NAME =
+      "com_streamsets_pipeline_stage_processor_fieldfilter_FieldFilterDProcessor";
+  static final String FILTER_OPERATION_CONFIG = "filterOperation";
+  static final String FIELDS_CONFIG = "fields";
+  static final String KEEP_OPERATION = "KEEP";
+
+  private FieldProjectionAnalyzer() {}
+
+  /**
+   * Returns the field paths the origin has to parse or an empty set if all fields are needed.
+   */
+  public static Set<String> getOriginProjection(
+      PipelineConfiguration pipelineConf,
+      ErrorRecordPolicy errorRecordPolicy
+  ) {
+    return getOriginProjection(pipelineConf.getStages(), errorRecordPolicy);
+  }
+
+  static Set<String> getOriginProjection(List<StageConfiguration> stages, ErrorRecordPolicy errorRecordPolicy) {
+    if (errorRecordPolicy != ErrorRecordPolicy.STAGE_RECORD) {
+      return Collections.emptySet();
+    }
+    if (stages.isEmpty() || stages.get(0).getOutputLanes().isEmpty()) {
+      return Collections.emptySet();
+    }
+
+    Set<String> projection = new LinkedHashSet<>();
+    for (String lane : stages.get(0).getOutputLanes()) {
+      boolean consumed = false;
+      for (StageConfiguration stage : stages.subList(1, stages.size())) {
+        if (!stage.getInputLanes().contains(lane)) {
+          continue;
+        }
+        consumed = true;
+        Set<String> keptFields = getKeptFields(stage);
+        if (keptFields.isEmpty()) {
+          return Collections.emptySet();
+        }
+        projection.addAll(keptFields);
+      }
+      if (!consumed) {
+        return Collections.emptySet();
+      }
+    }
+    return projection;
+  }
+
+  /**
+   * Returns the fields kept by the given stage if it's a Field Remover in keep mode with plain field paths and
+   * without required fields or preconditions, an empty set otherwise.
+   */
+  @SuppressWarnings("unchecked")
+  static Set<String> getKeptFields(StageConfiguration stageConf) {
+    if (!FIELD_REMOVER_STAGE_NAME.equals(stageConf.getStageName())) {
+      return Collections.emptySet();
+    }
+    Config operation = stageConf.getConfig(FILTER_OPERATION_CONFIG);
+    Config fields = stageConf.getConfig(FIELDS_CONFIG);
+    if (operation == null || !KEEP_OPERATION.equals(String.valueOf(operation.getValue()))
+        || fields == null || !(fields.getValue() instanceof List)) {
+      return Collections.emptySet();
+    }
+    if (isSet(stageConf.getConfig(StageConfigBean.STAGE_REQUIRED_FIELDS_CONFIG)) ||
+        isSet(stageConf.getConfig(StageConfigBean.STAGE_PRECONDITIONS_CONFIG))) {
+      return Collections.emptySet();
+    }
+    Set<String> keptFields = new LinkedHashSet<>();
+    for (Object fieldPath : (List<Object>) fields.getValue()) {
+      if (!(fieldPath instanceof String) || !FieldProjection.isSupported((String) fieldPath)) {
+        return Collections.emptySet();
+      }
+      keptFields.add((String) fieldPath);
+    }
+    return keptFields;
+  }
+
+  private static boolean isSet(Config config) {
+    return config != null && config.getValue() instanceof List && !((List<?>) config.getValue()).isEmpty();
+  }
+
+}
@@ -63,11 +63,26 @@ public class BaseWebSocket extends WebSocketAdapter {
   }
 
   public void notification(String message) {
-    if(webSocketSession != null && webSocketSession.isOpen()) {
-      if (!queue.offer(new WebSocketMessage(webSocketSession, message))) {
-        LOG.warn("WebSocket queue is full, discarding '{}' message", type);
-      }
+    queueMessage(message);
+  }
+
+  // returns if the message was queued, it is not if the session is closed or if the queue is full
+  protected boolean queueMessage(String message) {
+    Session session = webSocketSession;
+    return session != null && session.isOpen() && queueMessage(new WebSocketMessage(session, message));
+  }
+
+  protected boolean queueMessage(byte[] message) {
+    Session session = webSocketSession;
+    return session != null && session.isOpen() && queueMessage(new WebSocketMessage(session, message));
+  }
+
+  private boolean queueMessage(WebSocketMessage message) {
+    if (!queue.offer(message)) {
+      LOG.warn("WebSocket queue is full, discarding '{}' message", type);
+      return false;
     }
+    return true;
   }
 
 }
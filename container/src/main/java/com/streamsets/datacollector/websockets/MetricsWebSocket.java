@@ -16,14 +16,72 @@
 package com.streamsets.datacollector.websockets;
 
 import com.streamsets.datacollector.metrics.MetricsEventListener;
+import com.streamsets.datacollector.metrics.MetricsSnapshot;
 
 import java.util.Queue;
 
+/**
+ * Metrics WebSocket, by default it sends the full metrics JSON as text on every refresh.
+ * <p/>
+ * With the <code>delta=true</code> parameter it uses the incremental protocol of {@link MetricsSnapshot}, a full
+ * message first and then delta messages as long as the client got the previous message. With the
+ * <code>compress=true</code> parameter the messages are sent GZIP compressed as binary frames.
+ */
 public class MetricsWebSocket extends BaseWebSocket implements MetricsEventListener {
   public static final String TYPE = "metrics";
+  public static final String DELTA_PARAM = "delta";
+  public static final String COMPRESS_PARAM = "compress";
+
+  private final boolean delta;
+  private final boolean compress;
+  // sequence of the last snapshot queued for the client, -1 if the client must get a full message
+  private long lastSequence = -1;
 
   public MetricsWebSocket(ListenerManager<MetricsEventListener> listenerManager, Queue<WebSocketMessage> queue) {
+    this(listenerManager, queue, false, false);
+  }
+
+  public MetricsWebSocket(
+      ListenerManager<MetricsEventListener> listenerManager,
+      Queue<WebSocketMessage> queue,
+      boolean delta,
+      boolean compress
+  ) {
     super(TYPE, listenerManager, queue);
+    this.delta = delta;
+    this.compress = compress;
+  }
+
+  @Override
+  public synchronized void notification(String message) {
+    if (delta) {
+      // metrics outside of the refreshes, i.e. the final metrics of a pipeline, are sent as a full message
+      message = "{\"full\":" + message + "}";
+      lastSequence = -1;
+    }
+    if (compress) {
+      queueMessage(MetricsSnapshot.compress(message));
+    } else {
+      queueMessage(message);
+    }
+  }
+
+  @Override
+  public synchronized void notification(MetricsSnapshot metrics) {
+    if (!delta && !compress) {
+      queueMessage(metrics.getJson());
+      return;
+    }
+    boolean queued;
+    if (!delta) {
+      queued = queueMessage(metrics.getCompressedJson());
+    } else if (lastSequence > -1 && lastSequence == metrics.getBaseSequence()) {
+      queued = (compress) ? queueMessage(metrics.getCompressedDeltaMessage()) : queueMessage(metrics.getDeltaMessage());
+    } else {
+      queued = (compress) ? queueMessage(metrics.getCompressedFullMessage()) : queueMessage(metrics.getFullMessage());
+    }
+    // if a message is discarded the next delta would not apply, the client gets a full message instead
+    lastSequence = (queued) ? metrics.getSequence() : -1;
   }
 
 }
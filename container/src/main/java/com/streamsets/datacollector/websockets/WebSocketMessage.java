@@ -18,19 +18,33 @@ package com.streamsets.datacollector.websockets;
 import org.eclipse.jetty.websocket.api.Session;
 
 import java.io.IOException;
+import java.nio.ByteBuffer;
 
 public class WebSocketMessage {
   private final Session webSocketSession;
   private final String message;
+  private final byte[] binaryMessage;
 
   public WebSocketMessage(Session webSocketSession, String message) {
     this.webSocketSession = webSocketSession;
     this.message = message;
+    this.binaryMessage = null;
+  }
+
+  // the bytes may be shared by the messages of several sessions, they are never modified
+  public WebSocketMessage(Session webSocketSession, byte[] binaryMessage) {
+    this.webSocketSession = webSocketSession;
+    this.message = null;
+    this.binaryMessage = binaryMessage;
   }
 
   public void send() throws IOException {
     if(webSocketSession.isOpen()) {
-      webSocketSession.getRemote().sendString(message);
+      if (binaryMessage != null) {
+        webSocketSession.getRemote().sendBytes(ByteBuffer.wrap(binaryMessage));
+      } else {
+        webSocketSession.getRemote().sendString(message);
+      }
     }
   }
 
@@ -423,4 +423,35 @@ public class TestConfigInjector {
     Assert.assertTrue(issues.isEmpty());
   }
 
+  @Test
+  public void testInjectionPlan() throws Exception {
+    ConfigInjector.InjectionPlan plan = ConfigInjector.getInjectionPlan(Bean.class);
+    Assert.assertSame(plan, ConfigInjector.getInjectionPlan(Bean.class));
+    Assert.assertEquals(2, plan.getFields().size());
+
+    ConfigInjector.ConfigField beanInt = plan.getFields().get(0);
+    ConfigInjector.ConfigField beanSubBean = plan.getFields().get(1);
+    Assert.assertEquals("beanInt", beanInt.getName());
+    Assert.assertFalse(beanInt.isBean());
+    Assert.assertEquals("beanSubBean", beanSubBean.getName());
+    Assert.assertTrue(beanSubBean.isBean());
+
+    Bean bean = new Bean();
+    beanInt.set(bean, 5);
+    Assert.assertEquals(5, bean.beanInt);
+    Assert.assertEquals(5, beanInt.get(bean));
+
+    // Values that need a widening conversion still get injected
+    beanInt.set(bean, (short) 7);
+    Assert.assertEquals(7, bean.beanInt);
+
+    SubBean subBean = new SubBean();
+    beanSubBean.set(bean, subBean);
+    Assert.assertSame(subBean, beanSubBean.get(bean));
+
+    // config fields are looked up by their field, as done when injecting a single config value
+    Assert.assertSame(beanInt, plan.getField(Bean.class.getField("beanInt")));
+    Assert.assertNull(plan.getField(SubBean.class.getField("subBeanString")));
+  }
+
 }
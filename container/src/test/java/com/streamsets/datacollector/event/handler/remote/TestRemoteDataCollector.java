@@ -424,6 +424,11 @@ public class TestRemoteDataCollector {
       return null;
     }
 
+    @Override
+    public List<PipelineState> getHistory(int offset, int len) throws PipelineStoreException {
+      return null;
+    }
+
     @Override
     public void deleteHistory() {
       // TODO Auto-generated method stub
@@ -710,6 +715,11 @@ public class TestRemoteDataCollector {
       return null;
     }
 
+    @Override
+    public List<PipelineState> getHistory(String name, String rev, int offset, int len) {
+      return null;
+    }
+
     @Override
     public void deleteHistory(String name, String rev) {
       // TODO Auto-generated method stub
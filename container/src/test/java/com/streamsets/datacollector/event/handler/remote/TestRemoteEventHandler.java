@@ -45,6 +45,7 @@ import com.streamsets.datacollector.event.dto.Event;
 import com.streamsets.datacollector.event.dto.EventType;
 import com.streamsets.datacollector.event.dto.PipelinePreviewEvent;
 import com.streamsets.datacollector.event.dto.PipelineStartEvent;
+import com.streamsets.datacollector.event.dto.PipelineStatusEvent;
 import com.streamsets.datacollector.event.dto.SDCBuildInfo;
 import com.streamsets.datacollector.event.dto.SDCInfoEvent;
 import com.streamsets.datacollector.event.dto.StageInfo;
@@ -114,6 +115,7 @@ import java.util.List;
 import java.util.Map;
 import java.util.UUID;
 import java.util.concurrent.Future;
+import java.util.concurrent.atomic.AtomicInteger;
 import java.util.function.Function;
 
 import static org.hamcrest.CoreMatchers.equalTo;
@@ -1040,6 +1042,8 @@ public class TestRemoteEventHandler {
     assertEquals(PING_FREQUENCY, remoteEventHandler.getDelay());
     List<ClientEvent> ackEventList = remoteEventHandler.getAckEventList();
     assertEquals(1, ackEventList.size());
+    // the ack is sent on the next call without waiting for the ping frequency
+    assertTrue(remoteEventHandler.isAcksPending());
     assertEquals(id1.toString(), ackEventList.get(0).getEventId());
     assertTrue(ackEventList.get(0).getEvent() instanceof AckEvent);
     AckEvent ackEvent = (AckEvent) ackEventList.get(0).getEvent();
@@ -1530,4 +1534,117 @@ public class TestRemoteEventHandler {
             Mockito.any(Long.class)
         );
   }
+
+  @Test
+  public void testSyncSenderCoalescesAndSendsConcurrently() throws Exception {
+    EventClient eventClient = Mockito.mock(EventClient.class);
+    AtomicInteger inFlight = new AtomicInteger();
+    AtomicInteger maxInFlight = new AtomicInteger();
+    Mockito.doAnswer(invocation -> {
+      maxInFlight.accumulateAndGet(inFlight.incrementAndGet(), Math::max);
+      Thread.sleep(100);
+      inFlight.decrementAndGet();
+      return null;
+    }).when(eventClient).sendSyncEvents(Mockito.any(), Mockito.anyMap(), Mockito.anyMap(), Mockito.any(),
+        Mockito.any(Long.class));
+    RuntimeInfo runtimeInfo = Mockito.mock(RuntimeInfo.class);
+    RemoteDataCollector remoteDataCollector = Mockito.mock(RemoteDataCollector.class);
+    Configuration conf = new Configuration();
+    conf.set(RemoteEventHandlerTask.SHOULD_SEND_SYNC_EVENTS, true);
+    conf.set(RemoteEventHandlerTask.REMOTE_URL_SYNC_EVENTS_MAX_IN_FLIGHT, 3);
+    final RemoteEventHandlerTask remoteEventHandlerTask = new RemoteEventHandlerTask(remoteDataCollector,
+        new SafeScheduledExecutorService(1, "testSyncSender"),
+        new SafeScheduledExecutorService(1, "testSyncSender"),
+        Mockito.mock(StageLibraryTask.class),
+        Mockito.mock(RuntimeInfo.class),
+        conf
+    );
+    RemoteEventHandlerTask.SyncEventSender syncEventSender = remoteEventHandlerTask.new SyncEventSender(eventClient,
+        remoteDataCollector,
+        jsonDto,
+        60000,
+        runtimeInfo,
+        new SafeScheduledExecutorService(1, "testSyncSender"),
+        Stopwatch.createStarted(),
+        120000,
+        70
+    );
+    List<PipelineAndValidationStatus> statuses = new ArrayList<>();
+    for (int i = 0; i < 8; i++) {
+      statuses.add(new PipelineAndValidationStatus("p" + i, "", "0", i, false, PipelineStatus.RUNNING, null, null,
+          false, null, null, 0));
+    }
+    // newer statuses of p0 and p1, only these are sent for them
+    statuses.add(new PipelineAndValidationStatus("p0", "", "0", 10, false, PipelineStatus.STOPPED, null, null,
+        false, null, null, 0));
+    statuses.add(new PipelineAndValidationStatus("p1", "", "0", 11, false, PipelineStatus.STOPPED, null, null,
+        false, null, null, 0));
+    Mockito.when(remoteDataCollector.getRemotePipelinesWithChanges()).thenReturn(statuses);
+    syncEventSender.call();
+    Mockito.verify(eventClient, Mockito.times(8))
+        .sendSyncEvents(Mockito.eq(remoteEventHandlerTask.getJobRunnerPipelineStatusEventUrl()),
+            Mockito.anyMap(),
+            Mockito.anyMap(),
+            Mockito.any(),
+            Mockito.any(Long.class)
+        );
+    Assert.assertEquals(0, inFlight.get());
+    Assert.assertTrue(maxInFlight.get() > 1);
+    Assert.assertTrue(maxInFlight.get() <= 3);
+    Assert.assertEquals(2, remoteEventHandlerTask.getEventMetrics().getCoalescedStatusEvents());
+    remoteEventHandlerTask.stopTask();
+  }
+
+  @Test
+  public void testAddStatusEventReplacesQueuedStatus() {
+    final RemoteEventHandlerTask remoteEventHandlerTask = new RemoteEventHandlerTask(
+        Mockito.mock(RemoteDataCollector.class),
+        new SafeScheduledExecutorService(1, "testAddStatusEvent"),
+        new SafeScheduledExecutorService(1, "testAddStatusEvent"),
+        Mockito.mock(StageLibraryTask.class),
+        Mockito.mock(RuntimeInfo.class),
+        new Configuration()
+    );
+    PipelineStatusEvent p1Running = new PipelineStatusEvent();
+    p1Running.setName("p1");
+    p1Running.setRev("0");
+    p1Running.setPipelineStatus(PipelineStatus.RUNNING);
+    PipelineStatusEvent p2Running = new PipelineStatusEvent();
+    p2Running.setName("p2");
+    p2Running.setRev("0");
+    p2Running.setPipelineStatus(PipelineStatus.RUNNING);
+    PipelineStatusEvent p1Stopped = new PipelineStatusEvent();
+    p1Stopped.setName("p1");
+    p1Stopped.setRev("0");
+    p1Stopped.setPipelineStatus(PipelineStatus.STOPPED);
+
+    List<ClientEvent> statusEvents = new ArrayList<>();
+    remoteEventHandlerTask.addStatusEvent(statusEvents, new ClientEvent("1", null, false, false,
+        EventType.STATUS_PIPELINE, p1Running, null));
+    remoteEventHandlerTask.addStatusEvent(statusEvents, new ClientEvent("2", null, false, false,
+        EventType.STATUS_PIPELINE, p2Running, null));
+    remoteEventHandlerTask.addStatusEvent(statusEvents, new ClientEvent("3", null, false, false,
+        EventType.STATUS_PIPELINE, p1Stopped, null));
+    Assert.assertEquals(2, statusEvents.size());
+    Assert.assertSame(p2Running, statusEvents.get(0).getEvent());
+    Assert.assertSame(p1Stopped, statusEvents.get(1).getEvent());
+    Assert.assertEquals(1, remoteEventHandlerTask.getEventMetrics().getCoalescedStatusEvents());
+  }
+
+  @Test
+  public void testEventsNeverAckedEvicted() throws Exception {
+    RemoteEventMetrics eventMetrics = new RemoteEventMetrics();
+    eventMetrics.eventReceived("1");
+    eventMetrics.eventReceived("2");
+    Assert.assertEquals(2, eventMetrics.getAwaitingAcks());
+    eventMetrics.ackSubmitted("1");
+    eventMetrics.ackDropped("2");
+    Assert.assertEquals(0, eventMetrics.getAwaitingAcks());
+
+    // events whose ack doesn't come within the timeout are dropped when the next event is received
+    eventMetrics = new RemoteEventMetrics(0);
+    eventMetrics.eventReceived("1");
+    eventMetrics.eventReceived("2");
+    Assert.assertEquals(1, eventMetrics.getAwaitingAcks());
+  }
 }
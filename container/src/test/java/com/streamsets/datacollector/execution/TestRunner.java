@@ -149,6 +149,11 @@ public class TestRunner {
       return null;
     }
 
+    @Override
+    public List<PipelineState> getHistory(int offset, int len) throws PipelineStoreException {
+      return null;
+    }
+
     @Override
     public void deleteHistory() throws PipelineException {
 
@@ -340,6 +345,11 @@ public class TestRunner {
       return null;
     }
 
+    @Override
+    public List<PipelineState> getHistory(int offset, int len) throws PipelineStoreException {
+      return null;
+    }
+
     @Override
     public void deleteHistory() throws PipelineException {
 
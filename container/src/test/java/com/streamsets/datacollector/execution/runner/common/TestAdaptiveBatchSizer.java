@@ -0,0 +1,138 @@
+/*
+ * Copyright 2019 StreamSets Inc.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package com.streamsets.datacollector.execution.runner.common;
+
+import com.streamsets.datacollector.util.Configuration;
+import org.junit.Assert;
+import org.junit.Test;
+
+public class TestAdaptiveBatchSizer {
+
+  @Test
+  public void testDisabledByDefault() {
+    Assert.assertNull(AdaptiveBatchSizer.create(new Configuration()));
+
+    Configuration configuration = new Configuration();
+    configuration.set(AdaptiveBatchSizer.ENABLED_KEY, true);
+    configuration.set(Constants.MAX_BATCH_SIZE_KEY, 5);
+    AdaptiveBatchSizer sizer = AdaptiveBatchSizer.create(configuration);
+    Assert.assertNotNull(sizer);
+    // the minimum is capped to the maximum batch size
+    Assert.assertEquals(5, sizer.getBatchSize());
+  }
+
+  @Test
+  public void testGrowsToTargetLatency() {
+    AdaptiveBatchSizer sizer = new AdaptiveBatchSizer(10, 1000, 1000, 0.85);
+    Assert.assertEquals(10, sizer.getBatchSize());
+
+    // 1 ms per record, converges to 1000 records per batch by bounded steps
+    int previous = sizer.getBatchSize();
+    for (int i = 0; i < 100; i++) {
+      int size = sizer.getBatchSize();
+      sizer.update(size, size, size, 0);
+      Assert.assertTrue(sizer.getBatchSize() <= Math.ceil(size * 1.25));
+      Assert.assertTrue(sizer.getBatchSize() >= previous);
+      previous = sizer.getBatchSize();
+    }
+    Assert.assertEquals(1000, sizer.getBatchSize());
+    Assert.assertEquals(1000, (int) sizer.getValue());
+
+    // 4 ms per record, shrinks towards 250 records per batch
+    for (int i = 0; i < 100; i++) {
+      int size = sizer.getBatchSize();
+      sizer.update(size, size, size * 4, 0);
+    }
+    Assert.assertEquals(250, sizer.getBatchSize(), 1);
+  }
+
+  @Test
+  public void testPartialBatchesDontGrow() {
+    AdaptiveBatchSizer sizer = new AdaptiveBatchSizer(10, 1000, 1000, 0.85);
+    for (int i = 0; i < 10; i++) {
+      sizer.update(sizer.getBatchSize(), 5, 1, 0);
+    }
+    Assert.assertEquals(10, sizer.getBatchSize());
+
+    // empty batches don't change it either
+    sizer.update(sizer.getBatchSize(), 0, 1000, 0);
+    Assert.assertEquals(10, sizer.getBatchSize());
+  }
+
+  @Test
+  public void testPartialBatchesDontShrink() {
+    AdaptiveBatchSizer sizer = new AdaptiveBatchSizer(10, 1000, 1000, 0.85);
+    for (int i = 0; i < 100; i++) {
+      int size = sizer.getBatchSize();
+      sizer.update(size, size, size, 0);
+    }
+    Assert.assertEquals(1000, sizer.getBatchSize());
+
+    // an origin with little data, whose batches cost more per record, doesn't shrink the size nor the time per record
+    for (int i = 0; i < 10; i++) {
+      sizer.update(1000, 5, 100, 0);
+    }
+    Assert.assertEquals(1000, sizer.getBatchSize());
+    sizer.update(1000, 1000, 1000, 0);
+    Assert.assertEquals(1000, sizer.getBatchSize());
+  }
+
+  @Test
+  public void testSlowPartialBatchesShrink() {
+    AdaptiveBatchSizer sizer = new AdaptiveBatchSizer(10, 1000, 1000, 0.85);
+    for (int i = 0; i < 100; i++) {
+      int size = sizer.getBatchSize();
+      sizer.update(size, size, size, 0);
+    }
+    Assert.assertEquals(1000, sizer.getBatchSize());
+
+    // the origin caps its batches at 200 records, which now take 10 ms per record: the requested size goes under the
+    // cap and converges to 100 records per batch
+    int records = 0;
+    for (int i = 0; i < 100; i++) {
+      int size = sizer.getBatchSize();
+      records = Math.min(size, 200);
+      sizer.update(size, records, records * 10, 0);
+    }
+    Assert.assertEquals(100, sizer.getBatchSize(), 1);
+    Assert.assertTrue(records * 10 <= 1010);
+  }
+
+  @Test
+  public void testHeapPressure() {
+    AdaptiveBatchSizer sizer = new AdaptiveBatchSizer(10, 1000, 1000, 0.85);
+    for (int i = 0; i < 100; i++) {
+      int size = sizer.getBatchSize();
+      sizer.update(size, size, 0, 0);
+    }
+    Assert.assertEquals(1000, sizer.getBatchSize());
+
+    sizer.update(1000, 1000, 0, 0.9);
+    Assert.assertEquals(500, sizer.getBatchSize());
+    sizer.update(500, 500, 0, 0.9);
+    Assert.assertEquals(250, sizer.getBatchSize());
+    for (int i = 0; i < 10; i++) {
+      sizer.update(sizer.getBatchSize(), sizer.getBatchSize(), 0, 0.99);
+    }
+    Assert.assertEquals(10, sizer.getBatchSize());
+  }
+
+  @Test(expected = IllegalArgumentException.class)
+  public void testInvalidBounds() {
+    new AdaptiveBatchSizer(100, 10, 1000, 0.85);
+  }
+
+}
@@ -15,10 +15,19 @@
  */
 package com.streamsets.datacollector.execution.snapshot;
 
+import com.fasterxml.jackson.databind.JsonNode;
+import com.google.common.collect.ImmutableList;
+import com.google.common.collect.ImmutableMap;
+import com.streamsets.datacollector.execution.Snapshot;
 import com.streamsets.datacollector.execution.snapshot.file.FileSnapshotStore;
 import com.streamsets.datacollector.execution.snapshot.file.dagger.FileSnapshotStoreModule;
 import com.streamsets.datacollector.main.RuntimeInfo;
 import com.streamsets.datacollector.main.RuntimeModule;
+import com.streamsets.datacollector.json.ObjectMapperFactory;
+import com.streamsets.datacollector.record.RecordImpl;
+import com.streamsets.datacollector.runner.StageOutput;
+import com.streamsets.pipeline.api.Field;
+import com.streamsets.pipeline.api.Record;
 
 import org.junit.BeforeClass;
 
@@ -33,6 +42,10 @@ import org.junit.Test;
 
 import java.io.File;
 import java.io.IOException;
+import java.io.InputStream;
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.List;
 
 public class TestFileSnapshotStore extends TestSnapshotStore {
 
@@ -64,4 +77,76 @@ public class TestFileSnapshotStore extends TestSnapshotStore {
     Assert.assertTrue(snapshotStore instanceof FileSnapshotStore);
   }
 
+  private static List<Record> createRecords(String prefix, int count) {
+    List<Record> records = new ArrayList<>(count);
+    for (int i = 0; i < count; i++) {
+      Record record = new RecordImpl("s", prefix + i, null, null);
+      record.set(Field.create(ImmutableMap.of("id", Field.create(prefix + i))));
+      records.add(record);
+    }
+    return records;
+  }
+
+  private static JsonNode read(InputStream is) throws IOException {
+    try (InputStream in = is) {
+      return ObjectMapperFactory.get().readTree(in);
+    }
+  }
+
+  @Test
+  public void testStageOutputPages() throws Exception {
+    StageOutput source = new StageOutput(
+        "source",
+        ImmutableMap.of("lane1", createRecords("a", 150), "lane2", createRecords("b", 60)),
+        createRecords("e", 3),
+        Collections.emptyList(),
+        Collections.emptyList()
+    );
+    StageOutput target = new StageOutput("target", Collections.emptyMap(), null, null, null);
+    List<List<StageOutput>> batches = new ArrayList<>();
+    batches.add(ImmutableList.of(source, target));
+
+    snapshotStore.create("user", "pipeline", "0", "id", "label", false);
+    snapshotStore.save("pipeline", "0", "id", 1, batches);
+
+    Snapshot snapshot = snapshotStore.get("pipeline", "0", "id");
+
+    // a page spanning the end of the first lane and the start of the second one, in the second chunk of the stage
+    JsonNode page = read(snapshot.getStageOutput("source", 0, 140, 20));
+    Assert.assertEquals(0, page.get("batch").asInt());
+    Assert.assertEquals(140, page.get("offset").asInt());
+    Assert.assertEquals(213, page.get("totalRecords").asInt());
+    JsonNode output = page.get("stageOutput").get("output");
+    Assert.assertEquals(10, output.get("lane1").size());
+    Assert.assertEquals("a140", output.get("lane1").get(0).path("header").path("sourceId").asText());
+    Assert.assertEquals(10, output.get("lane2").size());
+    Assert.assertEquals("b9", output.get("lane2").get(9).path("header").path("sourceId").asText());
+    Assert.assertEquals(0, page.get("stageOutput").get("errorRecords").size());
+
+    // the last page holds the error records
+    page = read(snapshot.getStageOutput("source", 0, 200, 50));
+    Assert.assertEquals(10, page.get("stageOutput").get("output").get("lane2").size());
+    Assert.assertEquals(3, page.get("stageOutput").get("errorRecords").size());
+    Assert.assertEquals(0, page.get("stageOutput").get("eventRecords").size());
+
+    page = read(snapshot.getStageOutput("target", 0, 0, 50));
+    Assert.assertEquals(0, page.get("totalRecords").asInt());
+    Assert.assertTrue(page.get("stageOutput").get("errorRecords").isNull());
+
+    Assert.assertNull(snapshot.getStageOutput("other", 0, 0, 50));
+    Assert.assertNull(snapshot.getStageOutput("source", 1, 0, 50));
+
+    // the whole snapshot keeps its JSON layout
+    JsonNode data = read(snapshot.getOutput());
+    Assert.assertEquals(1, data.get("snapshotBatches").size());
+    JsonNode stageOutputs = data.get("snapshotBatches").get(0);
+    Assert.assertEquals(2, stageOutputs.size());
+    Assert.assertEquals("source", stageOutputs.get(0).get("instanceName").asText());
+    Assert.assertEquals(150, stageOutputs.get(0).get("output").get("lane1").size());
+    Assert.assertEquals(60, stageOutputs.get(0).get("output").get("lane2").size());
+    Assert.assertEquals(3, stageOutputs.get(0).get("errorRecords").size());
+    Assert.assertEquals("target", stageOutputs.get(1).get("instanceName").asText());
+    snapshot.close();
+  }
+
 }
@@ -16,15 +16,19 @@
 package com.streamsets.datacollector.execution.store;
 
 import com.codahale.metrics.MetricRegistry;
+import com.fasterxml.jackson.databind.ObjectMapper;
 import com.google.common.collect.ImmutableList;
 import com.streamsets.datacollector.config.PipelineConfiguration;
 import com.streamsets.datacollector.event.handler.remote.RemoteDataCollector;
 import com.streamsets.datacollector.execution.PipelineState;
 import com.streamsets.datacollector.execution.PipelineStateStore;
 import com.streamsets.datacollector.execution.PipelineStatus;
+import com.streamsets.datacollector.execution.manager.PipelineStateImpl;
+import com.streamsets.datacollector.json.ObjectMapperFactory;
 import com.streamsets.datacollector.main.RuntimeInfo;
 import com.streamsets.datacollector.main.RuntimeModule;
 import com.streamsets.datacollector.main.SlaveRuntimeInfo;
+import com.streamsets.datacollector.restapi.bean.PipelineStateJson;
 import com.streamsets.datacollector.runner.MockStages;
 import com.streamsets.datacollector.stagelibrary.StageLibraryTask;
 import com.streamsets.datacollector.store.PipelineStoreException;
@@ -42,6 +46,7 @@ import dagger.Provides;
 import org.apache.commons.io.FileUtils;
 import org.junit.After;
 import org.junit.AfterClass;
+import org.junit.Assert;
 import org.junit.Before;
 import org.junit.BeforeClass;
 import org.junit.Test;
@@ -49,7 +54,9 @@ import org.junit.Test;
 import javax.inject.Inject;
 import javax.inject.Singleton;
 import java.io.File;
+import java.io.FileWriter;
 import java.io.IOException;
+import java.io.Writer;
 import java.nio.file.Files;
 import java.util.HashMap;
 import java.util.List;
@@ -323,4 +330,41 @@ public class TestPipelineStateStore {
     }
   }
 
+  @Test
+  public void testReadHistoryFromEnd() throws Exception {
+    File dir = new File("target", UUID.randomUUID().toString());
+    Assert.assertTrue(dir.mkdirs());
+    File file = new File(dir, "pipelineStateHistory.json");
+    ObjectMapper objectMapper = ObjectMapperFactory.get();
+    // the history spans several read blocks, messages with braces and new lines must not be taken as state starts
+    try (Writer writer = new FileWriter(file)) {
+      for (int i = 0; i < 500; i++) {
+        PipelineState state = new PipelineStateImpl("user", "aaa", "0", PipelineStatus.RUNNING, "{\n{" + i + "}", i,
+            new HashMap<String, Object>(), ExecutionMode.STANDALONE, null, 0, 0);
+        writer.write(objectMapper.writeValueAsString(new PipelineStateJson(state, false)));
+        writer.write("\n");
+      }
+    }
+
+    List<PipelineStateJson> history = FilePipelineStateStore.readHistory(file, 0, -1);
+    assertEquals(500, history.size());
+    for (int i = 0; i < 500; i++) {
+      assertEquals(499 - i, history.get(i).getTimeStamp());
+      assertEquals("{\n{" + (499 - i) + "}", history.get(i).getMessage());
+    }
+
+    history = FilePipelineStateStore.readHistory(file, 0, 100);
+    assertEquals(100, history.size());
+    assertEquals(499, history.get(0).getTimeStamp());
+    assertEquals(400, history.get(99).getTimeStamp());
+
+    history = FilePipelineStateStore.readHistory(file, 450, 100);
+    assertEquals(50, history.size());
+    assertEquals(49, history.get(0).getTimeStamp());
+    assertEquals(0, history.get(49).getTimeStamp());
+
+    assertEquals(0, FilePipelineStateStore.readHistory(file, 500, 10).size());
+    assertEquals(0, FilePipelineStateStore.readHistory(file, 0, 0).size());
+  }
+
 }
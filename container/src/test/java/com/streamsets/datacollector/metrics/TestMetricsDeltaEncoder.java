@@ -0,0 +1,98 @@
+/*
+ * Copyright 2019 StreamSets Inc.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package com.streamsets.datacollector.metrics;
+
+import com.codahale.metrics.Gauge;
+import com.codahale.metrics.MetricRegistry;
+import com.fasterxml.jackson.databind.JsonNode;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.fasterxml.jackson.databind.node.ObjectNode;
+import com.streamsets.datacollector.json.ObjectMapperFactory;
+import org.junit.Assert;
+import org.junit.Test;
+
+import java.io.ByteArrayInputStream;
+import java.util.zip.GZIPInputStream;
+
+public class TestMetricsDeltaEncoder {
+
+  @Test
+  public void testFullAndDeltaMessages() throws Exception {
+    ObjectMapper objectMapper = ObjectMapperFactory.get();
+    MetricRegistry metrics = new MetricRegistry();
+    metrics.counter("a.counter").inc();
+    metrics.counter("b.counter").inc();
+    metrics.counter("c.counter").inc();
+    metrics.register("a.gauge", (Gauge<String>) () -> "x");
+
+    MetricsDeltaEncoder encoder = new MetricsDeltaEncoder();
+    MetricsSnapshot first = encoder.encode(metrics);
+    Assert.assertEquals(
+        objectMapper.readTree(objectMapper.writer().writeValueAsString(metrics)),
+        objectMapper.readTree(first.getJson())
+    );
+    Assert.assertEquals(-1, first.getBaseSequence());
+    Assert.assertNull(first.getDeltaMessage());
+    Assert.assertNull(first.getCompressedDeltaMessage());
+
+    JsonNode full = objectMapper.readTree(first.getFullMessage());
+    Assert.assertEquals(first.getSequence(), full.get("seq").asLong());
+    Assert.assertEquals(objectMapper.readTree(first.getJson()), full.get("full"));
+    Assert.assertSame(first.getFullMessage(), first.getFullMessage());
+
+    metrics.counter("a.counter").inc();
+    metrics.remove("c.counter");
+    metrics.counter("d.counter");
+    MetricsSnapshot second = encoder.encode(metrics);
+    Assert.assertEquals(first.getSequence(), second.getBaseSequence());
+
+    JsonNode delta = objectMapper.readTree(second.getDeltaMessage());
+    Assert.assertEquals(second.getSequence(), delta.get("seq").asLong());
+    Assert.assertEquals(first.getSequence(), delta.get("base").asLong());
+    JsonNode changed = delta.get("changed");
+    Assert.assertEquals(1, changed.size());
+    Assert.assertEquals(2, changed.get("counters").size());
+    Assert.assertEquals(2, changed.get("counters").get("a.counter").get("count").asLong());
+    Assert.assertEquals(0, changed.get("counters").get("d.counter").get("count").asLong());
+    JsonNode removed = delta.get("removed");
+    Assert.assertEquals(1, removed.size());
+    Assert.assertEquals("c.counter", removed.get("counters").get(0).asText());
+
+    try (GZIPInputStream is = new GZIPInputStream(new ByteArrayInputStream(second.getCompressedDeltaMessage()))) {
+      Assert.assertEquals(delta, objectMapper.readTree(is));
+    }
+    try (GZIPInputStream is = new GZIPInputStream(new ByteArrayInputStream(second.getCompressedJson()))) {
+      Assert.assertEquals(objectMapper.readTree(second.getJson()), objectMapper.readTree(is));
+    }
+
+    MetricsSnapshot third = encoder.encode(metrics);
+    delta = objectMapper.readTree(third.getDeltaMessage());
+    Assert.assertEquals(0, delta.get("changed").size());
+    Assert.assertEquals(0, delta.get("removed").size());
+  }
+
+  @Test
+  public void testTopLevelFields() throws Exception {
+    ObjectMapper objectMapper = ObjectMapperFactory.get();
+    JsonNode previous = objectMapper.readTree("{\"version\":\"1\",\"slaves\":[\"a\"],\"counters\":{}}");
+    JsonNode current = objectMapper.readTree("{\"version\":\"2\",\"counters\":{}}");
+    JsonNode delta = objectMapper.readTree("{\"changed\":{},\"removed\":{}}");
+    MetricsSnapshot.diff(previous, current, (ObjectNode) delta.get("changed"), (ObjectNode) delta.get("removed"));
+    Assert.assertEquals(objectMapper.readTree("{\"version\":\"2\",\"slaves\":null}"), delta.get("changed"));
+    Assert.assertEquals(0, delta.get("removed").size());
+  }
+
+}
@@ -45,6 +45,7 @@ import org.testcontainers.shaded.com.fasterxml.jackson.databind.ObjectMapper;
 
 import javax.ws.rs.client.Entity;
 import javax.ws.rs.core.Application;
+import javax.ws.rs.core.Response;
 import java.io.IOException;
 import java.util.Arrays;
 import java.util.HashSet;
@@ -208,4 +209,15 @@ public class TestPreviewResource extends JerseyTest {
 
   }
 
+  @Test
+  public void remoteStreamingPreviewShouldBeRejected() {
+    Response response = target("/v1/pipeline/p1/preview")
+        .queryParam("remote", true)
+        .queryParam("streaming", true)
+        .request()
+        .post(Entity.json("[]"));
+    Assert.assertEquals(Response.Status.BAD_REQUEST.getStatusCode(), response.getStatus());
+    Assert.assertTrue(response.readEntity(String.class).contains("not supported for remote previews"));
+  }
+
 }
\ No newline at end of file
@@ -0,0 +1,79 @@
+/*
+ * Copyright 2019 StreamSets Inc.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package com.streamsets.datacollector.runner;
+
+import com.codahale.metrics.MetricRegistry;
+import org.junit.Assert;
+import org.junit.Test;
+
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.TimeUnit;
+
+public class TestStageProfile {
+
+  @Test
+  public void testWindow() {
+    StageProfile profile = new StageProfile("s");
+    long now = TimeUnit.HOURS.toMillis(1);
+    profile.record(now, TimeUnit.MILLISECONDS.toNanos(100), 1000);
+    profile.record(now + TimeUnit.SECONDS.toMillis(60), TimeUnit.MILLISECONDS.toNanos(50), 500);
+
+    Map<String, Object> value = profile.getValue(now + TimeUnit.SECONDS.toMillis(60));
+    Assert.assertEquals(150L, value.get(StageProfile.CPU_TIME));
+    Assert.assertEquals(1500L, value.get(StageProfile.ALLOCATED_BYTES));
+    Assert.assertEquals(150L, value.get(StageProfile.WINDOW_CPU_TIME));
+    Assert.assertEquals(1500L, value.get(StageProfile.WINDOW_ALLOCATED_BYTES));
+
+    // the first batch left the window, the totals keep it
+    value = profile.getValue(now + TimeUnit.SECONDS.toMillis(StageProfile.WINDOW_SECONDS + 30));
+    Assert.assertEquals(150L, value.get(StageProfile.CPU_TIME));
+    Assert.assertEquals(50L, value.get(StageProfile.WINDOW_CPU_TIME));
+    Assert.assertEquals(500L, value.get(StageProfile.WINDOW_ALLOCATED_BYTES));
+
+    // a bucket reused by a later period starts from zero
+    profile.record(now + TimeUnit.SECONDS.toMillis(StageProfile.WINDOW_SECONDS), TimeUnit.MILLISECONDS.toNanos(10), 10);
+    value = profile.getValue(now + TimeUnit.SECONDS.toMillis(StageProfile.WINDOW_SECONDS));
+    Assert.assertEquals(60L, value.get(StageProfile.WINDOW_CPU_TIME));
+    Assert.assertEquals(510L, value.get(StageProfile.WINDOW_ALLOCATED_BYTES));
+  }
+
+  @Test
+  @SuppressWarnings("unchecked")
+  public void testTopStages() {
+    MetricRegistry metrics = new MetricRegistry();
+    StageProfile a = StageProfile.get(metrics, "a", "p", "0");
+    StageProfile b = StageProfile.get(metrics, "b", "p", "0");
+    StageProfile c = StageProfile.get(metrics, "c", "p", "0");
+    Assert.assertSame(a, StageProfile.get(metrics, "a", "p", "0"));
+
+    a.record(TimeUnit.MILLISECONDS.toNanos(30), 10);
+    b.record(TimeUnit.MILLISECONDS.toNanos(20), 300);
+    c.record(TimeUnit.MILLISECONDS.toNanos(10), 200);
+
+    Map<String, Object> topStages = StageProfile.getTopStages(metrics, 2);
+    Assert.assertEquals(StageProfile.WINDOW_SECONDS, topStages.get(StageProfile.WINDOW_SECONDS_KEY));
+    List<Map<String, Object>> topCpu = (List<Map<String, Object>>) topStages.get(StageProfile.TOP_CPU);
+    Assert.assertEquals(2, topCpu.size());
+    Assert.assertEquals("a", topCpu.get(0).get(StageProfile.STAGE));
+    Assert.assertEquals("b", topCpu.get(1).get(StageProfile.STAGE));
+    List<Map<String, Object>> topAllocation = (List<Map<String, Object>>) topStages.get(StageProfile.TOP_ALLOCATION);
+    Assert.assertEquals(2, topAllocation.size());
+    Assert.assertEquals("b", topAllocation.get(0).get(StageProfile.STAGE));
+    Assert.assertEquals("c", topAllocation.get(1).get(StageProfile.STAGE));
+  }
+
+}
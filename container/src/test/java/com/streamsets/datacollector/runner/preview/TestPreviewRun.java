@@ -15,6 +15,7 @@
  */
 package com.streamsets.datacollector.runner.preview;
 
+import com.fasterxml.jackson.databind.JsonNode;
 import com.streamsets.datacollector.blobstore.BlobStoreTask;
 import com.streamsets.datacollector.config.PipelineConfiguration;
 import com.streamsets.datacollector.execution.runner.common.PipelineStopReason;
@@ -47,9 +48,12 @@ import org.junit.Before;
 import org.junit.Test;
 import org.mockito.Mockito;
 
+import java.util.ArrayList;
 import java.util.Arrays;
 import java.util.Collections;
+import java.util.LinkedHashMap;
 import java.util.List;
+import java.util.Map;
 
 public class TestPreviewRun {
   private Configuration configuration;
@@ -425,4 +429,103 @@ public class TestPreviewRun {
     Assert.assertEquals(20, output.get(1).getOutput().get("p").get(0).get().getValue());
   }
 
+  @Test
+  public void testStreamingPreviewRun() throws Exception {
+    MockStages.setSourceCapture(new BaseSource() {
+      @Override
+      public String produce(String lastSourceOffset, int maxBatchSize, BatchMaker batchMaker) throws StageException {
+        Record record = getContext().createRecord("x");
+        Map<String, Field> map = new LinkedHashMap<>();
+        map.put("a", Field.create(1));
+        map.put("b", Field.create("b"));
+        map.put("c", Field.create("c"));
+        record.set(Field.create(map));
+        batchMaker.addRecord(record);
+        return "1";
+      }
+    });
+    MockStages.setProcessorCapture(new SingleLaneRecordProcessor() {
+      @Override
+      protected void process(Record record, SingleLaneBatchMaker batchMaker) throws StageException {
+        record.set("/a", Field.create(2));
+        record.delete("/b");
+        record.set("/d", Field.create("d"));
+        batchMaker.addRecord(record);
+      }
+    });
+    MockStages.setTargetCapture(new BaseTarget() {
+      @Override
+      public void write(Batch batch) throws StageException {
+      }
+    });
+    SourceOffsetTracker tracker = Mockito.mock(SourceOffsetTracker.class);
+    PreviewPipelineRunner runner = new PreviewPipelineRunner("name", "0", runtimeInfo, tracker, -1,
+        2, true, true, false);
+    StreamingPreviewBuffer buffer = new StreamingPreviewBuffer(1024 * 1024);
+    runner.setStreamingOutput(buffer);
+    Pipeline pipeline = new MockPipelineBuilder()
+        .withPipelineConf(MockStages.createPipelineConfigurationSourceProcessorTarget())
+        .build(runner);
+    pipeline.init(false);
+    pipeline.run();
+    pipeline.destroy(false, PipelineStopReason.UNUSED);
+    buffer.close();
+    Assert.assertTrue(runner.getBatchesOutput().isEmpty());
+
+    List<JsonNode> lines = new ArrayList<>();
+    byte[] chunk;
+    while ((chunk = buffer.take()) != null) {
+      lines.add(ObjectMapperFactory.get().readTree(chunk));
+    }
+    Assert.assertEquals(0, buffer.getSize());
+    // the skipped target has no output
+    Assert.assertEquals(4, lines.size());
+    for (int batch = 0; batch < 2; batch++) {
+      JsonNode sourceOutput = lines.get(batch * 2).get("stageOutput");
+      Assert.assertEquals(batch, lines.get(batch * 2).get("batch").asInt());
+      Assert.assertEquals("s", sourceOutput.get("instanceName").asText());
+      JsonNode sourceRecord = sourceOutput.get("output").get("s").get(0);
+      Assert.assertEquals("1", sourceRecord.get("value").get("value").get("a").get("value").asText());
+      Assert.assertEquals("b", sourceRecord.get("value").get("value").get("b").get("value").asText());
+
+      JsonNode processorOutput = lines.get(batch * 2 + 1).get("stageOutput");
+      Assert.assertEquals(batch, lines.get(batch * 2 + 1).get("batch").asInt());
+      Assert.assertEquals("p", processorOutput.get("instanceName").asText());
+      JsonNode processorRecord = processorOutput.get("output").get("p").get(0);
+      Assert.assertNull(processorRecord.get("value"));
+      Assert.assertEquals(
+          sourceRecord.get("header").get("trackingId").asText(),
+          processorRecord.get("base").asText()
+      );
+      JsonNode changed = processorRecord.get("changed");
+      Assert.assertEquals(2, changed.size());
+      Assert.assertEquals("2", changed.get("/a").get("value").asText());
+      Assert.assertEquals("d", changed.get("/d").get("value").asText());
+      Assert.assertEquals(1, processorRecord.get("removed").size());
+      Assert.assertEquals("/b", processorRecord.get("removed").get(0).asText());
+    }
+  }
+
+  @Test
+  public void testStreamingPreviewTruncated() throws Exception {
+    MockStages.setSourceCapture(new ReturnNumberSource());
+    SourceOffsetTracker tracker = Mockito.mock(SourceOffsetTracker.class);
+    PreviewPipelineRunner runner = new PreviewPipelineRunner("name", "0", runtimeInfo, tracker, -1,
+        10, true, true, false);
+    StreamingPreviewBuffer buffer = new StreamingPreviewBuffer(10);
+    runner.setStreamingOutput(buffer);
+    Pipeline pipeline = new MockPipelineBuilder()
+        .withPipelineConf(MockStages.createPipelineConfigurationSourceTarget())
+        .build(runner);
+    pipeline.init(false);
+    pipeline.run();
+    pipeline.destroy(false, PipelineStopReason.UNUSED);
+
+    // the first stage output does not fit, the preview stops after the first batch
+    Assert.assertTrue(buffer.isTruncated());
+    Assert.assertFalse(buffer.offer(new byte[1]));
+    buffer.close();
+    Assert.assertNull(buffer.take());
+  }
+
 }
@@ -0,0 +1,70 @@
+/*
+ * Copyright 2019 StreamSets Inc.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package com.streamsets.datacollector.runner.preview;
+
+import org.junit.Assert;
+import org.junit.Test;
+
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.TimeUnit;
+
+public class TestStreamingPreviewBuffer {
+
+  @Test
+  public void testOfferWaitsForRoom() throws Exception {
+    StreamingPreviewBuffer buffer = new StreamingPreviewBuffer(10, TimeUnit.MINUTES.toMillis(1));
+    Assert.assertTrue(buffer.offer(new byte[8]));
+    CompletableFuture<Boolean> offered = CompletableFuture.supplyAsync(() -> buffer.offer(new byte[8]));
+    Thread.sleep(100);
+    Assert.assertFalse(offered.isDone());
+
+    // the client reads, making room for the waiting stage output
+    Assert.assertEquals(8, buffer.take().length);
+    Assert.assertTrue(offered.get(1, TimeUnit.MINUTES));
+    Assert.assertFalse(buffer.isTruncated());
+    Assert.assertEquals(8, buffer.getSize());
+  }
+
+  @Test
+  public void testOfferTimesOut() throws Exception {
+    StreamingPreviewBuffer buffer = new StreamingPreviewBuffer(10, 50);
+    Assert.assertTrue(buffer.offer(new byte[8]));
+    Assert.assertFalse(buffer.offer(new byte[8]));
+    Assert.assertTrue(buffer.isTruncated());
+    // nothing is accepted once truncated, even if it fits
+    Assert.assertFalse(buffer.offer(new byte[1]));
+    Assert.assertEquals(8, buffer.getSize());
+  }
+
+  @Test
+  public void testOfferLargerThanBuffer() throws Exception {
+    StreamingPreviewBuffer buffer = new StreamingPreviewBuffer(10, TimeUnit.MINUTES.toMillis(1));
+    // it can never fit, no need to wait
+    Assert.assertFalse(buffer.offer(new byte[11]));
+    Assert.assertTrue(buffer.isTruncated());
+  }
+
+  @Test
+  public void testCloseReleasesOffer() throws Exception {
+    StreamingPreviewBuffer buffer = new StreamingPreviewBuffer(10, TimeUnit.MINUTES.toMillis(1));
+    Assert.assertTrue(buffer.offer(new byte[8]));
+    CompletableFuture<Boolean> offered = CompletableFuture.supplyAsync(() -> buffer.offer(new byte[8]));
+    Thread.sleep(100);
+    buffer.close();
+    Assert.assertFalse(offered.get(1, TimeUnit.MINUTES));
+  }
+
+}
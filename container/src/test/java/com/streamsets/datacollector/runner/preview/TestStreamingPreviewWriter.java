@@ -0,0 +1,90 @@
+/*
+ * Copyright 2019 StreamSets Inc.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package com.streamsets.datacollector.runner.preview;
+
+import com.fasterxml.jackson.databind.JsonNode;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.fasterxml.jackson.databind.node.ArrayNode;
+import com.fasterxml.jackson.databind.node.ObjectNode;
+import com.streamsets.datacollector.json.ObjectMapperFactory;
+import com.streamsets.datacollector.record.RecordImpl;
+import com.streamsets.pipeline.api.Field;
+import org.junit.Assert;
+import org.junit.Test;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.LinkedHashMap;
+import java.util.List;
+
+public class TestStreamingPreviewWriter {
+
+  private static JsonNode toJson(Field field) {
+    RecordImpl record = new RecordImpl("s", "id", null, null);
+    record.set(field);
+    return ObjectMapperFactory.get().valueToTree(record.getValue());
+  }
+
+  private static ObjectNode diff(Field base, Field current) {
+    ObjectMapper objectMapper = ObjectMapperFactory.get();
+    ObjectNode diff = objectMapper.createObjectNode();
+    ObjectNode changed = diff.putObject("changed");
+    ArrayNode removed = diff.putArray("removed");
+    StreamingPreviewWriter.diff(toJson(base), toJson(current), changed, removed);
+    return diff;
+  }
+
+  @Test
+  public void testListDiff() {
+    List<Field> list = new ArrayList<>(Arrays.asList(Field.create(1), Field.create(2)));
+    Field base = Field.create(map("l", Field.create(new ArrayList<>(list))));
+
+    // same size, only the changed element
+    list.set(1, Field.create(3));
+    ObjectNode diff = diff(base, Field.create(map("l", Field.create(list))));
+    Assert.assertEquals(1, diff.get("changed").size());
+    Assert.assertEquals("3", diff.get("changed").get("/l[1]").get("value").asText());
+    Assert.assertEquals(0, diff.get("removed").size());
+
+    // element added, the whole list
+    list.add(Field.create(4));
+    diff = diff(base, Field.create(map("l", Field.create(list))));
+    Assert.assertEquals(1, diff.get("changed").size());
+    Assert.assertEquals(3, diff.get("changed").get("/l").get("value").size());
+  }
+
+  @Test
+  public void testTypeAndRootChanges() {
+    Field base = Field.create(map("a", Field.create(1)));
+
+    ObjectNode diff = diff(base, Field.create(map("a", Field.create("1"))));
+    Assert.assertEquals("STRING", diff.get("changed").get("/a").get("type").asText());
+
+    diff = diff(base, Field.create(1));
+    Assert.assertTrue(diff.get("changed").has(""));
+
+    diff = diff(base, base);
+    Assert.assertEquals(0, diff.get("changed").size());
+    Assert.assertEquals(0, diff.get("removed").size());
+  }
+
+  private static LinkedHashMap<String, Field> map(String name, Field field) {
+    LinkedHashMap<String, Field> map = new LinkedHashMap<>();
+    map.put(name, field);
+    return map;
+  }
+
+}
@@ -15,7 +15,9 @@
  */
 package com.streamsets.datacollector.stagelibrary;
 
+import com.codahale.metrics.Gauge;
 import com.codahale.metrics.MetricRegistry;
+import com.fasterxml.jackson.databind.ObjectMapper;
 import com.google.common.collect.ImmutableList;
 import com.google.common.collect.ImmutableSet;
 import com.streamsets.datacollector.config.ConfigDefinition;
@@ -30,6 +32,7 @@ import com.streamsets.datacollector.main.BuildInfo;
 import com.streamsets.datacollector.main.DataCollectorBuildInfo;
 import com.streamsets.datacollector.main.RuntimeInfo;
 import com.streamsets.datacollector.main.SdcConfiguration;
+import com.streamsets.datacollector.metrics.MetricsConfigurator;
 import com.streamsets.datacollector.util.Configuration;
 import com.streamsets.pipeline.ApplicationPackage;
 import com.streamsets.pipeline.SDCClassLoader;
@@ -43,8 +46,10 @@ import java.io.ByteArrayInputStream;
 import java.io.File;
 import java.io.InputStream;
 import java.net.URL;
+import java.util.ArrayList;
 import java.util.Collections;
 import java.util.List;
+import java.util.Map;
 import java.util.Set;
 import java.util.TreeSet;
 import java.util.UUID;
@@ -122,6 +127,128 @@ public class TestClassLoaderStageLibraryTask {
     Assert.assertTrue(foundAutoC);
   }
 
+  @Test
+  @SuppressWarnings("unchecked")
+  public void testParallelLoadingKeepsLibraryOrder() {
+    File configDir = new File("target", UUID.randomUUID().toString()).getAbsoluteFile();
+    List<ClassLoader> cls = new ArrayList<>();
+    for (int i = 0; i < 8; i++) {
+      cls.add(new SDCClassLoader("library", "lib" + i, Collections.<URL>emptyList(), getClass().getClassLoader(),
+                                 new String[0], new SystemPackage(new String[0]),
+                                 new ApplicationPackage(new TreeSet<String>()), false, false, false));
+    }
+    RuntimeInfo runtimeInfo = mockRuntimeInfo(configDir);
+    Mockito.when(runtimeInfo.getStageLibraryClassLoaders()).thenReturn((List) cls);
+    MetricRegistry metrics = new MetricRegistry();
+    Mockito.when(runtimeInfo.getMetrics()).thenReturn(metrics);
+
+    Configuration configuration = new Configuration();
+    configuration.set(ClassLoaderStageLibraryTask.CONFIG_LOAD_THREADS, 4);
+    ClassLoaderStageLibraryTask library = new ClassLoaderStageLibraryTask(runtimeInfo, new DataCollectorBuildInfo(), configuration);
+    library.initTask();
+
+    Assert.assertEquals(8, library.getLoadedStageLibraries().size());
+    Assert.assertEquals(8, library.getStages().size());
+    for (int i = 0; i < 8; i++) {
+      Assert.assertEquals("lib" + i, library.getLoadedStageLibraries().get(i).getName());
+      Assert.assertEquals("lib" + i, library.getStages().get(i).getLibrary());
+      Assert.assertNotNull(library.getStage("lib" + i, library.getStages().get(i).getName(), false));
+    }
+
+    Gauge<Map<String, Object>> gauge = metrics.getGauges().get(
+        MetricsConfigurator.JMX_FRAMEWORK_PREFIX + "stageLibrary.startup.runtime" + MetricsConfigurator.GAUGE_SUFFIX);
+    Assert.assertNotNull(gauge);
+    Assert.assertEquals(8, gauge.getValue().get("libraries"));
+    Assert.assertEquals(4, gauge.getValue().get("loadThreads"));
+    Assert.assertTrue((Long) gauge.getValue().get("loadTime") >= 0);
+
+    gauge = metrics.getGauges().get(
+        MetricsConfigurator.JMX_FRAMEWORK_PREFIX + "classloader.libraries.runtime" + MetricsConfigurator.GAUGE_SUFFIX);
+    Assert.assertNotNull(gauge);
+    Assert.assertEquals(8, gauge.getValue().size());
+    Assert.assertTrue(gauge.getValue().containsKey("lib0"));
+  }
+
+  @SuppressWarnings("unchecked")
+  private static ClassLoaderStageLibraryTask loadWithDefinitionsCache(File dataDir, MetricRegistry metrics) {
+    File configDir = new File("target", UUID.randomUUID().toString()).getAbsoluteFile();
+    ClassLoader cl = new SDCClassLoader("library", "lib", Collections.<URL>emptyList(), TestClassLoaderStageLibraryTask.class.getClassLoader(),
+                                        new String[0], new SystemPackage(new String[0]),
+                                        new ApplicationPackage(new TreeSet<String>()), false, false, false);
+    RuntimeInfo runtimeInfo = mockRuntimeInfo(configDir);
+    Mockito.when(runtimeInfo.getDataDir()).thenReturn(dataDir.getAbsolutePath());
+    Mockito.when(runtimeInfo.getStageLibraryClassLoaders()).thenReturn((List) ImmutableList.of(cl));
+    Mockito.when(runtimeInfo.getMetrics()).thenReturn(metrics);
+
+    ClassLoaderStageLibraryTask library = new ClassLoaderStageLibraryTask(runtimeInfo, new DataCollectorBuildInfo(), new Configuration());
+    library.initTask();
+    return library;
+  }
+
+  @SuppressWarnings("unchecked")
+  private static Object getCachedLibraries(MetricRegistry metrics) {
+    Gauge<Map<String, Object>> gauge = metrics.getGauges().get(
+        MetricsConfigurator.JMX_FRAMEWORK_PREFIX + "stageLibrary.startup.runtime" + MetricsConfigurator.GAUGE_SUFFIX);
+    return gauge.getValue().get("cachedLibraries");
+  }
+
+  @Test
+  @SuppressWarnings("unchecked")
+  public void testDefinitionsCache() throws Exception {
+    File dataDir = new File("target", UUID.randomUUID().toString()).getAbsoluteFile();
+    MetricRegistry metrics = new MetricRegistry();
+    ClassLoaderStageLibraryTask library = loadWithDefinitionsCache(dataDir, metrics);
+    Assert.assertEquals(1, library.getStages().size());
+    Assert.assertEquals(0, getCachedLibraries(metrics));
+    File cacheFile = new File(new File(dataDir, StageLibraryDefinitionsCache.CACHE_DIR), "lib.json");
+    Assert.assertTrue(cacheFile.exists());
+
+    // the definitions are loaded from the cached classes, dropping the stage from the cache proves it is used
+    ObjectMapper json = new ObjectMapper();
+    Map<String, Object> cached = json.readValue(cacheFile, Map.class);
+    ((Map<String, Object>) cached.get("classes")).put(StageLibraryTask.STAGES_DEFINITION_RESOURCE, Collections.emptyList());
+    json.writeValue(cacheFile, cached);
+
+    metrics = new MetricRegistry();
+    library = loadWithDefinitionsCache(dataDir, metrics);
+    Assert.assertEquals(0, library.getStages().size());
+    Assert.assertEquals(1, getCachedLibraries(metrics));
+  }
+
+  @Test
+  @SuppressWarnings("unchecked")
+  public void testStaleDefinitionsCache() throws Exception {
+    File dataDir = new File("target", UUID.randomUUID().toString()).getAbsoluteFile();
+    ClassLoaderStageLibraryTask library = loadWithDefinitionsCache(dataDir, new MetricRegistry());
+    StageDefinition stage = library.getStages().get(0);
+    File cacheFile = new File(new File(dataDir, StageLibraryDefinitionsCache.CACHE_DIR), "lib.json");
+
+    // as if the library jars changed since the definitions were cached
+    ObjectMapper json = new ObjectMapper();
+    Map<String, Object> cached = json.readValue(cacheFile, Map.class);
+    String checksum = (String) cached.get("checksum");
+    cached.put("checksum", "stale");
+    ((Map<String, Object>) cached.get("classes")).put(
+        StageLibraryTask.STAGES_DEFINITION_RESOURCE,
+        ImmutableList.of("com.example.RemovedStage")
+    );
+    json.writeValue(cacheFile, cached);
+
+    MetricRegistry metrics = new MetricRegistry();
+    library = loadWithDefinitionsCache(dataDir, metrics);
+    Assert.assertEquals(1, library.getStages().size());
+    Assert.assertEquals(stage.getName(), library.getStages().get(0).getName());
+    Assert.assertEquals(0, getCachedLibraries(metrics));
+
+    // the library was scanned and cached again
+    cached = json.readValue(cacheFile, Map.class);
+    Assert.assertEquals(checksum, cached.get("checksum"));
+    Assert.assertEquals(
+        ImmutableList.of(stage.getStageClass().getName()),
+        ((Map<String, Object>) cached.get("classes")).get(StageLibraryTask.STAGES_DEFINITION_RESOURCE)
+    );
+  }
+
   @Test
   @SuppressWarnings("unchecked")
   public void testIncorrectSdcMinVersion() {
@@ -15,7 +15,7 @@
  */
 package com.streamsets.datacollector.store.impl;
 
-
+import com.fasterxml.jackson.databind.ObjectMapper;
 import com.streamsets.datacollector.config.DataRuleDefinition;
 import com.streamsets.datacollector.config.DriftRuleDefinition;
 import com.streamsets.datacollector.config.MetricElement;
@@ -26,6 +26,7 @@ import com.streamsets.datacollector.config.RuleDefinitions;
 import com.streamsets.datacollector.config.ThresholdType;
 import com.streamsets.datacollector.creation.RuleDefinitionsConfigBean;
 import com.streamsets.datacollector.execution.PipelineStateStore;
+import com.streamsets.datacollector.json.ObjectMapperFactory;
 import com.streamsets.datacollector.main.RuntimeInfo;
 import com.streamsets.datacollector.runner.MockStages;
 import com.streamsets.datacollector.runner.preview.StageConfigurationBuilder;
@@ -47,12 +48,17 @@ import org.mockito.Mockito;
 
 import javax.annotation.Nullable;
 import javax.inject.Singleton;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.attribute.FileTime;
 import java.util.ArrayList;
+import java.util.Arrays;
 import java.util.Collections;
 import java.util.HashMap;
 import java.util.List;
 import java.util.Map;
 import java.util.UUID;
+import java.util.concurrent.TimeUnit;
 
 import static org.junit.Assert.assertEquals;
 
@@ -148,6 +154,55 @@ public class TestFilePipelineStoreTask {
     }
   }
 
+  @Test
+  public void testCatalog() throws Exception {
+    RuntimeInfo runtimeInfo = Mockito.mock(RuntimeInfo.class);
+    Mockito.when(runtimeInfo.getDataDir()).thenReturn("target/" + UUID.randomUUID());
+    FilePipelineStoreTask fileStore = new FilePipelineStoreTask(runtimeInfo, MockStages.createStageLibrary(), null,
+        new LockCache<String>());
+    try {
+      fileStore.init();
+      fileStore.create(SYSTEM_USER, "a", "A", "", false, false, new HashMap<String, Object>());
+      fileStore.create(SYSTEM_USER, "b", "B", "", false, false, new HashMap<String, Object>());
+      Assert.assertEquals(2, fileStore.getPipelines().size());
+      Assert.assertTrue(Files.exists(fileStore.getCatalogFile()));
+
+      // making the catalog entry of 'a' different from its info.json without changing the info.json file
+      ObjectMapper json = ObjectMapperFactory.get();
+      FilePipelineStoreTask.Catalog catalog =
+          json.readValue(fileStore.getCatalogFile().toFile(), FilePipelineStoreTask.Catalog.class);
+      Assert.assertEquals(2, catalog.entries.size());
+      catalog.writtenAt = System.currentTimeMillis() + TimeUnit.HOURS.toMillis(1);
+      catalog.entries.get("a").info = catalog.entries.get("b").info;
+      json.writeValue(fileStore.getCatalogFile().toFile(), catalog);
+    } finally {
+      fileStore.stop();
+    }
+
+    // the catalog is used for the unchanged info.json files
+    fileStore = new FilePipelineStoreTask(runtimeInfo, MockStages.createStageLibrary(), null, new LockCache<String>());
+    try {
+      fileStore.init();
+      List<String> ids = new ArrayList<>();
+      for (PipelineInfo info : fileStore.getPipelines()) {
+        ids.add(info.getPipelineId());
+      }
+      Assert.assertEquals(Arrays.asList("b", "b"), ids);
+
+      // a modified info.json file is read again
+      Path infoFile = fileStore.getStoreDir().resolve("a").resolve(FilePipelineStoreTask.INFO_FILE);
+      Files.setLastModifiedTime(infoFile, FileTime.fromMillis(System.currentTimeMillis() - 60000));
+      ids.clear();
+      for (PipelineInfo info : fileStore.getPipelines()) {
+        ids.add(info.getPipelineId());
+      }
+      Collections.sort(ids);
+      Assert.assertEquals(Arrays.asList("a", "b"), ids);
+    } finally {
+      fileStore.stop();
+    }
+  }
+
   @Test(expected = PipelineStoreException.class)
   public void testCreateExistingPipeline() throws Exception {
     try {
@@ -0,0 +1,132 @@
+/*
+ * Copyright 2019 StreamSets Inc.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package com.streamsets.datacollector.validation;
+
+import com.google.common.collect.ImmutableList;
+import com.google.common.collect.ImmutableSet;
+import com.streamsets.datacollector.config.ErrorRecordPolicy;
+import com.streamsets.datacollector.config.StageConfiguration;
+import com.streamsets.datacollector.creation.StageConfigBean;
+import com.streamsets.datacollector.runner.preview.StageConfigurationBuilder;
+import com.streamsets.pipeline.api.Config;
+import org.junit.Assert;
+import org.junit.Test;
+
+import java.util.List;
+import java.util.Set;
+
+public class TestFieldProjectionAnalyzer {
+
+  private static StageConfiguration origin() {
+    return new StageConfigurationBuilder("s", "sourceName")
+        .withOutputLanes("s")
+        .build();
+  }
+
+  private static StageConfiguration fieldRemover(String name, String operation, List<String> fields) {
+    return new StageConfigurationBuilder(name, FieldProjectionAnalyzer.FIELD_REMOVER_STAGE_NAME)
+        .withConfig(
+            new Config(FieldProjectionAnalyzer.FILTER_OPERATION_CONFIG, operation),
+            new Config(FieldProjectionAnalyzer.FIELDS_CONFIG, fields)
+        )
+        .withInputLanes("s")
+        .withOutputLanes(name)
+        .build();
+  }
+
+  private static Set<String> getOriginProjection(List<StageConfiguration> stages) {
+    return FieldProjectionAnalyzer.getOriginProjection(stages, ErrorRecordPolicy.STAGE_RECORD);
+  }
+
+  @Test
+  public void testKeepFieldRemover() {
+    Assert.assertEquals(
+        ImmutableSet.of("/a", "/b/c"),
+        getOriginProjection(ImmutableList.of(
+            origin(),
+            fieldRemover("p", "KEEP", ImmutableList.of("/a", "/b/c"))
+        ))
+    );
+  }
+
+  @Test
+  public void testUnionOfKeepFieldRemovers() {
+    Assert.assertEquals(
+        ImmutableSet.of("/a", "/b"),
+        getOriginProjection(ImmutableList.of(
+            origin(),
+            fieldRemover("p1", "KEEP", ImmutableList.of("/a")),
+            fieldRemover("p2", "KEEP", ImmutableList.of("/b"))
+        ))
+    );
+  }
+
+  @Test
+  public void testNoProjection() {
+    // Remove mode
+    Assert.assertTrue(getOriginProjection(ImmutableList.of(
+        origin(),
+        fieldRemover("p", "REMOVE", ImmutableList.of("/a"))
+    )).isEmpty());
+
+    // Expressions can't be resolved up front
+    Assert.assertTrue(getOriginProjection(ImmutableList.of(
+        origin(),
+        fieldRemover("p", "KEEP", ImmutableList.of("/a", "/*[${f:type() == 'STRING'}]"))
+    )).isEmpty());
+
+    // Another stage reads the origin output as well
+    Assert.assertTrue(getOriginProjection(ImmutableList.of(
+        origin(),
+        fieldRemover("p", "KEEP", ImmutableList.of("/a")),
+        new StageConfigurationBuilder("t", "targetName").withInputLanes("s").build()
+    )).isEmpty());
+
+    // Nobody reads the origin output
+    Assert.assertTrue(getOriginProjection(ImmutableList.of(origin())).isEmpty());
+  }
+
+  @Test
+  public void testNoProjectionWithRequiredFieldsOrPreconditions() {
+    // both are evaluated on the record before the Field Remover drops its fields
+    StageConfiguration requiredFields = fieldRemover("p", "KEEP", ImmutableList.of("/a"));
+    requiredFields.addConfig(new Config(StageConfigBean.STAGE_REQUIRED_FIELDS_CONFIG, ImmutableList.of("/b")));
+    Assert.assertTrue(getOriginProjection(ImmutableList.of(origin(), requiredFields)).isEmpty());
+
+    StageConfiguration preconditions = fieldRemover("p", "KEEP", ImmutableList.of("/a"));
+    preconditions.addConfig(new Config(
+        StageConfigBean.STAGE_PRECONDITIONS_CONFIG,
+        ImmutableList.of("${record:value('/b') > 0}")
+    ));
+    Assert.assertTrue(getOriginProjection(ImmutableList.of(origin(), preconditions)).isEmpty());
+
+    // empty lists don't read any field
+    StageConfiguration none = fieldRemover("p", "KEEP", ImmutableList.of("/a"));
+    none.addConfig(new Config(StageConfigBean.STAGE_REQUIRED_FIELDS_CONFIG, ImmutableList.of()));
+    none.addConfig(new Config(StageConfigBean.STAGE_PRECONDITIONS_CONFIG, ImmutableList.of()));
+    Assert.assertEquals(ImmutableSet.of("/a"), getOriginProjection(ImmutableList.of(origin(), none)));
+  }
+
+  @Test
+  public void testNoProjectionWithOriginalErrorRecords() {
+    // error records have to carry all the fields the origin read
+    Assert.assertTrue(FieldProjectionAnalyzer.getOriginProjection(
+        ImmutableList.of(origin(), fieldRemover("p", "KEEP", ImmutableList.of("/a"))),
+        ErrorRecordPolicy.ORIGINAL_RECORD
+    ).isEmpty());
+  }
+
+}
@@ -0,0 +1,122 @@
+/*
+ * Copyright 2019 StreamSets Inc.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package com.streamsets.datacollector.websockets;
+
+import com.codahale.metrics.MetricRegistry;
+import com.streamsets.datacollector.metrics.MetricsDeltaEncoder;
+import com.streamsets.datacollector.metrics.MetricsEventListener;
+import com.streamsets.datacollector.metrics.MetricsSnapshot;
+import org.eclipse.jetty.websocket.api.RemoteEndpoint;
+import org.eclipse.jetty.websocket.api.Session;
+import org.junit.Assert;
+import org.junit.Test;
+import org.mockito.Mockito;
+
+import java.nio.ByteBuffer;
+import java.util.concurrent.ArrayBlockingQueue;
+import java.util.concurrent.BlockingQueue;
+
+public class TestMetricsWebSocket {
+
+  @SuppressWarnings("unchecked")
+  private static MetricsWebSocket createWebSocket(
+      BlockingQueue<WebSocketMessage> queue,
+      RemoteEndpoint remote,
+      boolean delta,
+      boolean compress
+  ) {
+    Session session = Mockito.mock(Session.class);
+    Mockito.when(session.isOpen()).thenReturn(true);
+    Mockito.when(session.getRemote()).thenReturn(remote);
+    MetricsWebSocket webSocket = new MetricsWebSocket(Mockito.mock(ListenerManager.class), queue, delta, compress);
+    webSocket.onWebSocketConnect(session);
+    return webSocket;
+  }
+
+  private static void sendAll(BlockingQueue<WebSocketMessage> queue) throws Exception {
+    while (!queue.isEmpty()) {
+      queue.poll().send();
+    }
+  }
+
+  @Test
+  public void testDefaultProtocol() throws Exception {
+    BlockingQueue<WebSocketMessage> queue = new ArrayBlockingQueue<>(10);
+    RemoteEndpoint remote = Mockito.mock(RemoteEndpoint.class);
+    MetricsEventListener webSocket = createWebSocket(queue, remote, false, false);
+
+    MetricsDeltaEncoder encoder = new MetricsDeltaEncoder();
+    MetricRegistry metrics = new MetricRegistry();
+    MetricsSnapshot first = encoder.encode(metrics);
+    MetricsSnapshot second = encoder.encode(metrics);
+    webSocket.notification(first);
+    webSocket.notification(second);
+    sendAll(queue);
+
+    Mockito.verify(remote, Mockito.times(2)).sendString(first.getJson());
+  }
+
+  @Test
+  public void testDeltaProtocol() throws Exception {
+    BlockingQueue<WebSocketMessage> queue = new ArrayBlockingQueue<>(2);
+    RemoteEndpoint remote = Mockito.mock(RemoteEndpoint.class);
+    MetricsEventListener webSocket = createWebSocket(queue, remote, true, false);
+
+    MetricsDeltaEncoder encoder = new MetricsDeltaEncoder();
+    MetricRegistry metrics = new MetricRegistry();
+    MetricsSnapshot first = encoder.encode(metrics);
+    MetricsSnapshot second = encoder.encode(metrics);
+    webSocket.notification(first);
+    webSocket.notification(second);
+    sendAll(queue);
+
+    Mockito.verify(remote).sendString(first.getFullMessage());
+    Mockito.verify(remote).sendString(second.getDeltaMessage());
+
+    // the third message is discarded as the queue is full, the fourth one is then a full message
+    MetricsSnapshot third = encoder.encode(metrics);
+    MetricsSnapshot fourth = encoder.encode(metrics);
+    queue.add(Mockito.mock(WebSocketMessage.class));
+    queue.add(Mockito.mock(WebSocketMessage.class));
+    webSocket.notification(third);
+    queue.clear();
+    webSocket.notification(fourth);
+    sendAll(queue);
+
+    Mockito.verify(remote, Mockito.never()).sendString(third.getDeltaMessage());
+    Mockito.verify(remote).sendString(fourth.getFullMessage());
+  }
+
+  @Test
+  public void testCompressedDeltaProtocol() throws Exception {
+    BlockingQueue<WebSocketMessage> queue = new ArrayBlockingQueue<>(10);
+    RemoteEndpoint remote = Mockito.mock(RemoteEndpoint.class);
+    MetricsEventListener webSocket = createWebSocket(queue, remote, true, true);
+
+    MetricsDeltaEncoder encoder = new MetricsDeltaEncoder();
+    MetricRegistry metrics = new MetricRegistry();
+    MetricsSnapshot first = encoder.encode(metrics);
+    MetricsSnapshot second = encoder.encode(metrics);
+    webSocket.notification(first);
+    webSocket.notification(second);
+    sendAll(queue);
+
+    Mockito.verify(remote).sendBytes(ByteBuffer.wrap(first.getCompressedFullMessage()));
+    Mockito.verify(remote).sendBytes(ByteBuffer.wrap(second.getCompressedDeltaMessage()));
+    Mockito.verify(remote, Mockito.never()).sendString(Mockito.anyString());
+  }
+
+}
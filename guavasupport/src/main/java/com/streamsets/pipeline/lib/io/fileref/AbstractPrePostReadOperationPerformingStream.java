@@ -17,6 +17,7 @@ package com.streamsets.pipeline.lib.io.fileref;
 
 import java.io.IOException;
 import java.nio.ByteBuffer;
+import java.nio.channels.WritableByteChannel;
 
 /**
  * The Abstract Implementation of {@link AbstractWrapperStream} which can perform
@@ -66,6 +67,14 @@ abstract class AbstractPrePostReadOperationPerformingStream<T extends AutoClosea
     return bytesRead;
   }
 
+  @Override
+  public long transferTo(long count, WritableByteChannel target) throws IOException {
+    performPreReadOperation((int) Math.min(count, Integer.MAX_VALUE));
+    long bytesTransferred = super.transferTo(count, target);
+    performPostReadOperation((int) bytesTransferred);
+    return bytesTransferred;
+  }
+
   protected abstract void performPreReadOperation(int bytesToBeRead);
   protected abstract void performPostReadOperation(int bytesRead);
 }
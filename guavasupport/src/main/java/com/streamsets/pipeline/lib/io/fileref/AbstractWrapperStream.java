@@ -20,7 +20,9 @@ import com.streamsets.pipeline.api.impl.Utils;
 import java.io.IOException;
 import java.io.InputStream;
 import java.nio.ByteBuffer;
+import java.nio.channels.FileChannel;
 import java.nio.channels.ReadableByteChannel;
+import java.nio.channels.WritableByteChannel;
 
 public abstract class AbstractWrapperStream<T extends AutoCloseable> extends InputStream implements ReadableByteChannel {
   private final T stream;
@@ -106,6 +108,35 @@ public abstract class AbstractWrapperStream<T extends AutoCloseable> extends Inp
     return ((ReadableByteChannel)stream).isOpen();
   }
 
+  /**
+   * Returns the {@link FileChannel} of the local file the wrapped streams read from, null if the innermost stream is
+   * not a {@link FileChannel}.
+   */
+  FileChannel getFileChannel() {
+    if (stream instanceof AbstractWrapperStream) {
+      return ((AbstractWrapperStream<?>) stream).getFileChannel();
+    }
+    return (stream instanceof FileChannel) ? (FileChannel) stream : null;
+  }
+
+  /**
+   * Returns if {@link #transferTo(long, WritableByteChannel)} can be used, that is if the stream reads a local file.
+   */
+  public boolean isTransferToSupported() {
+    return FileRefUtil.isTransferToSupported(stream);
+  }
+
+  /**
+   * Transfers up to count bytes from the current position of the local file to the target channel using
+   * {@link FileChannel#transferTo(long, long, WritableByteChannel)}, so the bytes are not copied through the heap
+   * when the operating system supports it.
+   *
+   * @return the number of bytes transferred, -1 if the end of the file was reached.
+   */
+  public long transferTo(long count, WritableByteChannel target) throws IOException {
+    return FileRefUtil.transferTo(stream, count, target);
+  }
+
   @Override
   public void close() throws IOException {
     try {
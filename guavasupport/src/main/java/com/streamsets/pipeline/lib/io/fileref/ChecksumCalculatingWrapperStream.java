@@ -17,13 +17,22 @@ package com.streamsets.pipeline.lib.io.fileref;
 
 import com.google.common.collect.ImmutableMap;
 import com.google.common.hash.Hasher;
+import com.google.common.util.concurrent.ThreadFactoryBuilder;
 import com.streamsets.pipeline.api.impl.Utils;
 import com.streamsets.pipeline.lib.event.WholeFileProcessedEvent;
 import com.streamsets.pipeline.lib.generator.StreamCloseEventHandler;
 import com.streamsets.pipeline.lib.hashing.HashingUtil;
 
 import java.io.IOException;
+import java.io.InterruptedIOException;
 import java.nio.ByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.channels.WritableByteChannel;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Semaphore;
 
 /**
  * The Implementation of {@link AbstractWrapperStream} which uses a checksum algorithm
@@ -32,12 +41,38 @@ import java.nio.ByteBuffer;
  * The consumers of {@link ChecksumCalculatingWrapperStream} can call {@link #getCalculatedChecksum()}
  * after calling {@link #close()} to get the calculated checksum of the stream.
  *
+ * Large reads and transfers update the checksum in a background thread, in order, so the checksum is calculated
+ * while the caller keeps copying the stream. Transfers of a local file are hashed by reading the transferred range
+ * of the file again, the reader thread never touches those bytes. {@link #close()} waits for the pending updates.
+ *
  * @param <T> Stream implementation of {@link AutoCloseable}
  */
 class ChecksumCalculatingWrapperStream<T extends AutoCloseable> extends AbstractWrapperStream<T> {
+  // reads smaller than this are hashed in the reader thread, not worth handing them off
+  static final int ASYNC_UPDATE_MIN_BYTES = 8 * 1024;
+  // how far, in bytes, the checksum calculation can fall behind the reads
+  private static final int MAX_PENDING_BYTES = 16 * 1024 * 1024;
+  private static final int HASH_READ_BUFFER_SIZE = 64 * 1024;
+
+  private static class ExecutorHolder {
+    private static final ExecutorService EXECUTOR = Executors.newFixedThreadPool(
+        Runtime.getRuntime().availableProcessors(),
+        new ThreadFactoryBuilder().setNameFormat("Whole File Checksum-%d").setDaemon(true).build()
+    );
+  }
+
+  private interface ChecksumUpdate {
+    void update() throws IOException;
+  }
+
   private final Hasher hasher;
   private final HashingUtil.HashType checksumAlgorithm;
   private final StreamCloseEventHandler streamCloseEventHandler;
+  private final Semaphore pendingBytes;
+
+  // each update runs after the previous one completes, so the hasher sees the bytes in order
+  private CompletableFuture<Void> lastUpdate;
+  private volatile IOException updateError;
 
   private boolean isCalculated;
   private String calculatedChecksum;
@@ -53,18 +88,98 @@ class ChecksumCalculatingWrapperStream<T extends AutoCloseable> extends Abstract
     hasher = HashingUtil.getHasher(checksumAlgorithm).newHasher();
     isCalculated = false;
     this.streamCloseEventHandler = streamCloseEventHandler;
+    pendingBytes = new Semaphore(MAX_PENDING_BYTES);
+    lastUpdate = CompletableFuture.completedFuture(null);
+  }
+
+  private void submitUpdate(int bytes, ChecksumUpdate update) throws IOException {
+    checkUpdateError();
+    int permits = Math.min(bytes, MAX_PENDING_BYTES);
+    try {
+      pendingBytes.acquire(permits);
+    } catch (InterruptedException ex) {
+      Thread.currentThread().interrupt();
+      throw new InterruptedIOException("Interrupted while waiting for the checksum calculation");
+    }
+    lastUpdate = lastUpdate.thenRunAsync(() -> {
+      try {
+        if (updateError == null) {
+          update.update();
+        }
+      } catch (IOException ex) {
+        updateError = ex;
+      } catch (RuntimeException ex) {
+        updateError = new IOException(ex);
+      } finally {
+        pendingBytes.release(permits);
+      }
+    }, ExecutorHolder.EXECUTOR);
+  }
+
+  private void awaitUpdates() throws IOException {
+    try {
+      lastUpdate.get();
+    } catch (InterruptedException ex) {
+      Thread.currentThread().interrupt();
+      throw new InterruptedIOException("Interrupted while waiting for the checksum calculation");
+    } catch (ExecutionException ex) {
+      throw new IOException(ex.getCause());
+    }
+    checkUpdateError();
   }
 
-  private void updateChecksum(byte[] b, int offset, int len) {
-    if (len > 0) {
+  private void checkUpdateError() throws IOException {
+    if (updateError != null) {
+      throw new IOException("Checksum calculation failed: " + updateError, updateError);
+    }
+  }
+
+  private void updateChecksum(byte[] b, int offset, int len) throws IOException {
+    if (len >= ASYNC_UPDATE_MIN_BYTES) {
+      // the caller reuses the buffer, the update works on a copy
+      byte[] copy = new byte[len];
+      System.arraycopy(b, offset, copy, 0, len);
+      submitUpdate(len, () -> hasher.putBytes(copy));
+    } else if (len > 0) {
+      awaitUpdates();
       hasher.putBytes(b, offset, len);
     }
   }
 
+  private void updateChecksum(byte[] b) throws IOException {
+    if (b.length >= ASYNC_UPDATE_MIN_BYTES) {
+      // nobody else refers to the array, no need to copy it
+      submitUpdate(b.length, () -> hasher.putBytes(b));
+    } else {
+      awaitUpdates();
+      hasher.putBytes(b);
+    }
+  }
+
+  private void updateChecksum(FileChannel channel, long position, long count) throws IOException {
+    // the transfer did not go through the heap, hash the same range of the file in the background
+    submitUpdate((int) Math.min(count, Integer.MAX_VALUE), () -> {
+      ByteBuffer buffer = ByteBuffer.allocate((int) Math.min(count, HASH_READ_BUFFER_SIZE));
+      long current = position;
+      long end = position + count;
+      while (current < end) {
+        buffer.clear();
+        buffer.limit((int) Math.min(buffer.capacity(), end - current));
+        int read = channel.read(buffer, current);
+        if (read < 0) {
+          throw new IOException(Utils.format("Unexpected end of file at '{}' calculating the checksum", current));
+        }
+        hasher.putBytes(buffer.array(), 0, read);
+        current += read;
+      }
+    });
+  }
+
   @Override
   public int read() throws IOException {
     int readByte = super.read();
     if (readByte != -1) {
+      awaitUpdates();
       hasher.putByte((byte) readByte);
     }
     return readByte;
@@ -76,15 +191,11 @@ class ChecksumCalculatingWrapperStream<T extends AutoCloseable> extends Abstract
     if (bytesRead > 0) {
       ByteBuffer readOnlyBuffer = dst.asReadOnlyBuffer();
       readOnlyBuffer.flip();
-      readOnlyBuffer = readOnlyBuffer.slice();
-      byte[] b;
-      if (readOnlyBuffer.hasArray()) {
-        b = readOnlyBuffer.array();
-      } else {
-        b = new byte[bytesRead];
-        readOnlyBuffer.get(b);
-      }
-      updateChecksum(b, 0, bytesRead);
+      readOnlyBuffer.position(readOnlyBuffer.limit() - bytesRead);
+      // the buffer may be direct, the bytes are copied once into an array the update owns
+      byte[] b = new byte[bytesRead];
+      readOnlyBuffer.get(b);
+      updateChecksum(b);
     }
     return bytesRead;
   }
@@ -103,23 +214,38 @@ class ChecksumCalculatingWrapperStream<T extends AutoCloseable> extends Abstract
     return bytesRead;
   }
 
+  @Override
+  public long transferTo(long count, WritableByteChannel target) throws IOException {
+    FileChannel channel = getFileChannel();
+    long position = channel.position();
+    long bytesTransferred = super.transferTo(count, target);
+    if (bytesTransferred > 0) {
+      updateChecksum(channel, position, bytesTransferred);
+    }
+    return bytesTransferred;
+  }
+
   @Override
   @SuppressWarnings("unchecked")
   public void close() throws IOException {
-    if (!isCalculated) {
-      //toString returns the hex string representation.
-      calculatedChecksum = hasher.hash().toString();
-      isCalculated = true;
-      if (streamCloseEventHandler != null) {
-        streamCloseEventHandler.handleCloseEvent(
-            new ImmutableMap.Builder<String, Object>()
-                .put(WholeFileProcessedEvent.CHECKSUM, getCalculatedChecksum())
-                .put(WholeFileProcessedEvent.CHECKSUM_ALGORITHM, checksumAlgorithm)
-                .build()
-        );
+    try {
+      if (!isCalculated) {
+        awaitUpdates();
+        //toString returns the hex string representation.
+        calculatedChecksum = hasher.hash().toString();
+        isCalculated = true;
+        if (streamCloseEventHandler != null) {
+          streamCloseEventHandler.handleCloseEvent(
+              new ImmutableMap.Builder<String, Object>()
+                  .put(WholeFileProcessedEvent.CHECKSUM, getCalculatedChecksum())
+                  .put(WholeFileProcessedEvent.CHECKSUM_ALGORITHM, checksumAlgorithm)
+                  .build()
+          );
+        }
       }
+    } finally {
+      super.close();
     }
-    super.close();
   }
 
   String getCalculatedChecksum() {
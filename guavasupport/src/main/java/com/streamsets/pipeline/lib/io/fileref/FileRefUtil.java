@@ -35,6 +35,8 @@ import com.streamsets.pipeline.lib.generator.StreamCloseEventHandler;
 
 import java.io.IOException;
 import java.math.BigDecimal;
+import java.nio.channels.FileChannel;
+import java.nio.channels.WritableByteChannel;
 import java.util.ArrayList;
 import java.util.Collection;
 import java.util.Comparator;
@@ -57,6 +59,7 @@ public final class FileRefUtil {
   public static final String REMAINING_BYTES = "Remaining Bytes";
   public static final String TRANSFER_THROUGHPUT_METER = "transferRate";
   public static final String COMPLETED_FILE_COUNT = "Completed File Count";
+  public static final String LAST_FILE_TRANSFER_THROUGHPUT = "Last File Transfer Rate";
 
   public static final String BRACKETED_TEMPLATE = "%s (%s)";
 
@@ -86,6 +89,7 @@ public final class FileRefUtil {
       .put(FileRefUtil.SENT_BYTES, 3)
       .put(FileRefUtil.REMAINING_BYTES, 4)
       .put(FileRefUtil.COMPLETED_FILE_COUNT, 5)
+      .put(FileRefUtil.LAST_FILE_TRANSFER_THROUGHPUT, 6)
       .build();
 
   /**
@@ -104,6 +108,8 @@ public final class FileRefUtil {
       gaugeStatistics.put(FileRefUtil.SENT_BYTES, String.format(FileRefUtil.BRACKETED_TEMPLATE, 0, 0));
       gaugeStatistics.put(FileRefUtil.REMAINING_BYTES, 0L);
       gaugeStatistics.put(FileRefUtil.COMPLETED_FILE_COUNT, 0L);
+      //Average transfer rate of the last completed file, populated at the MetricEnabledWrapperStream.
+      gaugeStatistics.put(FileRefUtil.LAST_FILE_TRANSFER_THROUGHPUT, "");
     }
 
     Meter dataTransferMeter = context.getMeter(FileRefUtil.TRANSFER_THROUGHPUT_METER);
@@ -191,6 +197,36 @@ public final class FileRefUtil {
     return stream;
   }
 
+  /**
+   * Returns if {@link #transferTo(AutoCloseable, long, WritableByteChannel)} can be used with the stream, that is if the
+   * stream reads a local file.
+   */
+  public static boolean isTransferToSupported(AutoCloseable stream) {
+    return stream instanceof FileChannel ||
+        (stream instanceof AbstractWrapperStream && ((AbstractWrapperStream<?>) stream).isTransferToSupported());
+  }
+
+  /**
+   * Transfers up to count bytes of the local file read by the stream to the target channel without copying them
+   * through the heap, see {@link AbstractWrapperStream#transferTo(long, WritableByteChannel)}.
+   *
+   * @return the number of bytes transferred, -1 if the end of the file was reached.
+   */
+  public static long transferTo(AutoCloseable stream, long count, WritableByteChannel target) throws IOException {
+    Utils.checkArgument(isTransferToSupported(stream), "Stream does not read a local file");
+    if (stream instanceof AbstractWrapperStream) {
+      return ((AbstractWrapperStream<?>) stream).transferTo(count, target);
+    }
+    FileChannel channel = (FileChannel) stream;
+    long position = channel.position();
+    if (position >= channel.size()) {
+      return -1;
+    }
+    long transferred = channel.transferTo(position, count, target);
+    channel.position(position + transferred);
+    return transferred;
+  }
+
   public static void validateWholeFileRecord(Record record) {
     Set<String> fieldPathsInRecord = record.getEscapedFieldPaths();
     Utils.checkArgument(
@@ -36,6 +36,8 @@ final class MetricEnabledWrapperStream<T extends AutoCloseable> extends Abstract
   private final Map<String, Object> gaugeStatisticsMap;
   private final long fileSize;
   private final long completedFileCount;
+  private final long startNanos;
+  private boolean closed;
   private static final String[] UNITS = new String[]{"B", "KB", "MB", "GB", "TB"};
   private static final DecimalFormat df = new DecimalFormat("#.##");
   private static final String PER_SEC = "/s";
@@ -56,6 +58,7 @@ final class MetricEnabledWrapperStream<T extends AutoCloseable> extends Abstract
     completedFileCount = (long)gaugeStatisticsMap.get(FileRefUtil.COMPLETED_FILE_COUNT);
     //Shows the size of the file in the brack after the file name.
     gaugeStatisticsMap.put(FileRefUtil.FILE, String.format(FileRefUtil.BRACKETED_TEMPLATE, id, convertBytesToDisplayFormat(fileSize)));
+    startNanos = System.nanoTime();
   }
   @Override
   protected void performPreReadOperation(int bytesToBeRead) {
@@ -115,5 +118,14 @@ final class MetricEnabledWrapperStream<T extends AutoCloseable> extends Abstract
     super.close();
     //If close fails, completed file won't be updated.
     gaugeStatisticsMap.put(FileRefUtil.COMPLETED_FILE_COUNT, completedFileCount + 1);
+    if (!closed) {
+      closed = true;
+      //Average rate for the whole file, the transfer rate above is the latest speed of the transfer.
+      double seconds = Math.max(System.nanoTime() - startNanos, 1L) / 1e9;
+      gaugeStatisticsMap.put(
+          FileRefUtil.LAST_FILE_TRANSFER_THROUGHPUT,
+          convertBytesToDisplayFormat(sentBytesCounter.getCount() / seconds) + PER_SEC
+      );
+    }
   }
 }
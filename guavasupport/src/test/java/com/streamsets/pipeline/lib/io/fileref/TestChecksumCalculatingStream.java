@@ -21,9 +21,19 @@ import org.junit.Assert;
 import org.junit.Test;
 
 import java.io.ByteArrayInputStream;
+import java.io.ByteArrayOutputStream;
+import java.io.File;
 import java.io.InputStream;
+import java.nio.ByteBuffer;
+import java.nio.channels.Channels;
+import java.nio.channels.FileChannel;
+import java.nio.channels.ReadableByteChannel;
+import java.nio.channels.WritableByteChannel;
 import java.nio.charset.Charset;
+import java.nio.file.Files;
 import java.util.Map;
+import java.util.Random;
+import java.util.UUID;
 import java.util.concurrent.atomic.AtomicBoolean;
 import java.util.concurrent.atomic.AtomicInteger;
 
@@ -121,4 +131,80 @@ public class TestChecksumCalculatingStream {
     }
     Assert.assertEquals(1, atomicInteger.get());
   }
+
+  private static byte[] createData(int size) {
+    byte[] data = new byte[size];
+    new Random(size).nextBytes(data);
+    return data;
+  }
+
+  @Test
+  public void testChecksumLargeReads() throws Exception {
+    byte[] data = createData(1024 * 1024 + 17);
+    ChecksumCalculatingWrapperStream<InputStream> stream = new ChecksumCalculatingWrapperStream<InputStream>(
+        new ByteArrayInputStream(data), HashingUtil.HashType.SHA256, null);
+    try {
+      byte[] b = new byte[3 * ChecksumCalculatingWrapperStream.ASYNC_UPDATE_MIN_BYTES];
+      //mixing reads hashed in the background with small reads and single bytes
+      while (stream.read(b) > 0) {
+        stream.read(b, 0, 10);
+        stream.read();
+      }
+    } finally {
+      stream.close();
+    }
+    Assert.assertEquals(
+        HashingUtil.getHasher(HashingUtil.HashType.SHA256).hashBytes(data).toString(),
+        stream.getCalculatedChecksum()
+    );
+  }
+
+  @Test
+  public void testChecksumByteBufferReads() throws Exception {
+    byte[] data = createData(1024 * 1024 + 17);
+    ChecksumCalculatingWrapperStream<ReadableByteChannel> stream = new ChecksumCalculatingWrapperStream<>(
+        Channels.newChannel(new ByteArrayInputStream(data)), HashingUtil.HashType.SHA256, null);
+    try {
+      ByteBuffer large = ByteBuffer.allocateDirect(3 * ChecksumCalculatingWrapperStream.ASYNC_UPDATE_MIN_BYTES);
+      ByteBuffer small = ByteBuffer.allocate(10);
+      //the buffers are reused right away, the reads hashed in the background must not see the next reads
+      while (stream.read(large) > 0) {
+        large.clear();
+        stream.read(small);
+        small.clear();
+      }
+    } finally {
+      stream.close();
+    }
+    Assert.assertEquals(
+        HashingUtil.getHasher(HashingUtil.HashType.SHA256).hashBytes(data).toString(),
+        stream.getCalculatedChecksum()
+    );
+  }
+
+  @Test
+  public void testChecksumTransferTo() throws Exception {
+    File testDir = new File("target", UUID.randomUUID().toString());
+    Assert.assertTrue(testDir.mkdirs());
+    File file = new File(testDir, "source.bin");
+    byte[] data = createData(2 * 1024 * 1024 + 5);
+    Files.write(file.toPath(), data);
+
+    ByteArrayOutputStream os = new ByteArrayOutputStream();
+    WritableByteChannel target = Channels.newChannel(os);
+    ChecksumCalculatingWrapperStream<FileChannel> stream = new ChecksumCalculatingWrapperStream<>(
+        FileChannel.open(file.toPath()), HashingUtil.HashType.MD5, null);
+    try {
+      Assert.assertTrue(stream.isTransferToSupported());
+      while (stream.transferTo(100 * 1024, target) >= 0) {
+      }
+    } finally {
+      stream.close();
+    }
+    Assert.assertArrayEquals(data, os.toByteArray());
+    Assert.assertEquals(
+        HashingUtil.getHasher(HashingUtil.HashType.MD5).hashBytes(data).toString(),
+        stream.getCalculatedChecksum()
+    );
+  }
 }
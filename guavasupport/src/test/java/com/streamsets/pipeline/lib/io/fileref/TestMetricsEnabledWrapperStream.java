@@ -28,9 +28,11 @@ import org.junit.Test;
 import org.mockito.Mockito;
 import org.mockito.internal.util.reflection.Whitebox;
 
+import java.io.ByteArrayOutputStream;
 import java.io.File;
 import java.io.InputStream;
 import java.nio.ByteBuffer;
+import java.nio.channels.Channels;
 import java.nio.channels.ReadableByteChannel;
 import java.nio.file.Files;
 import java.nio.file.Paths;
@@ -183,6 +185,26 @@ public class TestMetricsEnabledWrapperStream {
     }
   }
 
+  @Test
+  public void testTransferTo() throws Exception {
+    FileRef fileRef = FileRefTestUtil.getLocalFileRef(testDir, true, null, null);
+    long fileSize = Files.size(Paths.get(FileRefTestUtil.getSourceFilePath(testDir)));
+    long remainingFileSize = fileSize;
+    ByteArrayOutputStream os = new ByteArrayOutputStream();
+    try (ReadableByteChannel is = fileRef.createInputStream(context, ReadableByteChannel.class)) {
+      Assert.assertTrue(FileRefUtil.isTransferToSupported(is));
+      long bytesTransferred;
+      while ((bytesTransferred = FileRefUtil.transferTo(is, 10, Channels.newChannel(os))) > 0) {
+        remainingFileSize -= bytesTransferred;
+        checkStateDuringReads(fileSize, remainingFileSize, is);
+      }
+      checkStateAfterReadCompletion(fileSize, remainingFileSize, is);
+    }
+    Assert.assertEquals(FileRefTestUtil.TEXT, new String(os.toByteArray()));
+    Map<String, Object> gaugeMap = gauge.getValue();
+    Assert.assertTrue(((String) gaugeMap.get(FileRefUtil.LAST_FILE_TRANSFER_THROUGHPUT)).endsWith("/s"));
+  }
+
   @Test
   public void testCompletedFileCountForMultipleClose() throws Exception {
     InputStream is = FileRefTestUtil.getLocalFileRef(testDir, true, null, null).createInputStream(context, InputStream.class);
@@ -26,6 +26,7 @@ import com.streamsets.pipeline.lib.el.RecordEL;
 import com.streamsets.pipeline.lib.generator.DataGenerator;
 import com.streamsets.pipeline.lib.generator.DataGeneratorFactory;
 import com.streamsets.pipeline.lib.generator.StreamCloseEventHandler;
+import com.streamsets.pipeline.lib.io.CountingFileChannelOutputStream;
 import com.streamsets.pipeline.stage.destination.hdfs.IdleClosedException;
 import org.apache.commons.io.output.CountingOutputStream;
 import org.apache.hadoop.fs.Path;
@@ -87,7 +88,7 @@ public class RecordWriter {
   public RecordWriter(Path path, long timeToLiveMillis, OutputStream textOutputStream,
                       DataGeneratorFactory generatorFactory, StreamCloseEventHandler streamCloseEventHandler) throws StageException, IOException {
     this(path, timeToLiveMillis, generatorFactory);
-    this.textOutputStream = new CountingOutputStream(textOutputStream);
+    this.textOutputStream = new CountingFileChannelOutputStream(textOutputStream);
     generator = generatorFactory.getGenerator(this.textOutputStream, streamCloseEventHandler);
     textFile = true;
     this.idleTimeout = -1L;
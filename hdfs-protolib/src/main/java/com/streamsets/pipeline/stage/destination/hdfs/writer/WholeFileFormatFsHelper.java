@@ -36,10 +36,12 @@ import com.streamsets.pipeline.lib.hdfs.common.Errors;
 import com.streamsets.pipeline.stage.destination.hdfs.util.HdfsUtils;
 import org.apache.hadoop.fs.FileSystem;
 import org.apache.hadoop.fs.Path;
+import org.apache.hadoop.fs.RawLocalFileSystem;
 import org.apache.hadoop.fs.permission.FsPermission;
 import org.slf4j.Logger;
 import org.slf4j.LoggerFactory;
 
+import java.io.FileOutputStream;
 import java.io.IOException;
 import java.io.OutputStream;
 import java.util.Date;
@@ -189,6 +191,14 @@ final class WholeFileFormatFsHelper implements FsHelper {
 
   @Override
   public OutputStream create(FileSystem fs, Path path) throws IOException {
+    if (fs instanceof RawLocalFileSystem) {
+      // a plain file stream (overwriting an existing tmp file) lets the generator transfer local files to it directly,
+      // the stream of the raw local file system is buffered and hides the file channel
+      if (!fs.mkdirs(path.getParent())) {
+        throw new IOException(Utils.format("Could not create the directory '{}'", path.getParent()));
+      }
+      return new FileOutputStream(((RawLocalFileSystem) fs).pathToFile(path), false);
+    }
     //Make sure if the tmp file already exists, overwrite it
     return fs.create(path, true);
   }
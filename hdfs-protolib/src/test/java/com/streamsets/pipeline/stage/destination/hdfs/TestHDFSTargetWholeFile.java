@@ -58,6 +58,7 @@ import java.lang.reflect.InvocationHandler;
 import java.lang.reflect.Method;
 import java.net.URI;
 import java.net.URISyntaxException;
+import java.nio.channels.WritableByteChannel;
 import java.nio.file.Files;
 import java.nio.file.Path;
 import java.nio.file.Paths;
@@ -68,9 +69,11 @@ import java.util.Iterator;
 import java.util.List;
 import java.util.Map;
 import java.util.UUID;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.atomic.AtomicLong;
 
 @RunWith(PowerMockRunner.class)
-@PrepareForTest({RecordWriterManager.class, RecordWriter.class})
+@PrepareForTest({RecordWriterManager.class, RecordWriter.class, FileRefUtil.class})
 @PowerMockIgnore({"javax.*", "org.*"})
 public class TestHDFSTargetWholeFile {
   private String testDir;
@@ -192,6 +195,61 @@ public class TestHDFSTargetWholeFile {
   }
 
 
+  @Test
+  public void testWholeFileCopyTransfersLocalFile() throws Exception {
+    AtomicInteger transfers = new AtomicInteger();
+    PowerMockito.replace(
+        MemberMatcher.method(FileRefUtil.class, "transferTo", AutoCloseable.class, long.class, WritableByteChannel.class)
+    ).with((proxy, method, args) -> {
+      transfers.incrementAndGet();
+      return method.invoke(proxy, args);
+    });
+    AtomicLong committedLength = new AtomicLong(-1);
+    PowerMockito.replace(MemberMatcher.method(RecordWriterManager.class, "commitWriter", RecordWriter.class)).with(
+        (proxy, method, args) -> {
+          committedLength.set(((RecordWriter) args[0]).getLength());
+          return method.invoke(proxy, args);
+        }
+    );
+
+    java.nio.file.Path filePath = Paths.get(getTestDir() + "/source_testWholeFileCopyTransfersLocalFile.txt");
+    Files.write(filePath, "This is a sample file with some text".getBytes());
+
+    HdfsTarget hdfsTarget = HdfsTargetUtil.newBuilder()
+        .hdfsUri(uri.toString())
+        .dirPathTemplate(getTestDir())
+        .timeDriver("${time:now()}")
+        .dataForamt(DataFormat.WHOLE_FILE)
+        .fileType(HdfsFileType.WHOLE_FILE)
+        .fileNameEL("${record:value('/fileInfo/filename')}")
+        .maxRecordsPerFile(1)
+        .maxFileSize(0)
+        .uniquePrefix("sdc-")
+        .idleTimeout("-1")
+        .lateRecordsAction(LateRecordsAction.SEND_TO_LATE_RECORDS_FILE)
+        .build();
+
+    TargetRunner runner = new TargetRunner.Builder(HdfsDTarget.class, hdfsTarget)
+        .setOnRecordError(OnRecordError.STOP_PIPELINE)
+        .build();
+
+    runner.runInit();
+    try {
+      runner.runWrite(Collections.singletonList(getFileRefRecordForFile(filePath)));
+    } finally {
+      runner.runDestroy();
+    }
+
+    String targetFileName = getTestDir() + "/" + "sdc-" + filePath.getFileName();
+    try (InputStream is1 = new FileInputStream(filePath.toString());
+         InputStream is2 = new FileInputStream(targetFileName)) {
+      checkFileContent(is1, is2);
+    }
+    // the local file was transferred to the target file without going through the JVM, and was counted
+    Assert.assertTrue(transfers.get() > 0);
+    Assert.assertEquals(Files.size(filePath), committedLength.get());
+  }
+
   private void testPartialOrFailedWrites(
       Method interceptingMethod,
       InvocationHandler replacingInvocation,
@@ -17,6 +17,7 @@ package com.streamsets.pipeline.lib.http;
 
 import com.streamsets.pipeline.api.Stage;
 import com.streamsets.pipeline.api.credential.CredentialValue;
+import com.streamsets.pipeline.lib.flowcontrol.FlowControl;
 
 import javax.servlet.http.HttpServletRequest;
 import javax.servlet.http.HttpServletResponse;
@@ -42,4 +43,11 @@ public interface HttpReceiver {
 
   boolean process(HttpServletRequest req, InputStream is, HttpServletResponse resp) throws IOException;
 
+  /**
+   * Returns the flow control requests have to be admitted by before they are read.
+   */
+  default FlowControl getFlowControl() {
+    return FlowControl.disabled();
+  }
+
 }
@@ -22,6 +22,8 @@ import com.streamsets.pipeline.api.Stage;
 import com.streamsets.pipeline.api.StageException;
 import com.streamsets.pipeline.api.credential.CredentialValue;
 import com.streamsets.pipeline.api.impl.Utils;
+import com.streamsets.pipeline.lib.flowcontrol.FlowControl;
+import com.streamsets.pipeline.lib.flowcontrol.FlowControlInputStream;
 import org.apache.commons.lang3.ArrayUtils;
 import org.apache.commons.lang3.StringUtils;
 import org.iq80.snappy.SnappyFramedInputStream;
@@ -59,6 +61,11 @@ public class HttpReceiverServlet extends HttpServlet {
   // Even if the actual FlowFile is version 1 or 2, passing v3 seems valid
   private static final String NIFI_RESPONSE = "application/flowfile-v3";
 
+  // not in HttpServletResponse, https://tools.ietf.org/html/rfc6585#section-4
+  private static final int SC_TOO_MANY_REQUESTS = 429;
+  private static final String RETRY_AFTER_HEADER = "Retry-After";
+  private static final String RETRY_AFTER_SECONDS = "1";
+
   public HttpReceiverServlet(Stage.Context context, HttpReceiver receiver, BlockingQueue<Exception> errorQueue) {
     this.receiver = receiver;
     this.errorQueue = errorQueue;
@@ -178,10 +185,24 @@ public class HttpReceiverServlet extends HttpServlet {
       resp.setStatus(HttpServletResponse.SC_GONE);
     } else {
       if (validatePostRequest(req, resp)) {
+        FlowControl flowControl = getFlowControl();
+        // chunked requests don't announce their length, their bytes are charged as they are read
+        long contentLength = Math.max(req.getContentLengthLong(), 0);
+        if (!flowControl.tryAdmit(contentLength)) {
+          LOG.debug("Too much data in flight, rejecting request from '{}'", requestor);
+          resp.setHeader(RETRY_AFTER_HEADER, RETRY_AFTER_SECONDS);
+          resp.sendError(SC_TOO_MANY_REQUESTS, "Too much data in flight, retry later");
+          return;
+        }
         long start = System.currentTimeMillis();
         LOG.debug("Request accepted from '{}'", requestor);
+        FlowControlInputStream body = null;
         try (InputStream in = req.getInputStream()) {
           InputStream is = in;
+          if (flowControl.isEnabled()) {
+            body = new FlowControlInputStream(in, flowControl, contentLength);
+            is = body;
+          }
           String compression = req.getHeader(HttpConstants.X_SDC_COMPRESSION_HEADER);
           if (compression == null) {
             compression = req.getHeader(HttpConstants.CONTENT_ENCODING_HEADER);
@@ -206,6 +227,7 @@ public class HttpReceiverServlet extends HttpServlet {
           LOG.warn("Error while processing request payload from '{}': {}", requestor, ex.toString(), ex);
           resp.sendError(HttpServletResponse.SC_INTERNAL_SERVER_ERROR, ex.toString());
         } finally {
+          flowControl.release(0, (body != null) ? body.getCharged() : contentLength);
           requestTimer.update(System.currentTimeMillis() - start, TimeUnit.MILLISECONDS);
         }
 
@@ -215,6 +237,11 @@ public class HttpReceiverServlet extends HttpServlet {
     }
   }
 
+  private FlowControl getFlowControl() {
+    FlowControl flowControl = getReceiver().getFlowControl();
+    return (flowControl != null) ? flowControl : FlowControl.disabled();
+  }
+
   protected void processRequest(HttpServletRequest req, InputStream is, HttpServletResponse resp) throws IOException {
     if (getReceiver().process(req, is, resp)) {
       resp.setStatus(HttpServletResponse.SC_OK);
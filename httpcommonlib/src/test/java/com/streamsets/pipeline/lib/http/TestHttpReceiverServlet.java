@@ -18,6 +18,7 @@ package com.streamsets.pipeline.lib.http;
 import com.google.common.collect.ImmutableList;
 import com.streamsets.pipeline.api.OnRecordError;
 import com.streamsets.pipeline.api.Stage;
+import com.streamsets.pipeline.lib.flowcontrol.FlowControl;
 import com.streamsets.pipeline.lib.httpsource.CredentialValueBean;
 import com.streamsets.pipeline.sdk.ContextInfoCreator;
 import org.junit.Assert;
@@ -288,4 +289,70 @@ public class TestHttpReceiverServlet {
     Assert.assertEquals(1, errorQueue.size());
   }
 
+  @Test
+  public void testDoPostFlowControl() throws Exception {
+    Stage.Context context =
+        ContextInfoCreator.createSourceContext("n", false, OnRecordError.TO_ERROR, ImmutableList.of("a"));
+    HttpReceiver receiver = Mockito.mock(HttpReceiverWithFragmenterWriter.class);
+    Mockito.when(receiver.process(Mockito.any(), Mockito.any(), Mockito.any())).thenReturn(true);
+    FlowControl flowControl = Mockito.mock(FlowControl.class);
+    Mockito.when(receiver.getFlowControl()).thenReturn(flowControl);
+    HttpReceiverServlet servlet = new HttpReceiverServlet(context, receiver, new ArrayBlockingQueue<>(1));
+    servlet = Mockito.spy(servlet);
+    Mockito.doReturn(true).when(servlet).validatePostRequest(Mockito.any(), Mockito.any());
+
+    HttpServletRequest req = Mockito.mock(HttpServletRequest.class);
+    Mockito.when(req.getContentLengthLong()).thenReturn(100L);
+    Mockito.doReturn(Mockito.mock(ServletInputStream.class)).when(req).getInputStream();
+    HttpServletResponse res = Mockito.mock(HttpServletResponse.class);
+
+    // no credit, rejected before reading the request
+    Mockito.when(flowControl.tryAdmit(100L)).thenReturn(false);
+    servlet.doPost(req, res);
+    Mockito.verify(res).sendError(Mockito.eq(429), Mockito.anyString());
+    Mockito.verify(req, Mockito.never()).getInputStream();
+    Mockito.verify(receiver, Mockito.never()).process(Mockito.any(), Mockito.any(), Mockito.any());
+    Mockito.verify(flowControl, Mockito.never()).release(Mockito.anyInt(), Mockito.anyLong());
+
+    // admitted, the bytes are released once processed
+    Mockito.reset(res);
+    Mockito.when(flowControl.tryAdmit(100L)).thenReturn(true);
+    servlet.doPost(req, res);
+    Mockito.verify(receiver).process(Mockito.eq(req), Mockito.any(), Mockito.any());
+    Mockito.verify(res).setStatus(HttpServletResponse.SC_OK);
+    Mockito.verify(flowControl).release(0, 100L);
+  }
+
+  @Test
+  public void testDoPostFlowControlChunked() throws Exception {
+    Stage.Context context =
+        ContextInfoCreator.createSourceContext("n", false, OnRecordError.TO_ERROR, ImmutableList.of("a"));
+    HttpReceiver receiver = Mockito.mock(HttpReceiverWithFragmenterWriter.class);
+    Mockito.when(receiver.process(Mockito.any(), Mockito.any(), Mockito.any())).thenAnswer(invocation -> {
+      InputStream is = (InputStream) invocation.getArguments()[1];
+      Assert.assertEquals(50, is.read(new byte[50]));
+      return true;
+    });
+    FlowControl flowControl = Mockito.mock(FlowControl.class);
+    Mockito.when(flowControl.isEnabled()).thenReturn(true);
+    Mockito.when(receiver.getFlowControl()).thenReturn(flowControl);
+    HttpReceiverServlet servlet = new HttpReceiverServlet(context, receiver, new ArrayBlockingQueue<>(1));
+    servlet = Mockito.spy(servlet);
+    Mockito.doReturn(true).when(servlet).validatePostRequest(Mockito.any(), Mockito.any());
+
+    // no content length, the bytes are charged as they are read
+    HttpServletRequest req = Mockito.mock(HttpServletRequest.class);
+    Mockito.when(req.getContentLengthLong()).thenReturn(-1L);
+    ServletInputStream is = Mockito.mock(ServletInputStream.class);
+    Mockito.when(is.read(Mockito.any(byte[].class), Mockito.anyInt(), Mockito.anyInt())).thenReturn(50);
+    Mockito.doReturn(is).when(req).getInputStream();
+    HttpServletResponse res = Mockito.mock(HttpServletResponse.class);
+    Mockito.when(flowControl.tryAdmit(0L)).thenReturn(true);
+
+    servlet.doPost(req, res);
+    Mockito.verify(res).setStatus(HttpServletResponse.SC_OK);
+    Mockito.verify(flowControl).acquire(0, 50L);
+    Mockito.verify(flowControl).release(0, 50L);
+  }
+
 }
@@ -27,6 +27,7 @@ import org.apache.kafka.clients.consumer.ConsumerRecords;
 import org.apache.kafka.clients.consumer.KafkaConsumer;
 import org.apache.kafka.clients.consumer.OffsetAndMetadata;
 import org.apache.kafka.clients.consumer.OffsetAndTimestamp;
+import org.apache.kafka.clients.consumer.OffsetCommitCallback;
 import org.apache.kafka.clients.consumer.OffsetResetStrategy;
 import org.apache.kafka.common.PartitionInfo;
 import org.apache.kafka.common.TopicPartition;
@@ -177,5 +178,15 @@ public class Kafka0_10ConsumerLoader extends KafkaConsumerLoader {
 
     @Override
     public void commitSync() { delegate.commitSync(); }
+
+    @Override
+    public void commitSync(Map offsets) {
+      delegate.commitSync(offsets);
+    }
+
+    @Override
+    public void commitAsync(Map offsets, OffsetCommitCallback callback) {
+      delegate.commitAsync(offsets, callback);
+    }
   }
 }
@@ -25,8 +25,10 @@ import org.apache.kafka.clients.consumer.ConsumerConfig;
 import org.apache.kafka.clients.consumer.ConsumerRecords;
 import org.apache.kafka.clients.consumer.Consumer;
 import org.apache.kafka.clients.consumer.KafkaConsumer;
+import org.apache.kafka.clients.consumer.OffsetCommitCallback;
 
 import java.util.List;
+import java.util.Map;
 import java.util.Properties;
 
 public class Kafka0_9ConsumerLoader extends KafkaConsumerLoader {
@@ -86,5 +88,15 @@ public class Kafka0_9ConsumerLoader extends KafkaConsumerLoader {
 
     @Override
     public void commitSync() { delegate.commitSync(); }
+
+    @Override
+    public void commitSync(Map offsets) {
+      delegate.commitSync(offsets);
+    }
+
+    @Override
+    public void commitAsync(Map offsets, OffsetCommitCallback callback) {
+      delegate.commitAsync(offsets, callback);
+    }
   }
 }
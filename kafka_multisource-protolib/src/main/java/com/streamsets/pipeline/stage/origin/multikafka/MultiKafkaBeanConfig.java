@@ -228,6 +228,31 @@ public class MultiKafkaBeanConfig {
   @ValueChooserModel(ValueDeserializerChooserValues.class)
   public Deserializer valueDeserializer = Deserializer.DEFAULT;
 
+  @ConfigDef(
+      required = true,
+      type = ConfigDef.Type.BOOLEAN,
+      defaultValue = "false",
+      label = "Prefetch Next Batch",
+      description = "Polls and parses the next batch while the current batch is processed by the pipeline. Offsets" +
+          " are committed asynchronously once the batch is processed.",
+      displayPosition = 130,
+      group = "KAFKA"
+  )
+  public boolean prefetchNextBatch;
+
+  @ConfigDef(
+      required = true,
+      type = ConfigDef.Type.NUMBER,
+      defaultValue = "0",
+      label = "Number of Parser Threads",
+      description = "Number of threads shared by all consumers to parse messages. Use 0 to parse the messages in the" +
+          " consumer threads.",
+      displayPosition = 140,
+      group = "KAFKA",
+      min = 0
+  )
+  public int parserThreads;
+
   public void init(Stage.Context context, List<Stage.ConfigIssue> issues) {
 
   }
@@ -16,6 +16,7 @@
 package com.streamsets.pipeline.stage.origin.multikafka;
 
 import com.google.common.base.Throwables;
+import com.google.common.util.concurrent.ThreadFactoryBuilder;
 import com.streamsets.pipeline.api.BatchContext;
 import com.streamsets.pipeline.api.DeliveryGuarantee;
 import com.streamsets.pipeline.api.Field;
@@ -44,11 +45,14 @@ import com.streamsets.pipeline.stage.origin.multikafka.loader.KafkaConsumerLoade
 import org.apache.commons.lang.StringUtils;
 import org.apache.kafka.clients.consumer.ConsumerRecord;
 import org.apache.kafka.clients.consumer.ConsumerRecords;
+import org.apache.kafka.clients.consumer.OffsetAndMetadata;
+import org.apache.kafka.common.TopicPartition;
 import org.slf4j.Logger;
 import org.slf4j.LoggerFactory;
 
 import java.io.IOException;
 import java.util.ArrayList;
+import java.util.HashMap;
 import java.util.List;
 import java.util.Map;
 import java.util.Properties;
@@ -73,6 +77,8 @@ public class MultiKafkaSource extends BasePushSource {
 
   private DataParserFactory parserFactory;
   private ExecutorService executor;
+  private ExecutorService parserExecutor;
+  private ExecutorService processingExecutor;
 
   public MultiKafkaSource(MultiKafkaBeanConfig conf) {
     this.conf = conf;
@@ -89,6 +95,14 @@ public class MultiKafkaSource extends BasePushSource {
     private final List<String> topicList;
     private final CountDownLatch startProcessingGate;
 
+    // parsed messages waiting to be sent in a batch
+    private List<ParsedMessage> pendingMessages = new ArrayList<>();
+    private int pendingRecords;
+
+    // batch being processed by the pipeline while the next one is fetched, only when prefetching
+    private Future<Boolean> inFlightBatch;
+    private Map<TopicPartition, OffsetAndMetadata> inFlightOffsets;
+
     public MultiTopicCallable(
         long threadID,
         List<String> topicList,
@@ -106,8 +120,6 @@ public class MultiKafkaSource extends BasePushSource {
       Thread.currentThread().setName("kafkaConsumerThread-" + threadID);
       long messagesProcessed = 0;
       long recordsProcessed = 0;
-      BatchContext batchContext = null;
-      ErrorRecordHandler errorRecordHandler = null;
 
       // wait until all threads are spun up before processing
       LOG.debug("Thread {} waiting on other consumer threads to start up", Thread.currentThread().getName());
@@ -121,7 +133,6 @@ public class MultiKafkaSource extends BasePushSource {
         // protected loop. want it to finish completely, or not start at all.
         // only 2 conditions that we want to halt execution. must handle gracefully
 
-        List<Record> records = new ArrayList<>();
         long startTime = System.currentTimeMillis();
 
         while (!getContext().isStopped() && !Thread.interrupted()) {
@@ -131,31 +142,17 @@ public class MultiKafkaSource extends BasePushSource {
 
           ConsumerRecords<String, byte[]> messages = consumer.poll(pollInterval);
 
-          if (!messages.isEmpty()) {
-
-            // start a new batch, get a new error record handler for batch.
-            batchContext = getContext().startBatch();
-            errorRecordHandler = new DefaultErrorRecordHandler(getContext(), batchContext);
-          }
-
-          for (ConsumerRecord<String, byte[]> item : messages) {
+          // commit the previous batch as soon as the pipeline is done with it
+          completeInFlightBatch(false);
 
-            records.addAll(createRecord(errorRecordHandler,
-                item.topic(),
-                item.partition(),
-                item.offset(),
-                item.value(),
-                item.key()
-            ));
+          for (ParsedMessage message : parse(messages)) {
+            pendingMessages.add(message);
+            pendingRecords += message.records.size();
 
-            if (records.size() >= batchSize) {
-              records.forEach(batchContext.getBatchMaker()::addRecord);
-              commitSyncAndProcess(batchContext);
+            if (pendingRecords >= batchSize) {
+              recordsProcessed += pendingRecords;
+              sendBatch();
               startTime = System.currentTimeMillis();
-              recordsProcessed += records.size();
-              records.clear();
-              batchContext = getContext().startBatch();
-              errorRecordHandler = new DefaultErrorRecordHandler(getContext(), batchContext);
             }
           }
 
@@ -165,16 +162,17 @@ public class MultiKafkaSource extends BasePushSource {
           // Transmit remaining when batchWaitTime expired
           if (pollInterval <= MIN_CONSUMER_POLLING_INTERVAL_MS) {
             startTime = System.currentTimeMillis();
-            if (!records.isEmpty()) {
-              records.forEach(batchContext.getBatchMaker()::addRecord);
-              commitSyncAndProcess(batchContext);
-              recordsProcessed += records.size();
-              records.clear();
+            if (pendingRecords > 0) {
+              recordsProcessed += pendingRecords;
+              sendBatch();
             }
           }
 
         }
 
+        // the last prefetched batch must be committed before the consumer is closed
+        completeInFlightBatch(true);
+
       } catch (Exception e) {
         LOG.error("Encountered error in multi kafka thread {} during read {}", threadID, e);
         handleException(KafkaErrors.KAFKA_29, e);
@@ -191,21 +189,151 @@ public class MultiKafkaSource extends BasePushSource {
       return messagesProcessed;
     }
 
+    /**
+     * Parses the polled messages, in order. With parser threads the messages are split in consecutive chunks that
+     * are parsed in parallel.
+     */
+    private List<ParsedMessage> parse(ConsumerRecords<String, byte[]> messages) throws Exception {
+      List<ConsumerRecord<String, byte[]>> items = new ArrayList<>(messages.count());
+      messages.forEach(items::add);
+
+      if (parserExecutor == null || items.size() < 2) {
+        return parse(items);
+      }
+
+      int chunkSize = (items.size() + conf.parserThreads - 1) / conf.parserThreads;
+      List<Future<List<ParsedMessage>>> chunks = new ArrayList<>(conf.parserThreads);
+      for (int i = 0; i < items.size(); i += chunkSize) {
+        List<ConsumerRecord<String, byte[]>> chunk = items.subList(i, Math.min(i + chunkSize, items.size()));
+        chunks.add(parserExecutor.submit(() -> parse(chunk)));
+      }
+
+      List<ParsedMessage> parsedMessages = new ArrayList<>(items.size());
+      for (Future<List<ParsedMessage>> chunk : chunks) {
+        try {
+          parsedMessages.addAll(chunk.get());
+        } catch (ExecutionException e) {
+          for (Future<List<ParsedMessage>> other : chunks) {
+            other.cancel(true);
+          }
+          Throwables.propagateIfPossible(e.getCause(), StageException.class);
+          throw Throwables.propagate(e.getCause());
+        }
+      }
+      return parsedMessages;
+    }
+
+    private List<ParsedMessage> parse(List<ConsumerRecord<String, byte[]>> items) throws StageException {
+      List<ParsedMessage> parsedMessages = new ArrayList<>(items.size());
+      for (ConsumerRecord<String, byte[]> item : items) {
+        parsedMessages.add(createRecord(
+            item.topic(),
+            item.partition(),
+            item.offset(),
+            item.value(),
+            item.key()
+        ));
+      }
+      return parsedMessages;
+    }
+
+    /**
+     * Sends the pending messages to the pipeline. When prefetching, the batch is processed in another thread while
+     * this one goes back to poll, after the previous batch is done so that batches are still processed and committed
+     * in order.
+     */
+    private void sendBatch() throws Exception {
+      List<ParsedMessage> messages = pendingMessages;
+      Map<TopicPartition, OffsetAndMetadata> offsets = getOffsets(messages);
+      pendingMessages = new ArrayList<>();
+      pendingRecords = 0;
+
+      if (processingExecutor == null) {
+        commitSyncAndProcess(messages, offsets);
+        return;
+      }
 
-    private void commitSyncAndProcess(BatchContext batchContext) {
+      completeInFlightBatch(true);
       if (getContext().getDeliveryGuarantee() == DeliveryGuarantee.AT_MOST_ONCE) {
-        consumer.commitSync();
+        consumer.commitSync(offsets);
+      }
+      inFlightOffsets = offsets;
+      inFlightBatch = processingExecutor.submit(() -> process(messages));
+    }
+
+    private void commitSyncAndProcess(List<ParsedMessage> messages, Map<TopicPartition, OffsetAndMetadata> offsets)
+        throws StageException {
+      if (getContext().getDeliveryGuarantee() == DeliveryGuarantee.AT_MOST_ONCE) {
+        consumer.commitSync(offsets);
+      }
+
+      boolean batchSuccessful = process(messages);
+
+      if (batchSuccessful && getContext().getDeliveryGuarantee() == DeliveryGuarantee.AT_LEAST_ONCE) {
+        consumer.commitSync(offsets);
+      }
+    }
+
+    /**
+     * Waits for the batch being processed, if any, and commits its offsets once it succeeded. The commit is
+     * asynchronous while the consumer keeps running, the commits of the following batches cover it if it fails.
+     *
+     * @param wait if false, returns right away when the batch is still being processed
+     */
+    private void completeInFlightBatch(boolean wait) throws Exception {
+      if (inFlightBatch == null || (!wait && !inFlightBatch.isDone())) {
+        return;
       }
 
-      boolean batchSuccessful = getContext().processBatch(batchContext);
+      boolean batchSuccessful;
+      try {
+        batchSuccessful = inFlightBatch.get();
+      } catch (ExecutionException e) {
+        Throwables.propagateIfPossible(e.getCause(), StageException.class);
+        throw Throwables.propagate(e.getCause());
+      } finally {
+        inFlightBatch = null;
+      }
 
       if (batchSuccessful && getContext().getDeliveryGuarantee() == DeliveryGuarantee.AT_LEAST_ONCE) {
-        consumer.commitSync();
+        if (getContext().isStopped()) {
+          consumer.commitSync(inFlightOffsets);
+        } else {
+          consumer.commitAsync(inFlightOffsets, (offsets, exception) -> {
+            if (exception != null) {
+              LOG.warn("Could not commit offsets {}: {}", offsets, exception.toString(), exception);
+            }
+          });
+        }
+      }
+    }
+
+    private boolean process(List<ParsedMessage> messages) throws StageException {
+      BatchContext batchContext = getContext().startBatch();
+      ErrorRecordHandler errorRecordHandler = new DefaultErrorRecordHandler(getContext(), batchContext);
+      for (ParsedMessage message : messages) {
+        if (message.error != null) {
+          errorRecordHandler.onError(message.error);
+        }
+        message.records.forEach(batchContext.getBatchMaker()::addRecord);
+      }
+      return getContext().processBatch(batchContext);
+    }
+
+    private Map<TopicPartition, OffsetAndMetadata> getOffsets(List<ParsedMessage> messages) {
+      Map<TopicPartition, OffsetAndMetadata> offsets = new HashMap<>();
+      for (ParsedMessage message : messages) {
+        // the committed offset is the one of the next message to read
+        offsets.merge(
+            message.topicPartition,
+            new OffsetAndMetadata(message.offset + 1),
+            (o1, o2) -> (o1.offset() >= o2.offset()) ? o1 : o2
+        );
       }
+      return offsets;
     }
 
-    private List<Record> createRecord(
-        ErrorRecordHandler errorRecordHandler,
+    private ParsedMessage createRecord(
         String topic,
         int partition,
         long offset,
@@ -216,6 +344,7 @@ public class MultiKafkaSource extends BasePushSource {
 
       String messageId = getMessageId(topic, partition, offset);
       List<Record> records = new ArrayList<>();
+      OnRecordErrorException error = null;
 
       try (DataParser parser = parserFactory.getParser(messageId, payload)) {
         Record record = parser.parse();
@@ -241,16 +370,18 @@ public class MultiKafkaSource extends BasePushSource {
       } catch (DataParserException | IOException e) {
         Record record = getContext().createRecord(messageId);
         record.set(Field.create(payload));
-        errorRecordHandler.onError(new OnRecordErrorException(
+        error = new OnRecordErrorException(
             record,
             KafkaErrors.KAFKA_37,
             messageId,
             e.toString(),
             e
-        ));
+        );
       }
 
-      if (conf.produceSingleRecordPerMessage) {
+      // a message without any record, empty or that could not be parsed, doesn't produce a record, the message used to
+      // fail the batch with an IndexOutOfBoundsException instead
+      if (conf.produceSingleRecordPerMessage && !records.isEmpty()) {
         List<Field> list = new ArrayList<>();
         for (Record record : records) {
           list.add(record.get());
@@ -261,7 +392,7 @@ public class MultiKafkaSource extends BasePushSource {
         records.add(record);
       }
 
-      return records;
+      return new ParsedMessage(new TopicPartition(topic, partition), offset, records, error);
     }
 
     private void handleException(KafkaErrors error, Object... args) throws StageException {
@@ -271,13 +402,30 @@ public class MultiKafkaSource extends BasePushSource {
     }
   }
 
+  /**
+   * Records parsed from a Kafka message, or the error record if the message could not be parsed.
+   */
+  private static class ParsedMessage {
+    private final TopicPartition topicPartition;
+    private final long offset;
+    private final List<Record> records;
+    private final OnRecordErrorException error;
+
+    ParsedMessage(TopicPartition topicPartition, long offset, List<Record> records, OnRecordErrorException error) {
+      this.topicPartition = topicPartition;
+      this.offset = offset;
+      this.records = records;
+      this.error = error;
+    }
+  }
+
   @Override
   public List<ConfigIssue> init() {
     List<ConfigIssue> issues = super.init();
 
     conf.init(getContext(), issues);
 
-    conf.dataFormatConfig.stringBuilderPoolSize = getNumberOfThreads();
+    conf.dataFormatConfig.stringBuilderPoolSize = getNumberOfThreads() + conf.parserThreads;
 
     if (issues.isEmpty()) {
       conf.dataFormatConfig.init(getContext(),
@@ -298,6 +446,19 @@ public class MultiKafkaSource extends BasePushSource {
     }
 
     executor = Executors.newFixedThreadPool(getNumberOfThreads());
+    if (conf.parserThreads > 0) {
+      parserExecutor = Executors.newFixedThreadPool(
+          conf.parserThreads,
+          new ThreadFactoryBuilder().setNameFormat("kafkaParserThread-%d").setDaemon(true).build()
+      );
+    }
+    if (conf.prefetchNextBatch) {
+      // each consumer thread has at most one batch being processed
+      processingExecutor = Executors.newFixedThreadPool(
+          getNumberOfThreads(),
+          new ThreadFactoryBuilder().setNameFormat("kafkaProcessingThread-%d").setDaemon(true).build()
+      );
+    }
     for (String topic : conf.topicList) {
       LineageEvent event = getContext().createLineageEvent(LineageEventType.ENTITY_READ);
       event.setSpecificAttribute(LineageSpecificAttribute.ENDPOINT_TYPE, EndPointType.KAFKA.name());
@@ -359,6 +520,7 @@ public class MultiKafkaSource extends BasePushSource {
 
     LOG.info("Total messages consumed by all threads: {}", totalMessagesProcessed);
     executor.shutdown();
+    shutdownHelperExecutors();
   }
 
   // no trespassing...
@@ -411,12 +573,23 @@ public class MultiKafkaSource extends BasePushSource {
   @Override
   public void destroy() {
     executor.shutdownNow();
+    shutdownHelperExecutors();
     super.destroy();
   }
 
   private void shutdown() {
     if (!shutdownCalled.getAndSet(true)) {
       executor.shutdownNow();
+      shutdownHelperExecutors();
+    }
+  }
+
+  private void shutdownHelperExecutors() {
+    if (parserExecutor != null) {
+      parserExecutor.shutdownNow();
+    }
+    if (processingExecutor != null) {
+      processingExecutor.shutdownNow();
     }
   }
 }
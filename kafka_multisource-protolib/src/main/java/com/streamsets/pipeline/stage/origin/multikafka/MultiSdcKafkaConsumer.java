@@ -16,8 +16,12 @@
 package com.streamsets.pipeline.stage.origin.multikafka;
 
 import org.apache.kafka.clients.consumer.ConsumerRecords;
+import org.apache.kafka.clients.consumer.OffsetAndMetadata;
+import org.apache.kafka.clients.consumer.OffsetCommitCallback;
+import org.apache.kafka.common.TopicPartition;
 
 import java.util.List;
+import java.util.Map;
 
 /**
  * This is very thin wrapper on top of KafkaConsumer (Kafka native class) that is abstracting method calls that
@@ -35,4 +39,8 @@ public interface MultiSdcKafkaConsumer<K, V> {
   public void close();
 
   public void commitSync();
+
+  public void commitSync(Map<TopicPartition, OffsetAndMetadata> offsets);
+
+  public void commitAsync(Map<TopicPartition, OffsetAndMetadata> offsets, OffsetCommitCallback callback);
 }
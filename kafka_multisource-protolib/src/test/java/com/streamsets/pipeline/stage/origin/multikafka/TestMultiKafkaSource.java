@@ -16,6 +16,7 @@
 package com.streamsets.pipeline.stage.origin.multikafka;
 
 import com.google.common.base.Throwables;
+import com.google.common.collect.ImmutableList;
 import com.streamsets.pipeline.api.Record;
 import com.streamsets.pipeline.api.StageException;
 import com.streamsets.pipeline.api.lineage.LineageEvent;
@@ -31,12 +32,14 @@ import com.streamsets.pipeline.stage.origin.multikafka.loader.MockKafkaConsumerL
 import org.apache.kafka.clients.consumer.ConsumerRecord;
 import org.apache.kafka.clients.consumer.ConsumerRecords;
 import org.apache.kafka.clients.consumer.Consumer;
+import org.apache.kafka.clients.consumer.OffsetAndMetadata;
 import org.apache.kafka.common.TopicPartition;
 import org.junit.After;
 import org.junit.Assert;
 import org.junit.Before;
 import org.junit.Ignore;
 import org.junit.Test;
+import org.mockito.ArgumentCaptor;
 import org.mockito.Mockito;
 import org.mockito.MockitoAnnotations;
 
@@ -115,6 +118,47 @@ public class TestMultiKafkaSource {
     }
   }
 
+  @Test
+  public void testProduceSingleRecordPerMessageSkipsEmptyMessages() throws StageException, InterruptedException {
+    MultiKafkaBeanConfig conf = getConfig();
+    conf.topicList = Collections.singletonList("topic");
+    conf.numberOfThreads = 1;
+    conf.produceSingleRecordPerMessage = true;
+
+    List<ConsumerRecord<String, byte[]>> consumerRecordsList = new ArrayList<>();
+    consumerRecordsList.add(new ConsumerRecord<>("topic", 0, 0, "key0", "a\nb".getBytes()));
+    consumerRecordsList.add(new ConsumerRecord<>("topic", 0, 1, "key1", new byte[0]));
+    consumerRecordsList.add(new ConsumerRecord<>("topic", 0, 2, "key2", "c".getBytes()));
+    ConsumerRecords<String, byte[]> consumerRecords = new ConsumerRecords<>(
+        Collections.singletonMap(new TopicPartition("topic", 0), consumerRecordsList)
+    );
+    ConsumerRecords<String, byte[]> emptyRecords = generateConsumerRecords(0, "topic", 0);
+
+    Consumer mockConsumer = Mockito.mock(Consumer.class);
+    List<Consumer> consumerList = Collections.singletonList(mockConsumer);
+    Mockito.when(mockConsumer.poll(Mockito.anyInt())).thenReturn(consumerRecords).thenReturn(emptyRecords);
+
+    MockKafkaConsumerLoader.consumers = consumerList.iterator();
+    MultiKafkaSource source = new MultiKafkaSource(conf);
+    PushSourceRunner sourceRunner = new PushSourceRunner.Builder(MultiKafkaDSource.class, source).addOutputLane("lane")
+        .build();
+    sourceRunner.runInit();
+
+    MultiKafkaPushSourceTestCallback callback = new MultiKafkaPushSourceTestCallback(sourceRunner, 1);
+    try {
+      sourceRunner.runProduce(new HashMap<>(), 5, callback);
+      // the empty message produces no record, the others one record each with the list of their lines
+      Assert.assertEquals(2, callback.waitForAllBatches());
+      List<Record> records = callback.getRecords();
+      Assert.assertEquals(2, records.get(0).get().getValueAsList().size());
+      Assert.assertEquals("2", records.get(1).getHeader().getAttribute("offset"));
+      Assert.assertEquals(1, records.get(1).get().getValueAsList().size());
+      Assert.assertTrue(sourceRunner.getErrorRecords().isEmpty());
+    } finally {
+      sourceRunner.runDestroy();
+    }
+  }
+
   @Test
   public void testMultiplePartitions() throws StageException, InterruptedException {
     MultiKafkaBeanConfig conf = getConfig();
@@ -226,6 +270,68 @@ public class TestMultiKafkaSource {
     }
   }
 
+  @Test
+  @SuppressWarnings("unchecked")
+  public void testPrefetchNextBatch() throws StageException, InterruptedException {
+    MultiKafkaBeanConfig conf = getConfig();
+    conf.topicList = Collections.singletonList("topic");
+    conf.numberOfThreads = 1;
+    conf.prefetchNextBatch = true;
+    conf.parserThreads = 2;
+
+    ConsumerRecords<String, byte[]> consumerRecords1 = generateConsumerRecords(5, "topic", 0);
+    ConsumerRecords<String, byte[]> consumerRecords2 = generateConsumerRecords(5, "topic", 1);
+    ConsumerRecords<String, byte[]> emptyRecords = generateConsumerRecords(0, "topic", 0);
+
+    Consumer mockConsumer = Mockito.mock(Consumer.class);
+    List<Consumer> consumerList = Collections.singletonList(mockConsumer);
+    Mockito
+        .when(mockConsumer.poll(Mockito.anyInt()))
+        .thenReturn(consumerRecords1)
+        .thenReturn(consumerRecords2)
+        .thenReturn(emptyRecords);
+
+    MockKafkaConsumerLoader.consumers = consumerList.iterator();
+    MultiKafkaSource source = new MultiKafkaSource(conf);
+    PushSourceRunner sourceRunner = new PushSourceRunner.Builder(MultiKafkaDSource.class, source).addOutputLane("lane")
+        .build();
+    sourceRunner.runInit();
+
+    MultiKafkaPushSourceTestCallback callback = new MultiKafkaPushSourceTestCallback(sourceRunner, 2);
+    try {
+      sourceRunner.runProduce(new HashMap<>(), 5, callback);
+      int records = callback.waitForAllBatches();
+
+      source.await();
+      Assert.assertEquals(10, records);
+      Assert.assertFalse(source.isRunning());
+
+      // messages keep their order when parsed in parallel
+      List<String> values = new ArrayList<>();
+      for (Record record : callback.getRecords()) {
+        values.add(record.get("/text").getValueAsString());
+      }
+      Assert.assertEquals(
+          ImmutableList.of("value0", "value1", "value2", "value3", "value4"),
+          values.subList(0, 5)
+      );
+
+      // each batch committed its own offsets, the last one synchronously when stopping
+      ArgumentCaptor<Map> asyncCommits = ArgumentCaptor.forClass(Map.class);
+      ArgumentCaptor<Map> syncCommits = ArgumentCaptor.forClass(Map.class);
+      Mockito.verify(mockConsumer, Mockito.atMost(1)).commitAsync(asyncCommits.capture(), Mockito.any());
+      Mockito.verify(mockConsumer, Mockito.atLeastOnce()).commitSync(syncCommits.capture());
+      Mockito.verify(mockConsumer, Mockito.never()).commitSync();
+      Map<TopicPartition, OffsetAndMetadata> committed = new HashMap<>();
+      asyncCommits.getAllValues().forEach(committed::putAll);
+      syncCommits.getAllValues().forEach(committed::putAll);
+      Assert.assertEquals(5, committed.get(new TopicPartition("topic", 0)).offset());
+      Assert.assertEquals(5, committed.get(new TopicPartition("topic", 1)).offset());
+    } finally {
+      sourceRunner.runDestroy();
+    }
+  }
+
   @Test(expected = ExecutionException.class)
   public void testPollFail() throws StageException, InterruptedException, ExecutionException {
     MultiKafkaBeanConfig conf = getConfig();
@@ -321,7 +427,7 @@ public class TestMultiKafkaSource {
   private ConsumerRecords<String, byte[]> generateConsumerRecords(int count, String topic, int partition) {
     List<ConsumerRecord<String, byte[]>> consumerRecordsList = new ArrayList<>();
     for (int i = 0; i < count; i++) {
-      consumerRecordsList.add(new ConsumerRecord<>(topic, partition, 0, "key" + i, ("value" + i).getBytes()));
+      consumerRecordsList.add(new ConsumerRecord<>(topic, partition, i, "key" + i, ("value" + i).getBytes()));
     }
 
     Map<TopicPartition, List<ConsumerRecord<String, byte[]>>> recordsMap = new HashMap<>();
@@ -338,6 +444,7 @@ public class TestMultiKafkaSource {
     private final PushSourceRunner pushSourceRunner;
     private final AtomicInteger batchesProduced;
     private final AtomicInteger recordsProcessed;
+    private final List<Record> records;
     private final int numberOfBatches;
 
     MultiKafkaPushSourceTestCallback(PushSourceRunner pushSourceRunner, int numberOfBatches) {
@@ -345,6 +452,7 @@ public class TestMultiKafkaSource {
       this.numberOfBatches = numberOfBatches;
       this.batchesProduced = new AtomicInteger(0);
       this.recordsProcessed = new AtomicInteger(0);
+      this.records = Collections.synchronizedList(new ArrayList<>());
     }
 
     synchronized int waitForAllBatches() {
@@ -356,11 +464,16 @@ public class TestMultiKafkaSource {
       return recordsProcessed.get();
     }
 
+    List<Record> getRecords() {
+      return records;
+    }
+
     @Override
     public void processBatch(StageRunner.Output output) {
       List<Record> records = output.getRecords().get("lane");
       if (!records.isEmpty()) {
         recordsProcessed.addAndGet(records.size());
+        this.records.addAll(records);
         if (batchesProduced.incrementAndGet() == numberOfBatches) {
           pushSourceRunner.setStop();
         }
@@ -75,4 +75,15 @@ public class TestMultiKafkaSourceUpgrader {
 
     UpgraderTestUtils.assertExists(configs, dataFormatPrefix + "preserveRootElement", false);
   }
+
+  @Test
+  public void testV5ToV6() {
+    Mockito.doReturn(5).when(context).getFromVersion();
+    Mockito.doReturn(6).when(context).getToVersion();
+
+    configs = upgrader.upgrade(configs, context);
+
+    UpgraderTestUtils.assertExists(configs, "conf.prefetchNextBatch", false);
+    UpgraderTestUtils.assertExists(configs, "conf.parserThreads", 0);
+  }
 }
@@ -21,9 +21,11 @@ import com.streamsets.pipeline.lib.kafka.KafkaAutoOffsetReset;
 import com.streamsets.pipeline.stage.origin.multikafka.MultiSdcKafkaConsumer;
 import org.apache.kafka.clients.consumer.ConsumerRecords;
 import org.apache.kafka.clients.consumer.Consumer;
+import org.apache.kafka.clients.consumer.OffsetCommitCallback;
 
 import java.util.Iterator;
 import java.util.List;
+import java.util.Map;
 import java.util.Properties;
 
 /**
@@ -90,5 +92,15 @@ public class MockKafkaConsumerLoader extends KafkaConsumerLoader {
 
     @Override
     public void commitSync() { delegate.commitSync(); }
+
+    @Override
+    public void commitSync(Map offsets) {
+      delegate.commitSync(offsets);
+    }
+
+    @Override
+    public void commitAsync(Map offsets, OffsetCommitCallback callback) {
+      delegate.commitAsync(offsets, callback);
+    }
   }
 }
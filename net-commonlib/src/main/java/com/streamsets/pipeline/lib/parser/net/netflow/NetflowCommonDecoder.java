@@ -16,9 +16,11 @@
 package com.streamsets.pipeline.lib.parser.net.netflow;
 
 import com.streamsets.pipeline.api.base.OnRecordErrorException;
+import com.streamsets.pipeline.api.impl.Utils;
 import com.streamsets.pipeline.lib.parser.net.netflow.v5.NetflowV5Decoder;
 import com.streamsets.pipeline.lib.parser.net.netflow.v5.NetflowV5Message;
 import com.streamsets.pipeline.lib.parser.net.netflow.v9.NetflowV9Decoder;
+import com.streamsets.pipeline.lib.parser.net.netflow.v9.NetflowV9PacketDecoder;
 import com.streamsets.pipeline.lib.parser.net.netflow.v9.NetflowV9TemplateCacheProvider;
 import io.netty.buffer.ByteBuf;
 import io.netty.channel.ChannelHandlerContext;
@@ -42,6 +44,8 @@ import java.util.List;
  * and
  * <a href="http://www.cisco.com/c/en/us/td/docs/net_mgmt/netflow_collection_engine/3-6/user/guide/format.html#wp1003394">v1 and v5 spec</a>
  * <a href="http://www.cisco.com/en/US/technologies/tk648/tk362/technologies_white_paper09186a00800a3db9.html">v9</a>.
+ * <p/>
+ * IPFIX (v10) messages, and v9 packets when they are complete (UDP), are decoded by {@link NetflowV9PacketDecoder}.
  */
 
 public class NetflowCommonDecoder extends ReplayingDecoder<Void> {
@@ -52,6 +56,7 @@ public class NetflowCommonDecoder extends ReplayingDecoder<Void> {
   private boolean readVersion = false;
   private NetflowV5Decoder netflowV5Decoder;
   private NetflowV9Decoder netflowV9Decoder;
+  private NetflowV9PacketDecoder netflowV9PacketDecoder;
   // END ReplayingDecoder state vars
 
   // Netflow v9 decoder parameters
@@ -158,12 +163,33 @@ public class NetflowCommonDecoder extends ReplayingDecoder<Void> {
         versionSpecificNetflowDecoder = netflowV5Decoder;
         break;
       case 9:
+        if (packetLengthCheck) {
+          // complete packet, decode it with the compiled templates
+          versionSpecificNetflowDecoder = getPacketDecoder();
+          break;
+        }
         if (netflowV9Decoder == null) {
           // lazy instantiation of the version specific decoder
           netflowV9Decoder = new NetflowV9Decoder(this, outputValuesMode, templateCacheProvider);
         }
         versionSpecificNetflowDecoder = netflowV9Decoder;
         break;
+      case 10:
+        if (!packetLengthCheck) {
+          // IPFIX messages have their length in the header, so wait for the whole message to be received (replaying
+          // until then) and decode it as a complete packet
+          int messageLength = buf.getUnsignedShort(buf.readerIndex());
+          if (messageLength < NetflowV9PacketDecoder.IPFIX_HEADER_SIZE + 2) {
+            resetStateVariables();
+            throw new OnRecordErrorException(
+                Errors.NETFLOW_01,
+                Utils.format("Message length is invalid: {}", messageLength)
+            );
+          }
+          buf = buf.readSlice(messageLength - 2);
+        }
+        versionSpecificNetflowDecoder = getPacketDecoder();
+        break;
       default:
         resetStateVariables();
         throw new OnRecordErrorException(Errors.NETFLOW_00, version);
@@ -185,6 +211,13 @@ public class NetflowCommonDecoder extends ReplayingDecoder<Void> {
 
   }
 
+  private NetflowV9PacketDecoder getPacketDecoder() {
+    if (netflowV9PacketDecoder == null) {
+      netflowV9PacketDecoder = new NetflowV9PacketDecoder(outputValuesMode, templateCacheProvider);
+    }
+    return netflowV9PacketDecoder;
+  }
+
   public static String ipV4ToString(int ip) {
     return String.format("%d.%d.%d.%d",
       (ip >> 24 & 0xff),
@@ -0,0 +1,213 @@
+/*
+ * Copyright 2019 StreamSets Inc.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package com.streamsets.pipeline.lib.parser.net.netflow.v9;
+
+import com.streamsets.pipeline.api.Field;
+import com.streamsets.pipeline.api.base.OnRecordErrorException;
+import com.streamsets.pipeline.api.impl.Utils;
+import com.streamsets.pipeline.lib.parser.net.netflow.Errors;
+import com.streamsets.pipeline.lib.parser.net.netflow.NetflowCommonDecoder;
+
+import java.math.BigDecimal;
+import java.util.Arrays;
+
+/**
+ * How the value of a flow field is interpreted, resolved once per field type so templates can be compiled into the
+ * interpretation of each of their fields.
+ */
+public enum FieldInterpretation {
+  UNSIGNED_INTEGRAL,
+  UNSIGNED_BYTE,
+  UNSIGNED_SHORT,
+  UNSIGNED_INT,
+  IPV4_ADDRESS,
+  IPV6_ADDRESS,
+  MAC_ADDRESS,
+  STRING,
+  RAW,
+  ;
+
+  public static FieldInterpretation of(NetflowV9FieldType type) {
+    if (type == null) {
+      // just use raw bytes if unable to recognize a known type
+      return RAW;
+    }
+    switch (type) {
+      case IN_BYTES:
+      case IN_PKTS:
+      case FLOWS:
+      case INPUT_SNMP:
+      case OUTPUT_SNMP:
+      case SRC_AS:
+      case DST_AS:
+      case MUL_DST_PKTS:
+      case MUL_DST_BYTES:
+      case OUT_BYTES:
+      case OUT_PKTS:
+      case TOTAL_BYTES_EXP:
+      case TOTAL_PKTS_EXP:
+      case TOTAL_FLOWS_EXP:
+      case IN_PERMANENT_BYTES:
+      case IN_PERMANENT_PKTS:
+        return UNSIGNED_INTEGRAL;
+      case PROTOCOL:
+      case SRC_TOS:
+      case TCP_FLAGS:
+      case SRC_MASK:
+      case DST_MASK:
+      case IPV6_SRC_MASK:
+      case IPV6_DST_MASK:
+      case MUL_IGMP_TYPE:
+      case SAMPLING_ALGORITHM:
+      case ENGINE_TYPE:
+      case ENGINE_ID:
+      case MPLS_TOP_LABEL_TYPE:
+      case FLOW_SAMPLER_ID:
+      case FLOW_SAMPLER_MODE:
+      case MIN_TTL:
+      case MAX_TTL:
+      case DST_TOS:
+      case IP_PROTOCOL_VERSION:
+      case DIRECTION:
+      case FORWARDING_STATUS:
+      case MPLS_PREFIX_LEN:
+      case POSTIP_DIFF_SERV_CODE_POINTS:
+        return UNSIGNED_BYTE;
+      case L4_SRC_PORT:
+      case L4_DST_PORT:
+      case MIN_PKT_LNGTH:
+      case MAX_PKT_LNGTH:
+      case ICMP_TYPE:
+      case FLOW_ACTIVE_TIMEOUT:
+      case FLOW_INACTIVE_TIMEOUT:
+      case IPV4_IDENT:
+      case SRC_VLAN:
+      case DST_VLAN:
+      case FRAGMENT_OFFSET:
+        return UNSIGNED_SHORT;
+      case LAST_SWITCHED:
+      case FIRST_SWITCHED:
+      case SAMPLING_INTERVAL:
+      case IPV4_SRC_PREFIX:
+      case IPV4_DST_PREFIX:
+      case MPLS_TOP_LABEL_IP_ADDR:
+      case FLOW_SAMPLER_RANDOM_INTERVAL:
+      case IPV6_OPTION_HEADERS:
+      case SRC_TRAFFIC_INDEX:
+      case DST_TRAFFIC_INDEX:
+      case REPLICATION_FACTOR:
+        return UNSIGNED_INT;
+      case IPV4_SRC_ADDR:
+      case IPV4_DST_ADDR:
+      case IPV4_NEXT_HOP:
+      case BGP_IPV4_NEXT_HOP:
+        return IPV4_ADDRESS;
+      case IPV6_SRC_ADDR:
+      case IPV6_DST_ADDR:
+      case IPV6_NEXT_HOP:
+      case BGP_IPV6_NEXT_HOP:
+        return IPV6_ADDRESS;
+      case IN_SRC_MAC:
+      case OUT_DST_MAC:
+      case IN_DST_MAC:
+      case OUT_SRC_MAC:
+        return MAC_ADDRESS;
+      case IF_NAME:
+      case IF_DESC:
+      case SAMPLER_NAME:
+      case APPLICATION_DESCRIPTION:
+      case APPLICATION_NAME:
+        return STRING;
+      default:
+        // flow labels, MPLS labels and route distinguishers, application tags, layer 2 sections and scope fields
+        return RAW;
+    }
+  }
+
+  /**
+   * Checks that a value of the given length can be interpreted, throwing the same errors as interpreting it would.
+   * Lengths are known from the template for all but variable length fields, so this lets values be interpreted
+   * lazily while still rejecting the flows that can't be.
+   */
+  public void checkLength(int typeId, int length) throws OnRecordErrorException {
+    switch (this) {
+      case UNSIGNED_BYTE:
+        if (length != 1) {
+          throw new OnRecordErrorException(Errors.NETFLOW_12, typeId, length);
+        }
+        break;
+      case UNSIGNED_SHORT:
+        Utils.checkState(length == 2, "2 bytes required to parse an unsigned short");
+        break;
+      case UNSIGNED_INT:
+        Utils.checkState(length == 4, "4 bytes required to parse an unsigned int");
+        break;
+      case IPV4_ADDRESS:
+      case IPV6_ADDRESS:
+        if (length != 4 && length != 16) {
+          // InetAddress only accepts IPv4 and IPv6 sized addresses
+          interpret(typeId, new byte[length], 0, length);
+        }
+        break;
+      default:
+        break;
+    }
+  }
+
+  /**
+   * Interprets the value stored in the given range of bytes.
+   */
+  public Field interpret(int typeId, byte[] bytes, int offset, int length) throws OnRecordErrorException {
+    switch (this) {
+      case UNSIGNED_INTEGRAL:
+        if (length < 8) {
+          long value = 0;
+          for (int i = 0; i < length; i++) {
+            value = (value << 8) | (bytes[offset + i] & 0xFF);
+          }
+          return Field.create(BigDecimal.valueOf(value));
+        }
+        return NetflowV9Decoder.getArbitraryLengthPositiveIntegralFromBytes(copy(bytes, offset, length));
+      case UNSIGNED_BYTE:
+        checkLength(typeId, length);
+        return Field.create(bytes[offset] & 0xFF);
+      case UNSIGNED_SHORT:
+        checkLength(typeId, length);
+        return Field.create(((bytes[offset] & 0xFF) << 8) | (bytes[offset + 1] & 0xFF));
+      case UNSIGNED_INT:
+        checkLength(typeId, length);
+        return Field.create(
+            ((bytes[offset] & 0xFFL) << 24) | ((bytes[offset + 1] & 0xFFL) << 16) |
+                ((bytes[offset + 2] & 0xFFL) << 8) | (bytes[offset + 3] & 0xFFL)
+        );
+      case IPV4_ADDRESS:
+        return Field.create(NetflowCommonDecoder.getIpV4Address(copy(bytes, offset, length)));
+      case IPV6_ADDRESS:
+        return NetflowV9Decoder.getIPV6AddressAsString(copy(bytes, offset, length));
+      case MAC_ADDRESS:
+        return NetflowV9Decoder.getMacAddress(copy(bytes, offset, length));
+      case STRING:
+        return NetflowV9Decoder.getString(copy(bytes, offset, length));
+      case RAW:
+      default:
+        return NetflowV9Decoder.getRawBytes(copy(bytes, offset, length));
+    }
+  }
+
+  private static byte[] copy(byte[] bytes, int offset, int length) {
+    return Arrays.copyOfRange(bytes, offset, offset + length);
+  }
+}
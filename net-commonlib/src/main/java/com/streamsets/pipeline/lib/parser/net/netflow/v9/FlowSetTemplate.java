@@ -16,9 +16,21 @@
 
 package com.streamsets.pipeline.lib.parser.net.netflow.v9;
 
+import com.streamsets.pipeline.api.Field;
+import com.streamsets.pipeline.api.base.OnRecordErrorException;
+import io.netty.buffer.ByteBuf;
+
 import java.util.ArrayList;
+import java.util.LinkedHashMap;
 import java.util.List;
 
+/**
+ * A flow template, compiled when it is received into a flat plan to decode the data records that use it: the offset
+ * of each field within a record and how its value is interpreted. Data records are then copied out of the packet in
+ * one read and their fields are only interpreted when the record is populated.
+ * <p/>
+ * Templates are immutable, so the template cache can be shared by all the threads decoding packets.
+ */
 public class FlowSetTemplate {
 
   private final FlowKind templateKind;
@@ -26,6 +38,14 @@ public class FlowSetTemplate {
   private final List<NetflowV9FieldTemplate> fieldTemplates = new ArrayList<>();
   private final int totalFieldsLength;
 
+  // compiled plan
+  private final NetflowV9FieldTemplate[] fields;
+  // offset of each field in a record, only for the fields before the first variable length one
+  private final int[] offsets;
+  private final boolean variableLength;
+  // first field that can't be interpreted because of its length, -1 if none
+  private final int invalidField;
+
   public FlowSetTemplate(FlowKind templateKind, int templateId, List<NetflowV9FieldTemplate> fieldTemplates) {
     this.templateKind = templateKind;
     this.templateId = templateId;
@@ -33,10 +53,42 @@ public class FlowSetTemplate {
     if (fieldTemplates != null) {
       this.fieldTemplates.addAll(fieldTemplates);
       for (NetflowV9FieldTemplate template : fieldTemplates) {
-        totalLength += template.getLength();
+        // variable length fields take at least their one byte length prefix
+        totalLength += template.isVariableLength() ? 1 : template.getLength();
       }
     }
     totalFieldsLength = totalLength;
+
+    fields = this.fieldTemplates.toArray(new NetflowV9FieldTemplate[0]);
+    offsets = new int[fields.length];
+    boolean variable = false;
+    int invalid = -1;
+    int offset = 0;
+    for (int i = 0; i < fields.length; i++) {
+      if (fields[i].isVariableLength()) {
+        variable = true;
+      }
+      offsets[i] = variable ? -1 : offset;
+      offset += fields[i].getLength();
+      if (invalid < 0 && !fields[i].isVariableLength() && !isValidLength(fields[i], fields[i].getLength())) {
+        invalid = i;
+      }
+    }
+    variableLength = variable;
+    invalidField = invalid;
+  }
+
+  private static boolean isValidLength(NetflowV9FieldTemplate field, int length) {
+    try {
+      field.getInterpretation().checkLength(field.getTypeId(), length);
+      return true;
+    } catch (OnRecordErrorException | IllegalStateException e) {
+      return false;
+    }
+  }
+
+  public FlowKind getTemplateKind() {
+    return templateKind;
   }
 
   public int getTemplateId() {
@@ -47,7 +99,123 @@ public class FlowSetTemplate {
     return fieldTemplates;
   }
 
+  /**
+   * Returns the length of the records of this template, the minimum length if it has variable length fields.
+   */
   public int getTotalFieldsLength() {
     return totalFieldsLength;
   }
+
+  public boolean isVariableLength() {
+    return variableLength;
+  }
+
+  /**
+   * Throws the error interpreting the records of this template would throw, if any.
+   */
+  public void checkFieldLengths() throws OnRecordErrorException {
+    if (invalidField >= 0) {
+      NetflowV9FieldTemplate field = fields[invalidField];
+      field.getInterpretation().checkLength(field.getTypeId(), field.getLength());
+    }
+  }
+
+  /**
+   * Locates the fields of a record with variable length fields.
+   *
+   * @param buf the buffer holding the record
+   * @param index the index of the record in the buffer
+   * @param limit the index the record can't go past
+   * @param checkLengths whether to check that the variable length values can be interpreted
+   * @return the offset and length of every field relative to the record start, followed by the record length, or null
+   *     if the record doesn't fit before the limit
+   */
+  public int[] locateFields(ByteBuf buf, int index, int limit, boolean checkLengths) throws OnRecordErrorException {
+    int[] positions = new int[fields.length * 2 + 1];
+    int position = index;
+    for (int i = 0; i < fields.length; i++) {
+      int length = fields[i].getLength();
+      if (fields[i].isVariableLength()) {
+        if (position >= limit) {
+          return null;
+        }
+        length = buf.getUnsignedByte(position++);
+        if (length == 255) {
+          if (position + 2 > limit) {
+            return null;
+          }
+          length = buf.getUnsignedShort(position);
+          position += 2;
+        }
+        if (checkLengths) {
+          fields[i].getInterpretation().checkLength(fields[i].getTypeId(), length);
+        }
+      }
+      positions[i * 2] = position - index;
+      positions[i * 2 + 1] = length;
+      position += length;
+      if (position > limit) {
+        return null;
+      }
+    }
+    positions[fields.length * 2] = position - index;
+    return positions;
+  }
+
+  private int offset(int field, int[] positions) {
+    return positions == null ? offsets[field] : positions[field * 2];
+  }
+
+  private int length(int field, int[] positions) {
+    return positions == null ? fields[field].getLength() : positions[field * 2 + 1];
+  }
+
+  /**
+   * Builds the fields of a record.
+   *
+   * @param record the bytes of the record
+   * @param positions the positions of the fields returned by {@link #locateFields}, null for fixed length templates
+   * @param interpret whether to interpret the values
+   */
+  public List<NetflowV9Field> createFields(byte[] record, int[] positions, boolean interpret) {
+    List<NetflowV9Field> result = new ArrayList<>(fields.length);
+    for (int i = 0; i < fields.length; i++) {
+      int offset = offset(i, positions);
+      int length = length(i, positions);
+      byte[] rawValue = new byte[length];
+      System.arraycopy(record, offset, rawValue, 0, length);
+      result.add(new NetflowV9Field(fields[i], rawValue, interpret ? interpret(i, record, offset, length) : null));
+    }
+    return result;
+  }
+
+  /**
+   * Builds the map of the raw or interpreted values of a record, by field name.
+   */
+  public LinkedHashMap<String, Field> createFieldsMap(byte[] record, int[] positions, boolean rawValues) {
+    LinkedHashMap<String, Field> result = new LinkedHashMap<>();
+    for (int i = 0; i < fields.length; i++) {
+      int offset = offset(i, positions);
+      int length = length(i, positions);
+      Field value;
+      if (rawValues) {
+        byte[] rawValue = new byte[length];
+        System.arraycopy(record, offset, rawValue, 0, length);
+        value = Field.create(rawValue);
+      } else {
+        value = interpret(i, record, offset, length);
+      }
+      result.put(fields[i].getSdcFieldName(), value);
+    }
+    return result;
+  }
+
+  private Field interpret(int field, byte[] record, int offset, int length) {
+    try {
+      return fields[field].getInterpretation().interpret(fields[field].getTypeId(), record, offset, length);
+    } catch (OnRecordErrorException e) {
+      // lengths are checked when the record is decoded
+      throw new IllegalStateException(e.toString(), e);
+    }
+  }
 }
@@ -18,10 +18,18 @@ package com.streamsets.pipeline.lib.parser.net.netflow.v9;
 
 public class NetflowV9FieldTemplate {
 
+  /**
+   * Length of the IPFIX fields whose length is given in each data record.
+   */
+  public static final int VARIABLE_LENGTH = 65535;
+
   private final NetflowV9FieldType type;
 
   private final int typeId;
   private final int length;
+  private final long enterpriseNumber;
+  private final FieldInterpretation interpretation;
+  private final String sdcFieldName;
 
   public NetflowV9FieldTemplate(int typeId, int length) {
     this(NetflowV9FieldType.getTypeForId(typeId), typeId, length);
@@ -31,10 +39,36 @@ public class NetflowV9FieldTemplate {
     return new NetflowV9FieldTemplate(NetflowV9FieldType.getScopeTypeForId(scopeTypeId), scopeTypeId, length);
   }
 
+  /**
+   * Returns the template of an IPFIX field. The information elements defined by IANA share their IDs with the
+   * NetFlow 9 field types, enterprise specific ones have no known type.
+   */
+  public static NetflowV9FieldTemplate getIpfixFieldTemplate(int elementId, int length, long enterpriseNumber) {
+    return new NetflowV9FieldTemplate(
+        enterpriseNumber == 0 ? NetflowV9FieldType.getTypeForId(elementId) : null,
+        elementId,
+        length,
+        enterpriseNumber
+    );
+  }
+
   public NetflowV9FieldTemplate(NetflowV9FieldType type, int typeId, int length) {
+    this(type, typeId, length, 0);
+  }
+
+  public NetflowV9FieldTemplate(NetflowV9FieldType type, int typeId, int length, long enterpriseNumber) {
     this.type = type;
     this.typeId = typeId;
     this.length = length;
+    this.enterpriseNumber = enterpriseNumber;
+    this.interpretation = FieldInterpretation.of(type);
+    if (type != null) {
+      sdcFieldName = type.name();
+    } else if (enterpriseNumber != 0) {
+      sdcFieldName = String.format("type_%d_enterprise_%d", typeId, enterpriseNumber);
+    } else {
+      sdcFieldName = String.format("type_%d", typeId);
+    }
   }
 
   public NetflowV9FieldType getType() {
@@ -48,4 +82,20 @@ public class NetflowV9FieldTemplate {
   public int getLength() {
     return length;
   }
+
+  public long getEnterpriseNumber() {
+    return enterpriseNumber;
+  }
+
+  public boolean isVariableLength() {
+    return length == VARIABLE_LENGTH;
+  }
+
+  public FieldInterpretation getInterpretation() {
+    return interpretation;
+  }
+
+  public String getSdcFieldName() {
+    return sdcFieldName;
+  }
 }
@@ -58,6 +58,12 @@ public class NetflowV9Message extends BaseNetflowMessage {
 
   private final List<NetflowV9Field> fields = new ArrayList<>();
   private int flowTemplateId;
+  private int netflowVersion = 9;
+
+  // flow decoded with a compiled template, its fields are only built when needed
+  private FlowSetTemplate template;
+  private byte[] flowBytes;
+  private int[] fieldPositions;
 
   public int getFlowRecordCount() {
     return flowRecordCount;
@@ -179,6 +185,9 @@ public class NetflowV9Message extends BaseNetflowMessage {
   }
 
   public LinkedHashMap<String, Field> createFieldsMap(boolean rawValues) {
+    if (template != null && fields.isEmpty()) {
+      return template.createFieldsMap(flowBytes, fieldPositions, rawValues);
+    }
     LinkedHashMap<String, Field> fields = new LinkedHashMap<>();
     getFields().forEach(field -> fields.put(
         field.getSdcFieldName(),
@@ -188,9 +197,29 @@ public class NetflowV9Message extends BaseNetflowMessage {
   }
 
   public List<NetflowV9Field> getFields() {
+    if (template != null && fields.isEmpty()) {
+      fields.addAll(template.createFields(
+          flowBytes,
+          fieldPositions,
+          outputValuesMode != OutputValuesMode.RAW_ONLY
+      ));
+    }
     return fields;
   }
 
+  /**
+   * Sets the fields of the flow as the bytes of a data record and the template they are decoded with.
+   *
+   * @param template the compiled template of the record
+   * @param flowBytes the bytes of the record
+   * @param fieldPositions the positions of the fields for templates with variable length fields, null otherwise
+   */
+  public void setFlowBytes(FlowSetTemplate template, byte[] flowBytes, int[] fieldPositions) {
+    this.template = template;
+    this.flowBytes = flowBytes;
+    this.fieldPositions = fieldPositions;
+  }
+
   public void setFields(List<NetflowV9Field> fields) {
     if (fields != null) {
       this.fields.addAll(fields);
@@ -205,8 +234,12 @@ public class NetflowV9Message extends BaseNetflowMessage {
     this.flowTemplateId = flowTemplateId;
   }
 
+  public void setNetflowVersion(int netflowVersion) {
+    this.netflowVersion = netflowVersion;
+  }
+
   @Override
   public int getNetflowVersion() {
-    return 9;
+    return netflowVersion;
   }
 }
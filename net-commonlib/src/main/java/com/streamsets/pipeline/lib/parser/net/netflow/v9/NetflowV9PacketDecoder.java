@@ -0,0 +1,406 @@
+/*
+ * Copyright 2019 StreamSets Inc.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package com.streamsets.pipeline.lib.parser.net.netflow.v9;
+
+import com.google.common.cache.Cache;
+import com.streamsets.pipeline.api.base.OnRecordErrorException;
+import com.streamsets.pipeline.api.impl.Utils;
+import com.streamsets.pipeline.lib.parser.net.netflow.Errors;
+import com.streamsets.pipeline.lib.parser.net.netflow.OutputValuesMode;
+import com.streamsets.pipeline.lib.parser.net.netflow.VersionSpecificNetflowDecoder;
+import io.netty.buffer.ByteBuf;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+import java.net.InetSocketAddress;
+import java.util.ArrayList;
+import java.util.List;
+
+/**
+ * Decodes complete NetFlow 9 packets and IPFIX (NetFlow 10) messages with compiled templates.
+ * <p/>
+ * Unlike {@link NetflowV9Decoder}, which reads a byte at a time so it can resume when more data arrives on a stream,
+ * this decoder needs the whole packet and reads it with absolute indexes: each data record is copied out of the buffer
+ * in a single read and its fields are located with the plan compiled in its {@link FlowSetTemplate}, their values are
+ * only interpreted when the record is populated. The decoder holds no state besides the template cache, so the cache
+ * can be shared by any number of threads.
+ * <p/>
+ * IPFIX is decoded by the same engine, following <a href="https://tools.ietf.org/html/rfc7011">RFC 7011</a>:
+ * enterprise specific and variable length information elements are supported, and the observation domain ID takes
+ * the place of the NetFlow 9 source ID.
+ */
+public class NetflowV9PacketDecoder implements VersionSpecificNetflowDecoder<NetflowV9Message> {
+  private static final Logger LOG = LoggerFactory.getLogger(NetflowV9PacketDecoder.class);
+
+  public static final int NETFLOW_V9_VERSION = 9;
+  public static final int IPFIX_VERSION = 10;
+
+  // header size after the version
+  public static final int IPFIX_HEADER_SIZE = 14;
+
+  private static final int V9_TEMPLATE_FLOWSET_ID = 0;
+  private static final int V9_OPTIONS_FLOWSET_ID = 1;
+  private static final int IPFIX_TEMPLATE_SET_ID = 2;
+  private static final int IPFIX_OPTIONS_TEMPLATE_SET_ID = 3;
+  private static final int MIN_DATA_SET_ID = 256;
+  private static final int SET_HEADER_SIZE = 4;
+  private static final int ENTERPRISE_BIT = 0x8000;
+
+  private final OutputValuesMode outputValuesMode;
+  private final Cache<FlowSetTemplateCacheKey, FlowSetTemplate> flowSetTemplateCache;
+
+  public NetflowV9PacketDecoder(
+      OutputValuesMode outputValuesMode,
+      NetflowV9TemplateCacheProvider templateCacheProvider
+  ) {
+    this.outputValuesMode = outputValuesMode;
+    this.flowSetTemplateCache = templateCacheProvider.getFlowSetTemplateCache();
+  }
+
+  /**
+   * The fields of the packet header shared by all the flows of a packet.
+   */
+  private static class PacketHeader {
+    private int version;
+    private int count;
+    private long sysUptimeMs;
+    private long unixSeconds;
+    private long sequenceNumber;
+    private byte[] sourceIdBytes;
+    private long sourceId;
+    private InetSocketAddress sender;
+    private InetSocketAddress recipient;
+  }
+
+  @Override
+  public void resetState() {
+    // no state kept between packets
+  }
+
+  /**
+   * Decodes the packet in the buffer, starting right after the version.
+   */
+  @Override
+  public List<NetflowV9Message> parse(
+      int netflowVersion,
+      int packetLength,
+      boolean packetLengthCheck,
+      ByteBuf buf,
+      InetSocketAddress sender,
+      InetSocketAddress recipient
+  ) throws OnRecordErrorException {
+    PacketHeader header = new PacketHeader();
+    header.version = netflowVersion;
+    header.sender = sender;
+    header.recipient = recipient;
+    switch (netflowVersion) {
+      case NETFLOW_V9_VERSION:
+        return parseV9(buf, header);
+      case IPFIX_VERSION:
+        return parseIpfix(buf, header);
+      default:
+        throw new OnRecordErrorException(Errors.NETFLOW_00, netflowVersion);
+    }
+  }
+
+  private List<NetflowV9Message> parseV9(ByteBuf buf, PacketHeader header) throws OnRecordErrorException {
+    checkReadable(buf, buf.readerIndex(), buf.writerIndex(), 18);
+    header.count = buf.readUnsignedShort();
+    if (header.count <= 0) {
+      throw new OnRecordErrorException(Errors.NETFLOW_01, Utils.format("Count is invalid: {}", header.count));
+    }
+    header.sysUptimeMs = buf.readUnsignedInt();
+    header.unixSeconds = buf.readUnsignedInt();
+    header.sequenceNumber = buf.readUnsignedInt();
+    readSourceId(buf, header);
+
+    List<NetflowV9Message> result = new ArrayList<>(header.count);
+    // the count includes the template records
+    int records = 0;
+    int index = buf.readerIndex();
+    int packetEnd = buf.writerIndex();
+    while (records < header.count && packetEnd - index >= SET_HEADER_SIZE) {
+      int flowsetId = buf.getUnsignedShort(index);
+      int flowsetEnd = getSetEnd(buf, index, packetEnd);
+      int position = index + SET_HEADER_SIZE;
+      switch (flowsetId) {
+        case V9_TEMPLATE_FLOWSET_ID:
+          records += readV9Templates(buf, position, flowsetEnd, header);
+          break;
+        case V9_OPTIONS_FLOWSET_ID:
+          records += readV9OptionsTemplates(buf, position, flowsetEnd, header);
+          break;
+        default:
+          if (flowsetId < MIN_DATA_SET_ID) {
+            throw new OnRecordErrorException(Errors.NETFLOW_10, flowsetId);
+          }
+          records += readDataRecords(buf, position, flowsetEnd, flowsetId, header, result);
+          break;
+      }
+      index = flowsetEnd;
+    }
+    buf.readerIndex(index);
+    return result;
+  }
+
+  private int readV9Templates(
+      ByteBuf buf,
+      int position,
+      int end,
+      PacketHeader header
+  ) throws OnRecordErrorException {
+    int templates = 0;
+    // anything shorter than a template header is padding
+    while (end - position >= 4) {
+      int templateId = buf.getUnsignedShort(position);
+      int fieldCount = buf.getUnsignedShort(position + 2);
+      position += 4;
+      checkReadable(buf, position, end, fieldCount * 4);
+      List<NetflowV9FieldTemplate> fields = new ArrayList<>(fieldCount);
+      for (int i = 0; i < fieldCount; i++, position += 4) {
+        fields.add(new NetflowV9FieldTemplate(buf.getUnsignedShort(position), buf.getUnsignedShort(position + 2)));
+      }
+      cacheTemplate(new FlowSetTemplate(FlowKind.FLOWSET, templateId, fields), header);
+      templates++;
+    }
+    return templates;
+  }
+
+  private int readV9OptionsTemplates(
+      ByteBuf buf,
+      int position,
+      int end,
+      PacketHeader header
+  ) throws OnRecordErrorException {
+    int templates = 0;
+    while (end - position >= 6) {
+      int templateId = buf.getUnsignedShort(position);
+      // lengths in bytes of the scope and option field definitions
+      int scopeLength = buf.getUnsignedShort(position + 2);
+      int optionsLength = buf.getUnsignedShort(position + 4);
+      position += 6;
+      checkReadable(buf, position, end, scopeLength + optionsLength);
+      List<NetflowV9FieldTemplate> fields = new ArrayList<>((scopeLength + optionsLength) / 4);
+      for (int i = 0; i < scopeLength / 4; i++, position += 4) {
+        fields.add(NetflowV9FieldTemplate.getScopeFieldTemplate(
+            buf.getUnsignedShort(position),
+            buf.getUnsignedShort(position + 2)
+        ));
+      }
+      for (int i = 0; i < optionsLength / 4; i++, position += 4) {
+        fields.add(new NetflowV9FieldTemplate(buf.getUnsignedShort(position), buf.getUnsignedShort(position + 2)));
+      }
+      cacheTemplate(new FlowSetTemplate(FlowKind.OPTIONS, templateId, fields), header);
+      templates++;
+    }
+    return templates;
+  }
+
+  private List<NetflowV9Message> parseIpfix(ByteBuf buf, PacketHeader header) throws OnRecordErrorException {
+    // the message length includes the version that was already read
+    int messageStart = buf.readerIndex() - 2;
+    checkReadable(buf, buf.readerIndex(), buf.writerIndex(), IPFIX_HEADER_SIZE);
+    int length = buf.readUnsignedShort();
+    if (length < IPFIX_HEADER_SIZE + 2) {
+      throw new OnRecordErrorException(Errors.NETFLOW_01, Utils.format("Message length is invalid: {}", length));
+    }
+    int messageEnd = messageStart + length;
+    checkReadable(buf, messageStart, buf.writerIndex(), length);
+    header.unixSeconds = buf.readUnsignedInt();
+    header.sequenceNumber = buf.readUnsignedInt();
+    readSourceId(buf, header);
+
+    List<NetflowV9Message> result = new ArrayList<>();
+    int index = buf.readerIndex();
+    while (messageEnd - index >= SET_HEADER_SIZE) {
+      int setId = buf.getUnsignedShort(index);
+      int setEnd = getSetEnd(buf, index, messageEnd);
+      int position = index + SET_HEADER_SIZE;
+      switch (setId) {
+        case IPFIX_TEMPLATE_SET_ID:
+          readIpfixTemplates(buf, position, setEnd, false, header);
+          break;
+        case IPFIX_OPTIONS_TEMPLATE_SET_ID:
+          readIpfixTemplates(buf, position, setEnd, true, header);
+          break;
+        default:
+          if (setId < MIN_DATA_SET_ID) {
+            throw new OnRecordErrorException(Errors.NETFLOW_17, setId);
+          }
+          readDataRecords(buf, position, setEnd, setId, header, result);
+          break;
+      }
+      index = setEnd;
+    }
+    buf.readerIndex(messageEnd);
+
+    // IPFIX has no record count in the header, report the data records of the message
+    for (NetflowV9Message message : result) {
+      message.setFlowRecordCount(result.size());
+    }
+    return result;
+  }
+
+  private void readIpfixTemplates(
+      ByteBuf buf,
+      int position,
+      int end,
+      boolean options,
+      PacketHeader header
+  ) throws OnRecordErrorException {
+    // anything shorter than a template header, or with a template ID that can't be one, is padding
+    while (end - position >= 4 && buf.getUnsignedShort(position) >= MIN_DATA_SET_ID) {
+      int templateId = buf.getUnsignedShort(position);
+      int fieldCount = buf.getUnsignedShort(position + 2);
+      position += 4;
+      if (fieldCount == 0) {
+        // template withdrawal
+        flowSetTemplateCache.invalidate(cacheKey(options ? FlowKind.OPTIONS : FlowKind.FLOWSET, templateId, header));
+        continue;
+      }
+      if (options) {
+        // scope fields come first and are information elements like any other, no need to tell them apart
+        checkReadable(buf, position, end, 2);
+        position += 2;
+      }
+      List<NetflowV9FieldTemplate> fields = new ArrayList<>(fieldCount);
+      for (int i = 0; i < fieldCount; i++) {
+        checkReadable(buf, position, end, 4);
+        int elementId = buf.getUnsignedShort(position);
+        int length = buf.getUnsignedShort(position + 2);
+        position += 4;
+        long enterpriseNumber = 0;
+        if ((elementId & ENTERPRISE_BIT) != 0) {
+          checkReadable(buf, position, end, 4);
+          elementId &= ~ENTERPRISE_BIT;
+          enterpriseNumber = buf.getUnsignedInt(position);
+          position += 4;
+        }
+        fields.add(NetflowV9FieldTemplate.getIpfixFieldTemplate(elementId, length, enterpriseNumber));
+      }
+      cacheTemplate(new FlowSetTemplate(options ? FlowKind.OPTIONS : FlowKind.FLOWSET, templateId, fields), header);
+    }
+  }
+
+  private int readDataRecords(
+      ByteBuf buf,
+      int position,
+      int end,
+      int templateId,
+      PacketHeader header,
+      List<NetflowV9Message> result
+  ) throws OnRecordErrorException {
+    FlowSetTemplate template = flowSetTemplateCache.getIfPresent(cacheKey(FlowKind.FLOWSET, templateId, header));
+    if (template == null) {
+      template = flowSetTemplateCache.getIfPresent(cacheKey(FlowKind.OPTIONS, templateId, header));
+    }
+    if (template == null) {
+      throw new OnRecordErrorException(Errors.NETFLOW_11, templateId);
+    }
+    if (template.getTotalFieldsLength() <= 0) {
+      // nothing can be read with a template without fields
+      return 0;
+    }
+    boolean interpret = outputValuesMode != OutputValuesMode.RAW_ONLY;
+    if (interpret) {
+      template.checkFieldLengths();
+    }
+
+    int records = 0;
+    // anything shorter than a record is padding
+    while (end - position >= template.getTotalFieldsLength()) {
+      int[] fieldPositions = null;
+      int recordLength = template.getTotalFieldsLength();
+      if (template.isVariableLength()) {
+        fieldPositions = template.locateFields(buf, position, end, interpret);
+        if (fieldPositions == null) {
+          break;
+        }
+        recordLength = fieldPositions[fieldPositions.length - 1];
+      }
+      byte[] flowBytes = new byte[recordLength];
+      buf.getBytes(position, flowBytes);
+      position += recordLength;
+
+      NetflowV9Message msg = createMessage(header, template);
+      msg.setFlowBytes(template, flowBytes, fieldPositions);
+      result.add(msg);
+      records++;
+    }
+    return records;
+  }
+
+  private NetflowV9Message createMessage(PacketHeader header, FlowSetTemplate template) {
+    NetflowV9Message msg = new NetflowV9Message();
+    msg.setNetflowVersion(header.version);
+    msg.setSender(header.sender);
+    msg.setRecipient(header.recipient);
+    msg.setFlowKind(template.getTemplateKind());
+    msg.setOutputValuesMode(outputValuesMode);
+
+    // header fields
+    msg.setFlowRecordCount(header.count);
+    msg.setSystemUptimeMs(header.sysUptimeMs);
+    msg.setUnixSeconds(header.unixSeconds);
+    msg.setSequenceNumber(header.sequenceNumber);
+    msg.setSourceId(header.sourceId);
+    msg.setSourceIdBytes(header.sourceIdBytes);
+
+    msg.setFlowTemplateId(template.getTemplateId());
+    return msg;
+  }
+
+  private void cacheTemplate(FlowSetTemplate template, PacketHeader header) {
+    FlowSetTemplateCacheKey key = cacheKey(template.getTemplateKind(), template.getTemplateId(), header);
+    flowSetTemplateCache.put(key, template);
+    if (LOG.isTraceEnabled()) {
+      LOG.trace("Cached new {} template {} with {} fields", template.getTemplateKind(), key,
+          template.getFieldTemplates().size()
+      );
+    }
+  }
+
+  private static FlowSetTemplateCacheKey cacheKey(FlowKind kind, int templateId, PacketHeader header) {
+    return new FlowSetTemplateCacheKey(kind, header.sourceIdBytes, header.sender, templateId);
+  }
+
+  private static void readSourceId(ByteBuf buf, PacketHeader header) {
+    header.sourceIdBytes = new byte[4];
+    buf.readBytes(header.sourceIdBytes);
+    // signed as NetflowV9Decoder reads it, the observation domain ID of IPFIX is unsigned
+    header.sourceId = header.version == IPFIX_VERSION
+        ? buf.getUnsignedInt(buf.readerIndex() - 4)
+        : buf.getInt(buf.readerIndex() - 4);
+  }
+
+  private static int getSetEnd(ByteBuf buf, int index, int end) throws OnRecordErrorException {
+    int length = buf.getUnsignedShort(index + 2);
+    if (length < SET_HEADER_SIZE) {
+      throw new OnRecordErrorException(Errors.NETFLOW_01, Utils.format("Set length is invalid: {}", length));
+    }
+    checkReadable(buf, index, end, length);
+    return index + length;
+  }
+
+  private static void checkReadable(ByteBuf buf, int index, int end, int length) throws OnRecordErrorException {
+    if (end - index < length) {
+      throw new OnRecordErrorException(
+          Errors.NETFLOW_01,
+          Utils.format("Expected {} bytes at index {}, but only {} are available", length, index, end - index)
+      );
+    }
+  }
+}
@@ -0,0 +1,326 @@
+/*
+ * Copyright 2019 StreamSets Inc.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package com.streamsets.pipeline.lib.parser.net.netflow;
+
+import com.google.common.cache.Cache;
+import com.google.common.io.ByteStreams;
+import com.streamsets.pipeline.api.Field;
+import com.streamsets.pipeline.api.Record;
+import com.streamsets.pipeline.api.base.OnRecordErrorException;
+import com.streamsets.pipeline.lib.parser.net.netflow.v9.FlowSetTemplate;
+import com.streamsets.pipeline.lib.parser.net.netflow.v9.FlowSetTemplateCacheKey;
+import com.streamsets.pipeline.lib.parser.net.netflow.v9.NetflowV9Decoder;
+import com.streamsets.pipeline.lib.parser.net.netflow.v9.NetflowV9Field;
+import com.streamsets.pipeline.lib.parser.net.netflow.v9.NetflowV9FieldType;
+import com.streamsets.pipeline.lib.parser.net.netflow.v9.NetflowV9Message;
+import com.streamsets.pipeline.sdk.RecordCreator;
+import io.netty.buffer.ByteBuf;
+import io.netty.buffer.Unpooled;
+import io.netty.channel.embedded.EmbeddedChannel;
+import org.junit.Assert;
+import org.junit.Test;
+
+import java.io.IOException;
+import java.io.InputStream;
+import java.math.BigDecimal;
+import java.net.InetSocketAddress;
+import java.nio.charset.StandardCharsets;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Map;
+
+public class TestNetflowV9PacketDecoder {
+  private static final InetSocketAddress SENDER = InetSocketAddress.createUnresolved("exporter", 4739);
+  private static final int TEMPLATE_ID = 300;
+  private static final int ENTERPRISE_NUMBER = 9;
+
+  private static byte[] getMessagesBytes(String fileName) throws IOException {
+    InputStream is = Thread.currentThread().getContextClassLoader().getResourceAsStream(
+        "com/streamsets/pipeline/lib/parser/net/netflow/" + fileName
+    );
+    return ByteStreams.toByteArray(is);
+  }
+
+  private static List<NetflowV9Message> decodePackets(
+      NetflowCommonDecoder decoder,
+      byte[]... packets
+  ) throws OnRecordErrorException {
+    List<BaseNetflowMessage> messages = new ArrayList<>();
+    for (byte[] packet : packets) {
+      decoder.decodeStandaloneBuffer(Unpooled.wrappedBuffer(packet), messages, SENDER, null);
+    }
+    List<NetflowV9Message> result = new ArrayList<>();
+    messages.forEach(message -> result.add((NetflowV9Message) message));
+    return result;
+  }
+
+  private static List<NetflowV9Message> decodeStream(NetflowCommonDecoder decoder, byte[]... packets) {
+    EmbeddedChannel ch = new EmbeddedChannel(decoder);
+    for (byte[] packet : packets) {
+      // one byte at a time, so the decoder has to wait for the rest of the data
+      for (byte b : packet) {
+        ch.writeInbound(Unpooled.wrappedBuffer(new byte[]{b}));
+      }
+    }
+    List<NetflowV9Message> result = new ArrayList<>();
+    Object message;
+    while ((message = ch.readInbound()) != null) {
+      result.add((NetflowV9Message) message);
+    }
+    ch.finish();
+    return result;
+  }
+
+  private static NetflowCommonDecoder makeDecoder() {
+    return new NetflowCommonDecoder(OutputValuesMode.RAW_AND_INTERPRETED, -1, -1);
+  }
+
+  private static void assertSameFlows(List<NetflowV9Message> expected, List<NetflowV9Message> actual) {
+    Assert.assertEquals(expected.size(), actual.size());
+    for (int i = 0; i < expected.size(); i++) {
+      List<NetflowV9Field> expectedFields = expected.get(i).getFields();
+      List<NetflowV9Field> actualFields = actual.get(i).getFields();
+      Assert.assertEquals(expectedFields.size(), actualFields.size());
+      for (int f = 0; f < expectedFields.size(); f++) {
+        NetflowV9Field expectedField = expectedFields.get(f);
+        NetflowV9Field actualField = actualFields.get(f);
+        Assert.assertEquals(expectedField.getSdcFieldName(), actualField.getSdcFieldName());
+        Assert.assertArrayEquals(expectedField.getRawValue(), actualField.getRawValue());
+        assertSameValue(expectedField.getInterpretedValueField(), actualField.getInterpretedValueField());
+      }
+
+      Record expectedRecord = RecordCreator.create();
+      expected.get(i).populateRecord(expectedRecord);
+      Record actualRecord = RecordCreator.create();
+      actual.get(i).populateRecord(actualRecord);
+      assertSameMap(expectedRecord, actualRecord, NetflowV9Message.FIELD_INTERPRETED_VALUES);
+      assertSameMap(expectedRecord, actualRecord, NetflowV9Message.FIELD_RAW_VALUES);
+      assertSameMap(expectedRecord, actualRecord, NetflowV9Message.FIELD_PACKET_HEADER);
+    }
+  }
+
+  private static void assertSameMap(Record expected, Record actual, String fieldName) {
+    Map<String, Field> expectedValues = expected.get("/" + fieldName).getValueAsListMap();
+    Map<String, Field> actualValues = actual.get("/" + fieldName).getValueAsListMap();
+    Assert.assertEquals(expectedValues.keySet(), actualValues.keySet());
+    expectedValues.forEach((name, value) -> assertSameValue(value, actualValues.get(name)));
+  }
+
+  private static void assertSameValue(Field expected, Field actual) {
+    Assert.assertEquals(expected.getType(), actual.getType());
+    if (expected.getType() == Field.Type.BYTE_ARRAY) {
+      Assert.assertArrayEquals(expected.getValueAsByteArray(), actual.getValueAsByteArray());
+    } else {
+      Assert.assertEquals(expected.getValue(), actual.getValue());
+    }
+  }
+
+  @Test
+  public void testSameFlowsAsStreamDecoder() throws Exception {
+    byte[] sevenFlows = getMessagesBytes("netflow-v9-packet-7_flows.bin");
+    assertSameFlows(decodeStream(makeDecoder(), sevenFlows), decodePackets(makeDecoder(), sevenFlows));
+
+    byte[] template = getMessagesBytes("ciscoasa/netflow9_test_cisco_asa_1_tpl.dat");
+    byte[] data = getMessagesBytes("ciscoasa/netflow9_test_cisco_asa_1_data.dat");
+    List<NetflowV9Message> packetFlows = decodePackets(makeDecoder(), template, data);
+    Assert.assertEquals(14, packetFlows.size());
+    assertSameFlows(decodeStream(makeDecoder(), template, data), packetFlows);
+  }
+
+  @Test
+  public void testSharedTemplateCache() throws Exception {
+    Cache<FlowSetTemplateCacheKey, FlowSetTemplate> cache = NetflowV9Decoder.buildTemplateCache(10, -1);
+    byte[] template = getMessagesBytes("ciscoasa/netflow9_test_cisco_asa_1_tpl.dat");
+    byte[] data = getMessagesBytes("ciscoasa/netflow9_test_cisco_asa_1_data.dat");
+
+    // a new decoder for every packet, as the UDP parser does
+    decodePackets(new NetflowCommonDecoder(OutputValuesMode.RAW_AND_INTERPRETED, () -> cache), template);
+    List<NetflowV9Message> flows = decodePackets(
+        new NetflowCommonDecoder(OutputValuesMode.RAW_AND_INTERPRETED, () -> cache),
+        data
+    );
+    Assert.assertEquals(14, flows.size());
+
+    try {
+      decodePackets(makeDecoder(), data);
+      Assert.fail("Expected a missing template error");
+    } catch (OnRecordErrorException e) {
+      Assert.assertEquals(Errors.NETFLOW_11, e.getErrorCode());
+    }
+  }
+
+  private static void writeIpfixHeader(ByteBuf buf, int length) {
+    buf.writeShort(10);
+    buf.writeShort(length);
+    // export time
+    buf.writeInt(1550000000);
+    // sequence number
+    buf.writeInt(42);
+    // observation domain
+    buf.writeInt(7);
+  }
+
+  private static byte[] toBytes(ByteBuf buf) {
+    byte[] bytes = new byte[buf.readableBytes()];
+    buf.readBytes(bytes);
+    return bytes;
+  }
+
+  private static byte[] getIpfixTemplateMessage() {
+    ByteBuf buf = Unpooled.buffer();
+    writeIpfixHeader(buf, 16 + 4 + 4 + 5 * 4 + 4);
+    buf.writeShort(2);
+    buf.writeShort(4 + 4 + 5 * 4 + 4);
+    buf.writeShort(TEMPLATE_ID);
+    buf.writeShort(5);
+    // IPV4_SRC_ADDR
+    buf.writeShort(8);
+    buf.writeShort(4);
+    // L4_SRC_PORT
+    buf.writeShort(7);
+    buf.writeShort(2);
+    // IN_BYTES
+    buf.writeShort(1);
+    buf.writeShort(8);
+    // APPLICATION_NAME
+    buf.writeShort(96);
+    buf.writeShort(65535);
+    // enterprise specific element
+    buf.writeShort(1 | 0x8000);
+    buf.writeShort(2);
+    buf.writeInt(ENTERPRISE_NUMBER);
+    return toBytes(buf);
+  }
+
+  private static byte[] getIpfixDataMessage() {
+    byte[] http = "http".getBytes(StandardCharsets.UTF_8);
+    byte[] dns = "dns".getBytes(StandardCharsets.UTF_8);
+    int setLength = 4 + (4 + 2 + 8 + 1 + http.length + 2) + (4 + 2 + 8 + 1 + dns.length + 2);
+    ByteBuf buf = Unpooled.buffer();
+    writeIpfixHeader(buf, 16 + setLength);
+    buf.writeShort(TEMPLATE_ID);
+    buf.writeShort(setLength);
+
+    buf.writeBytes(new byte[]{10, 0, 0, 1});
+    buf.writeShort(80);
+    buf.writeLong(1500);
+    buf.writeByte(http.length);
+    buf.writeBytes(http);
+    buf.writeShort(1);
+
+    buf.writeBytes(new byte[]{10, 0, 0, 2});
+    buf.writeShort(53);
+    buf.writeLong(Long.MAX_VALUE);
+    buf.writeByte(dns.length);
+    buf.writeBytes(dns);
+    buf.writeShort(2);
+    return toBytes(buf);
+  }
+
+  private static void assertIpfixFlows(List<NetflowV9Message> flows) {
+    Assert.assertEquals(2, flows.size());
+    for (NetflowV9Message flow : flows) {
+      Assert.assertEquals(10, flow.getNetflowVersion());
+      Assert.assertEquals(TEMPLATE_ID, flow.getFlowTemplateId());
+      Assert.assertEquals(2, flow.getFlowRecordCount());
+      Assert.assertEquals(1550000000L, flow.getUnixSeconds());
+      Assert.assertEquals(42L, flow.getSequenceNumber());
+      Assert.assertEquals(7L, flow.getSourceId());
+    }
+
+    Map<String, Field> values = flows.get(0).createFieldsMap(false);
+    Assert.assertEquals("10.0.0.1", values.get(NetflowV9FieldType.IPV4_SRC_ADDR.name()).getValue());
+    Assert.assertEquals(80, values.get(NetflowV9FieldType.L4_SRC_PORT.name()).getValue());
+    Assert.assertEquals(BigDecimal.valueOf(1500), values.get(NetflowV9FieldType.IN_BYTES.name()).getValue());
+    Assert.assertEquals("http", values.get(NetflowV9FieldType.APPLICATION_NAME.name()).getValue());
+    Assert.assertArrayEquals(
+        new byte[]{0, 1},
+        values.get("type_1_enterprise_" + ENTERPRISE_NUMBER).getValueAsByteArray()
+    );
+
+    values = flows.get(1).createFieldsMap(false);
+    Assert.assertEquals("10.0.0.2", values.get(NetflowV9FieldType.IPV4_SRC_ADDR.name()).getValue());
+    Assert.assertEquals(
+        BigDecimal.valueOf(Long.MAX_VALUE),
+        values.get(NetflowV9FieldType.IN_BYTES.name()).getValue()
+    );
+    Assert.assertEquals("dns", values.get(NetflowV9FieldType.APPLICATION_NAME.name()).getValue());
+
+    Record record = RecordCreator.create();
+    flows.get(1).populateRecord(record);
+    Assert.assertEquals(10, record.get("/packetHeader/version").getValueAsInteger());
+    Assert.assertArrayEquals(
+        "dns".getBytes(StandardCharsets.UTF_8),
+        record.get("/rawValues/APPLICATION_NAME").getValueAsByteArray()
+    );
+  }
+
+  @Test
+  public void testIpfix() throws Exception {
+    assertIpfixFlows(decodePackets(makeDecoder(), getIpfixTemplateMessage(), getIpfixDataMessage()));
+  }
+
+  @Test
+  public void testIpfixStream() throws Exception {
+    assertIpfixFlows(decodeStream(makeDecoder(), getIpfixTemplateMessage(), getIpfixDataMessage()));
+  }
+
+  @Test
+  public void testIpfixTemplateWithdrawal() throws Exception {
+    ByteBuf buf = Unpooled.buffer();
+    writeIpfixHeader(buf, 16 + 8);
+    buf.writeShort(2);
+    buf.writeShort(8);
+    buf.writeShort(TEMPLATE_ID);
+    buf.writeShort(0);
+
+    NetflowCommonDecoder decoder = makeDecoder();
+    decodePackets(decoder, getIpfixTemplateMessage(), toBytes(buf));
+    try {
+      decodePackets(decoder, getIpfixDataMessage());
+      Assert.fail("Expected a missing template error");
+    } catch (OnRecordErrorException e) {
+      Assert.assertEquals(Errors.NETFLOW_11, e.getErrorCode());
+    }
+  }
+
+  @Test
+  public void testIpfixInvalidSetId() throws Exception {
+    ByteBuf buf = Unpooled.buffer();
+    writeIpfixHeader(buf, 16 + 4);
+    buf.writeShort(5);
+    buf.writeShort(4);
+    try {
+      decodePackets(makeDecoder(), toBytes(buf));
+      Assert.fail("Expected an invalid set error");
+    } catch (OnRecordErrorException e) {
+      Assert.assertEquals(Errors.NETFLOW_17, e.getErrorCode());
+    }
+  }
+
+  @Test
+  public void testTruncatedPacket() throws Exception {
+    byte[] sevenFlows = getMessagesBytes("netflow-v9-packet-7_flows.bin");
+    byte[] truncated = new byte[sevenFlows.length - 10];
+    System.arraycopy(sevenFlows, 0, truncated, 0, truncated.length);
+    try {
+      decodePackets(makeDecoder(), truncated);
+      Assert.fail("Expected a corrupt packet error");
+    } catch (OnRecordErrorException e) {
+      Assert.assertEquals(Errors.NETFLOW_01, e.getErrorCode());
+    }
+  }
+}